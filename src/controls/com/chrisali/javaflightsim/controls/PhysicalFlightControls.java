@@ -25,7 +25,9 @@ import com.chrisali.javaflightsim.datatransfer.FlightData;
 import com.chrisali.javaflightsim.datatransfer.FlightDataListener;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
-import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.FrameListener;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
+import com.chrisali.javaflightsim.simulation.integration.FrameScheduler;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
 import com.chrisali.javaflightsim.simulation.setup.Options;
 import java.util.EnumSet;
@@ -36,19 +38,24 @@ import java.util.Map;
  * {@link Joystick}, {@link Keyboard}, {@link Mouse} or {@link CHControls}, or by P/PD controllers such as autopilots
  * and stability augmentation sytems. Also contains method to inject doublets into controls when simulation is run
  * as analysis. Uses {@link FlightDataListener} to feed back {@link FlightData} to use in P/PD controllers.
+ * <p>
+ * The controls are normally updated at each frame of the {@link FrameScheduler} of the simulation, in the {@link FramePhase#INPUT}
+ * phase, so that they are sampled on the same frame as the step of integration using them; they can also be run on their own thread.</p>
  *
  * @author Christopher Ali
  * @author Herve Girod
  * @version 0.8
  */
-public class PhysicalFlightControls implements Runnable, FlightDataListener {
+public class PhysicalFlightControls implements Runnable, FrameListener, FlightDataListener {
    private static boolean running;
    private Map<FlightControlType, Double> controls;
    private final Map<IntegratorConfig, Double> integratorConfig;
    private final EnumSet<Options> options;
+   private final SimulationController simController;
 
    private AbstractPhysicalController hidController;
    private final Keyboard hidKeyboard;
+   private boolean initialized = false;
 
    /**
     * Constructor for {@link FlightControls}; {@link SimulationController} argument to initialize {@link IntegratorConfig}
@@ -60,6 +67,7 @@ public class PhysicalFlightControls implements Runnable, FlightDataListener {
       this.controls = simController.getControls();
       this.integratorConfig = simController.getIntegratorConfig();
       this.options = simController.getSimulationOptions();
+      this.simController = simController;
 
       this.hidKeyboard = new Keyboard(controls, simController);
 
@@ -67,9 +75,46 @@ public class PhysicalFlightControls implements Runnable, FlightDataListener {
       FlightControlsUtilities.init();
    }
 
+   /**
+    * Runs the flight controls on their own thread, updating them every time step of the simulation, until
+    * {@link PhysicalFlightControls#setRunning(boolean)} is set to false
+    */
    @Override
    public void run() {
-      // Use controllers for pilot in loop simulation if ANALYSIS_MODE not enabled
+      initialize();
+
+      while (running) {
+         try {
+            updateFlightControls();
+
+            if (!options.contains(Options.ANALYSIS_MODE)) {
+               Thread.sleep((long) (integratorConfig.get(IntegratorConfig.DT) * 1000));
+            }
+         } catch (InterruptedException e) {
+         }
+      }
+
+      running = false;
+   }
+
+   /**
+    * Updates the flight controls at each frame of the {@link FrameScheduler} of the simulation
+    *
+    * @param frameIndex the index of the frame
+    */
+   @Override
+   public void onFrame(long frameIndex) {
+      if (!initialized) {
+         initialize();
+      }
+
+      updateFlightControls();
+   }
+
+   /**
+    * Creates the controller used for pilot in loop simulation if ANALYSIS_MODE not enabled
+    */
+   private void initialize() {
       if (!options.contains(Options.ANALYSIS_MODE)) {
          if (options.contains(Options.USE_JOYSTICK)) {
             hidController = new Joystick(controls);
@@ -80,35 +125,32 @@ public class PhysicalFlightControls implements Runnable, FlightDataListener {
          }
       }
 
+      initialized = true;
       running = true;
+   }
 
-      while (running) {
-         try {
-            // if not running in analysis mode, controls and options should be updated using updateFlightControls()/updateOptions()
-            if (!options.contains(Options.ANALYSIS_MODE)) {
-               if (hidController != null) {
-                  controls = hidController.updateFlightControls(controls);
-               }
-
-               controls = hidKeyboard.updateFlightControls(controls);
-
-               hidKeyboard.hotKeys();
+   /**
+    * Updates the controls and options with the human interface devices, or with generated doublets in analysis mode
+    */
+   private void updateFlightControls() {
+      // if not running in analysis mode, controls and options should be updated using updateFlightControls()/updateOptions()
+      if (!options.contains(Options.ANALYSIS_MODE)) {
+         if (hidController != null) {
+            controls = hidController.updateFlightControls(controls);
+         }
 
-               Thread.sleep((long) (integratorConfig.get(IntegratorConfig.DT) * 1000));
-               // in analysis mode, controls updated using generated doublets instead of pilot input
-            } else {
-               controls = FlightControlsUtilities.doubletSeries(controls, Integrate6DOFEquations.getTime());
-            }
+         controls = hidKeyboard.updateFlightControls(controls);
 
-         } catch (InterruptedException e) {
-         }
+         hidKeyboard.hotKeys();
+         // in analysis mode, controls updated using generated doublets instead of pilot input
+      } else if (simController.getSimulation() != null) {
+         controls = FlightControlsUtilities.doubletSeries(controls, simController.getSimulation().getTime());
       }
-
-      running = false;
    }
 
    /**
-    * Receive fed back flight data to be used with P/PD controllers
+    * Receive fed back flight data. Closed loop control laws (P/PD controllers, autopilot) are not run here, but by the
+    * {@link com.chrisali.javaflightsim.simulation.controls.laws.FlightControlSystem} of the simulation, at each step of integration
     */
    @Override
    public void onFlightDataReceived(FlightData flightData) {
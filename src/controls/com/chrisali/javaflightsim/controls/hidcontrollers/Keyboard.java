@@ -17,7 +17,7 @@ package com.chrisali.javaflightsim.controls.hidcontrollers;
 
 import com.chrisali.javaflightsim.controllers.SimulationController;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
-import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.FrameScheduler;
 import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
 import com.chrisali.javaflightsim.simulation.setup.Options;
 import java.util.ArrayList;
@@ -37,16 +37,19 @@ import net.java.games.input.ControllerEnvironment;
  * controlled by Page Up/Down. The simulation can be toggled paused by pressing P, and while paused
  * the simulation can be reset to initial conditions defined by
  * {@link IntegrationSetup#gatherInitialConditions(java.io.File)} by pressing R.
+ * T cycles the time compression of the simulation through 1x, 2x, 4x, 16x and as fast as possible.
  * The simulation is quit by pressing Q and L plots the simulation.
  *
  * @see AbstractPhysicalController
  * @version 0.5
  */
 public class Keyboard extends AbstractPhysicalController {
+   private static final double[] TIME_COMPRESSIONS = {1, 2, 4, 16, FrameScheduler.AS_FAST_AS_POSSIBLE};
    // Keep track if button is pressed, so events occur only once if button held down
    private boolean pPressed = false;
    private boolean rPressed = false;
    private boolean gPressed = false;
+   private boolean tPressed = false;
    // Keep track of reset, so that it can only be run once per pause
    private boolean wasReset = false;
    private final SimulationController simController;
@@ -99,6 +102,7 @@ public class Keyboard extends AbstractPhysicalController {
     * R resets it back to the initial conditions defined in InitialConditions.txt<br>
     * Q quits the simulation<br>
     * L plots the simulation<br>
+    * T cycles the time compression<br>
     */
    public void hotKeys() {
       // Iterate through all controllers connected
@@ -146,9 +150,21 @@ public class Keyboard extends AbstractPhysicalController {
                continue;
             }
 
+            // Cycles time compression
+            if (componentIdentifier.getName().matches(Component.Identifier.Key.T.toString())) {
+               if (component.getPollData() == 1.0f && !tPressed) {
+                  cycleTimeCompression();
+                  tPressed = true;
+               } else if (component.getPollData() == 0.0f && tPressed) {
+                  tPressed = false;
+               }
+
+               continue;
+            }
+
             // Quits simulation
             if (componentIdentifier.getName().matches(Component.Identifier.Key.Q.toString())) {
-               if (component.getPollData() == 1.0f && Integrate6DOFEquations.isRunning()) {
+               if (component.getPollData() == 1.0f && simController.getSimulation() != null && simController.getSimulation().isRunning()) {
                   simController.stopSimulation();
                }
 
@@ -158,7 +174,7 @@ public class Keyboard extends AbstractPhysicalController {
             // Plots simulation
             if (componentIdentifier.getName().matches(Component.Identifier.Key.L.toString())) {
                if (component.getPollData() == 1.0f && simController.getSimulation() != null
-                  && Integrate6DOFEquations.isRunning() && !simController.isDataAnalyzerRunning()) {
+                  && simController.getSimulation().isRunning() && !simController.isDataAnalyzerRunning()) {
                   simController.analyzeSimulation();
                }
 
@@ -168,6 +184,22 @@ public class Keyboard extends AbstractPhysicalController {
       }
    }
 
+   /**
+    * Selects the next time compression of {@link Keyboard#TIME_COMPRESSIONS}, returning to real time after the last one
+    */
+   private void cycleTimeCompression() {
+      double timeCompression = TIME_COMPRESSIONS[0];
+      for (int i = 0; i < TIME_COMPRESSIONS.length - 1; i++) {
+         if (simController.getTimeCompression() == TIME_COMPRESSIONS[i]) {
+            timeCompression = TIME_COMPRESSIONS[i + 1];
+            break;
+         }
+      }
+
+      simController.setTimeCompression(timeCompression);
+      System.err.println("Time Compression: " + (timeCompression == FrameScheduler.AS_FAST_AS_POSSIBLE ? "As Fast As Possible" : timeCompression + "x"));
+   }
+
    /**
     * Get button values from keyboard, and return a Map for updateFlightControls in {@link SimulationController}.
     *
@@ -34,8 +34,11 @@ import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
 import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.integration.FlightLog;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.recording.FlightRecorder;
 import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
 import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
@@ -43,9 +46,9 @@ import com.chrisali.javaflightsim.simulation.setup.Options;
 import com.chrisali.javaflightsim.simulation.setup.Trimming;
 import com.chrisali.javaflightsim.utilities.FileUtilities;
 import java.io.File;
+import java.io.IOException;
 import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -66,6 +69,9 @@ import java.util.Map;
  * @version 0.5
  */
 public class SimulationController {
+   // Rate at which the flight data is delivered to the out the window display (Hz)
+   private static final double OUT_THE_WINDOW_RATE = 60;
+
    // Configuration
    private EnumMap<DisplayOptions, Integer> displayOptions;
    private EnumMap<AudioOptions, Float> audioOptions;
@@ -76,10 +82,13 @@ public class SimulationController {
 
    // Simulation
    private Map<FlightControlType, Double> flightControls;
+   private PhysicalFlightControls physicalFlightControls;
+   private double timeCompression = 1;
    private Integrate6DOFEquations runSim;
    private Thread simulationThread;
    private final FlightData flightData;
    private Thread flightDataThread;
+   private File recordingFile = null;
 
    // providers
    private OTWWorld worldRenderer = null;
@@ -96,7 +105,6 @@ public class SimulationController {
    // Out the Window
    private RunWorld outTheWindow;
    private Thread outTheWindowThread;
-   private Thread environmentDataThread;
    private EnvironmentData environmentData;
 
    /**
@@ -315,10 +323,10 @@ public class SimulationController {
    }
 
    /**
-    * @return ArrayList of simulation output data
+    * @return FlightLog of simulation output data
     * @see SimOuts
     */
-   public List<Map<SimOuts, Double>> getLogsOut() {
+   public FlightLog getLogsOut() {
       return runSim.getLogsOut();
    }
 
@@ -333,6 +341,23 @@ public class SimulationController {
       }
    }
 
+   /**
+    * Sets the file to which the simulations started by {@link SimulationController#startSimulation()} are recorded by a
+    * {@link FlightRecorder} while they run.
+    *
+    * @param recordingFile the recording file, or null to not record the simulations
+    */
+   public void setRecordingFile(File recordingFile) {
+      this.recordingFile = recordingFile;
+   }
+
+   /**
+    * @return the file to which the simulations are recorded, or null if they are not recorded
+    */
+   public File getRecordingFile() {
+      return recordingFile;
+   }
+
    public void setWorldRenderer(OTWWorld worldRenderer) {
       this.worldRenderer = worldRenderer;
    }
@@ -350,6 +375,17 @@ public class SimulationController {
       this.flightControls = flightControls;
    }
 
+   /**
+    * Sets the flight controls updated at each frame of the simulation started by {@link SimulationController#startSimulation()}, instead
+    * of running on their own thread. Their controls map is also used as the controls of the simulation.
+    *
+    * @param physicalFlightControls the flight controls
+    */
+   public void setPhysicalFlightControls(PhysicalFlightControls physicalFlightControls) {
+      this.physicalFlightControls = physicalFlightControls;
+      setFlightControls(physicalFlightControls.getFlightControls());
+   }
+
    /**
     * Return the FlightData.
     *
@@ -366,13 +402,17 @@ public class SimulationController {
    public void startSimulation() {
       Trimming.trimSim(this, false);
       runSim = new Integrate6DOFEquations(flightControls, this);
-      simulationThread = new Thread(runSim);
+      if (physicalFlightControls != null) {
+         runSim.getFrameScheduler().addFrameListener(physicalFlightControls, FramePhase.INPUT);
+      }
+      runSim.getFrameScheduler().setTimeCompression(timeCompression);
+      simulationThread = new Thread(createSimulationRunnable(runSim));
       simulationThread.start();
 
       if (simulationOptions.contains(Options.ANALYSIS_MODE)) {
          try {
-            // Wait a bit to allow the simulation to finish running
-            Thread.sleep(1000);
+            // Wait for the simulation to finish running
+            simulationThread.join();
             analyzeSimulation();
             //Stop flight controls thread after analysis finished
             PhysicalFlightControls.setRunning(false);
@@ -390,29 +430,65 @@ public class SimulationController {
 
          environmentData = new EnvironmentData(outTheWindow);
          environmentData.addEnvironmentDataListener(runSim);
-
-         environmentDataThread = new Thread(environmentData);
-         environmentDataThread.start();
+         runSim.getFrameScheduler().addFrameListener(environmentData, FramePhase.INPUT);
 
          flightData.setIntegrate6DOFEquations(runSim);
          if (guiManager != null) {
             guiManager.addFlightDataListeners(flightData);
          }
-         flightData.addFlightDataListener(outTheWindow.getWorldRenderer());
-         flightData.addFlightDataListener(outTheWindow.getTerrainProvider());
+         flightData.addFlightDataListener(outTheWindow.getWorldRenderer(), OUT_THE_WINDOW_RATE);
+         flightData.addFlightDataListener(outTheWindow.getTerrainProvider(), OUT_THE_WINDOW_RATE);
 
          flightDataThread = new Thread(flightData);
          flightDataThread.start();
       }
    }
 
+   /**
+    * Wraps the simulation in a runnable recording it, if a recording file is set; the recording is closed on the simulation thread once
+    * the simulation stops.
+    *
+    * @param simulation the simulation
+    * @return the runnable
+    */
+   private Runnable createSimulationRunnable(final Integrate6DOFEquations simulation) {
+      if (recordingFile == null) {
+         return simulation;
+      }
+
+      final FlightRecorder recorder;
+      try {
+         recorder = new FlightRecorder(recordingFile, ab.getAircraft().getName(), integratorConfig.get(IntegratorConfig.DT),
+                 simulationOptions);
+      } catch (IOException e) {
+         System.err.println("Unable to create flight recording " + recordingFile + ": " + e.getLocalizedMessage());
+         return simulation;
+      }
+      simulation.addSimOutsListener(recorder);
+
+      return new Runnable() {
+         @Override
+         public void run() {
+            try {
+               simulation.run();
+            } finally {
+               try {
+                  recorder.close();
+               } catch (IOException e) {
+                  System.err.println("Error while writing flight recording " + recordingFile + ": " + e.getLocalizedMessage());
+               }
+            }
+         }
+      };
+   }
+
    /**
     * Stops simulation, flight controls and data transfer threads (if running), closes the raw
     * data {@link com.chrisali.javaflightsim.launcher.consoletable.ConsoleTablePanel}, {@link SimulationWindow}, and opens the main menus window again.
     */
    public void stopSimulation() {
-      if (runSim != null && Integrate6DOFEquations.isRunning() && simulationThread != null && simulationThread.isAlive()) {
-         Integrate6DOFEquations.setRunning(false);
+      if (runSim != null && runSim.isRunning() && simulationThread != null && simulationThread.isAlive()) {
+         runSim.setRunning(false);
          PhysicalFlightControls.setRunning(false);
       }
 
@@ -427,6 +503,33 @@ public class SimulationController {
       guiManager.disposeSimulationWindow();
    }
 
+   /**
+    * Sets the ratio between the simulation time and the wall time of the pilot in the loop simulation (1 by default); it is applied
+    * immediately to the running simulation, if any, and to the next simulations started. The rendering and the flight data keep their
+    * rate, several steps of integration being run per frame. It is not used in {@link Options#ANALYSIS_MODE}.
+    *
+    * @param timeCompression the time compression, strictly positive, or
+    * {@link com.chrisali.javaflightsim.simulation.integration.FrameScheduler#AS_FAST_AS_POSSIBLE}
+    */
+   public void setTimeCompression(double timeCompression) {
+      if (!(timeCompression > 0)) {
+         System.err.println("Invalid time compression: " + timeCompression + "! Keeping " + this.timeCompression + ".");
+         return;
+      }
+
+      this.timeCompression = timeCompression;
+      if (runSim != null) {
+         runSim.getFrameScheduler().setTimeCompression(timeCompression);
+      }
+   }
+
+   /**
+    * @return the ratio between the simulation time and the wall time of the pilot in the loop simulation
+    */
+   public double getTimeCompression() {
+      return timeCompression;
+   }
+
    //=============================== Plotting =============================================================
    /**
     * Initializes the plot window if not already initialized, otherwise refreshes the window and sets it visible again
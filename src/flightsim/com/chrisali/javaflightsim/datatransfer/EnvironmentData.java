@@ -16,6 +16,9 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
 package com.chrisali.javaflightsim.datatransfer;
 
 import com.chrisali.javaflightsim.rendering.RunWorld;
+import com.chrisali.javaflightsim.simulation.integration.FrameListener;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
+import com.chrisali.javaflightsim.simulation.integration.FrameScheduler;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -25,9 +28,10 @@ import java.util.Map;
 
 /**
  * Interacts with {@link RunWorld} and any registered listeners to pass data from the out the window display back to
- * the simulation {@link Integrate6DOFEquations}. Uses threading to obtain data at a reasonable rate
+ * the simulation {@link Integrate6DOFEquations}. The data is obtained at each frame of the {@link FrameScheduler} of the simulation,
+ * in the {@link FramePhase#INPUT} phase, so that the terrain height is sampled on the same frame as the step of integration using it
  */
-public class EnvironmentData implements Runnable {
+public class EnvironmentData implements FrameListener {
 
    private static boolean running;
    private Map<EnvironmentDataType, Double> environmentData = Collections.synchronizedMap(new EnumMap<EnvironmentDataType, Double>(EnvironmentDataType.class));
@@ -37,13 +41,14 @@ public class EnvironmentData implements Runnable {
 
    /**
     * Creates an instance of {@link EnvironmentData} with a reference to {@link RunWorld} so
-    * that the thread in this class knows when the out the window display is running
+    * that it knows when the out the window display is running
     *
     * @param outTheWindow
     */
    public EnvironmentData(RunWorld outTheWindow) {
       this.outTheWindow = outTheWindow;
       this.dataListenerList = new ArrayList<>();
+      setRunning(true);
    }
 
    public Map<EnvironmentDataType, Double> getEnvironmentData() {
@@ -62,25 +67,15 @@ public class EnvironmentData implements Runnable {
       fireDataArrived();
    }
 
+   /**
+    * Obtains the terrain height from the out the window display once it is running, and passes it to the listeners
+    *
+    * @param frameIndex the index of the frame
+    */
    @Override
-   public void run() {
-      running = true;
-
-      try {
-         while (!outTheWindow.isRunning()) {
-            Thread.sleep(25);
-         }
-
-         while (running) {
-            Thread.sleep(10);
-
-            if (outTheWindow != null) {
-               updateData(outTheWindow.getTerrainHeight());
-            }
-         }
-      } catch (InterruptedException e) {
-      } finally {
-         running = false;
+   public void onFrame(long frameIndex) {
+      if (isRunning() && outTheWindow != null && outTheWindow.isRunning()) {
+         updateData(outTheWindow.getTerrainHeight());
       }
    }
 
@@ -107,7 +102,7 @@ public class EnvironmentData implements Runnable {
    }
 
    /**
-    * Lets other objects know if the {@link EnvironmentData} thread is running
+    * Lets other objects know if the flow of {@link EnvironmentData} is running
     *
     * @return Running status of flight data
     */
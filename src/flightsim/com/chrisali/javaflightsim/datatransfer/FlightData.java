@@ -16,136 +16,296 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
  */
 package com.chrisali.javaflightsim.datatransfer;
 
+import com.chrisali.javaflightsim.simulation.integration.FrameListener;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
+import com.chrisali.javaflightsim.simulation.integration.FrameScheduler;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsBuffer;
 import com.chrisali.javaflightsim.utilities.FileUtilities;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Interacts with {@link Integrate6DOFEquations} and any registered listeners to pass flight data from the simulation
- * listeners. Uses threading to obtain data from the simulation at a reasonable rate.
+ * listeners. The {@link FrameScheduler} of the simulation notifies this class at each frame, in the {@link FramePhase#OUTPUT} phase,
+ * and the simulation outputs of the frame are published to a {@link SimOutsBuffer}, which never blocks the simulation thread.
+ *
+ * <p>
+ * Each listener is subscribed through a {@link FlightDataSubscription}, which passes the data to the listener on its own thread and at
+ * its own rate, either from a latest-value slot or from a bounded queue. A slow listener therefore never delays the simulation nor the
+ * other listeners: the data it cannot keep up with is dropped, and counted by its subscription. The thread of this class only manages the
+ * lifecycle of the subscriptions.</p>
  */
-public class FlightData implements Runnable {
+public class FlightData implements Runnable, FrameListener {
+   /**
+    * Default rate of delivery of a subscription: each publication is delivered as soon as it is published
+    */
+   public static final double DEFAULT_RATE = 0;
+   // Maximum time to wait before checking if the simulation is still running (ms)
+   private static final long RUNNING_WAIT_TIMEOUT = 100;
+   private static final int SIM_OUTS_COUNT = SimOuts.values().length;
    private static boolean running;
+   private final SimOutsBuffer buffer = new SimOutsBuffer();
+   private final double[] simOutValues = new double[SIM_OUTS_COUNT];
    private final Map<FlightDataType, Double> flightData = Collections.synchronizedMap(new EnumMap<>(FlightDataType.class));
+   private long convertedVersion = 0;
    private Integrate6DOFEquations runSim = null;
-   private final List<FlightDataListener> dataListenerList;
-   private final Set<FlightDataListener> dataListeners;
+   private volatile FlightDataSubscription[] subscriptions = new FlightDataSubscription[0];
+   private volatile boolean delivering = false;
 
    /**
-    * Creates an instance of {@link FlightData} with a reference to {@link Integrate6DOFEquations} so
-    * that the thread in this class knows when the simulation is running.
+    * Creates an instance of {@link FlightData}. The simulation is set with
+    * {@link FlightData#setIntegrate6DOFEquations(Integrate6DOFEquations)} so that the thread in this class knows when the simulation is
+    * running.
     */
    public FlightData() {
-      this.dataListenerList = new ArrayList<>();
-      this.dataListeners = new HashSet<>();
    }
 
    /**
-    * Set the Integrate6DOFEquations.
+    * Set the Integrate6DOFEquations, and adds this object to the output phase of its {@link FrameScheduler}.
     *
     * @param runSim the Integrate6DOFEquations
     */
    public void setIntegrate6DOFEquations(Integrate6DOFEquations runSim) {
       this.runSim = runSim;
+      runSim.getFrameScheduler().addFrameListener(this, FramePhase.OUTPUT);
+   }
+
+   /**
+    * @return the index of the frame of the data last published, or -1 if no data has been published yet
+    */
+   public long getFrameIndex() {
+      return buffer.getVersion() == 0 ? -1 : buffer.getFrameIndex();
+   }
+
+   /**
+    * @return the buffer to which the simulation outputs are published
+    */
+   public SimOutsBuffer getSimOutsBuffer() {
+      return buffer;
    }
 
+   /**
+    * Publishes the simulation outputs of a new frame to the subscriptions. Called on the simulation thread, this method never blocks.
+    *
+    * @param frameIndex the index of the frame
+    */
+   @Override
+   public void onFrame(long frameIndex) {
+      if (runSim.getSimOutsBuffer().read(simOutValues) != 0) {
+         publish(simOutValues, frameIndex);
+      }
+   }
+
+   /**
+    * Returns the flight data, converted from the latest simulation outputs published.
+    *
+    * @return the flight data
+    */
    public Map<FlightDataType, Double> getFlightData() {
+      synchronized (flightData) {
+         if (buffer.getVersion() != convertedVersion) {
+            double[] values = new double[SIM_OUTS_COUNT];
+            long version = buffer.read(values);
+            convert(values);
+            convertedVersion = version;
+         }
+      }
       return flightData;
    }
 
    /**
-    * Polls simOut for data, and assigns and converts the values needed to the flightData EnumMap
+    * Polls simOut for data, and publishes it to the subscriptions
     *
     * @param simOut the simOut
     */
    public void updateData(Map<SimOuts, Double> simOut) {
-      final Double TAS_TO_IAS = 1 / (1 + ((simOut.get(SimOuts.ALT) / 1000) * 0.02));
+      double[] values = new double[SIM_OUTS_COUNT];
+      for (Map.Entry<SimOuts, Double> entry : simOut.entrySet()) {
+         values[entry.getKey().ordinal()] = entry.getValue();
+      }
+      updateData(values);
+   }
+
+   /**
+    * Publishes the simulation outputs to the subscriptions.
+    *
+    * @param simOutValues the simulation outputs, indexed by {@link SimOuts#ordinal()}
+    */
+   public void updateData(double[] simOutValues) {
+      publish(simOutValues, buffer.getVersion() == 0 ? 0 : buffer.getFrameIndex() + 1);
+   }
+
+   private void publish(double[] simOutValues, long frameIndex) {
+      buffer.publish(simOutValues, frameIndex);
+      long version = buffer.getVersion();
+      FlightDataSubscription[] currentSubscriptions = subscriptions;
+      for (int i = 0; i < currentSubscriptions.length; i++) {
+         currentSubscriptions[i].offer(simOutValues, version);
+      }
+   }
+
+   /**
+    * Assigns and converts the values needed from the simulation outputs to the flightData EnumMap
+    *
+    * @param simOutValues the simulation outputs, indexed by {@link SimOuts#ordinal()}
+    */
+   void convert(double[] simOutValues) {
+      final double TAS_TO_IAS = 1 / (1 + ((simOutValues[SimOuts.ALT.ordinal()] / 1000) * 0.02));
 
       synchronized (flightData) {
-         flightData.put(FlightDataType.IAS, FileUtilities.toKnots(simOut.get(SimOuts.TAS) * TAS_TO_IAS));
-         flightData.put(FlightDataType.TAS, FileUtilities.toKnots(simOut.get(SimOuts.TAS)));
+         flightData.put(FlightDataType.IAS, FileUtilities.toKnots(simOutValues[SimOuts.TAS.ordinal()] * TAS_TO_IAS));
+         flightData.put(FlightDataType.TAS, FileUtilities.toKnots(simOutValues[SimOuts.TAS.ordinal()]));
 
-         flightData.put(FlightDataType.VERT_SPEED, simOut.get(SimOuts.ALT_DOT));
+         flightData.put(FlightDataType.VERT_SPEED, simOutValues[SimOuts.ALT_DOT.ordinal()]);
 
-         flightData.put(FlightDataType.ALTITUDE, simOut.get(SimOuts.ALT));
+         flightData.put(FlightDataType.ALTITUDE, simOutValues[SimOuts.ALT.ordinal()]);
 
-         flightData.put(FlightDataType.ROLL, Math.toDegrees(simOut.get(SimOuts.PHI)));
-         flightData.put(FlightDataType.PITCH, Math.toDegrees(simOut.get(SimOuts.THETA)));
+         flightData.put(FlightDataType.ROLL, Math.toDegrees(simOutValues[SimOuts.PHI.ordinal()]));
+         flightData.put(FlightDataType.PITCH, Math.toDegrees(simOutValues[SimOuts.THETA.ordinal()]));
 
-         flightData.put(FlightDataType.HEADING, Math.toDegrees(simOut.get(SimOuts.PSI)));
+         flightData.put(FlightDataType.HEADING, Math.toDegrees(simOutValues[SimOuts.PSI.ordinal()]));
 
-         flightData.put(FlightDataType.TURN_RATE, Math.toDegrees(simOut.get(SimOuts.PSI_DOT)));
-         flightData.put(FlightDataType.TURN_COORD, simOut.get(SimOuts.AN_Y));
+         flightData.put(FlightDataType.TURN_RATE, Math.toDegrees(simOutValues[SimOuts.PSI_DOT.ordinal()]));
+         flightData.put(FlightDataType.TURN_COORD, simOutValues[SimOuts.AN_Y.ordinal()]);
 
-         flightData.put(FlightDataType.GFORCE, simOut.get(SimOuts.AN_Z));
+         flightData.put(FlightDataType.GFORCE, simOutValues[SimOuts.AN_Z.ordinal()]);
 
-         flightData.put(FlightDataType.LATITUDE, Math.toDegrees(simOut.get(SimOuts.LAT)));
-         flightData.put(FlightDataType.LONGITUDE, Math.toDegrees(simOut.get(SimOuts.LON)));
+         flightData.put(FlightDataType.LATITUDE, Math.toDegrees(simOutValues[SimOuts.LAT.ordinal()]));
+         flightData.put(FlightDataType.LONGITUDE, Math.toDegrees(simOutValues[SimOuts.LON.ordinal()]));
 
-         flightData.put(FlightDataType.NORTH, simOut.get(SimOuts.NORTH));
-         flightData.put(FlightDataType.EAST, simOut.get(SimOuts.EAST));
+         flightData.put(FlightDataType.NORTH, simOutValues[SimOuts.NORTH.ordinal()]);
+         flightData.put(FlightDataType.EAST, simOutValues[SimOuts.EAST.ordinal()]);
 
-         flightData.put(FlightDataType.RPM_1, simOut.get(SimOuts.RPM_1));
-         flightData.put(FlightDataType.RPM_2, simOut.get(SimOuts.RPM_2));
+         flightData.put(FlightDataType.RPM_1, simOutValues[SimOuts.RPM_1.ordinal()]);
+         flightData.put(FlightDataType.RPM_2, simOutValues[SimOuts.RPM_2.ordinal()]);
 
-         flightData.put(FlightDataType.GEAR, simOut.get(SimOuts.GEAR));
-         flightData.put(FlightDataType.FLAPS, Math.toDegrees(simOut.get(SimOuts.FLAPS)));
+         flightData.put(FlightDataType.GEAR, simOutValues[SimOuts.GEAR.ordinal()]);
+         flightData.put(FlightDataType.FLAPS, Math.toDegrees(simOutValues[SimOuts.FLAPS.ordinal()]));
 
-         flightData.put(FlightDataType.AOA, Math.abs(simOut.get(SimOuts.ALPHA)));
+         flightData.put(FlightDataType.AOA, Math.abs(simOutValues[SimOuts.ALPHA.ordinal()]));
 
-         flightData.put(FlightDataType.PITCH_RATE, Math.toDegrees(simOut.get(SimOuts.Q)));
+         flightData.put(FlightDataType.PITCH_RATE, Math.toDegrees(simOutValues[SimOuts.Q.ordinal()]));
       }
-      fireDataArrived();
    }
 
+   /**
+    * Starts the subscriptions, and waits until the simulation or this object is stopped to stop them. Subscriptions added while this
+    * object is running are started immediately.
+    */
    @Override
    public void run() {
       running = true;
+      startSubscriptions();
 
       try {
-         Thread.sleep(5000);
-
-         while (Integrate6DOFEquations.isRunning() && running) {
-            Thread.sleep(12);
-
-            if (runSim.getSimOut() != null) {
-               updateData(runSim.getSimOut());
+         synchronized (this) {
+            while (running && (runSim == null || runSim.isRunning())) {
+               wait(RUNNING_WAIT_TIMEOUT);
             }
          }
       } catch (InterruptedException e) {
       } finally {
          running = false;
+         stopSubscriptions();
+      }
+   }
+
+   private synchronized void startSubscriptions() {
+      delivering = true;
+      for (FlightDataSubscription subscription : subscriptions) {
+         subscription.start();
       }
    }
 
+   private synchronized void stopSubscriptions() {
+      delivering = false;
+      for (FlightDataSubscription subscription : subscriptions) {
+         subscription.stop();
+      }
+   }
+
+   /**
+    * Subscribes a listener that implements {@link FlightDataListener} to {@link FlightData}, delivering each publication as soon as
+    * it is published, from a latest-value slot.
+    *
+    * @param dataListener the FlightDataListener
+    * @return the subscription, or null if the listener is null
+    */
+   public FlightDataSubscription addFlightDataListener(FlightDataListener dataListener) {
+      return addFlightDataListener(dataListener, DEFAULT_RATE, 0);
+   }
+
    /**
-    * Adds a listener that implements {@link FlightDataListener} to a list of listeners that can listen to {@link FlightData}.
+    * Subscribes a listener that implements {@link FlightDataListener} to {@link FlightData}, delivering the latest publication at
+    * a maximum rate.
     *
     * @param dataListener the FlightDataListener
+    * @param rate the maximum rate of delivery (Hz), or 0 to deliver each publication as soon as it is published
+    * @return the subscription, or null if the listener is null
     */
-   public void addFlightDataListener(FlightDataListener dataListener) {
-      if (dataListener != null && !dataListeners.contains(dataListener)) {
-         dataListenerList.add(dataListener);
+   public FlightDataSubscription addFlightDataListener(FlightDataListener dataListener, double rate) {
+      return addFlightDataListener(dataListener, rate, 0);
+   }
+
+   /**
+    * Subscribes a listener that implements {@link FlightDataListener} to {@link FlightData}. If the listener is already subscribed,
+    * its existing subscription is returned unchanged.
+    *
+    * @param dataListener the FlightDataListener
+    * @param rate the maximum rate of delivery (Hz), or 0 to deliver each publication as soon as it is published
+    * @param queueCapacity the capacity of the queue of publications, or 0 to deliver only the latest publication
+    * @return the subscription, or null if the listener is null
+    */
+   public synchronized FlightDataSubscription addFlightDataListener(FlightDataListener dataListener, double rate, int queueCapacity) {
+      if (dataListener == null) {
+         return null;
+      }
+      for (FlightDataSubscription subscription : subscriptions) {
+         if (subscription.getListener() == dataListener) {
+            return subscription;
+         }
       }
+
+      FlightDataSubscription subscription = new FlightDataSubscription(dataListener, buffer, rate, queueCapacity);
+      FlightDataSubscription[] newSubscriptions = new FlightDataSubscription[subscriptions.length + 1];
+      System.arraycopy(subscriptions, 0, newSubscriptions, 0, subscriptions.length);
+      newSubscriptions[subscriptions.length] = subscription;
+      subscriptions = newSubscriptions;
+
+      if (delivering) {
+         subscription.start();
+      }
+      return subscription;
    }
 
    /**
-    * Lets registered listeners know that data has arrived from the {@link Integrate6DOFEquations} thread
-    * so that they can use it as needed.
+    * Unsubscribes a listener, and stops its subscription.
+    *
+    * @param dataListener the FlightDataListener
+    * @return true if the listener was subscribed
     */
-   private void fireDataArrived() {
-      for (FlightDataListener listener : dataListenerList) {
-         if (listener != null) {
-            listener.onFlightDataReceived(this);
+   public synchronized boolean removeFlightDataListener(FlightDataListener dataListener) {
+      for (int i = 0; i < subscriptions.length; i++) {
+         if (subscriptions[i].getListener() == dataListener) {
+            subscriptions[i].stop();
+            FlightDataSubscription[] newSubscriptions = new FlightDataSubscription[subscriptions.length - 1];
+            System.arraycopy(subscriptions, 0, newSubscriptions, 0, i);
+            System.arraycopy(subscriptions, i + 1, newSubscriptions, i, subscriptions.length - i - 1);
+            subscriptions = newSubscriptions;
+            return true;
          }
       }
+      return false;
+   }
+
+   /**
+    * @return the subscriptions of the listeners, with their delivery statistics
+    */
+   public FlightDataSubscription[] getSubscriptions() {
+      return subscriptions.clone();
    }
 
    /**
@@ -170,7 +330,7 @@ public class FlightData implements Runnable {
    public String toString() {
       StringBuilder sb = new StringBuilder();
 
-      for (Map.Entry<FlightDataType, Double> entry : flightData.entrySet()) {
+      for (Map.Entry<FlightDataType, Double> entry : getFlightData().entrySet()) {
          sb.append(entry.getKey().toString()).append(": ").append(entry.getValue())
                  .append(" ").append(entry.getKey().getUnit()).append("\n");
       }
@@ -23,5 +23,11 @@ import java.util.EventListener;
  * @since 0.1
  */
 public interface FlightDataListener extends EventListener {
+   /**
+    * Called when flight data is delivered to this listener. The method is called on the thread of the {@link FlightDataSubscription} of
+    * the listener, and the flightData is a snapshot owned by the subscription, which is only valid until this method returns.
+    *
+    * @param flightData the flight data
+    */
    public void onFlightDataReceived(FlightData flightData);
 }
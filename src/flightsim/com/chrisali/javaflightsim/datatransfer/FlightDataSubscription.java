@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.datatransfer;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Subscription of a {@link FlightDataListener} to the flight data published by {@link FlightData}. Each subscription delivers the data
+ * to its listener on its own thread, at its own rate, so that a slow listener never delays the simulation or the other listeners.
+ *
+ * <p>
+ * A subscription either has a latest-value slot, in which case the listener receives the latest data published at each delivery and the
+ * data published in between is dropped, or a bounded queue, in which case every publication is queued and delivered in order, and
+ * publications arriving while the queue is full are dropped. Publishing to a subscription never blocks nor allocates memory.</p>
+ *
+ * <p>
+ * The listener receives a {@link FlightData} snapshot owned by the subscription, which is only modified by the thread of the subscription
+ * between two deliveries. The number of deliveries, dropped publications, overruns (deliveries which took longer than the period of the
+ * subscription) and the lag (number of publications made between the publication delivered and the end of its delivery) are counted.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class FlightDataSubscription implements Runnable {
+   private static final int SIM_OUTS_COUNT = SimOuts.values().length;
+
+   private final FlightDataListener listener;
+   private final SimOutsBuffer source;
+   private final double rate;
+   private final long period;
+   private final int queueCapacity;
+
+   // Single producer, single consumer queue: the tail is only written by the publisher, the head by the thread of the subscription
+   private final double[][] queue;
+   private final long[] queueVersions;
+   private final AtomicLong head = new AtomicLong();
+   private final AtomicLong tail = new AtomicLong();
+
+   private final double[] simOutValues = new double[SIM_OUTS_COUNT];
+   private final FlightData snapshot = new FlightData();
+   private long lastVersion = 0;
+
+   // The thread delivering the data, or null if the subscription is stopped
+   private volatile Thread thread;
+
+   // Statistics, written by the thread of the subscription except dropped, which is also written by the publisher
+   private final AtomicLong dropped = new AtomicLong();
+   private volatile long delivered;
+   private volatile long overruns;
+   private volatile long totalLag;
+   private volatile long maxLag;
+
+   /**
+    * Creates a subscription.
+    *
+    * @param listener the listener
+    * @param source the buffer to which the flight data is published
+    * @param rate the maximum rate of delivery (Hz), or 0 to deliver each publication as soon as it is published
+    * @param queueCapacity the capacity of the queue of publications, or 0 to use a latest-value slot
+    */
+   FlightDataSubscription(FlightDataListener listener, SimOutsBuffer source, double rate, int queueCapacity) {
+      if (rate < 0 || Double.isNaN(rate) || Double.isInfinite(rate)) {
+         System.err.println("Invalid flight data rate: " + rate + "! Delivering each publication.");
+         rate = 0;
+      }
+      if (queueCapacity < 0) {
+         System.err.println("Invalid flight data queue capacity: " + queueCapacity + "! Using the latest value.");
+         queueCapacity = 0;
+      }
+
+      this.listener = listener;
+      this.source = source;
+      this.rate = rate;
+      this.period = rate > 0 ? Math.round(1e9 / rate) : 0;
+      this.queueCapacity = queueCapacity;
+      this.queue = queueCapacity > 0 ? new double[queueCapacity][SIM_OUTS_COUNT] : null;
+      this.queueVersions = queueCapacity > 0 ? new long[queueCapacity] : null;
+   }
+
+   /**
+    * Called by the publisher after each publication: queues the publication if the subscription has a queue, and wakes up the thread
+    * of the subscription if it delivers each publication.
+    *
+    * @param simOutValues the simulation outputs published
+    * @param version the version of the publication
+    */
+   void offer(double[] simOutValues, long version) {
+      if (queue != null) {
+         long t = tail.get();
+         if (t - head.get() >= queueCapacity) {
+            dropped.incrementAndGet();
+         } else {
+            int slot = (int) (t % queueCapacity);
+            System.arraycopy(simOutValues, 0, queue[slot], 0, SIM_OUTS_COUNT);
+            queueVersions[slot] = version;
+            tail.lazySet(t + 1);
+         }
+      }
+
+      if (period == 0) {
+         Thread subscriptionThread = thread;
+         if (subscriptionThread != null) {
+            LockSupport.unpark(subscriptionThread);
+         }
+      }
+   }
+
+   /**
+    * Starts the thread of the subscription, if not already running.
+    */
+   synchronized void start() {
+      if (thread == null) {
+         Thread subscriptionThread = new Thread(this, "FlightData-" + listener.getClass().getSimpleName());
+         subscriptionThread.setDaemon(true);
+         thread = subscriptionThread;
+         subscriptionThread.start();
+      }
+   }
+
+   /**
+    * Requests the thread of the subscription to stop after its current delivery, if any. The subscription can be started again.
+    */
+   synchronized void stop() {
+      Thread subscriptionThread = thread;
+      thread = null;
+      if (subscriptionThread != null) {
+         LockSupport.unpark(subscriptionThread);
+      }
+   }
+
+   /**
+    * @return true if the thread of the subscription is still the current one
+    */
+   private boolean isRunning() {
+      return thread == Thread.currentThread();
+   }
+
+   /**
+    * Delivers the flight data to the listener at the rate of the subscription until it is stopped.
+    *
+    * @see java.lang.Runnable#run()
+    */
+   @Override
+   public void run() {
+      long nextDelivery = System.nanoTime();
+
+      while (isRunning()) {
+         if (period > 0) {
+            nextDelivery += period;
+            long now = System.nanoTime();
+            // When late by more than a period, the missed deliveries are skipped
+            if (now - nextDelivery > period) {
+               nextDelivery = now;
+            }
+            while (isRunning() && (now = System.nanoTime()) < nextDelivery) {
+               LockSupport.parkNanos(this, nextDelivery - now);
+            }
+         } else {
+            LockSupport.park(this);
+         }
+
+         if (Thread.interrupted()) {
+            synchronized (this) {
+               if (isRunning()) {
+                  thread = null;
+               }
+            }
+         } else if (isRunning()) {
+            deliver();
+         }
+      }
+   }
+
+   /**
+    * Delivers the queued publications, or the latest publication if it has not been delivered yet.
+    */
+   private void deliver() {
+      if (queue != null) {
+         for (long h = head.get(); h < tail.get() && isRunning(); h++) {
+            int slot = (int) (h % queueCapacity);
+            snapshot.convert(queue[slot]);
+            long version = queueVersions[slot];
+            // The slot can be reused by the publisher once it has been converted
+            head.lazySet(h + 1);
+            deliver(version);
+         }
+      } else {
+         long version = source.read(simOutValues);
+         if (version != 0 && version != lastVersion) {
+            if (lastVersion != 0) {
+               dropped.addAndGet(version - lastVersion - 1);
+            }
+            snapshot.convert(simOutValues);
+            deliver(version);
+         }
+      }
+   }
+
+   private void deliver(long version) {
+      long start = System.nanoTime();
+      try {
+         listener.onFlightDataReceived(snapshot);
+      } catch (RuntimeException e) {
+         System.err.println("Error delivering flight data to " + listener + ": " + e);
+      }
+
+      if (period > 0 && System.nanoTime() - start > period) {
+         overruns++;
+      }
+
+      long lag = source.getVersion() - version;
+      totalLag += lag;
+      maxLag = Math.max(maxLag, lag);
+      delivered++;
+      lastVersion = version;
+   }
+
+   /**
+    * @return the listener of the subscription
+    */
+   public FlightDataListener getListener() {
+      return listener;
+   }
+
+   /**
+    * @return the maximum rate of delivery (Hz), or 0 if each publication is delivered as soon as it is published
+    */
+   public double getRate() {
+      return rate;
+   }
+
+   /**
+    * @return the capacity of the queue of publications, or 0 if the subscription uses a latest-value slot
+    */
+   public int getQueueCapacity() {
+      return queueCapacity;
+   }
+
+   /**
+    * @return the number of publications delivered to the listener
+    */
+   public long getDelivered() {
+      return delivered;
+   }
+
+   /**
+    * @return the number of publications never delivered to the listener
+    */
+   public long getDropped() {
+      return dropped.get();
+   }
+
+   /**
+    * @return the number of deliveries which took longer than the period of the subscription
+    */
+   public long getOverruns() {
+      return overruns;
+   }
+
+   /**
+    * @return the mean number of publications made between the publication delivered and the end of its delivery
+    */
+   public double getMeanLag() {
+      long deliveries = delivered;
+      return deliveries > 0 ? totalLag / (double) deliveries : 0;
+   }
+
+   /**
+    * @return the maximum number of publications made between the publication delivered and the end of its delivery
+    */
+   public long getMaxLag() {
+      return maxLag;
+   }
+
+   @Override
+   public String toString() {
+      return listener.getClass().getSimpleName() + " (" + (rate > 0 ? rate + " Hz" : "each publication")
+              + (queueCapacity > 0 ? ", queue of " + queueCapacity : ", latest value") + "): delivered " + getDelivered() + ", dropped "
+              + getDropped() + ", overruns " + getOverruns() + ", lag mean " + getMeanLag() + ", max " + getMaxLag();
+   }
+}
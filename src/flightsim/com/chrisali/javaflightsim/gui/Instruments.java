@@ -23,5 +23,8 @@ import com.chrisali.javaflightsim.datatransfer.FlightDataListener;
  * @author scdsahv
  */
 public interface Instruments extends FlightDataListener {
-
+   /**
+    * Rate at which the flight data is delivered to the instruments (Hz)
+    */
+   public static final double REFRESH_RATE = 20;
 }
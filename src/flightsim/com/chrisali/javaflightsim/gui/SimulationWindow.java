@@ -91,7 +91,7 @@ public class SimulationWindow extends JFrame {
       gc.gridy++;
 
       if (instruments != null && controller.getSimulationOptions().contains(Options.INSTRUMENT_PANEL)) {
-         controller.getFlightData().addFlightDataListener(instruments);
+         controller.getFlightData().addFlightDataListener(instruments, Instruments.REFRESH_RATE);
          add((Component) instruments, gc);
       }
 
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.parser.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Expression of a JSBSim <code>function</code> element, read while streaming a JSBSim file. Only the operations needed to express
+ * aerodynamic coefficients are supported: values, properties, tables, products, sums, differences and quotients by a constant. Other
+ * operations are kept as unsupported nodes, so that only the functions which use them are rejected when they are expanded.
+ *
+ * <p>A function is used by expanding it into a sum of {@link Term}s, each of them being the product of a constant, of properties and of
+ * tables.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+final class JSBSimFunction {
+   /**
+    * Operations of a function.
+    */
+   enum Operation {
+      VALUE, PROPERTY, TABLE, PRODUCT, SUM, DIFFERENCE, QUOTIENT, UNSUPPORTED
+   }
+
+   /**
+    * Product of a constant, of properties and of tables.
+    */
+   static final class Term {
+      private final double coefficient;
+      private final List<String> properties;
+      private final List<JSBSimTable> tables;
+
+      private Term(double coefficient, List<String> properties, List<JSBSimTable> tables) {
+         this.coefficient = coefficient;
+         this.properties = properties;
+         this.tables = tables;
+      }
+
+      private Term multiply(Term term) {
+         List<String> productProperties = new ArrayList<>(properties);
+         productProperties.addAll(term.properties);
+         List<JSBSimTable> productTables = new ArrayList<>(tables);
+         productTables.addAll(term.tables);
+
+         return new Term(coefficient * term.coefficient, productProperties, productTables);
+      }
+
+      private Term scale(double factor) {
+         return new Term(coefficient * factor, properties, tables);
+      }
+
+      /**
+       * @return the constant factor of the product
+       */
+      double getCoefficient() {
+         return coefficient;
+      }
+
+      /**
+       * @return the properties of the product
+       */
+      List<String> getProperties() {
+         return properties;
+      }
+
+      /**
+       * @return the tables of the product
+       */
+      List<JSBSimTable> getTables() {
+         return tables;
+      }
+   }
+
+   private static final int MAX_DEPTH = 16;
+
+   private final Operation operation;
+   private final String text;
+   private final double value;
+   private final JSBSimTable table;
+   private final List<JSBSimFunction> children;
+
+   private JSBSimFunction(Operation operation, String text, double value, JSBSimTable table, List<JSBSimFunction> children) {
+      this.operation = operation;
+      this.text = text;
+      this.value = value;
+      this.table = table;
+      this.children = children;
+   }
+
+   /**
+    * Reads a function from a reader positioned on the start of a <code>function</code> element or of one of its operations, and leaves
+    * the reader on its end.
+    *
+    * @param reader the reader
+    * @return the function
+    * @throws XMLStreamException if the XML is not well formed
+    * @throws IllegalArgumentException if a value or a table is invalid
+    */
+   static JSBSimFunction read(XMLStreamReader reader) throws XMLStreamException {
+      String element = reader.getLocalName();
+      List<JSBSimFunction> noChildren = Collections.emptyList();
+
+      if ("value".equals(element)) {
+         return new JSBSimFunction(Operation.VALUE, null, Double.parseDouble(reader.getElementText().trim()), null, noChildren);
+      } else if ("property".equals(element)) {
+         return new JSBSimFunction(Operation.PROPERTY, reader.getElementText().trim(), 0, null, noChildren);
+      } else if ("table".equals(element)) {
+         return new JSBSimFunction(Operation.TABLE, null, 0, JSBSimTable.read(reader), noChildren);
+      }
+
+      Operation operation;
+      if ("function".equals(element) || "product".equals(element)) {
+         operation = Operation.PRODUCT;
+      } else if ("sum".equals(element)) {
+         operation = Operation.SUM;
+      } else if ("difference".equals(element)) {
+         operation = Operation.DIFFERENCE;
+      } else if ("quotient".equals(element)) {
+         operation = Operation.QUOTIENT;
+      } else {
+         JSBSimImporter.skip(reader);
+         return new JSBSimFunction(Operation.UNSUPPORTED, element, 0, null, noChildren);
+      }
+
+      List<JSBSimFunction> children = new ArrayList<>();
+      while (JSBSimImporter.nextChild(reader)) {
+         if ("description".equals(reader.getLocalName())) {
+            JSBSimImporter.skip(reader);
+         } else {
+            children.add(read(reader));
+         }
+      }
+
+      return new JSBSimFunction(operation, element, 0, null, children);
+   }
+
+   /**
+    * Expands the function into a sum of terms. A property which is the name of another function is replaced by the expansion of this
+    * function, and a property name starting with a minus sign is negated.
+    *
+    * @param functions the functions, by name
+    * @return the terms
+    * @throws IllegalArgumentException if the function uses an unsupported operation, or references functions recursively
+    */
+   List<Term> expand(Map<String, JSBSimFunction> functions) {
+      return expand(functions, 0);
+   }
+
+   private List<Term> expand(Map<String, JSBSimFunction> functions, int depth) {
+      if (depth > MAX_DEPTH) {
+         throw new IllegalArgumentException("Functions referenced recursively");
+      }
+
+      List<Term> terms = new ArrayList<>();
+      List<String> noProperties = Collections.emptyList();
+      List<JSBSimTable> noTables = Collections.emptyList();
+
+      switch (operation) {
+         case VALUE:
+            terms.add(new Term(value, noProperties, noTables));
+            break;
+         case PROPERTY:
+            boolean negated = text.startsWith("-");
+            String property = negated ? text.substring(1) : text;
+            JSBSimFunction function = functions.get(property);
+            if (function != null) {
+               for (Term term : function.expand(functions, depth + 1)) {
+                  terms.add(negated ? term.scale(-1) : term);
+               }
+            } else {
+               terms.add(new Term(negated ? -1 : 1, Collections.singletonList(property), noTables));
+            }
+            break;
+         case TABLE:
+            terms.add(new Term(1, noProperties, Collections.singletonList(table)));
+            break;
+         case PRODUCT:
+            terms.add(new Term(1, noProperties, noTables));
+            for (JSBSimFunction child : children) {
+               List<Term> products = new ArrayList<>();
+               for (Term childTerm : child.expand(functions, depth + 1)) {
+                  for (Term term : terms) {
+                     products.add(term.multiply(childTerm));
+                  }
+               }
+               terms = products;
+            }
+            break;
+         case SUM:
+         case DIFFERENCE:
+            for (int i = 0; i < children.size(); i++) {
+               for (Term term : children.get(i).expand(functions, depth + 1)) {
+                  terms.add(operation == Operation.DIFFERENCE && i > 0 ? term.scale(-1) : term);
+               }
+            }
+            break;
+         case QUOTIENT:
+            if (children.size() != 2) {
+               throw new IllegalArgumentException("Quotient of " + children.size() + " operands");
+            }
+            List<Term> denominator = children.get(1).expand(functions, depth + 1);
+            if (denominator.size() != 1 || !denominator.get(0).properties.isEmpty() || !denominator.get(0).tables.isEmpty()) {
+               throw new IllegalArgumentException("Quotient by a variable");
+            }
+            for (Term term : children.get(0).expand(functions, depth + 1)) {
+               terms.add(term.scale(1 / denominator.get(0).coefficient));
+            }
+            break;
+         default:
+            throw new IllegalArgumentException("Unsupported operation: " + text);
+      }
+
+      return terms;
+   }
+}
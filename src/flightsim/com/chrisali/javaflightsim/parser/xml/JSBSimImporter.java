@@ -0,0 +1,1266 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.parser.xml;
+
+import com.chrisali.javaflightsim.simulation.aero.Aerodynamics;
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
+import com.chrisali.javaflightsim.simulation.aero.WingGeometry;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftPackage;
+import com.chrisali.javaflightsim.simulation.aircraft.ContactType;
+import com.chrisali.javaflightsim.simulation.aircraft.FuelTanks;
+import com.chrisali.javaflightsim.simulation.aircraft.GroundContacts;
+import com.chrisali.javaflightsim.simulation.aircraft.GroundReaction;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineParameters;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineType;
+import com.chrisali.javaflightsim.simulation.propulsion.PropulsionTables;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Imports a JSBSim aircraft (an <code>fdm_config</code> file, see the JSBSim.xsd schema of this package) into an {@link AircraftPackage},
+ * from which an {@link AircraftBuilder} creates the aircraft and its engines. The file is streamed with StAX: only the elements which are
+ * imported are kept, and the other ones (flight control systems, autopilots, outputs, ...) are skipped without being built in memory,
+ * so that large aerodynamic decks can be imported.
+ *
+ * <p>The following elements are imported:</p>
+ * <ul>
+ * <li>metrics: the wing area, span and chord, and the aerodynamic reference point, which becomes the aerodynamic center</li>
+ * <li>mass_balance: the moments of inertia, the empty weight, and the point masses, which become the payload</li>
+ * <li>ground_reactions: each contact becomes a {@link GroundContacts} contact point. Bogeys braked by the left or right brake group
+ * are the main landing gear, steerable bogeys are steered by the rudder, and structure contacts are points of the structure</li>
+ * <li>propulsion: the tanks become {@link FuelTanks}, and the piston engines with a propeller become table driven piston engines, with the
+ * thrust and power coefficient tables of their propeller. The engine and propeller files are searched in the folder of the aircraft file,
+ * in its Engines and engine sub folders, and in the engine folder of a JSBSim root</li>
+ * <li>aerodynamics: the functions of the LIFT, DRAG, SIDE, ROLL, PITCH and YAW axes are mapped to {@link StabilityDerivatives}</li>
+ * </ul>
+ * All positions are converted to body axes relative to the center of gravity of the mass balance, in ft.
+ *
+ * <p>Each aerodynamic function is expanded into products of a constant, properties and tables. The dynamic pressure, the wing area and
+ * the reference length of the axis are removed from each product, which must then hold at most one variable of the
+ * {@link Aerodynamics} model (angle of attack, sideslip, body rates with their b/2V or c/2V factor, control surface deflections or gear
+ * position): the product is added to the stability derivative of this variable, or to the CL_0, CD_0 or CM_0 derivative if it holds no
+ * variable. The square of the lift coefficient (aero/cl-squared) is replaced by the square of the imported lift coefficient of the angle of
+ * attack and of the flap position. Tables of the angle of attack and of the flap position become {@link InterpolationTable}s of the derivative, and a product
+ * whose variable is only looked up in a table is linearized over the range of the variable. Other properties looked up in tables are
+ * taken at a reference condition: at Mach 0, and out of ground effect. The products which can not be mapped are reported and skipped.</p>
+ *
+ * <p>The aileron deflection is positive for a right roll in JSBSim, and for a left roll in this simulation: the sign of the aileron
+ * derivatives is changed.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class JSBSimImporter {
+   private static final String ROOT = "fdm_config";
+   private static final double DEGREES_PER_RADIAN = 180 / Math.PI;
+   private static final double AILERON_SIGN = -1;
+   private static final double OUT_OF_GROUND_EFFECT = 1.0e6;
+   private static final int MAX_ENGINES = 4;
+   private static final String LIFT_SQUARED = "aero/cl-squared";
+   private static final double LIFT_SQUARED_STEP = Math.toRadians(2);
+
+   private static final Map<String, Double> UNITS = new HashMap<>();
+
+   static {
+      UNITS.put("FT", 1.0);
+      UNITS.put("IN", 1.0 / 12);
+      UNITS.put("M", 3.28083990);
+      UNITS.put("FT2", 1.0);
+      UNITS.put("IN2", 1.0 / 144);
+      UNITS.put("M2", 10.7639104);
+      UNITS.put("LBS", 1.0);
+      UNITS.put("KG", 2.20462262);
+      UNITS.put("SLUG*FT2", 1.0);
+      UNITS.put("KG*M2", 0.737562149);
+      UNITS.put("LBS/FT", 1.0);
+      UNITS.put("N/M", 0.0685217659);
+      UNITS.put("LBS/FT/SEC", 1.0);
+      UNITS.put("N/M/SEC", 0.0685217659);
+      UNITS.put("DEG", 1.0);
+      UNITS.put("RAD", DEGREES_PER_RADIAN);
+      UNITS.put("HP", 1.0);
+      UNITS.put("WATTS", 1 / 745.699872);
+   }
+
+   /**
+    * Variables of the {@link Aerodynamics} model, with the range over which they are linearized when they are only looked up in tables.
+    */
+   private enum Variable {
+      ALPHA(-Math.PI / 2, Math.PI / 2),
+      BETA(Math.toRadians(-20), Math.toRadians(20)),
+      P(-1, 1),
+      Q(-1, 1),
+      R(-1, 1),
+      ALPHA_DOT(-1, 1),
+      ELEVATOR(FlightControlType.ELEVATOR.getMinimum(), FlightControlType.ELEVATOR.getMaximum()),
+      AILERON(FlightControlType.AILERON.getMinimum(), FlightControlType.AILERON.getMaximum()),
+      RUDDER(FlightControlType.RUDDER.getMinimum(), FlightControlType.RUDDER.getMaximum()),
+      FLAP(FlightControlType.FLAPS.getMinimum(), FlightControlType.FLAPS.getMaximum()),
+      GEAR(FlightControlType.GEAR.getMinimum(), FlightControlType.GEAR.getMaximum());
+
+      private final double minimum;
+      private final double maximum;
+
+      private Variable(double minimum, double maximum) {
+         this.minimum = minimum;
+         this.maximum = maximum;
+      }
+
+      private boolean isRate() {
+         return this == P || this == Q || this == R || this == ALPHA_DOT;
+      }
+   }
+
+   private static final Map<String, Variable> VARIABLES = new HashMap<>();
+
+   static {
+      addVariable(Variable.ALPHA, "aero/alpha");
+      addVariable(Variable.BETA, "aero/beta");
+      addVariable(Variable.P, "velocities/p-aero", "velocities/p");
+      addVariable(Variable.Q, "velocities/q-aero", "velocities/q");
+      addVariable(Variable.R, "velocities/r-aero", "velocities/r");
+      addVariable(Variable.ALPHA_DOT, "aero/alphadot");
+      addVariable(Variable.ELEVATOR, "fcs/elevator-pos");
+      addVariable(Variable.AILERON, "fcs/left-aileron-pos", "fcs/aileron-pos");
+      addVariable(Variable.RUDDER, "fcs/rudder-pos");
+      addVariable(Variable.FLAP, "fcs/flap-pos");
+      VARIABLES.put("gear/gear-pos-norm", Variable.GEAR);
+   }
+
+   private static void addVariable(Variable variable, String... properties) {
+      for (String property : properties) {
+         if (variable.isRate()) {
+            VARIABLES.put(property + "-rad_sec", variable);
+            VARIABLES.put(property + "-deg_sec", variable);
+         } else {
+            VARIABLES.put(property + "-rad", variable);
+            VARIABLES.put(property + "-deg", variable);
+         }
+      }
+   }
+
+   /**
+    * Factor converting a variable in rad (or rad/s) to the unit of a property.
+    */
+   private static double scaleOf(String property) {
+      return property.endsWith("-deg") || property.endsWith("-deg_sec") ? DEGREES_PER_RADIAN : 1;
+   }
+
+   private final File file;
+   private final List<File> engineDirectories = new ArrayList<>();
+   private final List<String> warnings = new ArrayList<>();
+   private final Set<String> warnedProperties = new HashSet<>();
+   private XMLInputFactory factory;
+
+   // Values read from the file, with positions in the JSBSim structural frame (ft)
+   private String aircraftName;
+   private final Map<String, Double> metrics = new HashMap<>();
+   private double[] aeroReference = null;
+   private double[] centerOfGravity = null;
+   private final Map<MassProperties, Double> inertia = new EnumMap<>(MassProperties.class);
+   private double emptyWeight = 0;
+   private double payloadWeight = 0;
+   private final List<Contact> contacts = new ArrayList<>();
+   private final List<Tank> tanks = new ArrayList<>();
+   private final List<EngineDefinition> engines = new ArrayList<>();
+   private final Map<String, JSBSimFunction> functions = new LinkedHashMap<>();
+   private final List<AxisFunction> axisFunctions = new ArrayList<>();
+
+   private static final class Contact {
+      private String name;
+      private String type;
+      private String brakeGroup = "NONE";
+      private double[] location;
+      private double staticFriction = Double.NaN;
+      private double dynamicFriction = Double.NaN;
+      private double rollingFriction = Double.NaN;
+      private double spring;
+      private double damping;
+      private double maxSteer = 0;
+   }
+
+   private static final class Tank {
+      private String name;
+      private double[] location;
+      private double capacity;
+      private double contents;
+   }
+
+   private static final class EngineDefinition {
+      private String engineFile;
+      private double[] location;
+      private String thrusterFile;
+      private double[] thrusterLocation;
+   }
+
+   private static final class AxisFunction {
+      private final String axis;
+      private final String name;
+      private final JSBSimFunction function;
+
+      private AxisFunction(String axis, String name, JSBSimFunction function) {
+         this.axis = axis;
+         this.name = name;
+         this.function = function;
+      }
+   }
+
+   /**
+    * A reader which counts the depth of the elements read since the start of a function, so that the rest of the function can be skipped
+    * wherever the reading of the function stopped.
+    */
+   private static final class FunctionReader extends StreamReaderDelegate {
+      private int depth = 1;
+
+      private FunctionReader(XMLStreamReader reader) {
+         super(reader);
+      }
+
+      @Override
+      public int next() throws XMLStreamException {
+         int event = super.next();
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            depth++;
+         } else if (event == XMLStreamConstants.END_ELEMENT) {
+            depth--;
+         }
+         return event;
+      }
+
+      @Override
+      public String getElementText() throws XMLStreamException {
+         String text = super.getElementText();
+         depth--;
+         return text;
+      }
+
+      /**
+       * Skips the rest of the function, and leaves the reader on its end.
+       */
+      private void skipFunction() throws XMLStreamException {
+         while (depth > 0 && hasNext()) {
+            next();
+         }
+      }
+   }
+
+   /**
+    * Product of an aerodynamic function mapped to a stability derivative: the derivative is the constant times the tables, or, if
+    * the variable of the derivative is only looked up in the tables, the slope of this product over the range of the variable.
+    */
+   private static final class DerivativeTerm {
+      private final double coefficient;
+      private final List<JSBSimTable> tables;
+      private final Variable explicitVariable;
+      private final Variable linearizedVariable;
+      private final double minimum;
+      private final double maximum;
+      private Map<StabilityDerivatives, List<DerivativeTerm>> liftTerms = null;
+
+      private DerivativeTerm(double coefficient, List<JSBSimTable> tables, Variable explicitVariable, Variable linearizedVariable) {
+         this.coefficient = coefficient;
+         this.tables = tables;
+         this.explicitVariable = explicitVariable;
+         this.linearizedVariable = linearizedVariable;
+
+         // The variable is linearized over its range, restricted to the breakpoints of the tables
+         double min = linearizedVariable == null ? 0 : linearizedVariable.minimum;
+         double max = linearizedVariable == null ? 0 : linearizedVariable.maximum;
+         for (JSBSimTable table : tables) {
+            for (int dim = 0; dim < table.getDimensions(); dim++) {
+               if (linearizedVariable != null && VARIABLES.get(table.getProperty(dim)) == linearizedVariable) {
+                  double[] breakpoints = table.getBreakpoints(dim);
+                  double scale = scaleOf(table.getProperty(dim));
+                  min = Math.max(min, breakpoints[0] / scale);
+                  max = Math.min(max, breakpoints[breakpoints.length - 1] / scale);
+               }
+            }
+         }
+         this.minimum = min;
+         this.maximum = max;
+      }
+
+      private double value(double alpha, double flap) {
+         if (linearizedVariable == null) {
+            return product(alpha, flap, 0);
+         } else if (maximum > minimum) {
+            double sign = linearizedVariable == Variable.AILERON ? AILERON_SIGN : 1;
+            return sign * (product(alpha, flap, maximum) - product(alpha, flap, minimum)) / (maximum - minimum);
+         } else {
+            return 0;
+         }
+      }
+
+      private double product(double alpha, double flap, double variable) {
+         double product = coefficient;
+         for (JSBSimTable table : tables) {
+            double[] arguments = new double[table.getDimensions()];
+            for (int dim = 0; dim < arguments.length; dim++) {
+               String property = table.getProperty(dim);
+               Variable tableVariable = VARIABLES.get(property);
+               if (tableVariable == null) {
+                  arguments[dim] = referenceValue(property);
+               } else if (tableVariable == Variable.ALPHA) {
+                  arguments[dim] = alpha * scaleOf(property);
+               } else if (tableVariable == Variable.FLAP && explicitVariable != Variable.FLAP) {
+                  arguments[dim] = flap * scaleOf(property);
+               } else if (tableVariable == linearizedVariable) {
+                  arguments[dim] = variable * scaleOf(property);
+               } else {
+                  arguments[dim] = 0;
+               }
+            }
+            product *= table.value(arguments);
+         }
+         if (liftTerms != null) {
+            double lift = staticLift(alpha, flap);
+            product *= lift * lift;
+         }
+         return product;
+      }
+
+      /**
+       * Lift coefficient of the angle of attack and of the flap position only, without the rates and the elevator.
+       */
+      private double staticLift(double alpha, double flap) {
+         double lift = sum(liftTerms.get(StabilityDerivatives.CL_0), alpha, flap);
+         lift += alpha * sum(liftTerms.get(StabilityDerivatives.CL_ALPHA), alpha, flap);
+         lift += flap * sum(liftTerms.get(StabilityDerivatives.CL_D_FLAP), alpha, flap);
+         return lift;
+      }
+
+      private static double sum(List<DerivativeTerm> terms, double alpha, double flap) {
+         double sum = 0;
+         if (terms != null) {
+            for (DerivativeTerm term : terms) {
+               sum += term.value(alpha, flap);
+            }
+         }
+         return sum;
+      }
+
+      private void addBreakpoints(Variable gridVariable, Set<Double> breakpoints) {
+         for (JSBSimTable table : tables) {
+            for (int dim = 0; dim < table.getDimensions(); dim++) {
+               String property = table.getProperty(dim);
+               if (VARIABLES.get(property) == gridVariable && !(gridVariable == Variable.FLAP && explicitVariable == Variable.FLAP)) {
+                  for (double breakpoint : table.getBreakpoints(dim)) {
+                     breakpoints.add(breakpoint / scaleOf(property));
+                  }
+               }
+            }
+         }
+         if (liftTerms != null) {
+            // The square of the lift is gridded finely enough over the angle of attack to follow its curvature
+            if (gridVariable == Variable.ALPHA) {
+               for (double alpha = Variable.ALPHA.minimum; alpha <= Variable.ALPHA.maximum + 1.0e-9; alpha += LIFT_SQUARED_STEP) {
+                  breakpoints.add(alpha);
+               }
+            }
+            for (StabilityDerivatives stabDer : new StabilityDerivatives[]{ StabilityDerivatives.CL_0, StabilityDerivatives.CL_ALPHA,
+               StabilityDerivatives.CL_D_FLAP }) {
+               if (liftTerms.containsKey(stabDer)) {
+                  for (DerivativeTerm term : liftTerms.get(stabDer)) {
+                     term.addBreakpoints(gridVariable, breakpoints);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Creates an importer of a JSBSim aircraft file.
+    *
+    * @param file the JSBSim aircraft file
+    */
+   public JSBSimImporter(File file) {
+      this.file = file;
+      File aircraftDir = file.getAbsoluteFile().getParentFile();
+      engineDirectories.add(aircraftDir);
+      engineDirectories.add(new File(aircraftDir, "Engines"));
+      engineDirectories.add(new File(aircraftDir, "engine"));
+      if (aircraftDir.getParentFile() != null && aircraftDir.getParentFile().getParentFile() != null) {
+         engineDirectories.add(new File(aircraftDir.getParentFile().getParentFile(), "engine"));
+      }
+   }
+
+   /**
+    * Adds a folder where the engine and propeller files are searched first.
+    *
+    * @param directory the folder
+    */
+   public void addEngineDirectory(File directory) {
+      engineDirectories.add(0, directory);
+   }
+
+   /**
+    * @return the elements of the last imported file which could not be imported, or were only approximated
+    */
+   public List<String> getWarnings() {
+      return Collections.unmodifiableList(warnings);
+   }
+
+   private void warn(String warning) {
+      warnings.add(warning);
+      System.err.println(file.getName() + ": " + warning);
+   }
+
+   /**
+    * Imports the aircraft. Elements which can not be imported are reported on the error stream, and are available with
+    * {@link JSBSimImporter#getWarnings()}. The file is read again at each call, and the values of a previous import are discarded.
+    *
+    * @return the aircraft package, to be built with {@link AircraftBuilder#AircraftBuilder(AircraftPackage)}
+    * @throws IOException if the file could not be read, is not a well formed XML file, or is not a JSBSim aircraft
+    */
+   public AircraftPackage importAircraft() throws IOException {
+      warnings.clear();
+      warnedProperties.clear();
+      aircraftName = null;
+      metrics.clear();
+      aeroReference = null;
+      centerOfGravity = null;
+      inertia.clear();
+      emptyWeight = 0;
+      payloadWeight = 0;
+      contacts.clear();
+      tanks.clear();
+      engines.clear();
+      functions.clear();
+      axisFunctions.clear();
+      factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+      try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+         XMLStreamReader reader = factory.createXMLStreamReader(in);
+         try {
+            if (!nextChild(reader) || !ROOT.equals(reader.getLocalName())) {
+               throw new IOException("Not a JSBSim aircraft: " + file);
+            }
+            readConfig(reader);
+         } finally {
+            reader.close();
+         }
+      } catch (XMLStreamException e) {
+         throw new IOException("Invalid JSBSim file " + file + ": " + e.getMessage());
+      } catch (IllegalArgumentException e) {
+         throw new IOException("Invalid JSBSim file " + file + ": " + e.getMessage());
+      }
+
+      if (centerOfGravity == null) {
+         warn("No CG location in the mass balance, using the origin");
+         centerOfGravity = new double[3];
+      }
+      return createPackage();
+   }
+
+   //===================================================================================================
+   //										Streaming
+   //===================================================================================================
+   /**
+    * Advances a reader to the start of the next child of the current element.
+    *
+    * @param reader the reader, positioned on the start of an element or on the end of one of its children
+    * @return true if the reader is on the start of a child, false if it is on the end of the element
+    * @throws XMLStreamException if the XML is not well formed
+    */
+   static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+      while (reader.hasNext()) {
+         int event = reader.next();
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            return true;
+         } else if (event == XMLStreamConstants.END_ELEMENT) {
+            return false;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Skips the current element and all its content, and leaves the reader on its end.
+    *
+    * @param reader the reader, positioned on the start of the element
+    * @throws XMLStreamException if the XML is not well formed
+    */
+   static void skip(XMLStreamReader reader) throws XMLStreamException {
+      int depth = 1;
+      while (depth > 0 && reader.hasNext()) {
+         int event = reader.next();
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            depth++;
+         } else if (event == XMLStreamConstants.END_ELEMENT) {
+            depth--;
+         }
+      }
+   }
+
+   /**
+    * Reads the value of the current element, converted from the unit of its unit attribute (or from its default unit) to the units used
+    * by this simulation: ft, ft^2, lb, slug*ft^2, lbf/ft, lbf/(ft/s), deg and hp.
+    */
+   private double readValue(XMLStreamReader reader, String defaultUnit) throws XMLStreamException {
+      String unit = reader.getAttributeValue(null, "unit");
+      double value = Double.parseDouble(reader.getElementText().trim());
+
+      return value * unitFactor(unit == null ? defaultUnit : unit, defaultUnit);
+   }
+
+   private double unitFactor(String unit, String defaultUnit) {
+      if (unit == null) {
+         return 1;
+      }
+      Double factor = UNITS.get(unit);
+      if (factor == null) {
+         warn("Unknown unit " + unit + ", using " + defaultUnit);
+         return 1;
+      }
+      return factor;
+   }
+
+   /**
+    * Reads a location (x, y and z elements) in the JSBSim structural frame, in ft.
+    */
+   private double[] readLocation(XMLStreamReader reader) throws XMLStreamException {
+      String unit = reader.getAttributeValue(null, "unit");
+      double factor = unitFactor(unit == null ? "IN" : unit, "IN");
+      double[] location = new double[3];
+      while (nextChild(reader)) {
+         String element = reader.getLocalName();
+         int axis = "x".equals(element) ? 0 : "y".equals(element) ? 1 : "z".equals(element) ? 2 : -1;
+         if (axis >= 0) {
+            location[axis] = Double.parseDouble(reader.getElementText().trim()) * factor;
+         } else {
+            skip(reader);
+         }
+      }
+      return location;
+   }
+
+   private void readConfig(XMLStreamReader reader) throws XMLStreamException {
+      aircraftName = reader.getAttributeValue(null, "name");
+      if (aircraftName == null) {
+         aircraftName = file.getName().replaceFirst("\\.xml$", "");
+      }
+
+      while (nextChild(reader)) {
+         String element = reader.getLocalName();
+         if ("metrics".equals(element)) {
+            readMetrics(reader);
+         } else if ("mass_balance".equals(element)) {
+            readMassBalance(reader);
+         } else if ("ground_reactions".equals(element)) {
+            readGroundReactions(reader);
+         } else if ("propulsion".equals(element)) {
+            readPropulsion(reader);
+         } else if ("aerodynamics".equals(element)) {
+            readAerodynamics(reader);
+         } else {
+            skip(reader);
+         }
+      }
+   }
+
+   private void readMetrics(XMLStreamReader reader) throws XMLStreamException {
+      while (nextChild(reader)) {
+         String element = reader.getLocalName();
+         if ("wingarea".equals(element)) {
+            metrics.put("metrics/Sw-sqft", readValue(reader, "FT2"));
+         } else if ("wingspan".equals(element)) {
+            metrics.put("metrics/bw-ft", readValue(reader, "FT"));
+         } else if ("chord".equals(element)) {
+            metrics.put("metrics/cbarw-ft", readValue(reader, "FT"));
+         } else if ("htailarea".equals(element)) {
+            metrics.put("metrics/Sh-sqft", readValue(reader, "FT2"));
+         } else if ("htailarm".equals(element)) {
+            metrics.put("metrics/lh-ft", readValue(reader, "FT"));
+         } else if ("vtailarea".equals(element)) {
+            metrics.put("metrics/Sv-sqft", readValue(reader, "FT2"));
+         } else if ("vtailarm".equals(element)) {
+            metrics.put("metrics/lv-ft", readValue(reader, "FT"));
+         } else if ("location".equals(element) && "AERORP".equals(reader.getAttributeValue(null, "name"))) {
+            aeroReference = readLocation(reader);
+         } else {
+            skip(reader);
+         }
+      }
+   }
+
+   private void readMassBalance(XMLStreamReader reader) throws XMLStreamException {
+      while (nextChild(reader)) {
+         String element = reader.getLocalName();
+         if ("ixx".equals(element)) {
+            inertia.put(MassProperties.J_X, readValue(reader, "SLUG*FT2"));
+         } else if ("iyy".equals(element)) {
+            inertia.put(MassProperties.J_Y, readValue(reader, "SLUG*FT2"));
+         } else if ("izz".equals(element)) {
+            inertia.put(MassProperties.J_Z, readValue(reader, "SLUG*FT2"));
+         } else if ("ixz".equals(element)) {
+            inertia.put(MassProperties.J_XZ, readValue(reader, "SLUG*FT2"));
+         } else if ("emptywt".equals(element)) {
+            emptyWeight = readValue(reader, "LBS");
+         } else if ("location".equals(element)) {
+            centerOfGravity = readLocation(reader);
+         } else if ("pointmass".equals(element)) {
+            while (nextChild(reader)) {
+               if ("weight".equals(reader.getLocalName())) {
+                  payloadWeight += readValue(reader, "LBS");
+               } else {
+                  skip(reader);
+               }
+            }
+         } else {
+            skip(reader);
+         }
+      }
+   }
+
+   private void readGroundReactions(XMLStreamReader reader) throws XMLStreamException {
+      while (nextChild(reader)) {
+         if (!"contact".equals(reader.getLocalName())) {
+            skip(reader);
+            continue;
+         }
+
+         Contact contact = new Contact();
+         contact.name = reader.getAttributeValue(null, "name");
+         contact.type = reader.getAttributeValue(null, "type");
+         while (nextChild(reader)) {
+            String element = reader.getLocalName();
+            if ("location".equals(element)) {
+               contact.location = readLocation(reader);
+            } else if ("static_friction".equals(element)) {
+               contact.staticFriction = readValue(reader, null);
+            } else if ("dynamic_friction".equals(element)) {
+               contact.dynamicFriction = readValue(reader, null);
+            } else if ("rolling_friction".equals(element)) {
+               contact.rollingFriction = readValue(reader, null);
+            } else if ("spring_coeff".equals(element)) {
+               contact.spring = readValue(reader, "LBS/FT");
+            } else if ("damping_coeff".equals(element)) {
+               contact.damping = readValue(reader, "LBS/FT/SEC");
+            } else if ("max_steer".equals(element)) {
+               contact.maxSteer = readValue(reader, "DEG");
+            } else if ("brake_group".equals(element)) {
+               contact.brakeGroup = reader.getElementText().trim().toUpperCase();
+            } else {
+               skip(reader);
+            }
+         }
+         if (contact.location == null) {
+            warn("No location for contact " + contact.name + ", skipping it");
+         } else {
+            contacts.add(contact);
+         }
+      }
+   }
+
+   private void readPropulsion(XMLStreamReader reader) throws XMLStreamException {
+      while (nextChild(reader)) {
+         String element = reader.getLocalName();
+         if ("engine".equals(element)) {
+            EngineDefinition engine = new EngineDefinition();
+            engine.engineFile = reader.getAttributeValue(null, "file");
+            while (nextChild(reader)) {
+               String engineElement = reader.getLocalName();
+               if ("location".equals(engineElement)) {
+                  engine.location = readLocation(reader);
+               } else if ("thruster".equals(engineElement)) {
+                  engine.thrusterFile = reader.getAttributeValue(null, "file");
+                  while (nextChild(reader)) {
+                     if ("location".equals(reader.getLocalName())) {
+                        engine.thrusterLocation = readLocation(reader);
+                     } else {
+                        skip(reader);
+                     }
+                  }
+               } else {
+                  skip(reader);
+               }
+            }
+            engines.add(engine);
+         } else if ("tank".equals(element)) {
+            Tank tank = new Tank();
+            String type = reader.getAttributeValue(null, "type");
+            tank.name = type == null ? "tank" : type.toLowerCase();
+            tank.name += "_" + (tanks.size() + 1);
+            while (nextChild(reader)) {
+               String tankElement = reader.getLocalName();
+               if ("location".equals(tankElement)) {
+                  tank.location = readLocation(reader);
+               } else if ("capacity".equals(tankElement)) {
+                  tank.capacity = readValue(reader, "LBS");
+               } else if ("contents".equals(tankElement)) {
+                  tank.contents = readValue(reader, "LBS");
+               } else {
+                  skip(reader);
+               }
+            }
+            if (type != null && !"FUEL".equalsIgnoreCase(type)) {
+               warn("Unsupported " + type + " tank, skipping it");
+            } else {
+               tanks.add(tank);
+            }
+         } else {
+            skip(reader);
+         }
+      }
+   }
+
+   private void readAerodynamics(XMLStreamReader reader) throws XMLStreamException {
+      if (reader.getAttributeValue(null, "file") != null) {
+         warn("Aerodynamics in an external file are not supported");
+      }
+
+      while (nextChild(reader)) {
+         String element = reader.getLocalName();
+         if ("function".equals(element)) {
+            readFunction(reader, null);
+         } else if ("axis".equals(element)) {
+            String axis = reader.getAttributeValue(null, "name");
+            while (nextChild(reader)) {
+               if ("function".equals(reader.getLocalName())) {
+                  readFunction(reader, axis == null ? "" : axis.toUpperCase());
+               } else {
+                  skip(reader);
+               }
+            }
+         } else {
+            skip(reader);
+         }
+      }
+   }
+
+   private void readFunction(XMLStreamReader reader, String axis) throws XMLStreamException {
+      String name = reader.getAttributeValue(null, "name");
+      FunctionReader functionReader = new FunctionReader(reader);
+      try {
+         JSBSimFunction function = JSBSimFunction.read(functionReader);
+         if (name != null) {
+            functions.put(name, function);
+         }
+         if (axis != null) {
+            axisFunctions.add(new AxisFunction(axis, name, function));
+         }
+      } catch (IllegalArgumentException e) {
+         warn("Invalid function " + name + ": " + e.getMessage() + ", skipping it");
+         // The reader stopped inside the function, possibly in a nested function
+         functionReader.skipFunction();
+      }
+   }
+
+   /**
+    * Reads an engine or a propeller file, and returns its values by element name, and its tables by name. The name of the root element
+    * is returned under the "root" key, and the name attribute of the root element under the "name" key.
+    */
+   private Map<String, Object> readComponent(String fileName) throws IOException {
+      File componentFile = null;
+      for (File directory : engineDirectories) {
+         File candidate = new File(directory, fileName + ".xml");
+         if (candidate.isFile()) {
+            componentFile = candidate;
+            break;
+         }
+      }
+      if (componentFile == null) {
+         return null;
+      }
+
+      Map<String, Object> values = new HashMap<>();
+      try (InputStream in = new BufferedInputStream(new FileInputStream(componentFile))) {
+         XMLStreamReader reader = factory.createXMLStreamReader(in);
+         try {
+            if (nextChild(reader)) {
+               values.put("root", reader.getLocalName());
+               String name = reader.getAttributeValue(null, "name");
+               values.put("name", name == null ? fileName : name);
+               while (nextChild(reader)) {
+                  String element = reader.getLocalName();
+                  if ("table".equals(element)) {
+                     JSBSimTable table = JSBSimTable.read(reader);
+                     if (table.getName() != null) {
+                        values.put(table.getName(), table);
+                     }
+                  } else if ("diameter".equals(element)) {
+                     values.put(element, readValue(reader, "IN"));
+                  } else if ("maxhp".equals(element)) {
+                     values.put(element, readValue(reader, "HP"));
+                  } else if ("ixx".equals(element)) {
+                     values.put(element, readValue(reader, "SLUG*FT2"));
+                  } else if ("minpitch".equals(element) || "maxpitch".equals(element) || "maxrpm".equals(element) || "minrpm".equals(element)) {
+                     values.put(element, Double.parseDouble(reader.getElementText().trim()));
+                  } else {
+                     skip(reader);
+                  }
+               }
+            }
+         } finally {
+            reader.close();
+         }
+      } catch (XMLStreamException | IllegalArgumentException e) {
+         throw new IOException("Invalid JSBSim file " + componentFile + ": " + e.getMessage());
+      }
+
+      return values;
+   }
+
+   //===================================================================================================
+   //										Mapping
+   //===================================================================================================
+   /**
+    * Converts a location of the JSBSim structural frame (x aft, y right, z up) to the body axes (x forward, y right, z down), relative to
+    * the center of gravity.
+    */
+   private double[] toBody(double[] location) {
+      return new double[]{ -(location[0] - centerOfGravity[0]), location[1] - centerOfGravity[1], -(location[2] - centerOfGravity[2]) };
+   }
+
+   private AircraftPackage createPackage() throws IOException {
+      Aircraft defaultAircraft = new Aircraft();
+
+      Map<WingGeometry, Double> wingGeometry = new EnumMap<>(WingGeometry.class);
+      putMetric(wingGeometry, WingGeometry.S_WING, "metrics/Sw-sqft", defaultAircraft);
+      putMetric(wingGeometry, WingGeometry.B_WING, "metrics/bw-ft", defaultAircraft);
+      putMetric(wingGeometry, WingGeometry.C_BAR, "metrics/cbarw-ft", defaultAircraft);
+      double[] aeroCenter = aeroReference == null ? new double[3] : toBody(aeroReference);
+      wingGeometry.put(WingGeometry.AC_X, aeroCenter[0]);
+      wingGeometry.put(WingGeometry.AC_Y, aeroCenter[1]);
+      wingGeometry.put(WingGeometry.AC_Z, aeroCenter[2]);
+
+      FuelTanks fuelTanks = null;
+      double fuelCapacity = 0;
+      double fuelContents = 0;
+      if (!tanks.isEmpty()) {
+         fuelTanks = new FuelTanks();
+         for (Tank tank : tanks) {
+            double[] location = tank.location == null ? new double[3] : toBody(tank.location);
+            fuelTanks.addTank(tank.name, tank.capacity, location[0], location[1], location[2]);
+            fuelCapacity += tank.capacity;
+            fuelContents += Math.min(tank.contents, tank.capacity);
+         }
+      }
+
+      Map<MassProperties, Double> massProps = new EnumMap<>(MassProperties.class);
+      massProps.put(MassProperties.CG_X, 0.0);
+      massProps.put(MassProperties.CG_Y, 0.0);
+      massProps.put(MassProperties.CG_Z, 0.0);
+      massProps.put(MassProperties.J_X, getInertia(MassProperties.J_X, defaultAircraft));
+      massProps.put(MassProperties.J_Y, getInertia(MassProperties.J_Y, defaultAircraft));
+      massProps.put(MassProperties.J_Z, getInertia(MassProperties.J_Z, defaultAircraft));
+      massProps.put(MassProperties.J_XZ, inertia.containsKey(MassProperties.J_XZ) ? inertia.get(MassProperties.J_XZ) : 0.0);
+      massProps.put(MassProperties.WEIGHT_EMPTY, emptyWeight);
+      massProps.put(MassProperties.MAX_WEIGHT_FUEL, fuelCapacity);
+      massProps.put(MassProperties.WEIGHT_FUEL, fuelCapacity > 0 ? fuelContents / fuelCapacity : 0.0);
+      massProps.put(MassProperties.MAX_WEIGHT_PAYLOAD, payloadWeight);
+      massProps.put(MassProperties.WEIGHT_PAYLOAD, 1.0);
+      massProps.put(MassProperties.TOTAL_MASS, (payloadWeight + fuelContents + emptyWeight) / Environment.getGravity());
+      if (!(emptyWeight > 0)) {
+         warn("No empty weight in the mass balance");
+      }
+
+      Map<GroundReaction, Double> groundReaction = new EnumMap<>(GroundReaction.class);
+      double brakingForce = defaultAircraft.getGroundReaction().get(GroundReaction.BRAKING_FORCE);
+      groundReaction.put(GroundReaction.BRAKING_FORCE, brakingForce);
+      GroundContacts groundContacts = createGroundContacts(brakingForce);
+
+      Map<String, InterpolationTable> propulsionTables = new HashMap<>();
+      List<Map<EngineParameters, String>> engineParameters = createEngines(propulsionTables);
+
+      return AircraftPackage.create(aircraftName, createStabilityDerivatives(), wingGeometry, massProps, groundReaction, groundContacts,
+              fuelTanks, engineParameters, propulsionTables);
+   }
+
+   private void putMetric(Map<WingGeometry, Double> wingGeometry, WingGeometry wingGeom, String metric, Aircraft defaultAircraft) {
+      if (metrics.containsKey(metric)) {
+         wingGeometry.put(wingGeom, metrics.get(metric));
+      } else {
+         warn("No " + metric + " in the metrics, using the default aircraft's value");
+         wingGeometry.put(wingGeom, defaultAircraft.getWingGeometry(wingGeom));
+      }
+   }
+
+   private double getInertia(MassProperties massProp, Aircraft defaultAircraft) {
+      if (inertia.containsKey(massProp)) {
+         return inertia.get(massProp);
+      } else {
+         warn("No " + massProp + " in the mass balance, using the default aircraft's value");
+         return defaultAircraft.getMassProperty(massProp);
+      }
+   }
+
+   private GroundContacts createGroundContacts(double brakingForce) {
+      if (contacts.isEmpty()) {
+         warn("No ground contact, using the default landing gear");
+         return null;
+      }
+
+      GroundContacts groundContacts = new GroundContacts();
+      for (Contact contact : contacts) {
+         ContactType type;
+         if ("STRUCTURE".equalsIgnoreCase(contact.type)) {
+            type = ContactType.STRUCTURE;
+         } else if ("LEFT".equals(contact.brakeGroup)) {
+            type = ContactType.LEFT_MAIN_GEAR;
+         } else if ("RIGHT".equals(contact.brakeGroup)) {
+            type = ContactType.RIGHT_MAIN_GEAR;
+         } else if (contact.maxSteer != 0) {
+            type = ContactType.STEERABLE_GEAR;
+         } else {
+            type = ContactType.GEAR;
+         }
+
+         // Structure contacts slide on the ground, while bogeys roll on it
+         double staticFriction = Double.isNaN(contact.staticFriction) ? type.getStaticFriction() : contact.staticFriction;
+         double movingFriction = type == ContactType.STRUCTURE ? contact.dynamicFriction : contact.rollingFriction;
+         if (Double.isNaN(movingFriction)) {
+            movingFriction = type.getRollingFriction();
+         }
+
+         double[] location = toBody(contact.location);
+         groundContacts.addContact(contact.name == null ? type.toString() : contact.name.toLowerCase(), type, location[0], location[1],
+                 location[2], contact.damping, contact.spring, staticFriction, movingFriction);
+      }
+      groundContacts.setBrakingForce(brakingForce);
+
+      return groundContacts;
+   }
+
+   private List<Map<EngineParameters, String>> createEngines(Map<String, InterpolationTable> propulsionTables) throws IOException {
+      List<Map<EngineParameters, String>> engineParameters = new ArrayList<>();
+      for (EngineDefinition engine : engines) {
+         if (engineParameters.size() == MAX_ENGINES) {
+            warn("Only " + MAX_ENGINES + " engines are supported, skipping the others");
+            break;
+         }
+         Map<String, Object> engineValues = engine.engineFile == null ? null : readComponent(engine.engineFile);
+         Map<String, Object> propellerValues = engine.thrusterFile == null ? null : readComponent(engine.thrusterFile);
+         if (engineValues == null || propellerValues == null) {
+            warn("Could not find the files of engine " + engine.engineFile + " and thruster " + engine.thrusterFile + ", skipping it");
+            continue;
+         }
+         if (!"piston_engine".equals(engineValues.get("root")) || !"propeller".equals(propellerValues.get("root"))) {
+            warn("Unsupported " + engineValues.get("root") + " with a " + propellerValues.get("root") + ", skipping it");
+            continue;
+         }
+
+         double[] location = engine.thrusterLocation != null ? engine.thrusterLocation : engine.location;
+         location = location == null ? new double[3] : toBody(location);
+         Map<EngineParameters, String> parameters = new EnumMap<>(EngineParameters.class);
+         parameters.put(EngineParameters.NAME, String.valueOf(engineValues.get("name")));
+         parameters.put(EngineParameters.POS_X, Double.toString(location[0]));
+         parameters.put(EngineParameters.POS_Y, Double.toString(location[1]));
+         parameters.put(EngineParameters.POS_Z, Double.toString(location[2]));
+         parameters.put(EngineParameters.MAX_BHP, String.valueOf(getComponentValue(engineValues, "maxhp", 200)));
+         parameters.put(EngineParameters.MAX_RPM, String.valueOf(getComponentValue(engineValues, "maxrpm", 2700)));
+         parameters.put(EngineParameters.PROP_DIAMETER, String.valueOf(getComponentValue(propellerValues, "diameter", 6.5)));
+         if (propellerValues.containsKey("ixx")) {
+            parameters.put(EngineParameters.PROP_INERTIA, String.valueOf(propellerValues.get("ixx")));
+         }
+
+         double minPitch = getComponentValue(propellerValues, "minpitch", 0);
+         double maxPitch = getComponentValue(propellerValues, "maxpitch", minPitch);
+         boolean constantSpeed = maxPitch > minPitch;
+         if (constantSpeed) {
+            parameters.put(EngineParameters.TYPE, EngineType.CONSTSPEEDPROP.toString());
+            parameters.put(EngineParameters.MIN_BLADE_ANGLE, Double.toString(minPitch));
+            parameters.put(EngineParameters.MAX_BLADE_ANGLE, Double.toString(maxPitch));
+            if (propellerValues.containsKey("minrpm")) {
+               parameters.put(EngineParameters.MIN_GOVERNED_RPM, String.valueOf(propellerValues.get("minrpm")));
+            }
+         } else {
+            parameters.put(EngineParameters.TYPE, EngineType.PISTONPROP.toString());
+            parameters.put(EngineParameters.BLADE_ANGLE, Double.toString(minPitch));
+         }
+         engineParameters.add(parameters);
+
+         // The propeller tables are shared by all the engines of an aircraft: the tables of the first propeller are used
+         if (propulsionTables.isEmpty()) {
+            addPropellerTable(propulsionTables, PropulsionTables.PROP_THRUST, propellerValues.get("C_THRUST"), minPitch);
+            addPropellerTable(propulsionTables, PropulsionTables.PROP_POWER, propellerValues.get("C_POWER"), minPitch);
+         }
+      }
+
+      return engineParameters;
+   }
+
+   private static double getComponentValue(Map<String, Object> values, String element, double defaultValue) {
+      Object value = values.get(element);
+      return value instanceof Double ? (Double) value : defaultValue;
+   }
+
+   /**
+    * Adds a propeller coefficient table, as a function of the advance ratio and of the blade angle (deg). A table of the advance ratio
+    * only, for a fixed pitch propeller, is extended to blade angles around the pitch of the propeller.
+    */
+   private void addPropellerTable(Map<String, InterpolationTable> propulsionTables, String tableName, Object value, double pitch) {
+      if (!(value instanceof JSBSimTable)) {
+         warn("No propeller table for " + tableName + ", using the default table");
+         return;
+      }
+
+      JSBSimTable table = (JSBSimTable) value;
+      if (table.getDimensions() == 2) {
+         propulsionTables.put(tableName, table.getTable());
+      } else if (table.getDimensions() == 1) {
+         double[] advanceRatios = table.getBreakpoints(0);
+         double[] values = new double[2 * advanceRatios.length];
+         for (int i = 0; i < advanceRatios.length; i++) {
+            values[2 * i] = table.value(new double[]{ advanceRatios[i] });
+            values[2 * i + 1] = values[2 * i];
+         }
+         propulsionTables.put(tableName, new InterpolationTable(new double[][]{ advanceRatios, { pitch - 1, pitch + 1 } }, values,
+                 InterpolationTable.Interpolation.LINEAR, InterpolationTable.Extrapolation.CLAMP));
+      } else {
+         warn("Unsupported propeller table " + tableName + " of " + table.getDimensions() + " dimensions, using the default table");
+      }
+   }
+
+   //===================================================================================================
+   //										Aerodynamics
+   //===================================================================================================
+   private static StabilityDerivatives getDerivative(String axis, Variable variable) {
+      Variable v = variable;
+      if ("LIFT".equals(axis)) {
+         return v == null ? StabilityDerivatives.CL_0 : v == Variable.ALPHA ? StabilityDerivatives.CL_ALPHA : v == Variable.Q
+                 ? StabilityDerivatives.CL_Q : v == Variable.ALPHA_DOT ? StabilityDerivatives.CL_ALPHA_DOT : v == Variable.ELEVATOR
+                 ? StabilityDerivatives.CL_D_ELEV : v == Variable.FLAP ? StabilityDerivatives.CL_D_FLAP : null;
+      } else if ("DRAG".equals(axis)) {
+         return v == null ? StabilityDerivatives.CD_0 : v == Variable.ALPHA ? StabilityDerivatives.CD_ALPHA : v == Variable.ELEVATOR
+                 ? StabilityDerivatives.CD_D_ELEV : v == Variable.FLAP ? StabilityDerivatives.CD_D_FLAP : v == Variable.GEAR
+                 ? StabilityDerivatives.CD_D_GEAR : null;
+      } else if ("SIDE".equals(axis)) {
+         return v == Variable.BETA ? StabilityDerivatives.CY_BETA : v == Variable.RUDDER ? StabilityDerivatives.CY_D_RUD : null;
+      } else if ("ROLL".equals(axis)) {
+         return v == Variable.BETA ? StabilityDerivatives.CROLL_BETA : v == Variable.P ? StabilityDerivatives.CROLL_P : v == Variable.R
+                 ? StabilityDerivatives.CROLL_R : v == Variable.AILERON ? StabilityDerivatives.CROLL_D_AIL : v == Variable.RUDDER
+                 ? StabilityDerivatives.CROLL_D_RUD : null;
+      } else if ("PITCH".equals(axis)) {
+         return v == null ? StabilityDerivatives.CM_0 : v == Variable.ALPHA ? StabilityDerivatives.CM_ALPHA : v == Variable.Q
+                 ? StabilityDerivatives.CM_Q : v == Variable.ALPHA_DOT ? StabilityDerivatives.CM_ALPHA_DOT : v == Variable.ELEVATOR
+                 ? StabilityDerivatives.CM_D_ELEV : v == Variable.FLAP ? StabilityDerivatives.CM_D_FLAP : null;
+      } else if ("YAW".equals(axis)) {
+         return v == Variable.BETA ? StabilityDerivatives.CN_BETA : v == Variable.P ? StabilityDerivatives.CN_P : v == Variable.R
+                 ? StabilityDerivatives.CN_R : v == Variable.AILERON ? StabilityDerivatives.CN_D_AIL : v == Variable.RUDDER
+                 ? StabilityDerivatives.CN_D_RUD : null;
+      }
+      return null;
+   }
+
+   /**
+    * Reference value of a property which is not a variable of the {@link Aerodynamics} model: out of ground effect for the heights
+    * above the ground, and 0 for the others (Mach number, spoilers, ...).
+    */
+   private static double referenceValue(String property) {
+      return property != null && property.startsWith("aero/h_b") ? OUT_OF_GROUND_EFFECT : 0;
+   }
+
+   private Map<StabilityDerivatives, Object> createStabilityDerivatives() {
+      Map<StabilityDerivatives, List<DerivativeTerm>> derivativeTerms = new EnumMap<>(StabilityDerivatives.class);
+      for (AxisFunction axisFunction : axisFunctions) {
+         try {
+            for (JSBSimFunction.Term term : axisFunction.function.expand(functions)) {
+               addTerm(axisFunction, term, derivativeTerms);
+            }
+         } catch (IllegalArgumentException e) {
+            warn("Function " + axisFunction.name + ": " + e.getMessage() + ", skipping it");
+         }
+      }
+
+      Map<StabilityDerivatives, Object> stabDerivs = new EnumMap<>(StabilityDerivatives.class);
+      for (StabilityDerivatives stabDer : StabilityDerivatives.values()) {
+         List<DerivativeTerm> terms = derivativeTerms.get(stabDer);
+         stabDerivs.put(stabDer, terms == null ? (Object) 0.0 : createDerivative(terms));
+      }
+
+      return stabDerivs;
+   }
+
+   private void addTerm(AxisFunction axisFunction, JSBSimFunction.Term term, Map<StabilityDerivatives, List<DerivativeTerm>> derivativeTerms) {
+      String axis = axisFunction.axis;
+      String lengthProperty = "ROLL".equals(axis) || "YAW".equals(axis) ? "metrics/bw-ft" : "PITCH".equals(axis) ? "metrics/cbarw-ft" : null;
+      boolean dynamicPressure = false;
+      boolean area = false;
+      boolean length = lengthProperty == null;
+      String rotaryFactor = null;
+      boolean liftSquared = false;
+      Variable variable = null;
+      double coefficient = term.getCoefficient();
+
+      for (String property : term.getProperties()) {
+         if (!dynamicPressure && (property.startsWith("aero/qbar") && property.endsWith("-psf"))) {
+            dynamicPressure = true;
+         } else if (!dynamicPressure && !area && "aero/qbar-area".equals(property)) {
+            dynamicPressure = true;
+            area = true;
+         } else if (!area && "metrics/Sw-sqft".equals(property)) {
+            area = true;
+         } else if (!length && property.equals(lengthProperty)) {
+            length = true;
+         } else if (rotaryFactor == null && ("aero/bi2vel".equals(property) || "aero/ci2vel".equals(property))) {
+            rotaryFactor = property;
+         } else if (!liftSquared && !"LIFT".equals(axis) && LIFT_SQUARED.equals(property)) {
+            liftSquared = true;
+         } else if (metrics.containsKey(property)) {
+            coefficient *= metrics.get(property);
+         } else if (VARIABLES.containsKey(property) && variable == null) {
+            variable = VARIABLES.get(property);
+            coefficient *= scaleOf(property) * (variable == Variable.AILERON ? AILERON_SIGN : 1);
+         } else if (VARIABLES.containsKey(property)) {
+            warn("Function " + axisFunction.name + ": product of " + variable + " and " + VARIABLES.get(property) + ", skipping it");
+            return;
+         } else {
+            warn("Function " + axisFunction.name + ": unsupported property " + property + ", skipping the product");
+            return;
+         }
+      }
+      if (!dynamicPressure || !area || !length) {
+         warn("Function " + axisFunction.name + ": not a dimensional " + axis + " coefficient, skipping it");
+         return;
+      }
+
+      Variable linearizedVariable = null;
+      for (JSBSimTable table : term.getTables()) {
+         for (int dim = 0; dim < table.getDimensions(); dim++) {
+            String property = table.getProperty(dim);
+            Variable tableVariable = VARIABLES.get(property);
+            if (tableVariable == null) {
+               if (warnedProperties.add(property)) {
+                  warn("Tables of " + property + " are taken at " + referenceValue(property));
+               }
+            } else if (tableVariable == variable) {
+               if (variable != Variable.FLAP) {
+                  warn("Function " + axisFunction.name + ": table of its variable " + property + ", taken at 0");
+               }
+            } else if (tableVariable != Variable.ALPHA && tableVariable != Variable.FLAP) {
+               if (variable != null || (linearizedVariable != null && linearizedVariable != tableVariable)) {
+                  warn("Function " + axisFunction.name + ": table of " + property + " in a product of another variable, skipping it");
+                  return;
+               }
+               linearizedVariable = tableVariable;
+            }
+         }
+      }
+
+      Variable termVariable = variable != null ? variable : linearizedVariable;
+      boolean chordRate = termVariable == Variable.Q || termVariable == Variable.ALPHA_DOT;
+      boolean spanRate = termVariable == Variable.P || termVariable == Variable.R;
+      if ((chordRate && !"aero/ci2vel".equals(rotaryFactor)) || (spanRate && !"aero/bi2vel".equals(rotaryFactor))
+              || (!chordRate && !spanRate && rotaryFactor != null)) {
+         warn("Function " + axisFunction.name + ": " + termVariable + " with the rotary factor " + rotaryFactor + ", skipping it");
+         return;
+      }
+
+      StabilityDerivatives stabDer = getDerivative(axis, termVariable);
+      if (stabDer == null) {
+         warn("Function " + axisFunction.name + ": no stability derivative for " + termVariable + " in the " + axis + " axis, skipping it");
+         return;
+      }
+      if (linearizedVariable != null) {
+         warn("Function " + axisFunction.name + ": linearized over " + linearizedVariable + " as " + stabDer);
+      }
+
+      List<DerivativeTerm> terms = derivativeTerms.get(stabDer);
+      if (terms == null) {
+         terms = new ArrayList<>();
+         derivativeTerms.put(stabDer, terms);
+      }
+      DerivativeTerm derivativeTerm = new DerivativeTerm(coefficient, term.getTables(), variable, linearizedVariable);
+      if (liftSquared) {
+         derivativeTerm.liftTerms = derivativeTerms;
+      }
+      terms.add(derivativeTerm);
+   }
+
+   /**
+    * Sums the terms of a stability derivative, as a constant or as a table of the angle of attack and of the flap position gridded on
+    * the breakpoints of all the tables of the terms.
+    */
+   private static Object createDerivative(List<DerivativeTerm> terms) {
+      Set<Double> alphaSet = new TreeSet<>();
+      Set<Double> flapSet = new TreeSet<>();
+      for (DerivativeTerm term : terms) {
+         term.addBreakpoints(Variable.ALPHA, alphaSet);
+         term.addBreakpoints(Variable.FLAP, flapSet);
+      }
+
+      if (alphaSet.isEmpty() && flapSet.isEmpty()) {
+         double value = 0;
+         for (DerivativeTerm term : terms) {
+            value += term.value(0, 0);
+         }
+         return value;
+      }
+
+      double[] alphaBreakpoints = toBreakpoints(alphaSet, Variable.ALPHA);
+      double[] flapBreakpoints = toBreakpoints(flapSet, Variable.FLAP);
+      double[][] values = new double[alphaBreakpoints.length][flapBreakpoints.length];
+      for (int i = 0; i < alphaBreakpoints.length; i++) {
+         for (int j = 0; j < flapBreakpoints.length; j++) {
+            for (DerivativeTerm term : terms) {
+               values[i][j] += term.value(alphaBreakpoints[i], flapBreakpoints[j]);
+            }
+         }
+      }
+
+      return new InterpolationTable(alphaBreakpoints, flapBreakpoints, values, InterpolationTable.Interpolation.LINEAR,
+              InterpolationTable.Extrapolation.CLAMP);
+   }
+
+   /**
+    * Converts a set of breakpoints to a strictly increasing array, merging breakpoints closer than 1e-9 rad, with the range of the
+    * variable if the set does not have at least two breakpoints.
+    */
+   private static double[] toBreakpoints(Set<Double> breakpoints, Variable variable) {
+      double[] array = new double[breakpoints.size()];
+      int count = 0;
+      for (double breakpoint : breakpoints) {
+         if (count == 0 || breakpoint - array[count - 1] > 1.0e-9) {
+            array[count++] = breakpoint;
+         }
+      }
+      if (count < 2) {
+         return new double[]{ Math.min(variable.minimum, count == 0 ? 0 : array[0]), Math.max(variable.maximum, count == 0 ? 0 : array[0] + 1) };
+      }
+      return Arrays.copyOf(array, count);
+   }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.parser.xml;
+
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A JSBSim <code>table</code> element of one, two or three dimensions, read while streaming a JSBSim file and held as an
+ * {@link InterpolationTable}. As in JSBSim, the table is linearly interpolated and clamped to its breakpoints.
+ *
+ * <p>The dimensions are ordered as in the {@link InterpolationTable}: the table breakpoints of a three dimensional table (given by the
+ * <code>breakPoint</code> attribute of each <code>tableData</code>) first, then the rows, then the columns.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+final class JSBSimTable {
+   private final String name;
+   private final String[] properties;
+   private final InterpolationTable table;
+
+   private JSBSimTable(String name, String[] properties, InterpolationTable table) {
+      this.name = name;
+      this.properties = properties;
+      this.table = table;
+   }
+
+   /**
+    * Reads a table from a reader positioned on the start of a <code>table</code> element, and leaves the reader on its end.
+    *
+    * @param reader the reader
+    * @return the table
+    * @throws XMLStreamException if the XML is not well formed
+    * @throws IllegalArgumentException if the table data is invalid
+    */
+   static JSBSimTable read(XMLStreamReader reader) throws XMLStreamException {
+      String name = reader.getAttributeValue(null, "name");
+      String rowProperty = null;
+      String columnProperty = null;
+      String tableProperty = null;
+      List<String> blocks = new ArrayList<>();
+      List<Double> blockBreakpoints = new ArrayList<>();
+
+      while (JSBSimImporter.nextChild(reader)) {
+         String element = reader.getLocalName();
+         if ("independentVar".equals(element)) {
+            String lookup = reader.getAttributeValue(null, "lookup");
+            String property = reader.getElementText().trim();
+            if ("column".equals(lookup)) {
+               columnProperty = property;
+            } else if ("table".equals(lookup)) {
+               tableProperty = property;
+            } else {
+               rowProperty = property;
+            }
+         } else if ("tableData".equals(element)) {
+            String breakPoint = reader.getAttributeValue(null, "breakPoint");
+            if (breakPoint != null) {
+               blockBreakpoints.add(Double.parseDouble(breakPoint.trim()));
+            }
+            blocks.add(reader.getElementText());
+         } else {
+            JSBSimImporter.skip(reader);
+         }
+      }
+
+      if (blocks.isEmpty()) {
+         throw new IllegalArgumentException("No data in table " + name);
+      }
+      if (blocks.size() > 1) {
+         if (blockBreakpoints.size() != blocks.size()) {
+            throw new IllegalArgumentException("Missing breakPoint in table " + name);
+         }
+         return readTable3D(name, new String[]{ tableProperty, rowProperty, columnProperty }, blocks, blockBreakpoints);
+      }
+
+      List<double[]> lines = parseLines(blocks.get(0));
+      if (lines.size() < 2) {
+         throw new IllegalArgumentException("Not enough rows in table " + name);
+      }
+      // The first line of a two dimensional table holds the column breakpoints, and has one value less than the other lines
+      if (columnProperty != null || lines.get(1).length == lines.get(0).length + 1) {
+         double[][] breakpoints = new double[2][];
+         double[] values = readTable2D(name, lines, breakpoints);
+         return new JSBSimTable(name, new String[]{ rowProperty, columnProperty }, new InterpolationTable(breakpoints, values,
+                 InterpolationTable.Interpolation.LINEAR, InterpolationTable.Extrapolation.CLAMP));
+      }
+
+      double[] breakpoints = new double[lines.size()];
+      double[] values = new double[lines.size()];
+      for (int i = 0; i < lines.size(); i++) {
+         if (lines.get(i).length != 2) {
+            throw new IllegalArgumentException("Row " + i + " of table " + name + " does not have 2 values");
+         }
+         breakpoints[i] = lines.get(i)[0];
+         values[i] = lines.get(i)[1];
+      }
+      return new JSBSimTable(name, new String[]{ rowProperty }, new InterpolationTable(new double[][]{ breakpoints }, values,
+              InterpolationTable.Interpolation.LINEAR, InterpolationTable.Extrapolation.CLAMP));
+   }
+
+   private static JSBSimTable readTable3D(String name, String[] properties, List<String> blocks, List<Double> blockBreakpoints) {
+      double[][] breakpoints = new double[3][];
+      breakpoints[0] = new double[blocks.size()];
+      double[] values = null;
+      int blockSize = 0;
+
+      for (int i = 0; i < blocks.size(); i++) {
+         breakpoints[0][i] = blockBreakpoints.get(i);
+         double[][] blockBreakpoint = new double[2][];
+         double[] blockValues = readTable2D(name, parseLines(blocks.get(i)), blockBreakpoint);
+         if (values == null) {
+            breakpoints[1] = blockBreakpoint[0];
+            breakpoints[2] = blockBreakpoint[1];
+            blockSize = blockValues.length;
+            values = new double[blocks.size() * blockSize];
+         } else if (!Arrays.equals(breakpoints[1], blockBreakpoint[0]) || !Arrays.equals(breakpoints[2], blockBreakpoint[1])) {
+            throw new IllegalArgumentException("Breakpoints of table " + name + " differ at breakPoint " + breakpoints[0][i]);
+         }
+         System.arraycopy(blockValues, 0, values, i * blockSize, blockSize);
+      }
+
+      return new JSBSimTable(name, properties, new InterpolationTable(breakpoints, values, InterpolationTable.Interpolation.LINEAR,
+              InterpolationTable.Extrapolation.CLAMP));
+   }
+
+   private static double[] readTable2D(String name, List<double[]> lines, double[][] breakpoints) {
+      double[] columns = lines.get(0);
+      double[] rows = new double[lines.size() - 1];
+      double[] values = new double[rows.length * columns.length];
+      for (int i = 0; i < rows.length; i++) {
+         double[] line = lines.get(i + 1);
+         if (line.length != columns.length + 1) {
+            throw new IllegalArgumentException("Row " + (i + 1) + " of table " + name + " does not have " + (columns.length + 1) + " values");
+         }
+         rows[i] = line[0];
+         System.arraycopy(line, 1, values, i * columns.length, columns.length);
+      }
+      breakpoints[0] = rows;
+      breakpoints[1] = columns;
+
+      return values;
+   }
+
+   /**
+    * Parses the numbers of each non empty line of a text, without regular expressions.
+    */
+   private static List<double[]> parseLines(String text) {
+      List<double[]> lines = new ArrayList<>();
+      double[] line = new double[16];
+      int count = 0;
+      int length = text.length();
+      int i = 0;
+      while (i <= length) {
+         char c = i < length ? text.charAt(i) : '\n';
+         if (c == '\n' || c == '\r') {
+            if (count > 0) {
+               lines.add(Arrays.copyOf(line, count));
+               count = 0;
+            }
+            i++;
+         } else if (Character.isWhitespace(c) || c == ',') {
+            i++;
+         } else {
+            int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i)) && text.charAt(i) != ',') {
+               i++;
+            }
+            if (count == line.length) {
+               line = Arrays.copyOf(line, 2 * count);
+            }
+            line[count++] = Double.parseDouble(text.substring(start, i));
+         }
+      }
+
+      return lines;
+   }
+
+   /**
+    * @return the name of the table, or null
+    */
+   String getName() {
+      return name;
+   }
+
+   /**
+    * @return the number of dimensions of the table
+    */
+   int getDimensions() {
+      return properties.length;
+   }
+
+   /**
+    * @param dimension the dimension
+    * @return the property looked up in the dimension, or null if the table does not declare it
+    */
+   String getProperty(int dimension) {
+      return properties[dimension];
+   }
+
+   /**
+    * @param dimension the dimension
+    * @return a copy of the breakpoints of the dimension
+    */
+   double[] getBreakpoints(int dimension) {
+      return table.getBreakpoints(dimension);
+   }
+
+   /**
+    * @param arguments the value of the property of each dimension
+    * @return the interpolated value
+    */
+   double value(double[] arguments) {
+      return table.value(arguments);
+   }
+
+   /**
+    * @return the table as an {@link InterpolationTable}
+    */
+   InterpolationTable getTable() {
+      return table;
+   }
+}
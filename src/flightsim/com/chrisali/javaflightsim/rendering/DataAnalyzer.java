@@ -17,9 +17,7 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
 package com.chrisali.javaflightsim.rendering;
 
 import com.chrisali.javaflightsim.controllers.SimulationController;
-import com.chrisali.javaflightsim.simulation.integration.SimOuts;
-import java.util.List;
-import java.util.Map;
+import com.chrisali.javaflightsim.simulation.integration.FlightLog;
 
 /**
  * This interface represents DataAnalyzers.
@@ -46,5 +44,5 @@ public interface DataAnalyzer {
     *
     * @param logsOut the logsOut
     */
-   public void refresh(List<Map<SimOuts, Double>> logsOut);
+   public void refresh(FlightLog logsOut);
 }
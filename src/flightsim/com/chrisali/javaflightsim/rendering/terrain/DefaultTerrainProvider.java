@@ -96,6 +96,9 @@ public class DefaultTerrainProvider implements TerrainProvider {
    @Override
    public void onFlightDataReceived(FlightData flightData) {
       Map<FlightDataType, Double> receivedFlightData = flightData.getFlightData();
+      if (ownship == null || receivedFlightData.containsValue(null)) {
+         return;
+      }
       double x = receivedFlightData.get(FlightDataType.NORTH);
       double z = receivedFlightData.get(FlightDataType.EAST);
       double y = receivedFlightData.get(FlightDataType.ALTITUDE);
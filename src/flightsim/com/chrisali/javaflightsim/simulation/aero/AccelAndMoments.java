@@ -16,6 +16,7 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
 package com.chrisali.javaflightsim.simulation.aero;
 
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.MassModel;
 import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
@@ -23,134 +24,180 @@ import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
 import com.chrisali.javaflightsim.simulation.integration.SaturationLimits;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
-import java.util.Map;
-import java.util.Set;
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
 /**
- * Calculates total accelerations and moments experienced by the aircraft in the simulation. The init method creates an
+ * Calculates total accelerations and moments experienced by the aircraft in the simulation. Each instance holds its own
  * {@link Aerodynamics} object to calculate aerodynamic forces and moments, which are then added to other various forces
  * (ground reaction, wind, engine, etc) to yield accelerations and moments used by {@link Integrate6DOFEquations} in its
- * numerical integration
+ * numerical integration. An instance is owned by a single simulation, so that several simulations can run concurrently
  * see Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
  */
 public class AccelAndMoments {
 
-   private static Aerodynamics aero;
+   // Displacement of the center of gravity when the mass properties of the loaded aircraft are used
+   private static final double[] NO_SHIFT = new double[3];
 
-   private static double[] linearAccelerations = new double[3];
-   private static double[] totalMoments = new double[3];
+   private final Aerodynamics aero;
+
+   // Scratch buffers for aerodynamic forces and moments, preallocated so that a step of integration does not allocate
+   private final double[] aeroForces = new double[3];
+   private final double[] aeroMoments = new double[3];
 
    /**
-    * Initializes {@link AccelAndMoments}. It uses the {@link Aircraft} argument to create an {@link Aerodynamics} object,
-    * which calculates aerodynamic forces and moments associated with the Aircraft object passed in
+    * Creates {@link AccelAndMoments}. It uses the {@link AerodynamicModel} argument to create an {@link Aerodynamics} object,
+    * which calculates aerodynamic forces and moments associated with the aircraft the model was compiled from
     *
-    * @param aircraft
+    * @param model
     */
-   public static void init(Aircraft aircraft) {
-      aero = new Aerodynamics(aircraft);
+   public AccelAndMoments(AerodynamicModel model) {
+      aero = new Aerodynamics(model);
    }
 
    /**
-    * Calculates the total linear acceleration experienced by the aircraft (ft/sec^2)
+    * Calculates in a single pass the total linear acceleration (ft/sec^2) and the total moment (lb ft) experienced by the aircraft,
+    * and writes them into caller-supplied arrays. The aerodynamic forces are calculated only once, and used both for the accelerations
+    * and for the moments they generate about the center of gravity.
+    * The environment parameters and controls are indexed by {@link EnvironmentParameters#ordinal()} and {@link FlightControlType#ordinal()}
     *
     * @param windParameters
     * @param angularRates
     * @param environmentParameters
     * @param controls
     * @param alphaDot
-    * @param engineList
+    * @param engines
     * @param aircraft
     * @param groundReaction
     * @param heightAGL
-    * @return linearAccelerations
+    * @param linearAccelerations the array of accelerations to fill
+    * @param totalMoments the array of moments to fill
     */
-   public static double[] calculateLinearAccelerations(double[] windParameters,
+   public void calculateAccelAndMoments(double[] windParameters,
            double[] angularRates,
-           Map<EnvironmentParameters, Double> environmentParameters,
-           Map<FlightControlType, Double> controls,
+           double[] environmentParameters,
+           double[] controls,
            double alphaDot,
-           Set<Engine> engineList,
+           Engine[] engines,
            Aircraft aircraft,
            IntegrateGroundReaction groundReaction,
-           double heightAGL) {
-
-      Vector3D aeroForceVector = new Vector3D(aero.calculateBodyForces(windParameters,
-              angularRates,
-              environmentParameters,
-              controls,
-              alphaDot,
-              heightAGL));
-
-      Vector3D groundForceVector = new Vector3D(groundReaction.getTotalGroundForces());
-
-      // Create a vector of engine force, iterate through engineList and add the thrust of each engine in list
-      Vector3D engineForceVector = Vector3D.ZERO;
-      for (Engine engine : engineList) {
-         engineForceVector = engineForceVector.add(new Vector3D(engine.getThrust()));
-      }
-
-      linearAccelerations = aeroForceVector.add(engineForceVector).add(groundForceVector)
-              .scalarMultiply(1 / aircraft.getMassProperty(MassProperties.TOTAL_MASS))
-              .toArray();
-
-      return SaturationLimits.limitLinearAccelerations(linearAccelerations);
+           double heightAGL,
+           double[] linearAccelerations,
+           double[] totalMoments) {
+
+      calculateAccelAndMoments(windParameters, angularRates, environmentParameters, controls, alphaDot, engines, aircraft, groundReaction,
+              heightAGL, aircraft.getMassProperty(MassProperties.TOTAL_MASS), aircraft.getMassProperty(MassProperties.CG_X),
+              aircraft.getMassProperty(MassProperties.CG_Y), aircraft.getMassProperty(MassProperties.CG_Z), NO_SHIFT,
+              linearAccelerations, totalMoments);
    }
 
    /**
-    * Calculates the total moment experienced by the aircraft (lb ft)
+    * Calculates the total linear acceleration and the total moment experienced by the aircraft like
+    * {@link AccelAndMoments#calculateAccelAndMoments(double[], double[], double[], double[], double, Engine[], Aircraft, IntegrateGroundReaction, double, double[], double[])},
+    * with the current mass and center of gravity of a {@link MassModel} rather than the mass properties of the loaded aircraft. The moments
+    * of the engines, whose positions are relative to the center of gravity of the loaded aircraft, are corrected for the displacement of
+    * the center of gravity.
     *
     * @param windParameters
     * @param angularRates
     * @param environmentParameters
     * @param controls
     * @param alphaDot
-    * @param engineList
+    * @param engines
     * @param aircraft
+    * @param massModel the mass model of the aircraft
     * @param groundReaction
     * @param heightAGL
-    * @return totalMoments
+    * @param linearAccelerations the array of accelerations to fill
+    * @param totalMoments the array of moments to fill
     */
-   public static double[] calculateTotalMoments(double[] windParameters,
+   public void calculateAccelAndMoments(double[] windParameters,
            double[] angularRates,
-           Map<EnvironmentParameters, Double> environmentParameters,
-           Map<FlightControlType, Double> controls,
+           double[] environmentParameters,
+           double[] controls,
            double alphaDot,
-           Set<Engine> engineList,
+           Engine[] engines,
            Aircraft aircraft,
+           MassModel massModel,
            IntegrateGroundReaction groundReaction,
-           double heightAGL) {
+           double heightAGL,
+           double[] linearAccelerations,
+           double[] totalMoments) {
+
+      double[] centerOfGravity = massModel.getCenterOfGravity();
+      calculateAccelAndMoments(windParameters, angularRates, environmentParameters, controls, alphaDot, engines, aircraft, groundReaction,
+              heightAGL, massModel.getMass(), centerOfGravity[0], centerOfGravity[1], centerOfGravity[2], massModel.getCenterOfGravityShift(),
+              linearAccelerations, totalMoments);
+   }
 
-      Vector3D aeroForceVector = new Vector3D(aero.calculateBodyForces(windParameters,
+   private void calculateAccelAndMoments(double[] windParameters,
+           double[] angularRates,
+           double[] environmentParameters,
+           double[] controls,
+           double alphaDot,
+           Engine[] engines,
+           Aircraft aircraft,
+           IntegrateGroundReaction groundReaction,
+           double heightAGL,
+           double mass,
+           double cgX,
+           double cgY,
+           double cgZ,
+           double[] cgShift,
+           double[] linearAccelerations,
+           double[] totalMoments) {
+
+      aero.calculateForcesAndMoments(windParameters,
               angularRates,
               environmentParameters,
               controls,
               alphaDot,
-              heightAGL));
-
-      // Apache Commons vector methods only accept primitive double[] arrays
-      Vector3D acVector = new Vector3D(aircraft.getAerodynamicCenter());
-      Vector3D cgVector = new Vector3D(aircraft.getCenterOfGravity());
+              heightAGL,
+              aeroForces,
+              aeroMoments);
 
-      Vector3D aeroForceCrossProd = Vector3D.crossProduct(aeroForceVector, acVector.subtract(cgVector));
+      //------------------------------- Accelerations -------------------------------
+      double[] groundForces = groundReaction.getTotalGroundForces();
 
-      Vector3D aeroMomentVector = new Vector3D(aero.calculateAeroMoments(windParameters,
-              angularRates,
-              environmentParameters,
-              controls,
-              alphaDot));
+      for (int i = 0; i < 3; i++) {
+         linearAccelerations[i] = aeroForces[i] + groundForces[i];
+      }
 
-      Vector3D groundMomentVector = new Vector3D(groundReaction.getTotalGroundMoments());
+      // Iterate through engines and add the thrust of each engine
+      for (Engine engine : engines) {
+         double[] thrust = engine.getThrust();
+         for (int i = 0; i < 3; i++) {
+            linearAccelerations[i] += thrust[i];
+         }
+      }
 
-      // Create a vector of engine moment, iterate through engineList and add the moment of each engine in list
-      Vector3D engineMoment = Vector3D.ZERO;
-      for (Engine engine : engineList) {
-         engineMoment = engineMoment.add(new Vector3D(engine.getEngineMoment()));
+      for (int i = 0; i < 3; i++) {
+         linearAccelerations[i] /= mass;
       }
 
-      totalMoments = aeroMomentVector.add(engineMoment).add(aeroForceCrossProd).add(groundMomentVector)
-              .toArray();
+      SaturationLimits.limitLinearAccelerations(linearAccelerations);
+
+      //---------------------------------- Moments ----------------------------------
+      // Arm of the aerodynamic center relative to the center of gravity
+      double armX = aircraft.getWingGeometry(WingGeometry.AC_X) - cgX;
+      double armY = aircraft.getWingGeometry(WingGeometry.AC_Y) - cgY;
+      double armZ = aircraft.getWingGeometry(WingGeometry.AC_Z) - cgZ;
+
+      double[] groundMoments = groundReaction.getTotalGroundMoments();
+
+      // Aerodynamic moments, plus cross product of aerodynamic forces and arm, plus ground moments
+      totalMoments[0] = aeroMoments[0] + (aeroForces[1] * armZ - aeroForces[2] * armY) + groundMoments[0];
+      totalMoments[1] = aeroMoments[1] + (aeroForces[2] * armX - aeroForces[0] * armZ) + groundMoments[1];
+      totalMoments[2] = aeroMoments[2] + (aeroForces[0] * armY - aeroForces[1] * armX) + groundMoments[2];
+
+      // Iterate through engines and add the moment of each engine, thrust x position, with its arm shortened by the shift of the center
+      // of gravity like the arm of the aerodynamic center: thrust x (position - shift)
+      for (Engine engine : engines) {
+         double[] engineMoment = engine.getEngineMoment();
+         double[] thrust = engine.getThrust();
+         totalMoments[0] += engineMoment[0] - (thrust[1] * cgShift[2] - thrust[2] * cgShift[1]);
+         totalMoments[1] += engineMoment[1] - (thrust[2] * cgShift[0] - thrust[0] * cgShift[2]);
+         totalMoments[2] += engineMoment[2] - (thrust[0] * cgShift[1] - thrust[1] * cgShift[0]);
+      }
 
-      return SaturationLimits.limitTotalMoments(totalMoments);
+      SaturationLimits.limitTotalMoments(totalMoments);
    }
 }
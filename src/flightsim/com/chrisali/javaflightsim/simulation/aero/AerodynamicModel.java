@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aero;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+
+/**
+ * Immutable, compiled form of the {@link StabilityDerivatives} and {@link WingGeometry} of an {@link Aircraft}, built once by
+ * {@link AircraftBuilder} and evaluated by {@link Aerodynamics} at each step of integration. Constant stability derivatives are held in a
+ * primitive array, and derivatives defined by lookup tables are held as {@link LookupTable}s, both indexed by {@link StabilityDerivatives#ordinal()},
+ * so that no map lookup, cast or type check is needed during the simulation.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class AerodynamicModel {
+   private static final StabilityDerivatives[] STAB_DERS = StabilityDerivatives.values();
+
+   private final String aircraftName;
+   private final double[] constants = new double[STAB_DERS.length];
+   private final LookupTable[] tables = new LookupTable[STAB_DERS.length];
+   private final int[] tableIndices;
+
+   private final double sWing;
+   private final double bWing;
+   private final double cBar;
+
+   /**
+    * Compiles the stability derivatives and wing geometry of an {@link Aircraft}. A stability derivative which is neither a Double nor a
+    * {@link LookupTable} is replaced by 0.
+    *
+    * @param aircraft the aircraft
+    */
+   public AerodynamicModel(Aircraft aircraft) {
+      this.aircraftName = aircraft.getName();
+
+      int tableCount = 0;
+      for (StabilityDerivatives stabDer : STAB_DERS) {
+         Object stabDerValue = aircraft.getStabilityDerivative(stabDer);
+
+         if (stabDerValue instanceof Double) {
+            constants[stabDer.ordinal()] = (Double) stabDerValue;
+         } else if (stabDerValue instanceof LookupTable) {
+            tables[stabDer.ordinal()] = (LookupTable) stabDerValue;
+            tableCount++;
+         } else {
+            System.err.println("Invalid value for " + stabDer + " in " + aircraftName + "! Defaulting to 0.");
+         }
+      }
+
+      tableIndices = new int[tableCount];
+      for (int i = 0, j = 0; i < tables.length; i++) {
+         if (tables[i] != null) {
+            tableIndices[j++] = i;
+         }
+      }
+
+      this.sWing = aircraft.getWingGeometry(WingGeometry.S_WING);
+      this.bWing = aircraft.getWingGeometry(WingGeometry.B_WING);
+      this.cBar = aircraft.getWingGeometry(WingGeometry.C_BAR);
+   }
+
+   /**
+    * Evaluates all stability derivatives at the given angle of attack and flap position, and writes them into a caller-supplied array
+    * indexed by {@link StabilityDerivatives#ordinal()}. Only the derivatives defined by lookup tables are interpolated.
+    *
+    * @param alpha the angle of attack (rad)
+    * @param flap the flap position (rad)
+    * @param coefficients the array to fill
+    * @return coefficients
+    */
+   public double[] evaluate(double alpha, double flap, double[] coefficients) {
+      System.arraycopy(constants, 0, coefficients, 0, constants.length);
+      for (int i = 0; i < tableIndices.length; i++) {
+         int index = tableIndices[i];
+         coefficients[index] = tables[index].value(alpha, flap);
+      }
+
+      return coefficients;
+   }
+
+   /**
+    * Evaluates a single stability derivative at the given angle of attack and flap position.
+    *
+    * @param stabDer the stability derivative
+    * @param alpha the angle of attack (rad)
+    * @param flap the flap position (rad)
+    * @return the value of the stability derivative
+    */
+   public double evaluate(StabilityDerivatives stabDer, double alpha, double flap) {
+      LookupTable table = tables[stabDer.ordinal()];
+
+      return (table == null) ? constants[stabDer.ordinal()] : table.value(alpha, flap);
+   }
+
+   /**
+    * @param stabDer the stability derivative
+    * @return true if the stability derivative is defined by a lookup table
+    */
+   public boolean isLookupTable(StabilityDerivatives stabDer) {
+      return tables[stabDer.ordinal()] != null;
+   }
+
+   /**
+    * @return the name of the aircraft this model was compiled from
+    */
+   public String getAircraftName() {
+      return aircraftName;
+   }
+
+   /**
+    * @return the wing area (ft^2)
+    */
+   public double getWingArea() {
+      return sWing;
+   }
+
+   /**
+    * @return the wing span (ft)
+    */
+   public double getWingSpan() {
+      return bWing;
+   }
+
+   /**
+    * @return the mean aerodynamic chord (ft)
+    */
+   public double getMeanChord() {
+      return cBar;
+   }
+}
@@ -18,24 +18,62 @@ package com.chrisali.javaflightsim.simulation.aero;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
 import java.util.Map;
-import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
-import org.apache.commons.math3.exception.OutOfRangeException;
 
 /**
  * This class calculates aerodynamic forces and moments in the stability coordinate frame. The aerodynamic forces are then converted to the
  * body frame to calculate accelerations and moments in {@link AccelAndMoments}. Depending on the stability derivatives specified upon aircraft creation
- * in {@link AircraftBuilder} the stability derivatives can be either a constant double or interpolated linearly using a lookup table.
+ * in {@link AircraftBuilder} the stability derivatives can be either a constant double or interpolated using a lookup table. They are read from
+ * the {@link AerodynamicModel} compiled from the aircraft, which evaluates all of them once per calculation into a primitive array.
  *
  * @see Aircraft
  * @see StabilityDerivatives
- * @see PiecewiseBicubicSplineInterpolatingFunction
+ * @see AerodynamicModel
  * see Source: Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
  */
 public class Aerodynamics {
-   private Aircraft aircraft;
+   private static final int CL_ALPHA = StabilityDerivatives.CL_ALPHA.ordinal();
+   private static final int CL_0 = StabilityDerivatives.CL_0.ordinal();
+   private static final int CL_Q = StabilityDerivatives.CL_Q.ordinal();
+   private static final int CL_ALPHA_DOT = StabilityDerivatives.CL_ALPHA_DOT.ordinal();
+   private static final int CL_D_ELEV = StabilityDerivatives.CL_D_ELEV.ordinal();
+   private static final int CL_D_FLAP = StabilityDerivatives.CL_D_FLAP.ordinal();
+   private static final int CY_BETA = StabilityDerivatives.CY_BETA.ordinal();
+   private static final int CY_D_RUD = StabilityDerivatives.CY_D_RUD.ordinal();
+   private static final int CD_ALPHA = StabilityDerivatives.CD_ALPHA.ordinal();
+   private static final int CD_0 = StabilityDerivatives.CD_0.ordinal();
+   private static final int CD_D_ELEV = StabilityDerivatives.CD_D_ELEV.ordinal();
+   private static final int CD_D_FLAP = StabilityDerivatives.CD_D_FLAP.ordinal();
+   private static final int CD_D_GEAR = StabilityDerivatives.CD_D_GEAR.ordinal();
+   private static final int CROLL_BETA = StabilityDerivatives.CROLL_BETA.ordinal();
+   private static final int CROLL_P = StabilityDerivatives.CROLL_P.ordinal();
+   private static final int CROLL_R = StabilityDerivatives.CROLL_R.ordinal();
+   private static final int CROLL_D_AIL = StabilityDerivatives.CROLL_D_AIL.ordinal();
+   private static final int CROLL_D_RUD = StabilityDerivatives.CROLL_D_RUD.ordinal();
+   private static final int CM_ALPHA = StabilityDerivatives.CM_ALPHA.ordinal();
+   private static final int CM_0 = StabilityDerivatives.CM_0.ordinal();
+   private static final int CM_Q = StabilityDerivatives.CM_Q.ordinal();
+   private static final int CM_ALPHA_DOT = StabilityDerivatives.CM_ALPHA_DOT.ordinal();
+   private static final int CM_D_ELEV = StabilityDerivatives.CM_D_ELEV.ordinal();
+   private static final int CM_D_FLAP = StabilityDerivatives.CM_D_FLAP.ordinal();
+   private static final int CN_BETA = StabilityDerivatives.CN_BETA.ordinal();
+   private static final int CN_P = StabilityDerivatives.CN_P.ordinal();
+   private static final int CN_R = StabilityDerivatives.CN_R.ordinal();
+   private static final int CN_D_AIL = StabilityDerivatives.CN_D_AIL.ordinal();
+   private static final int CN_D_RUD = StabilityDerivatives.CN_D_RUD.ordinal();
+
+   private static final int ELEVATOR = FlightControlType.ELEVATOR.ordinal();
+   private static final int AILERON = FlightControlType.AILERON.ordinal();
+   private static final int RUDDER = FlightControlType.RUDDER.ordinal();
+   private static final int FLAPS = FlightControlType.FLAPS.ordinal();
+   private static final int GEAR = FlightControlType.GEAR.ordinal();
+
+   private final AerodynamicModel model;
+   private final double[] coefficients = new double[StabilityDerivatives.values().length];
+   private final double[][] wind2BodyDCM = new double[3][3];
 
    /**
     * Aerodynamics constructor. Takes the aerodynamic parameters of an {@link Aircraft} object to generate aerodynamic forces and moments
@@ -43,133 +81,153 @@ public class Aerodynamics {
     * @param aircraft
     */
    public Aerodynamics(Aircraft aircraft) {
-      this.aircraft = aircraft;
+      this(new AerodynamicModel(aircraft));
+   }
+
+   /**
+    * Aerodynamics constructor. Takes an {@link AerodynamicModel} already compiled by {@link AircraftBuilder} to generate aerodynamic forces and moments
+    *
+    * @param model
+    */
+   public Aerodynamics(AerodynamicModel model) {
+      this.model = model;
    }
 
    /**
     * Calculates the aircraft's total lift coefficient (CL)
     *
+    * @param c the stability derivatives evaluated by the {@link AerodynamicModel}
     * @param angularRates
     * @param windParameters
     * @param controls
     * @param alphaDot
-    * @param heightAGL
+    * @param groundEffect
     * @return CL
     */
-   private double calculateCL(double[] angularRates,
+   private double calculateCL(double[] c,
+           double[] angularRates,
            double[] windParameters,
-           Map<FlightControlType, Double> controls,
+           double[] controls,
            double alphaDot,
-           double heightAGL) {
-      double rotaryTerm = aircraft.getWingGeometry(WingGeometry.C_BAR) / (2 * windParameters[0]);
-
-      return calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CL_ALPHA) * windParameters[2] * groundEffect(heightAGL)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CL_0)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CL_Q) * angularRates[1] * rotaryTerm
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CL_ALPHA_DOT) * alphaDot * rotaryTerm
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CL_D_ELEV) * controls.get(FlightControlType.ELEVATOR)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CL_D_FLAP) * controls.get(FlightControlType.FLAPS);
+           double groundEffect) {
+      double rotaryTerm = model.getMeanChord() / (2 * windParameters[0]);
+
+      return c[CL_ALPHA] * windParameters[2] * groundEffect
+              + c[CL_0]
+              + c[CL_Q] * angularRates[1] * rotaryTerm
+              + c[CL_ALPHA_DOT] * alphaDot * rotaryTerm
+              + c[CL_D_ELEV] * controls[ELEVATOR]
+              + c[CL_D_FLAP] * controls[FLAPS];
    }
 
    /**
     * Calculates the aircraft's total side force coefficient (CY)
     *
+    * @param c the stability derivatives evaluated by the {@link AerodynamicModel}
     * @param windParameters
     * @param controls
     * @return CY
     */
-   private double calculateCY(double[] windParameters,
-           Map<FlightControlType, Double> controls) {
-      return (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CY_BETA) * windParameters[1]
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CY_D_RUD) * controls.get(FlightControlType.RUDDER);
+   private double calculateCY(double[] c,
+           double[] windParameters,
+           double[] controls) {
+      return c[CY_BETA] * windParameters[1]
+              + c[CY_D_RUD] * controls[RUDDER];
    }
 
    /**
     * Calculates the aircraft's total drag coefficient (CD)
     *
+    * @param c the stability derivatives evaluated by the {@link AerodynamicModel}
     * @param windParameters
     * @param controls
-    * @param heightAGL
+    * @param groundEffect
     * @return CD
     */
-   private double calculateCD(double[] windParameters,
-           Map<FlightControlType, Double> controls,
-           double heightAGL) {
-      return calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CD_ALPHA) * Math.abs(windParameters[2]) / groundEffect(heightAGL)
+   private double calculateCD(double[] c,
+           double[] windParameters,
+           double[] controls,
+           double groundEffect) {
+      return c[CD_ALPHA] * Math.abs(windParameters[2]) / groundEffect
               + // Need absolute value to prevent negative drag at negative alpha
-              (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CD_0)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CD_D_FLAP) * controls.get(FlightControlType.FLAPS)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CD_D_ELEV) * controls.get(FlightControlType.ELEVATOR)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CD_D_GEAR) * controls.get(FlightControlType.GEAR);
+              c[CD_0]
+              + c[CD_D_FLAP] * controls[FLAPS]
+              + c[CD_D_ELEV] * controls[ELEVATOR]
+              + c[CD_D_GEAR] * controls[GEAR];
    }
 
    /**
     * Calculates the aircraft's total roll moment coefficient (Cl)
     *
+    * @param c the stability derivatives evaluated by the {@link AerodynamicModel}
     * @param angularRates
     * @param windParameters
     * @param controls
     * @return Croll
     */
-   private double calculateCRoll(double[] angularRates,
+   private double calculateCRoll(double[] c,
+           double[] angularRates,
            double[] windParameters,
-           Map<FlightControlType, Double> controls) {
-      double helixAngle = aircraft.getWingGeometry(WingGeometry.B_WING) / (2 * windParameters[0]);
-
-      return (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CROLL_BETA) * windParameters[1]
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CROLL_P) * angularRates[0] * helixAngle
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CROLL_R) * angularRates[2] * helixAngle
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CROLL_D_AIL) * controls.get(FlightControlType.AILERON)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CROLL_D_RUD) * controls.get(FlightControlType.RUDDER);
+           double[] controls) {
+      double helixAngle = model.getWingSpan() / (2 * windParameters[0]);
+
+      return c[CROLL_BETA] * windParameters[1]
+              + c[CROLL_P] * angularRates[0] * helixAngle
+              + c[CROLL_R] * angularRates[2] * helixAngle
+              + c[CROLL_D_AIL] * controls[AILERON]
+              + c[CROLL_D_RUD] * controls[RUDDER];
    }
 
    /**
     * Calculates the aircraft's total pitch moment coefficient (CM)
     *
+    * @param c the stability derivatives evaluated by the {@link AerodynamicModel}
     * @param angularRates
     * @param windParameters
     * @param controls
     * @param alphaDot
-    * @return
+    * @return CM
     */
-   private double calculateCM(double[] angularRates,
+   private double calculateCM(double[] c,
+           double[] angularRates,
            double[] windParameters,
-           Map<FlightControlType, Double> controls,
+           double[] controls,
            double alphaDot) {
-      double rotaryTerm = aircraft.getWingGeometry(WingGeometry.C_BAR) / (2 * windParameters[0]);
-
-      return calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CM_ALPHA) * windParameters[2]
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_0)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_Q) * angularRates[1] * rotaryTerm
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_ALPHA_DOT) * alphaDot * rotaryTerm
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_D_ELEV) * controls.get(FlightControlType.ELEVATOR)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_D_FLAP) * controls.get(FlightControlType.FLAPS);
+      double rotaryTerm = model.getMeanChord() / (2 * windParameters[0]);
+
+      return c[CM_ALPHA] * windParameters[2]
+              + c[CM_0]
+              + c[CM_Q] * angularRates[1] * rotaryTerm
+              + c[CM_ALPHA_DOT] * alphaDot * rotaryTerm
+              + c[CM_D_ELEV] * controls[ELEVATOR]
+              + c[CM_D_FLAP] * controls[FLAPS];
    }
 
    /**
     * Calculates the aircraft's total yaw moment coefficient (CN)
     *
+    * @param c the stability derivatives evaluated by the {@link AerodynamicModel}
     * @param angularRates
     * @param windParameters
     * @param controls
     * @return CN
     */
-   private double calculateCN(double[] angularRates,
+   private double calculateCN(double[] c,
+           double[] angularRates,
            double[] windParameters,
-           Map<FlightControlType, Double> controls) {
-      double helixAngle = aircraft.getWingGeometry(WingGeometry.B_WING) / (2 * windParameters[0]);
-
-      return (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CN_BETA) * windParameters[1]
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CN_P) * angularRates[0] * helixAngle
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CN_R) * angularRates[2] * helixAngle
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CN_D_AIL) * controls.get(FlightControlType.AILERON)
-              + (Double) aircraft.getStabilityDerivative(StabilityDerivatives.CN_D_RUD) * controls.get(FlightControlType.RUDDER);
+           double[] controls) {
+      double helixAngle = model.getWingSpan() / (2 * windParameters[0]);
+
+      return c[CN_BETA] * windParameters[1]
+              + c[CN_P] * angularRates[0] * helixAngle
+              + c[CN_R] * angularRates[2] * helixAngle
+              + c[CN_D_AIL] * controls[AILERON]
+              + c[CN_D_RUD] * controls[RUDDER];
    }
 
    /**
-    * Gets the type of value contained in the specified key of the {@link StabilityDerivatives} EnumMap,
-    * interpolate it if its type is {@link PiecewiseBicubicSplineInterpolatingFunction}, or simply return it
-    * if its type is Double
+    * Returns the value of a {@link StabilityDerivatives}, interpolated if it is defined by a lookup table in the
+    * {@link AerodynamicModel}, or simply returned if it is a constant
     *
     * @param windParameters
     * @param controls
@@ -177,24 +235,20 @@ public class Aerodynamics {
     * @return interpStabDer
     */
    public Double calculateInterpStabDer(double[] windParameters, Map<FlightControlType, Double> controls, StabilityDerivatives stabDer) {
-      Double interpStabDer;
-      PiecewiseBicubicSplineInterpolatingFunction pbsif;
-
-      // If object is of type Double, return that value, otherwise create an interpolating function and
-      // get the interpolated Double value
-      if (aircraft.getStabilityDerivative(stabDer).getClass().getName().equals("java.lang.Double")) {
-         interpStabDer = (Double) aircraft.getStabilityDerivative(stabDer);
-      } else {
-         pbsif = (PiecewiseBicubicSplineInterpolatingFunction) aircraft.getStabilityDerivative(stabDer);
-         try {
-            interpStabDer = pbsif.value(windParameters[2], controls.get(FlightControlType.FLAPS));
-         } catch (OutOfRangeException e) {
-            System.err.println("Number out of range for interpolation! Returning 0 for value.");
-            return 0.0;
-         }
-      }
+      return model.evaluate(stabDer, windParameters[2], controls.get(FlightControlType.FLAPS));
+   }
 
-      return interpStabDer;
+   /**
+    * Returns the value of a {@link StabilityDerivatives}, interpolated if it is defined by a lookup table in the
+    * {@link AerodynamicModel}, or simply returned if it is a constant. The controls are indexed by {@link FlightControlType#ordinal()}
+    *
+    * @param windParameters
+    * @param controls
+    * @param stabDer
+    * @return interpStabDer
+    */
+   public double calculateInterpStabDer(double[] windParameters, double[] controls, StabilityDerivatives stabDer) {
+      return model.evaluate(stabDer, windParameters[2], controls[FLAPS]);
    }
 
    /**
@@ -205,7 +259,7 @@ public class Aerodynamics {
     * @return adjustment to CL_alpha and CD_alpha
     */
    private double groundEffect(double heightAGL) {
-      double normalizedHeightAGL = heightAGL / aircraft.getWingGeometry(WingGeometry.B_WING);
+      double normalizedHeightAGL = heightAGL / model.getWingSpan();
       if (normalizedHeightAGL < 1.0) {
          return 1 - (Math.atan(15 * (normalizedHeightAGL - 1)) / 10);
       } else {
@@ -231,18 +285,75 @@ public class Aerodynamics {
            Map<FlightControlType, Double> controls,
            double alphaDot,
            double heightAGL) {
-      double qBar = environmentParameters.get(EnvironmentParameters.RHO) * Math.pow(windParameters[0], 2) / 2;
+      double[] controlsArray = FlightControlsUtilities.toArray(controls, new double[FlightControlType.values().length]);
+      model.evaluate(windParameters[2], controlsArray[FLAPS], coefficients);
 
-      double[][] w2bDCM = SixDOFUtilities.wind2Body(windParameters);
+      return calculateBodyForces(coefficients,
+              windParameters,
+              angularRates,
+              environmentParameters.get(EnvironmentParameters.RHO),
+              controlsArray,
+              alphaDot,
+              heightAGL,
+              new double[3]);
+   }
+
+   /**
+    * Calculates aerodynamic forces experienced by the aircraft, converted from the wind frame to the body
+    * frame by using {@link SixDOFUtilities#wind2Body(double[], double[][])}, and writes them into a caller-supplied array.
+    * The environment parameters and controls are indexed by {@link EnvironmentParameters#ordinal()} and {@link FlightControlType#ordinal()}
+    *
+    * @param windParameters
+    * @param angularRates
+    * @param environmentParameters
+    * @param controls
+    * @param alphaDot
+    * @param heightAGL
+    * @param bodyForces the array to fill
+    * @return bodyForces
+    */
+   public double[] calculateBodyForces(double[] windParameters,
+           double[] angularRates,
+           double[] environmentParameters,
+           double[] controls,
+           double alphaDot,
+           double heightAGL,
+           double[] bodyForces) {
+      model.evaluate(windParameters[2], controls[FLAPS], coefficients);
+
+      return calculateBodyForces(coefficients,
+              windParameters,
+              angularRates,
+              environmentParameters[EnvironmentParameters.RHO.ordinal()],
+              controls,
+              alphaDot,
+              heightAGL,
+              bodyForces);
+   }
+
+   private double[] calculateBodyForces(double[] c,
+           double[] windParameters,
+           double[] angularRates,
+           double rho,
+           double[] controls,
+           double alphaDot,
+           double heightAGL,
+           double[] bodyForces) {
+      double qBarS = rho * windParameters[0] * windParameters[0] / 2 * model.getWingArea();
+      double groundEffect = groundEffect(heightAGL);
+
+      double[][] w2bDCM = SixDOFUtilities.wind2Body(windParameters, wind2BodyDCM);
 
       // Negative L and D to switch body directions and position in array swapped
-      double[] aeroForces = { -qBar * calculateCD(windParameters, controls, heightAGL) * aircraft.getWingGeometry(WingGeometry.S_WING),
-         qBar * calculateCY(windParameters, controls) * aircraft.getWingGeometry(WingGeometry.S_WING),
-         -qBar * calculateCL(angularRates, windParameters, controls, alphaDot, heightAGL) * aircraft.getWingGeometry(WingGeometry.S_WING) };
+      double drag = -qBarS * calculateCD(c, windParameters, controls, groundEffect);
+      double side = qBarS * calculateCY(c, windParameters, controls);
+      double lift = -qBarS * calculateCL(c, angularRates, windParameters, controls, alphaDot, groundEffect);
+
+      bodyForces[0] = drag * w2bDCM[0][0] + side * w2bDCM[0][1] + lift * w2bDCM[0][2];
+      bodyForces[1] = drag * w2bDCM[1][0] + side * w2bDCM[1][1] + lift * w2bDCM[1][2];
+      bodyForces[2] = drag * w2bDCM[2][0] + side * w2bDCM[2][1] + lift * w2bDCM[2][2];
 
-      return new double[]{ aeroForces[0] * w2bDCM[0][0] + aeroForces[1] * w2bDCM[0][1] + aeroForces[2] * w2bDCM[0][2],
-         aeroForces[0] * w2bDCM[1][0] + aeroForces[1] * w2bDCM[1][1] + aeroForces[2] * w2bDCM[1][2],
-         aeroForces[0] * w2bDCM[2][0] + aeroForces[1] * w2bDCM[2][1] + aeroForces[2] * w2bDCM[2][2] };
+      return bodyForces;
    }
 
    /**
@@ -260,10 +371,96 @@ public class Aerodynamics {
            Map<EnvironmentParameters, Double> environmentParameters,
            Map<FlightControlType, Double> controls,
            double alphaDot) {
-      double qBar = environmentParameters.get(EnvironmentParameters.RHO) * Math.pow(windParameters[0], 2) / 2;
+      double[] controlsArray = FlightControlsUtilities.toArray(controls, new double[FlightControlType.values().length]);
+      model.evaluate(windParameters[2], controlsArray[FLAPS], coefficients);
+
+      return calculateAeroMoments(coefficients,
+              windParameters,
+              angularRates,
+              environmentParameters.get(EnvironmentParameters.RHO),
+              controlsArray,
+              alphaDot,
+              new double[3]);
+   }
 
-      return new double[]{ qBar * calculateCRoll(angularRates, windParameters, controls) * aircraft.getWingGeometry(WingGeometry.S_WING) * aircraft.getWingGeometry(WingGeometry.B_WING),
-         qBar * calculateCM(angularRates, windParameters, controls, alphaDot) * aircraft.getWingGeometry(WingGeometry.S_WING) * aircraft.getWingGeometry(WingGeometry.C_BAR),
-         qBar * calculateCN(angularRates, windParameters, controls) * aircraft.getWingGeometry(WingGeometry.S_WING) * aircraft.getWingGeometry(WingGeometry.B_WING) };
+   /**
+    * Calculates aerodynamic moments experienced by the aircraft, and writes them into a caller-supplied array.
+    * The environment parameters and controls are indexed by {@link EnvironmentParameters#ordinal()} and {@link FlightControlType#ordinal()}
+    *
+    * @param windParameters
+    * @param angularRates
+    * @param environmentParameters
+    * @param controls
+    * @param alphaDot
+    * @param aeroMoments the array to fill
+    * @return aerodynamicMoments
+    */
+   public double[] calculateAeroMoments(double[] windParameters,
+           double[] angularRates,
+           double[] environmentParameters,
+           double[] controls,
+           double alphaDot,
+           double[] aeroMoments) {
+      model.evaluate(windParameters[2], controls[FLAPS], coefficients);
+
+      return calculateAeroMoments(coefficients,
+              windParameters,
+              angularRates,
+              environmentParameters[EnvironmentParameters.RHO.ordinal()],
+              controls,
+              alphaDot,
+              aeroMoments);
+   }
+
+   private double[] calculateAeroMoments(double[] c,
+           double[] windParameters,
+           double[] angularRates,
+           double rho,
+           double[] controls,
+           double alphaDot,
+           double[] aeroMoments) {
+      double qBarS = rho * windParameters[0] * windParameters[0] / 2 * model.getWingArea();
+
+      aeroMoments[0] = qBarS * calculateCRoll(c, angularRates, windParameters, controls) * model.getWingSpan();
+      aeroMoments[1] = qBarS * calculateCM(c, angularRates, windParameters, controls, alphaDot) * model.getMeanChord();
+      aeroMoments[2] = qBarS * calculateCN(c, angularRates, windParameters, controls) * model.getWingSpan();
+
+      return aeroMoments;
+   }
+
+   /**
+    * Calculates both the aerodynamic forces, converted to the body frame, and the aerodynamic moments experienced by the aircraft in a
+    * single pass: the stability derivatives are evaluated only once, and written into caller-supplied arrays.
+    * The environment parameters and controls are indexed by {@link EnvironmentParameters#ordinal()} and {@link FlightControlType#ordinal()}
+    *
+    * @param windParameters
+    * @param angularRates
+    * @param environmentParameters
+    * @param controls
+    * @param alphaDot
+    * @param heightAGL
+    * @param bodyForces the array of forces to fill
+    * @param aeroMoments the array of moments to fill
+    */
+   public void calculateForcesAndMoments(double[] windParameters,
+           double[] angularRates,
+           double[] environmentParameters,
+           double[] controls,
+           double alphaDot,
+           double heightAGL,
+           double[] bodyForces,
+           double[] aeroMoments) {
+      double rho = environmentParameters[EnvironmentParameters.RHO.ordinal()];
+      model.evaluate(windParameters[2], controls[FLAPS], coefficients);
+
+      calculateBodyForces(coefficients, windParameters, angularRates, rho, controls, alphaDot, heightAGL, bodyForces);
+      calculateAeroMoments(coefficients, windParameters, angularRates, rho, controls, alphaDot, aeroMoments);
+   }
+
+   /**
+    * @return the {@link AerodynamicModel} used to calculate aerodynamic forces and moments
+    */
+   public AerodynamicModel getModel() {
+      return model;
    }
 }
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aero;
+
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+
+/**
+ * Lookup table of any number of dimensions (angle of attack, flap, Mach, elevator...), defined by strictly increasing breakpoints in each
+ * dimension and a value at each point of the grid. Values are interpolated either linearly in each dimension (linear, bilinear, ...) or with
+ * a cubic Hermite spline whose slopes are estimated from the neighbouring breakpoints, and are either clamped or linearly extrapolated
+ * outside of the breakpoints.
+ *
+ * <p>
+ * The table is built once by {@link AircraftBuilder} and evaluated at each step of integration without allocating any memory: a dimension whose
+ * breakpoints are evenly spaced finds its segment directly, and other dimensions first try the segment found by their previous lookup before
+ * falling back to a binary search. These cached segments are only hints, checked before being used, so a table can safely be shared by several
+ * simulations.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class InterpolationTable implements LookupTable {
+   /**
+    * Interpolation used between breakpoints.
+    */
+   public enum Interpolation {
+      /**
+       * Linear interpolation in each dimension (linear in 1D, bilinear in 2D, ...).
+       */
+      LINEAR,
+      /**
+       * Cubic Hermite interpolation in each dimension, with slopes estimated from the neighbouring breakpoints.
+       */
+      CUBIC
+   }
+
+   /**
+    * Behavior of the table outside of its breakpoints.
+    */
+   public enum Extrapolation {
+      /**
+       * Arguments are clamped to the first and last breakpoints.
+       */
+      CLAMP,
+      /**
+       * Values are linearly extrapolated from the first and last segments.
+       */
+      LINEAR
+   }
+
+   private static final double UNIFORM_TOLERANCE = 1.0e-9;
+
+   private final double[][] breakpoints;
+   private final double[] values;
+   private final int[] strides;
+   private final boolean[] uniform;
+   private final double[] inverseSpacing;
+   private final Interpolation interpolation;
+   private final Extrapolation extrapolation;
+
+   // Segment found by the last lookup in each dimension
+   private final int[] hints;
+
+   /**
+    * Creates a table of any number of dimensions.
+    *
+    * @param breakpoints the strictly increasing breakpoints of each dimension, at least 2 per dimension
+    * @param values the values at each point of the grid, in row-major order (the last dimension varies fastest)
+    * @param interpolation the interpolation between breakpoints
+    * @param extrapolation the behavior outside of the breakpoints
+    * @throws IllegalArgumentException if the breakpoints are not strictly increasing or do not match the number of values
+    */
+   public InterpolationTable(double[][] breakpoints, double[] values, Interpolation interpolation, Extrapolation extrapolation) {
+      if (breakpoints == null || breakpoints.length == 0 || values == null) {
+         throw new IllegalArgumentException("No lookup table data");
+      }
+
+      int dimensions = breakpoints.length;
+      this.breakpoints = new double[dimensions][];
+      this.strides = new int[dimensions];
+      this.uniform = new boolean[dimensions];
+      this.inverseSpacing = new double[dimensions];
+      this.hints = new int[dimensions];
+      this.interpolation = interpolation;
+      this.extrapolation = extrapolation;
+
+      int size = 1;
+      for (int dim = dimensions - 1; dim >= 0; dim--) {
+         double[] bp = breakpoints[dim];
+         if (bp == null || bp.length < 2) {
+            throw new IllegalArgumentException("Dimension " + dim + " needs at least 2 breakpoints");
+         }
+         for (int i = 1; i < bp.length; i++) {
+            if (!(bp[i] > bp[i - 1])) {
+               throw new IllegalArgumentException("Breakpoints of dimension " + dim + " do not increase monotonically");
+            }
+         }
+
+         this.breakpoints[dim] = bp.clone();
+         this.strides[dim] = size;
+         size *= bp.length;
+
+         // Evenly spaced breakpoints allow the segment to be found without searching
+         double spacing = (bp[bp.length - 1] - bp[0]) / (bp.length - 1);
+         boolean isUniform = true;
+         for (int i = 1; i < bp.length - 1; i++) {
+            if (Math.abs(bp[i] - (bp[0] + i * spacing)) > UNIFORM_TOLERANCE * (bp[bp.length - 1] - bp[0])) {
+               isUniform = false;
+               break;
+            }
+         }
+         this.uniform[dim] = isUniform;
+         this.inverseSpacing[dim] = 1.0 / spacing;
+      }
+
+      if (values.length != size) {
+         throw new IllegalArgumentException("Lookup table dimensions do not match: " + values.length + " values for " + size + " breakpoints");
+      }
+      this.values = values.clone();
+   }
+
+   /**
+    * Creates a two dimensional table of angle (of attack/sideslip) and flap breakpoints, as read from an aircraft's lookup table files.
+    *
+    * @param angleBreakpoints the strictly increasing angle breakpoints (rad)
+    * @param flapBreakpoints the strictly increasing flap breakpoints (rad)
+    * @param values the values, indexed by [angle][flap]
+    * @param interpolation the interpolation between breakpoints
+    * @param extrapolation the behavior outside of the breakpoints
+    * @throws IllegalArgumentException if the breakpoints are not strictly increasing or do not match the values
+    */
+   public InterpolationTable(double[] angleBreakpoints, double[] flapBreakpoints, double[][] values, Interpolation interpolation,
+           Extrapolation extrapolation) {
+      this(new double[][]{ angleBreakpoints, flapBreakpoints }, flatten(values, flapBreakpoints), interpolation, extrapolation);
+   }
+
+   private static double[] flatten(double[][] values, double[] flapBreakpoints) {
+      if (values == null || flapBreakpoints == null) {
+         throw new IllegalArgumentException("No lookup table data");
+      }
+
+      double[] flat = new double[values.length * flapBreakpoints.length];
+      for (int i = 0; i < values.length; i++) {
+         if (values[i] == null || values[i].length != flapBreakpoints.length) {
+            throw new IllegalArgumentException("Lookup table dimensions do not match in row " + i);
+         }
+         System.arraycopy(values[i], 0, flat, i * flapBreakpoints.length, flapBreakpoints.length);
+      }
+
+      return flat;
+   }
+
+   /**
+    * @return the number of dimensions of the table
+    */
+   public int getDimensions() {
+      return breakpoints.length;
+   }
+
+   /**
+    * @param dimension the dimension
+    * @return a copy of the breakpoints of the dimension
+    */
+   public double[] getBreakpoints(int dimension) {
+      return breakpoints[dimension].clone();
+   }
+
+   /**
+    * @return a copy of the values at each point of the grid, in row-major order (the last dimension varies fastest)
+    */
+   public double[] getValues() {
+      return values.clone();
+   }
+
+   /**
+    * @return the interpolation between breakpoints
+    */
+   public Interpolation getInterpolation() {
+      return interpolation;
+   }
+
+   /**
+    * @return the behavior outside of the breakpoints
+    */
+   public Extrapolation getExtrapolation() {
+      return extrapolation;
+   }
+
+   /**
+    * Returns the value of a one dimensional table.
+    *
+    * @param x the argument
+    * @return the interpolated value
+    */
+   public double value(double x) {
+      checkDimensions(1);
+      return interpolateInnermost(0, 0, x);
+   }
+
+   /**
+    * Returns the value of a two dimensional table of angle and flap breakpoints.
+    *
+    * @param angle the angle of attack or sideslip (rad)
+    * @param flap the flap position (rad)
+    * @return the interpolated value
+    */
+   @Override
+   public double value(double angle, double flap) {
+      checkDimensions(2);
+
+      double[] bp = breakpoints[0];
+      double x = bound(0, angle);
+      int i = findSegment(0, x);
+      int stride = strides[0];
+      double h = bp[i + 1] - bp[i];
+      double t = (x - bp[i]) / h;
+
+      int index = i * stride;
+      double p1 = interpolateInnermost(1, index, flap);
+      double p2 = interpolateInnermost(1, index + stride, flap);
+      if (interpolation == Interpolation.LINEAR || t < 0.0 || t > 1.0) {
+         return p1 + t * (p2 - p1);
+      }
+
+      double p0 = (i > 0) ? interpolateInnermost(1, index - stride, flap) : 0.0;
+      double p3 = (i + 2 < bp.length) ? interpolateInnermost(1, index + 2 * stride, flap) : 0.0;
+
+      return hermite(bp, i, t, p0, p1, p2, p3);
+   }
+
+   /**
+    * Returns the value of the table at a point of any number of dimensions.
+    *
+    * @param coordinates the arguments, one per dimension
+    * @return the interpolated value
+    */
+   public double value(double[] coordinates) {
+      checkDimensions(coordinates.length);
+      return interpolate(0, 0, coordinates);
+   }
+
+   private void checkDimensions(int dimensions) {
+      if (dimensions != breakpoints.length) {
+         throw new IllegalArgumentException("Lookup table has " + breakpoints.length + " dimensions, not " + dimensions);
+      }
+   }
+
+   /**
+    * Interpolates recursively along each dimension, starting from dimension dim at the offset of the already selected breakpoints of the
+    * previous dimensions.
+    */
+   private double interpolate(int dim, int offset, double[] coordinates) {
+      if (dim == breakpoints.length - 1) {
+         return interpolateInnermost(dim, offset, coordinates[dim]);
+      }
+
+      double[] bp = breakpoints[dim];
+      double x = bound(dim, coordinates[dim]);
+      int i = findSegment(dim, x);
+      int stride = strides[dim];
+      double h = bp[i + 1] - bp[i];
+      double t = (x - bp[i]) / h;
+
+      int index = offset + i * stride;
+      double p1 = interpolate(dim + 1, index, coordinates);
+      double p2 = interpolate(dim + 1, index + stride, coordinates);
+      if (interpolation == Interpolation.LINEAR || t < 0.0 || t > 1.0) {
+         return p1 + t * (p2 - p1);
+      }
+
+      double p0 = (i > 0) ? interpolate(dim + 1, index - stride, coordinates) : 0.0;
+      double p3 = (i + 2 < bp.length) ? interpolate(dim + 1, index + 2 * stride, coordinates) : 0.0;
+
+      return hermite(bp, i, t, p0, p1, p2, p3);
+   }
+
+   /**
+    * Interpolates along the innermost dimension, whose values are read directly from the table at the offset of the already selected
+    * breakpoints of the previous dimensions.
+    */
+   private double interpolateInnermost(int dim, int offset, double x) {
+      double[] bp = breakpoints[dim];
+      x = bound(dim, x);
+      int i = findSegment(dim, x);
+      double h = bp[i + 1] - bp[i];
+      double t = (x - bp[i]) / h;
+
+      int index = offset + i;
+      double p1 = values[index];
+      double p2 = values[index + 1];
+      if (interpolation == Interpolation.LINEAR || t < 0.0 || t > 1.0) {
+         return p1 + t * (p2 - p1);
+      }
+
+      double p0 = (i > 0) ? values[index - 1] : 0.0;
+      double p3 = (i + 2 < bp.length) ? values[index + 2] : 0.0;
+
+      return hermite(bp, i, t, p0, p1, p2, p3);
+   }
+
+   /**
+    * Clamps x to the breakpoints of a dimension if the table does not extrapolate.
+    */
+   private double bound(int dim, double x) {
+      if (extrapolation == Extrapolation.CLAMP) {
+         double[] bp = breakpoints[dim];
+         return Math.min(Math.max(x, bp[0]), bp[bp.length - 1]);
+      }
+      return x;
+   }
+
+   /**
+    * Cubic Hermite interpolation over the segment [bp[i], bp[i+1]] of values p1 and p2. The slopes at both ends of the segment are central
+    * differences using p0 and p3 where the neighbouring breakpoints exist, or the slope of the segment otherwise.
+    */
+   private static double hermite(double[] bp, int i, double t, double p0, double p1, double p2, double p3) {
+      double h = bp[i + 1] - bp[i];
+      double slope = (p2 - p1) / h;
+      double m1 = (i > 0) ? (p2 - p0) / (bp[i + 1] - bp[i - 1]) : slope;
+      double m2 = (i + 2 < bp.length) ? (p3 - p1) / (bp[i + 2] - bp[i]) : slope;
+
+      double t2 = t * t;
+      double t3 = t2 * t;
+      return (2 * t3 - 3 * t2 + 1) * p1
+              + (t3 - 2 * t2 + t) * h * m1
+              + (-2 * t3 + 3 * t2) * p2
+              + (t3 - t2) * h * m2;
+   }
+
+   /**
+    * Returns the index i of the segment [bp[i], bp[i+1]] containing x, bounded to the first and last segments.
+    */
+   private int findSegment(int dim, double x) {
+      double[] bp = breakpoints[dim];
+      int last = bp.length - 2;
+
+      if (uniform[dim]) {
+         int i = (int) Math.floor((x - bp[0]) * inverseSpacing[dim]);
+         return (i < 0) ? 0 : (i > last) ? last : i;
+      }
+
+      if (x < bp[1]) {
+         return 0;
+      } else if (x >= bp[last]) {
+         return last;
+      }
+
+      // Try the segment found by the previous lookup, then its neighbours
+      int hint = hints[dim];
+      if (hint > last) {
+         hint = last;
+      }
+      if (x >= bp[hint]) {
+         if (x < bp[hint + 1]) {
+            return hint;
+         } else if (hint + 2 <= last + 1 && x < bp[hint + 2]) {
+            hints[dim] = hint + 1;
+            return hint + 1;
+         }
+      } else if (hint > 0 && x >= bp[hint - 1]) {
+         hints[dim] = hint - 1;
+         return hint - 1;
+      }
+
+      // Binary search between the second and the last segments
+      int low = 1;
+      int high = last;
+      while (low < high) {
+         int mid = (low + high + 1) >>> 1;
+         if (bp[mid] <= x) {
+            low = mid;
+         } else {
+            high = mid - 1;
+         }
+      }
+      hints[dim] = low;
+
+      return low;
+   }
+}
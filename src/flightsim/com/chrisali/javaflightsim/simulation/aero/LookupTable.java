@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aero;
+
+/**
+ * A stability derivative defined as a lookup table of angle (of attack/sideslip) and flap position breakpoints, used by
+ * {@link AerodynamicModel} to evaluate the derivative during the simulation.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public interface LookupTable {
+   /**
+    * Returns the value of the table interpolated at the given angle and flap position. Implementations must not allocate
+    * memory, as this method is called at each step of integration.
+    *
+    * @param angle the angle of attack or sideslip (rad)
+    * @param flap the flap position (rad)
+    * @return the interpolated value
+    */
+   public double value(double angle, double flap);
+}
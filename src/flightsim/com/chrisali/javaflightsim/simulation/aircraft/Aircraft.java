@@ -18,6 +18,7 @@ package com.chrisali.javaflightsim.simulation.aircraft;
 import com.chrisali.javaflightsim.conf.Configuration;
 import com.chrisali.javaflightsim.simulation.aero.AccelAndMoments;
 import com.chrisali.javaflightsim.simulation.aero.Aerodynamics;
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
 import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
 import com.chrisali.javaflightsim.simulation.aero.WingGeometry;
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
@@ -28,13 +29,12 @@ import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.Map;
-import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
 
 /**
  * Aircraft object which consists of {@link StabilityDerivatives} and {@link WingGeometry} to define its aerodynamic properties,
  * and {@link MassProperties} to define its mass and inertia, and {@link GroundReaction} to define the landing gear geometry and properties.
  * Uses {@link AircraftBuilder} to create a package with a set of {@link Engine}s to be used in {@link Integrate6DOFEquations} to
- * create a flight simulation. Stability derivatives (1/rad) can be either Double values or {@link PiecewiseBicubicSplineInterpolatingFunction}
+ * create a flight simulation. Stability derivatives (1/rad) can be either Double values or {@link InterpolationTable}
  */
 public class Aircraft {
    private String name;
@@ -43,6 +43,8 @@ public class Aircraft {
    private Map<WingGeometry, Double> wingGeometry;
    private Map<MassProperties, Double> massProps;
    private Map<GroundReaction, Double> groundReaction;
+   private GroundContacts groundContacts = null;
+   private FuelTanks fuelTanks = null;
 
    /**
     * Default constructor that gives default values to stability derivatives, wing geometry, mass properties and ground reaction.
@@ -53,7 +55,7 @@ public class Aircraft {
    public Aircraft() {
       this.name = "Navion";
       // Creates EnumMaps and populates them with:
-      // Stability derivative values (either Double or PiecewiseBicubicSplineInterpolatingFunction)
+      // Stability derivative values (either Double or InterpolationTable)
       // Wing geometry values (Double)
       // Mass properties		(Double)
       // Ground reaction      (Double)
@@ -186,10 +188,13 @@ public class Aircraft {
     * <li><code>GroundReaction.txt</code></li>
     * </ul>
     *
+    * The GroundReaction.txt file can declare any number of contact points with the ground ({@link GroundContacts}), which replace
+    * the nose, left and right landing gear, and the MassProperties.txt file can declare any number of fuel tanks ({@link FuelTanks}).
+    *
     * These files must be in a folder, whose name matches the aircraftName passed into this constructor.
     *
     * <p>
-    * The constructor also allows for custom look up tables ({@link PiecewiseBicubicSplineInterpolatingFunction}) to be used to better define
+    * The constructor also allows for custom look up tables ({@link InterpolationTable}) to be used to better define
     * the aerodynamics of the aircraft by using {@link AircraftBuilder#createLookupTable(com.chrisali.javaflightsim.simulation.aircraft.Aircraft, java.lang.String)}.
     * </p>
     *
@@ -201,7 +206,7 @@ public class Aircraft {
    public Aircraft(String aircraftName) {
       this.name = aircraftName;
       // Creates EnumMaps and populates them with:
-      // Stability derivative values (either Double or PiecewiseBicubicSplineInterpolatingFunction)
+      // Stability derivative values (either Double or InterpolationTable)
       // Wing geometry values (Double)
       // Mass properties		(Double)
       // Ground reaction	    (Double)
@@ -238,6 +243,15 @@ public class Aircraft {
             }
          }
       }
+
+      for (String[] readLine : readMassPropFile) {
+         if (FuelTanks.TANK_KEY.equals(readLine[0]) && readLine.length > 1) {
+            if (fuelTanks == null) {
+               fuelTanks = new FuelTanks();
+            }
+            fuelTanks.parseTank(readLine[1]);
+         }
+      }
       // Sum up empty, fuel and payload weights divided by gravity to get total mass
       massProps.put(MassProperties.TOTAL_MASS, ((massProps.get(MassProperties.MAX_WEIGHT_PAYLOAD) * massProps.get(MassProperties.WEIGHT_PAYLOAD))
          + (massProps.get(MassProperties.MAX_WEIGHT_FUEL) * massProps.get(MassProperties.WEIGHT_FUEL))
@@ -264,6 +278,40 @@ public class Aircraft {
             }
          }
       }
+
+      for (String[] readLine : readGndReactFile) {
+         if (GroundContacts.CONTACT_KEY.equals(readLine[0]) && readLine.length > 1) {
+            if (groundContacts == null) {
+               groundContacts = new GroundContacts();
+            }
+            groundContacts.parseContact(readLine[1]);
+         }
+      }
+      if (groundContacts != null && groundReaction.containsKey(GroundReaction.BRAKING_FORCE)) {
+         groundContacts.setBrakingForce(groundReaction.get(GroundReaction.BRAKING_FORCE));
+      }
+   }
+
+   /**
+    * Creates an aircraft from the values compiled in an {@link AircraftPackage}.
+    *
+    * @param aircraftName the aircraft name
+    * @param stabDerivs the stability derivatives
+    * @param wingGeometry the wing geometry
+    * @param massProps the mass properties
+    * @param groundReaction the ground reaction
+    * @param groundContacts the contact points declared by the aircraft, or null
+    * @param fuelTanks the fuel tanks declared by the aircraft, or null
+    */
+   Aircraft(String aircraftName, Map<StabilityDerivatives, Object> stabDerivs, Map<WingGeometry, Double> wingGeometry,
+           Map<MassProperties, Double> massProps, Map<GroundReaction, Double> groundReaction, GroundContacts groundContacts, FuelTanks fuelTanks) {
+      this.name = aircraftName;
+      this.stabDerivs = stabDerivs;
+      this.wingGeometry = wingGeometry;
+      this.massProps = massProps;
+      this.groundReaction = groundReaction;
+      this.groundContacts = groundContacts;
+      this.fuelTanks = fuelTanks;
    }
 
    /**
@@ -280,7 +328,7 @@ public class Aircraft {
 
    /**
     * Creates a double array of {@link WingGeometry#AC_X}, {@link WingGeometry#AC_Y} and {@link WingGeometry#AC_Z}
-    * used in {@link AccelAndMoments#calculateTotalMoments(double[], double[], java.util.Map, java.util.Map, double, java.util.Set, com.chrisali.javaflightsim.simulation.aircraft.Aircraft, com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction, double)},
+    * used in {@link AccelAndMoments},
     * which needs a vector of these values.
     *
     * @return the centerOfGravity
@@ -307,7 +355,7 @@ public class Aircraft {
    /**
     * Returns the value held by the {@link StabilityDerivatives} key in the stabDerivs EnumMap. {@link Aerodynamics} uses this in conjunction with
     * {@link Aerodynamics#calculateInterpStabDer(double[], java.util.Map, com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives)} to interpolate the stability derivative value if a
-    * {@link PiecewiseBicubicSplineInterpolatingFunction} object is detected, or simply return a double value.
+    * {@link InterpolationTable} object is detected, or simply return a double value.
     *
     * @param stabDer the Stability Derivatives
     * @return value of key in stabDerivs
@@ -316,6 +364,20 @@ public class Aircraft {
       return stabDerivs.get(stabDer);
    }
 
+   /**
+    * @return the EnumMap of the stability derivatives
+    */
+   Map<StabilityDerivatives, Object> getStabilityDerivatives() {
+      return stabDerivs;
+   }
+
+   /**
+    * @return the EnumMap of the wing geometry
+    */
+   Map<WingGeometry, Double> getWingGeometry() {
+      return wingGeometry;
+   }
+
    /**
     * Returns the value held by the {@link WingGeometry} key in the wingGeometry EnumMap.
     *
@@ -364,6 +426,58 @@ public class Aircraft {
       return groundReaction;
    }
 
+   /**
+    * Returns the contact points of the aircraft with the ground. If the aircraft does not declare any contact point, these are the nose,
+    * left and right landing gear defined by its {@link GroundReaction} values.
+    *
+    * @return the contact points
+    */
+   public GroundContacts getGroundContacts() {
+      return groundContacts != null ? groundContacts : GroundContacts.fromGroundReaction(groundReaction);
+   }
+
+   /**
+    * @return the contact points declared by the aircraft, or null if it uses its nose, left and right landing gear
+    */
+   GroundContacts getDeclaredGroundContacts() {
+      return groundContacts;
+   }
+
+   /**
+    * Sets the contact points of the aircraft with the ground, replacing its nose, left and right landing gear.
+    *
+    * @param groundContacts the contact points, or null to use the nose, left and right landing gear
+    */
+   public void setGroundContacts(GroundContacts groundContacts) {
+      this.groundContacts = groundContacts;
+   }
+
+   /**
+    * Returns the fuel tanks of the aircraft. If the aircraft does not declare any tank, this is a single tank at the center of gravity
+    * holding {@link MassProperties#MAX_WEIGHT_FUEL}.
+    *
+    * @return the fuel tanks
+    */
+   public FuelTanks getFuelTanks() {
+      return fuelTanks != null ? fuelTanks : FuelTanks.singleTank(massProps.get(MassProperties.MAX_WEIGHT_FUEL));
+   }
+
+   /**
+    * @return the fuel tanks declared by the aircraft, or null if it uses a single tank
+    */
+   FuelTanks getDeclaredFuelTanks() {
+      return fuelTanks;
+   }
+
+   /**
+    * Sets the fuel tanks of the aircraft.
+    *
+    * @param fuelTanks the fuel tanks, or null to use a single tank at the center of gravity
+    */
+   public void setFuelTanks(FuelTanks fuelTanks) {
+      this.fuelTanks = fuelTanks;
+   }
+
    /**
     * Gets the name of the aircraft.
     *
@@ -409,6 +523,10 @@ public class Aircraft {
          sb.append(gndReact.toString()).append(": ").append(groundReaction.get(gndReact)).append("\n");
       }
 
+      if (groundContacts != null) {
+         sb.append("\nGround Contacts\n\n").append(groundContacts);
+      }
+
       return sb.toString();
    }
 }
@@ -17,29 +17,30 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
 package com.chrisali.javaflightsim.simulation.aircraft;
 
 import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aero.AerodynamicModel;
 import com.chrisali.javaflightsim.simulation.aero.Aerodynamics;
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
 import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.propulsion.EngineParameters;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineType;
 import com.chrisali.javaflightsim.simulation.propulsion.FixedPitchPropEngine;
+import com.chrisali.javaflightsim.simulation.propulsion.PistonPropEngine;
+import com.chrisali.javaflightsim.simulation.propulsion.PropulsionTables;
 import com.chrisali.javaflightsim.utilities.FileUtilities;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
-import org.apache.commons.math3.exception.DimensionMismatchException;
-import org.apache.commons.math3.exception.NoDataException;
-import org.apache.commons.math3.exception.NonMonotonicSequenceException;
-import org.apache.commons.math3.exception.NullArgumentException;
 
 /**
  * Wrapper class to build a complete aircraft with a "body" ({@link Aircraft}) and a LinkedHashSet of {@link Engine}(s). This object is used by {@link Integrate6DOFEquations}
@@ -48,6 +49,7 @@ import org.apache.commons.math3.exception.NullArgumentException;
 public class AircraftBuilder {
    private Set<Engine> engineList = new LinkedHashSet<>();
    private Aircraft aircraft;
+   private AerodynamicModel aerodynamicModel;
 
    /**
     * Default AircraftBuilder constructor, using the default constructors of {@link Aircraft} and {@link FixedPitchPropEngine}
@@ -55,6 +57,7 @@ public class AircraftBuilder {
     */
    public AircraftBuilder() {
       this.aircraft = new Aircraft();
+      this.aerodynamicModel = new AerodynamicModel(aircraft);
       this.engineList.add(new FixedPitchPropEngine());
    }
 
@@ -63,17 +66,48 @@ public class AircraftBuilder {
     * <code>.\Aircraft\</code>
     * An example of the proper file structure and syntax can be seen in the sample aircraft (LookupNavion, Navion and TwinNavion) within this folder.
     *
+    * <p>The text files are only parsed the first time the aircraft is built, or after one of them changed: the aircraft is then read
+    * from the {@link AircraftPackage} compiled in its folder.</p>
+    *
     * @param aircraftName the aircraft name
     */
    public AircraftBuilder(String aircraftName) {
-      this.aircraft = new Aircraft(aircraftName);
-      Configuration conf = Configuration.getInstance();
+      this(AircraftPackage.load(aircraftName));
+   }
 
-      List<String[]> readPropulsionFile = FileUtilities.readFileAndSplit(conf.getAircraftPropulsion());
+   /**
+    * Creates an aircraft and its engines from a compiled {@link AircraftPackage}.
+    *
+    * @param aircraftPackage the aircraft package
+    */
+   public AircraftBuilder(AircraftPackage aircraftPackage) {
+      this.aircraft = aircraftPackage.createAircraft();
+      this.aerodynamicModel = new AerodynamicModel(aircraft);
+
+      List<Map<EngineParameters, String>> engineParameters = aircraftPackage.getEngineParameters();
+      if (!engineParameters.isEmpty()) {
+         for (int i = 0; i < engineParameters.size(); i++) {
+            this.engineList.add(createEngine(engineParameters.get(i), i + 1, aircraftPackage));
+         }
+      } else {
+         System.err.println("Invalid number of engines! Defaulting to single engine...");
+         this.engineList.add(new FixedPitchPropEngine());
+      }
+   }
+
+   /**
+    * Parses the parameters of each engine in a Propulsion text file.
+    *
+    * @param propulsionFile the Propulsion text file
+    * @return the parameters of each engine, or an empty list if the number of engines is invalid
+    */
+   static List<Map<EngineParameters, String>> parseEngineParameters(File propulsionFile) {
+      List<String[]> readPropulsionFile = FileUtilities.readFileAndSplit(propulsionFile);
+      List<Map<EngineParameters, String>> engines = new ArrayList<>();
 
       // Gets the number of engines on the aircraft from the first line of the
       // String[] ArrayList
-      int numEngines = Integer.parseInt(readPropulsionFile.get(0)[1]);
+      int numEngines = readPropulsionFile.isEmpty() ? 0 : Integer.parseInt(readPropulsionFile.get(0)[1]);
 
       if (numEngines > 0 & numEngines < 5) {
          for (int i = 1; i <= numEngines; i++) {
@@ -89,48 +123,83 @@ public class AircraftBuilder {
                   }
                }
             }
+            engines.add(engineParams);
+         }
+      }
 
-            double[] enginePosition = new double[]{ Double.parseDouble(engineParams.get(EngineParameters.POS_X)),
-               Double.parseDouble(engineParams.get(EngineParameters.POS_Y)),
-               Double.parseDouble(engineParams.get(EngineParameters.POS_Z)) };
-
-            // Currently only one type of engine, so just default to creating a fixedPitchPropEngine
-            switch (engineParams.get(EngineParameters.TYPE)) {
-               case "fixedPitchPropEngine":
-               default:
-                  this.engineList.add(new FixedPitchPropEngine(engineParams.get(EngineParameters.NAME),
-                          Double.parseDouble(engineParams.get(EngineParameters.MAX_BHP)),
-                          Double.parseDouble(engineParams.get(EngineParameters.MAX_RPM)),
-                          Double.parseDouble(engineParams.get(EngineParameters.PROP_DIAMETER)),
-                          enginePosition,
-                          i));
-                  break;
-            }
+      return engines;
+   }
 
-         }
+   private static Engine createEngine(Map<EngineParameters, String> engineParams, int engineNumber, AircraftPackage aircraftPackage) {
+      double[] enginePosition = new double[]{ Double.parseDouble(engineParams.get(EngineParameters.POS_X)),
+         Double.parseDouble(engineParams.get(EngineParameters.POS_Y)),
+         Double.parseDouble(engineParams.get(EngineParameters.POS_Z)) };
+
+      String engineName = engineParams.get(EngineParameters.NAME);
+      double maxBHP = Double.parseDouble(engineParams.get(EngineParameters.MAX_BHP));
+      double maxRPM = Double.parseDouble(engineParams.get(EngineParameters.MAX_RPM));
+      double propDiameter = Double.parseDouble(engineParams.get(EngineParameters.PROP_DIAMETER));
+      String engineType = engineParams.get(EngineParameters.TYPE);
+
+      // Table driven piston engines, with a fixed pitch or a constant speed propeller
+      if (EngineType.PISTONPROP.toString().equals(engineType) || EngineType.CONSTSPEEDPROP.toString().equals(engineType)) {
+         return createPistonPropEngine(engineParams, engineName, maxBHP, maxRPM, propDiameter, enginePosition, engineNumber, aircraftPackage);
       } else {
-         System.err.println("Invalid number of engines! Defaulting to single engine...");
-         this.engineList.add(new FixedPitchPropEngine());
+         return new FixedPitchPropEngine(engineName, maxBHP, maxRPM, propDiameter, enginePosition, engineNumber);
+      }
+   }
+
+   /**
+    * Creates a table driven {@link PistonPropEngine}. The propeller inertia, blade angles and lowest governed RPM are optional in the
+    * Propulsion text file, and the engine power and propeller tables are those read from the aircraft's lookup tables folder if they exist
+    * (see {@link PropulsionTables}).
+    */
+   private static PistonPropEngine createPistonPropEngine(Map<EngineParameters, String> engineParams, String engineName, double maxBHP,
+           double maxRPM, double propDiameter, double[] enginePosition, int engineNumber, AircraftPackage aircraftPackage) {
+      PistonPropEngine engine = new PistonPropEngine(engineName, maxBHP, maxRPM, propDiameter, enginePosition, engineNumber);
+      try {
+         engine.setPropInertia(parseEngineParameter(engineParams, EngineParameters.PROP_INERTIA, PistonPropEngine.DEFAULT_PROP_INERTIA));
+         if (EngineType.CONSTSPEEDPROP.toString().equals(engineParams.get(EngineParameters.TYPE))) {
+            engine.setConstantSpeed(parseEngineParameter(engineParams, EngineParameters.MIN_BLADE_ANGLE, PistonPropEngine.DEFAULT_MIN_BLADE_ANGLE),
+                    parseEngineParameter(engineParams, EngineParameters.MAX_BLADE_ANGLE, PistonPropEngine.DEFAULT_MAX_BLADE_ANGLE),
+                    parseEngineParameter(engineParams, EngineParameters.MIN_GOVERNED_RPM, 2 * maxRPM / 3));
+         } else {
+            engine.setFixedPitch(parseEngineParameter(engineParams, EngineParameters.BLADE_ANGLE, PistonPropEngine.DEFAULT_BLADE_ANGLE));
+         }
+      } catch (IllegalArgumentException e) {
+         System.err.println("Invalid propeller for engine " + engineNumber + ": " + e.getMessage() + "! Using the default propeller.");
       }
+
+      engine.setTables(aircraftPackage.getPropulsionTable(PropulsionTables.ENGINE_POWER),
+              aircraftPackage.getPropulsionTable(PropulsionTables.PROP_THRUST),
+              aircraftPackage.getPropulsionTable(PropulsionTables.PROP_POWER));
+
+      return engine;
+   }
+
+   private static double parseEngineParameter(Map<EngineParameters, String> engineParams, EngineParameters engineParam, double defaultValue) {
+      String value = engineParams.get(engineParam);
+
+      return (value == null) ? defaultValue : Double.parseDouble(value);
    }
 
    /**
     * Parses a text file located in <code>.\Aircraft\"aircraftName"\LookupTables</code>
     * for text files with the title "fileName".txt. This text file contains a table of values separated by the regular expression ",\t",
     * where the first row contains control position breakpoints, the first column contains angle (of attack/sideslip) breakpoints, and
-    * the rest contains lookup values. It generates a {@link PiecewiseBicubicSplineInterpolatingFunction} from this data, which is used
+    * the rest contains lookup values. It generates a cubic {@link InterpolationTable}, clamped to its breakpoints, from this data, which is used
     * in @{@link Aircraft} and later in {@link Aerodynamics} to calculate aerodynamic forces and moments for the simulation.
     *
     * @param aircraft the aircraft
     * @param fileName the file name
-    * @return Lookup table of the type PiecewiseBicubicSplineInterpolatingFunction
+    * @return Lookup table of the type InterpolationTable
     */
-   protected static PiecewiseBicubicSplineInterpolatingFunction createLookupTable(Aircraft aircraft, String fileName) {
+   protected static InterpolationTable createLookupTable(Aircraft aircraft, String fileName) {
       Configuration conf = Configuration.getInstance();
       File file = new File(conf.getAircraftLookupTables(), fileName + ".txt");
 
       List<Double[]> readAndSplit = new LinkedList<>();
-      PiecewiseBicubicSplineInterpolatingFunction pbsif = null;
+      InterpolationTable table = null;
       String readLine = null;
 
       try (BufferedReader br = new BufferedReader(new FileReader(file))) {
@@ -169,46 +238,38 @@ public class AircraftBuilder {
             }
          }
 
-         pbsif = new PiecewiseBicubicSplineInterpolatingFunction(breakPointAngle, breakPointFlap, lookUpValues);
+         table = new InterpolationTable(breakPointAngle, breakPointFlap, lookUpValues,
+                 InterpolationTable.Interpolation.CUBIC, InterpolationTable.Extrapolation.CLAMP);
 
       } catch (FileNotFoundException e) {
          System.err.println("Could not find: " + fileName + ".txt!");
-         createDefaultLookup(fileName);
+         table = createDefaultLookup(fileName);
       } catch (IOException e) {
          System.err.println("Could not read: " + fileName + ".txt!");
-         createDefaultLookup(fileName);
+         table = createDefaultLookup(fileName);
       } catch (NullPointerException e) {
          System.err.println("Bad reference to: " + fileName + ".txt!");
-         createDefaultLookup(fileName);
+         table = createDefaultLookup(fileName);
       } catch (NumberFormatException e) {
          System.err.println("Error parsing number data from " + fileName + ".txt!");
-         createDefaultLookup(fileName);
-      } catch (DimensionMismatchException e) {
-         System.err.println("Lookup table dimensions do not match in " + fileName + ".txt!");
-         createDefaultLookup(fileName);
-      } catch (NonMonotonicSequenceException e) {
-         System.err.println("Lookup table breakpoints do not increase monotonically in " + fileName + ".txt!");
-         createDefaultLookup(fileName);
-      } catch (NullArgumentException e) {
-         System.err.println("Error parsing data from " + fileName + ".txt!");
-         createDefaultLookup(fileName);
-      } catch (NoDataException e) {
-         System.err.println("No lookup table data found in " + fileName + ".txt!");
-         createDefaultLookup(fileName);
+         table = createDefaultLookup(fileName);
+      } catch (IllegalArgumentException e) {
+         System.err.println("Invalid lookup table in " + fileName + ".txt: " + e.getMessage() + "!");
+         table = createDefaultLookup(fileName);
       }
 
-      return pbsif;
+      return table;
    }
 
    /**
     * If {@link AircraftBuilder#createLookupTable(Aircraft, String)} throws an exception, this method creates a
     * lookup table of constant values equal to the stability derivative in question. This prevents any errors
-    * down the line with attempting to access an erroneous {@link PiecewiseBicubicSplineInterpolatingFunction}
+    * down the line with attempting to access an erroneous {@link InterpolationTable}
     *
     * @param fileName the file name
-    * @return Lookup table of the type PiecewiseBicubicSplineInterpolatingFunction
+    * @return Lookup table of the type InterpolationTable
     */
-   private static PiecewiseBicubicSplineInterpolatingFunction createDefaultLookup(String fileName) {
+   private static InterpolationTable createDefaultLookup(String fileName) {
       // Create default aircraft to get constant value for stability derivative in question
       Aircraft aircraft = new Aircraft();
       double constStabDerVal = 0.0;
@@ -240,13 +301,23 @@ public class AircraftBuilder {
       System.err.println("\t- Creating default lookup table for " + fileName + "...");
       System.err.println("\t- Beware! Aircraft may not handle as expected!");
 
-      return new PiecewiseBicubicSplineInterpolatingFunction(breakPointAngle, breakPointFlap, lookUpValues);
+      return new InterpolationTable(breakPointAngle, breakPointFlap, lookUpValues,
+              InterpolationTable.Interpolation.LINEAR, InterpolationTable.Extrapolation.CLAMP);
    }
 
    public Aircraft getAircraft() {
       return this.aircraft;
    }
 
+   /**
+    * Returns the {@link AerodynamicModel} compiled from the stability derivatives and wing geometry of the aircraft when it was built.
+    *
+    * @return the aerodynamic model
+    */
+   public AerodynamicModel getAerodynamicModel() {
+      return this.aerodynamicModel;
+   }
+
    public Set<Engine> getEngineList() {
       return this.engineList;
    }
@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
+import com.chrisali.javaflightsim.simulation.aero.WingGeometry;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineParameters;
+import com.chrisali.javaflightsim.simulation.propulsion.PropulsionTables;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of an aircraft, holding everything parsed from the text files of its folder (see {@link Aircraft#Aircraft(String)}):
+ * stability derivatives with their lookup tables already gridded, wing geometry, mass properties, ground reaction, contact points,
+ * fuel tanks, engine parameters and propulsion tables.
+ *
+ * <p>The package is written once in the aircraft's folder as {@link AircraftPackage#FILE_NAME}, and read back into memory with a single read.
+ * It records a hash of the content of the text files it was compiled from, so that {@link AircraftPackage#load(String)} compiles the
+ * aircraft again as soon as one of these files changes.</p>
+ *
+ * The file is a big endian file laid out as:
+ * <ul>
+ * <li>the magic bytes "J6DOFACP", the format version (int), 4 reserved bytes, the hash of the text files (long) and the length of
+ * the file in bytes (long)</li>
+ * <li>the aircraft name, as a length prefixed UTF-8 string</li>
+ * <li>the stability derivatives: their count (int), then for each one its name, and a constant (double) or a lookup table</li>
+ * <li>the wing geometry, mass properties and ground reaction: their count (int), then for each value its name and the value (double)</li>
+ * <li>the contact points and the fuel tanks, or -1 if the aircraft does not declare any</li>
+ * <li>the parameters of each engine, as names and text values, and the optional engine power and propeller tables</li>
+ * </ul>
+ * Values are stored under the names of their enums, so that a package becomes invalid rather than wrong if an enum is changed.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class AircraftPackage {
+   /**
+    * Name of the package in the aircraft's folder
+    */
+   public static final String FILE_NAME = "Aircraft.acp";
+   /**
+    * Current version of the format
+    */
+   public static final int VERSION = 1;
+
+   private static final byte[] MAGIC = "J6DOFACP".getBytes(StandardCharsets.US_ASCII);
+   private static final int HEADER_LENGTH = 32;
+   private static final String[] SOURCE_FILES = { "Aero.txt", "MassProperties.txt", "WingGeometry.txt", "GroundReaction.txt", "Propulsion.txt" };
+   private static final String LOOKUP_TABLES = "LookupTables";
+   private static final String[] PROPULSION_TABLES = { PropulsionTables.ENGINE_POWER, PropulsionTables.PROP_THRUST, PropulsionTables.PROP_POWER };
+
+   private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+   private static final long HASH_PRIME = 0x100000001b3L;
+
+   private static final byte CONSTANT = 0;
+   private static final byte TABLE = 1;
+
+   private final String name;
+   private final long sourceHash;
+   private final Map<StabilityDerivatives, Object> stabDerivs;
+   private final Map<WingGeometry, Double> wingGeometry;
+   private final Map<MassProperties, Double> massProps;
+   private final Map<GroundReaction, Double> groundReaction;
+   private final GroundContacts groundContacts;
+   private final FuelTanks fuelTanks;
+   private final List<Map<EngineParameters, String>> engineParameters;
+   private final InterpolationTable[] propulsionTables;
+   private boolean compiled = false;
+
+   private AircraftPackage(String name, long sourceHash, Map<StabilityDerivatives, Object> stabDerivs, Map<WingGeometry, Double> wingGeometry,
+           Map<MassProperties, Double> massProps, Map<GroundReaction, Double> groundReaction, GroundContacts groundContacts, FuelTanks fuelTanks,
+           List<Map<EngineParameters, String>> engineParameters, InterpolationTable[] propulsionTables) {
+      this.name = name;
+      this.sourceHash = sourceHash;
+      this.stabDerivs = stabDerivs;
+      this.wingGeometry = wingGeometry;
+      this.massProps = massProps;
+      this.groundReaction = groundReaction;
+      this.groundContacts = groundContacts;
+      this.fuelTanks = fuelTanks;
+      this.engineParameters = engineParameters;
+      this.propulsionTables = propulsionTables;
+   }
+
+   /**
+    * Loads the package of the aircraft selected in the {@link Configuration}. The package file of the aircraft's folder is used if it
+    * was compiled from the current content of the text files of the aircraft; else the aircraft is compiled from these files, and the
+    * package file is written for the next loads. A package file which can not be read or written is reported, and the aircraft is
+    * compiled from its text files.
+    *
+    * @param aircraftName the aircraft name
+    * @return the package
+    */
+   public static AircraftPackage load(String aircraftName) {
+      File aircraftDir = Configuration.getInstance().getAircraftConfig();
+      if (aircraftDir == null) {
+         return compile(aircraftName, 0);
+      }
+
+      long sourceHash = hashSources(aircraftDir);
+      File file = new File(aircraftDir, FILE_NAME);
+      if (file.exists()) {
+         try {
+            AircraftPackage aircraftPackage = read(file);
+            if (aircraftPackage.sourceHash == sourceHash && aircraftPackage.name.equals(aircraftName)) {
+               return aircraftPackage;
+            }
+         } catch (IOException e) {
+            System.err.println("Invalid aircraft package " + file + ": " + e.getMessage() + "! Compiling the aircraft again.");
+         }
+      }
+
+      AircraftPackage aircraftPackage = compile(aircraftName, sourceHash);
+      try {
+         aircraftPackage.write(file);
+      } catch (IOException e) {
+         System.err.println("Could not write the aircraft package " + file + ": " + e.getMessage());
+      }
+
+      return aircraftPackage;
+   }
+
+   /**
+    * Compiles the aircraft selected in the {@link Configuration} from its text files, without using or writing its package file.
+    *
+    * @param aircraftName the aircraft name
+    * @return the package
+    */
+   public static AircraftPackage compile(String aircraftName) {
+      File aircraftDir = Configuration.getInstance().getAircraftConfig();
+
+      return compile(aircraftName, aircraftDir == null ? 0 : hashSources(aircraftDir));
+   }
+
+   private static AircraftPackage compile(String aircraftName, long sourceHash) {
+      Configuration conf = Configuration.getInstance();
+      Aircraft aircraft = new Aircraft(aircraftName);
+      List<Map<EngineParameters, String>> engineParameters = AircraftBuilder.parseEngineParameters(conf.getAircraftPropulsion());
+      InterpolationTable[] propulsionTables = new InterpolationTable[PROPULSION_TABLES.length];
+      for (int i = 0; i < PROPULSION_TABLES.length; i++) {
+         propulsionTables[i] = PropulsionTables.readTable(conf.getAircraftLookupTables(), PROPULSION_TABLES[i], null);
+      }
+
+      AircraftPackage aircraftPackage = new AircraftPackage(aircraftName, sourceHash, aircraft.getStabilityDerivatives(),
+              aircraft.getWingGeometry(), aircraft.getMassProps(), aircraft.getGroundReaction(), aircraft.getDeclaredGroundContacts(),
+              aircraft.getDeclaredFuelTanks(), engineParameters, propulsionTables);
+      aircraftPackage.compiled = true;
+
+      return aircraftPackage;
+   }
+
+   /**
+    * Creates a package from the values of an aircraft defined by another source than its text files, such as an imported aircraft.
+    * The package is not associated to the text files of any aircraft folder.
+    *
+    * @param aircraftName the aircraft name
+    * @param stabDerivs the stability derivatives, either Double or {@link InterpolationTable} values
+    * @param wingGeometry the wing geometry
+    * @param massProps the mass properties, including {@link MassProperties#TOTAL_MASS}
+    * @param groundReaction the ground reaction
+    * @param groundContacts the contact points, or null to use the nose, left and right landing gear of the ground reaction
+    * @param fuelTanks the fuel tanks, or null to use a single tank at the center of gravity
+    * @param engineParameters the parameters of each engine, as they would be read from a Propulsion text file
+    * @param propulsionTables the engine power and propeller tables, by their {@link PropulsionTables} names
+    * @return the package
+    */
+   public static AircraftPackage create(String aircraftName, Map<StabilityDerivatives, Object> stabDerivs, Map<WingGeometry, Double> wingGeometry,
+           Map<MassProperties, Double> massProps, Map<GroundReaction, Double> groundReaction, GroundContacts groundContacts, FuelTanks fuelTanks,
+           List<Map<EngineParameters, String>> engineParameters, Map<String, InterpolationTable> propulsionTables) {
+      InterpolationTable[] tables = new InterpolationTable[PROPULSION_TABLES.length];
+      for (int i = 0; i < PROPULSION_TABLES.length; i++) {
+         tables[i] = propulsionTables.get(PROPULSION_TABLES[i]);
+      }
+
+      AircraftPackage aircraftPackage = new AircraftPackage(aircraftName, 0, new EnumMap<>(stabDerivs), new EnumMap<>(wingGeometry),
+              new EnumMap<>(massProps), new EnumMap<>(groundReaction), groundContacts, fuelTanks, new ArrayList<>(engineParameters), tables);
+      aircraftPackage.compiled = true;
+
+      return aircraftPackage;
+   }
+
+   /**
+    * Hashes the content of the text files an aircraft is compiled from: the files of its folder, and the lookup tables of its
+    * LookupTables folder.
+    *
+    * @param aircraftDir the aircraft's folder
+    * @return the hash (FNV-1a over the names, lengths and bytes of the files)
+    */
+   public static long hashSources(File aircraftDir) {
+      long hash = HASH_OFFSET;
+      for (String source : SOURCE_FILES) {
+         hash = hashFile(hash, new File(aircraftDir, source), source);
+      }
+
+      File[] tables = new File(aircraftDir, LOOKUP_TABLES).listFiles();
+      if (tables != null) {
+         Arrays.sort(tables);
+         for (File table : tables) {
+            if (table.isFile() && table.getName().endsWith(".txt")) {
+               hash = hashFile(hash, table, LOOKUP_TABLES + "/" + table.getName());
+            }
+         }
+      }
+
+      return hash;
+   }
+
+   private static long hashFile(long hash, File file, String source) {
+      hash = hashBytes(hash, source.getBytes(StandardCharsets.UTF_8));
+      byte[] content;
+      try {
+         content = file.isFile() ? Files.readAllBytes(file.toPath()) : null;
+      } catch (IOException e) {
+         content = null;
+      }
+      if (content == null) {
+         return (hash ^ -1) * HASH_PRIME;
+      }
+      hash = (hash ^ content.length) * HASH_PRIME;
+
+      return hashBytes(hash, content);
+   }
+
+   private static long hashBytes(long hash, byte[] bytes) {
+      for (int i = 0; i < bytes.length; i++) {
+         hash = (hash ^ (bytes[i] & 0xFF)) * HASH_PRIME;
+      }
+      return hash;
+   }
+
+   /**
+    * Reads a package file into memory with a single read. The file is not mapped, so that it is closed as soon as it has been read and
+    * can be replaced at once by {@link AircraftPackage#write(File)} when it is stale.
+    *
+    * @param file the package file
+    * @return the package
+    * @throws IOException if the file could not be read, or is not a valid package of the current version
+    */
+   public static AircraftPackage read(File file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+         long size = channel.size();
+         if (size > Integer.MAX_VALUE) {
+            throw new IOException("Corrupted aircraft package: " + size + " bytes");
+         }
+         ByteBuffer buffer = ByteBuffer.allocate((int) size);
+         while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+               break;
+            }
+         }
+         buffer.flip();
+         return read(buffer);
+      } catch (BufferUnderflowException e) {
+         throw new IOException("Truncated aircraft package");
+      } catch (IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+         throw new IOException("Corrupted aircraft package: " + e.getMessage());
+      }
+   }
+
+   private static AircraftPackage read(ByteBuffer buffer) throws IOException {
+      if (buffer.remaining() < HEADER_LENGTH) {
+         throw new IOException("Truncated aircraft package");
+      }
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+         throw new IOException("Not an aircraft package");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+         throw new IOException("Unsupported aircraft package version: " + version);
+      }
+      buffer.getInt();
+      long sourceHash = buffer.getLong();
+      long length = buffer.getLong();
+      if (length != buffer.limit()) {
+         throw new IOException("Truncated aircraft package");
+      }
+
+      String name = getString(buffer);
+
+      Map<StabilityDerivatives, Object> stabDerivs = new EnumMap<>(StabilityDerivatives.class);
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+         StabilityDerivatives stabDer = StabilityDerivatives.valueOf(getString(buffer));
+         byte type = buffer.get();
+         if (type == CONSTANT) {
+            stabDerivs.put(stabDer, buffer.getDouble());
+         } else if (type == TABLE) {
+            stabDerivs.put(stabDer, getTable(buffer));
+         } else {
+            throw new IOException("Unknown type of stability derivative: " + type);
+         }
+      }
+
+      Map<WingGeometry, Double> wingGeometry = getValues(buffer, WingGeometry.class);
+      Map<MassProperties, Double> massProps = getValues(buffer, MassProperties.class);
+      Map<GroundReaction, Double> groundReaction = getValues(buffer, GroundReaction.class);
+
+      GroundContacts groundContacts = null;
+      count = buffer.getInt();
+      if (count >= 0) {
+         groundContacts = new GroundContacts();
+         for (int i = 0; i < count; i++) {
+            groundContacts.addContact(getString(buffer), ContactType.valueOf(getString(buffer)), buffer.getDouble(), buffer.getDouble(),
+                    buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+         }
+         groundContacts.setBrakingForce(buffer.getDouble());
+      }
+
+      FuelTanks fuelTanks = null;
+      count = buffer.getInt();
+      if (count >= 0) {
+         fuelTanks = new FuelTanks();
+         for (int i = 0; i < count; i++) {
+            fuelTanks.addTank(getString(buffer), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+         }
+      }
+
+      List<Map<EngineParameters, String>> engineParameters = new ArrayList<>();
+      count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+         Map<EngineParameters, String> parameters = new EnumMap<>(EngineParameters.class);
+         int parameterCount = buffer.getInt();
+         for (int j = 0; j < parameterCount; j++) {
+            parameters.put(EngineParameters.valueOf(getString(buffer)), getString(buffer));
+         }
+         engineParameters.add(parameters);
+      }
+
+      InterpolationTable[] propulsionTables = new InterpolationTable[PROPULSION_TABLES.length];
+      for (int i = 0; i < propulsionTables.length; i++) {
+         propulsionTables[i] = buffer.get() == TABLE ? getTable(buffer) : null;
+      }
+
+      return new AircraftPackage(name, sourceHash, stabDerivs, wingGeometry, massProps, groundReaction, groundContacts, fuelTanks,
+              engineParameters, propulsionTables);
+   }
+
+   private static <E extends Enum<E>> Map<E, Double> getValues(ByteBuffer buffer, Class<E> keys) {
+      Map<E, Double> values = new EnumMap<>(keys);
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+         values.put(Enum.valueOf(keys, getString(buffer)), buffer.getDouble());
+      }
+      return values;
+   }
+
+   private static InterpolationTable getTable(ByteBuffer buffer) {
+      InterpolationTable.Interpolation interpolation = InterpolationTable.Interpolation.values()[buffer.get()];
+      InterpolationTable.Extrapolation extrapolation = InterpolationTable.Extrapolation.values()[buffer.get()];
+      double[][] breakpoints = new double[buffer.getInt()][];
+      for (int dim = 0; dim < breakpoints.length; dim++) {
+         breakpoints[dim] = getDoubles(buffer);
+      }
+
+      return new InterpolationTable(breakpoints, getDoubles(buffer), interpolation, extrapolation);
+   }
+
+   private static double[] getDoubles(ByteBuffer buffer) {
+      double[] values = new double[buffer.getInt()];
+      buffer.asDoubleBuffer().get(values);
+      buffer.position(buffer.position() + 8 * values.length);
+      return values;
+   }
+
+   private static String getString(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Writes the package to a file. The package is first written to a temporary file in the same folder, which then replaces the file,
+    * so that simulations loading the aircraft at the same time never read a partially written package.
+    *
+    * @param file the package file
+    * @throws IOException if the file could not be written
+    */
+   public void write(File file) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.write(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(0);
+      out.writeLong(sourceHash);
+      out.writeLong(0);
+      putString(out, name);
+
+      out.writeInt(stabDerivs.size());
+      for (Map.Entry<StabilityDerivatives, Object> entry : stabDerivs.entrySet()) {
+         putString(out, entry.getKey().name());
+         if (entry.getValue() instanceof InterpolationTable) {
+            out.writeByte(TABLE);
+            putTable(out, (InterpolationTable) entry.getValue());
+         } else if (entry.getValue() instanceof Double) {
+            out.writeByte(CONSTANT);
+            out.writeDouble((Double) entry.getValue());
+         } else {
+            throw new IOException("Unsupported value of stability derivative " + entry.getKey() + ": " + entry.getValue());
+         }
+      }
+
+      putValues(out, wingGeometry);
+      putValues(out, massProps);
+      putValues(out, groundReaction);
+
+      if (groundContacts == null) {
+         out.writeInt(-1);
+      } else {
+         out.writeInt(groundContacts.size());
+         for (int i = 0; i < groundContacts.size(); i++) {
+            putString(out, groundContacts.getName(i));
+            putString(out, groundContacts.getType(i).name());
+            out.writeDouble(groundContacts.getX(i));
+            out.writeDouble(groundContacts.getY(i));
+            out.writeDouble(groundContacts.getZ(i));
+            out.writeDouble(groundContacts.getDamping(i));
+            out.writeDouble(groundContacts.getSpring(i));
+            out.writeDouble(groundContacts.getStaticFriction(i));
+            out.writeDouble(groundContacts.getRollingFriction(i));
+         }
+         out.writeDouble(groundContacts.getBrakingForce());
+      }
+
+      if (fuelTanks == null) {
+         out.writeInt(-1);
+      } else {
+         out.writeInt(fuelTanks.size());
+         for (int i = 0; i < fuelTanks.size(); i++) {
+            putString(out, fuelTanks.getName(i));
+            out.writeDouble(fuelTanks.getCapacity(i));
+            out.writeDouble(fuelTanks.getX(i));
+            out.writeDouble(fuelTanks.getY(i));
+            out.writeDouble(fuelTanks.getZ(i));
+         }
+      }
+
+      out.writeInt(engineParameters.size());
+      for (Map<EngineParameters, String> parameters : engineParameters) {
+         out.writeInt(parameters.size());
+         for (Map.Entry<EngineParameters, String> entry : parameters.entrySet()) {
+            putString(out, entry.getKey().name());
+            putString(out, entry.getValue());
+         }
+      }
+
+      for (InterpolationTable table : propulsionTables) {
+         if (table == null) {
+            out.writeByte(CONSTANT);
+         } else {
+            out.writeByte(TABLE);
+            putTable(out, table);
+         }
+      }
+      out.flush();
+
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      buffer.putLong(HEADER_LENGTH - 8, buffer.capacity());
+
+      File tempFile = File.createTempFile(FILE_NAME, ".tmp", file.getAbsoluteFile().getParentFile());
+      try {
+         try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+            stream.getChannel().write(buffer);
+         }
+         try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+         }
+      } finally {
+         Files.deleteIfExists(tempFile.toPath());
+      }
+   }
+
+   private static void putValues(DataOutputStream out, Map<? extends Enum<?>, Double> values) throws IOException {
+      out.writeInt(values.size());
+      for (Map.Entry<? extends Enum<?>, Double> entry : values.entrySet()) {
+         putString(out, entry.getKey().name());
+         out.writeDouble(entry.getValue());
+      }
+   }
+
+   private static void putTable(DataOutputStream out, InterpolationTable table) throws IOException {
+      out.writeByte(table.getInterpolation().ordinal());
+      out.writeByte(table.getExtrapolation().ordinal());
+      out.writeInt(table.getDimensions());
+      for (int dim = 0; dim < table.getDimensions(); dim++) {
+         putDoubles(out, table.getBreakpoints(dim));
+      }
+      putDoubles(out, table.getValues());
+   }
+
+   private static void putDoubles(DataOutputStream out, double[] values) throws IOException {
+      out.writeInt(values.length);
+      for (double value : values) {
+         out.writeDouble(value);
+      }
+   }
+
+   private static void putString(DataOutputStream out, String s) throws IOException {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+   }
+
+   /**
+    * Creates the aircraft held by this package. Each call returns a new aircraft, with its own mass properties.
+    *
+    * @return the aircraft
+    */
+   public Aircraft createAircraft() {
+      return new Aircraft(name, new EnumMap<>(stabDerivs), new EnumMap<>(wingGeometry), new EnumMap<>(massProps),
+              new EnumMap<>(groundReaction), groundContacts, fuelTanks);
+   }
+
+   /**
+    * @return the parameters of each engine, as read from the Propulsion.txt file of the aircraft
+    */
+   List<Map<EngineParameters, String>> getEngineParameters() {
+      return Collections.unmodifiableList(engineParameters);
+   }
+
+   /**
+    * @param tableName {@link PropulsionTables#ENGINE_POWER}, {@link PropulsionTables#PROP_THRUST} or {@link PropulsionTables#PROP_POWER}
+    * @return the table read from the lookup tables of the aircraft, or null if the aircraft does not declare it
+    */
+   InterpolationTable getPropulsionTable(String tableName) {
+      for (int i = 0; i < PROPULSION_TABLES.length; i++) {
+         if (PROPULSION_TABLES[i].equals(tableName)) {
+            return propulsionTables[i];
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @return the aircraft name
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * @return a copy of the mass properties of the aircraft
+    */
+   public Map<MassProperties, Double> getMassProperties() {
+      return new EnumMap<>(massProps);
+   }
+
+   /**
+    * @return the hash of the text files the package was compiled from, see {@link AircraftPackage#hashSources(File)}
+    */
+   public long getSourceHash() {
+      return sourceHash;
+   }
+
+   /**
+    * @return true if the package was compiled from the text files of the aircraft or created from another source, false if it was read
+    * from a package file
+    */
+   public boolean isCompiled() {
+      return compiled;
+   }
+}
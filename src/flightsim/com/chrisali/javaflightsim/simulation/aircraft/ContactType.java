@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+
+/**
+ * Provides Enum values to define the types of the contact points of an {@link Aircraft} with the ground, and how the ground reacts
+ * to each of them. The String field is used to parse the contact points declared in the GroundReaction.txt file of an aircraft.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum ContactType {
+   /**
+    * Landing gear steered by the rudder, such as a nose wheel or a tail wheel
+    */
+   STEERABLE_GEAR("steerable", null, 0, 0.5, 0.06),
+   /**
+    * Left main landing gear, braked by the left brake
+    */
+   LEFT_MAIN_GEAR("left_main", FlightControlType.BRAKE_L, -1, 0.5, 0.06),
+   /**
+    * Right main landing gear, braked by the right brake
+    */
+   RIGHT_MAIN_GEAR("right_main", FlightControlType.BRAKE_R, 1, 0.5, 0.06),
+   /**
+    * Landing gear which is neither steered nor braked, such as an additional bogie
+    */
+   GEAR("gear", null, 0, 0.5, 0.06),
+   /**
+    * Skid, sliding on the ground instead of rolling
+    */
+   SKID("skid", null, 0, 0.5, 0.4),
+   /**
+    * Point of the structure which should not touch the ground, such as a wing tip or the tail
+    */
+   STRUCTURE("structure", null, 0, 0.8, 0.6);
+
+   private final String contactType;
+   private final FlightControlType brake;
+   private final double sideForceSign;
+   private final double staticFriction;
+   private final double rollingFriction;
+
+   private ContactType(String contactType, FlightControlType brake, double sideForceSign, double staticFriction, double rollingFriction) {
+      this.contactType = contactType;
+      this.brake = brake;
+      this.sideForceSign = sideForceSign;
+      this.staticFriction = staticFriction;
+      this.rollingFriction = rollingFriction;
+   }
+
+   /**
+    * @return true if the contact point is steered by the rudder
+    */
+   public boolean isSteerable() {
+      return this == STEERABLE_GEAR;
+   }
+
+   /**
+    * @return the brake of the contact point, or null if it is not braked
+    */
+   public FlightControlType getBrake() {
+      return brake;
+   }
+
+   /**
+    * @return the sign of the side force yawing the aircraft in the direction of its velocity vector, or 0 if the contact point does
+    * not create such a force
+    */
+   public double getSideForceSign() {
+      return sideForceSign;
+   }
+
+   /**
+    * @return the default friction coefficient near stand still
+    */
+   public double getStaticFriction() {
+      return staticFriction;
+   }
+
+   /**
+    * @return the default friction coefficient when moving
+    */
+   public double getRollingFriction() {
+      return rollingFriction;
+   }
+
+   /**
+    * Returns the type whose String field matches a value read from a file.
+    *
+    * @param contactType the String field
+    * @return the type, or null if no type matches
+    */
+   public static ContactType parse(String contactType) {
+      for (ContactType type : values()) {
+         if (type.contactType.equals(contactType)) {
+            return type;
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public String toString() {
+      return contactType;
+   }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import java.util.Arrays;
+
+/**
+ * Defines the fuel tanks of an {@link Aircraft}. The properties of the tanks are held in parallel primitive arrays indexed by tank, so that
+ * {@link MassModel} can burn fuel from all of them in a single loop.
+ *
+ * <p>
+ * The tanks are either declared in the MassProperties.txt file of the aircraft, with one line per tank written as
+ * <code>fuelTank = name, capacity, x, y, z</code>, where the capacity is in lb and the position of the tank is relative to the center of
+ * gravity given by {@link MassProperties#CG_X}, {@link MassProperties#CG_Y} and {@link MassProperties#CG_Z} (ft), or, if no tank is declared,
+ * are a single tank at the center of gravity holding {@link MassProperties#MAX_WEIGHT_FUEL}. Each tank is initially filled to the fraction
+ * {@link MassProperties#WEIGHT_FUEL} of its capacity.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class FuelTanks {
+   /**
+    * Key of the lines declaring a fuel tank in the MassProperties.txt file of an aircraft
+    */
+   public static final String TANK_KEY = "fuelTank";
+   /**
+    * Density of the fuel (lb/gal), used to convert the fuel flows of the engines
+    */
+   public static final double FUEL_DENSITY = 6.0;
+
+   private int count = 0;
+   private String[] names = new String[0];
+   private double[] capacity = new double[0];
+   private double[] x = new double[0];
+   private double[] y = new double[0];
+   private double[] z = new double[0];
+
+   /**
+    * Creates a definition without any tank.
+    */
+   public FuelTanks() {
+   }
+
+   /**
+    * Creates a single tank at the center of gravity, holding the max fuel weight of the aircraft.
+    *
+    * @param maxWeightFuel the max fuel weight (lb)
+    * @return the tanks
+    */
+   public static FuelTanks singleTank(double maxWeightFuel) {
+      FuelTanks tanks = new FuelTanks();
+      tanks.addTank("main", maxWeightFuel, 0, 0, 0);
+
+      return tanks;
+   }
+
+   /**
+    * Parses a tank declared in the MassProperties.txt file of an aircraft, written as <code>name, capacity, x, y, z</code>, and adds it
+    * to this definition. An invalid declaration is skipped.
+    *
+    * @param declaration the declaration
+    * @return true if the tank was added
+    */
+   public boolean parseTank(String declaration) {
+      String[] fields = declaration.split(",");
+      if (fields.length != 5) {
+         System.err.println("Invalid fuel tank: " + declaration + "! Skipping it.");
+         return false;
+      }
+
+      try {
+         addTank(fields[0].trim(), Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim()),
+                 Double.parseDouble(fields[3].trim()), Double.parseDouble(fields[4].trim()));
+         return true;
+      } catch (NumberFormatException e) {
+         System.err.println("Error parsing fuel tank: " + declaration + "! Skipping it.");
+         return false;
+      } catch (IllegalArgumentException e) {
+         System.err.println("Invalid fuel tank: " + e.getMessage() + "! Skipping it.");
+         return false;
+      }
+   }
+
+   /**
+    * Adds a tank.
+    *
+    * @param name the name of the tank
+    * @param capacity the capacity of the tank (lb)
+    * @param x the x position of the tank relative to the center of gravity (ft)
+    * @param y the y position of the tank relative to the center of gravity (ft)
+    * @param z the z position of the tank relative to the center of gravity (ft)
+    * @throws IllegalArgumentException if the capacity is negative
+    */
+   public void addTank(String name, double capacity, double x, double y, double z) {
+      if (!(capacity >= 0)) {
+         throw new IllegalArgumentException("Capacity of " + name + ": " + capacity);
+      }
+
+      names = Arrays.copyOf(names, count + 1);
+      this.capacity = Arrays.copyOf(this.capacity, count + 1);
+      this.x = Arrays.copyOf(this.x, count + 1);
+      this.y = Arrays.copyOf(this.y, count + 1);
+      this.z = Arrays.copyOf(this.z, count + 1);
+
+      names[count] = name;
+      this.capacity[count] = capacity;
+      this.x[count] = x;
+      this.y[count] = y;
+      this.z[count] = z;
+      count++;
+   }
+
+   /**
+    * @return the number of tanks
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * @param tank the index of the tank
+    * @return the name of the tank
+    */
+   public String getName(int tank) {
+      return names[tank];
+   }
+
+   /**
+    * @param tank the index of the tank
+    * @return the capacity of the tank (lb)
+    */
+   public double getCapacity(int tank) {
+      return capacity[tank];
+   }
+
+   /**
+    * @param tank the index of the tank
+    * @return the x position of the tank relative to the center of gravity (ft)
+    */
+   public double getX(int tank) {
+      return x[tank];
+   }
+
+   /**
+    * @param tank the index of the tank
+    * @return the y position of the tank relative to the center of gravity (ft)
+    */
+   public double getY(int tank) {
+      return y[tank];
+   }
+
+   /**
+    * @param tank the index of the tank
+    * @return the z position of the tank relative to the center of gravity (ft)
+    */
+   public double getZ(int tank) {
+      return z[tank];
+   }
+
+   /**
+    * @return the total capacity of the tanks (lb)
+    */
+   public double getTotalCapacity() {
+      double total = 0;
+      for (int i = 0; i < count; i++) {
+         total += capacity[i];
+      }
+      return total;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < count; i++) {
+         sb.append(TANK_KEY).append(": ").append(names[i]).append(", ").append(capacity[i]).append(", ").append(x[i]).append(", ")
+                 .append(y[i]).append(", ").append(z[i]).append("\n");
+      }
+
+      return sb.toString();
+   }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Defines the points of an {@link Aircraft} which can touch the ground: landing gear, skids or points of the structure such as wing
+ * tips. The properties of the contact points are held in parallel primitive arrays indexed by contact point, so that
+ * {@link com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction} can evaluate all of them in a single loop.
+ *
+ * <p>
+ * The contact points are either declared in the GroundReaction.txt file of the aircraft, with one line per contact point written as
+ * <code>contact = name, type, x, y, z, damping, spring</code>, optionally followed by the static and rolling friction coefficients,
+ * where type is the String field of a {@link ContactType}, or, if no contact point is declared, are the nose, left and right landing
+ * gear defined by the {@link GroundReaction} values of the aircraft.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class GroundContacts {
+   /**
+    * Key of the lines declaring a contact point in the GroundReaction.txt file of an aircraft
+    */
+   public static final String CONTACT_KEY = "contact";
+
+   private int count = 0;
+   private String[] names = new String[0];
+   private ContactType[] types = new ContactType[0];
+   private double[] x = new double[0];
+   private double[] y = new double[0];
+   private double[] z = new double[0];
+   private double[] damping = new double[0];
+   private double[] spring = new double[0];
+   private double[] staticFriction = new double[0];
+   private double[] rollingFriction = new double[0];
+   private double brakingForce = 0;
+
+   /**
+    * Creates a definition without any contact point.
+    */
+   public GroundContacts() {
+   }
+
+   /**
+    * Creates the nose, left and right landing gear defined by the {@link GroundReaction} values of an aircraft. A landing gear whose
+    * values are missing is skipped.
+    *
+    * @param groundReaction the ground reaction values
+    * @return the contact points
+    */
+   public static GroundContacts fromGroundReaction(Map<GroundReaction, Double> groundReaction) {
+      GroundContacts contacts = new GroundContacts();
+      contacts.addGear(groundReaction, "nose", ContactType.STEERABLE_GEAR, GroundReaction.NOSE_X, GroundReaction.NOSE_Y,
+              GroundReaction.NOSE_Z, GroundReaction.NOSE_DAMPING, GroundReaction.NOSE_SPRING);
+      contacts.addGear(groundReaction, "left", ContactType.LEFT_MAIN_GEAR, GroundReaction.LEFT_X, GroundReaction.LEFT_Y,
+              GroundReaction.LEFT_Z, GroundReaction.LEFT_DAMPING, GroundReaction.LEFT_SPRING);
+      contacts.addGear(groundReaction, "right", ContactType.RIGHT_MAIN_GEAR, GroundReaction.RIGHT_X, GroundReaction.RIGHT_Y,
+              GroundReaction.RIGHT_Z, GroundReaction.RIGHT_DAMPING, GroundReaction.RIGHT_SPRING);
+      if (groundReaction.containsKey(GroundReaction.BRAKING_FORCE)) {
+         contacts.setBrakingForce(groundReaction.get(GroundReaction.BRAKING_FORCE));
+      }
+
+      return contacts;
+   }
+
+   private void addGear(Map<GroundReaction, Double> groundReaction, String name, ContactType type, GroundReaction... keys) {
+      double[] values = new double[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+         Double value = groundReaction.get(keys[i]);
+         if (value == null) {
+            System.err.println("Missing ground reaction value: " + keys[i] + "! Skipping the " + name + " landing gear.");
+            return;
+         }
+         values[i] = value;
+      }
+      addContact(name, type, values[0], values[1], values[2], values[3], values[4]);
+   }
+
+   /**
+    * Parses a contact point declared in the GroundReaction.txt file of an aircraft, written as
+    * <code>name, type, x, y, z, damping, spring[, staticFriction, rollingFriction]</code>, and adds it to this definition.
+    * An invalid declaration is skipped.
+    *
+    * @param declaration the declaration
+    * @return true if the contact point was added
+    */
+   public boolean parseContact(String declaration) {
+      String[] fields = declaration.split(",");
+      if (fields.length != 7 && fields.length != 9) {
+         System.err.println("Invalid contact point: " + declaration + "! Skipping it.");
+         return false;
+      }
+
+      ContactType type = ContactType.parse(fields[1].trim());
+      if (type == null) {
+         System.err.println("Unknown contact point type: " + fields[1].trim() + "! Skipping " + fields[0].trim() + ".");
+         return false;
+      }
+
+      try {
+         double[] values = new double[fields.length - 2];
+         for (int i = 0; i < values.length; i++) {
+            values[i] = Double.parseDouble(fields[i + 2].trim());
+         }
+
+         if (values.length == 5) {
+            addContact(fields[0].trim(), type, values[0], values[1], values[2], values[3], values[4]);
+         } else {
+            addContact(fields[0].trim(), type, values[0], values[1], values[2], values[3], values[4], values[5], values[6]);
+         }
+         return true;
+      } catch (NumberFormatException e) {
+         System.err.println("Invalid contact point: " + declaration + "! Skipping it.");
+         return false;
+      }
+   }
+
+   /**
+    * Adds a contact point, using the default friction coefficients of its type.
+    *
+    * @param name the name of the contact point
+    * @param type the type of the contact point
+    * @param x the position of the contact point relative to the center of gravity along the X axis (ft)
+    * @param y the position of the contact point relative to the center of gravity along the Y axis (ft)
+    * @param z the position of the contact point relative to the center of gravity along the Z axis (ft)
+    * @param damping the damping of the contact point (lbf/(ft/sec))
+    * @param spring the spring constant of the contact point (lbf/ft)
+    */
+   public void addContact(String name, ContactType type, double x, double y, double z, double damping, double spring) {
+      addContact(name, type, x, y, z, damping, spring, type.getStaticFriction(), type.getRollingFriction());
+   }
+
+   /**
+    * Adds a contact point.
+    *
+    * @param name the name of the contact point
+    * @param type the type of the contact point
+    * @param x the position of the contact point relative to the center of gravity along the X axis (ft)
+    * @param y the position of the contact point relative to the center of gravity along the Y axis (ft)
+    * @param z the position of the contact point relative to the center of gravity along the Z axis (ft)
+    * @param damping the damping of the contact point (lbf/(ft/sec))
+    * @param spring the spring constant of the contact point (lbf/ft)
+    * @param staticFriction the friction coefficient near stand still
+    * @param rollingFriction the friction coefficient when moving
+    */
+   public void addContact(String name, ContactType type, double x, double y, double z, double damping, double spring,
+           double staticFriction, double rollingFriction) {
+      int capacity = count + 1;
+      names = Arrays.copyOf(names, capacity);
+      types = Arrays.copyOf(types, capacity);
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.z = Arrays.copyOf(this.z, capacity);
+      this.damping = Arrays.copyOf(this.damping, capacity);
+      this.spring = Arrays.copyOf(this.spring, capacity);
+      this.staticFriction = Arrays.copyOf(this.staticFriction, capacity);
+      this.rollingFriction = Arrays.copyOf(this.rollingFriction, capacity);
+
+      names[count] = name;
+      types[count] = type;
+      this.x[count] = x;
+      this.y[count] = y;
+      this.z[count] = z;
+      this.damping[count] = damping;
+      this.spring[count] = spring;
+      this.staticFriction[count] = staticFriction;
+      this.rollingFriction[count] = rollingFriction;
+      count++;
+   }
+
+   /**
+    * @return the number of contact points
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the name of the contact point
+    */
+   public String getName(int index) {
+      return names[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the type of the contact point
+    */
+   public ContactType getType(int index) {
+      return types[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the position of the contact point relative to the center of gravity along the X axis (ft)
+    */
+   public double getX(int index) {
+      return x[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the position of the contact point relative to the center of gravity along the Y axis (ft)
+    */
+   public double getY(int index) {
+      return y[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the position of the contact point relative to the center of gravity along the Z axis (ft)
+    */
+   public double getZ(int index) {
+      return z[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the damping of the contact point (lbf/(ft/sec))
+    */
+   public double getDamping(int index) {
+      return damping[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the spring constant of the contact point (lbf/ft)
+    */
+   public double getSpring(int index) {
+      return spring[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the friction coefficient of the contact point near stand still
+    */
+   public double getStaticFriction(int index) {
+      return staticFriction[index];
+   }
+
+   /**
+    * @param index the index of the contact point
+    * @return the friction coefficient of the contact point when moving
+    */
+   public double getRollingFriction(int index) {
+      return rollingFriction[index];
+   }
+
+   /**
+    * @return the maximum braking force of a braked contact point (lbf)
+    */
+   public double getBrakingForce() {
+      return brakingForce;
+   }
+
+   /**
+    * @param brakingForce the maximum braking force of a braked contact point (lbf)
+    */
+   public void setBrakingForce(double brakingForce) {
+      this.brakingForce = brakingForce;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < count; i++) {
+         sb.append(CONTACT_KEY).append(": ").append(names[i]).append(", ").append(types[i]).append(", ").append(x[i]).append(", ")
+                 .append(y[i]).append(", ").append(z[i]).append(", ").append(damping[i]).append(", ").append(spring[i]).append(", ")
+                 .append(staticFriction[i]).append(", ").append(rollingFriction[i]).append("\n");
+      }
+      sb.append(GroundReaction.BRAKING_FORCE).append(": ").append(brakingForce).append("\n");
+
+      return sb.toString();
+   }
+}
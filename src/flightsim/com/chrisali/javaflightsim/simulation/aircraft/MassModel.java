@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.aircraft;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
+
+/**
+ * Mass properties of an {@link Aircraft} during a simulation, as fuel is burned from its {@link FuelTanks}. A model is owned by a single
+ * simulation, and does not change the {@link MassProperties} of the aircraft it was created from.
+ *
+ * <p>
+ * The {@link MassProperties} of the aircraft describe it as loaded at the start of the simulation: its total mass, center of gravity and
+ * inertia include the fuel initially held by its tanks. The tanks are point masses, so that the model can split the aircraft into its dry
+ * part, whose mass, center of gravity and inertia do not change, and the contents of its tanks.</p>
+ *
+ * <p>
+ * Burning fuel updates the mass at each step, but the center of gravity, the inertia tensor and the inertia coefficients used by the
+ * 6DOF equations are only recomputed when the mass has changed by more than a threshold since they were last computed, so that a step
+ * of integration only pays for a subtraction. The model does not allocate memory once created.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class MassModel {
+   /**
+    * Default relative change of mass after which the center of gravity and the inertia are recomputed
+    */
+   public static final double DEFAULT_UPDATE_THRESHOLD = 1.0e-3;
+
+   private static final double SEC_PER_HOUR = 3600;
+
+   private final double gravity = Environment.getGravity();
+   private double updateThreshold = DEFAULT_UPDATE_THRESHOLD;
+
+   // Loaded aircraft, as described by its mass properties
+   private final double initialMass;
+   private final double[] initialCG = new double[3];
+   private final double[] initialInertia = new double[4];
+
+   // Dry aircraft: mass, center of gravity relative to the loaded center of gravity, and inertia about its own center of gravity
+   private final double dryMass;
+   private final double[] dryOffset = new double[3];
+   private final double[] dryInertia = new double[4];
+
+   // Tanks: positions relative to the loaded center of gravity, and contents (lb)
+   private final FuelTanks tanks;
+   private final int tankCount;
+   private final double[] tankX;
+   private final double[] tankY;
+   private final double[] tankZ;
+   private final double[] initialContents;
+   private final double[] contents;
+
+   // Current mass properties
+   private double mass;
+   private double fuelWeight;
+   private double massAtUpdate;
+   private int updateCount;
+   private final double[] cgShift = new double[3];
+   private final double[] centerOfGravity = new double[3];
+   private final double[] inertia = new double[4];
+   private final double[] inertiaCoeffs = new double[9];
+
+   /**
+    * Creates the mass model of an aircraft, from its current {@link MassProperties} and {@link FuelTanks}. Each tank is filled to the
+    * fraction {@link MassProperties#WEIGHT_FUEL} of its capacity.
+    *
+    * @param aircraft the aircraft
+    */
+   public MassModel(Aircraft aircraft) {
+      initialMass = aircraft.getMassProperty(MassProperties.TOTAL_MASS);
+      initialCG[0] = aircraft.getMassProperty(MassProperties.CG_X);
+      initialCG[1] = aircraft.getMassProperty(MassProperties.CG_Y);
+      initialCG[2] = aircraft.getMassProperty(MassProperties.CG_Z);
+      initialInertia[0] = aircraft.getMassProperty(MassProperties.J_X);
+      initialInertia[1] = aircraft.getMassProperty(MassProperties.J_Y);
+      initialInertia[2] = aircraft.getMassProperty(MassProperties.J_Z);
+      initialInertia[3] = aircraft.getMassProperty(MassProperties.J_XZ);
+
+      tanks = aircraft.getFuelTanks();
+      tankCount = tanks.size();
+      tankX = new double[tankCount];
+      tankY = new double[tankCount];
+      tankZ = new double[tankCount];
+      initialContents = new double[tankCount];
+      contents = new double[tankCount];
+
+      double fill = Math.max(0, Math.min(1, aircraft.getMassProperty(MassProperties.WEIGHT_FUEL)));
+      double initialFuelMass = 0;
+      double[] fuelMoment = new double[3];
+      for (int i = 0; i < tankCount; i++) {
+         tankX[i] = tanks.getX(i);
+         tankY[i] = tanks.getY(i);
+         tankZ[i] = tanks.getZ(i);
+         initialContents[i] = fill * tanks.getCapacity(i);
+
+         double tankMass = initialContents[i] / gravity;
+         initialFuelMass += tankMass;
+         fuelMoment[0] += tankMass * tankX[i];
+         fuelMoment[1] += tankMass * tankY[i];
+         fuelMoment[2] += tankMass * tankZ[i];
+      }
+
+      // The dry aircraft balances the moment of the fuel about the loaded center of gravity
+      double remainingMass = initialMass - initialFuelMass;
+      if (!(remainingMass > 0)) {
+         System.err.println("Fuel weight exceeds the total weight of " + aircraft.getName() + "! Ignoring the fuel tanks.");
+         remainingMass = initialMass;
+         for (int i = 0; i < tankCount; i++) {
+            initialContents[i] = 0;
+         }
+         fuelMoment[0] = fuelMoment[1] = fuelMoment[2] = 0;
+      }
+      dryMass = remainingMass;
+      for (int i = 0; i < 3; i++) {
+         dryOffset[i] = -fuelMoment[i] / dryMass;
+      }
+
+      // Parallel axis theorem: remove the contributions of the dry center of gravity and of the tanks from the loaded inertia
+      System.arraycopy(initialInertia, 0, dryInertia, 0, 4);
+      addPointMass(dryInertia, -dryMass, dryOffset[0], dryOffset[1], dryOffset[2]);
+      for (int i = 0; i < tankCount; i++) {
+         addPointMass(dryInertia, -initialContents[i] / gravity, tankX[i], tankY[i], tankZ[i]);
+      }
+
+      reset();
+   }
+
+   /**
+    * Refills the tanks to their initial contents, and restores the mass properties of the loaded aircraft.
+    */
+   public void reset() {
+      System.arraycopy(initialContents, 0, contents, 0, tankCount);
+      fuelWeight = 0;
+      for (int i = 0; i < tankCount; i++) {
+         fuelWeight += contents[i];
+      }
+
+      mass = initialMass;
+      massAtUpdate = initialMass;
+      updateCount = 0;
+      cgShift[0] = cgShift[1] = cgShift[2] = 0;
+      System.arraycopy(initialCG, 0, centerOfGravity, 0, 3);
+      System.arraycopy(initialInertia, 0, inertia, 0, 4);
+      SixDOFUtilities.calculateInertiaCoeffs(inertia, inertiaCoeffs);
+   }
+
+   /**
+    * Sets the relative change of mass after which the center of gravity and the inertia are recomputed.
+    *
+    * @param updateThreshold the relative change of mass, 0 to recompute them at each burn
+    * @throws IllegalArgumentException if the threshold is negative
+    */
+   public void setUpdateThreshold(double updateThreshold) {
+      if (!(updateThreshold >= 0)) {
+         throw new IllegalArgumentException("Invalid update threshold: " + updateThreshold);
+      }
+      this.updateThreshold = updateThreshold;
+   }
+
+   /**
+    * Burns fuel for a time step. The fuel is drawn from all tanks in proportion to their contents, and the mass is updated; the center
+    * of gravity, the inertia and the inertia coefficients are recomputed if the mass has changed by more than the update threshold since
+    * they were last computed, or if the tanks are empty.
+    *
+    * @param fuelFlow the total fuel flow of the engines (gal/hr)
+    * @param dt the time step (sec)
+    * @return true if the center of gravity and the inertia were recomputed
+    */
+   public boolean burnFuel(double fuelFlow, double dt) {
+      if (fuelWeight <= 0 || !(fuelFlow > 0)) {
+         return false;
+      }
+
+      double burned = fuelFlow * FuelTanks.FUEL_DENSITY / SEC_PER_HOUR * dt;
+      if (burned >= fuelWeight) {
+         burned = fuelWeight;
+         for (int i = 0; i < tankCount; i++) {
+            contents[i] = 0;
+         }
+         fuelWeight = 0;
+      } else {
+         double ratio = 1 - burned / fuelWeight;
+         for (int i = 0; i < tankCount; i++) {
+            contents[i] *= ratio;
+         }
+         fuelWeight -= burned;
+      }
+      mass -= burned / gravity;
+
+      if (fuelWeight == 0 || Math.abs(massAtUpdate - mass) > updateThreshold * massAtUpdate) {
+         updateDistribution();
+         return true;
+      }
+
+      return false;
+   }
+
+   /**
+    * Recomputes the center of gravity, the inertia tensor about it and the inertia coefficients from the contents of the tanks.
+    */
+   private void updateDistribution() {
+      double total = dryMass;
+      double momentX = dryMass * dryOffset[0];
+      double momentY = dryMass * dryOffset[1];
+      double momentZ = dryMass * dryOffset[2];
+      for (int i = 0; i < tankCount; i++) {
+         double tankMass = contents[i] / gravity;
+         total += tankMass;
+         momentX += tankMass * tankX[i];
+         momentY += tankMass * tankY[i];
+         momentZ += tankMass * tankZ[i];
+      }
+      cgShift[0] = momentX / total;
+      cgShift[1] = momentY / total;
+      cgShift[2] = momentZ / total;
+      for (int i = 0; i < 3; i++) {
+         centerOfGravity[i] = initialCG[i] + cgShift[i];
+      }
+
+      System.arraycopy(dryInertia, 0, inertia, 0, 4);
+      addPointMass(inertia, dryMass, dryOffset[0] - cgShift[0], dryOffset[1] - cgShift[1], dryOffset[2] - cgShift[2]);
+      for (int i = 0; i < tankCount; i++) {
+         addPointMass(inertia, contents[i] / gravity, tankX[i] - cgShift[0], tankY[i] - cgShift[1], tankZ[i] - cgShift[2]);
+      }
+      SixDOFUtilities.calculateInertiaCoeffs(inertia, inertiaCoeffs);
+
+      massAtUpdate = mass;
+      updateCount++;
+   }
+
+   /**
+    * Adds the inertia of a point mass at a distance from the reference point to an inertia array {J_X, J_Y, J_Z, J_XZ}
+    */
+   private static void addPointMass(double[] inertia, double pointMass, double dx, double dy, double dz) {
+      inertia[0] += pointMass * (dy * dy + dz * dz);
+      inertia[1] += pointMass * (dx * dx + dz * dz);
+      inertia[2] += pointMass * (dx * dx + dy * dy);
+      inertia[3] += pointMass * dx * dz;
+   }
+
+   /**
+    * @return the current mass (slug)
+    */
+   public double getMass() {
+      return mass;
+   }
+
+   /**
+    * @return the current weight (lb)
+    */
+   public double getWeight() {
+      return mass * gravity;
+   }
+
+   /**
+    * @return the weight of the fuel left in all tanks (lb)
+    */
+   public double getFuelWeight() {
+      return fuelWeight;
+   }
+
+   /**
+    * @return true if any tank still holds fuel
+    */
+   public boolean hasFuel() {
+      return fuelWeight > 0;
+   }
+
+   /**
+    * @return the fuel tanks
+    */
+   public FuelTanks getFuelTanks() {
+      return tanks;
+   }
+
+   /**
+    * @param tank the index of the tank
+    * @return the weight of the fuel left in the tank (lb)
+    */
+   public double getTankContents(int tank) {
+      return contents[tank];
+   }
+
+   /**
+    * Returns the center of gravity, in the same frame as {@link MassProperties#CG_X}, {@link MassProperties#CG_Y} and
+    * {@link MassProperties#CG_Z}. The returned array is held by the model and must not be modified.
+    *
+    * @return the center of gravity {x, y, z} (ft)
+    */
+   public double[] getCenterOfGravity() {
+      return centerOfGravity;
+   }
+
+   /**
+    * Returns the displacement of the center of gravity from the center of gravity of the loaded aircraft, to which the positions of the
+    * engines, contact points and tanks are relative. The returned array is held by the model and must not be modified.
+    *
+    * @return the displacement of the center of gravity {x, y, z} (ft)
+    */
+   public double[] getCenterOfGravityShift() {
+      return cgShift;
+   }
+
+   /**
+    * Returns the inertia tensor about the current center of gravity. The returned array is held by the model and must not be modified.
+    *
+    * @return the inertia {J_X, J_Y, J_Z, J_XZ} (slug*ft^2)
+    */
+   public double[] getInertiaValues() {
+      return inertia;
+   }
+
+   /**
+    * Returns the inertia coefficients of {@link SixDOFUtilities#calculateInertiaCoeffs(double[], double[])} for the current inertia. The
+    * returned array is held by the model and is updated in place when the inertia is recomputed.
+    *
+    * @return the inertia coefficients
+    */
+   public double[] getInertiaCoefficients() {
+      return inertiaCoeffs;
+   }
+
+   /**
+    * @return the number of times the center of gravity and the inertia were recomputed since the model was created or reset
+    */
+   public int getUpdateCount() {
+      return updateCount;
+   }
+}
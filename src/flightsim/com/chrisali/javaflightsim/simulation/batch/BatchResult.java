@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.batch;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of a {@link BatchRun} executed by a {@link BatchRunner}: the file the simulation outputs were streamed to, the number of steps
+ * integrated, the simulation outputs of the last step and the time taken by the run. If the run failed, the error which stopped it is
+ * kept instead.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class BatchResult {
+   private final BatchRun run;
+   private final File outputFile;
+   private final long steps;
+   private final Map<SimOuts, Double> finalSimOut;
+   private final double elapsedTime;
+   private final String error;
+
+   BatchResult(BatchRun run, File outputFile, long steps, Map<SimOuts, Double> finalSimOut, double elapsedTime, String error) {
+      this.run = run;
+      this.outputFile = outputFile;
+      this.steps = steps;
+      this.finalSimOut = (finalSimOut == null) ? null : Collections.unmodifiableMap(finalSimOut);
+      this.elapsedTime = elapsedTime;
+      this.error = error;
+   }
+
+   /**
+    * @return the run this result belongs to
+    */
+   public BatchRun getRun() {
+      return run;
+   }
+
+   /**
+    * @return the CSV file the simulation outputs were streamed to
+    */
+   public File getOutputFile() {
+      return outputFile;
+   }
+
+   /**
+    * @return the number of steps of integration logged
+    */
+   public long getSteps() {
+      return steps;
+   }
+
+   /**
+    * @return the simulation outputs of the last step, or null if no step was logged
+    */
+   public Map<SimOuts, Double> getFinalSimOut() {
+      return finalSimOut;
+   }
+
+   /**
+    * @return the wall clock time taken by the run (sec)
+    */
+   public double getElapsedTime() {
+      return elapsedTime;
+   }
+
+   /**
+    * @return true if the run completed without error
+    */
+   public boolean isSuccessful() {
+      return error == null;
+   }
+
+   /**
+    * @return the error which stopped the run, or null if the run was successful
+    */
+   public String getError() {
+      return error;
+   }
+
+   @Override
+   public String toString() {
+      return run + ": " + (isSuccessful() ? steps + " steps in " + elapsedTime + " sec" : "failed, " + error);
+   }
+}
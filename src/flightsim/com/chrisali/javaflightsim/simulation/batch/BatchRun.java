@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.batch;
+
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.TurbulenceIntensity;
+import com.chrisali.javaflightsim.simulation.integration.IntegratorType;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import java.util.EnumMap;
+
+/**
+ * Describes one simulation of a batch run by a {@link BatchRunner}: the aircraft, initial conditions, integrator configuration and
+ * initial controls of the simulation, whether the aircraft is trimmed and doublets are injected into the controls, and the turbulence of
+ * the simulation, reproducible for its seed. A run holds its
+ * own copies of the EnumMaps it was created with, so that runs of a parameter sweep can be created from the same maps, modified between
+ * each run.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class BatchRun {
+   private final String name;
+   private final String aircraftName;
+   private final EnumMap<InitialConditions, Double> initialConditions;
+   private final EnumMap<IntegratorConfig, Double> integratorConfig;
+   private final EnumMap<FlightControlType, Double> initialControls;
+   private boolean trim = true;
+   private boolean doublets = false;
+   private IntegratorType integratorType = IntegratorType.EULER;
+   private double tolerance = IntegratorType.DEFAULT_TOLERANCE;
+   private TurbulenceIntensity turbulenceIntensity = TurbulenceIntensity.NONE;
+   private long seed = 0;
+
+   /**
+    * Creates a run of a batch.
+    *
+    * @param name the name of the run, used as the name of its output file; must be unique in a batch
+    * @param aircraftName the name of the aircraft folder in the aircraft directory, or null to use the default Navion of
+    * {@link AircraftBuilder#AircraftBuilder()}
+    * @param initialConditions the initial conditions
+    * @param integratorConfig the integrator configuration
+    * @param initialControls the initial controls
+    */
+   public BatchRun(String name, String aircraftName, EnumMap<InitialConditions, Double> initialConditions,
+           EnumMap<IntegratorConfig, Double> integratorConfig, EnumMap<FlightControlType, Double> initialControls) {
+      this.name = name;
+      this.aircraftName = aircraftName;
+      this.initialConditions = new EnumMap<>(initialConditions);
+      this.integratorConfig = new EnumMap<>(integratorConfig);
+      this.initialControls = new EnumMap<>(initialControls);
+   }
+
+   /**
+    * @return the name of the run
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * @return the name of the aircraft, or null for the default Navion
+    */
+   public String getAircraftName() {
+      return aircraftName;
+   }
+
+   /**
+    * @return a copy of the initial conditions of the run
+    */
+   public EnumMap<InitialConditions, Double> getInitialConditions() {
+      return new EnumMap<>(initialConditions);
+   }
+
+   /**
+    * @return a copy of the integrator configuration of the run
+    */
+   public EnumMap<IntegratorConfig, Double> getIntegratorConfig() {
+      return new EnumMap<>(integratorConfig);
+   }
+
+   /**
+    * @return a copy of the initial controls of the run
+    */
+   public EnumMap<FlightControlType, Double> getInitialControls() {
+      return new EnumMap<>(initialControls);
+   }
+
+   /**
+    * Sets if the aircraft is trimmed for the initial conditions before the simulation is run (true by default).
+    *
+    * @param trim true if the aircraft is trimmed
+    */
+   public void setTrim(boolean trim) {
+      this.trim = trim;
+   }
+
+   /**
+    * @return true if the aircraft is trimmed before the simulation is run
+    */
+   public boolean isTrim() {
+      return trim;
+   }
+
+   /**
+    * Sets if the series of aileron, rudder and elevator doublets of
+    * {@link com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities#doubletSeries(java.util.Map, double)} is injected into the
+    * controls during the simulation (false by default).
+    *
+    * @param doublets true if doublets are injected
+    */
+   public void setDoublets(boolean doublets) {
+      this.doublets = doublets;
+   }
+
+   /**
+    * @return true if doublets are injected into the controls during the simulation
+    */
+   public boolean hasDoublets() {
+      return doublets;
+   }
+
+   /**
+    * Sets the integrator used to integrate the 6DOF equations ({@link IntegratorType#EULER} by default).
+    *
+    * @param integratorType the type of integrator
+    * @param tolerance the tolerance of the local error of each step, used by adaptive integrators
+    */
+   public void setIntegrator(IntegratorType integratorType, double tolerance) {
+      this.integratorType = integratorType;
+      this.tolerance = tolerance;
+   }
+
+   /**
+    * @return the type of integrator used to integrate the 6DOF equations
+    */
+   public IntegratorType getIntegratorType() {
+      return integratorType;
+   }
+
+   /**
+    * @return the tolerance of the local error of each step, used by adaptive integrators
+    */
+   public double getTolerance() {
+      return tolerance;
+   }
+
+   /**
+    * Sets the turbulence of the simulation ({@link TurbulenceIntensity#NONE} by default). Runs with the same seed and initial conditions
+    * have the same turbulence.
+    *
+    * @param turbulenceIntensity the intensity of the turbulence
+    * @param seed the seed of the turbulence
+    */
+   public void setTurbulence(TurbulenceIntensity turbulenceIntensity, long seed) {
+      this.turbulenceIntensity = turbulenceIntensity;
+      this.seed = seed;
+   }
+
+   /**
+    * @return the intensity of the turbulence
+    */
+   public TurbulenceIntensity getTurbulenceIntensity() {
+      return turbulenceIntensity;
+   }
+
+   /**
+    * @return the seed of the turbulence
+    */
+   public long getSeed() {
+      return seed;
+   }
+
+   @Override
+   public String toString() {
+      return name + " (" + (aircraftName == null ? "Navion" : aircraftName) + ")";
+   }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.batch;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsListener;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Headless engine running a batch of independent {@link BatchRun}s, such as a parameter sweep over initial conditions and aircraft, in
+ * parallel on a fork-join pool. Each run is an {@link Integrate6DOFEquations} instance in {@link Options#ANALYSIS_MODE}, with its own
+ * {@link AircraftBuilder}, time base, controls and log, and without any
+ * {@link com.chrisali.javaflightsim.controllers.SimulationController} or flight controls thread. The outputs of each run are streamed to
+ * a CSV file named after the run in the output directory as the run progresses, and the last outputs of all runs are written to a
+ * summary file once the batch is complete.
+ *
+ * <p>
+ * Each run owns the {@link com.chrisali.javaflightsim.simulation.enviroment.Weather} of its simulation, whose turbulence is set from
+ * the intensity and the seed of the {@link BatchRun}: runs do not share any weather state, and a run is reproducible whatever the
+ * other runs of the batch and the order in which they are executed.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class BatchRunner {
+   /**
+    * Name of the summary file written in the output directory
+    */
+   public static final String SUMMARY_FILE = "BatchSummary.csv";
+
+   private final File outputDir;
+   private final int parallelism;
+
+   /**
+    * Creates a runner using as many threads as there are available processors.
+    *
+    * @param outputDir the directory where the output files are written
+    */
+   public BatchRunner(File outputDir) {
+      this(outputDir, Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Creates a runner.
+    *
+    * @param outputDir the directory where the output files are written
+    * @param parallelism the number of runs executed concurrently
+    */
+   public BatchRunner(File outputDir, int parallelism) {
+      this.outputDir = outputDir;
+      if (parallelism < 1) {
+         System.err.println("Invalid batch parallelism: " + parallelism + "! Defaulting to 1.");
+         parallelism = 1;
+      }
+      this.parallelism = parallelism;
+   }
+
+   /**
+    * Runs all the runs of a batch in parallel, and writes the summary file once they have all completed. A run which fails does not
+    * stop the others; its error is reported in its {@link BatchResult}.
+    *
+    * @param runs the runs
+    * @return the results, in the order of the runs
+    * @throws IOException if the output directory or the summary file could not be created
+    */
+   public List<BatchResult> run(List<BatchRun> runs) throws IOException {
+      if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+         throw new IOException("Unable to create batch output directory " + outputDir);
+      }
+
+      List<Callable<BatchResult>> tasks = new ArrayList<>(runs.size());
+      for (final BatchRun run : runs) {
+         tasks.add(new Callable<BatchResult>() {
+            @Override
+            public BatchResult call() {
+               return runSimulation(run);
+            }
+         });
+      }
+
+      List<BatchResult> results = new ArrayList<>(runs.size());
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+         List<Future<BatchResult>> futures = pool.invokeAll(tasks);
+         for (int i = 0; i < futures.size(); i++) {
+            try {
+               results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+               results.add(new BatchResult(runs.get(i), null, 0, null, 0, e.getCause().toString()));
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } finally {
+         pool.shutdown();
+      }
+
+      writeSummary(results);
+
+      return results;
+   }
+
+   /**
+    * Runs a single simulation on the calling thread, streaming its outputs to a CSV file in the output directory.
+    *
+    * @param run the run
+    * @return the result of the run
+    */
+   public BatchResult runSimulation(BatchRun run) {
+      long start = System.nanoTime();
+      File outputFile = new File(outputDir, run.getName() + ".csv");
+
+      try {
+         AircraftBuilder ab = createAircraftBuilder(run.getAircraftName());
+
+         EnumMap<FlightControlType, Double> controls = run.getInitialControls();
+         EnumMap<InitialConditions, Double> initialConditions = run.getInitialConditions();
+         EnumMap<IntegratorConfig, Double> integratorConfig = run.getIntegratorConfig();
+         if (run.isTrim()) {
+            Trimming.trimSim(ab, initialConditions, controls);
+         }
+
+         // Only the latest row is kept in memory, as all rows are streamed to disk
+         Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, EnumSet.of(Options.ANALYSIS_MODE), initialConditions,
+                 integratorConfig, 1);
+         runSim.setIntegrator(run.getIntegratorType(), run.getTolerance());
+         runSim.getWeather().setSeed(run.getSeed());
+         runSim.getWeather().setTurbulenceIntensity(run.getTurbulenceIntensity());
+
+         if (run.hasDoublets()) {
+            runSim.addSimOutsListener(new DoubletSeries(controls, integratorConfig.get(IntegratorConfig.DT)));
+         }
+
+         long steps;
+         try (CSVSimOutsWriter writer = new CSVSimOutsWriter(outputFile)) {
+            runSim.addSimOutsListener(writer);
+            runSim.run();
+            steps = writer.getRows();
+         }
+
+         return new BatchResult(run, outputFile, steps, runSim.getLogsOut().getLatest(), (System.nanoTime() - start) / 1e9, null);
+      } catch (IOException | RuntimeException e) {
+         System.err.println("Batch run " + run + " failed: " + e);
+         return new BatchResult(run, outputFile, 0, null, (System.nanoTime() - start) / 1e9, e.toString());
+      }
+   }
+
+   /**
+    * Builds an aircraft by its name. As {@link AircraftBuilder} reads the files of the aircraft selected in the {@link Configuration}, the
+    * aircraft directory is switched to the requested aircraft while holding the lock on the configuration, and then restored.
+    *
+    * @param aircraftName the name of the aircraft, or null for the aircraft selected in the configuration
+    * @return the aircraft builder
+    * @throws IllegalArgumentException if the aircraft does not exist
+    */
+   public static AircraftBuilder createAircraftBuilder(String aircraftName) {
+      if (aircraftName == null) {
+         return new AircraftBuilder();
+      }
+
+      Configuration conf = Configuration.getInstance();
+      synchronized (conf) {
+         File previousAircraft = conf.getAircraftConfig();
+         File aircraftDir = conf.getAircraftConfig(aircraftName);
+         if (aircraftDir == null || !aircraftDir.isDirectory()) {
+            throw new IllegalArgumentException("Unknown aircraft: " + aircraftName);
+         }
+
+         conf.setAircraft(aircraftDir);
+         try {
+            return new AircraftBuilder(aircraftName);
+         } finally {
+            if (previousAircraft != null) {
+               conf.setAircraft(previousAircraft);
+            }
+         }
+      }
+   }
+
+   /**
+    * Writes the final simulation outputs of each run to the summary file, one line per run.
+    */
+   private void writeSummary(List<BatchResult> results) throws IOException {
+      SimOuts[] simOuts = SimOuts.values();
+      try (BufferedWriter bw = new BufferedWriter(new FileWriter(new File(outputDir, SUMMARY_FILE)))) {
+         StringBuilder sb = new StringBuilder("run,aircraft,steps,elapsed_time,error,");
+         for (SimOuts simOut : simOuts) {
+            sb.append(simOut.toString()).append(",");
+         }
+         bw.write(sb.append("\n").toString());
+
+         for (BatchResult result : results) {
+            sb.setLength(0);
+            BatchRun run = result.getRun();
+            sb.append(run.getName()).append(",")
+                    .append(run.getAircraftName() == null ? "" : run.getAircraftName()).append(",")
+                    .append(result.getSteps()).append(",")
+                    .append(result.getElapsedTime()).append(",")
+                    .append(result.isSuccessful() ? "" : result.getError().replace(',', ';')).append(",");
+
+            Map<SimOuts, Double> finalSimOut = result.getFinalSimOut();
+            for (SimOuts simOut : simOuts) {
+               sb.append(finalSimOut == null ? "" : finalSimOut.get(simOut)).append(",");
+            }
+            bw.write(sb.append("\n").toString());
+         }
+      }
+   }
+
+   /**
+    * Injects the series of doublets of {@link FlightControlsUtilities#doubletSeries(Map, Map, double)} into the controls of a run,
+    * around the trim values the run started with. The controls are updated after each step is logged for the time of the next step.
+    */
+   private static class DoubletSeries implements SimOutsListener {
+      private final Map<FlightControlType, Double> controls;
+      private final Map<FlightControlType, Double> trimControls;
+      private final double dt;
+
+      private DoubletSeries(Map<FlightControlType, Double> controls, double dt) {
+         this.controls = controls;
+         this.trimControls = new EnumMap<>(controls);
+         this.dt = dt;
+      }
+
+      @Override
+      public void onSimOutsReceived(double[] simOutValues) {
+         FlightControlsUtilities.doubletSeries(controls, trimControls, simOutValues[SimOuts.TIME.ordinal()] + dt);
+      }
+   }
+}
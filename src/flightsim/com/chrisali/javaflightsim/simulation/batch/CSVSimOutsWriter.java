@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.batch;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsListener;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Streams the simulation outputs of each step of integration to a CSV file as they are logged, so that a simulation does not need
+ * to keep its whole run in memory. The file has the same format as the one written by
+ * {@link com.chrisali.javaflightsim.utilities.FileUtilities#saveToCSVFile(File, com.chrisali.javaflightsim.simulation.integration.FlightLog)}.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class CSVSimOutsWriter implements SimOutsListener, Closeable {
+   private final BufferedWriter bw;
+   private final StringBuilder sb = new StringBuilder();
+   private long rows = 0;
+   private IOException error = null;
+
+   /**
+    * Creates the CSV file and writes its first line, which has the names of each parameter.
+    *
+    * @param file the file
+    * @throws IOException if the file could not be created
+    */
+   public CSVSimOutsWriter(File file) throws IOException {
+      bw = new BufferedWriter(new FileWriter(file.getPath()));
+
+      for (SimOuts simOut : SimOuts.values()) {
+         sb.append(simOut.toString()).append(",");
+      }
+      bw.write(sb.append("\n").toString());
+   }
+
+   @Override
+   public void onSimOutsReceived(double[] simOutValues) {
+      if (error != null) {
+         return;
+      }
+
+      sb.setLength(0);
+      for (int i = 0; i < simOutValues.length; i++) {
+         sb.append(simOutValues[i]).append(",");
+      }
+      sb.append("\n");
+
+      try {
+         bw.append(sb);
+         rows++;
+      } catch (IOException e) {
+         // Keep the first error, and stop writing rows; it is rethrown by close()
+         error = e;
+      }
+   }
+
+   /**
+    * @return the number of rows of data written
+    */
+   public long getRows() {
+      return rows;
+   }
+
+   /**
+    * Flushes and closes the file.
+    *
+    * @throws IOException if a row could not be written, or the file could not be closed
+    */
+   @Override
+   public void close() throws IOException {
+      bw.close();
+      if (error != null) {
+         throw error;
+      }
+   }
+}
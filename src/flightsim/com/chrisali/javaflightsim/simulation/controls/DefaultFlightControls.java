@@ -75,7 +75,8 @@ public class DefaultFlightControls extends AbstractController implements FlightD
    }
 
    /**
-    * Receive fed back flight data to be used with P/PD controllers
+    * Receive fed back flight data. Closed loop control laws (P/PD controllers, autopilot) are not run here, but by the
+    * {@link com.chrisali.javaflightsim.simulation.controls.laws.FlightControlSystem} of the simulation, at each step of integration
     */
    @Override
    public void onFlightDataReceived(FlightData flightData) {
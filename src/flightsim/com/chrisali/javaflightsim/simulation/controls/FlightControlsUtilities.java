@@ -26,6 +26,11 @@ import java.util.Map;
  * or limiting flight control deflections
  */
 public class FlightControlsUtilities {
+   /**
+    * Cached copy of {@link FlightControlType#values()}, as values() clones its array on every call
+    */
+   private static final FlightControlType[] CONTROL_TYPES = FlightControlType.values();
+
    /**
     * Main trim values of flight controls to determine default value if doublet input not underway
     */
@@ -60,6 +65,30 @@ public class FlightControlsUtilities {
            double duration,
            double amplitude,
            FlightControlType controlType) {
+      return makeDoublet(controls, trimControls, t, startTime, duration, amplitude, controlType);
+   }
+
+   /**
+    * Generates a control doublet like {@link FlightControlsUtilities#makeDoublet(Map, double, double, double, double, FlightControlType)},
+    * around the trim values of the trimControls argument instead of those read by {@link FlightControlsUtilities#init()}, so that
+    * simulations running concurrently can each use their own trim values
+    *
+    * @param controls
+    * @param trimControls
+    * @param t
+    * @param startTime
+    * @param duration
+    * @param amplitude
+    * @param controlType
+    * @return flightControls EnumMap
+    */
+   public static Map<FlightControlType, Double> makeDoublet(Map<FlightControlType, Double> controls,
+           Map<FlightControlType, Double> trimControls,
+           double t,
+           double startTime,
+           double duration,
+           double amplitude,
+           FlightControlType controlType) {
 
       if (t > startTime && t < (startTime + duration)) {
          controls.put(controlType, trimControls.get(controlType) + amplitude);
@@ -82,8 +111,23 @@ public class FlightControlsUtilities {
     * @return flightControls EnumMap
     */
    public static Map<FlightControlType, Double> doubletSeries(Map<FlightControlType, Double> controls, double t) {
+      return doubletSeries(controls, trimControls, t);
+   }
+
+   /**
+    * Creates a series of doublets like {@link FlightControlsUtilities#doubletSeries(Map, double)}, around the trim values of the
+    * trimControls argument
+    *
+    * @param controls
+    * @param trimControls
+    * @param t
+    * @return flightControls EnumMap
+    */
+   public static Map<FlightControlType, Double> doubletSeries(Map<FlightControlType, Double> controls, Map<FlightControlType, Double> trimControls,
+           double t) {
       // Update controls with an aileron doublet
       controls = makeDoublet(controls,
+              trimControls,
               t,
               10.0,
               0.5,
@@ -91,6 +135,7 @@ public class FlightControlsUtilities {
               FlightControlType.AILERON);
       // Update controls with a rudder doublet
       controls = makeDoublet(controls,
+              trimControls,
               t,
               13.0,
               0.5,
@@ -98,6 +143,7 @@ public class FlightControlsUtilities {
               FlightControlType.RUDDER);
       // Update controls with an elevator doublet
       controls = makeDoublet(controls,
+              trimControls,
               t,
               50.0,
               0.5,
@@ -126,6 +172,22 @@ public class FlightControlsUtilities {
       return map;
    }
 
+   /**
+    * Copies the values of the controls EnumMap into a caller-supplied primitive array indexed by {@link FlightControlType#ordinal()},
+    * so that the simulation can read controls without unboxing on each calculation. Missing controls are set to 0
+    *
+    * @param controls the controls EnumMap
+    * @param controlsArray the array to fill, of length FlightControlType.values().length
+    * @return controlsArray
+    */
+   public static double[] toArray(Map<FlightControlType, Double> controls, double[] controlsArray) {
+      for (int i = 0; i < CONTROL_TYPES.length; i++) {
+         Double value = controls.get(CONTROL_TYPES[i]);
+         controlsArray[i] = (value != null) ? value : 0.0;
+      }
+      return controlsArray;
+   }
+
    /**
     * Standardizes rate of control deflection of keyboard and joystick button inputs regardless of the
     * simulation update rate based on the {@link FlightControlType} argument provided and the
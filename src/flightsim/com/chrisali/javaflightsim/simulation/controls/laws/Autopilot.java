@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.controls.laws;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+
+/**
+ * Declares the control laws of a simple autopilot and stability augmentation system as a {@link ControlLawGraph}:
+ * <ul>
+ * <li>altitude hold: the altitude error commands a vertical speed, whose error is fed to a PID commanding a pitch attitude around the
+ * attitude held at engagement; the pitch attitude error and pitch rate drive the elevator around its value at engagement</li>
+ * <li>heading hold: the heading error commands a bounded bank angle; the bank angle error and roll rate drive the ailerons around
+ * their value at engagement</li>
+ * <li>yaw damper: the washed out yaw rate is added to the pilot rudder</li>
+ * </ul>
+ * Each mode is engaged by setting its parameter to 1, and disengaged by setting it to 0, at which point the pilot controls are passed
+ * through unchanged. The default gains are tuned for light general aviation aircraft such as the Navion.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class Autopilot {
+   /**
+    * Parameter engaging the altitude hold
+    */
+   public static final String ALTITUDE_HOLD = "altitudeHold";
+   /**
+    * Parameter of the altitude held (ft)
+    */
+   public static final String ALTITUDE_REF = "altitudeRef";
+   /**
+    * Parameter engaging the heading hold
+    */
+   public static final String HEADING_HOLD = "headingHold";
+   /**
+    * Parameter of the heading held (rad)
+    */
+   public static final String HEADING_REF = "headingRef";
+   /**
+    * Parameter engaging the yaw damper
+    */
+   public static final String YAW_DAMPER = "yawDamper";
+
+   private Autopilot() {
+   }
+
+   /**
+    * Declares the autopilot laws, with all modes disengaged. Other laws may be added to the graph before it is compiled.
+    *
+    * @return the graph
+    */
+   public static ControlLawGraph createGraph() {
+      ControlLawGraph graph = new ControlLawGraph();
+      addAltitudeHold(graph);
+      addHeadingHold(graph);
+      addYawDamper(graph);
+
+      return graph;
+   }
+
+   /**
+    * Creates the flight control system of the autopilot.
+    *
+    * @return the compiled autopilot laws
+    */
+   public static FlightControlSystem create() {
+      return createGraph().compile();
+   }
+
+   private static void addAltitudeHold(ControlLawGraph graph) {
+      graph.parameter(ALTITUDE_HOLD, 0);
+      graph.parameter(ALTITUDE_REF, 0);
+      graph.signal("alt", FlightSignal.ALT);
+      graph.signal("verticalSpeed", FlightSignal.VERTICAL_SPEED);
+      graph.signal("theta", FlightSignal.THETA);
+      graph.signal("q", FlightSignal.Q);
+      graph.control("pilotElevator", FlightControlType.ELEVATOR);
+
+      // Outer loops: altitude error -> vertical speed -> pitch attitude
+      graph.difference("altitudeError", ALTITUDE_REF, "alt");
+      graph.gain("verticalSpeedGain", "altitudeError", 0.1);
+      graph.limit("verticalSpeedCmd", "verticalSpeedGain", -10, 10);
+      graph.difference("verticalSpeedError", "verticalSpeedCmd", "verticalSpeed");
+      graph.pid("pitchCorrection", "verticalSpeedError", ALTITUDE_HOLD, 0.004, 0.001, 0, Math.toRadians(-8), Math.toRadians(8));
+      graph.hold("thetaTrim", "theta", ALTITUDE_HOLD);
+      graph.sum("thetaCmd", "thetaTrim", "pitchCorrection");
+
+      // Inner loop: pitch attitude and pitch rate -> elevator, positive elevator pitching down
+      graph.difference("thetaError", "thetaCmd", "theta");
+      graph.gain("thetaElevator", "thetaError", -1.5);
+      graph.gain("qElevator", "q", 0.5);
+      graph.sum("elevatorCorrection", "thetaElevator", "qElevator");
+      graph.hold("elevatorTrim", "pilotElevator", ALTITUDE_HOLD);
+      graph.sum("autopilotElevator", "elevatorTrim", "elevatorCorrection");
+      graph.select("elevator", ALTITUDE_HOLD, "autopilotElevator", "pilotElevator");
+      graph.output("elevatorOut", "elevator", FlightControlType.ELEVATOR);
+   }
+
+   private static void addHeadingHold(ControlLawGraph graph) {
+      graph.parameter(HEADING_HOLD, 0);
+      graph.parameter(HEADING_REF, 0);
+      graph.signal("psi", FlightSignal.PSI);
+      graph.signal("phi", FlightSignal.PHI);
+      graph.signal("p", FlightSignal.P);
+      graph.control("pilotAileron", FlightControlType.AILERON);
+
+      // Outer loop: heading error -> bank angle
+      graph.angleDifference("headingError", HEADING_REF, "psi");
+      graph.gain("phiGain", "headingError", 1.0);
+      graph.limit("phiCmd", "phiGain", Math.toRadians(-25), Math.toRadians(25));
+
+      // Inner loop: bank angle and roll rate -> ailerons, positive aileron rolling left
+      graph.angleDifference("phiError", "phiCmd", "phi");
+      graph.gain("phiAileron", "phiError", -0.6);
+      graph.gain("pAileron", "p", 0.15);
+      graph.sum("aileronCorrection", "phiAileron", "pAileron");
+      graph.hold("aileronTrim", "pilotAileron", HEADING_HOLD);
+      graph.sum("autopilotAileron", "aileronTrim", "aileronCorrection");
+      graph.select("aileron", HEADING_HOLD, "autopilotAileron", "pilotAileron");
+      graph.output("aileronOut", "aileron", FlightControlType.AILERON);
+   }
+
+   private static void addYawDamper(ControlLawGraph graph) {
+      graph.parameter(YAW_DAMPER, 0);
+      graph.signal("r", FlightSignal.R);
+      graph.control("pilotRudder", FlightControlType.RUDDER);
+
+      // Washed out yaw rate, so that the damper does not oppose steady turns; positive rudder yawing left
+      graph.washout("rWashout", "r", 2.0);
+      graph.gain("rRudder", "rWashout", 0.8);
+      graph.product("yawDamperRudder", YAW_DAMPER, "rRudder");
+      graph.sum("rudder", "pilotRudder", "yawDamperRudder");
+      graph.output("rudderOut", "rudder", FlightControlType.RUDDER);
+   }
+}
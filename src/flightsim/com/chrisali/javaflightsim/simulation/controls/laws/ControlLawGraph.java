@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.controls.laws;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declaration of flight control laws as a graph of named nodes, each applying a {@link ControlLawOperation} to the outputs of other nodes.
+ * Nodes may be declared in any order and refer to nodes declared later; the graph is checked and sorted once by
+ * {@link ControlLawGraph#compile()} into a {@link FlightControlSystem} executed at each step of the simulation. A graph may not contain
+ * a loop, as feedback is closed through the aircraft.
+ *
+ * <p>
+ * For example, a wings leveler would be declared as:</p>
+ * <pre>
+ * ControlLawGraph graph = new ControlLawGraph();
+ * graph.signal("phi", FlightSignal.PHI);
+ * graph.signal("p", FlightSignal.P);
+ * graph.gain("phiCmd", "phi", -0.5);
+ * graph.gain("pCmd", "p", -0.1);
+ * graph.sum("aileron", "phiCmd", "pCmd");
+ * graph.output("aileronOut", "aileron", FlightControlType.AILERON);
+ * </pre>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class ControlLawGraph {
+   private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+   /**
+    * Declares a node. Prefer the methods named after each operation.
+    *
+    * @param name the unique name of the node
+    * @param operation the operation of the node
+    * @param inputs the names of the input nodes
+    * @param parameters the parameters of the operation
+    * @return this graph
+    */
+   public ControlLawGraph add(String name, ControlLawOperation operation, String[] inputs, double... parameters) {
+      if (name == null || nodes.containsKey(name)) {
+         throw new IllegalArgumentException("Invalid or duplicate control law node name: " + name);
+      }
+      if (inputs.length < operation.getMinInputs() || inputs.length > operation.getMaxInputs()) {
+         throw new IllegalArgumentException("Control law node " + name + " (" + operation + ") has " + inputs.length + " inputs");
+      }
+      if (parameters.length != operation.getParameterCount()) {
+         throw new IllegalArgumentException("Control law node " + name + " (" + operation + ") has " + parameters.length + " parameters");
+      }
+      nodes.put(name, new Node(name, operation, inputs.clone(), parameters.clone()));
+
+      return this;
+   }
+
+   private static String[] in(String... inputs) {
+      return inputs;
+   }
+
+   /**
+    * @param name the node name
+    * @param signal the sensed signal
+    * @return this graph
+    */
+   public ControlLawGraph signal(String name, FlightSignal signal) {
+      return add(name, ControlLawOperation.SIGNAL, in(), signal.ordinal());
+   }
+
+   /**
+    * @param name the node name
+    * @param control the pilot control
+    * @return this graph
+    */
+   public ControlLawGraph control(String name, FlightControlType control) {
+      return add(name, ControlLawOperation.CONTROL, in(), control.ordinal());
+   }
+
+   /**
+    * @param name the node name
+    * @param value the constant value
+    * @return this graph
+    */
+   public ControlLawGraph constant(String name, double value) {
+      return add(name, ControlLawOperation.CONSTANT, in(), value);
+   }
+
+   /**
+    * @param name the node name, used to change the parameter with {@link FlightControlSystem#setParameter(String, double)}
+    * @param value the initial value
+    * @return this graph
+    */
+   public ControlLawGraph parameter(String name, double value) {
+      return add(name, ControlLawOperation.PARAMETER, in(), value);
+   }
+
+   /**
+    * @param name the node name
+    * @param a the first input
+    * @param b the second input
+    * @return this graph
+    */
+   public ControlLawGraph sum(String name, String a, String b) {
+      return add(name, ControlLawOperation.SUM, in(a, b));
+   }
+
+   /**
+    * @param name the node name
+    * @param a the first input
+    * @param b the input subtracted from the first input
+    * @return this graph
+    */
+   public ControlLawGraph difference(String name, String a, String b) {
+      return add(name, ControlLawOperation.DIFFERENCE, in(a, b));
+   }
+
+   /**
+    * @param name the node name
+    * @param a the first input
+    * @param b the second input
+    * @return this graph
+    */
+   public ControlLawGraph product(String name, String a, String b) {
+      return add(name, ControlLawOperation.PRODUCT, in(a, b));
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param gain the gain
+    * @return this graph
+    */
+   public ControlLawGraph gain(String name, String input, double gain) {
+      return add(name, ControlLawOperation.GAIN, in(input), gain);
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param min the minimum
+    * @param max the maximum
+    * @return this graph
+    */
+   public ControlLawGraph limit(String name, String input, double min, double max) {
+      return add(name, ControlLawOperation.LIMIT, in(input), min, max);
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param rate the maximum rate of change (units/s)
+    * @return this graph
+    */
+   public ControlLawGraph rateLimit(String name, String input, double rate) {
+      return add(name, ControlLawOperation.RATE_LIMIT, in(input), rate);
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param tau the time constant (s)
+    * @return this graph
+    */
+   public ControlLawGraph lag(String name, String input, double tau) {
+      return add(name, ControlLawOperation.LAG, in(input), tau);
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param tau the time constant (s)
+    * @return this graph
+    */
+   public ControlLawGraph washout(String name, String input, double tau) {
+      return add(name, ControlLawOperation.WASHOUT, in(input), tau);
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param enable the node enabling the integrator, or null if it is always enabled
+    * @param gain the gain
+    * @param min the minimum
+    * @param max the maximum
+    * @return this graph
+    */
+   public ControlLawGraph integrator(String name, String input, String enable, double gain, double min, double max) {
+      return add(name, ControlLawOperation.INTEGRATOR, enable == null ? in(input) : in(input, enable), gain, min, max);
+   }
+
+   /**
+    * @param name the node name
+    * @param error the error input
+    * @param enable the node enabling the controller, or null if it is always enabled
+    * @param kp the proportional gain
+    * @param ki the integral gain
+    * @param kd the derivative gain
+    * @param min the minimum output
+    * @param max the maximum output
+    * @return this graph
+    */
+   public ControlLawGraph pid(String name, String error, String enable, double kp, double ki, double kd, double min, double max) {
+      return add(name, ControlLawOperation.PID, enable == null ? in(error) : in(error, enable), kp, ki, kd, min, max);
+   }
+
+   /**
+    * @param name the node name
+    * @param condition the condition input
+    * @param onTrue the input selected if the condition is at least 0.5
+    * @param onFalse the input selected otherwise
+    * @return this graph
+    */
+   public ControlLawGraph select(String name, String condition, String onTrue, String onFalse) {
+      return add(name, ControlLawOperation.SWITCH, in(condition, onTrue, onFalse));
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param hold the input holding the value when at least 0.5
+    * @return this graph
+    */
+   public ControlLawGraph hold(String name, String input, String hold) {
+      return add(name, ControlLawOperation.HOLD, in(input, hold));
+   }
+
+   /**
+    * @param name the node name
+    * @param a the first angle
+    * @param b the angle subtracted from the first angle
+    * @return this graph
+    */
+   public ControlLawGraph angleDifference(String name, String a, String b) {
+      return add(name, ControlLawOperation.ANGLE_DIFFERENCE, in(a, b));
+   }
+
+   /**
+    * @param name the node name
+    * @param input the input
+    * @param control the flight control overwritten by the input
+    * @return this graph
+    */
+   public ControlLawGraph output(String name, String input, FlightControlType control) {
+      return add(name, ControlLawOperation.OUTPUT, in(input), control.ordinal());
+   }
+
+   /**
+    * @return the number of nodes declared
+    */
+   public int size() {
+      return nodes.size();
+   }
+
+   /**
+    * Compiles the graph into a {@link FlightControlSystem}: nodes are sorted so that each node is executed after its inputs, keeping the
+    * declaration order between independent nodes.
+    *
+    * @return the flight control system
+    * @throws IllegalArgumentException if a node refers to an unknown node, or if the graph contains a loop
+    */
+   public FlightControlSystem compile() {
+      Map<String, Integer> declared = new LinkedHashMap<>();
+      List<Node> list = new ArrayList<>(nodes.values());
+      for (int i = 0; i < list.size(); i++) {
+         declared.put(list.get(i).name, i);
+      }
+
+      // Count the inputs of each node, and list the nodes fed by each node
+      int[] pending = new int[list.size()];
+      List<List<Integer>> fed = new ArrayList<>();
+      for (int i = 0; i < list.size(); i++) {
+         fed.add(new ArrayList<Integer>());
+      }
+      for (int i = 0; i < list.size(); i++) {
+         Node node = list.get(i);
+         for (String input : node.inputs) {
+            Integer source = declared.get(input);
+            if (source == null) {
+               throw new IllegalArgumentException("Control law node " + node.name + " refers to an unknown node: " + input);
+            }
+            fed.get(source).add(i);
+            pending[i]++;
+         }
+      }
+
+      // Kahn's algorithm, taking the ready nodes in declaration order
+      List<Node> sorted = new ArrayList<>(list.size());
+      Deque<Integer> ready = new ArrayDeque<>();
+      for (int i = 0; i < list.size(); i++) {
+         if (pending[i] == 0) {
+            ready.add(i);
+         }
+      }
+      while (!ready.isEmpty()) {
+         int index = ready.poll();
+         sorted.add(list.get(index));
+         for (int target : fed.get(index)) {
+            if (--pending[target] == 0) {
+               ready.add(target);
+            }
+         }
+      }
+      if (sorted.size() != list.size()) {
+         StringBuilder loop = new StringBuilder();
+         for (int i = 0; i < list.size(); i++) {
+            if (pending[i] > 0) {
+               loop.append(loop.length() == 0 ? "" : ", ").append(list.get(i).name);
+            }
+         }
+         throw new IllegalArgumentException("Control law graph contains a loop through: " + loop);
+      }
+
+      return new FlightControlSystem(sorted);
+   }
+
+   /**
+    * Declared node of a graph.
+    */
+   static final class Node {
+      final String name;
+      final ControlLawOperation operation;
+      final String[] inputs;
+      final double[] parameters;
+
+      private Node(String name, ControlLawOperation operation, String[] inputs, double[] parameters) {
+         this.name = name;
+         this.operation = operation;
+         this.inputs = inputs;
+         this.parameters = parameters;
+      }
+   }
+}
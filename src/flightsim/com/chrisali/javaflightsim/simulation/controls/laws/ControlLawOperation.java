@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.controls.laws;
+
+/**
+ * Primitive operations of the nodes of a {@link ControlLawGraph}. Each operation has a fixed number of inputs, some of which may be
+ * optional, and of parameters; stateful operations are advanced by the time step of the simulation.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum ControlLawOperation {
+   /**
+    * Value of a {@link FlightSignal}
+    */
+   SIGNAL(0, 0, 1),
+   /**
+    * Value of a pilot control, before the outputs of the flight control system are applied
+    */
+   CONTROL(0, 0, 1),
+   /**
+    * Constant value
+    */
+   CONSTANT(0, 0, 1),
+   /**
+    * Value which can be changed while the simulation runs, such as an autopilot reference or engagement
+    */
+   PARAMETER(0, 0, 1),
+   /**
+    * Sum of two inputs
+    */
+   SUM(2, 2, 0),
+   /**
+    * Difference of two inputs
+    */
+   DIFFERENCE(2, 2, 0),
+   /**
+    * Product of two inputs
+    */
+   PRODUCT(2, 2, 0),
+   /**
+    * Input multiplied by a gain
+    */
+   GAIN(1, 1, 1),
+   /**
+    * Input bounded between a minimum and a maximum
+    */
+   LIMIT(1, 1, 2),
+   /**
+    * Input whose rate of change is bounded (units/s)
+    */
+   RATE_LIMIT(1, 1, 1),
+   /**
+    * First order lag of time constant tau (s)
+    */
+   LAG(1, 1, 1),
+   /**
+    * First order washout (high pass) filter of time constant tau (s)
+    */
+   WASHOUT(1, 1, 1),
+   /**
+    * Integral of the input multiplied by a gain, bounded between a minimum and a maximum. The optional second input enables the integrator;
+    * the integral is reset while it is below 0.5
+    */
+   INTEGRATOR(1, 2, 3),
+   /**
+    * Proportional, integral and derivative controller acting on an error, with its output bounded between a minimum and a maximum. The
+    * optional second input enables the controller; the integral is reset while it is below 0.5
+    */
+   PID(1, 2, 5),
+   /**
+    * Second input if the first input is at least 0.5, third input otherwise
+    */
+   SWITCH(3, 3, 0),
+   /**
+    * First input while the second input is below 0.5; the value held when the second input reached 0.5 otherwise
+    */
+   HOLD(2, 2, 0),
+   /**
+    * Difference of two angles, wrapped between -PI and PI (rad)
+    */
+   ANGLE_DIFFERENCE(2, 2, 0),
+   /**
+    * Input written to a flight control
+    */
+   OUTPUT(1, 1, 1);
+
+   private final int minInputs;
+   private final int maxInputs;
+   private final int parameterCount;
+
+   private ControlLawOperation(int minInputs, int maxInputs, int parameterCount) {
+      this.minInputs = minInputs;
+      this.maxInputs = maxInputs;
+      this.parameterCount = parameterCount;
+   }
+
+   /**
+    * @return the number of inputs required by the operation
+    */
+   public int getMinInputs() {
+      return minInputs;
+   }
+
+   /**
+    * @return the number of inputs accepted by the operation
+    */
+   public int getMaxInputs() {
+      return maxInputs;
+   }
+
+   /**
+    * @return the number of parameters of the operation
+    */
+   public int getParameterCount() {
+      return parameterCount;
+   }
+}
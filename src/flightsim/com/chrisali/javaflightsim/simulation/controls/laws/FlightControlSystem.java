@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.controls.laws;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flight control laws compiled from a {@link ControlLawGraph} into flat arrays of operations, input indices, parameters and states, in
+ * the order of execution of the nodes. It is executed by the integration at the end of each step, with the {@link FlightSignal}s
+ * of the new states and the pilot controls; its outputs overwrite the pilot controls over the stages of the next step. Executing and
+ * applying the laws does not allocate any memory.
+ *
+ * <p>
+ * Parameters may be changed while the simulation runs, for example by a {@link com.chrisali.javaflightsim.simulation.integration.FrameListener}
+ * to engage an autopilot mode or change its reference; they are read once per step.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class FlightControlSystem {
+   private static final FlightControlType[] CONTROL_TYPES = FlightControlType.values();
+   private static final int MAX_INPUTS = 3;
+   private static final int MAX_PARAMETERS = 5;
+   private static final int MAX_STATES = 2;
+
+   private final String[] names;
+   private final ControlLawOperation[] operations;
+   private final int[] inputs;
+   private final double[] parameters;
+   private final double[] states;
+   private final double[] values;
+   private final int[] outputNodes;
+   private final int[] outputControls;
+   private final Map<String, Integer> indices = new HashMap<>();
+   private boolean initialized = false;
+
+   FlightControlSystem(List<ControlLawGraph.Node> sorted) {
+      int count = sorted.size();
+      names = new String[count];
+      operations = new ControlLawOperation[count];
+      inputs = new int[count * MAX_INPUTS];
+      parameters = new double[count * MAX_PARAMETERS];
+      states = new double[count * MAX_STATES];
+      values = new double[count];
+
+      int outputCount = 0;
+      for (int i = 0; i < count; i++) {
+         ControlLawGraph.Node node = sorted.get(i);
+         names[i] = node.name;
+         operations[i] = node.operation;
+         indices.put(node.name, i);
+         System.arraycopy(node.parameters, 0, parameters, i * MAX_PARAMETERS, node.parameters.length);
+         if (node.operation == ControlLawOperation.OUTPUT) {
+            outputCount++;
+         }
+      }
+
+      outputNodes = new int[outputCount];
+      outputControls = new int[outputCount];
+      for (int i = 0, j = 0; i < count; i++) {
+         ControlLawGraph.Node node = sorted.get(i);
+         for (int k = 0; k < MAX_INPUTS; k++) {
+            inputs[i * MAX_INPUTS + k] = (k < node.inputs.length) ? indices.get(node.inputs[k]) : -1;
+         }
+         if (node.operation == ControlLawOperation.OUTPUT) {
+            outputNodes[j] = i;
+            outputControls[j++] = (int) node.parameters[0];
+         }
+      }
+   }
+
+   /**
+    * Resets the states of the laws; they are initialized from the inputs at the next execution, without being advanced.
+    */
+   public void reset() {
+      initialized = false;
+   }
+
+   /**
+    * Executes the nodes in order, advancing their states by dt seconds.
+    *
+    * @param signals the signals, indexed by {@link FlightSignal#ordinal()}
+    * @param controls the pilot controls, indexed by {@link FlightControlType#ordinal()}
+    * @param dt the time step (s)
+    */
+   public void execute(double[] signals, double[] controls, double dt) {
+      boolean advance = initialized;
+      for (int i = 0; i < operations.length; i++) {
+         int in = i * MAX_INPUTS;
+         int par = i * MAX_PARAMETERS;
+         int st = i * MAX_STATES;
+         double a = (inputs[in] < 0) ? 0 : values[inputs[in]];
+         // A missing optional input enables the node
+         double b = (inputs[in + 1] < 0) ? 1 : values[inputs[in + 1]];
+         double value;
+
+         switch (operations[i]) {
+            case SIGNAL:
+               value = signals[(int) parameters[par]];
+               break;
+            case CONTROL:
+               value = controls[(int) parameters[par]];
+               break;
+            case CONSTANT:
+            case PARAMETER:
+               value = parameters[par];
+               break;
+            case SUM:
+               value = a + b;
+               break;
+            case DIFFERENCE:
+               value = a - b;
+               break;
+            case PRODUCT:
+               value = a * b;
+               break;
+            case GAIN:
+               value = parameters[par] * a;
+               break;
+            case LIMIT:
+               value = Math.max(parameters[par], Math.min(parameters[par + 1], a));
+               break;
+            case RATE_LIMIT: {
+               double maxChange = parameters[par] * dt;
+               value = advance ? states[st] + Math.max(-maxChange, Math.min(maxChange, a - states[st])) : a;
+               states[st] = value;
+               break;
+            }
+            case LAG:
+               // Backward Euler, stable for any time step
+               states[st] = advance ? states[st] + dt / (parameters[par] + dt) * (a - states[st]) : a;
+               value = states[st];
+               break;
+            case WASHOUT:
+               states[st] = advance ? states[st] + dt / (parameters[par] + dt) * (a - states[st]) : a;
+               value = a - states[st];
+               break;
+            case INTEGRATOR:
+               if (advance && b >= 0.5) {
+                  states[st] = Math.max(parameters[par + 1], Math.min(parameters[par + 2], states[st] + parameters[par] * a * dt));
+               } else if (b < 0.5) {
+                  states[st] = 0;
+               }
+               value = states[st];
+               break;
+            case PID:
+               value = pid(a, b >= 0.5, advance, dt, par, st);
+               break;
+            case SWITCH:
+               value = (a >= 0.5) ? b : values[inputs[in + 2]];
+               break;
+            case HOLD:
+               if (b < 0.5 || !advance || states[st + 1] < 0.5) {
+                  states[st] = a;
+               }
+               states[st + 1] = b;
+               value = (b >= 0.5) ? states[st] : a;
+               break;
+            case ANGLE_DIFFERENCE:
+               value = Math.IEEEremainder(a - b, 2 * Math.PI);
+               break;
+            case OUTPUT:
+            default:
+               value = a;
+               break;
+         }
+         values[i] = value;
+      }
+      initialized = true;
+   }
+
+   /**
+    * PID controller with conditional integration: the integral is not increased while the output is saturated in the same direction.
+    */
+   private double pid(double error, boolean enabled, boolean advance, double dt, int par, int st) {
+      double kp = parameters[par];
+      double ki = parameters[par + 1];
+      double kd = parameters[par + 2];
+      double min = parameters[par + 3];
+      double max = parameters[par + 4];
+
+      if (!enabled) {
+         states[st] = 0;
+         states[st + 1] = error;
+         return 0;
+      }
+
+      double derivative = (advance && dt > 0) ? (error - states[st + 1]) / dt : 0;
+      states[st + 1] = error;
+      double output = kp * error + ki * states[st] + kd * derivative;
+      if (advance && !((output >= max && error > 0) || (output <= min && error < 0))) {
+         states[st] += error * dt;
+         output += ki * error * dt;
+      }
+
+      return Math.max(min, Math.min(max, output));
+   }
+
+   /**
+    * Overwrites the flight controls driven by the laws with the values of their last execution, bounded by the limits of each
+    * {@link FlightControlType}. Nothing is written before the laws are executed.
+    *
+    * @param controls the flight controls, indexed by {@link FlightControlType#ordinal()}
+    */
+   public void apply(double[] controls) {
+      if (!initialized) {
+         return;
+      }
+      for (int i = 0; i < outputNodes.length; i++) {
+         FlightControlType control = CONTROL_TYPES[outputControls[i]];
+         controls[outputControls[i]] = Math.max(control.getMinimum(), Math.min(control.getMaximum(), values[outputNodes[i]]));
+      }
+   }
+
+   private int indexOf(String name, ControlLawOperation operation) {
+      Integer index = indices.get(name);
+      if (index == null || (operation != null && operations[index] != operation)) {
+         throw new IllegalArgumentException("No control law " + (operation == null ? "node" : operation.toString().toLowerCase()) + " named " + name);
+      }
+      return index;
+   }
+
+   /**
+    * Changes the value of a parameter node.
+    *
+    * @param name the parameter name
+    * @param value the new value
+    */
+   public void setParameter(String name, double value) {
+      parameters[indexOf(name, ControlLawOperation.PARAMETER) * MAX_PARAMETERS] = value;
+   }
+
+   /**
+    * @param name the parameter name
+    * @return the value of the parameter node
+    */
+   public double getParameter(String name) {
+      return parameters[indexOf(name, ControlLawOperation.PARAMETER) * MAX_PARAMETERS];
+   }
+
+   /**
+    * @param name the node name
+    * @return the value of the node at the last execution
+    */
+   public double getValue(String name) {
+      return values[indexOf(name, null)];
+   }
+
+   /**
+    * @return the names of the nodes, in their order of execution
+    */
+   public String[] getExecutionOrder() {
+      return names.clone();
+   }
+
+   /**
+    * @return the number of flight controls written by the laws
+    */
+   public int getOutputCount() {
+      return outputNodes.length;
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.controls.laws;
+
+/**
+ * Signals of the simulation sensed by a {@link FlightControlSystem}, updated by the integration at the end of each step. The first twelve
+ * signals have the ordinals of the corresponding 6DOF states.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum FlightSignal {
+   /**
+    * Body x velocity (ft/s)
+    */
+   U,
+   /**
+    * Body y velocity (ft/s)
+    */
+   V,
+   /**
+    * Body z velocity (ft/s)
+    */
+   W,
+   /**
+    * North position (ft)
+    */
+   NORTH,
+   /**
+    * East position (ft)
+    */
+   EAST,
+   /**
+    * Altitude (ft)
+    */
+   ALT,
+   /**
+    * Bank angle (rad)
+    */
+   PHI,
+   /**
+    * Pitch angle (rad)
+    */
+   THETA,
+   /**
+    * Heading (rad)
+    */
+   PSI,
+   /**
+    * Roll rate (rad/s)
+    */
+   P,
+   /**
+    * Pitch rate (rad/s)
+    */
+   Q,
+   /**
+    * Yaw rate (rad/s)
+    */
+   R,
+   /**
+    * True airspeed (ft/s)
+    */
+   TAS,
+   /**
+    * Angle of sideslip (rad)
+    */
+   BETA,
+   /**
+    * Angle of attack (rad)
+    */
+   ALPHA,
+   /**
+    * Vertical speed, positive up (ft/s)
+    */
+   VERTICAL_SPEED;
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+/**
+ * Calculates the temperature (R), pressure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec) and gravity (ft/sec^2) as a function
+ * of height, using the 1976 NASA Standard Atmosphere model. The model is precomputed once in a table shared by all instances, with
+ * a value every {@link Atmosphere#TABLE_STEP} ft between {@link Atmosphere#TABLE_MIN_ALTITUDE} and {@link Atmosphere#TABLE_MAX_ALTITUDE},
+ * and linearly interpolated at each step of integration; outside of the table, the model is calculated directly. Away from the tropopause,
+ * where the model itself is slightly discontinuous, the interpolated values are within a relative error of 5e-9 of the model.
+ *
+ * <p>
+ * Each instance has its own deviation from the standard temperature, applied to the interpolated values without recalculating the
+ * table: the temperature and speed of sound are those of the deviated temperature, and the density is that of the standard pressure at
+ * the deviated temperature. Instances are not shared between simulations, so that several simulations can run in the same JVM.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class Atmosphere {
+   /**
+    * Lowest altitude of the table (ft)
+    */
+   public static final double TABLE_MIN_ALTITUDE = -2000;
+   /**
+    * Highest altitude of the table (ft)
+    */
+   public static final double TABLE_MAX_ALTITUDE = 100000;
+   /**
+    * Altitude step of the table (ft)
+    */
+   public static final double TABLE_STEP = 4;
+
+   private static final double RADIUS_EARTH = 3959 * 5280;
+
+   private static final double R = 1716.49;
+   private static final double GAMMA = 1.4;
+   private static final double RHO_SSL = 0.002377;
+   private static final double P_SSL = 2116.22;
+   private static final double T_SSL = 518.67;
+   private static final double GRAVITY = 32.17;
+
+   private static final double HT_TROP = 36089;
+   private static final double T_TROP = 389.97;
+   private static final double P_TROP = 472.6758;
+   private static final double RHO_TROP = 0.000706115;
+
+   private static final double ENV_CONST_TROP = 0.0000068755;
+   private static final double ENV_CONST_STRAT = -0.0000480637;
+
+   // Values of the table, interleaved by altitude so that an interpolation reads consecutive values
+   private static final EnvironmentParameters[] TABLE_PARAMETERS = { EnvironmentParameters.T, EnvironmentParameters.P,
+      EnvironmentParameters.RHO, EnvironmentParameters.GRAVITY };
+   private static final int T_INDEX = 0;
+   private static final int P_INDEX = 1;
+   private static final int RHO_INDEX = 2;
+   private static final int GRAVITY_INDEX = 3;
+   private static final int VALUES = TABLE_PARAMETERS.length;
+   private static final double INVERSE_TABLE_STEP = 1 / TABLE_STEP;
+   private static final int TABLE_SIZE = (int) Math.round((TABLE_MAX_ALTITUDE - TABLE_MIN_ALTITUDE) / TABLE_STEP) + 1;
+   private static final double[] TABLE = new double[TABLE_SIZE * VALUES];
+
+   static {
+      double[] values = new double[EnvironmentParameters.values().length];
+      for (int i = 0; i < TABLE_SIZE; i++) {
+         calculateStandard(TABLE_MIN_ALTITUDE + i * TABLE_STEP, values);
+         for (int j = 0; j < VALUES; j++) {
+            TABLE[i * VALUES + j] = values[TABLE_PARAMETERS[j].ordinal()];
+         }
+      }
+   }
+
+   private double deltaIsa = 0.0;
+
+   /**
+    * Creates an atmosphere at the standard temperature.
+    */
+   public Atmosphere() {
+   }
+
+   /**
+    * Calculates the standard temperature, pressure, density and gravity at an altitude, and writes them into an array indexed by
+    * {@link EnvironmentParameters#ordinal()}.
+    */
+   private static void calculateStandard(double altitude, double[] values) {
+      // Troposphere
+      if (altitude < HT_TROP) {
+         values[EnvironmentParameters.T.ordinal()] = T_SSL - (0.003566 * altitude);                                    // (deg R)
+         values[EnvironmentParameters.P.ordinal()] = P_SSL * Math.pow((1 - (ENV_CONST_TROP * altitude)), 5.2559);      // (lbf/ft^2)
+         values[EnvironmentParameters.RHO.ordinal()] = RHO_SSL * Math.pow((1 - (ENV_CONST_TROP * altitude)), 4.2559);  // (slug/ft^3)
+      } // Stratosphere
+      else {
+         values[EnvironmentParameters.T.ordinal()] = T_TROP;                                                          // (degR)
+         values[EnvironmentParameters.P.ordinal()] = P_TROP * Math.exp(ENV_CONST_STRAT * (altitude - HT_TROP));       // (lbf/ft^2)
+         values[EnvironmentParameters.RHO.ordinal()] = RHO_TROP * Math.exp(ENV_CONST_STRAT * (altitude - HT_TROP));   // (slug/ft^3)
+      }
+
+      values[EnvironmentParameters.GRAVITY.ordinal()] = GRAVITY * (RADIUS_EARTH / (RADIUS_EARTH + altitude));
+   }
+
+   /**
+    * Interpolates the temperature (R), pressure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec) and gravity (ft/sec^2) at an
+    * altitude in the precomputed table, and writes them into a caller-supplied array indexed by {@link EnvironmentParameters#ordinal()}.
+    * The other values of the array are not modified. This method does not allocate memory, and is used on each step of integration.
+    *
+    * @param altitude the altitude (ft)
+    * @param environmentParams the array to fill, of length EnvironmentParameters.values().length
+    * @return environmentParams
+    */
+   public double[] update(double altitude, double[] environmentParams) {
+      double position = (altitude - TABLE_MIN_ALTITUDE) * INVERSE_TABLE_STEP;
+      if (!(position >= 0 && position < TABLE_SIZE - 1)) {
+         return calculate(altitude, environmentParams);
+      }
+
+      int index = (int) position;
+      double fraction = position - index;
+      int i = index * VALUES;
+
+      double temperature = TABLE[i + T_INDEX] + fraction * (TABLE[i + VALUES + T_INDEX] - TABLE[i + T_INDEX]);
+      double pressure = TABLE[i + P_INDEX] + fraction * (TABLE[i + VALUES + P_INDEX] - TABLE[i + P_INDEX]);
+      double density = TABLE[i + RHO_INDEX] + fraction * (TABLE[i + VALUES + RHO_INDEX] - TABLE[i + RHO_INDEX]);
+      double gravity = TABLE[i + GRAVITY_INDEX] + fraction * (TABLE[i + VALUES + GRAVITY_INDEX] - TABLE[i + GRAVITY_INDEX]);
+
+      return apply(temperature, pressure, density, gravity, environmentParams);
+   }
+
+   /**
+    * Calculates the temperature (R), pressure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec) and gravity (ft/sec^2) at an
+    * altitude directly from the model, without the precomputed table, and writes them into a caller-supplied array indexed by
+    * {@link EnvironmentParameters#ordinal()}. The other values of the array are not modified.
+    *
+    * @param altitude the altitude (ft)
+    * @param environmentParams the array to fill, of length EnvironmentParameters.values().length
+    * @return environmentParams
+    */
+   public double[] calculate(double altitude, double[] environmentParams) {
+      calculateStandard(altitude, environmentParams);
+
+      return apply(environmentParams[EnvironmentParameters.T.ordinal()], environmentParams[EnvironmentParameters.P.ordinal()],
+              environmentParams[EnvironmentParameters.RHO.ordinal()], environmentParams[EnvironmentParameters.GRAVITY.ordinal()],
+              environmentParams);
+   }
+
+   /**
+    * Applies the deviation from the standard temperature to standard values, and writes them into environmentParams.
+    */
+   private double[] apply(double temperature, double pressure, double density, double gravity, double[] environmentParams) {
+      if (deltaIsa != 0) {
+         density *= temperature / (temperature + deltaIsa);
+         temperature += deltaIsa;
+      }
+
+      environmentParams[EnvironmentParameters.T.ordinal()] = temperature;
+      environmentParams[EnvironmentParameters.P.ordinal()] = pressure;
+      environmentParams[EnvironmentParameters.RHO.ordinal()] = density;
+      environmentParams[EnvironmentParameters.A.ordinal()] = Math.sqrt(GAMMA * R * temperature);
+      environmentParams[EnvironmentParameters.GRAVITY.ordinal()] = gravity;
+
+      return environmentParams;
+   }
+
+   /**
+    * Sets the difference in temperature from ISA (59 F, 15 C at Standard Sea Level)
+    *
+    * @param deltaIsa the difference in temperature (deg R)
+    */
+   public void setDeltaIsa(double deltaIsa) {
+      this.deltaIsa = deltaIsa;
+   }
+
+   /**
+    * @return the difference in temperature from ISA (deg R)
+    */
+   public double getDeltaIsa() {
+      return deltaIsa;
+   }
+}
@@ -15,81 +15,63 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
  */
 package com.chrisali.javaflightsim.simulation.enviroment;
 
-import com.chrisali.javaflightsim.simulation.integration.SaturationLimits;
-import com.chrisali.javaflightsim.utilities.FileUtilities;
 import java.util.EnumMap;
 import java.util.Map;
 
 /**
  * This class calculates atmospheric parameters as a function of height, and the gravitational acceleration constant.
- * It uses the 1976 NASA Standard Atmosphere model, and assumes that gravity is constant in the Z direction.
+ * It uses the 1976 NASA Standard Atmosphere model, precomputed by {@link Atmosphere}, and assumes that gravity is constant in the Z direction.
+ * The static methods of this class use a default {@link Atmosphere} and {@link Weather}; a simulation should use its own instances.
  */
 public class Environment {
-   private static final double RADIUS_EARTH = 3959 * 5280;
-
-   private static final double R = 1716.49;
-   private static final double GAMMA = 1.4;
-   private static final double RHO_SSL = 0.002377;
-   private static final double P_SSL = 2116.22;
-   private static final double T_SSL = 518.67;
    private static final double GRAVITY = 32.17;
 
-   private static final double HT_TROP = 36089;
-   private static final double P_TROP = 472.6758;
-   private static final double RHO_TROP = 0.000706115;
-
-   private static final double ENV_CONST_TROP = 0.0000068755;
-   private static final double ENV_CONST_STRAT = -0.0000480637;
-
-   private static Map<EnvironmentParameters, Double> environmentParams = new EnumMap<>(EnvironmentParameters.class);
+   private static final Atmosphere atmosphere = new Atmosphere();
+   private static final Weather weather = new Weather();
 
    private static double windSpeed = 0.0;
    private static double windDir = 0.0;
-   private static double deltaIsa = 0.0;
 
    /**
     * Calculates the temperature (R), presssure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec) and gravity (ft/sec^2)
     * for a given height above Earth, then calculates the wind speed components for a given speed and direction,
-    * and then places that data into an EnumMap with {@link EnvironmentParameters} as the keys
+    * and then places that data into a new EnumMap with {@link EnvironmentParameters} as the keys
     *
     * @param NEDPosition
     * @return EnumMap of environment parameters
     */
    public static Map<EnvironmentParameters, Double> getAndUpdateEnvironmentParams(double[] NEDPosition) {
-      double temp, rho, p, a, g, windN, windE, windD;
-
-      // Troposphere
-      if (NEDPosition[2] < HT_TROP) {
-         temp = T_SSL - (0.003566 * NEDPosition[2]) + deltaIsa;                   // (deg R)
-         p = P_SSL * Math.pow((1 - (ENV_CONST_TROP * NEDPosition[2])), 5.2559);      // (lbf/ft^2)
-         rho = RHO_SSL * Math.pow((1 - (ENV_CONST_TROP * NEDPosition[2])), 4.2559);  // (slug/ft^3)
-      } // Stratosphere
-      else {
-         temp = 389.97 + deltaIsa; 											 // (degR)
-         p = P_TROP * Math.exp(ENV_CONST_STRAT * (NEDPosition[2] - HT_TROP)); 		 // (lbf/ft^2)
-         rho = RHO_TROP * Math.exp(ENV_CONST_STRAT * (NEDPosition[2] - HT_TROP));   // (slug/ft^3)
-      }
-
-      a = Math.sqrt(GAMMA * R * temp);     									 // (ft/sec)
-
-      g = GRAVITY * (RADIUS_EARTH / (RADIUS_EARTH + NEDPosition[2]));
-
-      windN = windSpeed * Math.cos(windDir);
-      windE = windSpeed * Math.sin(windDir);
-      windD = 0.0;
-
-      environmentParams.put(EnvironmentParameters.T, temp);
-      environmentParams.put(EnvironmentParameters.P, p);
-      environmentParams.put(EnvironmentParameters.RHO, rho);
-      environmentParams.put(EnvironmentParameters.A, a);
-      environmentParams.put(EnvironmentParameters.GRAVITY, g);
-      environmentParams.put(EnvironmentParameters.WIND_SPEED_N, windN);
-      environmentParams.put(EnvironmentParameters.WIND_SPEED_E, windE);
-      environmentParams.put(EnvironmentParameters.WIND_SPEED_D, windD);
+      double[] values = updateEnvironmentParams(NEDPosition, new double[EnvironmentParameters.values().length]);
+      Map<EnvironmentParameters, Double> environmentParams = new EnumMap<>(EnvironmentParameters.class);
+
+      environmentParams.put(EnvironmentParameters.T, values[EnvironmentParameters.T.ordinal()]);
+      environmentParams.put(EnvironmentParameters.P, values[EnvironmentParameters.P.ordinal()]);
+      environmentParams.put(EnvironmentParameters.RHO, values[EnvironmentParameters.RHO.ordinal()]);
+      environmentParams.put(EnvironmentParameters.A, values[EnvironmentParameters.A.ordinal()]);
+      environmentParams.put(EnvironmentParameters.GRAVITY, values[EnvironmentParameters.GRAVITY.ordinal()]);
+      environmentParams.put(EnvironmentParameters.WIND_SPEED_N, values[EnvironmentParameters.WIND_SPEED_N.ordinal()]);
+      environmentParams.put(EnvironmentParameters.WIND_SPEED_E, values[EnvironmentParameters.WIND_SPEED_E.ordinal()]);
+      environmentParams.put(EnvironmentParameters.WIND_SPEED_D, values[EnvironmentParameters.WIND_SPEED_D.ordinal()]);
 
       return environmentParams;
    }
 
+   /**
+    * Calculates the temperature (R), presssure (lb/ft^2), density (slug/ft^3), speed of sound (ft/sec), gravity (ft/sec^2)
+    * and wind speed components for a given height above Earth, and writes them into a caller-supplied array indexed by
+    * {@link EnvironmentParameters#ordinal()}. Unlike {@link Environment#getAndUpdateEnvironmentParams(double[])} this
+    * does not box any value
+    *
+    * @param NEDPosition the NED position
+    * @param environmentParams the array to fill, of length EnvironmentParameters.values().length
+    * @return environmentParams
+    */
+   public static double[] updateEnvironmentParams(double[] NEDPosition, double[] environmentParams) {
+      atmosphere.update(NEDPosition[2], environmentParams);
+
+      return weather.update(NEDPosition[2], environmentParams);
+   }
+
    /**
     * @return Gravity (ft/sec^2) as a double array vector
     */
@@ -98,30 +80,32 @@ public class Environment {
    }
 
    /**
-    * Sets the wind speed (kts)
+    * Sets the wind speed (kts) of the default {@link Weather}
     *
     * @param windSpeed
     */
-   public static void setWindSpeed(double windSpeed) {
-      Environment.windSpeed = (windSpeed > 100) ? FileUtilities.toFtPerSec(100) : FileUtilities.toFtPerSec(windSpeed);
+   public static synchronized void setWindSpeed(double windSpeed) {
+      Environment.windSpeed = windSpeed;
+      weather.setWind(windSpeed, windDir);
    }
 
    /**
-    * Sets the wind direction (deg)
+    * Sets the wind direction (deg) of the default {@link Weather}
     *
     * @param windDir
     */
-   public static void setWindDir(double windDir) {
-      Environment.windDir = SaturationLimits.twoPiBounding(Math.toRadians(windDir) - Math.PI);
+   public static synchronized void setWindDir(double windDir) {
+      Environment.windDir = windDir;
+      weather.setWind(windSpeed, windDir);
    }
 
    /**
-    * Sets the difference in temperature from ISA (59 F, 15 C at Standard Sea Level)
+    * Sets the difference in temperature from ISA (59 F, 15 C at Standard Sea Level) of the default {@link Atmosphere}
     *
     * @param deltaIsa
     */
    public static void setDeltaIsa(double deltaIsa) {
-      Environment.deltaIsa = deltaIsa;
+      atmosphere.setDeltaIsa(deltaIsa);
    }
 
 }
@@ -27,6 +27,9 @@ public enum EnvironmentParameters {
    WIND_SPEED_N("windSpeedN"),
    WIND_SPEED_E("windSpeedE"),
    WIND_SPEED_D("windSpeedD"),
+   GUST_SPEED_N("gustSpeedN"),
+   GUST_SPEED_E("gustSpeedE"),
+   GUST_SPEED_D("gustSpeedD"),
    TURBULENCE("turbulence");
 
    private final String environmentParameter;
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+/**
+ * A discrete gust of the {@link Weather}, with the "1 - cosine" shape of MIL-F-8785C: its speed rises from 0 to its maximum at half of its
+ * duration, and falls back to 0 at the end of its duration.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class Gust {
+   private final double startTime;
+   private final double duration;
+   private final double speedN;
+   private final double speedE;
+   private final double speedD;
+
+   /**
+    * Creates a gust.
+    *
+    * @param startTime the time since the start of the simulation at which the gust starts (sec)
+    * @param duration the duration of the gust (sec)
+    * @param speedN the maximum North speed of the gust (ft/sec)
+    * @param speedE the maximum East speed of the gust (ft/sec)
+    * @param speedD the maximum speed of the gust, positive downwards (ft/sec)
+    */
+   public Gust(double startTime, double duration, double speedN, double speedE, double speedD) {
+      if (duration <= 0) {
+         System.err.println("Invalid gust duration: " + duration + "! Defaulting to 1 sec.");
+         duration = 1;
+      }
+      this.startTime = startTime;
+      this.duration = duration;
+      this.speedN = speedN;
+      this.speedE = speedE;
+      this.speedD = speedD;
+   }
+
+   /**
+    * Returns the fraction of the maximum speed of the gust at a time since the start of the simulation.
+    *
+    * @param time the time (sec)
+    * @return the fraction, between 0 and 1
+    */
+   public double getFactor(double time) {
+      double gustTime = time - startTime;
+      if (gustTime <= 0 || gustTime >= duration) {
+         return 0;
+      }
+      return 0.5 * (1 - Math.cos(2 * Math.PI * gustTime / duration));
+   }
+
+   /**
+    * @return the time since the start of the simulation at which the gust starts (sec)
+    */
+   public double getStartTime() {
+      return startTime;
+   }
+
+   /**
+    * @return the duration of the gust (sec)
+    */
+   public double getDuration() {
+      return duration;
+   }
+
+   /**
+    * @return the maximum North speed of the gust (ft/sec)
+    */
+   public double getSpeedN() {
+      return speedN;
+   }
+
+   /**
+    * @return the maximum East speed of the gust (ft/sec)
+    */
+   public double getSpeedE() {
+      return speedE;
+   }
+
+   /**
+    * @return the maximum speed of the gust, positive downwards (ft/sec)
+    */
+   public double getSpeedD() {
+      return speedD;
+   }
+}
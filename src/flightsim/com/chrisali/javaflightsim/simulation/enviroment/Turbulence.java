@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+import com.chrisali.javaflightsim.utilities.FileUtilities;
+import java.util.Random;
+
+/**
+ * Dryden model of continuous turbulence (MIL-F-8785C), driven by a seeded random number generator so that a sequence of
+ * turbulence only depends on its seed and on the flight path. Each component of the turbulence is a first-order Gauss-Markov process
+ * of the standard deviation and scale length of the Dryden model, discretized exactly over each step, so that its variance does
+ * not depend on the step size.
+ *
+ * <p>
+ * Below 1000 ft, the standard deviations and scale lengths are those of the low altitude model, calculated from the wind speed at 20 ft of
+ * the {@link TurbulenceIntensity}; above 2000 ft, the scale lengths are 1750 ft and the standard deviations are those of the
+ * {@link TurbulenceIntensity}; in between, they are linearly interpolated. The components are defined in the axes of the
+ * heading of the aircraft: u along the heading, v to the right and w downwards.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class Turbulence {
+   private static final double MIN_ALTITUDE = 10;
+   private static final double LOW_ALTITUDE = 1000;
+   private static final double HIGH_ALTITUDE = 2000;
+   private static final double HIGH_ALTITUDE_SCALE = 1750;
+   private static final double MIN_AIRSPEED = 1;
+
+   private long seed;
+   private final Random random;
+   private TurbulenceIntensity intensity = TurbulenceIntensity.NONE;
+
+   private double u = 0;
+   private double v = 0;
+   private double w = 0;
+
+   // Standard deviations (ft/sec) and scale lengths (ft) of the last step
+   private double sigmaU = 0;
+   private double sigmaW = 0;
+   private double scaleU = HIGH_ALTITUDE_SCALE;
+   private double scaleW = HIGH_ALTITUDE_SCALE;
+
+   /**
+    * Creates a turbulence without intensity.
+    *
+    * @param seed the seed of the random number generator
+    */
+   public Turbulence(long seed) {
+      this.seed = seed;
+      this.random = new Random(seed);
+   }
+
+   /**
+    * Sets the intensity of the turbulence.
+    *
+    * @param intensity the intensity
+    */
+   public void setIntensity(TurbulenceIntensity intensity) {
+      this.intensity = (intensity == null) ? TurbulenceIntensity.NONE : intensity;
+      if (this.intensity == TurbulenceIntensity.NONE) {
+         u = v = w = 0;
+      }
+   }
+
+   /**
+    * @return the intensity of the turbulence
+    */
+   public TurbulenceIntensity getIntensity() {
+      return intensity;
+   }
+
+   /**
+    * Sets the seed of the random number generator, and restarts the turbulence from it.
+    *
+    * @param seed the seed
+    */
+   public void setSeed(long seed) {
+      this.seed = seed;
+      reset();
+   }
+
+   /**
+    * @return the seed of the random number generator
+    */
+   public long getSeed() {
+      return seed;
+   }
+
+   /**
+    * Sets the turbulence to 0 and restarts the sequence of random numbers from the seed.
+    */
+   public void reset() {
+      random.setSeed(seed);
+      u = v = w = 0;
+   }
+
+   /**
+    * Advances the turbulence by one step. This method does not allocate memory.
+    *
+    * @param dt the step size (sec)
+    * @param airspeed the true airspeed (ft/sec)
+    * @param altitude the height above ground (ft)
+    */
+   public void advance(double dt, double airspeed, double altitude) {
+      if (intensity == TurbulenceIntensity.NONE || dt <= 0) {
+         return;
+      }
+      updateScales(altitude);
+
+      double distance = Math.max(airspeed, MIN_AIRSPEED) * dt;
+      double decayU = Math.exp(-distance / scaleU);
+      double decayW = Math.exp(-distance / scaleW);
+
+      double gainU = sigmaU * Math.sqrt(1 - decayU * decayU);
+      double gainW = sigmaW * Math.sqrt(1 - decayW * decayW);
+
+      u = decayU * u + gainU * random.nextGaussian();
+      v = decayU * v + gainU * random.nextGaussian();
+      w = decayW * w + gainW * random.nextGaussian();
+   }
+
+   /**
+    * Calculates the standard deviations and scale lengths of the Dryden model at an altitude.
+    */
+   private void updateScales(double altitude) {
+      double height = Math.max(altitude, MIN_ALTITUDE);
+      if (height >= HIGH_ALTITUDE) {
+         sigmaU = sigmaW = intensity.getHighAltitudeSigma();
+         scaleU = scaleW = HIGH_ALTITUDE_SCALE;
+         return;
+      }
+      double lowHeight = Math.min(height, LOW_ALTITUDE);
+
+      // Low altitude model
+      double factor = Math.pow(0.177 + 0.000823 * lowHeight, 0.4);
+      double lowSigmaW = 0.1 * FileUtilities.toFtPerSec(intensity.getWindSpeed20());
+      double lowSigmaU = lowSigmaW / factor;
+      double lowScaleW = lowHeight;
+      double lowScaleU = lowHeight / (factor * factor * factor);
+
+      if (height <= LOW_ALTITUDE) {
+         sigmaU = lowSigmaU;
+         sigmaW = lowSigmaW;
+         scaleU = lowScaleU;
+         scaleW = lowScaleW;
+      } else {
+         double fraction = (height - LOW_ALTITUDE) / (HIGH_ALTITUDE - LOW_ALTITUDE);
+         double highSigma = intensity.getHighAltitudeSigma();
+
+         sigmaU = lowSigmaU + fraction * (highSigma - lowSigmaU);
+         sigmaW = lowSigmaW + fraction * (highSigma - lowSigmaW);
+         scaleU = lowScaleU + fraction * (HIGH_ALTITUDE_SCALE - lowScaleU);
+         scaleW = lowScaleW + fraction * (HIGH_ALTITUDE_SCALE - lowScaleW);
+      }
+   }
+
+   /**
+    * @return the longitudinal component of the turbulence (ft/sec)
+    */
+   public double getU() {
+      return u;
+   }
+
+   /**
+    * @return the lateral component of the turbulence (ft/sec)
+    */
+   public double getV() {
+      return v;
+   }
+
+   /**
+    * @return the vertical component of the turbulence, positive downwards (ft/sec)
+    */
+   public double getW() {
+      return w;
+   }
+
+   /**
+    * @return the standard deviation of the longitudinal and lateral components at the last step (ft/sec)
+    */
+   public double getSigmaU() {
+      return sigmaU;
+   }
+
+   /**
+    * @return the standard deviation of the vertical component at the last step (ft/sec)
+    */
+   public double getSigmaW() {
+      return sigmaW;
+   }
+}
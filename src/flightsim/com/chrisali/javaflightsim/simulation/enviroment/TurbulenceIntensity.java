@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+/**
+ * Intensity of the {@link Turbulence}, defined by the wind speed at 20 ft used by the low altitude model of MIL-F-8785C, and by the
+ * standard deviation of the turbulence used above 2000 ft.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum TurbulenceIntensity {
+   NONE("None", 0, 0),
+   LIGHT("Light", 15, 5),
+   MODERATE("Moderate", 30, 10),
+   SEVERE("Severe", 45, 20);
+
+   private final String intensity;
+   private final double windSpeed20;
+   private final double highAltitudeSigma;
+
+   TurbulenceIntensity(String intensity, double windSpeed20, double highAltitudeSigma) {
+      this.intensity = intensity;
+      this.windSpeed20 = windSpeed20;
+      this.highAltitudeSigma = highAltitudeSigma;
+   }
+
+   /**
+    * @return the wind speed at 20 ft (kts)
+    */
+   public double getWindSpeed20() {
+      return windSpeed20;
+   }
+
+   /**
+    * @return the standard deviation of the turbulence above 2000 ft (ft/sec)
+    */
+   public double getHighAltitudeSigma() {
+      return highAltitudeSigma;
+   }
+
+   @Override
+   public String toString() {
+      return intensity;
+   }
+}
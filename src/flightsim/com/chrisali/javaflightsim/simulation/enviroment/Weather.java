@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.enviroment;
+
+import com.chrisali.javaflightsim.simulation.integration.SaturationLimits;
+import com.chrisali.javaflightsim.utilities.FileUtilities;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The weather of a simulation: a steady wind varying with altitude, continuous {@link Turbulence} and discrete {@link Gust}s. Each
+ * simulation owns its own instance, so that simulations running in the same JVM do not share their weather, and the turbulence of an
+ * instance only depends on its seed, so that the results of a batch of simulations are reproducible.
+ *
+ * <p>
+ * The steady wind is defined by layers, each with the wind speed and direction at an altitude; it is linearly interpolated
+ * between the layers, and constant below the lowest layer and above the highest one. The North and East components of the wind
+ * are precomputed every {@link Weather#GRID_STEP} ft when the layers are changed, so that sampling the wind at each step of
+ * integration is a single interpolation in the grid.</p>
+ *
+ * <p>
+ * The turbulence and gusts are advanced once per step by {@link Weather#advance(double, double, double, double)}, and are held
+ * over the stages of the next step. They are velocities of the air, which change the velocities of the aircraft relative to the air
+ * without moving the aircraft relative to the ground.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class Weather {
+   /**
+    * Altitude step of the precomputed steady wind (ft)
+    */
+   public static final double GRID_STEP = 50;
+   /**
+    * Maximum speed of the steady wind (kts)
+    */
+   public static final double MAX_WIND_SPEED = 100;
+
+   private static final Gust[] NO_GUSTS = new Gust[0];
+
+   // Layers of the steady wind, as {North, East} speeds (ft/sec) by altitude (ft)
+   private final TreeMap<Double, double[]> windLayers = new TreeMap<>();
+   private volatile WindGrid windGrid = new WindGrid(windLayers);
+
+   private final Turbulence turbulence;
+   private volatile Gust[] gusts = NO_GUSTS;
+
+   private double time = 0;
+   private double gustN = 0;
+   private double gustE = 0;
+   private double gustD = 0;
+
+   /**
+    * Creates a calm weather, with a seed of 0 for the turbulence.
+    */
+   public Weather() {
+      this(0);
+   }
+
+   /**
+    * Creates a calm weather.
+    *
+    * @param seed the seed of the turbulence
+    */
+   public Weather(long seed) {
+      this.turbulence = new Turbulence(seed);
+   }
+
+   /**
+    * Sets a steady wind constant with altitude, replacing all layers.
+    *
+    * @param windSpeed the wind speed (kts), bounded to {@link Weather#MAX_WIND_SPEED}
+    * @param windDir the direction the wind blows from (deg)
+    */
+   public synchronized void setWind(double windSpeed, double windDir) {
+      windLayers.clear();
+      addWindLayer(0, windSpeed, windDir);
+   }
+
+   /**
+    * Adds or replaces a layer of the steady wind.
+    *
+    * @param altitude the altitude of the layer (ft)
+    * @param windSpeed the wind speed (kts), bounded to {@link Weather#MAX_WIND_SPEED}
+    * @param windDir the direction the wind blows from (deg)
+    */
+   public synchronized void addWindLayer(double altitude, double windSpeed, double windDir) {
+      double speed = FileUtilities.toFtPerSec(Math.min(windSpeed, MAX_WIND_SPEED));
+      double direction = SaturationLimits.twoPiBounding(Math.toRadians(windDir) - Math.PI);
+
+      windLayers.put(altitude, new double[] { speed * Math.cos(direction), speed * Math.sin(direction) });
+      windGrid = new WindGrid(windLayers);
+   }
+
+   /**
+    * Removes all layers of the steady wind.
+    */
+   public synchronized void clearWindLayers() {
+      windLayers.clear();
+      windGrid = new WindGrid(windLayers);
+   }
+
+   /**
+    * Sets the seed of the turbulence, and restarts the turbulence from it.
+    *
+    * @param seed the seed
+    */
+   public void setSeed(long seed) {
+      turbulence.setSeed(seed);
+   }
+
+   /**
+    * Sets the intensity of the turbulence.
+    *
+    * @param intensity the intensity
+    */
+   public void setTurbulenceIntensity(TurbulenceIntensity intensity) {
+      turbulence.setIntensity(intensity);
+   }
+
+   /**
+    * @return the turbulence
+    */
+   public Turbulence getTurbulence() {
+      return turbulence;
+   }
+
+   /**
+    * Adds a discrete gust.
+    *
+    * @param gust the gust
+    */
+   public synchronized void addGust(Gust gust) {
+      Gust[] newGusts = new Gust[gusts.length + 1];
+      System.arraycopy(gusts, 0, newGusts, 0, gusts.length);
+      newGusts[gusts.length] = gust;
+      gusts = newGusts;
+   }
+
+   /**
+    * Removes all discrete gusts.
+    */
+   public synchronized void clearGusts() {
+      gusts = NO_GUSTS;
+   }
+
+   /**
+    * Sets the time of the weather to 0, and restarts the turbulence from its seed.
+    */
+   public void reset() {
+      time = 0;
+      turbulence.reset();
+      updateGusts();
+   }
+
+   /**
+    * Advances the turbulence and gusts by one step. This method does not allocate memory.
+    *
+    * @param dt the step size (sec)
+    * @param airspeed the true airspeed (ft/sec)
+    * @param altitude the height above ground (ft)
+    * @param heading the heading of the aircraft (rad)
+    */
+   public void advance(double dt, double airspeed, double altitude, double heading) {
+      time += dt;
+      turbulence.advance(dt, airspeed, altitude);
+      updateGusts();
+
+      // Turbulence from the axes of the heading to NED
+      if (turbulence.getIntensity() != TurbulenceIntensity.NONE) {
+         double cosHeading = Math.cos(heading);
+         double sinHeading = Math.sin(heading);
+         gustN += turbulence.getU() * cosHeading - turbulence.getV() * sinHeading;
+         gustE += turbulence.getU() * sinHeading + turbulence.getV() * cosHeading;
+         gustD += turbulence.getW();
+      }
+   }
+
+   /**
+    * Sums the discrete gusts at the time of the weather.
+    */
+   private void updateGusts() {
+      gustN = gustE = gustD = 0;
+
+      Gust[] currentGusts = gusts;
+      for (int i = 0; i < currentGusts.length; i++) {
+         double factor = currentGusts[i].getFactor(time);
+         if (factor != 0) {
+            gustN += factor * currentGusts[i].getSpeedN();
+            gustE += factor * currentGusts[i].getSpeedE();
+            gustD += factor * currentGusts[i].getSpeedD();
+         }
+      }
+   }
+
+   /**
+    * Writes the steady wind at an altitude, and the turbulence and gusts of the last step, into a caller-supplied array indexed by
+    * {@link EnvironmentParameters#ordinal()}. The other values of the array are not modified. This method does not allocate memory.
+    *
+    * @param altitude the altitude (ft)
+    * @param environmentParams the array to fill, of length EnvironmentParameters.values().length
+    * @return environmentParams
+    */
+   public double[] update(double altitude, double[] environmentParams) {
+      windGrid.sample(altitude, environmentParams);
+
+      environmentParams[EnvironmentParameters.GUST_SPEED_N.ordinal()] = gustN;
+      environmentParams[EnvironmentParameters.GUST_SPEED_E.ordinal()] = gustE;
+      environmentParams[EnvironmentParameters.GUST_SPEED_D.ordinal()] = gustD;
+
+      return environmentParams;
+   }
+
+   /**
+    * @return the time since the start of the simulation or the last reset, advanced at each step (sec)
+    */
+   public double getTime() {
+      return time;
+   }
+
+   /**
+    * The North and East components of the steady wind, precomputed every {@link Weather#GRID_STEP} ft between the lowest and highest
+    * layers.
+    */
+   private static final class WindGrid {
+      private final double baseAltitude;
+      private final double[] windN;
+      private final double[] windE;
+
+      private WindGrid(TreeMap<Double, double[]> windLayers) {
+         if (windLayers.isEmpty()) {
+            baseAltitude = 0;
+            windN = new double[1];
+            windE = new double[1];
+            return;
+         }
+
+         baseAltitude = windLayers.firstKey();
+         int size = (int) Math.ceil((windLayers.lastKey() - baseAltitude) / GRID_STEP) + 1;
+         windN = new double[size];
+         windE = new double[size];
+
+         for (int i = 0; i < size; i++) {
+            double altitude = baseAltitude + i * GRID_STEP;
+            Map.Entry<Double, double[]> below = windLayers.floorEntry(altitude);
+            Map.Entry<Double, double[]> above = windLayers.ceilingEntry(altitude);
+            if (above == null) {
+               above = below;
+            }
+
+            double fraction = (above.getKey() > below.getKey()) ? (altitude - below.getKey()) / (above.getKey() - below.getKey()) : 0;
+            windN[i] = below.getValue()[0] + fraction * (above.getValue()[0] - below.getValue()[0]);
+            windE[i] = below.getValue()[1] + fraction * (above.getValue()[1] - below.getValue()[1]);
+         }
+      }
+
+      private void sample(double altitude, double[] environmentParams) {
+         double position = (altitude - baseAltitude) / GRID_STEP;
+         double north, east;
+
+         if (!(position > 0)) {
+            north = windN[0];
+            east = windE[0];
+         } else if (position >= windN.length - 1) {
+            north = windN[windN.length - 1];
+            east = windE[windE.length - 1];
+         } else {
+            int index = (int) position;
+            double fraction = position - index;
+            north = windN[index] + fraction * (windN[index + 1] - windN[index]);
+            east = windE[index] + fraction * (windE[index + 1] - windE[index]);
+         }
+
+         environmentParams[EnvironmentParameters.WIND_SPEED_N.ordinal()] = north;
+         environmentParams[EnvironmentParameters.WIND_SPEED_E.ordinal()] = east;
+         environmentParams[EnvironmentParameters.WIND_SPEED_D.ordinal()] = 0.0;
+      }
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * Fourth order Adams-Bashforth-Moulton predictor-corrector integrator (PECE). The states are predicted with the Adams-Bashforth
+ * formula from the derivatives of the last four frames, and corrected with the Adams-Moulton formula using the derivatives evaluated
+ * at the predicted states, so that each frame needs a single evaluation of the derivatives. The history of derivatives is started
+ * with {@link RungeKuttaIntegrator} frames, and restarted whenever the frame length changes or {@link Integrator#reset()} is called.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class AdamsBashforthMoultonIntegrator extends AbstractIntegrator {
+   private static final int STEPS = 4;
+
+   private final RungeKuttaIntegrator starter;
+   private final double[] yPredicted;
+   private final double[] yDotPredicted;
+
+   // Derivatives of the previous frames: f(n-1), f(n-2) and f(n-3)
+   private double[] f1;
+   private double[] f2;
+   private double[] f3;
+   private int history = 0;
+   private double lastDt = Double.NaN;
+
+   /**
+    * @param dimension the number of states of the integrated equations
+    */
+   public AdamsBashforthMoultonIntegrator(int dimension) {
+      super(dimension);
+      starter = new RungeKuttaIntegrator(dimension);
+      yPredicted = new double[dimension];
+      yDotPredicted = new double[dimension];
+      f1 = new double[dimension];
+      f2 = new double[dimension];
+      f3 = new double[dimension];
+   }
+
+   @Override
+   public void integrate(DifferentialEquations equations, double t, double[] y0, double[] yDot0, double dt, double[] y) {
+      if (dt != lastDt) {
+         history = 0;
+         lastDt = dt;
+      }
+
+      if (history < STEPS - 1) {
+         starter.integrate(equations, t, y0, yDot0, dt, y);
+      } else {
+         for (int i = 0; i < dimension; i++) {
+            yPredicted[i] = y0[i] + dt / 24 * (55 * yDot0[i] - 59 * f1[i] + 37 * f2[i] - 9 * f3[i]);
+         }
+
+         computeDerivatives(equations, t + dt, yPredicted, yDotPredicted);
+
+         for (int i = 0; i < dimension; i++) {
+            y[i] = y0[i] + dt / 24 * (9 * yDotPredicted[i] + 19 * yDot0[i] - 5 * f1[i] + f2[i]);
+         }
+      }
+
+      // Shift the history of derivatives, reusing the oldest array
+      double[] oldest = f3;
+      f3 = f2;
+      f2 = f1;
+      f1 = oldest;
+      System.arraycopy(yDot0, 0, f1, 0, dimension);
+      if (history < STEPS - 1) {
+         history++;
+      }
+   }
+
+   @Override
+   public void reset() {
+      history = 0;
+   }
+
+   @Override
+   public long getEvaluations() {
+      return super.getEvaluations() + starter.getEvaluations();
+   }
+}
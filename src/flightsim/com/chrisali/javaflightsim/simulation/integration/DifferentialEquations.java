@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * A system of first order ordinary differential equations y' = f(t, y), integrated by an {@link Integrator}.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public interface DifferentialEquations {
+   /**
+    * @return the number of states of the system
+    */
+   public int getDimension();
+
+   /**
+    * Computes the derivatives of the states at a given time. Implementations must not keep a reference to either array,
+    * as integrators reuse them for each stage.
+    *
+    * @param t the time (sec)
+    * @param y the states
+    * @param yDot the array to fill with the derivatives of the states
+    */
+   public void computeDerivatives(double t, double[] y, double[] yDot);
+}
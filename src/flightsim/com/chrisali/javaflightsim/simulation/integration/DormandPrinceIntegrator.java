@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * Embedded Dormand-Prince 5(4) integrator with adaptive step size. Each frame is covered by as many internal steps as needed to keep
+ * the local error estimate, given by the difference between the fifth and fourth order solutions, within the tolerance. The internal
+ * step size is kept from one frame to the next, and is only limited by the end of the frame, so that analysis runs can use long frames
+ * and let the integrator take the largest step the tolerance allows. The derivatives at the end of an accepted step are reused as the
+ * first stage of the next one, so that each step needs six evaluations of the derivatives.
+ *
+ * <p>
+ * See Source: <i>Solving Ordinary Differential Equations I, Hairer, E., Norsett, S.P. and Wanner, G.</i></p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class DormandPrinceIntegrator extends AbstractIntegrator {
+   private static final double C2 = 1.0 / 5.0, C3 = 3.0 / 10.0, C4 = 4.0 / 5.0, C5 = 8.0 / 9.0;
+
+   private static final double A21 = 1.0 / 5.0;
+   private static final double A31 = 3.0 / 40.0, A32 = 9.0 / 40.0;
+   private static final double A41 = 44.0 / 45.0, A42 = -56.0 / 15.0, A43 = 32.0 / 9.0;
+   private static final double A51 = 19372.0 / 6561.0, A52 = -25360.0 / 2187.0, A53 = 64448.0 / 6561.0, A54 = -212.0 / 729.0;
+   private static final double A61 = 9017.0 / 3168.0, A62 = -355.0 / 33.0, A63 = 46732.0 / 5247.0, A64 = 49.0 / 176.0,
+           A65 = -5103.0 / 18656.0;
+   private static final double A71 = 35.0 / 384.0, A73 = 500.0 / 1113.0, A74 = 125.0 / 192.0, A75 = -2187.0 / 6784.0, A76 = 11.0 / 84.0;
+
+   // Difference between the fifth and fourth order weights, giving the error estimate
+   private static final double E1 = 71.0 / 57600.0, E3 = -71.0 / 16695.0, E4 = 71.0 / 1920.0, E5 = -17253.0 / 339200.0,
+           E6 = 22.0 / 525.0, E7 = -1.0 / 40.0;
+
+   private static final double SAFETY = 0.9;
+   private static final double MIN_FACTOR = 0.2;
+   private static final double MAX_FACTOR = 5.0;
+   private static final double MIN_STEP_RATIO = 1e-6;
+
+   private final double tolerance;
+   private final double[] yn;
+   private final double[] yStage;
+   private final double[] y5;
+   private double[] k1;
+   private final double[] k2;
+   private final double[] k3;
+   private final double[] k4;
+   private final double[] k5;
+   private final double[] k6;
+   private double[] k7;
+
+   private double step = 0.0;
+   private long acceptedSteps = 0;
+   private long rejectedSteps = 0;
+   private boolean minStepWarned = false;
+   private boolean invalidStateWarned = false;
+
+   /**
+    * @param dimension the number of states of the integrated equations
+    * @param tolerance the relative and absolute tolerance of the local error of each step
+    */
+   public DormandPrinceIntegrator(int dimension, double tolerance) {
+      super(dimension);
+      if (!(tolerance > 0)) {
+         System.err.println("Invalid integrator tolerance: " + tolerance + "! Defaulting to " + IntegratorType.DEFAULT_TOLERANCE);
+         tolerance = IntegratorType.DEFAULT_TOLERANCE;
+      }
+      this.tolerance = tolerance;
+
+      yn = new double[dimension];
+      yStage = new double[dimension];
+      y5 = new double[dimension];
+      k1 = new double[dimension];
+      k2 = new double[dimension];
+      k3 = new double[dimension];
+      k4 = new double[dimension];
+      k5 = new double[dimension];
+      k6 = new double[dimension];
+      k7 = new double[dimension];
+   }
+
+   @Override
+   public void integrate(DifferentialEquations equations, double t, double[] y0, double[] yDot0, double dt, double[] y) {
+      System.arraycopy(y0, 0, yn, 0, dimension);
+      System.arraycopy(yDot0, 0, k1, 0, dimension);
+
+      double tEnd = t + dt;
+      double tn = t;
+      double minStep = MIN_STEP_RATIO * dt;
+      double h = (step > 0) ? step : dt;
+
+      while (tEnd - tn > minStep * 1e-3) {
+         // Shorten the step to end exactly at the end of the frame
+         boolean lastStep = tn + h >= tEnd;
+         double hStep = lastStep ? tEnd - tn : h;
+
+         double error = tryStep(equations, tn, hStep);
+         if (!(error >= 0)) {
+            // A NaN state or derivative gives no step size: shrink the step, in case it is too large, down to the minimum step
+            if (hStep > minStep) {
+               rejectedSteps++;
+               h = Math.max(minStep, hStep * MIN_FACTOR);
+               continue;
+            }
+            // The state is invalid even at the minimum step: the frame ends on it, as with a fixed step integrator
+            if (!invalidStateWarned) {
+               System.err.println("Dormand-Prince step gives an invalid state at t = " + tn + " sec!");
+               invalidStateWarned = true;
+            }
+            acceptedSteps++;
+            System.arraycopy(y5, 0, yn, 0, dimension);
+            h = dt;
+            break;
+         }
+         boolean accepted = error <= 1.0 || hStep <= minStep;
+
+         double factor = (error == 0.0) ? MAX_FACTOR : Math.min(MAX_FACTOR, Math.max(MIN_FACTOR, SAFETY * Math.pow(error, -0.2)));
+         if (accepted) {
+            if (error > 1.0 && !minStepWarned) {
+               System.err.println("Dormand-Prince step reached its minimum size without meeting the tolerance at t = " + tn + " sec!");
+               minStepWarned = true;
+            }
+            acceptedSteps++;
+            tn = lastStep ? tEnd : tn + hStep;
+            System.arraycopy(y5, 0, yn, 0, dimension);
+
+            // First same as last: the derivatives at the end of this step are the first stage of the next one
+            double[] swap = k1;
+            k1 = k7;
+            k7 = swap;
+
+            // A step shortened to reach the end of the frame does not limit the next one, unless it had to shrink
+            h = (lastStep && hStep < h && factor >= 1.0) ? h : hStep * factor;
+         } else {
+            rejectedSteps++;
+            h = hStep * factor;
+         }
+      }
+
+      step = h;
+      System.arraycopy(yn, 0, y, 0, dimension);
+   }
+
+   /**
+    * Computes the fifth order solution y5 over a step of length h from (tn, yn), and returns the norm of the error estimate relative
+    * to the tolerance.
+    */
+   private double tryStep(DifferentialEquations equations, double tn, double h) {
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = yn[i] + h * A21 * k1[i];
+      }
+      computeDerivatives(equations, tn + C2 * h, yStage, k2);
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = yn[i] + h * (A31 * k1[i] + A32 * k2[i]);
+      }
+      computeDerivatives(equations, tn + C3 * h, yStage, k3);
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = yn[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+      }
+      computeDerivatives(equations, tn + C4 * h, yStage, k4);
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = yn[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+      }
+      computeDerivatives(equations, tn + C5 * h, yStage, k5);
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = yn[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+      }
+      computeDerivatives(equations, tn + h, yStage, k6);
+
+      for (int i = 0; i < dimension; i++) {
+         y5[i] = yn[i] + h * (A71 * k1[i] + A73 * k3[i] + A74 * k4[i] + A75 * k5[i] + A76 * k6[i]);
+      }
+      computeDerivatives(equations, tn + h, y5, k7);
+
+      double sum = 0.0;
+      for (int i = 0; i < dimension; i++) {
+         double errorEstimate = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+         double scale = tolerance + tolerance * Math.max(Math.abs(yn[i]), Math.abs(y5[i]));
+         sum += (errorEstimate / scale) * (errorEstimate / scale);
+      }
+
+      return Math.sqrt(sum / dimension);
+   }
+
+   @Override
+   public void reset() {
+      step = 0.0;
+   }
+
+   /**
+    * @return the current internal step size (sec), or 0 if no frame has been integrated since the integrator was created or reset
+    */
+   public double getStep() {
+      return step;
+   }
+
+   /**
+    * @return the number of internal steps accepted
+    */
+   public long getAcceptedSteps() {
+      return acceptedSteps;
+   }
+
+   /**
+    * @return the number of internal steps rejected because their error exceeded the tolerance
+    */
+   public long getRejectedSteps() {
+      return rejectedSteps;
+   }
+}
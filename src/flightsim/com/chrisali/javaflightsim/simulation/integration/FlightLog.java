@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Columnar log of simulation outputs, filled by {@link Integrate6DOFEquations} after each step of integration. Each {@link SimOuts}
+ * has its own preallocated primitive column, and the columns are used as a ring buffer of fixed capacity: appending a row is O(1)
+ * and, once the log is full, overwrites the oldest row. Rows are indexed from 0 (oldest row held) to {@link FlightLog#size()} - 1
+ * (newest row).
+ *
+ * <p>
+ * Readers such as plots, the raw data console or the CSV export should use a {@link FlightLog.View}, which reads directly from the
+ * columns without copying them, over the rows held when the view was created.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class FlightLog {
+   /**
+    * Maximum number of rows held by a log, the largest length of a column
+    */
+   public static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+   private static final SimOuts[] SIM_OUTS = SimOuts.values();
+
+   private final double[][] columns;
+   private final int capacity;
+
+   // Absolute indices of the oldest row held and of the row following the newest one
+   private long firstRow = 0;
+   private long endRow = 0;
+
+   /**
+    * Creates a log able to hold capacity rows of simulation outputs. The capacity is bounded between 1 and {@link FlightLog#MAX_CAPACITY}
+    *
+    * @param capacity the number of rows held before the oldest rows are overwritten
+    */
+   public FlightLog(int capacity) {
+      if (capacity < 1 || capacity > MAX_CAPACITY) {
+         System.err.println("Invalid flight log capacity: " + capacity + "! Bounding it to " + MAX_CAPACITY + " rows.");
+         capacity = (capacity < 1) ? 1 : MAX_CAPACITY;
+      }
+      this.capacity = capacity;
+      this.columns = new double[SIM_OUTS.length][capacity];
+   }
+
+   /**
+    * Appends a row of simulation outputs to the log, overwriting the oldest row if the log is full.
+    *
+    * @param simOutValues the simulation outputs, indexed by {@link SimOuts#ordinal()}
+    */
+   public synchronized void append(double[] simOutValues) {
+      int slot = (int) (endRow % capacity);
+      for (int i = 0; i < columns.length; i++) {
+         columns[i][slot] = simOutValues[i];
+      }
+
+      endRow++;
+      if (endRow - firstRow > capacity) {
+         firstRow++;
+      }
+   }
+
+   /**
+    * Removes all rows from the log. The latest row is still available through {@link FlightLog#getLatest()}
+    */
+   public synchronized void clear() {
+      firstRow = endRow;
+   }
+
+   /**
+    * @return the number of rows held by the log
+    */
+   public synchronized int size() {
+      return (int) (endRow - firstRow);
+   }
+
+   /**
+    * @return the maximum number of rows held by the log
+    */
+   public int getCapacity() {
+      return capacity;
+   }
+
+   /**
+    * Returns the value of a simulation output in a row of the log.
+    *
+    * @param row the row, 0 being the oldest row held
+    * @param simOut the simulation output
+    * @return the value
+    */
+   public synchronized double get(int row, SimOuts simOut) {
+      if (row < 0 || row >= endRow - firstRow) {
+         throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + (endRow - firstRow));
+      }
+      return columns[simOut.ordinal()][(int) ((firstRow + row) % capacity)];
+   }
+
+   /**
+    * Returns the newest row appended to the log as an EnumMap, even if the log has been cleared since.
+    *
+    * @return the latest simulation outputs, or null if no row has ever been appended
+    */
+   public synchronized Map<SimOuts, Double> getLatest() {
+      if (endRow == 0) {
+         return null;
+      }
+
+      Map<SimOuts, Double> simOut = new EnumMap<>(SimOuts.class);
+      int slot = (int) ((endRow - 1) % capacity);
+      for (SimOuts out : SIM_OUTS) {
+         simOut.put(out, columns[out.ordinal()][slot]);
+      }
+      return simOut;
+   }
+
+   /**
+    * Creates a zero-copy view over the rows currently held by the log. Rows appended after the view was created are
+    * not part of it.
+    *
+    * @return the view
+    */
+   public synchronized View view() {
+      return new View(firstRow, (int) (endRow - firstRow));
+   }
+
+   /**
+    * Read-only view over a range of rows of a {@link FlightLog}, reading values directly from the log's columns.
+    * If a row of the view has since been overwritten or cleared from the log, its values are returned as NaN.
+    */
+   public class View {
+      private final long first;
+      private final int size;
+
+      private View(long first, int size) {
+         this.first = first;
+         this.size = size;
+      }
+
+      /**
+       * @return the number of rows in the view
+       */
+      public int size() {
+         return size;
+      }
+
+      /**
+       * Returns the value of a simulation output in a row of the view.
+       *
+       * @param row the row, 0 being the oldest row of the view
+       * @param simOut the simulation output
+       * @return the value, or NaN if the row is no longer held by the log
+       */
+      public double get(int row, SimOuts simOut) {
+         if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+         }
+
+         long absoluteRow = first + row;
+         synchronized (FlightLog.this) {
+            if (absoluteRow < firstRow || absoluteRow >= endRow) {
+               return Double.NaN;
+            }
+            return columns[simOut.ordinal()][(int) (absoluteRow % capacity)];
+         }
+      }
+   }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs frames at a fixed period on a single thread, and calls at each frame the {@link FrameListener}s of each {@link FramePhase}, in
+ * order, with the same frame index. It replaces the independent sleeping loops of the flight controls, simulation, flight data and
+ * environment data threads, so that all of them are sampled at the same rate and on the same frame.
+ *
+ * <p>
+ * In real time, the scheduler accumulates the wall time elapsed since the last frame, and runs a frame each time a full frame period has
+ * been accumulated, so that the time spent in the frames does not make the simulation drift from real time. When frames are late, they
+ * are caught up or dropped according to the {@link OverrunPolicy} of the scheduler. Otherwise, frames are run back to back, as fast as
+ * possible, as in analysis mode.</p>
+ *
+ * <p>
+ * In real time, the simulation can be run faster (or slower) than real time with {@link FrameScheduler#setTimeCompression(double)}:
+ * the frames are still paced at the frame period, so that the controls, flight data and rendering keep the same rate, but the listeners
+ * of the {@link FramePhase#SIMULATION} phase are run several times per frame (sub-steps), the fractional part of the time compression
+ * being carried over to the next frames. With {@link FrameScheduler#AS_FAST_AS_POSSIBLE}, frames are run back to back with
+ * {@link FrameScheduler#getMaxSubSteps()} sub-steps each.</p>
+ * <p>
+ * The timing of the frames is monitored, and can be obtained at any time with {@link FrameScheduler#getStatistics()}.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class FrameScheduler implements Runnable {
+   /**
+    * Default maximum number of frames run back to back to catch up with real time
+    */
+   public static final int DEFAULT_MAX_CATCH_UP_FRAMES = 5;
+   /**
+    * Time compression running the simulation as fast as possible
+    */
+   public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+   /**
+    * Default number of sub-steps per frame when the simulation runs as fast as possible
+    */
+   public static final int DEFAULT_MAX_SUB_STEPS = 16;
+
+   // Below this delay (ns) the scheduler yields instead of parking, as the resolution of parking is too coarse
+   private static final long SPIN_THRESHOLD = 1000000L;
+   private static final FramePhase[] PHASES = FramePhase.values();
+
+   private final double frameTime;
+   private final long framePeriod;
+   private final boolean realTime;
+   private volatile FrameListener[][] listeners = new FrameListener[PHASES.length][0];
+   private volatile OverrunPolicy overrunPolicy = OverrunPolicy.CATCH_UP;
+   private volatile int maxCatchUpFrames = DEFAULT_MAX_CATCH_UP_FRAMES;
+   private volatile double timeCompression = 1;
+   private volatile int maxSubSteps = DEFAULT_MAX_SUB_STEPS;
+   // Fraction of a sub-step carried over to the next frame, only used by the scheduler thread
+   private double subStepAccumulator = 0;
+
+   private volatile boolean running;
+   private volatile Thread schedulerThread;
+   private volatile long frameIndex = -1;
+
+   // Statistics, guarded by statisticsLock
+   private final Object statisticsLock = new Object();
+   private long statisticsStart;
+   private long lastFrameStart;
+   private long frames;
+   private long steps;
+   private long droppedFrames;
+   private long overruns;
+   private long lateFrames;
+   private long totalFrameTime;
+   private long maxFrameTime;
+   private long totalLateness;
+   private long maxLateness;
+   private long totalJitter;
+   private long maxJitter;
+   private long jitterSamples;
+
+   /**
+    * Creates a scheduler running frames every frameTime seconds. If frameTime is invalid, a period of 0.05 seconds is used.
+    *
+    * @param frameTime the frame period (sec)
+    * @param realTime true if frames are paced in real time, false to run frames back to back
+    */
+   public FrameScheduler(double frameTime, boolean realTime) {
+      if (!(frameTime > 0)) {
+         System.err.println("Invalid frame period: " + frameTime + "! Defaulting to 0.05 sec.");
+         frameTime = 0.05;
+      }
+      this.frameTime = frameTime;
+      this.framePeriod = Math.round(frameTime * 1e9);
+      this.realTime = realTime;
+   }
+
+   /**
+    * Adds a listener called at each frame in the given phase, after the listeners already added to this phase. Listeners can be added
+    * while the scheduler is running; they are called from the next frame.
+    *
+    * @param listener the listener
+    * @param phase the phase of the frame in which the listener is called
+    */
+   public synchronized void addFrameListener(FrameListener listener, FramePhase phase) {
+      if (listener == null) {
+         return;
+      }
+
+      FrameListener[][] newListeners = listeners.clone();
+      FrameListener[] phaseListeners = newListeners[phase.ordinal()];
+      for (FrameListener phaseListener : phaseListeners) {
+         if (phaseListener == listener) {
+            return;
+         }
+      }
+
+      newListeners[phase.ordinal()] = new FrameListener[phaseListeners.length + 1];
+      System.arraycopy(phaseListeners, 0, newListeners[phase.ordinal()], 0, phaseListeners.length);
+      newListeners[phase.ordinal()][phaseListeners.length] = listener;
+      listeners = newListeners;
+   }
+
+   /**
+    * Removes a listener from all phases.
+    *
+    * @param listener the listener
+    */
+   public synchronized void removeFrameListener(FrameListener listener) {
+      FrameListener[][] newListeners = listeners.clone();
+      for (int i = 0; i < newListeners.length; i++) {
+         int count = 0;
+         for (FrameListener phaseListener : newListeners[i]) {
+            if (phaseListener != listener) {
+               count++;
+            }
+         }
+
+         if (count != newListeners[i].length) {
+            FrameListener[] phaseListeners = new FrameListener[count];
+            int j = 0;
+            for (FrameListener phaseListener : newListeners[i]) {
+               if (phaseListener != listener) {
+                  phaseListeners[j++] = phaseListener;
+               }
+            }
+            newListeners[i] = phaseListeners;
+         }
+      }
+      listeners = newListeners;
+   }
+
+   /**
+    * Sets how late frames are handled in real time ({@link OverrunPolicy#CATCH_UP} with {@link FrameScheduler#DEFAULT_MAX_CATCH_UP_FRAMES}
+    * by default).
+    *
+    * @param overrunPolicy the policy
+    * @param maxCatchUpFrames the maximum number of frames run back to back with {@link OverrunPolicy#CATCH_UP}, bounded to at least 1
+    */
+   public void setOverrunPolicy(OverrunPolicy overrunPolicy, int maxCatchUpFrames) {
+      this.overrunPolicy = overrunPolicy;
+      this.maxCatchUpFrames = Math.max(1, maxCatchUpFrames);
+   }
+
+   /**
+    * @return the policy used when frames are late
+    */
+   public OverrunPolicy getOverrunPolicy() {
+      return overrunPolicy;
+   }
+
+   /**
+    * Sets the ratio between the simulation time and the wall time in real time (1 by default); it can be changed while the scheduler
+    * is running. The frames are still paced at the frame period, and the listeners of the {@link FramePhase#SIMULATION} phase are run
+    * timeCompression times per frame on average. It is not used if the scheduler is not paced in real time.
+    *
+    * @param timeCompression the time compression, strictly positive, or {@link FrameScheduler#AS_FAST_AS_POSSIBLE}
+    */
+   public void setTimeCompression(double timeCompression) {
+      if (!(timeCompression > 0)) {
+         System.err.println("Invalid time compression: " + timeCompression + "! Keeping " + this.timeCompression + ".");
+         return;
+      }
+      this.timeCompression = timeCompression;
+   }
+
+   /**
+    * @return the ratio between the simulation time and the wall time in real time
+    */
+   public double getTimeCompression() {
+      return timeCompression;
+   }
+
+   /**
+    * Sets the number of sub-steps run per frame when the simulation runs as fast as possible ({@link FrameScheduler#DEFAULT_MAX_SUB_STEPS}
+    * by default). A larger number makes the simulation faster, but publishes its outputs less often.
+    *
+    * @param maxSubSteps the number of sub-steps per frame, bounded to at least 1
+    */
+   public void setMaxSubSteps(int maxSubSteps) {
+      this.maxSubSteps = Math.max(1, maxSubSteps);
+   }
+
+   /**
+    * @return the number of sub-steps run per frame when the simulation runs as fast as possible
+    */
+   public int getMaxSubSteps() {
+      return maxSubSteps;
+   }
+
+   /**
+    * @return the frame period (sec)
+    */
+   public double getFrameTime() {
+      return frameTime;
+   }
+
+   /**
+    * @return true if frames are paced in real time
+    */
+   public boolean isRealTime() {
+      return realTime;
+   }
+
+   /**
+    * @return the index of the frame being run or last run, or -1 if no frame has been run yet
+    */
+   public long getFrameIndex() {
+      return frameIndex;
+   }
+
+   /**
+    * @return true if the scheduler is running frames
+    */
+   public boolean isRunning() {
+      return running;
+   }
+
+   /**
+    * Requests the scheduler to stop; the frame being run, if any, is completed. This method can be called from a listener
+    */
+   public void stop() {
+      running = false;
+
+      Thread thread = schedulerThread;
+      if (thread != null) {
+         LockSupport.unpark(thread);
+      }
+   }
+
+   /**
+    * Runs frames until {@link FrameScheduler#stop()} is called or the thread is interrupted. The statistics are reset when
+    * this method is called.
+    *
+    * @see java.lang.Runnable#run()
+    */
+   @Override
+   public void run() {
+      schedulerThread = Thread.currentThread();
+      running = true;
+      resetStatistics();
+
+      try {
+         if (!realTime) {
+            while (running) {
+               runFrame(1, 0, false);
+            }
+            return;
+         }
+
+         // The first frame is run immediately
+         long accumulator = framePeriod;
+         long previous = System.nanoTime();
+         int catchUpFrames = 0;
+
+         while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            if (timeCompression == AS_FAST_AS_POSSIBLE) {
+               // Frames are not paced; pacing resumes from the next frame when the time compression is changed
+               runFrame(maxSubSteps, 0, false);
+               accumulator = framePeriod;
+               previous = System.nanoTime();
+               subStepAccumulator = 0;
+               catchUpFrames = 0;
+            } else if (accumulator < framePeriod) {
+               catchUpFrames = 0;
+               waitFor(framePeriod - accumulator);
+            } else if (catchUpFrames >= (overrunPolicy == OverrunPolicy.DROP ? 1 : maxCatchUpFrames)) {
+               // Too many frames were run back to back: drop the frames due, and wait for the next frame period
+               long dropped = accumulator / framePeriod;
+               accumulator -= dropped * framePeriod;
+               catchUpFrames = 0;
+               synchronized (statisticsLock) {
+                  droppedFrames += dropped;
+               }
+            } else {
+               subStepAccumulator += timeCompression;
+               int subSteps = (int) subStepAccumulator;
+               subStepAccumulator -= subSteps;
+
+               runFrame(subSteps, accumulator - framePeriod, true);
+               accumulator -= framePeriod;
+               catchUpFrames++;
+            }
+         }
+      } finally {
+         running = false;
+         schedulerThread = null;
+      }
+   }
+
+   /**
+    * Calls the listeners of each phase for the next frame, the listeners of the {@link FramePhase#SIMULATION} phase being called
+    * subSteps times, as long as the scheduler is running, and records its timing.
+    *
+    * @param subSteps the number of sub-steps of the frame; may be 0 if the simulation is slower than real time
+    * @param lateness the delay between the scheduled and actual start of the frame (ns)
+    * @param paced true if the frame is paced in real time
+    */
+   private void runFrame(int subSteps, long lateness, boolean paced) {
+      long start = System.nanoTime();
+      long index = frameIndex + 1;
+      frameIndex = index;
+
+      FrameListener[][] phaseListeners = listeners;
+      int stepsRun = 0;
+      for (int phase = 0; phase < phaseListeners.length; phase++) {
+         if (phase == FramePhase.SIMULATION.ordinal()) {
+            for (; stepsRun < subSteps && running; stepsRun++) {
+               for (FrameListener listener : phaseListeners[phase]) {
+                  listener.onFrame(index);
+               }
+            }
+         } else {
+            for (FrameListener listener : phaseListeners[phase]) {
+               listener.onFrame(index);
+            }
+         }
+      }
+
+      recordFrame(start, System.nanoTime() - start, stepsRun, lateness, paced);
+   }
+
+   /**
+    * Waits until the given delay has elapsed, or the scheduler is stopped; the scheduler stops if the thread is interrupted.
+    *
+    * @param delay the delay (ns)
+    */
+   private void waitFor(long delay) {
+      if (delay > SPIN_THRESHOLD) {
+         LockSupport.parkNanos(this, delay - SPIN_THRESHOLD);
+      } else {
+         Thread.yield();
+      }
+
+      if (Thread.interrupted()) {
+         running = false;
+      }
+   }
+
+   //==================================== Statistics =======================================================
+   private void recordFrame(long start, long frameDuration, int subSteps, long lateness, boolean paced) {
+      synchronized (statisticsLock) {
+         frames++;
+         steps += subSteps;
+         totalFrameTime += frameDuration;
+         maxFrameTime = Math.max(maxFrameTime, frameDuration);
+         if (frameDuration > framePeriod) {
+            overruns++;
+         }
+
+         if (!paced) {
+            lastFrameStart = 0;
+         } else {
+            totalLateness += lateness;
+            maxLateness = Math.max(maxLateness, lateness);
+            if (lateness >= framePeriod) {
+               lateFrames++;
+            }
+
+            if (lastFrameStart != 0) {
+               long jitter = Math.abs(start - lastFrameStart - framePeriod);
+               totalJitter += jitter;
+               maxJitter = Math.max(maxJitter, jitter);
+               jitterSamples++;
+            }
+            lastFrameStart = start;
+         }
+      }
+   }
+
+   /**
+    * Resets the timing statistics of the scheduler, for instance to exclude the warm up of the simulation.
+    */
+   public void resetStatistics() {
+      synchronized (statisticsLock) {
+         statisticsStart = System.nanoTime();
+         lastFrameStart = 0;
+         frames = 0;
+         steps = 0;
+         droppedFrames = 0;
+         overruns = 0;
+         lateFrames = 0;
+         totalFrameTime = 0;
+         maxFrameTime = 0;
+         totalLateness = 0;
+         maxLateness = 0;
+         totalJitter = 0;
+         maxJitter = 0;
+         jitterSamples = 0;
+      }
+   }
+
+   /**
+    * @return a snapshot of the timing statistics of the frames run since the scheduler was started or its statistics were reset
+    */
+   public FrameStatistics getStatistics() {
+      synchronized (statisticsLock) {
+         return new FrameStatistics(frameTime, frames, steps, droppedFrames, overruns, lateFrames, (System.nanoTime() - statisticsStart) / 1e9,
+                 frames > 0 ? totalFrameTime / 1e9 / frames : 0, maxFrameTime / 1e9,
+                 frames > 0 ? totalLateness / 1e9 / frames : 0, maxLateness / 1e9,
+                 jitterSamples > 0 ? totalJitter / 1e9 / jitterSamples : 0, maxJitter / 1e9);
+      }
+   }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * Immutable snapshot of the timing statistics of a {@link FrameScheduler}, returned by {@link FrameScheduler#getStatistics()}.
+ * All times are in seconds.
+ *
+ * <ul>
+ * <li>the frame time is the time spent in the listeners of a frame; a frame whose frame time exceeds the frame period is an overrun</li>
+ * <li>the lateness of a frame is the delay between its scheduled start and its actual start; a frame late by more than a frame
+ * period is a late frame, run to catch up with real time</li>
+ * <li>the jitter of a frame is the difference between the interval separating its start from the start of the previous frame
+ * and the frame period</li>
+ * </ul>
+ * The lateness and jitter are only measured for the frames paced in real time.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class FrameStatistics {
+   private final double framePeriod;
+   private final long frames;
+   private final long steps;
+   private final long droppedFrames;
+   private final long overruns;
+   private final long lateFrames;
+   private final double elapsedTime;
+   private final double meanFrameTime;
+   private final double maxFrameTime;
+   private final double meanLateness;
+   private final double maxLateness;
+   private final double meanJitter;
+   private final double maxJitter;
+
+   FrameStatistics(double framePeriod, long frames, long steps, long droppedFrames, long overruns, long lateFrames, double elapsedTime,
+           double meanFrameTime, double maxFrameTime, double meanLateness, double maxLateness, double meanJitter, double maxJitter) {
+      this.framePeriod = framePeriod;
+      this.frames = frames;
+      this.steps = steps;
+      this.droppedFrames = droppedFrames;
+      this.overruns = overruns;
+      this.lateFrames = lateFrames;
+      this.elapsedTime = elapsedTime;
+      this.meanFrameTime = meanFrameTime;
+      this.maxFrameTime = maxFrameTime;
+      this.meanLateness = meanLateness;
+      this.maxLateness = maxLateness;
+      this.meanJitter = meanJitter;
+      this.maxJitter = maxJitter;
+   }
+
+   /**
+    * @return the frame period (sec)
+    */
+   public double getFramePeriod() {
+      return framePeriod;
+   }
+
+   /**
+    * @return the number of frames run
+    */
+   public long getFrames() {
+      return frames;
+   }
+
+   /**
+    * @return the number of sub-steps of the {@link FramePhase#SIMULATION} phase run
+    */
+   public long getSteps() {
+      return steps;
+   }
+
+   /**
+    * @return the number of frames dropped by the {@link OverrunPolicy} of the scheduler
+    */
+   public long getDroppedFrames() {
+      return droppedFrames;
+   }
+
+   /**
+    * @return the number of frames whose frame time exceeded the frame period
+    */
+   public long getOverruns() {
+      return overruns;
+   }
+
+   /**
+    * @return the number of frames started more than a frame period after their scheduled start
+    */
+   public long getLateFrames() {
+      return lateFrames;
+   }
+
+   /**
+    * @return the wall time elapsed since the statistics were started (sec)
+    */
+   public double getElapsedTime() {
+      return elapsedTime;
+   }
+
+   /**
+    * @return the number of frames run per second of wall time (Hz)
+    */
+   public double getFrameRate() {
+      return elapsedTime > 0 ? frames / elapsedTime : 0;
+   }
+
+   /**
+    * @return the simulated time per second of wall time, the simulated time being the number of sub-steps times the frame period
+    */
+   public double getTimeCompression() {
+      return elapsedTime > 0 ? steps * framePeriod / elapsedTime : 0;
+   }
+
+   /**
+    * @return the mean time spent in the listeners of a frame (sec)
+    */
+   public double getMeanFrameTime() {
+      return meanFrameTime;
+   }
+
+   /**
+    * @return the maximum time spent in the listeners of a frame (sec)
+    */
+   public double getMaxFrameTime() {
+      return maxFrameTime;
+   }
+
+   /**
+    * @return the mean delay between the scheduled and actual starts of the frames (sec)
+    */
+   public double getMeanLateness() {
+      return meanLateness;
+   }
+
+   /**
+    * @return the maximum delay between the scheduled and actual starts of the frames (sec)
+    */
+   public double getMaxLateness() {
+      return maxLateness;
+   }
+
+   /**
+    * @return the mean absolute difference between the intervals separating the starts of consecutive frames and the frame period (sec)
+    */
+   public double getMeanJitter() {
+      return meanJitter;
+   }
+
+   /**
+    * @return the maximum absolute difference between the intervals separating the starts of consecutive frames and the frame period (sec)
+    */
+   public double getMaxJitter() {
+      return maxJitter;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+
+      sb.append("Frames: ").append(frames).append(" in ").append(elapsedTime).append(" sec (").append(getFrameRate())
+              .append(" Hz, period ").append(framePeriod * 1000).append(" ms)\n");
+      sb.append("Steps: ").append(steps).append(" (time compression ").append(getTimeCompression()).append(")\n");
+      sb.append("Dropped frames: ").append(droppedFrames).append(", overruns: ").append(overruns).append(", late frames: ")
+              .append(lateFrames).append("\n");
+      sb.append("Frame time: mean ").append(meanFrameTime * 1000).append(" ms, max ").append(maxFrameTime * 1000).append(" ms\n");
+      sb.append("Lateness: mean ").append(meanLateness * 1000).append(" ms, max ").append(maxLateness * 1000).append(" ms\n");
+      sb.append("Jitter: mean ").append(meanJitter * 1000).append(" ms, max ").append(maxJitter * 1000).append(" ms\n");
+
+      return sb.toString();
+   }
+}
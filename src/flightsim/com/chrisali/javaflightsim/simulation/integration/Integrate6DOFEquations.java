@@ -25,10 +25,17 @@ import com.chrisali.javaflightsim.datatransfer.EnvironmentDataType;
 import com.chrisali.javaflightsim.simulation.aero.AccelAndMoments;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.MassModel;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.controls.laws.FlightControlSystem;
+import com.chrisali.javaflightsim.simulation.controls.laws.FlightSignal;
+import com.chrisali.javaflightsim.simulation.enviroment.Atmosphere;
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.Weather;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
 import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
 import com.chrisali.javaflightsim.simulation.setup.Options;
@@ -41,33 +48,40 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 
 /**
  * This class integrates all 12 6DOF (plus 2 latitude/longitude) equations numerically to obtain the aircraft's states.
- * The {@link ClassicalRungeKuttaIntegrator} is used to integrate over a period of time defined in {@link Integrate6DOFEquations#integratorConfig}.
- * It uses threading to delay the integration to emulate running at a real-time rate. The class outputs at each step using {@link Integrate6DOFEquations#logData()} to
- * generate a {@link Integrate6DOFEquations#logsOut} ArrayList of {@link Integrate6DOFEquations#simOut} EnumMaps containing simulation outputs.
- * These can be obtained using the proper getters for {@link Integrate6DOFEquations#logsOut} and {@link Integrate6DOFEquations#simOut}. Options are passed into the class to
- * allow the user to choose between various run-time options.
+ * Each call to {@link Integrate6DOFEquations#step()} integrates over a time step defined in {@link Integrate6DOFEquations#integratorConfig}
+ * with an {@link Integrator} selected by {@link Integrate6DOFEquations#setIntegrator(IntegratorType, double)}, which evaluates the full force
+ * model at each of its stages, and does not allocate any memory once the simulation is running.
+ * The steps are run at each frame of the {@link FrameScheduler} of the simulation, which paces them at a real-time rate unless {@link Options#ANALYSIS_MODE}
+ * is enabled, and on which the flight controls and data are sampled on the same frames. The class outputs at each step using {@link Integrate6DOFEquations#logData()} to
+ * append a row of simulation outputs to a columnar {@link FlightLog}.
+ * These can be obtained using {@link Integrate6DOFEquations#getLogsOut()} and {@link Integrate6DOFEquations#getSimOut()}, or received after each step by
+ * a {@link SimOutsListener}. The latest outputs are also published after each step to a lock-free {@link SimOutsBuffer}, from which other threads
+ * obtain a consistent copy without blocking the simulation. Options are passed into the class to allow the user to choose between various run-time options.
+ * <p>
+ * The time, running state and integrator configuration belong to each instance, so that several simulations can run concurrently
+ * in the same JVM (see {@link com.chrisali.javaflightsim.simulation.batch.BatchRunner}).</p>
  *
- * @see FirstOrderDifferentialEquations
- * @see ClassicalRungeKuttaIntegrator
  * @see AircraftBuilder
  * @see Options
  */
-public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener {
+public class Integrate6DOFEquations implements Runnable, FrameListener, EnvironmentDataListener {
    // 6DOF Integration Results
    private double[] linearVelocities = new double[3];
    private double[] NEDPosition = new double[3];
    private double[] eulerAngles = new double[3];
    private double[] angularRates = new double[3];
 
-   // Environment and Wind Parameters
-   private Map<EnvironmentParameters, Double> environmentParameters;
+   // Environment and Wind Parameters, indexed by EnvironmentParameters.ordinal()
+   private final double[] environmentParameters = new double[EnvironmentParameters.values().length];
+   private final Atmosphere atmosphere = new Atmosphere();
+   private final Weather weather = new Weather();
    private double gravity = Environment.getGravity();
    private double[] windParameters = new double[3];
+   private final double[] airVelocities = new double[3];
+   private final double[][] gustDirCosMat = new double[3][3];
    private double alphaDot = 0.0f;
    private double mach = 0.0f;
 
@@ -76,33 +90,59 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
    private double terrainHeight = 0.0f;
 
    // Forces and Moments
+   private final AccelAndMoments accelAndMoments;
    private double[] linearAccelerations = new double[3];
    private double[] totalMoments = new double[3];
 
-   // Simulation Controls (Joystick, Keyboard, etc.)
+   // Simulation Controls (Joystick, Keyboard, etc.), copied once per step into a primitive array indexed by FlightControlType.ordinal()
    private final Map<FlightControlType, Double> controls;
+   private final double[] controlValues = new double[FlightControlType.values().length];
+
+   // Flight control laws executed at the end of each step, and the signals they sense, indexed by FlightSignal.ordinal()
+   private FlightControlSystem flightControlSystem;
+   private final double[] flightSignals = new double[FlightSignal.values().length];
 
    // Integrator Fields
-   private ClassicalRungeKuttaIntegrator integrator;
+   private static final int[] VELOCITY_STATES = {0, 1, 2, 9, 10, 11};
    private final double[] sixDOFDerivatives = new double[14];
-   private double[] y = new double[14];
+   private final double[] y = new double[14];
    private double[] initialConditions = new double[14];
-
-   // Static fields for concurrency
-   private static double[] integratorConfig = new double[3];
-   private static double t;
+   private final SixDOFEquations equations = new SixDOFEquations();
+   private IntegratorType integratorType = IntegratorType.EULER;
+   private double integratorTolerance = IntegratorType.DEFAULT_TOLERANCE;
+   private Integrator integrator = integratorType.createIntegrator(y.length, VELOCITY_STATES, IntegratorType.DEFAULT_TOLERANCE);
+
+   // Preallocated buffers for the derivatives calculation
+   private final double[][] dirCosMat = new double[3][3];
+   private final double[] ned2LLA = new double[2];
+   private final double[] stepEulerAngles = new double[3];
+   private final double[] inertiaCoeffs;
+
+   // Time and integrator configuration of this simulation
+   private final double[] integratorConfig = new double[3];
+   private volatile double t;
+   private final FrameScheduler frameScheduler;
+   private volatile long frameIndex = -1;
 
    // Aircraft Properties
    private Aircraft aircraft;
    private Set<Engine> engineList;
-
-   // Output Logging
-   private List<Map<SimOuts, Double>> logsOut = Collections.synchronizedList(new ArrayList<Map<SimOuts, Double>>());
-   private Map<SimOuts, Double> simOut;
+   private final Engine[] engines;
+   private final MassModel massModel;
+
+   // Output Logging, with one row of simOutValues (indexed by SimOuts.ordinal()) appended after each step
+   private static final SimOuts[] THRUST_OUTS = {SimOuts.THRUST_1, SimOuts.THRUST_2, SimOuts.THRUST_3, SimOuts.THRUST_4};
+   private static final SimOuts[] RPM_OUTS = {SimOuts.RPM_1, SimOuts.RPM_2, SimOuts.RPM_3, SimOuts.RPM_4};
+   private static final SimOuts[] FUEL_FLOW_OUTS = {SimOuts.FUEL_FLOW_1, SimOuts.FUEL_FLOW_2, SimOuts.FUEL_FLOW_3, SimOuts.FUEL_FLOW_4};
+   private static final double UNLIMITED_FLIGHT_LOG_DURATION = 100.0;
+   private final FlightLog logsOut;
+   private final double[] simOutValues = new double[SimOuts.values().length];
+   private final List<SimOutsListener> simOutsListeners = new ArrayList<>();
+   private final SimOutsBuffer simOutsBuffer = new SimOutsBuffer();
 
    // Options
    private EnumSet<Options> options;
-   private static boolean running;
+   private volatile boolean running;
 
    /**
     * Creates the {@link Integrate6DOFEquations} object with references to {@link PhysicalFlightControls} and {@link SimulationController}
@@ -112,25 +152,74 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
     * @param simController
     */
    public Integrate6DOFEquations(Map<FlightControlType, Double> flightControls, SimulationController simController) {
+      this(flightControls,
+              simController.getAircraftBuilder(),
+              simController.getSimulationOptions(),
+              simController.getInitialConditions(),
+              simController.getIntegratorConfig(),
+              -1);
+   }
+
+   /**
+    * Creates the {@link Integrate6DOFEquations} object without any {@link SimulationController}, so that it can be run headless,
+    * for example by a {@link com.chrisali.javaflightsim.simulation.batch.BatchRunner}. The aircraft builder, controls, initial conditions and
+    * integrator configuration must not be shared with another simulation running concurrently.
+    *
+    * @param flightControls the flight controls, read at each step of integration
+    * @param ab the aircraft builder
+    * @param options the simulation options
+    * @param initialConditions the initial conditions
+    * @param integratorConfig the integrator configuration
+    * @param logCapacity the maximum number of rows held by the {@link FlightLog}, or a negative value to hold the whole run (or the last
+    * 100 sec of flight in {@link Options#UNLIMITED_FLIGHT} without {@link Options#ANALYSIS_MODE}). A run of more than
+    * {@link FlightLog#MAX_CAPACITY} steps can not be held entirely: this is reported on the error stream, and only its last steps are kept
+    */
+   public Integrate6DOFEquations(Map<FlightControlType, Double> flightControls,
+           AircraftBuilder ab,
+           EnumSet<Options> options,
+           EnumMap<InitialConditions, Double> initialConditions,
+           EnumMap<IntegratorConfig, Double> integratorConfig,
+           int logCapacity) {
       controls = flightControls;
-      aircraft = simController.getAircraftBuilder().getAircraft();
-      engineList = simController.getAircraftBuilder().getEngineList();
-      options = simController.getSimulationOptions();
+      aircraft = ab.getAircraft();
+      engineList = ab.getEngineList();
+      engines = engineList.toArray(new Engine[engineList.size()]);
+      this.options = options;
 
       // Use Apache Commons Lang to convert EnumMap values into primitive double[]
-      initialConditions = ArrayUtils.toPrimitive(simController.getInitialConditions().values().toArray(new Double[initialConditions.length]));
-      integratorConfig = ArrayUtils.toPrimitive(simController.getIntegratorConfig().values().toArray(new Double[integratorConfig.length]));
+      this.initialConditions = ArrayUtils.toPrimitive(initialConditions.values().toArray(new Double[this.initialConditions.length]));
+      System.arraycopy(ArrayUtils.toPrimitive(integratorConfig.values().toArray(new Double[this.integratorConfig.length])), 0,
+              this.integratorConfig, 0, this.integratorConfig.length);
 
       // Allows simulation to run forever in pilot in the loop simulation if ANALYSIS_MODE not enabled
       if (!options.contains(Options.ANALYSIS_MODE) && options.contains(Options.UNLIMITED_FLIGHT)) {
-         integratorConfig[2] = Double.POSITIVE_INFINITY;
+         this.integratorConfig[2] = Double.POSITIVE_INFINITY;
       }
 
-      // Set up running parameters for integration
-      t = integratorConfig[0];
+      // Set up running parameters for integration, with a step of integration at each frame of the scheduler
+      t = this.integratorConfig[0];
+      frameScheduler = new FrameScheduler(this.integratorConfig[1], !options.contains(Options.ANALYSIS_MODE));
+      frameScheduler.addFrameListener(this, FramePhase.SIMULATION);
+
+      // Keep a maximum of 100 sec of flight data in an unlimited flight, else the whole run
+      if (logCapacity < 0) {
+         if (Double.isInfinite(this.integratorConfig[2])) {
+            logCapacity = (int) Math.ceil(UNLIMITED_FLIGHT_LOG_DURATION / this.integratorConfig[1]) + 1;
+         } else {
+            double rows = Math.ceil((this.integratorConfig[2] - this.integratorConfig[0]) / this.integratorConfig[1]) + 1;
+            if (rows > FlightLog.MAX_CAPACITY) {
+               System.err.println("The flight log can not hold the " + (long) rows + " steps of the run! Only the last "
+                       + FlightLog.MAX_CAPACITY + " steps will be kept.");
+               rows = FlightLog.MAX_CAPACITY;
+            }
+            logCapacity = (int) rows;
+         }
+      }
+      logsOut = new FlightLog(logCapacity);
 
-      // Use fourth-order Runge-Kutta numerical integration with time step of dt
-      integrator = new ClassicalRungeKuttaIntegrator(integratorConfig[1]);
+      // The mass properties change as fuel is burned, and the mass model updates the inertia coefficients in place
+      massModel = new MassModel(aircraft);
+      inertiaCoeffs = massModel.getInertiaCoefficients();
 
       // Set up ground reaction integration
       groundReaction = new IntegrateGroundReaction(linearVelocities,
@@ -139,77 +228,142 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
               angularRates,
               windParameters,
               sixDOFDerivatives,
-              integratorConfig,
+              this.integratorConfig,
               aircraft,
               controls);
 
-      // Initialize accelerations and moments, and calculate initial data members' values
-      AccelAndMoments.init(aircraft);
-      updateDataMembers();
+      // Initialize accelerations and moments, and calculate initial data members' values and derivatives at the initial conditions
+      accelAndMoments = new AccelAndMoments(ab.getAerodynamicModel());
+      System.arraycopy(this.initialConditions, 0, y, 0, y.length);
+      resetMass();
+      updateStabilized(y);
    }
 
    /**
-    * Creates the 14 (12 6DOF + 2 lat/lon) state derivatives that {@link Integrate6DOFEquations#integrator} uses to numerically integrate. It loops through {@link Integrate6DOFEquations#sixDOFDerivatives} to
-    * assign values to yDot[], which is used in the single step {@link Integrate6DOFEquations#integrator} in {@link Integrate6DOFEquations#run()}
-    *
-    * @see FirstOrderDifferentialEquations
-    * @see Integrate6DOFEquations
-    * @see ClassicalRungeKuttaIntegrator
+    * Refills the tanks and restores the mass properties of the loaded aircraft.
     */
-   private class SixDOFEquations implements FirstOrderDifferentialEquations {
-      private SixDOFEquations() {
+   private void resetMass() {
+      massModel.reset();
+      groundReaction.setMass(massModel.getMass());
+      for (Engine engine : engines) {
+         engine.setFuelAvailable(massModel.hasFuel());
       }
+   }
 
-      public void computeDerivatives(double t, double[] y, double[] yDot) {
-         for (int i = 0; i < yDot.length; i++) {
-            yDot[i] = sixDOFDerivatives[i];
-         }
+   /**
+    * Updates data members' values and derivatives at the end of a step with the engines held at their equilibrium, so that the simulation
+    * starts with the engines stabilized at the initial conditions and controls, and with the flight control laws initialized from them.
+    *
+    * @param y the states
+    */
+   private void updateStabilized(double[] y) {
+      if (flightControlSystem != null) {
+         flightControlSystem.reset();
       }
-
-      public int getDimension() {
-         return 14;
+      for (Engine engine : engines) {
+         engine.setSteadyState(true);
+      }
+      updateDataMembers(y, sixDOFDerivatives, true);
+      for (Engine engine : engines) {
+         engine.setSteadyState(false);
       }
    }
 
    /**
-    * Recalculates the 14 (12 6DOF + 2 lat/lon) state derivatives based on the newly calculated accelerations and moments accomplished in {@link Integrate6DOFEquations#updateDataMembers(double[], double)}.
+    * Selects the integrator used by {@link Integrate6DOFEquations#step()}. It should be called before the simulation is run.
+    *
+    * @param integratorType the type of integrator
+    * @param tolerance the tolerance of the local error of each step, used by adaptive integrators
+    */
+   public void setIntegrator(IntegratorType integratorType, double tolerance) {
+      this.integratorType = integratorType;
+      this.integratorTolerance = tolerance;
+      this.integrator = integratorType.createIntegrator(y.length, VELOCITY_STATES, tolerance);
+   }
+
+   /**
+    * @return the tolerance of the integrator, used by the adaptive integrators
+    */
+   public double getIntegratorTolerance() {
+      return integratorTolerance;
+   }
+
+   /**
+    * @return the type of integrator used by {@link Integrate6DOFEquations#step()}
+    */
+   public IntegratorType getIntegratorType() {
+      return integratorType;
+   }
+
+   /**
+    * @return the integrator used by {@link Integrate6DOFEquations#step()}
+    */
+   public Integrator getIntegrator() {
+      return integrator;
+   }
+
+   /**
+    * Recalculates the 14 (12 6DOF + 2 lat/lon) state derivatives of the states y based on the newly calculated accelerations and moments accomplished in
+    * {@link Integrate6DOFEquations#updateDataMembers(double[], double[], boolean)}, and writes them into yDot.
     * The equations are calculated with the help of methods in {@link SixDOFUtilities} to convert coordinate frames and calculate inertia parameters
     *
     * @see Source: <i>Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
     */
-   private void updateDerivatives(double[] y) {
-      double[][] dirCosMat = SixDOFUtilities.body2Ned(new double[]{ y[6], y[7], y[8] });      // create DCM for NED equations ([column][row])
-      double[] inertiaCoeffs = SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues());
-      double[] ned2LLA = SixDOFUtilities.ned2LLA(y);
-      double[] windSpdNED = new double[]{ environmentParameters.get(EnvironmentParameters.WIND_SPEED_N),
-         environmentParameters.get(EnvironmentParameters.WIND_SPEED_E),
-         environmentParameters.get(EnvironmentParameters.WIND_SPEED_D) };
+   private void updateDerivatives(double[] y, double[] yDot) {
+      for (int i = 0; i < stepEulerAngles.length; i++) {
+         stepEulerAngles[i] = y[i + 6];
+      }
+      SixDOFUtilities.body2Ned(stepEulerAngles, dirCosMat);      // update DCM for NED equations ([column][row])
+      SixDOFUtilities.ned2LLA(y, ned2LLA);
+      double windSpdN = environmentParameters[EnvironmentParameters.WIND_SPEED_N.ordinal()];
+      double windSpdE = environmentParameters[EnvironmentParameters.WIND_SPEED_E.ordinal()];
+      double windSpdD = environmentParameters[EnvironmentParameters.WIND_SPEED_D.ordinal()];
 
-      sixDOFDerivatives[0] = (y[11] * y[1]) - (y[10] * y[2]) - (gravity * Math.sin(y[7])) + linearAccelerations[0];    // u (ft/sec)
-      sixDOFDerivatives[1] = (y[9] * y[2]) - (y[11] * y[0]) + (gravity * Math.sin(y[6]) * Math.cos(y[7])) + linearAccelerations[1];    // v (ft/sec)
-      sixDOFDerivatives[2] = (y[10] * y[0]) - (y[9] * y[1]) + (gravity * Math.cos(y[6]) * Math.cos(y[7])) + linearAccelerations[2];    // w (ft/sec)
+      SixDOFUtilities.calculateBodyDerivatives(y, gravity, linearAccelerations, totalMoments, inertiaCoeffs, yDot);    // u, v, w, p, q, r
 
-      sixDOFDerivatives[3] = (y[0] * dirCosMat[0][0] + y[1] * dirCosMat[0][1] + y[2] * dirCosMat[0][2]) + windSpdNED[0];    // N (ft)
-      sixDOFDerivatives[4] = (y[0] * dirCosMat[1][0] + y[1] * dirCosMat[1][1] + y[2] * dirCosMat[1][2]) + windSpdNED[1];    // E (ft)
-      sixDOFDerivatives[5] = -1 * (y[0] * dirCosMat[2][0] + y[1] * dirCosMat[2][1] + y[2] * dirCosMat[2][2]) + windSpdNED[2];    // D (ft)
+      yDot[3] = (y[0] * dirCosMat[0][0] + y[1] * dirCosMat[0][1] + y[2] * dirCosMat[0][2]) + windSpdN;    // N (ft)
+      yDot[4] = (y[0] * dirCosMat[1][0] + y[1] * dirCosMat[1][1] + y[2] * dirCosMat[1][2]) + windSpdE;    // E (ft)
+      yDot[5] = -1 * (y[0] * dirCosMat[2][0] + y[1] * dirCosMat[2][1] + y[2] * dirCosMat[2][2]) + windSpdD;    // D (ft)
 
-      sixDOFDerivatives[6] = y[9] + (Math.tan(y[7]) * ((y[10] * Math.sin(y[6])) + (y[11] * Math.cos(y[6])))); // phi (rad)
-      sixDOFDerivatives[7] = (y[10] * Math.cos(y[6])) - (y[11] * Math.sin(y[6]));     			         // theta (rad)
-      sixDOFDerivatives[8] = ((y[10] * Math.sin(y[6])) + (y[11] * Math.cos(y[6]))) / Math.cos(y[7]);          // psi (rad)
+      yDot[6] = y[9] + (Math.tan(y[7]) * ((y[10] * Math.sin(y[6])) + (y[11] * Math.cos(y[6])))); // phi (rad)
+      yDot[7] = (y[10] * Math.cos(y[6])) - (y[11] * Math.sin(y[6]));     			         // theta (rad)
+      yDot[8] = ((y[10] * Math.sin(y[6])) + (y[11] * Math.cos(y[6]))) / Math.cos(y[7]);          // psi (rad)
 
-      sixDOFDerivatives[9] = ((inertiaCoeffs[1] * y[9] * y[10]) - (inertiaCoeffs[0] * y[10]) * y[11]) + (inertiaCoeffs[2] * totalMoments[0]) + (inertiaCoeffs[3] * totalMoments[2]);     // p (rad/sec)
-      sixDOFDerivatives[10] = (inertiaCoeffs[4] * y[9] * y[11]) - (inertiaCoeffs[5] * ((y[9] * y[9]) - (y[11] * y[11]))) + (inertiaCoeffs[6] * totalMoments[1]);     // q (rad/sec)
-      sixDOFDerivatives[11] = ((inertiaCoeffs[7] * y[9] * y[10]) - (inertiaCoeffs[1] * y[10] * y[11])) + (inertiaCoeffs[3] * totalMoments[0]) + (inertiaCoeffs[8] * totalMoments[2]);     // r (rad/sec)
+      yDot[12] = yDot[3] * ned2LLA[0]; // Latitude  (rad)
+      yDot[13] = yDot[4] * ned2LLA[1]; // Longitude (rad)
+   }
 
-      sixDOFDerivatives[12] = sixDOFDerivatives[3] * ned2LLA[0]; // Latitude  (rad)
-      sixDOFDerivatives[13] = sixDOFDerivatives[4] * ned2LLA[1]; // Longitude (rad)
+   /**
+    * Returns the velocities of the aircraft relative to the air, which are the linear velocities less the turbulence and gusts of the
+    * {@link Weather} in body axes. The linear velocities are already relative to the steady wind.
+    */
+   private double[] updateAirVelocities() {
+      double gustN = environmentParameters[EnvironmentParameters.GUST_SPEED_N.ordinal()];
+      double gustE = environmentParameters[EnvironmentParameters.GUST_SPEED_E.ordinal()];
+      double gustD = environmentParameters[EnvironmentParameters.GUST_SPEED_D.ordinal()];
+      if (gustN == 0 && gustE == 0 && gustD == 0) {
+         return linearVelocities;
+      }
+
+      // NED to body is the transpose of body to NED
+      SixDOFUtilities.body2Ned(eulerAngles, gustDirCosMat);
+      for (int i = 0; i < airVelocities.length; i++) {
+         airVelocities[i] = linearVelocities[i] - (gustDirCosMat[0][i] * gustN + gustDirCosMat[1][i] * gustE + gustDirCosMat[2][i] * gustD);
+      }
+      return airVelocities;
    }
 
    /**
     * Runs various helper methods to update data members in {@link Integrate6DOFEquations}. It updates the 6DOF states, environment parameters, controls, engine state, and finally
-    * calculates accelerations and moments to be used in {@link Integrate6DOFEquations#updateDerivatives(double[])}
+    * calculates accelerations and moments to be used in {@link Integrate6DOFEquations#updateDerivatives(double[], double[])}.
+    * It is called for the states of each stage of the integrator, and for the states at the end of each step; the landing gear,
+    * which has its own integration, is only advanced at the end of each step, and its forces are held over the stages of the next step.
+    *
+    * @param y the states
+    * @param yDot the array to fill with the derivatives of the states
+    * @param endOfStep true if y are the states at the end of a step
     */
-   private void updateDataMembers() {
+   private void updateDataMembers(double[] y, double[] yDot, boolean endOfStep) {
       // Assign indices in yTemp array to 6DOF state arrays
       for (int i = 0; i < linearVelocities.length; i++) {
          linearVelocities[i] = y[i];
@@ -224,15 +378,28 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
       eulerAngles = SaturationLimits.piBounding(eulerAngles, angularRates);
       angularRates = SaturationLimits.limitAngularRates(angularRates);
 
-      // Update wind parameters
-      windParameters = SixDOFUtilities.calculateWindParameters(linearVelocities);
-
       // Update environment
-      environmentParameters = Environment.getAndUpdateEnvironmentParams(NEDPosition);
+      atmosphere.update(NEDPosition[2], environmentParameters);
+      weather.update(NEDPosition[2], environmentParameters);
+
+      // Update wind parameters in place, as the ground reaction holds a reference to this array
+      SixDOFUtilities.calculateWindParameters(updateAirVelocities(), windParameters);
+
+      // Update controls
+      FlightControlsUtilities.toArray(controls, controlValues);
+
+      // Execute the flight control laws at the end of each step; their outputs are held over the stages of the next step
+      if (flightControlSystem != null) {
+         if (endOfStep) {
+            updateFlightSignals();
+            flightControlSystem.execute(flightSignals, controlValues, integratorConfig[1]);
+         }
+         flightControlSystem.apply(controlValues);
+      }
 
       // Update all engines in engine list
-      for (Engine engine : engineList) {
-         engine.updateEngineState(controls, environmentParameters, windParameters);
+      for (Engine engine : engines) {
+         engine.updateEngineState(controlValues, environmentParameters, windParameters);
       }
 
       // Update alphaDot
@@ -243,256 +410,389 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
 
       // Integrate another step of ground reaction only if within 100 ft of ground
       double heightAGL = NEDPosition[2] - terrainHeight;
-      if (heightAGL < 100) {
-         groundReaction.integrateStep(terrainHeight);
+      if (endOfStep && heightAGL < 100) {
+         // Upward acceleration due to gravity and to the aerodynamic and engine forces of the last evaluation, without the ground reaction
+         double[] groundForces = groundReaction.getTotalGroundForces();
+         double mass = massModel.getMass();
+         double verticalAcceleration = -gravity;
+         for (int i = 0; i < 3; i++) {
+            verticalAcceleration -= dirCosMat[2][i] * (linearAccelerations[i] - groundForces[i] / mass);
+         }
+         groundReaction.integrateStep(terrainHeight, verticalAcceleration);
       }
 
       //System.out.println(groundReaction);
-      // Update accelerations
-      linearAccelerations = AccelAndMoments.calculateLinearAccelerations(windParameters,
-              angularRates,
-              environmentParameters,
-              controls,
-              alphaDot,
-              engineList,
-              aircraft,
-              groundReaction,
-              heightAGL);
-      // Update moments
-      totalMoments = AccelAndMoments.calculateTotalMoments(windParameters,
+      // Update accelerations and moments
+      accelAndMoments.calculateAccelAndMoments(windParameters,
               angularRates,
               environmentParameters,
-              controls,
+              controlValues,
               alphaDot,
-              engineList,
+              engines,
               aircraft,
+              massModel,
               groundReaction,
-              heightAGL);
+              heightAGL,
+              linearAccelerations,
+              totalMoments);
 
       // Recalculates derivatives for next step
-      updateDerivatives(y);
+      updateDerivatives(y, yDot);
    }
 
    /**
-    * Adds simulation data to the ArrayList {@link Integrate6DOFEquations#getLogsOut()} after each successful step of integration
+    * Updates the signals sensed by the {@link FlightControlSystem} from the states and wind parameters.
+    */
+   private void updateFlightSignals() {
+      for (int i = 0; i < linearVelocities.length; i++) {
+         flightSignals[i] = linearVelocities[i];
+         flightSignals[i + 3] = NEDPosition[i];
+         flightSignals[i + 6] = eulerAngles[i];
+         flightSignals[i + 9] = angularRates[i];
+      }
+      flightSignals[FlightSignal.TAS.ordinal()] = windParameters[0];
+      flightSignals[FlightSignal.BETA.ordinal()] = windParameters[1];
+      flightSignals[FlightSignal.ALPHA.ordinal()] = windParameters[2];
+
+      double cosTheta = Math.cos(eulerAngles[1]);
+      flightSignals[FlightSignal.VERTICAL_SPEED.ordinal()] = linearVelocities[0] * Math.sin(eulerAngles[1])
+              - linearVelocities[1] * Math.sin(eulerAngles[0]) * cosTheta
+              - linearVelocities[2] * Math.cos(eulerAngles[0]) * cosTheta;
+   }
+
+   /**
+    * Adds simulation data to the {@link FlightLog} {@link Integrate6DOFEquations#getLogsOut()} after each successful step of integration
     * for plotting and outputs to the console, if set in {@link Integrate6DOFEquations#options}.
-    * The data calculated in each step of integration is available in the EnumMap {@link Integrate6DOFEquations#getSimOut()}. All
-    * collections are synchronized to mitigate data access problems from threading
+    * The data calculated in each step of integration is written into the preallocated {@link Integrate6DOFEquations#simOutValues} array,
+    * which is then appended to the log as a new row; no memory is allocated
     */
    private void logData() {
-      // Need to initialize within logData(), else plots won't display correctly
-      simOut = Collections.synchronizedMap(new EnumMap<SimOuts, Double>(SimOuts.class));
-
-      synchronized (simOut) {
-         // Assign EnumMap with data members from integration
-         simOut.put(SimOuts.TIME, t);
-
-         //6DOF States
-         simOut.put(SimOuts.U, linearVelocities[0]);
-         simOut.put(SimOuts.V, linearVelocities[1]);
-         simOut.put(SimOuts.W, linearVelocities[2]);
-         simOut.put(SimOuts.NORTH, NEDPosition[0]);
-         simOut.put(SimOuts.EAST, NEDPosition[1]);
-         simOut.put(SimOuts.ALT, NEDPosition[2]);
-         simOut.put(SimOuts.PHI, eulerAngles[0]);
-         simOut.put(SimOuts.THETA, eulerAngles[1]);
-         simOut.put(SimOuts.PSI, eulerAngles[2]);
-         simOut.put(SimOuts.P, angularRates[0]);
-         simOut.put(SimOuts.Q, angularRates[1]);
-         simOut.put(SimOuts.R, angularRates[2]);
-
-         // Earth Position/Velocity
-         simOut.put(SimOuts.LAT, y[12]);
-         simOut.put(SimOuts.LAT_DOT, sixDOFDerivatives[12]);
-         simOut.put(SimOuts.LON, y[13]);
-         simOut.put(SimOuts.LON_DOT, sixDOFDerivatives[13]);
-
-         // Wind Parameters
-         simOut.put(SimOuts.TAS, windParameters[0]);
-         simOut.put(SimOuts.BETA, windParameters[1]);
-         simOut.put(SimOuts.ALPHA, windParameters[2] * -1);
-
-         simOut.put(SimOuts.ALPHA_DOT, alphaDot);
-         simOut.put(SimOuts.MACH, mach);
-
-         // Accelerations
-         simOut.put(SimOuts.A_X, linearAccelerations[0]);
-         simOut.put(SimOuts.A_Y, linearAccelerations[1]);
-         simOut.put(SimOuts.A_Z, linearAccelerations[2]);
-
-         simOut.put(SimOuts.AN_X, (sixDOFDerivatives[0] / gravity));
-         simOut.put(SimOuts.AN_Y, (sixDOFDerivatives[1] / gravity));
-         simOut.put(SimOuts.AN_Z, ((sixDOFDerivatives[2] / gravity) + 1.0));
-
-         // Moments
-         simOut.put(SimOuts.L, totalMoments[0]);
-         simOut.put(SimOuts.M, totalMoments[1]);
-         simOut.put(SimOuts.N, totalMoments[2]);
-
-         // 6DOF Derivatives
-         simOut.put(SimOuts.U_DOT, sixDOFDerivatives[0]);
-         simOut.put(SimOuts.V_DOT, sixDOFDerivatives[1]);
-         simOut.put(SimOuts.W_DOT, sixDOFDerivatives[2]);
-         simOut.put(SimOuts.NORTH_DOT, sixDOFDerivatives[3]);
-         simOut.put(SimOuts.EAST_DOT, sixDOFDerivatives[4]);
-         simOut.put(SimOuts.ALT_DOT, (sixDOFDerivatives[5] * 60));
-         simOut.put(SimOuts.PHI_DOT, sixDOFDerivatives[6]);
-         simOut.put(SimOuts.THETA_DOT, sixDOFDerivatives[7]);
-         simOut.put(SimOuts.PSI_DOT, sixDOFDerivatives[8]);
-         simOut.put(SimOuts.P_DOT, sixDOFDerivatives[9]);
-         simOut.put(SimOuts.Q_DOT, sixDOFDerivatives[10]);
-         simOut.put(SimOuts.R_DOT, sixDOFDerivatives[11]);
-
-         // Engine(s)
-         simOut.put(SimOuts.THRUST_1, 0.0);
-         simOut.put(SimOuts.RPM_1, 0.0);
-         simOut.put(SimOuts.FUEL_FLOW_1, 0.0);
-         simOut.put(SimOuts.THRUST_2, 0.0);
-         simOut.put(SimOuts.RPM_2, 0.0);
-         simOut.put(SimOuts.FUEL_FLOW_2, 0.0);
-         simOut.put(SimOuts.THRUST_3, 0.0);
-         simOut.put(SimOuts.RPM_3, 0.0);
-         simOut.put(SimOuts.FUEL_FLOW_3, 0.0);
-         simOut.put(SimOuts.THRUST_4, 0.0);
-         simOut.put(SimOuts.RPM_4, 0.0);
-         simOut.put(SimOuts.FUEL_FLOW_4, 0.0);
-
-         for (Engine engine : engineList) {
-            int engineNumber = engine.getEngineNumber();
-
-            simOut.put(Enum.valueOf(SimOuts.class, "THRUST_" + engineNumber), engine.getThrust()[0]);
-            simOut.put(Enum.valueOf(SimOuts.class, "RPM_" + engineNumber), engine.getRPM());
-            simOut.put(Enum.valueOf(SimOuts.class, "FUEL_FLOW_" + engineNumber), engine.getFuelFlow());
-         }
+      put(SimOuts.TIME, t);
+
+      //6DOF States
+      put(SimOuts.U, linearVelocities[0]);
+      put(SimOuts.V, linearVelocities[1]);
+      put(SimOuts.W, linearVelocities[2]);
+      put(SimOuts.NORTH, NEDPosition[0]);
+      put(SimOuts.EAST, NEDPosition[1]);
+      put(SimOuts.ALT, NEDPosition[2]);
+      put(SimOuts.PHI, eulerAngles[0]);
+      put(SimOuts.THETA, eulerAngles[1]);
+      put(SimOuts.PSI, eulerAngles[2]);
+      put(SimOuts.P, angularRates[0]);
+      put(SimOuts.Q, angularRates[1]);
+      put(SimOuts.R, angularRates[2]);
+
+      // Earth Position/Velocity
+      put(SimOuts.LAT, y[12]);
+      put(SimOuts.LAT_DOT, sixDOFDerivatives[12]);
+      put(SimOuts.LON, y[13]);
+      put(SimOuts.LON_DOT, sixDOFDerivatives[13]);
+
+      // Wind Parameters
+      put(SimOuts.TAS, windParameters[0]);
+      put(SimOuts.BETA, windParameters[1]);
+      put(SimOuts.ALPHA, windParameters[2] * -1);
+
+      put(SimOuts.ALPHA_DOT, alphaDot);
+      put(SimOuts.MACH, mach);
+
+      // Accelerations
+      put(SimOuts.A_X, linearAccelerations[0]);
+      put(SimOuts.A_Y, linearAccelerations[1]);
+      put(SimOuts.A_Z, linearAccelerations[2]);
+
+      put(SimOuts.AN_X, (sixDOFDerivatives[0] / gravity));
+      put(SimOuts.AN_Y, (sixDOFDerivatives[1] / gravity));
+      put(SimOuts.AN_Z, ((sixDOFDerivatives[2] / gravity) + 1.0));
+
+      // Moments
+      put(SimOuts.L, totalMoments[0]);
+      put(SimOuts.M, totalMoments[1]);
+      put(SimOuts.N, totalMoments[2]);
+
+      // 6DOF Derivatives
+      put(SimOuts.U_DOT, sixDOFDerivatives[0]);
+      put(SimOuts.V_DOT, sixDOFDerivatives[1]);
+      put(SimOuts.W_DOT, sixDOFDerivatives[2]);
+      put(SimOuts.NORTH_DOT, sixDOFDerivatives[3]);
+      put(SimOuts.EAST_DOT, sixDOFDerivatives[4]);
+      put(SimOuts.ALT_DOT, (sixDOFDerivatives[5] * 60));
+      put(SimOuts.PHI_DOT, sixDOFDerivatives[6]);
+      put(SimOuts.THETA_DOT, sixDOFDerivatives[7]);
+      put(SimOuts.PSI_DOT, sixDOFDerivatives[8]);
+      put(SimOuts.P_DOT, sixDOFDerivatives[9]);
+      put(SimOuts.Q_DOT, sixDOFDerivatives[10]);
+      put(SimOuts.R_DOT, sixDOFDerivatives[11]);
+
+      // Engine(s)
+      for (int i = 0; i < THRUST_OUTS.length; i++) {
+         put(THRUST_OUTS[i], 0.0);
+         put(RPM_OUTS[i], 0.0);
+         put(FUEL_FLOW_OUTS[i], 0.0);
+      }
+
+      for (Engine engine : engines) {
+         int engineIndex = engine.getEngineNumber() - 1;
 
-         // Controls
-         simOut.put(SimOuts.ELEVATOR, controls.get(FlightControlType.ELEVATOR));
-         simOut.put(SimOuts.AILERON, controls.get(FlightControlType.AILERON));
-         simOut.put(SimOuts.RUDDER, controls.get(FlightControlType.RUDDER));
-         simOut.put(SimOuts.THROTTLE_1, controls.get(FlightControlType.THROTTLE_1));
-         simOut.put(SimOuts.THROTTLE_2, controls.get(FlightControlType.THROTTLE_2));
-         simOut.put(SimOuts.THROTTLE_3, controls.get(FlightControlType.THROTTLE_3));
-         simOut.put(SimOuts.THROTTLE_4, controls.get(FlightControlType.THROTTLE_4));
-         simOut.put(SimOuts.PROPELLER_1, controls.get(FlightControlType.PROPELLER_1));
-         simOut.put(SimOuts.PROPELLER_2, controls.get(FlightControlType.PROPELLER_2));
-         simOut.put(SimOuts.PROPELLER_3, controls.get(FlightControlType.PROPELLER_3));
-         simOut.put(SimOuts.PROPELLER_4, controls.get(FlightControlType.PROPELLER_4));
-         simOut.put(SimOuts.MIXTURE_1, controls.get(FlightControlType.MIXTURE_1));
-         simOut.put(SimOuts.MIXTURE_2, controls.get(FlightControlType.MIXTURE_2));
-         simOut.put(SimOuts.MIXTURE_3, controls.get(FlightControlType.MIXTURE_3));
-         simOut.put(SimOuts.MIXTURE_4, controls.get(FlightControlType.MIXTURE_4));
-         simOut.put(SimOuts.FLAPS, controls.get(FlightControlType.FLAPS));
-         simOut.put(SimOuts.GEAR, controls.get(FlightControlType.GEAR));
+         put(THRUST_OUTS[engineIndex], engine.getThrust()[0]);
+         put(RPM_OUTS[engineIndex], engine.getRPM());
+         put(FUEL_FLOW_OUTS[engineIndex], engine.getFuelFlow());
       }
 
-      synchronized (logsOut) {
-         // Removes the first entry in logsOut to keep a maximum of 100 sec of flight data in UNLIMITED_FLIGHT
-         if (options.contains(Options.UNLIMITED_FLIGHT) & t >= 100 & logsOut.size() > 0) {
-            logsOut.remove(0);
-         }
+      // Mass properties
+      put(SimOuts.FUEL_WEIGHT, massModel.getFuelWeight());
+      put(SimOuts.WEIGHT, massModel.getWeight());
+      put(SimOuts.CG_X, massModel.getCenterOfGravity()[0]);
+
+      // Controls
+      put(SimOuts.ELEVATOR, controlValues[FlightControlType.ELEVATOR.ordinal()]);
+      put(SimOuts.AILERON, controlValues[FlightControlType.AILERON.ordinal()]);
+      put(SimOuts.RUDDER, controlValues[FlightControlType.RUDDER.ordinal()]);
+      put(SimOuts.THROTTLE_1, controlValues[FlightControlType.THROTTLE_1.ordinal()]);
+      put(SimOuts.THROTTLE_2, controlValues[FlightControlType.THROTTLE_2.ordinal()]);
+      put(SimOuts.THROTTLE_3, controlValues[FlightControlType.THROTTLE_3.ordinal()]);
+      put(SimOuts.THROTTLE_4, controlValues[FlightControlType.THROTTLE_4.ordinal()]);
+      put(SimOuts.PROPELLER_1, controlValues[FlightControlType.PROPELLER_1.ordinal()]);
+      put(SimOuts.PROPELLER_2, controlValues[FlightControlType.PROPELLER_2.ordinal()]);
+      put(SimOuts.PROPELLER_3, controlValues[FlightControlType.PROPELLER_3.ordinal()]);
+      put(SimOuts.PROPELLER_4, controlValues[FlightControlType.PROPELLER_4.ordinal()]);
+      put(SimOuts.MIXTURE_1, controlValues[FlightControlType.MIXTURE_1.ordinal()]);
+      put(SimOuts.MIXTURE_2, controlValues[FlightControlType.MIXTURE_2.ordinal()]);
+      put(SimOuts.MIXTURE_3, controlValues[FlightControlType.MIXTURE_3.ordinal()]);
+      put(SimOuts.MIXTURE_4, controlValues[FlightControlType.MIXTURE_4.ordinal()]);
+      put(SimOuts.FLAPS, controlValues[FlightControlType.FLAPS.ordinal()]);
+      put(SimOuts.GEAR, controlValues[FlightControlType.GEAR.ordinal()]);
+
+      // Add output step to the log; once full, the log overwrites its oldest row
+      logsOut.append(simOutValues);
+      simOutsBuffer.publish(simOutValues, frameIndex);
+
+      for (int i = 0; i < simOutsListeners.size(); i++) {
+         simOutsListeners.get(i).onSimOutsReceived(simOutValues);
+      }
+   }
+
+   private void put(SimOuts simOut, double value) {
+      simOutValues[simOut.ordinal()] = value;
+   }
+
+   /**
+    * Runs a single step of integration of the 6DOF equations over dt seconds with the selected {@link Integrator}, then updates data members'
+    * values and recalculates derivatives for the next step. The derivatives calculated at the end of the previous step are the first stage
+    * of the integrator. All states, derivatives, environment values and controls are kept in preallocated primitive arrays, so this method
+    * does not allocate any memory
+    */
+   public void step() {
+      integrator.integrate(equations, t, initialConditions, sixDOFDerivatives, integratorConfig[1], y);
+
+      // Advance the turbulence and gusts, held over the stages of the next step
+      weather.advance(integratorConfig[1], windParameters[0], y[5] - terrainHeight, y[8]);
+
+      // Advance the dynamic states of the engines (RPM, propeller pitch), held over the stages of the next step
+      double fuelFlow = 0;
+      for (Engine engine : engines) {
+         engine.advance(integratorConfig[1]);
+         fuelFlow += engine.getFuelFlow();
+      }
 
-         // Add output step to logging arrayList
-         logsOut.add(simOut);
+      // Burn the fuel used during the step; the center of gravity and the inertia are only recomputed past a change of mass
+      if (massModel.burnFuel(fuelFlow, integratorConfig[1])) {
+         groundReaction.setMass(massModel.getMass());
+         if (!massModel.hasFuel()) {
+            for (Engine engine : engines) {
+               engine.setFuelAvailable(false);
+            }
+         }
       }
+
+      // Update data members' values
+      updateDataMembers(y, sixDOFDerivatives, true);
+
+      // Update initial conditions for next step of integration
+      System.arraycopy(y, 0, initialConditions, 0, y.length);
    }
 
    /**
-    * Runs {@link Integrate6DOFEquations} integration loop by calling the {@link ClassicalRungeKuttaIntegrator#singleStep(FirstOrderDifferentialEquations, double, double[], double)}
-    * method on each iteration of the loop as long as {@link Options#PAUSED} isn't enabled
+    * Runs the {@link Integrate6DOFEquations} integration loop on the {@link FrameScheduler} of the simulation, which calls
+    * {@link Integrate6DOFEquations#onFrame(long)} at each frame, until the end time of the {@link IntegratorConfig} is reached or
+    * {@link Integrate6DOFEquations#setRunning(boolean)} is set to false
     *
     * @see java.lang.Runnable#run()
     */
    @Override
    public void run() {
-      // Integration loop
       try {
-         running = true;
-
-         while (t < integratorConfig[2] && running) {
-            // If paused and reset selected, reset initialConditions using IntegrationSetup's method
-            if (options.contains(Options.PAUSED) & options.contains(Options.RESET)) {
-               Configuration conf = Configuration.getInstance();
-               initialConditions = ArrayUtils.toPrimitive(IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig()).values()
-                       .toArray(new Double[initialConditions.length]));
-            }
-
-            // If paused, skip the integration and update process
-            if (!options.contains(Options.PAUSED)) {
-               // Run a single step of integration each step of the loop
-               y = integrator.singleStep(new SixDOFEquations(), // derivatives
-                       t, // start time
-                       initialConditions, // initial conditions
-                       t + integratorConfig[1]);     // end time (t+dt)
+         setRunning(true);
 
-               // Update data members' values
-               updateDataMembers();
+         if (getTime() < integratorConfig[2]) {
+            frameScheduler.run();
+         }
+      } finally {
+         setRunning(false);
+      }
+   }
 
-               // Update initial conditions for next step of integration
-               initialConditions = y;
+   /**
+    * Runs a single iteration of the integration loop: calls the {@link Integrate6DOFEquations#step()} method as long as
+    * {@link Options#PAUSED} isn't enabled and increments the time, then stops the {@link FrameScheduler} if the end time of the
+    * {@link IntegratorConfig} is reached
+    *
+    * @param frameIndex the index of the frame
+    */
+   @Override
+   public void onFrame(long frameIndex) {
+      this.frameIndex = frameIndex;
+
+      // If paused and reset selected, reset initialConditions using IntegrationSetup's method
+      if (options.contains(Options.PAUSED) & options.contains(Options.RESET)) {
+         Configuration conf = Configuration.getInstance();
+         initialConditions = ArrayUtils.toPrimitive(IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig()).values()
+                 .toArray(new Double[initialConditions.length]));
+
+         // Recalculate the derivatives at the reset states, and discard the history of the integrator
+         System.arraycopy(initialConditions, 0, y, 0, y.length);
+         weather.reset();
+         resetMass();
+         updateStabilized(y);
+         integrator.reset();
+      }
 
-               // Update output log
-               logData();
-            }
+      // If paused, skip the integration and update process
+      if (!options.contains(Options.PAUSED)) {
+         // Run a single step of integration each frame
+         step();
 
-            // Pause the integration for dt*1000 milliseconds to emulate real time operation
-            // if ANALYSIS_MODE is false
-            if (!options.contains(Options.ANALYSIS_MODE)) {
-               Thread.sleep((long) (integratorConfig[1] * 1000));
-            }
+         // Update output log
+         logData();
+      }
 
-            // Increments time using an intrinsic lock
-            incrementTime();
-         }
+      // Increments time, read by other threads without a lock
+      incrementTime();
 
-      } catch (InterruptedException e) {
-      } finally {
-         running = false;
+      if (!(getTime() < integratorConfig[2])) {
+         frameScheduler.stop();
       }
+   }
+
+   /**
+    * @return the scheduler running the frames of this simulation, to which the flight controls and data can add
+    * {@link FrameListener}s
+    */
+   public FrameScheduler getFrameScheduler() {
+      return frameScheduler;
+   }
 
+   /**
+    * @return the index of the frame of the last iteration of the integration loop, or -1 if the simulation has not been run
+    */
+   public long getFrameIndex() {
+      return frameIndex;
    }
 
    //================================= Simulation Logging =====================================================
    /**
-    * Returns an ArrayList of {@link Integrate6DOFEquations#getSimOut()} objects; acts as a logging method, which can be used to plot simulation data
+    * Returns the {@link FlightLog} filled by {@link Integrate6DOFEquations#logData()}; acts as a logging method, which can be used to plot simulation data
     * or output it to a file
     *
     * @return logsOut
     */
-   public synchronized List<Map<SimOuts, Double>> getLogsOut() {
-      return Collections.unmodifiableList(logsOut);
+   public FlightLog getLogsOut() {
+      return logsOut;
    }
 
    /**
-    * Clears logsOut list of past data in preparation for recording a new maneuver
+    * Clears logsOut of past data in preparation for recording a new maneuver
     *
-    * @return If logsOut list was successfully deleted
+    * @return If logsOut was successfully cleared
     */
-   public synchronized boolean clearLogsOut() {
-      return logsOut.removeAll(logsOut);
+   public boolean clearLogsOut() {
+      logsOut.clear();
+      return true;
+   }
+
+   /**
+    * Adds a listener receiving the simulation outputs after each step of integration is logged. The listeners are called on the
+    * simulation thread with the array of outputs indexed by {@link SimOuts#ordinal()}, which is overwritten at the next step and
+    * must not be modified. Listeners must be added before the simulation is run
+    *
+    * @param listener the listener
+    */
+   public void addSimOutsListener(SimOutsListener listener) {
+      if (listener != null) {
+         simOutsListeners.add(listener);
+      }
    }
 
    /**
-    * Returns an EnumMap of data for a single step of integration accomplished in {@link Integrate6DOFEquations#logData()}.
+    * Returns an EnumMap of data for the latest step of integration accomplished in {@link Integrate6DOFEquations#logData()}, copied
+    * from the {@link SimOutsBuffer} of the simulation. Readers called frequently should rather read the buffer into their own array.
     *
-    * @return simOut
+    * @return simOut, or null if no step has been logged yet
     */
-   public synchronized Map<SimOuts, Double> getSimOut() {
-      return Collections.unmodifiableMap(simOut);
+   public Map<SimOuts, Double> getSimOut() {
+      Map<SimOuts, Double> simOut = simOutsBuffer.toMap();
+      return simOut == null ? null : Collections.unmodifiableMap(simOut);
+   }
+
+   /**
+    * @return the buffer to which the simulation outputs are published after each step of integration, which can be read by any thread
+    * without blocking the simulation
+    */
+   public SimOutsBuffer getSimOutsBuffer() {
+      return simOutsBuffer;
    }
 
    //========================================= Time ============================================================
    /**
     * @return current time of simulation (sec)
     */
-   public static synchronized double getTime() {
-      return Integrate6DOFEquations.t;
+   public double getTime() {
+      return t;
+   }
+
+   /**
+    * @return a copy of the integrator configuration of this simulation: start time, time step and end time (sec)
+    */
+   public double[] getIntegratorConfig() {
+      return integratorConfig.clone();
+   }
+
+   /**
+    * @return a copy of the states at the end of the last step, or the initial conditions if the simulation has not been run, in
+    * the order of {@link InitialConditions}
+    */
+   public double[] getStates() {
+      return initialConditions.clone();
+   }
+
+   /**
+    * @return the options of this simulation; PAUSED and RESET may be changed while it runs
+    */
+   public EnumSet<Options> getOptions() {
+      return options;
+   }
+
+   /**
+    * @return the flight controls read at each step of integration
+    */
+   public Map<FlightControlType, Double> getControls() {
+      return controls;
+   }
+
+   /**
+    * @return the aircraft of this simulation
+    */
+   public Aircraft getAircraft() {
+      return aircraft;
    }
 
    /**
-    * Gets the intrinsic lock on {@link Integrate6DOFEquations#t} and increments it by {@link IntegratorConfig#DT} seconds
+    * Increments {@link Integrate6DOFEquations#t} by {@link IntegratorConfig#DT} seconds; only called by the simulation thread, so
+    * that the time can be read without a lock
     */
-   private static synchronized void incrementTime() {
-      Integrate6DOFEquations.t += integratorConfig[1];
+   private void incrementTime() {
+      t += integratorConfig[1];
    }
 
    //==================================== Running Status =======================================================
@@ -501,8 +801,8 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
     *
     * @return Running status of integration
     */
-   public static synchronized boolean isRunning() {
-      return Integrate6DOFEquations.running;
+   public boolean isRunning() {
+      return running;
    }
 
    /**
@@ -510,23 +810,84 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
     *
     * @param running
     */
-   public static synchronized void setRunning(boolean running) {
-      Integrate6DOFEquations.running = running;
+   public void setRunning(boolean running) {
+      this.running = running;
+      if (!running) {
+         frameScheduler.stop();
+      }
    }
 
    //==================================== Environment ==========================================================
    /**
-    * Sets the wind speed (kts), wind direction (deg) and temperature (deg C)
+    * Sets a wind speed (kts) and direction (deg) constant with altitude, and the temperature (deg C) at sea level
     *
     * @param windSpeed
     * @param windDir
     * @param temperature
     */
    public void setWeather(double windSpeed, double windDir, double temperature) {
-      Environment.setWindDir(windDir);
-      Environment.setWindSpeed(windSpeed);
+      weather.setWind(windSpeed, windDir);
       // Subtract standard temperature from argument to get deviation from standard, then convert C deg to F deg
-      Environment.setDeltaIsa((temperature - 15) * 9 / 5);
+      atmosphere.setDeltaIsa((temperature - 15) * 9 / 5);
+   }
+
+   /**
+    * Sets the flight control laws (autopilot, stability augmentation) executed at the end of each step of the simulation, whose outputs
+    * overwrite the flight controls. It should be called before the simulation is run, or between frames.
+    *
+    * @param flightControlSystem the flight control laws, or null to fly with the flight controls only
+    */
+   public void setFlightControlSystem(FlightControlSystem flightControlSystem) {
+      this.flightControlSystem = flightControlSystem;
+      if (flightControlSystem != null) {
+         flightControlSystem.reset();
+      }
+   }
+
+   /**
+    * @return the flight control laws executed at the end of each step, or null if there are none
+    */
+   public FlightControlSystem getFlightControlSystem() {
+      return flightControlSystem;
+   }
+
+   /**
+    * @return the mass model of the aircraft in this simulation, updated as fuel is burned
+    */
+   public MassModel getMassModel() {
+      return massModel;
+   }
+
+   /**
+    * @return the atmosphere of this simulation
+    */
+   public Atmosphere getAtmosphere() {
+      return atmosphere;
+   }
+
+   /**
+    * Returns the weather of this simulation, whose wind layers, turbulence and gusts can be set before the simulation is run.
+    *
+    * @return the weather of this simulation
+    */
+   public Weather getWeather() {
+      return weather;
+   }
+
+   /**
+    * @return the height of the terrain under the aircraft (ft)
+    */
+   public double getTerrainHeight() {
+      return terrainHeight;
+   }
+
+   /**
+    * Sets the height of the terrain under the aircraft, as received from the {@link EnvironmentData}.
+    *
+    * @param terrainHeight the height of the terrain (ft)
+    */
+   public void setTerrainHeight(double terrainHeight) {
+      this.terrainHeight = terrainHeight;
    }
 
    @Override
@@ -537,4 +898,20 @@ public class Integrate6DOFEquations implements Runnable, EnvironmentDataListener
          terrainHeight = (receivedEnvironmentData.get(EnvironmentDataType.TERRAIN_HEIGHT) * 15) + 5;
       }
    }
+
+   /**
+    * The 6DOF equations integrated by the {@link Integrator}: each evaluation recalculates the environment, engines and
+    * aerodynamic forces and moments for the states of the stage.
+    */
+   private class SixDOFEquations implements DifferentialEquations {
+      @Override
+      public int getDimension() {
+         return y.length;
+      }
+
+      @Override
+      public void computeDerivatives(double t, double[] y, double[] yDot) {
+         updateDataMembers(y, yDot, false);
+      }
+   }
 }
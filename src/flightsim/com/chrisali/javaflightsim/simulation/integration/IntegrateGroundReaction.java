@@ -17,63 +17,113 @@ package com.chrisali.javaflightsim.simulation.integration;
 
 import com.chrisali.javaflightsim.rendering.RunWorld;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
-import com.chrisali.javaflightsim.simulation.aircraft.GroundReaction;
+import com.chrisali.javaflightsim.simulation.aircraft.ContactType;
+import com.chrisali.javaflightsim.simulation.aircraft.GroundContacts;
 import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
 import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
 import java.text.DecimalFormat;
 import java.util.Map;
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 
 /**
  * This class contains calculations needed to model the force and moment reactions between the aircraft
- * and its landing gear. It uses a spring-mass-damper system which is modeled as three second order
- * differential equations integrated simultaneously, converted to first order equations by use of
- * state-space methods so that {@link ClassicalRungeKuttaIntegrator} can be used. The integration runs
- * as single steps inside of {@link Integrate6DOFEquations} own integration, and the calculated forces
+ * and the ground at each of its contact points ({@link GroundContacts}): landing gear, skids or points of the structure. It uses
+ * a spring-mass-damper system for each contact point, modeled as second order differential equations integrated simultaneously,
+ * converted to first order equations by use of state-space methods. The calculated forces
  * and moments are fed back into the 6DOF integrator to calculate the total accelerations and moments for
  * the aircraft.
  *
  * <p>
+ * Stiff springs would require a small step of integration, so the contact points are integrated separately from the 6DOF
+ * equations, and the forces fed back are the mean of the forces over the step. If the dynamics of the aircraft resting on its contact
+ * points are slow enough for the step of {@link Integrate6DOFEquations}, each step is divided into sub steps, whose number is chosen
+ * from the natural frequency and damping of these dynamics. Otherwise, the contact points are integrated with an implicit (backward
+ * Euler) method, which is stable for any step size, in a single sub step. The 6DOF equations can thus keep the same step size on the
+ * ground as in flight.</p>
+ *
+ * <p>
+ * The properties and states of the contact points are held in parallel primitive arrays indexed by contact point, and all contact
+ * points are evaluated in the same loops, without allocating memory.</p>
+ *
+ * <p>
  * Equations and theory used in this class can be found in: <i>Principles of Flight Simulation, Allerton, D.</i></p>
  *
  * @author Christopher Ali
  *
  */
 public class IntegrateGroundReaction {
-   // Tire Properties
-   private static final double TIRE_STATIC_FRICTION = 0.5;
-   private static final double TIRE_ROLLING_FRICTION = 0.06;
+   // Limits of the strut forces [lbf], and of the ground moments near stand still [ft*lbf]
+   private static final double MAX_STRUT_FORCE = 10000;
+   private static final double MAX_LOW_SPEED_MOMENT = 100;
+
+   /**
+    * Default maximum number of sub steps of integration of the contact points in a step of the 6DOF equations
+    */
+   public static final int DEFAULT_MAX_SUB_STEPS = 64;
+   // Sub step size relative to the time constant of the fastest contact point dynamics
+   private static final double SUB_STEP_FACTOR = 0.5;
+   // Step size relative to the time constant of the fastest contact point dynamics above which the implicit method is used
+   private static final double STIFFNESS_LIMIT = 2;
+   // Height under which a contact point touches the ground [ft]
+   private static final double CONTACT_HEIGHT = 0.01;
+
+   // Index of the brake of braked contact points in brakes
+   private static final int NO_BRAKE = -1;
+   private static final int LEFT_BRAKE = 0;
+   private static final int RIGHT_BRAKE = 1;
 
    // Aircraft Properties
    private double mass;
    private Map<FlightControlType, Double> controls;
-   private Map<GroundReaction, Double> groundReaction;
+   private final double brakingForce;
    private boolean weightOnWheels = false;
 
+   // Contact points properties, which do not change during the simulation
+   private final int contactCount;
+   private final String[] contactNames;
+   private final double[] contactX; // Position of each contact point relative to CG position [ft]
+   private final double[] contactY;
+   private final double[] contactZ;
+   private final double[] minTirePosition; // Limit of compression of each contact point [ft]
+   private final double[] armX; // Arms used for ground moments [ft]
+   private final double[] armY;
+   private final double[] armZ;
+   private final double[] dampingPerMass;
+   private final double[] springPerMass;
+   private final double[] staticFriction;
+   private final double[] rollingFriction;
+   private final double[] sideForceSign;
+   private final boolean[] steerable;
+   private final int[] brakeIndex;
+   private final double[] brakes = new double[2]; //{left, right}
+
    // Positions
    private double terrainHeight = 0.0;
 
-   private double[] tirePosition = new double[3]; //{nose, left, right} [ft]
-   private double[] tireVelocity = new double[3]; //{nose, left, right} [ft/sec]
+   private final double[] tirePosition; // [ft]
+   private final double[] tireVelocity; // [ft/sec]
+   private final double[] subStepPosition; // [ft]
+   private final double[] subStepVelocity; // [ft/sec]
 
-   // Forces and Moments
-   private double[] noseGroundForces = new double[3]; //{Fx, Fy, Fz} [lbf]
-   private double[] leftGroundForces = new double[3]; //{Fx, Fy, Fz} [lbf]
-   private double[] rightGroundForces = new double[3]; //{Fx, Fy, Fz} [lbf]
+   // Forces and Moments of each contact point
+   private final double[] forceX; // [lbf]
+   private final double[] forceY; // [lbf]
+   private final double[] forceZ; // [lbf]
 
    private double[] totalGroundForces = new double[3]; //{Fx, Fy, Fz} [lbf]
    private double[] totalGroundMoments = new double[3]; //{Fx, Fy, Fz} [lbf]
 
    // Integrator Fields
-   private ClassicalRungeKuttaIntegrator integrator;
    private double t;
    private double[] integratorConfig = new double[3];
-   private double[] groundReactionDerivatives = new double[6];
-   private double[] y = new double[6];
-   private double[] y0 = new double[6];
+   private double maxRate;
+   private int maxSubSteps = DEFAULT_MAX_SUB_STEPS;
+   private int fixedSubSteps = 0;
+   private boolean implicit = false;
+   private boolean implicitStep = false;
+   private int subSteps = 1;
+   private double verticalAcceleration = 0;
+   private final double[][] dirCosMat = new double[3][3];
 
    // 6DOF Integration Results
    private double[] linearVelocities = new double[3];
@@ -118,100 +168,141 @@ public class IntegrateGroundReaction {
       this.sixDOFDerivatives = sixDOFDerivatives;
 
       this.controls = controls;
-      this.groundReaction = aircraft.getGroundReaction();
       this.mass = aircraft.getMassProps().get(MassProperties.TOTAL_MASS);
 
       this.integratorConfig = integratorConfig;
 
-      // "Initial conditions" are zeroed for now; on ground trimming needs pre-loading of gear
-      for (int i = 0; i < y0.length / 2; i++) {
-         y0[2 * i] = -3.0;
-         y0[2 * i + 1] = 0.0;
+      GroundContacts contacts = aircraft.getGroundContacts();
+      contactCount = contacts.size();
+      brakingForce = contacts.getBrakingForce();
+
+      contactNames = new String[contactCount];
+      contactX = new double[contactCount];
+      contactY = new double[contactCount];
+      contactZ = new double[contactCount];
+      minTirePosition = new double[contactCount];
+      armX = new double[contactCount];
+      armY = new double[contactCount];
+      armZ = new double[contactCount];
+      dampingPerMass = new double[contactCount];
+      springPerMass = new double[contactCount];
+      staticFriction = new double[contactCount];
+      rollingFriction = new double[contactCount];
+      sideForceSign = new double[contactCount];
+      steerable = new boolean[contactCount];
+      brakeIndex = new int[contactCount];
+
+      tirePosition = new double[contactCount];
+      tireVelocity = new double[contactCount];
+      subStepPosition = new double[contactCount];
+      subStepVelocity = new double[contactCount];
+      forceX = new double[contactCount];
+      forceY = new double[contactCount];
+      forceZ = new double[contactCount];
+
+
+      // Contact points positions and moment arms do not change during the simulation
+      // Scale down moments by scaling the arm lengths (negative sign produces realistic braking moments)
+      for (int i = 0; i < contactCount; i++) {
+         ContactType type = contacts.getType(i);
+
+         contactNames[i] = contacts.getName(i);
+         contactX[i] = contacts.getX(i);
+         contactY[i] = contacts.getY(i);
+         contactZ[i] = contacts.getZ(i);
+         // A contact point above the center of gravity, such as a wing tip, can not be compressed further than the ground
+         minTirePosition[i] = -Math.max(contactZ[i], 0);
+         armX[i] = contactX[i];
+         armY[i] = contactY[i] * 0.25;
+         armZ[i] = -contactZ[i] * 0.125;
+         dampingPerMass[i] = contacts.getDamping(i) / mass;
+         springPerMass[i] = contacts.getSpring(i) / mass;
+         staticFriction[i] = contacts.getStaticFriction(i);
+         rollingFriction[i] = contacts.getRollingFriction(i);
+         sideForceSign[i] = type.getSideForceSign();
+         steerable[i] = type.isSteerable();
+         brakeIndex[i] = type.getBrake() == FlightControlType.BRAKE_L ? LEFT_BRAKE
+                 : type.getBrake() == FlightControlType.BRAKE_R ? RIGHT_BRAKE : NO_BRAKE;
       }
 
-      integrator = new ClassicalRungeKuttaIntegrator(integratorConfig[2]);
-      t = integratorConfig[0];
+      // The fastest dynamics are those of the aircraft resting on all its contact points: natural frequency plus damping rate
+      double sumSpringPerMass = 0;
+      double sumDampingPerMass = 0;
+      for (int i = 0; i < contactCount; i++) {
+         sumSpringPerMass += springPerMass[i];
+         sumDampingPerMass += dampingPerMass[i];
+      }
+      maxRate = Math.sqrt(sumSpringPerMass) + sumDampingPerMass;
 
-      updateDerivatives(y);
+      t = integratorConfig[0];
    }
 
    /**
-    * Ground reaction derivatives integrated to determine ground forces and moments;
-    * {@link IntegrateGroundReaction#updateDerivatives(double[])} is called in each step of
-    * integration to recalculate derivatives, which are then passed into the yDot[] array
-    * programmatically
-    *
-    * @author Christopher Ali
-    *
+    * Integrates the spring-mass-damper of the contact points over a step of the 6DOF equations in sub steps, starting from the tire
+    * positions and velocities, and sets the vertical force of each contact point to the mean of its forces at the end of each sub step.
+    * The contact points are coupled by the vertical motion of the aircraft, which is accelerated by the sum of their forces, and by
+    * the vertical acceleration due to gravity and to the other forces, held constant over the step; the rotation of the aircraft during
+    * the step is neglected. A contact point touches the ground when its position is under
+    * {@link IntegrateGroundReaction#CONTACT_HEIGHT}.
     */
-   private class GroundReactionEquations implements FirstOrderDifferentialEquations {
-      @Override
-      public void computeDerivatives(double t, double[] y, double[] yDot) {
-         for (int i = 0; i < groundReactionDerivatives.length; i++) {
-            yDot[i] = groundReactionDerivatives[i];
-         }
+   private void integrateContacts() {
+      double dt = integratorConfig[1];
+      implicitStep = implicit || (fixedSubSteps == 0 && dt * maxRate > STIFFNESS_LIMIT);
+      subSteps = (fixedSubSteps > 0) ? fixedSubSteps : implicitStep ? 1 : (int) Math.ceil(dt * maxRate / SUB_STEP_FACTOR);
+      subSteps = Math.max(1, Math.min(subSteps, maxSubSteps));
+      double h = dt / subSteps;
+      double strutScale = 1 + eulerAngles[1];
+
+      for (int i = 0; i < contactCount; i++) {
+         subStepPosition[i] = tirePosition[i];
+         subStepVelocity[i] = tireVelocity[i];
+         forceZ[i] = 0;
       }
+      weightOnWheels = false;
+
+      for (int s = 0; s < subSteps; s++) {
+         // Change of vertical velocity of the aircraft over the sub step
+         double deltaVelocity;
+         if (implicitStep) {
+            // Backward Euler: the forces at the end of the sub step are linear in the change of velocity
+            double numerator = -verticalAcceleration;
+            double denominator = 1;
+            for (int i = 0; i < contactCount; i++) {
+               if (subStepPosition[i] <= CONTACT_HEIGHT) {
+                  numerator += dampingPerMass[i] * subStepVelocity[i] + springPerMass[i] * (subStepPosition[i] + h * subStepVelocity[i]);
+                  denominator += h * dampingPerMass[i] + h * h * springPerMass[i];
+               }
+            }
+            deltaVelocity = -h * numerator / denominator;
+         } else {
+            // Semi-implicit Euler: the forces at the start of the sub step accelerate the aircraft
+            double sumForce = -verticalAcceleration;
+            for (int i = 0; i < contactCount; i++) {
+               if (subStepPosition[i] <= CONTACT_HEIGHT) {
+                  sumForce += dampingPerMass[i] * subStepVelocity[i] + springPerMass[i] * subStepPosition[i];
+               }
+            }
+            deltaVelocity = -h * sumForce;
+         }
 
-      @Override
-      public int getDimension() {
-         return 6;
-      }
-   }
+         for (int i = 0; i < contactCount; i++) {
+            boolean inContact = subStepPosition[i] <= CONTACT_HEIGHT;
+            subStepVelocity[i] += deltaVelocity;
+            subStepPosition[i] += h * subStepVelocity[i];
 
-   /**
-    * Recalculates the derivatives for each landing gear using second order simple spring-mass-damper
-    * ODEs converted to first order ODEs in state space form
-    *
-    * @param y
-    */
-   private void updateDerivatives(double[] y) {
-      // If tire position > 0, tire is still airborne and no forces should be applied
-      // i=0 (nose), i=1 (left main), i=2 (right main)
-      for (int i = 0; i < tirePosition.length; i++) {
-         if (tirePosition[i] > 0.01) {
-            groundReactionDerivatives[2 * i + 1] = y[2 * i + 1] = 0;
-            groundReactionDerivatives[2 * i] = y[2 * i] = 0;
-
-            switch (i) {
-               case 0:
-                  for (int j = 0; j < noseGroundForces.length; j++) {
-                     noseGroundForces[j] = 0;
-                  }
-                  break;
-               case 1:
-                  for (int j = 0; j < leftGroundForces.length; j++) {
-                     leftGroundForces[j] = 0;
-                  }
-                  break;
-               case 2:
-                  for (int j = 0; j < rightGroundForces.length; j++) {
-                     rightGroundForces[j] = 0;
-                  }
-                  break;
+            if (inContact) {
+               subStepPosition[i] = (subStepPosition[i] < minTirePosition[i]) ? minTirePosition[i] : subStepPosition[i];
+
+               double force = (dampingPerMass[i] * subStepVelocity[i] + springPerMass[i] * subStepPosition[i]) * mass * strutScale;
+               forceZ[i] += (force > MAX_STRUT_FORCE) ? MAX_STRUT_FORCE : (force < -MAX_STRUT_FORCE) ? -MAX_STRUT_FORCE : force;
+               weightOnWheels = true;
             }
-            weightOnWheels = false;
-         } else {
-            weightOnWheels = true;
          }
       }
 
-      // Nose
-      groundReactionDerivatives[0] = y[1];
-      groundReactionDerivatives[1] = (-groundReaction.get(GroundReaction.NOSE_DAMPING) / mass * y[1])
-              - (groundReaction.get(GroundReaction.NOSE_SPRING) / mass * y[0])
-              + noseGroundForces[2] / mass;
-
-      // Left Main
-      groundReactionDerivatives[2] = y[3];
-      groundReactionDerivatives[3] = (-groundReaction.get(GroundReaction.LEFT_DAMPING) / mass * y[3])
-              - (groundReaction.get(GroundReaction.LEFT_SPRING) / mass * y[2])
-              + leftGroundForces[2] / mass;
-
-      // Right Main
-      groundReactionDerivatives[4] = y[5];
-      groundReactionDerivatives[5] = (-groundReaction.get(GroundReaction.RIGHT_DAMPING) / mass * y[5])
-              - (groundReaction.get(GroundReaction.RIGHT_SPRING) / mass * y[4])
-              + rightGroundForces[2] / mass;
+      for (int i = 0; i < contactCount; i++) {
+         forceZ[i] /= subSteps;
+      }
    }
 
    /**
@@ -219,188 +310,153 @@ public class IntegrateGroundReaction {
     * calculate ground reaction derivatives and forces
     */
    private void calculateTirePositionsAndVelocities() {
-      double[][] dirCosMat = SixDOFUtilities.body2Ned(eulerAngles);
-      double[] gearRelativeCG; // Position of {nose, left, right} gear relative to CG position
+      SixDOFUtilities.body2Ned(eulerAngles, dirCosMat);
 
-      // i=0 (nose), i=1 (left main), i=2 (right main)
-      for (int i = 0; i < 3; i++) {
-         // Assign body gear positions depending on stage of loop
-         switch (i) {
-            case 0:
-               gearRelativeCG = new double[]{ groundReaction.get(GroundReaction.NOSE_X),
-                  groundReaction.get(GroundReaction.NOSE_Y),
-                  groundReaction.get(GroundReaction.NOSE_Z) };
-               break;
-            case 1:
-               gearRelativeCG = new double[]{ groundReaction.get(GroundReaction.LEFT_X),
-                  groundReaction.get(GroundReaction.LEFT_Y),
-                  groundReaction.get(GroundReaction.LEFT_Z) };
-               break;
-            case 2:
-               gearRelativeCG = new double[]{ groundReaction.get(GroundReaction.RIGHT_X),
-                  groundReaction.get(GroundReaction.RIGHT_Y),
-                  groundReaction.get(GroundReaction.RIGHT_Z) };
-               break;
-            default:
-               gearRelativeCG = new double[]{ 0, 0, 0 };
-               break;
-         }
+      double sinPhi = Math.sin(eulerAngles[0]);
+      double cosPhi = Math.cos(eulerAngles[0]);
+      double sinTheta = Math.sin(eulerAngles[1]);
+      double cosTheta = Math.cos(eulerAngles[1]);
 
-         // 3rd row of body2Ned matrix (D) plus (altitude minus terrain height) is the height of the landing gear above ground
-         tirePosition[i] = (gearRelativeCG[0] * dirCosMat[2][0] + gearRelativeCG[1] * dirCosMat[2][1] + gearRelativeCG[2] * dirCosMat[2][2]) + (NEDPosition[2] - terrainHeight);   // eq 3.134
+      // Velocity of the contact points along each body axis due to the angular rates
+      double velocityX = angularRates[1] * cosTheta;
+      double velocityY = angularRates[1] * sinPhi * sinTheta - angularRates[0] * cosPhi * cosTheta;
+      double velocityZ = angularRates[1] * sinTheta * cosPhi + angularRates[0] * sinTheta * sinPhi;
 
-         tireVelocity[i] = (gearRelativeCG[0] * (angularRates[1] * Math.cos(eulerAngles[1])))
-                 + (gearRelativeCG[1] * (angularRates[1] * Math.sin(eulerAngles[0]) * Math.sin(eulerAngles[1]) - angularRates[0] * Math.cos(eulerAngles[0]) * Math.cos(eulerAngles[1])))
-                 + (gearRelativeCG[2] * (angularRates[1] * Math.sin(eulerAngles[1]) * Math.cos(eulerAngles[0]) + angularRates[0] * Math.sin(eulerAngles[1]) * Math.sin(eulerAngles[0])))
+      for (int i = 0; i < contactCount; i++) {
+         // 3rd row of body2Ned matrix (D) plus (altitude minus terrain height) is the height of the contact point above ground
+         tirePosition[i] = (contactX[i] * dirCosMat[2][0] + contactY[i] * dirCosMat[2][1] + contactZ[i] * dirCosMat[2][2]) + (NEDPosition[2] - terrainHeight);   // eq 3.134
+
+         tireVelocity[i] = (contactX[i] * velocityX)
+                 + (contactY[i] * velocityY)
+                 + (contactZ[i] * velocityZ)
                  + sixDOFDerivatives[5]; // eq 3.135
 
          // Saturate tire positions/velocities from compressing/moving too far/fast
-         tirePosition[i] = (tirePosition[i] < -gearRelativeCG[2]) ? -gearRelativeCG[2] : tirePosition[i];
+         tirePosition[i] = (tirePosition[i] < minTirePosition[i]) ? minTirePosition[i] : tirePosition[i];
 
-         tireVelocity[i] = (tireVelocity[i] > 30) ? tireVelocity[i] = 30
-                 : (tireVelocity[i] < -30) ? tireVelocity[i] = -30
+         tireVelocity[i] = (tireVelocity[i] > 30) ? 30
+                 : (tireVelocity[i] < -30) ? -30
                          : tireVelocity[i];
       }
    }
 
    /**
-    * Calculates each component of force for each landing gear on the aircraft, which is then used to calculate
-    * ground reaction derivatives and moments. Uses equations 3.137-143 in Principles of Flight Simulation (Allerton)
+    * Calculates the X and Y components of force for each contact point on the aircraft from its vertical force, and the total
+    * forces, which are then used to calculate moments. Uses equations 3.137-143 in Principles of Flight Simulation (Allerton)
     */
    private void calculateTotalGroundForces() {
-      // Z Forces (Landing Gear Struts)
-      // Limit strut forces
-      noseGroundForces[2] = (noseGroundForces[2] > 10000) ? 10000
-              : (noseGroundForces[2] < -10000) ? -10000
-                      : -(groundReactionDerivatives[1] * mass) * (1 + eulerAngles[1]);
-
-      leftGroundForces[2] = (leftGroundForces[2] > 10000) ? 10000
-              : (leftGroundForces[2] < -10000) ? -10000
-                      : -(groundReactionDerivatives[3] * mass) * (1 + eulerAngles[1]);
-
-      rightGroundForces[2] = (rightGroundForces[2] > 10000) ? 10000
-              : (rightGroundForces[2] < -10000) ? -10000
-                      : -(groundReactionDerivatives[5] * mass) * (1 + eulerAngles[1]);
-
-      // X Forces
-      // Use static coefficient of friction if near stand still; taper force off as forward velocity nears 0
-      if (linearVelocities[0] < 5) {
-         noseGroundForces[0] = noseGroundForces[2] * (TIRE_STATIC_FRICTION * linearVelocities[0] / 5 + eulerAngles[1]);
-         leftGroundForces[0] = leftGroundForces[2] * (TIRE_STATIC_FRICTION * linearVelocities[0] / 5 + eulerAngles[1]);
-         rightGroundForces[0] = rightGroundForces[2] * (TIRE_STATIC_FRICTION * linearVelocities[0] / 5 + eulerAngles[1]);
-      } else {
-         noseGroundForces[0] = noseGroundForces[2] * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
-         leftGroundForces[0] = leftGroundForces[2] * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
-         rightGroundForces[0] = rightGroundForces[2] * (TIRE_ROLLING_FRICTION + eulerAngles[1]);
+      double u = linearVelocities[0];
+      double theta = eulerAngles[1];
+      brakes[LEFT_BRAKE] = controls.get(FlightControlType.BRAKE_L);
+      brakes[RIGHT_BRAKE] = controls.get(FlightControlType.BRAKE_R);
+      double steering = (u > 20) ? controls.get(FlightControlType.RUDDER) / FlightControlType.RUDDER.getMaximum() : 0;
+
+      for (int j = 0; j < totalGroundForces.length; j++) {
+         totalGroundForces[j] = 0;
       }
 
-      // Braking
-      // Taper force off as forward velocity nears 0
-      if (linearVelocities[0] < 2) {
-         leftGroundForces[0] -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControlType.BRAKE_L) * linearVelocities[0] / 2;
-         rightGroundForces[0] -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControlType.BRAKE_R) * linearVelocities[0] / 2;
-      } else {
-         leftGroundForces[0] -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControlType.BRAKE_L);
-         rightGroundForces[0] -= groundReaction.get(GroundReaction.BRAKING_FORCE) * controls.get(FlightControlType.BRAKE_R);
-      }
+      for (int i = 0; i < contactCount; i++) {
+         // Z Forces (Landing Gear Struts) are integrated by integrateContacts; no force is applied to a contact point above the ground
+         if (forceZ[i] == 0) {
+            forceX[i] = 0;
+            forceY[i] = 0;
+            continue;
+         }
 
-      // Y Forces
-      // Nosewheel steering friction force based on a fraction of the rudder deflection to the maximum deflection
-      if (linearVelocities[0] > 20) {
-         noseGroundForces[1] = Math.abs(noseGroundForces[2]) * TIRE_ROLLING_FRICTION
-                 * (controls.get(FlightControlType.RUDDER) / FlightControlType.RUDDER.getMaximum()) / 10;
-         // Create side force to yaw aircraft in direction of velocity vector
-         leftGroundForces[1] = -Math.abs(leftGroundForces[2]) * TIRE_STATIC_FRICTION * windParameters[1];
-         rightGroundForces[1] = Math.abs(rightGroundForces[2]) * TIRE_STATIC_FRICTION * windParameters[1];
-      }
+         // X Forces
+         // Use static coefficient of friction if near stand still; taper force off as forward velocity nears 0
+         if (u < 5) {
+            forceX[i] = forceZ[i] * (staticFriction[i] * u / 5 + theta);
+         } else {
+            forceX[i] = forceZ[i] * (rollingFriction[i] + theta);
+         }
 
-      // Summation of Forces
-      for (int i = 0; i < 3; i++) {
-         totalGroundForces[i] = leftGroundForces[i] + rightGroundForces[i] + noseGroundForces[i];
+         // Braking
+         // Taper force off as forward velocity nears 0
+         if (brakeIndex[i] != NO_BRAKE) {
+            if (u < 2) {
+               forceX[i] -= brakingForce * brakes[brakeIndex[i]] * u / 2;
+            } else {
+               forceX[i] -= brakingForce * brakes[brakeIndex[i]];
+            }
+         }
+
+         // Y Forces
+         if (u > 20) {
+            if (steerable[i]) {
+               // Steering friction force based on a fraction of the rudder deflection to the maximum deflection
+               forceY[i] = Math.abs(forceZ[i]) * rollingFriction[i] * steering / 10;
+            } else {
+               // Create side force to yaw aircraft in direction of velocity vector
+               forceY[i] = sideForceSign[i] * Math.abs(forceZ[i]) * staticFriction[i] * windParameters[1];
+            }
+         }
+
+         // Summation of Forces
+         totalGroundForces[0] += forceX[i];
+         totalGroundForces[1] += forceY[i];
+         totalGroundForces[2] += forceZ[i];
       }
    }
 
    /**
-    * Calculates each landing gear object's moments about the center of gravity using gear positions relative
+    * Calculates each contact point's moments about the center of gravity using contact point positions relative
     * to the center of gravity and ground reaction forces
     */
    private void calculateTotalGroundMoments() {
-      double[] tempTotalGroundMoments = new double[]{ 0, 0, 0 };
-      Vector3D forceVector;
-      Vector3D gearRelativeCGVector;
-
-      // i=0 (nose), i=1 (left main), i=2 (right main)
-      for (int i = 0; i < 3; i++) {
-         // Assign body gear force and arm vectors depending on stage of loop
-         // Scale down moments by scaling the arm lengths (negative sign produces realistic braking moments)
-         switch (i) {
-            case 0:
-               gearRelativeCGVector = new Vector3D(new double[]{ groundReaction.get(GroundReaction.NOSE_X),
-                  groundReaction.get(GroundReaction.NOSE_Y),
-                  -groundReaction.get(GroundReaction.NOSE_Z) * 0.125 });
-               forceVector = new Vector3D(noseGroundForces);
-               break;
-            case 1:
-               gearRelativeCGVector = new Vector3D(new double[]{ groundReaction.get(GroundReaction.LEFT_X),
-                  groundReaction.get(GroundReaction.LEFT_Y) * 0.25,
-                  -groundReaction.get(GroundReaction.LEFT_Z) * 0.125 });
-               forceVector = new Vector3D(leftGroundForces);
-               break;
-            case 2:
-               gearRelativeCGVector = new Vector3D(new double[]{ groundReaction.get(GroundReaction.RIGHT_X),
-                  groundReaction.get(GroundReaction.RIGHT_Y) * 0.25,
-                  -groundReaction.get(GroundReaction.RIGHT_Z) * 0.125 });
-               forceVector = new Vector3D(rightGroundForces);
-               break;
-            default:
-               gearRelativeCGVector = new Vector3D(new double[]{ 0, 0, 0 });
-               forceVector = new Vector3D(new double[]{ 0, 0, 0 });
-               break;
-         }
+      for (int j = 0; j < totalGroundMoments.length; j++) {
+         totalGroundMoments[j] = 0;
+      }
 
+      for (int i = 0; i < contactCount; i++) {
          // Take the cross product of force and arm vectors and add them to total moments
-         for (int j = 0; j < tempTotalGroundMoments.length; j++) {
-            tempTotalGroundMoments[j] += Vector3D.crossProduct(forceVector, gearRelativeCGVector).toArray()[j];
-         }
+         totalGroundMoments[0] += forceY[i] * armZ[i] - forceZ[i] * armY[i];
+         totalGroundMoments[1] += forceZ[i] * armX[i] - forceX[i] * armZ[i];
+         totalGroundMoments[2] += forceX[i] * armY[i] - forceY[i] * armX[i];
       }
 
       // Saturate ground moments if forward speed is less than 10 ft/sec
       if (linearVelocities[0] < 10) {
-         tempTotalGroundMoments[0] = (tempTotalGroundMoments[0] > 100) ? 100
-                 : (tempTotalGroundMoments[0] < -100) ? -100
-                         : tempTotalGroundMoments[0];
+         totalGroundMoments[0] = (totalGroundMoments[0] > MAX_LOW_SPEED_MOMENT) ? MAX_LOW_SPEED_MOMENT
+                 : (totalGroundMoments[0] < -MAX_LOW_SPEED_MOMENT) ? -MAX_LOW_SPEED_MOMENT
+                         : totalGroundMoments[0];
 
-         tempTotalGroundMoments[1] = (tempTotalGroundMoments[1] > 100) ? 100
-                 : (tempTotalGroundMoments[1] < -100) ? -100
-                         : tempTotalGroundMoments[1];
+         totalGroundMoments[1] = (totalGroundMoments[1] > MAX_LOW_SPEED_MOMENT) ? MAX_LOW_SPEED_MOMENT
+                 : (totalGroundMoments[1] < -MAX_LOW_SPEED_MOMENT) ? -MAX_LOW_SPEED_MOMENT
+                         : totalGroundMoments[1];
 
-         tempTotalGroundMoments[2] = (tempTotalGroundMoments[1] > 100) ? 100
-                 : (tempTotalGroundMoments[1] < -100) ? -100
-                         : tempTotalGroundMoments[1];
+         totalGroundMoments[2] = (totalGroundMoments[1] > MAX_LOW_SPEED_MOMENT) ? MAX_LOW_SPEED_MOMENT
+                 : (totalGroundMoments[1] < -MAX_LOW_SPEED_MOMENT) ? -MAX_LOW_SPEED_MOMENT
+                         : totalGroundMoments[1];
       }
-
-      totalGroundMoments = tempTotalGroundMoments;
    }
 
    /**
-    * Calculates the positions and velocities of each landing gear on the aircraft, calculates derivatives for
-    * the next step of integration, runs the next step of integration and then calculates ground forces and moments
-    * based on the results
+    * Calculates the positions and velocities of each contact point on the aircraft, integrates the contact points
+    * over the next step of the 6DOF equations in sub steps, and then calculates ground forces and moments
+    * based on the results. No other force than the contact points accelerates the aircraft vertically during the sub steps.
+    *
+    * @param terrainHeight the height of the terrain (ft)
     */
    public void integrateStep(double terrainHeight) {
+      integrateStep(terrainHeight, 0);
+   }
+
+   /**
+    * Calculates the positions and velocities of each contact point on the aircraft, integrates the contact points
+    * over the next step of the 6DOF equations in sub steps, and then calculates ground forces and moments
+    * based on the results.
+    *
+    * @param terrainHeight the height of the terrain (ft)
+    * @param verticalAcceleration the upward acceleration of the aircraft due to gravity and to the forces other than the ground
+    * reaction, held constant during the sub steps (ft/sec^2)
+    */
+   public void integrateStep(double terrainHeight, double verticalAcceleration) {
       this.terrainHeight = terrainHeight;
+      this.verticalAcceleration = verticalAcceleration;
 
       calculateTirePositionsAndVelocities();
-
-      updateDerivatives(new double[]{ tirePosition[0], tireVelocity[0],
-         tirePosition[1], tireVelocity[1],
-         tirePosition[2], tireVelocity[2] });
-      // Run a single step of integration
-      y = integrator.singleStep(new GroundReactionEquations(), // derivatives
-              t, // start time
-              y0, // initial conditions
-              t + integratorConfig[1]);   	 // end time (t+dt)
-
+      integrateContacts();
       calculateTotalGroundForces();
       calculateTotalGroundMoments();
 
@@ -408,7 +464,88 @@ public class IntegrateGroundReaction {
    }
 
    /**
-    * @return If aircraft is on ground
+    * Sets the maximum number of sub steps of integration of the contact points in a step of the 6DOF equations.
+    *
+    * @param maxSubSteps the maximum number of sub steps, at least 1
+    */
+   public void setMaxSubSteps(int maxSubSteps) {
+      if (maxSubSteps < 1) {
+         System.err.println("Invalid maximum number of ground reaction sub steps: " + maxSubSteps + "! Using 1.");
+         maxSubSteps = 1;
+      }
+      this.maxSubSteps = maxSubSteps;
+   }
+
+   /**
+    * @return the maximum number of sub steps of integration of the contact points in a step of the 6DOF equations
+    */
+   public int getMaxSubSteps() {
+      return maxSubSteps;
+   }
+
+   /**
+    * Sets a fixed number of sub steps of integration of the contact points in a step of the 6DOF equations, bounded by the maximum
+    * number of sub steps.
+    *
+    * @param subSteps the number of sub steps, or 0 to choose it from the dynamics of the contact points
+    */
+   public void setSubSteps(int subSteps) {
+      this.fixedSubSteps = Math.max(0, subSteps);
+   }
+
+   /**
+    * @return the number of sub steps used in the last step of integration
+    */
+   public int getSubSteps() {
+      return subSteps;
+   }
+
+   /**
+    * Sets if the contact points are always integrated with an implicit (backward Euler) method rather than a semi-implicit Euler
+    * method. Otherwise the implicit method is only used if the contact points are too stiff for the step size and no fixed number of
+    * sub steps is set. If no fixed number of sub steps is set, the implicit method uses a single sub step.
+    *
+    * @param implicit true to always use the implicit method
+    */
+   public void setImplicit(boolean implicit) {
+      this.implicit = implicit;
+   }
+
+   /**
+    * @return true if the contact points are always integrated with an implicit method
+    */
+   public boolean isImplicit() {
+      return implicit;
+   }
+
+   /**
+    * @return true if the implicit method was used in the last step of integration
+    */
+   public boolean isImplicitStep() {
+      return implicitStep;
+   }
+
+   /**
+    * Updates the mass of the aircraft, which is accelerated by the contact points during the sub steps, as fuel is burned.
+    *
+    * @param mass the mass of the aircraft (slug)
+    */
+   public void setMass(double mass) {
+      double ratio = this.mass / mass;
+      double sumSpringPerMass = 0;
+      double sumDampingPerMass = 0;
+      for (int i = 0; i < contactCount; i++) {
+         dampingPerMass[i] *= ratio;
+         springPerMass[i] *= ratio;
+         sumSpringPerMass += springPerMass[i];
+         sumDampingPerMass += dampingPerMass[i];
+      }
+      maxRate = Math.sqrt(sumSpringPerMass) + sumDampingPerMass;
+      this.mass = mass;
+   }
+
+   /**
+    * @return If any contact point of the aircraft is on ground
     */
    public boolean isWeightOnWheels() {
       return weightOnWheels;
@@ -428,6 +565,13 @@ public class IntegrateGroundReaction {
       return totalGroundMoments;
    }
 
+   /**
+    * @return Array of vertical forces of each contact point, in the order of the {@link GroundContacts} of the aircraft
+    */
+   public double[] getContactForces() {
+      return forceZ;
+   }
+
    @Override
    public String toString() {
       DecimalFormat df = new DecimalFormat("####.##");
@@ -445,19 +589,19 @@ public class IntegrateGroundReaction {
       }
       sb.append("]\n");
 
-      sb.append("Tire Positions {n, l, r}: [");
-      for (int i = 0; i < 3; i++) {
+      sb.append("Tire Positions {").append(String.join(", ", contactNames)).append("}: [");
+      for (int i = 0; i < contactCount; i++) {
          sb.append(df.format(tirePosition[i]));
-         if (i < 2) {
+         if (i < contactCount - 1) {
             sb.append(", ");
          }
       }
       sb.append("]\n");
 
-      sb.append("Tire Velocities {n, l, r}: [");
-      for (int i = 0; i < 3; i++) {
+      sb.append("Tire Velocities {").append(String.join(", ", contactNames)).append("}: [");
+      for (int i = 0; i < contactCount; i++) {
          sb.append(df.format(tireVelocity[i]));
-         if (i < 2) {
+         if (i < contactCount - 1) {
             sb.append(", ");
          }
       }
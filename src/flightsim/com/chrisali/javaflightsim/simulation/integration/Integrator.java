@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * Numerical integrator of a system of {@link DifferentialEquations}, advancing its states over one frame of the simulation at each
+ * call. Integrators preallocate the arrays they need, so that integrating a frame does not allocate any memory. An integrator
+ * instance holds the state of a single system, and must not be shared between simulations.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ * @see IntegratorType
+ */
+public interface Integrator {
+   /**
+    * Integrates the equations from t to t + dt. The derivatives at the start of the frame are supplied by the caller, which has
+    * usually already evaluated them to output the previous frame; every other stage is evaluated by calling
+    * {@link DifferentialEquations#computeDerivatives(double, double[], double[])}.
+    *
+    * @param equations the equations
+    * @param t the time at the start of the frame (sec)
+    * @param y0 the states at t
+    * @param yDot0 the derivatives of the states at t
+    * @param dt the length of the frame (sec)
+    * @param y the array to fill with the states at t + dt, distinct from y0
+    */
+   public void integrate(DifferentialEquations equations, double t, double[] y0, double[] yDot0, double dt, double[] y);
+
+   /**
+    * Discards any history kept from the previous frames, which must be called when the states are changed other than by
+    * this integrator, for example when the simulation is reset.
+    */
+   public void reset();
+
+   /**
+    * @return the number of evaluations of the derivatives made by this integrator since it was created
+    */
+   public long getEvaluations();
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * The {@link Integrator}s which can be used by {@link Integrate6DOFEquations}.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum IntegratorType {
+   /**
+    * {@link EulerIntegrator}, the default: one evaluation of the derivatives per frame, first order
+    */
+   EULER("euler"),
+   /**
+    * {@link SemiImplicitEulerIntegrator}: two evaluations of the derivatives per frame, first order, more stable than Euler
+    */
+   SEMI_IMPLICIT_EULER("semiImplicitEuler"),
+   /**
+    * {@link RungeKuttaIntegrator}: four evaluations of the derivatives per frame, fourth order
+    */
+   RUNGE_KUTTA_4("rungeKutta4"),
+   /**
+    * {@link AdamsBashforthMoultonIntegrator}: two evaluations of the derivatives per frame, fourth order
+    */
+   ADAMS_BASHFORTH_MOULTON("adamsBashforthMoulton"),
+   /**
+    * {@link DormandPrinceIntegrator}: adaptive step size, fifth order
+    */
+   DORMAND_PRINCE("dormandPrince");
+
+   /**
+    * Default tolerance of adaptive integrators
+    */
+   public static final double DEFAULT_TOLERANCE = 1e-6;
+
+   private final String integratorType;
+
+   IntegratorType(String integratorType) {
+      this.integratorType = integratorType;
+   }
+
+   /**
+    * Creates an integrator of this type.
+    *
+    * @param dimension the number of states of the integrated equations
+    * @param velocityIndices the indices of the velocity states, used by {@link SemiImplicitEulerIntegrator}
+    * @param tolerance the tolerance of the local error, used by adaptive integrators
+    * @return the integrator
+    */
+   public Integrator createIntegrator(int dimension, int[] velocityIndices, double tolerance) {
+      switch (this) {
+         case SEMI_IMPLICIT_EULER:
+            return new SemiImplicitEulerIntegrator(dimension, velocityIndices);
+         case RUNGE_KUTTA_4:
+            return new RungeKuttaIntegrator(dimension);
+         case ADAMS_BASHFORTH_MOULTON:
+            return new AdamsBashforthMoultonIntegrator(dimension);
+         case DORMAND_PRINCE:
+            return new DormandPrinceIntegrator(dimension, tolerance);
+         case EULER:
+         default:
+            return new EulerIntegrator(dimension);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return integratorType;
+   }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * Policy of a {@link FrameScheduler} when frames are late, because a frame took longer than the frame period or the scheduler
+ * thread was not scheduled in time.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum OverrunPolicy {
+   /**
+    * Late frames are run back to back to catch up with real time, up to the maximum number of catch up frames of the scheduler;
+    * frames beyond this number are dropped
+    */
+   CATCH_UP,
+   /**
+    * Late frames are dropped: a single frame is run when the scheduler is late, and the simulation time falls behind real time
+    * by the duration of the dropped frames
+    */
+   DROP;
+}
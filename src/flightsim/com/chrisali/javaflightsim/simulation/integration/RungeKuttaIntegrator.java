@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+/**
+ * Classical fourth order Runge-Kutta integrator, evaluating the derivatives at three intermediate stages of each frame in addition
+ * to the derivatives at the start of the frame.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class RungeKuttaIntegrator extends AbstractIntegrator {
+   private final double[] yStage;
+   private final double[] k2;
+   private final double[] k3;
+   private final double[] k4;
+
+   /**
+    * @param dimension the number of states of the integrated equations
+    */
+   public RungeKuttaIntegrator(int dimension) {
+      super(dimension);
+      yStage = new double[dimension];
+      k2 = new double[dimension];
+      k3 = new double[dimension];
+      k4 = new double[dimension];
+   }
+
+   @Override
+   public void integrate(DifferentialEquations equations, double t, double[] y0, double[] yDot0, double dt, double[] y) {
+      double halfDt = dt / 2;
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = y0[i] + halfDt * yDot0[i];
+      }
+      computeDerivatives(equations, t + halfDt, yStage, k2);
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = y0[i] + halfDt * k2[i];
+      }
+      computeDerivatives(equations, t + halfDt, yStage, k3);
+
+      for (int i = 0; i < dimension; i++) {
+         yStage[i] = y0[i] + dt * k3[i];
+      }
+      computeDerivatives(equations, t + dt, yStage, k4);
+
+      for (int i = 0; i < dimension; i++) {
+         y[i] = y0[i] + dt / 6 * (yDot0[i] + 2 * k2[i] + 2 * k3[i] + k4[i]);
+      }
+   }
+}
@@ -91,7 +91,10 @@ public enum SimOuts {
    MIXTURE_3("mixture_3"),
    MIXTURE_4("mixture_4"),
    GEAR("gear"),
-   FLAPS("flaps");
+   FLAPS("flaps"),
+   FUEL_WEIGHT("fuel_weight"),
+   WEIGHT("weight"),
+   CG_X("cg_x");
 
    private final String simOut;
 
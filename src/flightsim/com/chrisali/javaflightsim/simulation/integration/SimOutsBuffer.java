@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds the latest simulation outputs published by {@link Integrate6DOFEquations} after each step, and lets any number of readers
+ * obtain a consistent copy of them without blocking the simulation thread.
+ *
+ * <p>
+ * The buffer is a sequence lock: the single writer makes the sequence odd, writes the values and makes it even again, and readers retry
+ * their copy if the sequence was odd or changed while they were copying. Publishing never waits for the readers, and neither publishing
+ * nor reading allocate memory. The values are stored as the raw bits of doubles in an {@link AtomicLongArray}, written with
+ * release stores and read with acquire loads, so that a copy is only accepted if none of its values was written after the sequence was
+ * read.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class SimOutsBuffer {
+   private static final SimOuts[] SIM_OUTS = SimOuts.values();
+   // Number of failed attempts after which a reader yields to let the writer complete its publication
+   private static final int SPIN_ATTEMPTS = 16;
+
+   private final AtomicLongArray values = new AtomicLongArray(SIM_OUTS.length);
+   private final AtomicLong sequence = new AtomicLong();
+   private volatile long frameIndex = -1;
+
+   /**
+    * Publishes a new set of simulation outputs. This method must only be called by a single thread.
+    *
+    * @param simOutValues the simulation outputs, indexed by {@link SimOuts#ordinal()}
+    * @param frameIndex the index of the frame of the outputs
+    */
+   public void publish(double[] simOutValues, long frameIndex) {
+      long seq = sequence.get();
+      sequence.lazySet(seq + 1);
+      for (int i = 0; i < simOutValues.length; i++) {
+         values.lazySet(i, Double.doubleToRawLongBits(simOutValues[i]));
+      }
+      this.frameIndex = frameIndex;
+      sequence.lazySet(seq + 2);
+   }
+
+   /**
+    * Copies the latest simulation outputs, all from the same publication, into a caller-supplied array. The copy is retried while the
+    * simulation is publishing new outputs.
+    *
+    * @param simOutValues the array to fill, indexed by {@link SimOuts#ordinal()}
+    * @return the version of the outputs copied (the number of publications so far), or 0 if no outputs have been published yet,
+    * in which case simOutValues is not modified
+    */
+   public long read(double[] simOutValues) {
+      for (int attempt = 1;; attempt++) {
+         long seq = sequence.get();
+         if (seq == 0) {
+            return 0;
+         }
+
+         if ((seq & 1) == 0) {
+            for (int i = 0; i < simOutValues.length; i++) {
+               simOutValues[i] = Double.longBitsToDouble(values.get(i));
+            }
+
+            if (sequence.get() == seq) {
+               return seq / 2;
+            }
+         }
+
+         if (attempt % SPIN_ATTEMPTS == 0) {
+            Thread.yield();
+         }
+      }
+   }
+
+   /**
+    * Returns the latest value of a single simulation output, without waiting for the simulation.
+    *
+    * @param simOut the simulation output
+    * @return the value, or 0 if no outputs have been published yet
+    */
+   public double get(SimOuts simOut) {
+      return Double.longBitsToDouble(values.get(simOut.ordinal()));
+   }
+
+   /**
+    * Returns the version of the latest outputs, the number of publications so far, so that readers can check if new outputs have
+    * been published since their last read without copying them.
+    *
+    * @return the version of the latest outputs, or 0 if no outputs have been published yet
+    */
+   public long getVersion() {
+      return sequence.get() / 2;
+   }
+
+   /**
+    * @return the index of the frame of the latest outputs, or -1 if no outputs have been published yet; as it is read separately from
+    * the outputs, it may already be the index of the next frame
+    */
+   public long getFrameIndex() {
+      return frameIndex;
+   }
+
+   /**
+    * Copies the latest simulation outputs into a new EnumMap. This method allocates memory, and is intended for readers which are
+    * not called at each step.
+    *
+    * @return the latest simulation outputs, or null if no outputs have been published yet
+    */
+   public Map<SimOuts, Double> toMap() {
+      double[] simOutValues = new double[SIM_OUTS.length];
+      if (read(simOutValues) == 0) {
+         return null;
+      }
+
+      Map<SimOuts, Double> simOut = new EnumMap<>(SimOuts.class);
+      for (SimOuts out : SIM_OUTS) {
+         simOut.put(out, simOutValues[out.ordinal()]);
+      }
+      return simOut;
+   }
+}
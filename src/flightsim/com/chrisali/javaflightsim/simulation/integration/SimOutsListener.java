@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.integration;
+
+import java.util.EventListener;
+
+/**
+ * Interface for objects receiving the simulation outputs of {@link Integrate6DOFEquations} after each step of integration,
+ * such as writers streaming a simulation run to disk.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public interface SimOutsListener extends EventListener {
+   /**
+    * Called on the simulation thread once a step of integration has been logged. The array is reused at each step, so
+    * implementations must copy or write out the values they need before returning, and must not modify them.
+    *
+    * @param simOutValues the simulation outputs, indexed by {@link SimOuts#ordinal()}
+    */
+   public void onSimOutsReceived(double[] simOutValues);
+}
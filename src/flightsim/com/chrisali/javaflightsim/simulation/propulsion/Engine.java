@@ -16,10 +16,10 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
 package com.chrisali.javaflightsim.simulation.propulsion;
 
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import java.util.Arrays;
 import java.util.Map;
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
 /**
  * Base abstract class for the flight simulation's engine model.
@@ -49,7 +49,21 @@ public abstract class Engine {
    protected double[] enginePosition; 	   			// {eng_x,eng_y,eng_z}  (ft)
 
    protected double[] engineThrust = { 0, 0, 0 };	// {T_x,T_y,T_z}	    (lbf)
-   protected double[] engineMoment;				// {M_x,M_y,M_z}        (lbf)
+   protected double[] engineMoment = { 0, 0, 0 };	// {M_x,M_y,M_z}        (lbf)
+
+   // Indices of the engine's controls in the controls array, resolved once from the engine number
+   protected int throttleIndex = FlightControlType.THROTTLE_1.ordinal();
+   protected int propellerIndex = FlightControlType.PROPELLER_1.ordinal();
+   protected int mixtureIndex = FlightControlType.MIXTURE_1.ordinal();
+
+   // If true, the dynamic states of the engine are held at their equilibrium for the current inputs
+   protected boolean steadyState = false;
+   // If false, the tanks are empty and the engine is starved of fuel
+   protected boolean fuelAvailable = true;
+
+   // Primitive copies of controls and environment used by the EnumMap version of updateEngineState
+   private final double[] controlsArray = new double[FlightControlType.values().length];
+   private final double[] environmentArray = new double[EnvironmentParameters.values().length];
 
    //TODO need engine model properties (etaP, advance ratio, bhp curves) for lookup tables
    //TODO etaP needs to vary
@@ -60,17 +74,93 @@ public abstract class Engine {
     * @param environmentParameters the environment Parameters
     * @param windParameters the wind Parameters
     */
-   public abstract void updateEngineState(Map<FlightControlType, Double> controls, Map<EnvironmentParameters, Double> environmentParameters, double[] windParameters);
+   public void updateEngineState(Map<FlightControlType, Double> controls, Map<EnvironmentParameters, Double> environmentParameters, double[] windParameters) {
+      FlightControlsUtilities.toArray(controls, controlsArray);
+      for (Map.Entry<EnvironmentParameters, Double> entry : environmentParameters.entrySet()) {
+         environmentArray[entry.getKey().ordinal()] = entry.getValue();
+      }
+
+      updateEngineState(controlsArray, environmentArray, windParameters);
+   }
+
+   /**
+    * Calculates all parameters of the engine given the input parameters specified below. The controls and environment
+    * parameters are primitive arrays indexed by {@link FlightControlType#ordinal()} and {@link EnvironmentParameters#ordinal()};
+    * this version is called on each step of integration and must not allocate.
+    *
+    * @param controls the controls
+    * @param environmentParameters the environment Parameters
+    * @param windParameters the wind Parameters
+    */
+   public abstract void updateEngineState(double[] controls, double[] environmentParameters, double[] windParameters);
+
+   /**
+    * Advances the dynamic states of the engine (RPM, propeller pitch...) by one step of integration, using the inputs of
+    * the last call to {@link Engine#updateEngineState(double[], double[], double[])}. Engines without dynamic states do nothing.
+    * This method is called once per step of integration and must not allocate.
+    *
+    * @param dt the time step (sec)
+    */
+   public void advance(double dt) {
+   }
+
+   /**
+    * Sets if the dynamic states of the engine are held at their equilibrium for the inputs of each call to
+    * {@link Engine#updateEngineState(double[], double[], double[])}, rather than integrated by {@link Engine#advance(double)}.
+    * This is used to trim and linearize the aircraft, and to start or reset a simulation with the engines stabilized.
+    *
+    * @param steadyState true if the engine must be held at its equilibrium
+    */
+   public void setSteadyState(boolean steadyState) {
+      this.steadyState = steadyState;
+   }
+
+   /**
+    * @return true if the dynamic states of the engine are held at their equilibrium
+    */
+   public boolean isSteadyState() {
+      return steadyState;
+   }
+
+   /**
+    * Sets if fuel is available to the engine. An engine starved of fuel produces no power and has no fuel flow.
+    *
+    * @param fuelAvailable false if the tanks feeding the engine are empty
+    */
+   public void setFuelAvailable(boolean fuelAvailable) {
+      this.fuelAvailable = fuelAvailable;
+   }
+
+   /**
+    * @return false if the engine is starved of fuel
+    */
+   public boolean isFuelAvailable() {
+      return fuelAvailable;
+   }
+
+   /**
+    * Resolves the indices of the throttle, propeller and mixture controls of this engine from its engine number, so that
+    * they do not have to be looked up at each step of integration. Engine numbers outside 1 to 4 use the controls of engine 1.
+    */
+   protected void resolveControlIndices() {
+      int offset = engineNumber - 1;
+      if (offset < 0 || offset > 3) {
+         System.err.println("Invalid engine number: " + engineNumber + "! Using the controls of engine 1.");
+         offset = 0;
+      }
+      throttleIndex = FlightControlType.THROTTLE_1.ordinal() + offset;
+      propellerIndex = FlightControlType.PROPELLER_1.ordinal() + offset;
+      mixtureIndex = FlightControlType.MIXTURE_1.ordinal() + offset;
+   }
 
    /**
     * Calculates the moment generated by the engine as a function of its thrust and location
-    * relative to the aircraft's center of gravity. Used in {@link Engine#updateEngineState(java.util.Map, java.util.Map, double[])}
+    * relative to the aircraft's center of gravity (thrust x position). Used in {@link Engine#updateEngineState(double[], double[], double[])}
     */
    protected void calculateEngMoments() {
-      Vector3D forceVector = new Vector3D(engineThrust);
-      Vector3D armVector = new Vector3D(enginePosition);
-
-      this.engineMoment = Vector3D.crossProduct(forceVector, armVector).toArray();
+      engineMoment[0] = engineThrust[1] * enginePosition[2] - engineThrust[2] * enginePosition[1];
+      engineMoment[1] = engineThrust[2] * enginePosition[0] - engineThrust[0] * enginePosition[2];
+      engineMoment[2] = engineThrust[0] * enginePosition[1] - engineThrust[1] * enginePosition[0];
    }
 
    /**
@@ -30,6 +30,11 @@ public enum EngineParameters {
    MAX_BHP("maxBHP"),
    MAX_RPM("maxRPM"),
    PROP_DIAMETER("propDiameter"),
+   PROP_INERTIA("propInertia"),
+   BLADE_ANGLE("bladeAngle"),
+   MIN_BLADE_ANGLE("minBladeAngle"),
+   MAX_BLADE_ANGLE("maxBladeAngle"),
+   MIN_GOVERNED_RPM("minGovernedRPM"),
    FUEL_FLOW("fuelFlow"),
    RPM("rpm"),
    BHP("bhp"),
@@ -23,6 +23,7 @@ import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
  */
 public enum EngineType {
    FIXEDPITCHPROP("fixedPitchProp"),
+   PISTONPROP("pistonProp"),
    CONSTSPEEDPROP("constSpeedProp"),
    TURBOPROP("turboprop"),
    JET("jet"),
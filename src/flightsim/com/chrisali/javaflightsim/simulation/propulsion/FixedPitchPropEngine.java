@@ -15,11 +15,9 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
  */
 package com.chrisali.javaflightsim.simulation.propulsion;
 
-import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import java.util.Arrays;
-import java.util.Map;
 
 /**
  * Simple piston engine model with a fixed pitch propeller.
@@ -28,6 +26,12 @@ public class FixedPitchPropEngine extends Engine {
    private double throttle;
    private double mixture;
 
+   // Static thrust terms, only recalculated when the throttle or the air density change
+   private double staticPowerThrottle = Double.NaN;
+   private double staticPowerTerm;
+   private double staticDensityRho = Double.NaN;
+   private double staticDensityTerm;
+
    /**
     * Default constructor, generating a Lycoming IO-360 representation.
     */
@@ -40,6 +44,7 @@ public class FixedPitchPropEngine extends Engine {
       this.propEfficiency = 0.85;
       this.enginePosition = new double[]{ 0, 0, 0 };
       this.engineNumber = 1;
+      resolveControlIndices();
    }
 
    /**
@@ -61,6 +66,7 @@ public class FixedPitchPropEngine extends Engine {
       this.propEfficiency = 0.85;
       this.enginePosition = enginePosition;
       this.engineNumber = engineNumber;
+      resolveControlIndices();
    }
 
    /**
@@ -68,26 +74,9 @@ public class FixedPitchPropEngine extends Engine {
     * fuel flow and RPM for this engine.
     */
    @Override
-   public void updateEngineState(Map<FlightControlType, Double> controls, Map<EnvironmentParameters, Double> environmentParameters, double[] windParameters) {
-      // Assign engine controls depending on engine number specified
-      switch (engineNumber) {
-         case 1:
-            mixture = controls.get(FlightControlType.MIXTURE_1);
-            throttle = controls.get(FlightControlType.THROTTLE_1);
-            break;
-         case 2:
-            mixture = controls.get(FlightControlType.MIXTURE_2);
-            throttle = controls.get(FlightControlType.THROTTLE_2);
-            break;
-         case 3:
-            mixture = controls.get(FlightControlType.MIXTURE_3);
-            throttle = controls.get(FlightControlType.THROTTLE_3);
-            break;
-         case 4:
-            mixture = controls.get(FlightControlType.MIXTURE_4);
-            throttle = controls.get(FlightControlType.THROTTLE_4);
-            break;
-      }
+   public void updateEngineState(double[] controls, double[] environmentParameters, double[] windParameters) {
+      mixture = fuelAvailable ? controls[mixtureIndex] : 0;
+      throttle = fuelAvailable ? controls[throttleIndex] : 0;
 
       calculateThrust(environmentParameters, windParameters);
 
@@ -107,13 +96,23 @@ public class FixedPitchPropEngine extends Engine {
     *
     * @return Double array vector of engine force (lbf)
     */
-   private void calculateThrust(Map<EnvironmentParameters, Double> environmentParameters,
+   private void calculateThrust(double[] environmentParameters,
            double[] windParameters) {
+      double rho = environmentParameters[EnvironmentParameters.RHO.ordinal()];
+
       // Consider static thrust case at low speeds
       if (windParameters[0] <= 65) {
-         this.engineThrust[0] = Math.pow((throttle * maxBHP * HP_2_FTLBS), 0.6667) * Math.pow((2 * environmentParameters.get(EnvironmentParameters.RHO) * propArea), 0.3333);
+         if (throttle != staticPowerThrottle) {
+            staticPowerThrottle = throttle;
+            staticPowerTerm = Math.pow((throttle * maxBHP * HP_2_FTLBS), 0.6667);
+         }
+         if (rho != staticDensityRho) {
+            staticDensityRho = rho;
+            staticDensityTerm = Math.pow((2 * rho * propArea), 0.3333);
+         }
+         this.engineThrust[0] = staticPowerTerm * staticDensityTerm;
       } else {
-         this.engineThrust[0] = (throttle * maxBHP * HP_2_FTLBS) * ((A_P * environmentParameters.get(EnvironmentParameters.RHO) / RHO_SSL) - B_P) * (propEfficiency / windParameters[0]);
+         this.engineThrust[0] = (throttle * maxBHP * HP_2_FTLBS) * ((A_P * rho / RHO_SSL) - B_P) * (propEfficiency / windParameters[0]);
       }
    }
 
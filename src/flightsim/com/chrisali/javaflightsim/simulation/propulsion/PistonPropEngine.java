@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import java.util.Arrays;
+
+/**
+ * Table driven piston engine model, driving either a fixed pitch or a constant speed propeller.
+ *
+ * <p>
+ * The engine power is looked up in a power table as a function of the RPM and of the manifold pressure, which is set by the throttle
+ * and the ambient pressure, and corrected for the temperature and the mixture. The propeller thrust and absorbed power are looked up in
+ * thrust and power coefficient tables as a function of the advance ratio and of the blade angle (see {@link PropulsionTables}).</p>
+ *
+ * <p>
+ * The RPM is a dynamic state driven by the difference between the engine and propeller torques, integrated by {@link Engine#advance(double)}
+ * with an implicit step so that it remains stable for the light propellers of small engines. A constant speed propeller has a second state,
+ * its blade angle, which is driven by a governor towards the RPM set by the propeller control. When the engine is held in steady state, both
+ * states are solved for their equilibrium at each update.</p>
+ *
+ * <p>
+ * The controls of the engine are resolved once from its engine number, and the evaluation of the engine only uses preallocated tables, so
+ * that it does not allocate memory during the simulation.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class PistonPropEngine extends Engine {
+   /**
+    * Default blade angle of a fixed pitch propeller at 75% of the radius (deg)
+    */
+   public static final double DEFAULT_BLADE_ANGLE = 21;
+   /**
+    * Default minimum blade angle of a constant speed propeller at 75% of the radius (deg)
+    */
+   public static final double DEFAULT_MIN_BLADE_ANGLE = 10;
+   /**
+    * Default maximum blade angle of a constant speed propeller at 75% of the radius (deg)
+    */
+   public static final double DEFAULT_MAX_BLADE_ANGLE = 40;
+   /**
+    * Default moment of inertia of the propeller and of the engine's rotating parts (slug*ft^2)
+    */
+   public static final double DEFAULT_PROP_INERTIA = 1.67;
+
+   // Ambient pressure conversion (lbf/ft^2 per inHg)
+   private static final double PSF_PER_INHG = 70.7262;
+   private static final double T_SSL = 518.67;
+   // Manifold pressure as a fraction of the ambient pressure with a closed and with a fully open throttle
+   private static final double MIN_MAP_RATIO = 0.3;
+   private static final double MAX_MAP_RATIO = 1.0;
+   // Mixture giving the best power, and mixture below which the engine stops
+   private static final double BEST_POWER_MIXTURE = 0.85;
+   private static final double IDLE_CUTOFF_MIXTURE = 0.05;
+   // Brake specific fuel consumption (lb/hp/hr) and density of avgas (lb/gal)
+   private static final double BSFC = 0.4;
+   private static final double AVGAS_DENSITY = 6.0;
+   // RPM limits, as fractions of the maximum RPM
+   private static final double MIN_RPM_RATIO = 0.05;
+   private static final double OVERSPEED_RPM_RATIO = 1.5;
+   // Default lowest RPM of the governor, as a fraction of the maximum RPM
+   private static final double DEFAULT_MIN_GOVERNED_RATIO = 2.0 / 3.0;
+   // Rate of change of the blade angle per RPM of error (deg/s/rpm), maximum rate of change (deg/s) and lead of the governor (s)
+   private static final double GOVERNOR_GAIN = 0.02;
+   private static final double MAX_PITCH_RATE = 10;
+   private static final double GOVERNOR_LEAD = 0.5;
+   private static final double RPM_2_RADS = Math.PI / 30;
+   private static final int MAX_ITERATIONS = 100;
+
+   private InterpolationTable enginePower = PropulsionTables.getDefaultEnginePower();
+   private InterpolationTable propThrust = PropulsionTables.getDefaultPropThrust();
+   private InterpolationTable propPower = PropulsionTables.getDefaultPropPower();
+
+   private double propInertia = DEFAULT_PROP_INERTIA;
+   private boolean constantSpeed = false;
+   private double minBladeAngle = DEFAULT_BLADE_ANGLE;
+   private double maxBladeAngle = DEFAULT_BLADE_ANGLE;
+   private double minGovernedRPM;
+   private final double minRPM;
+   private final double overspeedRPM;
+
+   // Dynamic states
+   private double bladeAngle = DEFAULT_BLADE_ANGLE;
+
+   // Inputs of the last update
+   private double rho;
+   private double airspeed;
+   private double manifoldPressure;
+   private double availablePower;
+   private double mixture;
+   private double governedRPM;
+   private double enginePowerOut;
+   private double rpmAcceleration;
+
+   /**
+    * Creates a {@link PistonPropEngine} with a fixed pitch propeller and the default tables.
+    *
+    * @param engineName the engine name
+    * @param maxBHP the max BHP at standard sea level
+    * @param maxRPM the max RPM
+    * @param propDiam the propeller diameter (ft)
+    * @param enginePosition the engine position relative to the CG (ft)
+    * @param engineNumber the number of the engine, from 1 to 4
+    */
+   public PistonPropEngine(String engineName, double maxBHP, double maxRPM, double propDiam, double[] enginePosition, int engineNumber) {
+      this.engineName = engineName;
+      this.maxBHP = maxBHP;
+      this.maxRPM = maxRPM;
+      this.propDiameter = propDiam;
+      this.propArea = Math.PI * propDiameter * propDiameter / 4;
+      this.enginePosition = enginePosition;
+      this.engineNumber = engineNumber;
+      this.minRPM = MIN_RPM_RATIO * maxRPM;
+      this.overspeedRPM = OVERSPEED_RPM_RATIO * maxRPM;
+      this.minGovernedRPM = DEFAULT_MIN_GOVERNED_RATIO * maxRPM;
+      this.rpm = minRPM;
+      resolveControlIndices();
+   }
+
+   /**
+    * Sets the engine power and propeller coefficient tables. A null table keeps the current table.
+    *
+    * @param enginePower the fraction of max BHP as a function of the fraction of max RPM and of the manifold pressure (inHg)
+    * @param propThrust the thrust coefficient as a function of the advance ratio and of the blade angle (deg)
+    * @param propPower the power coefficient as a function of the advance ratio and of the blade angle (deg)
+    */
+   public void setTables(InterpolationTable enginePower, InterpolationTable propThrust, InterpolationTable propPower) {
+      if (enginePower != null) {
+         this.enginePower = enginePower;
+      }
+      if (propThrust != null) {
+         this.propThrust = propThrust;
+      }
+      if (propPower != null) {
+         this.propPower = propPower;
+      }
+   }
+
+   /**
+    * Sets the moment of inertia of the propeller and of the engine's rotating parts.
+    *
+    * @param propInertia the moment of inertia (slug*ft^2)
+    * @throws IllegalArgumentException if the inertia is not strictly positive
+    */
+   public void setPropInertia(double propInertia) {
+      if (!(propInertia > 0)) {
+         throw new IllegalArgumentException("Invalid propeller inertia: " + propInertia);
+      }
+      this.propInertia = propInertia;
+   }
+
+   /**
+    * Uses a fixed pitch propeller.
+    *
+    * @param bladeAngle the blade angle at 75% of the radius (deg)
+    */
+   public void setFixedPitch(double bladeAngle) {
+      this.constantSpeed = false;
+      this.minBladeAngle = bladeAngle;
+      this.maxBladeAngle = bladeAngle;
+      this.bladeAngle = bladeAngle;
+   }
+
+   /**
+    * Uses a constant speed propeller, whose governor holds an RPM set by the propeller control between minGovernedRPM (control at 0)
+    * and the max RPM (control at 1).
+    *
+    * @param minBladeAngle the minimum (fine) blade angle at 75% of the radius (deg)
+    * @param maxBladeAngle the maximum (coarse) blade angle at 75% of the radius (deg)
+    * @param minGovernedRPM the lowest RPM of the governor
+    * @throws IllegalArgumentException if the blade angles or the governed RPM are inconsistent
+    */
+   public void setConstantSpeed(double minBladeAngle, double maxBladeAngle, double minGovernedRPM) {
+      if (!(maxBladeAngle > minBladeAngle)) {
+         throw new IllegalArgumentException("Invalid blade angles: " + minBladeAngle + " to " + maxBladeAngle);
+      }
+      if (!(minGovernedRPM > minRPM && minGovernedRPM <= maxRPM)) {
+         throw new IllegalArgumentException("Invalid minimum governed RPM: " + minGovernedRPM);
+      }
+      this.constantSpeed = true;
+      this.minBladeAngle = minBladeAngle;
+      this.maxBladeAngle = maxBladeAngle;
+      this.minGovernedRPM = minGovernedRPM;
+      this.bladeAngle = minBladeAngle;
+   }
+
+   /**
+    * @return true if the propeller is a constant speed propeller
+    */
+   public boolean isConstantSpeed() {
+      return constantSpeed;
+   }
+
+   /**
+    * @return the blade angle at 75% of the radius (deg)
+    */
+   public double getBladeAngle() {
+      return bladeAngle;
+   }
+
+   /**
+    * @return the manifold pressure (inHg)
+    */
+   public double getManifoldPressure() {
+      return manifoldPressure;
+   }
+
+   /**
+    * @return the brake horsepower delivered by the engine
+    */
+   public double getBHP() {
+      return enginePowerOut / HP_2_FTLBS;
+   }
+
+   /**
+    * @return the propeller efficiency
+    */
+   public double getPropEfficiency() {
+      return propEfficiency;
+   }
+
+   /**
+    * Updates all fields of engine. Called by the simulation to recalculate thrust, moment, fuel flow and RPM for this engine. If the engine is
+    * held in steady state, the RPM and blade angle are first solved for their equilibrium.
+    */
+   @Override
+   public void updateEngineState(double[] controls, double[] environmentParameters, double[] windParameters) {
+      double throttle = controls[throttleIndex];
+      mixture = fuelAvailable ? controls[mixtureIndex] : 0;
+      governedRPM = minGovernedRPM + controls[propellerIndex] * (maxRPM - minGovernedRPM);
+
+      rho = environmentParameters[EnvironmentParameters.RHO.ordinal()];
+      airspeed = Math.max(0, windParameters[0]);
+      double ambientPressure = environmentParameters[EnvironmentParameters.P.ordinal()] / PSF_PER_INHG;
+      manifoldPressure = ambientPressure * (MIN_MAP_RATIO + (MAX_MAP_RATIO - MIN_MAP_RATIO) * throttle);
+
+      double mixtureFactor = (mixture < IDLE_CUTOFF_MIXTURE) ? 0 : Math.min(1, mixture / BEST_POWER_MIXTURE);
+      availablePower = maxBHP * HP_2_FTLBS * mixtureFactor * Math.sqrt(T_SSL / environmentParameters[EnvironmentParameters.T.ordinal()]);
+
+      if (steadyState) {
+         solveSteadyState();
+      }
+
+      double n = rpm / 60;
+      double advanceRatio = airspeed / (n * propDiameter);
+      double dynamic = rho * n * n * propDiameter * propDiameter * propDiameter * propDiameter;
+      double thrustCoefficient = propThrust.value(advanceRatio, bladeAngle);
+      double powerCoefficient = propPower.value(advanceRatio, bladeAngle);
+
+      engineThrust[0] = thrustCoefficient * dynamic;
+      calculateEngMoments();
+      // Reaction to the torque absorbed by a propeller turning clockwise seen from behind
+      engineMoment[0] -= powerCoefficient * dynamic * propDiameter / (2 * Math.PI);
+
+      enginePowerOut = enginePower(rpm);
+      double absorbedPower = powerCoefficient * dynamic * n * propDiameter;
+      rpmAcceleration = (enginePowerOut - absorbedPower) / (propInertia * rpm * RPM_2_RADS * RPM_2_RADS);
+      propEfficiency = (powerCoefficient > 0) ? advanceRatio * thrustCoefficient / powerCoefficient : 0;
+      fuelFlow = Math.max(0, enginePowerOut / HP_2_FTLBS) * BSFC / AVGAS_DENSITY * mixture / BEST_POWER_MIXTURE;
+   }
+
+   /**
+    * Advances the RPM and, for a constant speed propeller, the blade angle, using the inputs of the last update.
+    *
+    * @param dt the time step (sec)
+    */
+   @Override
+   public void advance(double dt) {
+      if (steadyState) {
+         return;
+      }
+
+      // Implicit Euler step on the RPM, using the acceleration of the last update and its local derivative
+      double delta = 1.0e-3 * maxRPM;
+      double derivative = (rpmRate(rpm + delta) - rpmAcceleration) / delta;
+      double denominator = 1 - dt * derivative;
+      double next = (denominator > 1) ? rpm + dt * rpmAcceleration / denominator : rpm + dt * rpmAcceleration;
+      double acceleration = (next - rpm) / dt;
+      rpm = Math.max(minRPM, Math.min(overspeedRPM, next));
+
+      // The governor changes the pitch in proportion to the RPM error, with a lead on the RPM acceleration to damp the response
+      if (constantSpeed) {
+         double pitchRate = GOVERNOR_GAIN * (rpm - governedRPM + GOVERNOR_LEAD * acceleration);
+         pitchRate = Math.max(-MAX_PITCH_RATE, Math.min(MAX_PITCH_RATE, pitchRate));
+         bladeAngle = Math.max(minBladeAngle, Math.min(maxBladeAngle, bladeAngle + pitchRate * dt));
+      }
+   }
+
+   /**
+    * Solves the RPM, and the blade angle of a constant speed propeller, for which the engine and propeller powers balance. A constant speed
+    * propeller which can not hold the governed RPM stays on its fine or coarse stop.
+    */
+   private void solveSteadyState() {
+      if (!constantSpeed) {
+         rpm = solveRPM(bladeAngle);
+         return;
+      }
+
+      double target = Math.max(minRPM, Math.min(overspeedRPM, governedRPM));
+      double engine = enginePower(target);
+      double low = minBladeAngle;
+      double high = maxBladeAngle;
+      double fLow = engine - propellerPower(target, low);
+      double fHigh = engine - propellerPower(target, high);
+
+      if (fLow <= 0) {
+         bladeAngle = low;
+         rpm = solveRPM(low);
+      } else if (fHigh >= 0) {
+         bladeAngle = high;
+         rpm = solveRPM(high);
+      } else {
+         bladeAngle = illinois(target, low, high, fLow, fHigh, true);
+         rpm = target;
+      }
+   }
+
+   private double solveRPM(double blade) {
+      double fLow = enginePower(minRPM) - propellerPower(minRPM, blade);
+      if (fLow <= 0) {
+         return minRPM;
+      }
+      double fHigh = enginePower(overspeedRPM) - propellerPower(overspeedRPM, blade);
+      if (fHigh >= 0) {
+         return overspeedRPM;
+      }
+
+      return illinois(blade, minRPM, overspeedRPM, fLow, fHigh, false);
+   }
+
+   /**
+    * Finds the root of the power balance between low and high with the Illinois variant of the regula falsi, either on the blade angle at
+    * a fixed RPM or on the RPM at a fixed blade angle.
+    */
+   private double illinois(double fixed, double low, double high, double fLow, double fHigh, boolean onBladeAngle) {
+      double tolerance = 1.0e-12 * maxBHP * HP_2_FTLBS;
+      double x = low;
+      int side = 0;
+
+      for (int i = 0; i < MAX_ITERATIONS; i++) {
+         x = (low * fHigh - high * fLow) / (fHigh - fLow);
+         double f = onBladeAngle ? enginePower(fixed) - propellerPower(fixed, x) : enginePower(x) - propellerPower(x, fixed);
+         if (Math.abs(f) <= tolerance || high - low <= 1.0e-12 * (Math.abs(high) + Math.abs(low))) {
+            break;
+         }
+
+         if ((f > 0) == (fLow > 0)) {
+            low = x;
+            fLow = f;
+            if (side == -1) {
+               fHigh *= 0.5;
+            }
+            side = -1;
+         } else {
+            high = x;
+            fHigh = f;
+            if (side == 1) {
+               fLow *= 0.5;
+            }
+            side = 1;
+         }
+      }
+
+      return x;
+   }
+
+   private double rpmRate(double engineRPM) {
+      double omega = engineRPM * RPM_2_RADS;
+
+      return (enginePower(engineRPM) - propellerPower(engineRPM, bladeAngle)) / (propInertia * omega * RPM_2_RADS);
+   }
+
+   private double enginePower(double engineRPM) {
+      return availablePower * enginePower.value(engineRPM / maxRPM, manifoldPressure);
+   }
+
+   private double propellerPower(double engineRPM, double blade) {
+      double n = engineRPM / 60;
+      double advanceRatio = airspeed / (n * propDiameter);
+      double d2 = propDiameter * propDiameter;
+
+      return propPower.value(advanceRatio, blade) * rho * n * n * n * d2 * d2 * propDiameter;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+
+      sb.append("Engine: ").append(engineName).append(" (# ").append(Integer.toString(engineNumber)).append(")")
+              .append("\nMax BHP: ").append(maxBHP)
+              .append("\nMax RPM: ").append(maxRPM)
+              .append("\nProp Diameter [ft]: ").append(propDiameter)
+              .append("\nPropeller: ").append(constantSpeed ? "constant speed" : "fixed pitch")
+              .append(" (").append(minBladeAngle).append(" to ").append(maxBladeAngle).append(" deg)")
+              .append("\nEngine Position [ft]: ").append(Arrays.toString(enginePosition));
+
+      return sb.toString();
+   }
+}
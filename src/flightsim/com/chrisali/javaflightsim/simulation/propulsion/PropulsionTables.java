@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Performance tables used by {@link PistonPropEngine}:
+ * <ul>
+ * <li>the engine power table, giving the fraction of the maximum brake horsepower at standard temperature as a function of the
+ * fraction of maximum RPM (rows) and of the manifold pressure in inHg (columns)</li>
+ * <li>the propeller thrust and power coefficient tables, giving C<sub>T</sub> = T / (&rho; n<sup>2</sup> D<sup>4</sup>) and
+ * C<sub>P</sub> = P / (&rho; n<sup>3</sup> D<sup>5</sup>) as a function of the advance ratio J = V / (n D) (rows) and of the blade
+ * angle at 75% of the radius in degrees (columns)</li>
+ * </ul>
+ * The default tables are computed once and shared by all engines which do not define their own tables. Aircraft can define their own
+ * tables in their <code>LookupTables</code> folder, in the same format as the stability derivative tables (values separated by ",\t", first
+ * row containing the column breakpoints and first column containing the row breakpoints), but without any unit conversion.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public final class PropulsionTables {
+   /**
+    * Name of the engine power table file
+    */
+   public static final String ENGINE_POWER = "EnginePower";
+   /**
+    * Name of the propeller thrust coefficient table file
+    */
+   public static final String PROP_THRUST = "PropThrust";
+   /**
+    * Name of the propeller power coefficient table file
+    */
+   public static final String PROP_POWER = "PropPower";
+
+   // Manifold pressure of the standard sea level atmosphere (inHg)
+   private static final double MAP_SSL = 29.92;
+   // Fraction of the maximum power lost in friction at maximum RPM
+   private static final double FRICTION_FRACTION = 0.1;
+
+   // Blade element properties of the default propeller, evaluated at 75% of the radius
+   private static final double SOLIDITY = 0.035;
+   private static final double CL_0 = 0.3;
+   private static final double CL_ALPHA = 2 * Math.PI * 0.9;
+   private static final double CL_MAX = 1.3;
+   private static final double CD_0 = 0.02;
+   private static final double CD_K = 0.01;
+   private static final double CD_STALL = 2.0;
+   private static final double STATION = 0.75 * Math.PI;
+
+   private static final InterpolationTable DEFAULT_ENGINE_POWER = createDefaultEnginePower();
+   private static final InterpolationTable[] DEFAULT_PROP_TABLES = createDefaultPropTables();
+
+   private PropulsionTables() {
+   }
+
+   /**
+    * @return the default engine power table, shared by all engines
+    */
+   public static InterpolationTable getDefaultEnginePower() {
+      return DEFAULT_ENGINE_POWER;
+   }
+
+   /**
+    * @return the default propeller thrust coefficient table, shared by all engines
+    */
+   public static InterpolationTable getDefaultPropThrust() {
+      return DEFAULT_PROP_TABLES[0];
+   }
+
+   /**
+    * @return the default propeller power coefficient table, shared by all engines
+    */
+   public static InterpolationTable getDefaultPropPower() {
+      return DEFAULT_PROP_TABLES[1];
+   }
+
+   /**
+    * Reads a table named "tableName".txt in a directory. If the file does not exist, the default table is returned silently; if it can not
+    * be parsed, an error is reported and the default table is returned.
+    *
+    * @param directory the directory
+    * @param tableName the table name, without the .txt extension
+    * @param defaultTable the table to use if the file does not exist or is invalid
+    * @return the cubic table read from the file, clamped to its breakpoints
+    */
+   public static InterpolationTable readTable(File directory, String tableName, InterpolationTable defaultTable) {
+      if (directory == null) {
+         return defaultTable;
+      }
+      File file = new File(directory, tableName + ".txt");
+      if (!file.exists()) {
+         return defaultTable;
+      }
+
+      try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+         List<double[]> lines = new ArrayList<>();
+         String readLine;
+         while ((readLine = br.readLine()) != null) {
+            if (readLine.trim().isEmpty()) {
+               continue;
+            }
+            String[] split = readLine.split(",\t");
+            double[] line = new double[split.length];
+            for (int i = 0; i < split.length; i++) {
+               line[i] = Double.parseDouble(split[i].trim());
+            }
+            lines.add(line);
+         }
+         if (lines.size() < 3) {
+            throw new IllegalArgumentException("Not enough rows");
+         }
+
+         double[] columnBreakpoints = lines.get(0);
+         double[] rowBreakpoints = new double[lines.size() - 1];
+         double[][] values = new double[rowBreakpoints.length][];
+         for (int i = 0; i < rowBreakpoints.length; i++) {
+            double[] line = lines.get(i + 1);
+            if (line.length != columnBreakpoints.length + 1) {
+               throw new IllegalArgumentException("Row " + (i + 1) + " does not have " + (columnBreakpoints.length + 1) + " values");
+            }
+            rowBreakpoints[i] = line[0];
+            values[i] = new double[columnBreakpoints.length];
+            System.arraycopy(line, 1, values[i], 0, columnBreakpoints.length);
+         }
+
+         return new InterpolationTable(rowBreakpoints, columnBreakpoints, values,
+                 InterpolationTable.Interpolation.CUBIC, InterpolationTable.Extrapolation.CLAMP);
+      } catch (IOException e) {
+         System.err.println("Could not read: " + tableName + ".txt! Using the default table.");
+      } catch (NumberFormatException e) {
+         System.err.println("Error parsing number data from " + tableName + ".txt! Using the default table.");
+      } catch (IllegalArgumentException e) {
+         System.err.println("Invalid table in " + tableName + ".txt: " + e.getMessage() + "! Using the default table.");
+      }
+
+      return defaultTable;
+   }
+
+   /**
+    * Creates the default engine power table: the indicated power is proportional to the manifold pressure and to the RPM, and
+    * friction losses grow with the square of the RPM.
+    */
+   private static InterpolationTable createDefaultEnginePower() {
+      double[] rpmBreakpoints = new double[14];
+      double[] mapBreakpoints = new double[16];
+      double[][] values = new double[rpmBreakpoints.length][mapBreakpoints.length];
+
+      for (int j = 0; j < mapBreakpoints.length; j++) {
+         mapBreakpoints[j] = 10 + 2 * j;
+      }
+      for (int i = 0; i < rpmBreakpoints.length; i++) {
+         rpmBreakpoints[i] = 0.1 * i;
+         for (int j = 0; j < mapBreakpoints.length; j++) {
+            values[i][j] = (mapBreakpoints[j] / MAP_SSL) * rpmBreakpoints[i] * (1 + FRICTION_FRACTION)
+                    - FRICTION_FRACTION * rpmBreakpoints[i] * rpmBreakpoints[i];
+         }
+      }
+
+      return new InterpolationTable(rpmBreakpoints, mapBreakpoints, values,
+              InterpolationTable.Interpolation.CUBIC, InterpolationTable.Extrapolation.CLAMP);
+   }
+
+   /**
+    * Creates the default propeller coefficient tables from a blade element evaluated at 75% of the radius, with the induced velocity
+    * given by the momentum theory.
+    */
+   private static InterpolationTable[] createDefaultPropTables() {
+      double[] advanceRatios = new double[31];
+      double[] bladeAngles = new double[21];
+      double[][] thrust = new double[advanceRatios.length][bladeAngles.length];
+      double[][] power = new double[advanceRatios.length][bladeAngles.length];
+      double[] coefficients = new double[2];
+
+      for (int j = 0; j < bladeAngles.length; j++) {
+         bladeAngles[j] = 2.5 * j;
+      }
+      for (int i = 0; i < advanceRatios.length; i++) {
+         advanceRatios[i] = 0.1 * i;
+         for (int j = 0; j < bladeAngles.length; j++) {
+            double beta = Math.toRadians(bladeAngles[j]);
+
+            // Solve the induced inflow ratio balancing the blade element and momentum thrusts
+            double inflow = 0;
+            bladeElement(advanceRatios[i], 0, beta, coefficients);
+            if (coefficients[0] > 0) {
+               double low = 0;
+               double high = 2;
+               for (int k = 0; k < 60; k++) {
+                  inflow = 0.5 * (low + high);
+                  bladeElement(advanceRatios[i], inflow, beta, coefficients);
+                  double momentum = 0.5 * Math.PI * (advanceRatios[i] + inflow) * inflow;
+                  if (coefficients[0] > momentum) {
+                     low = inflow;
+                  } else {
+                     high = inflow;
+                  }
+               }
+               bladeElement(advanceRatios[i], inflow, beta, coefficients);
+            }
+            thrust[i][j] = coefficients[0];
+            power[i][j] = coefficients[1];
+         }
+      }
+
+      return new InterpolationTable[]{
+         new InterpolationTable(advanceRatios, bladeAngles, thrust, InterpolationTable.Interpolation.CUBIC, InterpolationTable.Extrapolation.CLAMP),
+         new InterpolationTable(advanceRatios, bladeAngles, power, InterpolationTable.Interpolation.CUBIC, InterpolationTable.Extrapolation.CLAMP) };
+   }
+
+   private static void bladeElement(double advanceRatio, double inflow, double beta, double[] coefficients) {
+      double axial = advanceRatio + inflow;
+      double phi = Math.atan2(axial, STATION);
+      double velocity2 = STATION * STATION + axial * axial;
+
+      double cl = CL_0 + CL_ALPHA * (beta - phi);
+      double stall = Math.max(0, Math.abs(cl) - CL_MAX) / CL_ALPHA;
+      cl = Math.max(-CL_MAX, Math.min(CL_MAX, cl));
+      double cd = CD_0 + CD_K * cl * cl + CD_STALL * stall;
+
+      coefficients[0] = 0.5 * SOLIDITY * velocity2 * (cl * Math.cos(phi) - cd * Math.sin(phi));
+      coefficients[1] = 0.5 * SOLIDITY * velocity2 * 2 * Math.PI * 0.375 * (cl * Math.sin(phi) + cd * Math.cos(phi));
+   }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOutsListener;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+
+/**
+ * Streams the simulation outputs of each step of integration to a binary flight recording as they are logged. The recording starts with
+ * a {@link RecordingHeader}, and rows are appended to the file through memory mapped chunks, so that writing a row is a bulk copy of
+ * the simulation outputs with no formatting, boxing or system call.
+ *
+ * <p>
+ * The number of committed rows in the header is updated at each checkpoint, every {@link FlightRecorder#getCheckpointRows()} rows. As
+ * the mapped chunks are part of the file, the rows committed at the last checkpoint stay readable if the JVM dies; forcing the
+ * mapped chunks to the storage device at each checkpoint also protects them from a crash of the operating system, at the cost of a
+ * synchronous write. Closing the recorder commits all rows and trims the file to its rows.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class FlightRecorder implements SimOutsListener, Closeable {
+   /**
+    * Default number of rows between checkpoints
+    */
+   public static final int DEFAULT_CHECKPOINT_ROWS = 1000;
+   private static final int CHUNK_BYTES = 16 * 1024 * 1024;
+
+   private final RandomAccessFile file;
+   private final FileChannel channel;
+   private final RecordingHeader header;
+   private final int headerLength;
+   private final int channelCount;
+   private final long chunkBytes;
+   private final MappedByteBuffer headerBuffer;
+   private MappedByteBuffer chunk;
+   private DoubleBuffer chunkRows;
+   private long chunkIndex = -1;
+   private long rows = 0;
+   private long committedRows = 0;
+   private int checkpointRows = DEFAULT_CHECKPOINT_ROWS;
+   private boolean forceOnCheckpoint = false;
+   private boolean closed = false;
+   private IOException error = null;
+
+   /**
+    * Creates the recording file, replacing any existing file, and writes its header.
+    *
+    * @param file the file
+    * @param aircraftName the name of the recorded aircraft
+    * @param dt the time step of the simulation (s)
+    * @param options the options of the simulation
+    * @throws IOException if the file could not be created
+    */
+   public FlightRecorder(File file, String aircraftName, double dt, Set<Options> options) throws IOException {
+      this.header = new RecordingHeader(aircraftName, dt, options == null ? "" : options.toString());
+      this.headerLength = header.getLength();
+      this.channelCount = header.getChannelCount();
+
+      // Chunks hold a whole number of rows, so that a row is never split between two chunks
+      int rowLength = header.getRowLength();
+      this.chunkBytes = Math.max(1, CHUNK_BYTES / rowLength) * (long) rowLength;
+
+      this.file = new RandomAccessFile(file, "rw");
+      this.channel = this.file.getChannel();
+      try {
+         channel.truncate(0);
+         headerBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerLength);
+         header.write(headerBuffer);
+         headerBuffer.force();
+      } catch (IOException e) {
+         this.file.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Sets the number of rows between checkpoints.
+    *
+    * @param checkpointRows the number of rows, at least 1
+    */
+   public void setCheckpointRows(int checkpointRows) {
+      if (checkpointRows < 1) {
+         throw new IllegalArgumentException("Invalid number of rows between checkpoints: " + checkpointRows);
+      }
+      this.checkpointRows = checkpointRows;
+   }
+
+   /**
+    * @return the number of rows between checkpoints
+    */
+   public int getCheckpointRows() {
+      return checkpointRows;
+   }
+
+   /**
+    * Sets if the mapped chunks are forced to the storage device at each checkpoint (false by default).
+    *
+    * @param forceOnCheckpoint true to force the rows to the storage device at each checkpoint
+    */
+   public void setForceOnCheckpoint(boolean forceOnCheckpoint) {
+      this.forceOnCheckpoint = forceOnCheckpoint;
+   }
+
+   /**
+    * @return the header of the recording
+    */
+   public RecordingHeader getHeader() {
+      return header;
+   }
+
+   @Override
+   public void onSimOutsReceived(double[] simOutValues) {
+      if (closed || error != null) {
+         return;
+      }
+
+      try {
+         if (chunkRows == null || !chunkRows.hasRemaining()) {
+            mapNextChunk();
+         }
+         chunkRows.put(simOutValues, 0, channelCount);
+         rows++;
+         if (rows - committedRows >= checkpointRows) {
+            checkpoint();
+         }
+      } catch (IOException e) {
+         // Keep the first error, and stop writing rows; it is rethrown by close()
+         error = e;
+      }
+   }
+
+   private void mapNextChunk() throws IOException {
+      if (chunk != null && forceOnCheckpoint) {
+         chunk.force();
+      }
+      chunkIndex++;
+      chunk = channel.map(FileChannel.MapMode.READ_WRITE, headerLength + chunkIndex * chunkBytes, chunkBytes);
+      chunk.order(RecordingHeader.BYTE_ORDER);
+      chunkRows = chunk.asDoubleBuffer();
+   }
+
+   /**
+    * Commits the rows written so far, updating the number of committed rows in the header.
+    *
+    * @throws IOException if the rows could not be forced to the storage device
+    */
+   public void checkpoint() throws IOException {
+      if (closed) {
+         return;
+      }
+      if (forceOnCheckpoint && chunk != null) {
+         chunk.force();
+      }
+      headerBuffer.putLong(RecordingHeader.COMMITTED_ROWS_OFFSET, rows);
+      if (forceOnCheckpoint) {
+         headerBuffer.force();
+      }
+      committedRows = rows;
+   }
+
+   /**
+    * @return the number of rows written
+    */
+   public long getRows() {
+      return rows;
+   }
+
+   /**
+    * @return the number of rows committed at the last checkpoint
+    */
+   public long getCommittedRows() {
+      return committedRows;
+   }
+
+   /**
+    * @return the size of the recording once closed (bytes)
+    */
+   public long getRecordingLength() {
+      return headerLength + rows * header.getRowLength();
+   }
+
+   /**
+    * Commits all rows, forces them to the storage device, trims the file to its rows and closes it.
+    *
+    * @throws IOException if a row could not be written, or the file could not be closed
+    */
+   @Override
+   public void close() throws IOException {
+      if (closed) {
+         return;
+      }
+      try {
+         if (chunk != null) {
+            chunk.force();
+         }
+         headerBuffer.putLong(RecordingHeader.COMMITTED_ROWS_OFFSET, rows);
+         headerBuffer.force();
+         committedRows = rows;
+         closed = true;
+         chunk = null;
+         chunkRows = null;
+         try {
+            channel.truncate(getRecordingLength());
+         } catch (IOException e) {
+            // Some platforms can not truncate a file still mapped; the committed rows in the header remain authoritative
+            System.err.println("Unable to trim flight recording to " + getRecordingLength() + " bytes: " + e.getLocalizedMessage());
+         }
+      } finally {
+         file.close();
+      }
+      if (error != null) {
+         throw error;
+      }
+   }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random access reader of a flight recording written by {@link FlightRecorder}. The rows are memory mapped and read in place, without
+ * loading the recording: values, channels and zero-copy {@link DoubleBuffer} views over ranges of rows are read directly from the
+ * mapped file, and time range queries and extrema use a {@link RecordingIndex}, built at the first opening of the recording and
+ * cached next to it.
+ *
+ * <p>
+ * Only the rows committed at the last checkpoint of the recorder are read, so that a recording still being written, or left by a
+ * simulation which did not end properly, can be read. Rows are numbered from 0, and row ranges include their first row and exclude
+ * their end row. The time of the rows must not decrease, which is the case of all recordings of
+ * {@link com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations}.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class FlightRecordingReader implements Closeable {
+   private static final long SEGMENT_BYTES = 512L * 1024 * 1024;
+
+   private final RandomAccessFile file;
+   private final RecordingHeader header;
+   private final long rowCount;
+   private final int channelCount;
+   private final int timeChannel;
+   private final long segmentRows;
+   private final DoubleBuffer[] segments;
+   private final RecordingIndex index;
+
+   /**
+    * Opens a recording, building and caching its index if it has no valid cached index.
+    *
+    * @param recording the recording file
+    * @throws IOException if the file could not be read, or is not a flight recording
+    */
+   public FlightRecordingReader(File recording) throws IOException {
+      this.file = new RandomAccessFile(recording, "r");
+      try {
+         FileChannel channel = file.getChannel();
+         ByteBuffer fixed = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 16)).order(RecordingHeader.BYTE_ORDER);
+         if (fixed.limit() < 16) {
+            throw new IOException("Truncated flight recording header");
+         }
+         int headerLength = fixed.getInt(12);
+         if (headerLength < 16 || headerLength > channel.size()) {
+            throw new IOException("Invalid flight recording header length: " + headerLength);
+         }
+         this.header = RecordingHeader.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength));
+         this.channelCount = header.getChannelCount();
+         this.timeChannel = header.getChannelIndex(SimOuts.TIME);
+         if (timeChannel < 0) {
+            throw new IOException("Flight recording without time channel");
+         }
+
+         int rowLength = header.getRowLength();
+         this.rowCount = Math.min(header.getCommittedRows(), (channel.size() - headerLength) / rowLength);
+
+         // Each segment maps two segments of rows, so that any range of at most segmentRows rows lies in a single segment
+         this.segmentRows = Math.max(1, SEGMENT_BYTES / rowLength);
+         this.segments = new DoubleBuffer[(int) ((rowCount + segmentRows - 1) / segmentRows)];
+         for (int i = 0; i < segments.length; i++) {
+            long first = i * segmentRows;
+            long rows = Math.min(2 * segmentRows, rowCount - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, headerLength + first * rowLength, rows * rowLength)
+                    .order(RecordingHeader.BYTE_ORDER).asDoubleBuffer();
+         }
+
+         this.index = loadIndex(new File(recording.getPath() + RecordingIndex.EXTENSION));
+      } catch (IOException | RuntimeException e) {
+         file.close();
+         throw e;
+      }
+   }
+
+   private RecordingIndex loadIndex(File indexFile) {
+      try {
+         RecordingIndex cached = RecordingIndex.read(indexFile, header, rowCount);
+         if (cached != null) {
+            return cached;
+         }
+      } catch (IOException e) {
+         System.err.println("Unable to read flight recording index " + indexFile + ": " + e.getLocalizedMessage() + "! Rebuilding it.");
+      }
+
+      RecordingIndex built = RecordingIndex.build(this, timeChannel);
+      try {
+         built.write(indexFile);
+      } catch (IOException e) {
+         System.err.println("Unable to cache flight recording index " + indexFile + ": " + e.getLocalizedMessage());
+      }
+      return built;
+   }
+
+   /**
+    * @return the header of the recording
+    */
+   public RecordingHeader getHeader() {
+      return header;
+   }
+
+   /**
+    * @return the index of the recording
+    */
+   public RecordingIndex getIndex() {
+      return index;
+   }
+
+   /**
+    * @return the number of rows which can be read
+    */
+   public long getRowCount() {
+      return rowCount;
+   }
+
+   /**
+    * @return the maximum number of rows of a view returned by {@link FlightRecordingReader#getRows(long, int)}
+    */
+   public int getMaxViewRows() {
+      return (int) Math.min(Integer.MAX_VALUE / channelCount, segmentRows);
+   }
+
+   private int channelIndex(SimOuts simOut) {
+      int channel = header.getChannelIndex(simOut);
+      if (channel < 0) {
+         throw new IllegalArgumentException(simOut + " is not recorded");
+      }
+      return channel;
+   }
+
+   private void checkRange(long firstRow, long endRow) {
+      if (firstRow < 0 || endRow > rowCount || firstRow > endRow) {
+         throw new IndexOutOfBoundsException("Rows: " + firstRow + " to " + endRow + ", Size: " + rowCount);
+      }
+   }
+
+   private double value(long row, int channel) {
+      int segment = (int) (row / segmentRows);
+      return segments[segment].get((int) ((row - segment * segmentRows) * channelCount + channel));
+   }
+
+   /**
+    * Returns the value of a simulation output in a row.
+    *
+    * @param row the row
+    * @param simOut the simulation output
+    * @return the value
+    */
+   public double get(long row, SimOuts simOut) {
+      checkRange(row, row + 1);
+      return value(row, channelIndex(simOut));
+   }
+
+   /**
+    * @param row the row
+    * @return the time of the row (s)
+    */
+   public double getTime(long row) {
+      checkRange(row, row + 1);
+      return value(row, timeChannel);
+   }
+
+   /**
+    * Returns a read-only view over a range of rows, reading directly from the mapped recording. Rows follow each other in the view,
+    * each row being made of {@link RecordingHeader#getChannelCount()} values in the order of the channels of the header.
+    *
+    * @param firstRow the first row
+    * @param rowCount the number of rows, at most {@link FlightRecordingReader#getMaxViewRows()}
+    * @return the view
+    */
+   public DoubleBuffer getRows(long firstRow, int rowCount) {
+      checkRange(firstRow, firstRow + rowCount);
+      if (rowCount > getMaxViewRows()) {
+         throw new IllegalArgumentException("Too many rows for a view: " + rowCount + ", Maximum: " + getMaxViewRows());
+      }
+      if (rowCount == 0) {
+         return DoubleBuffer.allocate(0).asReadOnlyBuffer();
+      }
+
+      int segment = (int) (firstRow / segmentRows);
+      DoubleBuffer view = segments[segment].duplicate();
+      int start = (int) ((firstRow - segment * segmentRows) * channelCount);
+      view.limit(start + rowCount * channelCount);
+      view.position(start);
+      return view.slice();
+   }
+
+   /**
+    * Returns the first row whose time is at or after a time.
+    *
+    * @param time the time (s)
+    * @return the row, or {@link FlightRecordingReader#getRowCount()} if all rows are before the time
+    */
+   public long findRow(double time) {
+      return search(time, false);
+   }
+
+   /**
+    * Returns the range of the rows whose time is between two times, both included.
+    *
+    * @param fromTime the start time (s)
+    * @param toTime the end time (s)
+    * @return the first row and the end row of the range
+    */
+   public long[] getRowRange(double fromTime, double toTime) {
+      long first = search(fromTime, false);
+      long end = Math.max(first, search(toTime, true));
+      return new long[]{first, end};
+   }
+
+   /**
+    * Returns the first row whose time is after a time (strictly if after is true, at or after otherwise), with a binary search on the
+    * time of the blocks of the index followed by a scan of at most two blocks.
+    */
+   private long search(double time, boolean after) {
+      int block = index.findBlock(time);
+      long row = Math.max(0, (long) block * RecordingIndex.BLOCK_ROWS);
+      // Blocks starting exactly at the time may be preceded by rows at the same time
+      if (!after && block > 0 && index.getBlockTime(block) == time) {
+         row -= RecordingIndex.BLOCK_ROWS;
+      }
+      while (row < rowCount) {
+         double rowTime = value(row, timeChannel);
+         if (after ? rowTime > time : rowTime >= time) {
+            break;
+         }
+         row++;
+      }
+      return row;
+   }
+
+   /**
+    * Reads the values of a simulation output over a range of rows.
+    *
+    * @param simOut the simulation output
+    * @param firstRow the first row
+    * @param endRow the end row
+    * @return the values
+    */
+   public double[] getChannel(SimOuts simOut, long firstRow, long endRow) {
+      checkRange(firstRow, endRow);
+      int channel = channelIndex(simOut);
+      double[] values = new double[(int) (endRow - firstRow)];
+      for (int i = 0; i < values.length; i++) {
+         values[i] = value(firstRow + i, channel);
+      }
+      return values;
+   }
+
+   /**
+    * Reads the values of a simulation output between two times, both included.
+    *
+    * @param simOut the simulation output
+    * @param fromTime the start time (s)
+    * @param toTime the end time (s)
+    * @return the values
+    */
+   public double[] getChannel(SimOuts simOut, double fromTime, double toTime) {
+      long[] range = getRowRange(fromTime, toTime);
+      return getChannel(simOut, range[0], range[1]);
+   }
+
+   /**
+    * Returns the minimum of a simulation output over a range of rows, ignoring NaN values.
+    *
+    * @param simOut the simulation output
+    * @param firstRow the first row
+    * @param endRow the end row
+    * @return the minimum, or NaN if the range is empty
+    */
+   public double getMinimum(SimOuts simOut, long firstRow, long endRow) {
+      return extremum(simOut, firstRow, endRow, false);
+   }
+
+   /**
+    * Returns the maximum of a simulation output over a range of rows, ignoring NaN values.
+    *
+    * @param simOut the simulation output
+    * @param firstRow the first row
+    * @param endRow the end row
+    * @return the maximum, or NaN if the range is empty
+    */
+   public double getMaximum(SimOuts simOut, long firstRow, long endRow) {
+      return extremum(simOut, firstRow, endRow, true);
+   }
+
+   /**
+    * @param simOut the simulation output
+    * @return the minimum of the simulation output over the whole recording
+    */
+   public double getMinimum(SimOuts simOut) {
+      return extremum(simOut, 0, rowCount, false);
+   }
+
+   /**
+    * @param simOut the simulation output
+    * @return the maximum of the simulation output over the whole recording
+    */
+   public double getMaximum(SimOuts simOut) {
+      return extremum(simOut, 0, rowCount, true);
+   }
+
+   /**
+    * Returns the extremum of a channel over a range of rows, from the index for the blocks fully in the range, and from the rows at
+    * both ends of the range otherwise.
+    */
+   private double extremum(SimOuts simOut, long firstRow, long endRow, boolean maximum) {
+      checkRange(firstRow, endRow);
+      int channel = channelIndex(simOut);
+      double result = Double.NaN;
+
+      long row = firstRow;
+      while (row < endRow) {
+         long block = row / RecordingIndex.BLOCK_ROWS;
+         long blockEnd = Math.min(rowCount, (block + 1) * RecordingIndex.BLOCK_ROWS);
+         double value;
+         if (row == block * RecordingIndex.BLOCK_ROWS && blockEnd <= endRow) {
+            value = maximum ? index.getMaximum(channel, (int) block) : index.getMinimum(channel, (int) block);
+            row = blockEnd;
+         } else {
+            value = value(row, channel);
+            row++;
+         }
+         if (result != result || (maximum ? value > result : value < result)) {
+            result = value;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Closes the recording. Views returned by {@link FlightRecordingReader#getRows(long, int)} must not be used afterwards.
+    *
+    * @throws IOException if the file could not be closed
+    */
+   @Override
+   public void close() throws IOException {
+      file.close();
+   }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Self-describing header of a flight recording written by {@link FlightRecorder}. A recording is a little endian file made of this
+ * header, followed by rows of 8 byte doubles, one per channel, appended after each step of integration. The header is laid out as:
+ * <ul>
+ * <li>the magic bytes "J6DOFREC" and the format version (int)</li>
+ * <li>the length of the header in bytes (int), a multiple of 8 at which the rows start, the number of channels (int) and 4 reserved
+ * bytes</li>
+ * <li>the time step (double), the creation time (long, ms since the epoch) and the number of committed rows (long), updated at each
+ * checkpoint</li>
+ * <li>the aircraft name, the simulation options and the name of each channel, as length prefixed UTF-8 strings</li>
+ * </ul>
+ * The channels are the names of the {@link SimOuts} of the simulation which wrote the recording, so that a recording stays readable if
+ * simulation outputs are added later.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class RecordingHeader {
+   /**
+    * Usual extension of flight recordings
+    */
+   public static final String EXTENSION = ".fdr";
+   /**
+    * Current version of the format
+    */
+   public static final int VERSION = 1;
+   /**
+    * Byte order of recordings
+    */
+   public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+   /**
+    * Offset of the number of committed rows in the header
+    */
+   public static final int COMMITTED_ROWS_OFFSET = 40;
+
+   private static final byte[] MAGIC = "J6DOFREC".getBytes(StandardCharsets.US_ASCII);
+   private static final int FIXED_LENGTH = 48;
+
+   private final String aircraftName;
+   private final String options;
+   private final String[] channels;
+   private final double dt;
+   private final long creationTime;
+   private long committedRows;
+
+   /**
+    * Creates the header of a new recording of all {@link SimOuts}.
+    *
+    * @param aircraftName the name of the aircraft
+    * @param dt the time step (s)
+    * @param options the simulation options, as text
+    */
+   public RecordingHeader(String aircraftName, double dt, String options) {
+      this(aircraftName, dt, options, channelNames(), System.currentTimeMillis(), 0);
+   }
+
+   private RecordingHeader(String aircraftName, double dt, String options, String[] channels, long creationTime, long committedRows) {
+      this.aircraftName = aircraftName == null ? "" : aircraftName;
+      this.dt = dt;
+      this.options = options == null ? "" : options;
+      this.channels = channels;
+      this.creationTime = creationTime;
+      this.committedRows = committedRows;
+   }
+
+   private static String[] channelNames() {
+      SimOuts[] simOuts = SimOuts.values();
+      String[] names = new String[simOuts.length];
+      for (int i = 0; i < simOuts.length; i++) {
+         names[i] = simOuts[i].name();
+      }
+      return names;
+   }
+
+   /**
+    * @return the length of the header in bytes, at which the rows start
+    */
+   public int getLength() {
+      int length = FIXED_LENGTH + stringLength(aircraftName) + stringLength(options);
+      for (String channel : channels) {
+         length += stringLength(channel);
+      }
+      return (length + 7) & ~7;
+   }
+
+   private static int stringLength(String s) {
+      return 2 + s.getBytes(StandardCharsets.UTF_8).length;
+   }
+
+   /**
+    * Writes the header at the start of a buffer.
+    *
+    * @param buffer the buffer, of at least {@link RecordingHeader#getLength()} bytes
+    */
+   public void write(ByteBuffer buffer) {
+      buffer.order(BYTE_ORDER);
+      buffer.put(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putInt(getLength());
+      buffer.putInt(channels.length);
+      buffer.putInt(0);
+      buffer.putDouble(dt);
+      buffer.putLong(creationTime);
+      buffer.putLong(committedRows);
+      putString(buffer, aircraftName);
+      putString(buffer, options);
+      for (String channel : channels) {
+         putString(buffer, channel);
+      }
+   }
+
+   private static void putString(ByteBuffer buffer, String s) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      buffer.putShort((short) bytes.length);
+      buffer.put(bytes);
+   }
+
+   private static String getString(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Reads a header from the start of a buffer.
+    *
+    * @param buffer the buffer
+    * @return the header
+    * @throws IOException if the buffer does not start with a flight recording header of a supported version
+    */
+   public static RecordingHeader read(ByteBuffer buffer) throws IOException {
+      buffer.order(BYTE_ORDER);
+      byte[] magic = new byte[MAGIC.length];
+      if (buffer.remaining() < FIXED_LENGTH) {
+         throw new IOException("Truncated flight recording header");
+      }
+      buffer.get(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+         throw new IOException("Not a flight recording");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+         throw new IOException("Unsupported flight recording version: " + version);
+      }
+      buffer.getInt();
+      int channelCount = buffer.getInt();
+      buffer.getInt();
+      double dt = buffer.getDouble();
+      long creationTime = buffer.getLong();
+      long committedRows = buffer.getLong();
+      String aircraftName = getString(buffer);
+      String options = getString(buffer);
+      String[] channels = new String[channelCount];
+      for (int i = 0; i < channelCount; i++) {
+         channels[i] = getString(buffer);
+      }
+
+      return new RecordingHeader(aircraftName, dt, options, channels, creationTime, committedRows);
+   }
+
+   /**
+    * @return the name of the recorded aircraft
+    */
+   public String getAircraftName() {
+      return aircraftName;
+   }
+
+   /**
+    * @return the simulation options of the recording, as text
+    */
+   public String getOptions() {
+      return options;
+   }
+
+   /**
+    * @return the time step (s)
+    */
+   public double getTimeStep() {
+      return dt;
+   }
+
+   /**
+    * @return the creation time of the recording (ms since the epoch)
+    */
+   public long getCreationTime() {
+      return creationTime;
+   }
+
+   /**
+    * @return the number of rows committed at the last checkpoint
+    */
+   public long getCommittedRows() {
+      return committedRows;
+   }
+
+   /**
+    * @return the number of channels of each row
+    */
+   public int getChannelCount() {
+      return channels.length;
+   }
+
+   /**
+    * @return the length of each row in bytes
+    */
+   public int getRowLength() {
+      return channels.length * 8;
+   }
+
+   /**
+    * @param index the channel index
+    * @return the name of the channel
+    */
+   public String getChannel(int index) {
+      return channels[index];
+   }
+
+   /**
+    * Returns the index of the channel of a {@link SimOuts} in each row.
+    *
+    * @param simOut the simulation output
+    * @return the index, or -1 if the simulation output was not recorded
+    */
+   public int getChannelIndex(SimOuts simOut) {
+      for (int i = 0; i < channels.length; i++) {
+         if (channels[i].equals(simOut.name())) {
+            return i;
+         }
+      }
+      return -1;
+   }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sparse index of a flight recording, used by {@link FlightRecordingReader}. The rows are grouped in blocks of
+ * {@link RecordingIndex#BLOCK_ROWS} rows, and the index holds the time of the first row of each block and the minimum and maximum of
+ * each channel over each block, so that time range queries and extrema only read the rows at the ends of a range.
+ *
+ * <p>
+ * The index is built with a single pass over the rows, and cached in a file next to the recording, which is only used while the
+ * creation time and number of rows of the recording match those it was built for.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class RecordingIndex {
+   /**
+    * Extension appended to the name of a recording for its cached index
+    */
+   public static final String EXTENSION = ".idx";
+   /**
+    * Number of rows in each block of the index
+    */
+   public static final int BLOCK_ROWS = 256;
+
+   private static final byte[] MAGIC = "J6DOFIDX".getBytes(StandardCharsets.US_ASCII);
+   private static final int VERSION = 1;
+   private static final int HEADER_LENGTH = 40;
+
+   private final long creationTime;
+   private final long rowCount;
+   private final int channelCount;
+   private final double[] blockTimes;
+   private final double[][] minimums;
+   private final double[][] maximums;
+
+   private RecordingIndex(long creationTime, long rowCount, int channelCount) {
+      this.creationTime = creationTime;
+      this.rowCount = rowCount;
+      this.channelCount = channelCount;
+      int blockCount = (int) ((rowCount + BLOCK_ROWS - 1) / BLOCK_ROWS);
+      this.blockTimes = new double[blockCount];
+      this.minimums = new double[channelCount][blockCount];
+      this.maximums = new double[channelCount][blockCount];
+   }
+
+   /**
+    * Builds the index of a recording with a single pass over its rows.
+    *
+    * @param reader the reader of the recording
+    * @param timeChannel the index of the time channel
+    * @return the index
+    */
+   static RecordingIndex build(FlightRecordingReader reader, int timeChannel) {
+      RecordingHeader header = reader.getHeader();
+      RecordingIndex index = new RecordingIndex(header.getCreationTime(), reader.getRowCount(), header.getChannelCount());
+      int channels = index.channelCount;
+
+      for (int block = 0; block < index.blockTimes.length; block++) {
+         long firstRow = (long) block * BLOCK_ROWS;
+         int rows = (int) Math.min(BLOCK_ROWS, index.rowCount - firstRow);
+         DoubleBuffer view = reader.getRows(firstRow, rows);
+         index.blockTimes[block] = view.get(timeChannel);
+
+         for (int c = 0; c < channels; c++) {
+            double min = Double.NaN;
+            double max = Double.NaN;
+            for (int r = 0, i = c; r < rows; r++, i += channels) {
+               double value = view.get(i);
+               // NaN values are ignored; a block with only NaN values has NaN extrema
+               if (value < min || min != min) {
+                  min = value;
+               }
+               if (value > max || max != max) {
+                  max = value;
+               }
+            }
+            index.minimums[c][block] = min;
+            index.maximums[c][block] = max;
+         }
+      }
+
+      return index;
+   }
+
+   /**
+    * Reads the cached index of a recording.
+    *
+    * @param file the index file
+    * @param header the header of the recording
+    * @param rowCount the number of rows of the recording
+    * @return the index, or null if the file does not exist or was built for other rows
+    * @throws IOException if the file could not be read
+    */
+   static RecordingIndex read(File file, RecordingHeader header, long rowCount) throws IOException {
+      if (!file.isFile()) {
+         return null;
+      }
+
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+         FileChannel channel = raf.getChannel();
+         if (channel.size() < HEADER_LENGTH) {
+            return null;
+         }
+         ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(RecordingHeader.BYTE_ORDER);
+         while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+         }
+         buffer.flip();
+
+         byte[] magic = new byte[MAGIC.length];
+         buffer.get(magic);
+         if (!Arrays.equals(magic, MAGIC) || buffer.getInt() != VERSION || buffer.getInt() != BLOCK_ROWS
+                 || buffer.getInt() != header.getChannelCount()) {
+            return null;
+         }
+         buffer.getInt();
+         if (buffer.getLong() != header.getCreationTime() || buffer.getLong() != rowCount) {
+            return null;
+         }
+
+         RecordingIndex index = new RecordingIndex(header.getCreationTime(), rowCount, header.getChannelCount());
+         int blockCount = index.blockTimes.length;
+         if (channel.size() != HEADER_LENGTH + 8L * blockCount * (1 + 2 * index.channelCount)) {
+            return null;
+         }
+         DoubleBuffer values = buffer.asDoubleBuffer();
+         values.get(index.blockTimes);
+         for (int c = 0; c < index.channelCount; c++) {
+            values.get(index.minimums[c]);
+         }
+         for (int c = 0; c < index.channelCount; c++) {
+            values.get(index.maximums[c]);
+         }
+         return index;
+      }
+   }
+
+   /**
+    * Writes the index to a file.
+    *
+    * @param file the index file
+    * @throws IOException if the file could not be written
+    */
+   void write(File file) throws IOException {
+      int blockCount = blockTimes.length;
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + 8 * blockCount * (1 + 2 * channelCount)).order(RecordingHeader.BYTE_ORDER);
+      buffer.put(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putInt(BLOCK_ROWS);
+      buffer.putInt(channelCount);
+      buffer.putInt(0);
+      buffer.putLong(creationTime);
+      buffer.putLong(rowCount);
+      DoubleBuffer values = buffer.asDoubleBuffer();
+      values.put(blockTimes);
+      for (int c = 0; c < channelCount; c++) {
+         values.put(minimums[c]);
+      }
+      for (int c = 0; c < channelCount; c++) {
+         values.put(maximums[c]);
+      }
+      buffer.rewind();
+
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+         FileChannel channel = raf.getChannel();
+         channel.truncate(0);
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+      }
+   }
+
+   /**
+    * @return the number of blocks
+    */
+   public int getBlockCount() {
+      return blockTimes.length;
+   }
+
+   /**
+    * @param block the block
+    * @return the time of the first row of the block (s)
+    */
+   public double getBlockTime(int block) {
+      return blockTimes[block];
+   }
+
+   /**
+    * Returns the index of the last block whose first row is at or before a time.
+    *
+    * @param time the time (s)
+    * @return the block, or -1 if the recording starts after the time
+    */
+   public int findBlock(double time) {
+      int low = 0;
+      int high = blockTimes.length - 1;
+      int found = -1;
+      while (low <= high) {
+         int mid = (low + high) >>> 1;
+         if (blockTimes[mid] <= time) {
+            found = mid;
+            low = mid + 1;
+         } else {
+            high = mid - 1;
+         }
+      }
+      return found;
+   }
+
+   /**
+    * @param channel the channel
+    * @param block the block
+    * @return the minimum of the channel over the block
+    */
+   public double getMinimum(int channel, int block) {
+      return minimums[channel][block];
+   }
+
+   /**
+    * @param channel the channel
+    * @param block the block
+    * @return the maximum of the channel over the block
+    */
+   public double getMaximum(int channel, int block) {
+      return maximums[channel][block];
+   }
+}
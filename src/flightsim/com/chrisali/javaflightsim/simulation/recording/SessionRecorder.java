@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.integration.FrameListener;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsListener;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records a session of a simulation, so that it can be replayed headless by a {@link SessionReplayer}: the state of the simulation when
+ * the session starts, then at each frame the flight controls (whichever pilot in the loop device or controller set them), the terrain
+ * height received from the environment data, and the pause and reset flags. A hash of the simulation outputs is also recorded at each
+ * frame, to check that the replay reproduces the session bit for bit.
+ *
+ * <p>
+ * The recorder samples the inputs in the {@link FramePhase#OUTPUT} phase of each frame, once the simulation has used them; inputs must
+ * therefore only be changed by the {@link FramePhase#INPUT} listeners of the simulation, as the flight controls and environment data
+ * started by the {@link com.chrisali.javaflightsim.controllers.SimulationController} are. Frames are buffered, and flushed to the file
+ * every {@link SessionRecorder#getFlushFrames()} frames.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class SessionRecorder implements FrameListener, SimOutsListener, Closeable {
+   /**
+    * Default number of frames between flushes of the file
+    */
+   public static final int DEFAULT_FLUSH_FRAMES = 1000;
+
+   private final Integrate6DOFEquations simulation;
+   private final Map<FlightControlType, Double> controls;
+   private final Set<Options> options;
+   private final DataOutputStream out;
+   private final double[] controlValues = new double[FlightControlType.values().length];
+   private long hash = SessionRecording.INITIAL_HASH;
+   private long frames = 0;
+   private int flushFrames = DEFAULT_FLUSH_FRAMES;
+   private boolean closed = false;
+   private IOException error = null;
+
+   /**
+    * Creates the session file, writes the state of the simulation, and starts recording its frames. The simulation must not have been
+    * run yet.
+    *
+    * @param file the session file
+    * @param simulation the simulation
+    * @throws IOException if the file could not be created
+    */
+   public SessionRecorder(File file, Integrate6DOFEquations simulation) throws IOException {
+      if (simulation.getFrameIndex() >= 0) {
+         throw new IllegalArgumentException("A session must be recorded from the start of the simulation");
+      }
+      this.simulation = simulation;
+      this.controls = simulation.getControls();
+      this.options = simulation.getOptions();
+
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+      try {
+         SessionRecording.capture(simulation).write(out);
+         out.flush();
+      } catch (IOException e) {
+         out.close();
+         throw e;
+      }
+
+      simulation.addSimOutsListener(this);
+      simulation.getFrameScheduler().addFrameListener(this, FramePhase.OUTPUT);
+   }
+
+   /**
+    * Sets the number of frames between flushes of the file.
+    *
+    * @param flushFrames the number of frames, at least 1
+    */
+   public void setFlushFrames(int flushFrames) {
+      if (flushFrames < 1) {
+         throw new IllegalArgumentException("Invalid number of frames between flushes: " + flushFrames);
+      }
+      this.flushFrames = flushFrames;
+   }
+
+   /**
+    * @return the number of frames between flushes of the file
+    */
+   public int getFlushFrames() {
+      return flushFrames;
+   }
+
+   @Override
+   public void onSimOutsReceived(double[] simOutValues) {
+      hash = SessionRecording.hash(SessionRecording.INITIAL_HASH, simOutValues);
+   }
+
+   /**
+    * Records the inputs of a frame. It is called by the simulation when it is run, or must be called after each call of
+    * {@link Integrate6DOFEquations#onFrame(long)} when the simulation is driven frame by frame.
+    *
+    * @param frameIndex the index of the frame
+    */
+   @Override
+   public void onFrame(long frameIndex) {
+      if (closed || error != null) {
+         return;
+      }
+
+      int flags = (options.contains(Options.PAUSED) ? SessionRecording.PAUSED : 0)
+              | (options.contains(Options.RESET) ? SessionRecording.RESET : 0);
+      FlightControlsUtilities.toArray(controls, controlValues);
+      try {
+         out.writeLong(frameIndex);
+         out.writeByte(flags);
+         out.writeDouble(simulation.getTerrainHeight());
+         for (int i = 0; i < controlValues.length; i++) {
+            out.writeDouble(controlValues[i]);
+         }
+         out.writeLong(hash);
+         if (++frames % flushFrames == 0) {
+            out.flush();
+         }
+      } catch (IOException e) {
+         // Keep the first error, and stop recording frames; it is rethrown by close()
+         error = e;
+      }
+   }
+
+   /**
+    * @return the number of frames recorded
+    */
+   public long getFrames() {
+      return frames;
+   }
+
+   /**
+    * Stops recording frames, and closes the file.
+    *
+    * @throws IOException if a frame could not be written, or the file could not be closed
+    */
+   @Override
+   public void close() throws IOException {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      simulation.getFrameScheduler().removeFrameListener(this);
+      out.close();
+      if (error != null) {
+         throw error;
+      }
+   }
+}
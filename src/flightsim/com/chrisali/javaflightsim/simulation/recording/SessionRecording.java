@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.enviroment.TurbulenceIntensity;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.IntegratorType;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Header of a session recording written by {@link SessionRecorder} and replayed by {@link SessionReplayer}. It holds everything a
+ * simulation needs to be recreated as it was when the session started: aircraft, integrator, integrator configuration, states,
+ * flight controls, terrain height, temperature deviation and turbulence. The header is followed by one record per frame of the
+ * simulation, holding the inputs sampled during the frame and a hash of the simulation outputs at the end of the frame:
+ * <ul>
+ * <li>the frame index (long)</li>
+ * <li>the flags of the frame (byte): {@link SessionRecording#PAUSED} and {@link SessionRecording#RESET}</li>
+ * <li>the terrain height (double)</li>
+ * <li>the value of each flight control (double), in the order of the controls of the header</li>
+ * <li>the hash of the simulation outputs (long), see {@link SessionRecording#hash(long, double[])}</li>
+ * </ul>
+ * All values are written in big endian order, as by {@link DataOutput}.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class SessionRecording {
+   /**
+    * Usual extension of session recordings
+    */
+   public static final String EXTENSION = ".ses";
+   /**
+    * Current version of the format
+    */
+   public static final int VERSION = 1;
+   /**
+    * Flag of the frames run with the simulation paused
+    */
+   public static final int PAUSED = 1;
+   /**
+    * Flag of the frames run with the simulation reset
+    */
+   public static final int RESET = 2;
+   /**
+    * Initial value of the hash of the simulation outputs
+    */
+   public static final long INITIAL_HASH = 0xcbf29ce484222325L;
+
+   private static final long MAGIC = 0x4A36444F46534553L;
+   private static final long HASH_PRIME = 0x100000001b3L;
+
+   private final String aircraftName;
+   private final String options;
+   private final String integratorType;
+   private final double integratorTolerance;
+   private final double[] integratorConfig;
+   private final double[] states;
+   private final String[] controlNames;
+   private final double[] controls;
+   private final double terrainHeight;
+   private final double deltaIsa;
+   private final long turbulenceSeed;
+   private final String turbulenceIntensity;
+
+   private SessionRecording(String aircraftName, String options, String integratorType, double integratorTolerance,
+           double[] integratorConfig, double[] states, String[] controlNames, double[] controls, double terrainHeight, double deltaIsa,
+           long turbulenceSeed, String turbulenceIntensity) {
+      this.aircraftName = aircraftName;
+      this.options = options;
+      this.integratorType = integratorType;
+      this.integratorTolerance = integratorTolerance;
+      this.integratorConfig = integratorConfig;
+      this.states = states;
+      this.controlNames = controlNames;
+      this.controls = controls;
+      this.terrainHeight = terrainHeight;
+      this.deltaIsa = deltaIsa;
+      this.turbulenceSeed = turbulenceSeed;
+      this.turbulenceIntensity = turbulenceIntensity;
+   }
+
+   /**
+    * Captures the header of a session from a simulation which has not been run yet.
+    *
+    * @param simulation the simulation
+    * @return the header
+    */
+   static SessionRecording capture(Integrate6DOFEquations simulation) {
+      FlightControlType[] controlTypes = FlightControlType.values();
+      String[] controlNames = new String[controlTypes.length];
+      for (int i = 0; i < controlTypes.length; i++) {
+         controlNames[i] = controlTypes[i].name();
+      }
+      double[] controls = FlightControlsUtilities.toArray(simulation.getControls(), new double[controlTypes.length]);
+
+      return new SessionRecording(simulation.getAircraft().getName(), simulation.getOptions().toString(),
+              simulation.getIntegratorType().name(), simulation.getIntegratorTolerance(), simulation.getIntegratorConfig(),
+              simulation.getStates(), controlNames, controls, simulation.getTerrainHeight(), simulation.getAtmosphere().getDeltaIsa(),
+              simulation.getWeather().getTurbulence().getSeed(), simulation.getWeather().getTurbulence().getIntensity().name());
+   }
+
+   /**
+    * Writes the header.
+    *
+    * @param out the output
+    * @throws IOException if the header could not be written
+    */
+   void write(DataOutput out) throws IOException {
+      out.writeLong(MAGIC);
+      out.writeInt(VERSION);
+      out.writeUTF(aircraftName == null ? "" : aircraftName);
+      out.writeUTF(options);
+      out.writeUTF(integratorType);
+      out.writeDouble(integratorTolerance);
+      writeArray(out, integratorConfig);
+      writeArray(out, states);
+      out.writeInt(controlNames.length);
+      for (int i = 0; i < controlNames.length; i++) {
+         out.writeUTF(controlNames[i]);
+         out.writeDouble(controls[i]);
+      }
+      out.writeDouble(terrainHeight);
+      out.writeDouble(deltaIsa);
+      out.writeLong(turbulenceSeed);
+      out.writeUTF(turbulenceIntensity);
+   }
+
+   private static void writeArray(DataOutput out, double[] values) throws IOException {
+      out.writeInt(values.length);
+      for (double value : values) {
+         out.writeDouble(value);
+      }
+   }
+
+   private static double[] readArray(DataInput in) throws IOException {
+      double[] values = new double[in.readInt()];
+      for (int i = 0; i < values.length; i++) {
+         values[i] = in.readDouble();
+      }
+      return values;
+   }
+
+   /**
+    * Reads a header.
+    *
+    * @param in the input
+    * @return the header
+    * @throws IOException if the input does not start with a session recording header of a supported version
+    */
+   static SessionRecording read(DataInput in) throws IOException {
+      if (in.readLong() != MAGIC) {
+         throw new IOException("Not a session recording");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+         throw new IOException("Unsupported session recording version: " + version);
+      }
+      String aircraftName = in.readUTF();
+      String options = in.readUTF();
+      String integratorType = in.readUTF();
+      double integratorTolerance = in.readDouble();
+      double[] integratorConfig = readArray(in);
+      double[] states = readArray(in);
+      String[] controlNames = new String[in.readInt()];
+      double[] controls = new double[controlNames.length];
+      for (int i = 0; i < controlNames.length; i++) {
+         controlNames[i] = in.readUTF();
+         controls[i] = in.readDouble();
+      }
+      double terrainHeight = in.readDouble();
+      double deltaIsa = in.readDouble();
+      long turbulenceSeed = in.readLong();
+      String turbulenceIntensity = in.readUTF();
+
+      return new SessionRecording(aircraftName, options, integratorType, integratorTolerance, integratorConfig, states, controlNames,
+              controls, terrainHeight, deltaIsa, turbulenceSeed, turbulenceIntensity);
+   }
+
+   /**
+    * Hashes simulation outputs (FNV-1a over the bits of each value), so that a replay can be checked bit for bit against the recorded
+    * session without recording the outputs.
+    *
+    * @param hash the hash of the previous outputs, or {@link SessionRecording#INITIAL_HASH}
+    * @param values the simulation outputs
+    * @return the hash
+    */
+   public static long hash(long hash, double[] values) {
+      for (int i = 0; i < values.length; i++) {
+         hash = (hash ^ Double.doubleToRawLongBits(values[i])) * HASH_PRIME;
+      }
+      return hash;
+   }
+
+   /**
+    * @return the name of the aircraft
+    */
+   public String getAircraftName() {
+      return aircraftName;
+   }
+
+   /**
+    * @return the options of the recorded simulation, as text
+    */
+   public String getOptions() {
+      return options;
+   }
+
+   /**
+    * @return the integrator type, or null if it is unknown
+    */
+   public IntegratorType getIntegratorType() {
+      try {
+         return IntegratorType.valueOf(integratorType);
+      } catch (IllegalArgumentException e) {
+         return null;
+      }
+   }
+
+   /**
+    * @return the tolerance of the integrator
+    */
+   public double getIntegratorTolerance() {
+      return integratorTolerance;
+   }
+
+   /**
+    * @return the start time, time step and end time (sec)
+    */
+   public double[] getIntegratorConfig() {
+      return integratorConfig.clone();
+   }
+
+   /**
+    * @return the states at the start of the session, in the order of
+    * {@link com.chrisali.javaflightsim.simulation.setup.InitialConditions}
+    */
+   public double[] getStates() {
+      return states.clone();
+   }
+
+   /**
+    * @return the names of the recorded flight controls, in the order of the values of each frame
+    */
+   public String[] getControlNames() {
+      return controlNames.clone();
+   }
+
+   /**
+    * @return the flight controls at the start of the session, in the order of {@link SessionRecording#getControlNames()}
+    */
+   public double[] getControls() {
+      return controls.clone();
+   }
+
+   /**
+    * @return the terrain height at the start of the session (ft)
+    */
+   public double getTerrainHeight() {
+      return terrainHeight;
+   }
+
+   /**
+    * @return the deviation of the temperature from the standard atmosphere
+    */
+   public double getDeltaIsa() {
+      return deltaIsa;
+   }
+
+   /**
+    * @return the seed of the turbulence
+    */
+   public long getTurbulenceSeed() {
+      return turbulenceSeed;
+   }
+
+   /**
+    * @return the intensity of the turbulence, or null if it is unknown
+    */
+   public TurbulenceIntensity getTurbulenceIntensity() {
+      try {
+         return TurbulenceIntensity.valueOf(turbulenceIntensity);
+      } catch (IllegalArgumentException e) {
+         return null;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return aircraftName + ", " + integratorType + ", " + Arrays.toString(integratorConfig) + ", options " + options;
+   }
+}
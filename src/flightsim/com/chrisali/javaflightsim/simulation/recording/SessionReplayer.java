@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.recording;
+
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.batch.BatchRunner;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.TurbulenceIntensity;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.IntegratorType;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsListener;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+/**
+ * Replays a session recorded by a {@link SessionRecorder}: the simulation is recreated as it was when the session started, then run
+ * headless, as fast as possible, frame by frame with the recorded flight controls, terrain height and pause and reset flags. The hash of
+ * the simulation outputs of each frame is compared with the recorded one, so that the replay reports the first frame at which it
+ * diverged from the session, if any.
+ *
+ * <p>
+ * The aircraft is rebuilt from its name, and other settings of the recorded simulation which are not part of the session, such as
+ * wind, gusts or flight control laws, must be applied to {@link SessionReplayer#getSimulation()} before the replay. Listeners, such as
+ * a {@link FlightRecorder}, may also be added to the simulation to record the replayed flight.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class SessionReplayer {
+   private final File file;
+   private final SessionRecording session;
+   private final Integrate6DOFEquations simulation;
+   private final EnumMap<FlightControlType, Double> controls = new EnumMap<>(FlightControlType.class);
+   private final EnumSet<Options> options = EnumSet.of(Options.ANALYSIS_MODE);
+   private final FlightControlType[] controlTypes;
+   private long hash = SessionRecording.INITIAL_HASH;
+   private long frames = 0;
+   private long divergentFrame = -1;
+   private long divergentFrames = 0;
+
+   /**
+    * Reads the start of a session, and recreates its simulation with the aircraft of the session.
+    *
+    * @param file the session file
+    * @throws IOException if the file could not be read, or is not a session recording
+    * @throws IllegalArgumentException if the aircraft of the session does not exist
+    */
+   public SessionReplayer(File file) throws IOException {
+      this(file, null);
+   }
+
+   /**
+    * Reads the start of a session, and recreates its simulation with an aircraft.
+    *
+    * @param file the session file
+    * @param ab the aircraft builder, or null to build the aircraft of the session
+    * @throws IOException if the file could not be read, or is not a session recording
+    */
+   public SessionReplayer(File file, AircraftBuilder ab) throws IOException {
+      this.file = file;
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+         session = SessionRecording.read(in);
+      }
+
+      String[] controlNames = session.getControlNames();
+      double[] initialControls = session.getControls();
+      controlTypes = new FlightControlType[controlNames.length];
+      for (int i = 0; i < controlNames.length; i++) {
+         try {
+            controlTypes[i] = FlightControlType.valueOf(controlNames[i]);
+            controls.put(controlTypes[i], initialControls[i]);
+         } catch (IllegalArgumentException e) {
+            System.err.println("Unknown flight control in session " + file + ": " + controlNames[i] + "! Ignoring it.");
+         }
+      }
+
+      EnumMap<InitialConditions, Double> initialConditions = new EnumMap<>(InitialConditions.class);
+      double[] states = session.getStates();
+      for (InitialConditions initialCondition : InitialConditions.values()) {
+         initialConditions.put(initialCondition, states[initialCondition.ordinal()]);
+      }
+      EnumMap<IntegratorConfig, Double> integratorConfig = new EnumMap<>(IntegratorConfig.class);
+      double[] config = session.getIntegratorConfig();
+      for (IntegratorConfig configParameter : IntegratorConfig.values()) {
+         integratorConfig.put(configParameter, config[configParameter.ordinal()]);
+      }
+
+      simulation = new Integrate6DOFEquations(controls, ab == null ? createAircraftBuilder(session.getAircraftName()) : ab,
+              options, initialConditions, integratorConfig, 1);
+      IntegratorType integratorType = session.getIntegratorType();
+      if (integratorType != null) {
+         simulation.setIntegrator(integratorType, session.getIntegratorTolerance());
+      }
+      simulation.setTerrainHeight(session.getTerrainHeight());
+      simulation.getAtmosphere().setDeltaIsa(session.getDeltaIsa());
+      simulation.getWeather().setSeed(session.getTurbulenceSeed());
+      TurbulenceIntensity intensity = session.getTurbulenceIntensity();
+      if (intensity != null) {
+         simulation.getWeather().setTurbulenceIntensity(intensity);
+      }
+
+      simulation.addSimOutsListener(new SimOutsListener() {
+         @Override
+         public void onSimOutsReceived(double[] simOutValues) {
+            hash = SessionRecording.hash(SessionRecording.INITIAL_HASH, simOutValues);
+         }
+      });
+   }
+
+   /**
+    * Builds the aircraft of the session by its name, or the default aircraft if it has the name of the session aircraft.
+    */
+   private static AircraftBuilder createAircraftBuilder(String aircraftName) {
+      try {
+         return BatchRunner.createAircraftBuilder(aircraftName);
+      } catch (IllegalArgumentException e) {
+         AircraftBuilder ab = new AircraftBuilder();
+         if (ab.getAircraft().getName().equals(aircraftName)) {
+            return ab;
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * @return the start of the session
+    */
+   public SessionRecording getSession() {
+      return session;
+   }
+
+   /**
+    * @return the simulation replaying the session
+    */
+   public Integrate6DOFEquations getSimulation() {
+      return simulation;
+   }
+
+   /**
+    * Replays all the frames of the session. A session whose last frame is truncated, because its recorder was not closed, is
+    * replayed up to its last complete frame.
+    *
+    * @return the number of frames replayed
+    * @throws IOException if the file could not be read
+    */
+   public long replay() throws IOException {
+      double[] values = new double[controlTypes.length];
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+         SessionRecording.read(in);
+         while (true) {
+            long frameIndex;
+            int flags;
+            double terrainHeight;
+            long recordedHash;
+            try {
+               frameIndex = in.readLong();
+               flags = in.readByte();
+               terrainHeight = in.readDouble();
+               for (int i = 0; i < values.length; i++) {
+                  values[i] = in.readDouble();
+               }
+               recordedHash = in.readLong();
+            } catch (EOFException e) {
+               break;
+            }
+
+            for (int i = 0; i < values.length; i++) {
+               if (controlTypes[i] != null) {
+                  controls.put(controlTypes[i], values[i]);
+               }
+            }
+            simulation.setTerrainHeight(terrainHeight);
+            setOption(Options.PAUSED, (flags & SessionRecording.PAUSED) != 0);
+            setOption(Options.RESET, (flags & SessionRecording.RESET) != 0);
+
+            simulation.onFrame(frameIndex);
+            frames++;
+            if (hash != recordedHash) {
+               if (divergentFrame < 0) {
+                  divergentFrame = frameIndex;
+               }
+               divergentFrames++;
+            }
+         }
+      }
+      return frames;
+   }
+
+   private void setOption(Options option, boolean enabled) {
+      if (enabled) {
+         options.add(option);
+      } else {
+         options.remove(option);
+      }
+   }
+
+   /**
+    * @return the number of frames replayed
+    */
+   public long getFrames() {
+      return frames;
+   }
+
+   /**
+    * @return the index of the first frame whose simulation outputs differ from the session, or -1 if the replay reproduced the session
+    */
+   public long getDivergentFrame() {
+      return divergentFrame;
+   }
+
+   /**
+    * @return the number of frames whose simulation outputs differ from the session
+    */
+   public long getDivergentFrames() {
+      return divergentFrames;
+   }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.aero.AccelAndMoments;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.Atmosphere;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The force and moment model of the 6DOF equations of {@link com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations},
+ * evaluated for given states and controls outside of a simulation, in the standard atmosphere without wind and in the air. It is shared
+ * by the {@link TrimSolver} and the {@link Linearizer}, so that the trim and the linear models solve the same equations as the simulation.
+ * The engines are held in steady state (see {@link Engine#setSteadyState(boolean)}), so that their RPM and propeller pitch are at their
+ * equilibrium for each evaluation.
+ *
+ * <p>
+ * A model does not allocate memory once created. It must not be used concurrently, and the engines of its {@link AircraftBuilder} must
+ * not be used by another model or simulation at the same time.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+final class ForceMomentModel {
+   private final Aircraft aircraft;
+   private final Engine[] engines;
+   private final AccelAndMoments accelAndMoments;
+   private final IntegrateGroundReaction groundReaction;
+   private final Atmosphere atmosphere = new Atmosphere();
+   private final double gravity = Environment.getGravity();
+   private final double[] inertiaCoeffs = new double[9];
+
+   // Preallocated buffers
+   private final double[] windParameters = new double[3];
+   private final double[] angularRates = new double[3];
+   private final double[] environmentParameters = new double[EnvironmentParameters.values().length];
+   private final double[] linearAccelerations = new double[3];
+   private final double[] totalMoments = new double[3];
+   private final double[] eulerAngles = new double[3];
+   private final double[][] dirCosMat = new double[3][3];
+
+   /**
+    * Creates the model of the aircraft of an aircraft builder.
+    *
+    * @param ab the aircraft builder
+    */
+   ForceMomentModel(AircraftBuilder ab) {
+      this.aircraft = ab.getAircraft();
+      Set<Engine> engineList = ab.getEngineList();
+      this.engines = engineList.toArray(new Engine[engineList.size()]);
+      this.accelAndMoments = new AccelAndMoments(ab.getAerodynamicModel());
+      SixDOFUtilities.calculateInertiaCoeffs(aircraft.getInertiaValues(), inertiaCoeffs);
+
+      // The aircraft is in the air, so the ground reaction is never integrated and its forces are always 0
+      Map<FlightControlType, Double> noControls = new EnumMap<>(FlightControlType.class);
+      this.groundReaction = new IntegrateGroundReaction(new double[3], new double[3], new double[3], new double[3], new double[3],
+              new double[14], new double[3], aircraft, noControls);
+   }
+
+   /**
+    * @return the aircraft of the model
+    */
+   Aircraft getAircraft() {
+      return aircraft;
+   }
+
+   /**
+    * @return the atmosphere the aircraft flies in
+    */
+   Atmosphere getAtmosphere() {
+      return atmosphere;
+   }
+
+   /**
+    * @return the gravity (ft/sec^2)
+    */
+   double getGravity() {
+      return gravity;
+   }
+
+   /**
+    * Calculates the derivatives of the first 12 6DOF states (u, v, w, N, E, altitude, phi, theta, psi, p, q, r) for states and controls,
+    * and writes them into yDot[0..11].
+    *
+    * @param y the 6DOF states
+    * @param controlValues the controls, indexed by {@link FlightControlType#ordinal()}
+    * @param alphaDot the rate of change of the angle of attack (rad/sec)
+    * @param yDot the array of derivatives to fill
+    * @return yDot
+    */
+   double[] calculateDerivatives(double[] y, double[] controlValues, double alphaDot, double[] yDot) {
+      atmosphere.update(y[5], environmentParameters);
+      SixDOFUtilities.calculateWindParameters(y, windParameters);
+      System.arraycopy(y, 9, angularRates, 0, 3);
+
+      // The dynamic states of the engines are held at their equilibrium
+      for (Engine engine : engines) {
+         engine.setSteadyState(true);
+         engine.updateEngineState(controlValues, environmentParameters, windParameters);
+      }
+
+      accelAndMoments.calculateAccelAndMoments(windParameters, angularRates, environmentParameters, controlValues, alphaDot, engines,
+              aircraft, groundReaction, y[5], linearAccelerations, totalMoments);
+      SixDOFUtilities.calculateBodyDerivatives(y, gravity, linearAccelerations, totalMoments, inertiaCoeffs, yDot);
+
+      System.arraycopy(y, 6, eulerAngles, 0, 3);
+      SixDOFUtilities.body2Ned(eulerAngles, dirCosMat);
+      yDot[3] = y[0] * dirCosMat[0][0] + y[1] * dirCosMat[0][1] + y[2] * dirCosMat[0][2];    // N (ft)
+      yDot[4] = y[0] * dirCosMat[1][0] + y[1] * dirCosMat[1][1] + y[2] * dirCosMat[1][2];    // E (ft)
+      yDot[5] = -1 * (y[0] * dirCosMat[2][0] + y[1] * dirCosMat[2][1] + y[2] * dirCosMat[2][2]);    // altitude (ft)
+
+      yDot[6] = y[9] + (Math.tan(y[7]) * ((y[10] * Math.sin(y[6])) + (y[11] * Math.cos(y[6]))));    // phi (rad)
+      yDot[7] = (y[10] * Math.cos(y[6])) - (y[11] * Math.sin(y[6]));    // theta (rad)
+      yDot[8] = ((y[10] * Math.sin(y[6])) + (y[11] * Math.cos(y[6]))) / Math.cos(y[7]);    // psi (rad)
+
+      return yDot;
+   }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+
+/**
+ * Provides Enum values to define the inputs of a {@link LinearModel}, each being the column of its B matrix indexed by
+ * {@link LinearInputs#ordinal()}. An input may move several flight controls together, such as the throttles of all engines.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum LinearInputs {
+   ELEVATOR("elevator", FlightControlType.ELEVATOR),
+   AILERON("aileron", FlightControlType.AILERON),
+   RUDDER("rudder", FlightControlType.RUDDER),
+   THROTTLE("throttle", FlightControlType.THROTTLE_1, FlightControlType.THROTTLE_2, FlightControlType.THROTTLE_3,
+           FlightControlType.THROTTLE_4);
+
+   private final String input;
+   private final FlightControlType[] controls;
+
+   LinearInputs(String input, FlightControlType... controls) {
+      this.input = input;
+      this.controls = controls;
+   }
+
+   /**
+    * @return the flight controls moved by the input
+    */
+   public FlightControlType[] getControls() {
+      return controls.clone();
+   }
+
+   /**
+    * @return the minimum position of the flight controls of the input
+    */
+   public double getMinimum() {
+      return controls[0].getMinimum();
+   }
+
+   /**
+    * @return the maximum position of the flight controls of the input
+    */
+   public double getMaximum() {
+      return controls[0].getMaximum();
+   }
+
+   @Override
+   public String toString() {
+      return input;
+   }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.utilities.MatrixUtilities;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * State-space model of an aircraft linearized around a reference condition by a {@link Linearizer}: x' = A x + B u, where x are the
+ * deviations of the first 12 6DOF states (u, v, w, N, E, altitude, phi, theta, psi, p, q, r) and u the deviations of the
+ * {@link LinearInputs} from the reference condition.
+ *
+ * <p>
+ * The eigenvalues of the A matrix are calculated when the model is created. The dynamic modes are identified from the eigenvalues of the
+ * decoupled longitudinal (u, w, q, theta) and lateral-directional (v, p, r, phi) subsystems of the A matrix: the longitudinal eigenvalues
+ * of the largest magnitude form the short period and the others the phugoid; the complex lateral eigenvalues of the highest frequency
+ * form the Dutch roll, and the real lateral eigenvalues of the largest and smallest magnitudes form the roll and spiral modes.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ * see Aircraft Control and Simulation - Stevens, B.L. and Lewis, F.L. (pp 250-63)
+ */
+public class LinearModel {
+   /**
+    * Number of states of the model
+    */
+   public static final int STATES = 12;
+   /**
+    * Number of inputs of the model
+    */
+   public static final int INPUTS = LinearInputs.values().length;
+   /**
+    * Names of the states of the model
+    */
+   public static final String[] STATE_NAMES = { "u", "v", "w", "N", "E", "alt", "phi", "theta", "psi", "p", "q", "r" };
+   /**
+    * Indices of the states of the longitudinal subsystem (u, w, q, theta)
+    */
+   public static final int[] LONGITUDINAL_STATES = { 0, 2, 10, 7 };
+   /**
+    * Indices of the states of the lateral-directional subsystem (v, p, r, phi)
+    */
+   public static final int[] LATERAL_STATES = { 1, 9, 11, 6 };
+
+   private final double[] states;
+   private final double[] controls;
+   private final double[][] a;
+   private final double[][] b;
+   private final double[] real = new double[STATES];
+   private final double[] imaginary = new double[STATES];
+   private final List<Mode> modes = new ArrayList<>();
+
+   /**
+    * Creates a model and calculates its eigenvalues and modes.
+    *
+    * @param states the reference states
+    * @param controls the reference positions of the inputs, indexed by {@link LinearInputs#ordinal()}
+    * @param a the A matrix
+    * @param b the B matrix
+    */
+   LinearModel(double[] states, double[] controls, double[][] a, double[][] b) {
+      this.states = Arrays.copyOf(states, STATES);
+      this.controls = controls.clone();
+      this.a = a;
+      this.b = b;
+
+      if (!MatrixUtilities.eigenvalues(a, real, imaginary)) {
+         System.err.println("Unable to calculate the eigenvalues of the linear model!");
+      }
+      identifyLongitudinalModes();
+      identifyLateralModes();
+   }
+
+   private void identifyLongitudinalModes() {
+      List<double[]> eigenvalues = subsystemEigenvalues(LONGITUDINAL_STATES);
+      if (eigenvalues == null) {
+         return;
+      }
+
+      addModes(ModeType.SHORT_PERIOD, eigenvalues.subList(0, 2));
+      addModes(ModeType.PHUGOID, eigenvalues.subList(2, 4));
+   }
+
+   private void identifyLateralModes() {
+      List<double[]> eigenvalues = subsystemEigenvalues(LATERAL_STATES);
+      if (eigenvalues == null) {
+         return;
+      }
+
+      // The complex pair of the highest frequency is the Dutch roll
+      int dutchRoll = -1;
+      for (int i = 0; i < eigenvalues.size(); i++) {
+         double[] eigenvalue = eigenvalues.get(i);
+         if (eigenvalue[1] > 0 && (dutchRoll < 0 || eigenvalue[1] > eigenvalues.get(dutchRoll)[1])) {
+            dutchRoll = i;
+         }
+      }
+
+      if (dutchRoll < 0) {
+         // All real: the middle eigenvalues are an overdamped Dutch roll
+         modes.add(new Mode(ModeType.ROLL, eigenvalues.get(0)[0], 0));
+         addModes(ModeType.DUTCH_ROLL, eigenvalues.subList(1, 3));
+         modes.add(new Mode(ModeType.SPIRAL, eigenvalues.get(3)[0], 0));
+         return;
+      }
+
+      double[] dutchRollEigenvalue = eigenvalues.get(dutchRoll);
+      modes.add(new Mode(ModeType.DUTCH_ROLL, dutchRollEigenvalue[0], dutchRollEigenvalue[1]));
+      List<double[]> others = new ArrayList<>();
+      for (double[] eigenvalue : eigenvalues) {
+         if (eigenvalue[0] != dutchRollEigenvalue[0] || Math.abs(eigenvalue[1]) != dutchRollEigenvalue[1]) {
+            others.add(eigenvalue);
+         }
+      }
+
+      if (others.size() == 2 && others.get(0)[1] != 0) {
+         modes.add(new Mode(ModeType.ROLL_SPIRAL, others.get(0)[0], others.get(0)[1]));
+      } else if (others.size() == 2) {
+         modes.add(new Mode(ModeType.ROLL, others.get(0)[0], 0));
+         modes.add(new Mode(ModeType.SPIRAL, others.get(1)[0], 0));
+      }
+   }
+
+   /**
+    * Adds the modes of two eigenvalues, which are either a complex pair forming one oscillatory mode, or two real modes.
+    */
+   private void addModes(ModeType type, List<double[]> eigenvalues) {
+      if (eigenvalues.get(0)[1] != 0) {
+         modes.add(new Mode(type, eigenvalues.get(0)[0], eigenvalues.get(0)[1]));
+      } else {
+         for (double[] eigenvalue : eigenvalues) {
+            modes.add(new Mode(type, eigenvalue[0], 0));
+         }
+      }
+   }
+
+   /**
+    * @return the eigenvalues of a subsystem of the A matrix as {real, imaginary} pairs, sorted by decreasing magnitude, or null if they
+    * could not be calculated
+    */
+   private List<double[]> subsystemEigenvalues(int[] indices) {
+      int n = indices.length;
+      double[][] subsystem = new double[n][n];
+      for (int i = 0; i < n; i++) {
+         for (int j = 0; j < n; j++) {
+            subsystem[i][j] = a[indices[i]][indices[j]];
+         }
+      }
+
+      double[] re = new double[n];
+      double[] im = new double[n];
+      if (!MatrixUtilities.eigenvalues(subsystem, re, im)) {
+         System.err.println("Unable to identify the modes of the linear model!");
+         return null;
+      }
+
+      List<double[]> eigenvalues = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+         eigenvalues.add(new double[] { re[i], im[i] });
+      }
+      Collections.sort(eigenvalues, new Comparator<double[]>() {
+         @Override
+         public int compare(double[] eigenvalue1, double[] eigenvalue2) {
+            return Double.compare(Math.hypot(eigenvalue2[0], eigenvalue2[1]), Math.hypot(eigenvalue1[0], eigenvalue1[1]));
+         }
+      });
+      return eigenvalues;
+   }
+
+   /**
+    * Returns a reference state, indexed as the 6DOF states.
+    *
+    * @param index the index of the state
+    * @return the value of the state
+    */
+   public double getState(int index) {
+      return states[index];
+   }
+
+   /**
+    * Returns the reference position of an input.
+    *
+    * @param input the input
+    * @return the position
+    */
+   public double getControl(LinearInputs input) {
+      return controls[input.ordinal()];
+   }
+
+   /**
+    * @return a copy of the A matrix, indexed [row][column] by the indices of the states
+    */
+   public double[][] getA() {
+      return copy(a);
+   }
+
+   /**
+    * @return a copy of the B matrix, indexed [row][column] by the indices of the states and {@link LinearInputs#ordinal()}
+    */
+   public double[][] getB() {
+      return copy(b);
+   }
+
+   private static double[][] copy(double[][] matrix) {
+      double[][] copy = new double[matrix.length][];
+      for (int i = 0; i < matrix.length; i++) {
+         copy[i] = matrix[i].clone();
+      }
+      return copy;
+   }
+
+   /**
+    * @return the real parts of the eigenvalues of the A matrix
+    */
+   public double[] getEigenvaluesReal() {
+      return real.clone();
+   }
+
+   /**
+    * @return the imaginary parts of the eigenvalues of the A matrix; complex eigenvalues are consecutive conjugate pairs
+    */
+   public double[] getEigenvaluesImaginary() {
+      return imaginary.clone();
+   }
+
+   /**
+    * @return the identified modes, longitudinal first
+    */
+   public List<Mode> getModes() {
+      return Collections.unmodifiableList(modes);
+   }
+
+   /**
+    * Returns the first identified mode of a type.
+    *
+    * @param type the type of the mode
+    * @return the mode, or null if no mode of this type was identified
+    */
+   public Mode getMode(ModeType type) {
+      for (Mode mode : modes) {
+         if (mode.getType() == type) {
+            return mode;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Calculates the derivatives of the deviations of the states: xDot = A x + B u.
+    *
+    * @param x the deviations of the states
+    * @param u the deviations of the inputs, indexed by {@link LinearInputs#ordinal()}
+    * @param xDot the array to fill
+    * @return xDot
+    */
+   public double[] calculateDerivatives(double[] x, double[] u, double[] xDot) {
+      for (int i = 0; i < STATES; i++) {
+         double sum = 0;
+         for (int j = 0; j < STATES; j++) {
+            sum += a[i][j] * x[j];
+         }
+         for (int j = 0; j < INPUTS; j++) {
+            sum += b[i][j] * u[j];
+         }
+         xDot[i] = sum;
+      }
+      return xDot;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("A:\n");
+      appendMatrix(sb, a);
+      sb.append("B:\n");
+      appendMatrix(sb, b);
+
+      sb.append("eigenvalues:\n");
+      for (int i = 0; i < STATES; i++) {
+         sb.append(String.format("%12.6f %+12.6fi%n", real[i], imaginary[i]));
+      }
+      sb.append("modes:");
+      for (Mode mode : modes) {
+         sb.append("\n").append(mode);
+      }
+
+      return sb.toString();
+   }
+
+   private static void appendMatrix(StringBuilder sb, double[][] matrix) {
+      for (int i = 0; i < matrix.length; i++) {
+         sb.append(String.format("%-6s", STATE_NAMES[i]));
+         for (double value : matrix[i]) {
+            sb.append(String.format("%13.5e", value));
+         }
+         sb.append("\n");
+      }
+   }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Linearizes the 6DOF equations of an aircraft around a reference condition, usually a trim, into a {@link LinearModel}. Each column of
+ * the A and B matrices is calculated by central finite differences of the same force and moment model as the
+ * {@link com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations}, perturbing one state or {@link LinearInputs} at a
+ * time; an input at a limit of its flight controls is only perturbed towards the inside of its range. As the aerodynamic model depends
+ * on the rate of change of the angle of attack, which itself depends on the derivatives, each evaluation solves for it by fixed point
+ * iteration.
+ *
+ * <p>
+ * The columns are calculated in parallel by one worker per {@link AircraftBuilder} given to the linearizer, each worker having its own
+ * force and moment model. The builders must be of the same aircraft with the same mass properties, and their engines must not be used
+ * by another linearizer or simulation at the same time. With a single builder, the columns are calculated on the calling thread.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ * see Aircraft Control and Simulation - Stevens, B.L. and Lewis, F.L. (pp 250-63)
+ */
+public class Linearizer {
+   /**
+    * Default relative perturbation of the states and inputs
+    */
+   public static final double DEFAULT_PERTURBATION = 1e-5;
+
+   private static final LinearInputs[] LINEAR_INPUTS = LinearInputs.values();
+   private static final int COLUMNS = LinearModel.STATES + LinearModel.INPUTS;
+   private static final int MAX_ALPHA_DOT_ITERATIONS = 10;
+
+   private final Worker[] workers;
+   private double perturbation = DEFAULT_PERTURBATION;
+
+   /**
+    * Creates a linearizer with one worker per aircraft builder.
+    *
+    * @param builders the aircraft builders of the same aircraft
+    * @throws IllegalArgumentException if no builder is given
+    */
+   public Linearizer(AircraftBuilder... builders) {
+      if (builders.length == 0) {
+         throw new IllegalArgumentException("No aircraft to linearize");
+      }
+      this.workers = new Worker[builders.length];
+      for (int i = 0; i < builders.length; i++) {
+         workers[i] = new Worker(builders[i]);
+      }
+   }
+
+   /**
+    * Sets the perturbation of the states and inputs, relative to their reference value if it is larger than 1.
+    *
+    * @param perturbation the perturbation
+    */
+   public void setPerturbation(double perturbation) {
+      this.perturbation = perturbation;
+   }
+
+   /**
+    * Linearizes the aircraft around a trim.
+    *
+    * @param trim the trim
+    * @param controls the controls of the aircraft, which are updated by the trimmed controls of the trim in a copy; the map is not modified
+    * @return the linear model
+    * @throws IllegalStateException if the calculation of the matrices is interrupted, or fails with a checked exception
+    */
+   public LinearModel linearize(TrimResult trim, Map<FlightControlType, Double> controls) {
+      Map<FlightControlType, Double> trimmedControls = new EnumMap<>(FlightControlType.class);
+      trimmedControls.putAll(controls);
+      trim.apply(new EnumMap<InitialConditions, Double>(InitialConditions.class), trimmedControls);
+
+      double[] states = new double[LinearModel.STATES];
+      for (int i = 0; i < states.length; i++) {
+         states[i] = trim.getState(i);
+      }
+      return linearize(states, trimmedControls);
+   }
+
+   /**
+    * Linearizes the aircraft around states and controls.
+    *
+    * @param states the 6DOF states; only the first 12 states are used
+    * @param controls the controls of the aircraft; the map is not modified
+    * @return the linear model
+    * @throws IllegalStateException if the calculation of the matrices is interrupted, or fails with a checked exception; a runtime
+    * exception of a worker thread is rethrown as is
+    */
+   public LinearModel linearize(double[] states, Map<FlightControlType, Double> controls) {
+      final double[] y = new double[14];
+      System.arraycopy(states, 0, y, 0, LinearModel.STATES);
+      final double[] controlValues = FlightControlsUtilities.toArray(controls, new double[FlightControlType.values().length]);
+
+      double[] inputs = new double[LinearModel.INPUTS];
+      for (LinearInputs input : LINEAR_INPUTS) {
+         inputs[input.ordinal()] = controlValues[input.getControls()[0].ordinal()];
+      }
+
+      final double[][] a = new double[LinearModel.STATES][LinearModel.STATES];
+      final double[][] b = new double[LinearModel.STATES][LinearModel.INPUTS];
+      final AtomicInteger nextColumn = new AtomicInteger();
+
+      if (workers.length == 1) {
+         workers[0].calculateColumns(y, controlValues, nextColumn, a, b);
+      } else {
+         List<Callable<Void>> tasks = new ArrayList<>(workers.length);
+         for (final Worker worker : workers) {
+            tasks.add(new Callable<Void>() {
+               @Override
+               public Void call() {
+                  worker.calculateColumns(y, controlValues, nextColumn, a, b);
+                  return null;
+               }
+            });
+         }
+
+         ForkJoinPool pool = new ForkJoinPool(workers.length);
+         try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+               future.get();
+            }
+         } catch (ExecutionException e) {
+            // The matrices are only partly calculated
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+               throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+               throw (Error) cause;
+            }
+            throw new IllegalStateException("Linearization failed: " + cause, cause);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Linearization interrupted", e);
+         } finally {
+            pool.shutdown();
+         }
+      }
+
+      return new LinearModel(states, inputs, a, b);
+   }
+
+   /**
+    * Calculates columns of the A and B matrices with its own force and moment model and buffers.
+    */
+   private class Worker {
+      private final ForceMomentModel model;
+      private final double[] y = new double[14];
+      private final double[] controlValues = new double[FlightControlType.values().length];
+      private final double[] yDotPlus = new double[14];
+      private final double[] yDotMinus = new double[14];
+
+      private Worker(AircraftBuilder ab) {
+         this.model = new ForceMomentModel(ab);
+      }
+
+      /**
+       * Calculates the columns taken in turn from the columns left, the states first and then the inputs.
+       */
+      private void calculateColumns(double[] referenceStates, double[] referenceControls, AtomicInteger nextColumn, double[][] a,
+              double[][] b) {
+         int column;
+         while ((column = nextColumn.getAndIncrement()) < COLUMNS) {
+            System.arraycopy(referenceStates, 0, y, 0, y.length);
+            System.arraycopy(referenceControls, 0, controlValues, 0, controlValues.length);
+
+            double step;
+            if (column < LinearModel.STATES) {
+               double value = y[column];
+               double h = perturbation * Math.max(1, Math.abs(value));
+               y[column] = value + h;
+               evaluate(yDotPlus);
+               y[column] = value - h;
+               evaluate(yDotMinus);
+               step = 2 * h;
+            } else {
+               LinearInputs input = LINEAR_INPUTS[column - LinearModel.STATES];
+               double value = controlValues[input.getControls()[0].ordinal()];
+               double h = perturbation * Math.max(1, Math.abs(value));
+               double plus = Math.min(value + h, input.getMaximum());
+               double minus = Math.max(value - h, input.getMinimum());
+               setInput(input, plus);
+               evaluate(yDotPlus);
+               setInput(input, minus);
+               evaluate(yDotMinus);
+               step = plus - minus;
+            }
+
+            double[][] matrix = (column < LinearModel.STATES) ? a : b;
+            int matrixColumn = (column < LinearModel.STATES) ? column : column - LinearModel.STATES;
+            for (int i = 0; i < LinearModel.STATES; i++) {
+               matrix[i][matrixColumn] = (yDotPlus[i] - yDotMinus[i]) / step;
+            }
+         }
+      }
+
+      private void setInput(LinearInputs input, double value) {
+         for (FlightControlType control : input.getControls()) {
+            controlValues[control.ordinal()] = value;
+         }
+      }
+
+      /**
+       * Evaluates the derivatives of the states, solving for the rate of change of the angle of attack they depend on.
+       */
+      private void evaluate(double[] yDot) {
+         double alphaDot = 0;
+         for (int i = 0; i < MAX_ALPHA_DOT_ITERATIONS; i++) {
+            model.calculateDerivatives(y, controlValues, alphaDot, yDot);
+            double nextAlphaDot = SixDOFUtilities.calculateAlphaDot(y, yDot);
+            if (Math.abs(nextAlphaDot - alphaDot) <= 1e-12) {
+               break;
+            }
+            alphaDot = nextAlphaDot;
+         }
+      }
+   }
+}
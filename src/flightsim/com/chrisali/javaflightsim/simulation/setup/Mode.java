@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ * A dynamic mode of an aircraft, identified by a {@link LinearModel}: a real eigenvalue of its A matrix, or a pair of complex conjugate
+ * eigenvalues for an oscillatory mode.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class Mode {
+   private final ModeType type;
+   private final double real;
+   private final double imaginary;
+
+   /**
+    * Creates a mode.
+    *
+    * @param type the type of the mode
+    * @param real the real part of the eigenvalue (1/sec)
+    * @param imaginary the imaginary part of the eigenvalue (rad/sec); its sign is ignored
+    */
+   Mode(ModeType type, double real, double imaginary) {
+      this.type = type;
+      this.real = real;
+      this.imaginary = Math.abs(imaginary);
+   }
+
+   /**
+    * @return the type of the mode
+    */
+   public ModeType getType() {
+      return type;
+   }
+
+   /**
+    * @return the real part of the eigenvalue (1/sec)
+    */
+   public double getReal() {
+      return real;
+   }
+
+   /**
+    * @return the positive imaginary part of the eigenvalue, which is the damped frequency of an oscillatory mode (rad/sec)
+    */
+   public double getImaginary() {
+      return imaginary;
+   }
+
+   /**
+    * @return true if the mode is an oscillation
+    */
+   public boolean isOscillatory() {
+      return imaginary != 0;
+   }
+
+   /**
+    * @return true if the mode converges
+    */
+   public boolean isStable() {
+      return real < 0;
+   }
+
+   /**
+    * @return the natural frequency of the mode (rad/sec)
+    */
+   public double getNaturalFrequency() {
+      return Math.hypot(real, imaginary);
+   }
+
+   /**
+    * @return the damping ratio of the mode, which is 1 for a converging and -1 for a diverging non oscillatory mode
+    */
+   public double getDampingRatio() {
+      double naturalFrequency = getNaturalFrequency();
+      return (naturalFrequency == 0) ? 0 : -real / naturalFrequency;
+   }
+
+   /**
+    * @return the period of an oscillatory mode (sec), or infinity for a non oscillatory mode
+    */
+   public double getPeriod() {
+      return (imaginary == 0) ? Double.POSITIVE_INFINITY : 2 * Math.PI / imaginary;
+   }
+
+   /**
+    * @return the time for the amplitude of the mode to halve if it is stable, or to double if it is not (sec)
+    */
+   public double getTimeToHalfOrDouble() {
+      return Math.log(2) / Math.abs(real);
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+
+      sb.append(type).append(": ").append(String.format("%.5f", real));
+      if (isOscillatory()) {
+         sb.append(String.format(" +/- %.5fi, natural frequency: %.4f rad/sec, damping ratio: %.4f, period: %.3f sec", imaginary,
+                 getNaturalFrequency(), getDampingRatio(), getPeriod()));
+      }
+      sb.append(String.format(", time to %s: %.3f sec", isStable() ? "half" : "double", getTimeToHalfOrDouble()));
+
+      return sb.toString();
+   }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ * Provides Enum values to define the dynamic modes of an aircraft identified from the eigenvalues of a {@link LinearModel}.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum ModeType {
+   /**
+    * Fast, usually well damped oscillation of the angle of attack and pitch rate
+    */
+   SHORT_PERIOD("Short period"),
+   /**
+    * Slow, lightly damped exchange of airspeed and altitude
+    */
+   PHUGOID("Phugoid"),
+   /**
+    * Oscillation of yaw and roll
+    */
+   DUTCH_ROLL("Dutch roll"),
+   /**
+    * Fast convergence of the roll rate
+    */
+   ROLL("Roll"),
+   /**
+    * Slow convergence or divergence of the bank angle and heading
+    */
+   SPIRAL("Spiral"),
+   /**
+    * Oscillation replacing the roll and spiral modes when they couple, also known as the lateral phugoid
+    */
+   ROLL_SPIRAL("Coupled roll-spiral");
+
+   private final String mode;
+
+   ModeType(String mode) {
+      this.mode = mode;
+   }
+
+   @Override
+   public String toString() {
+      return mode;
+   }
+}
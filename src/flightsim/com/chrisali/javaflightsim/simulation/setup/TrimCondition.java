@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ * The steady flight condition an aircraft is trimmed for by a {@link TrimSolver}: the true airspeed and altitude, and optionally the
+ * flight path angle (climb or descent), the turn rate, the angle of sideslip and the heading. The default condition is steady, wings
+ * level flight without sideslip.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class TrimCondition {
+   private final double airspeed;
+   private final double altitude;
+   private double flightPathAngle = 0;
+   private double turnRate = 0;
+   private double sideslip = 0;
+   private double heading = 0;
+
+   /**
+    * Creates a condition of steady, wings level flight.
+    *
+    * @param airspeed the true airspeed (ft/sec)
+    * @param altitude the altitude (ft)
+    */
+   public TrimCondition(double airspeed, double altitude) {
+      this.airspeed = airspeed;
+      this.altitude = altitude;
+   }
+
+   /**
+    * @return the true airspeed (ft/sec)
+    */
+   public double getAirspeed() {
+      return airspeed;
+   }
+
+   /**
+    * @return the altitude (ft)
+    */
+   public double getAltitude() {
+      return altitude;
+   }
+
+   /**
+    * Sets the flight path angle, positive when climbing.
+    *
+    * @param flightPathAngle the flight path angle (rad)
+    */
+   public void setFlightPathAngle(double flightPathAngle) {
+      this.flightPathAngle = flightPathAngle;
+   }
+
+   /**
+    * @return the flight path angle, positive when climbing (rad)
+    */
+   public double getFlightPathAngle() {
+      return flightPathAngle;
+   }
+
+   /**
+    * Sets the rate of change of the heading, positive when turning right. With no sideslip, the turn is coordinated.
+    *
+    * @param turnRate the turn rate (rad/sec)
+    */
+   public void setTurnRate(double turnRate) {
+      this.turnRate = turnRate;
+   }
+
+   /**
+    * @return the turn rate, positive when turning right (rad/sec)
+    */
+   public double getTurnRate() {
+      return turnRate;
+   }
+
+   /**
+    * Sets the angle of sideslip held by the aircraft.
+    *
+    * @param sideslip the angle of sideslip (rad)
+    */
+   public void setSideslip(double sideslip) {
+      this.sideslip = sideslip;
+   }
+
+   /**
+    * @return the angle of sideslip (rad)
+    */
+   public double getSideslip() {
+      return sideslip;
+   }
+
+   /**
+    * Sets the heading of the aircraft at the trimmed state.
+    *
+    * @param heading the heading (rad)
+    */
+   public void setHeading(double heading) {
+      this.heading = heading;
+   }
+
+   /**
+    * @return the heading of the aircraft at the trimmed state (rad)
+    */
+   public double getHeading() {
+      return heading;
+   }
+
+   @Override
+   public String toString() {
+      return "airspeed: " + airspeed + " ft/sec, altitude: " + altitude + " ft, flight path angle: " + Math.toDegrees(flightPathAngle)
+              + " deg, turn rate: " + Math.toDegrees(turnRate) + " deg/sec, sideslip: " + Math.toDegrees(sideslip) + " deg";
+   }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Dense table of the trim of an aircraft in steady, wings level flight over a grid of true airspeeds, altitudes, weights and flap
+ * positions, generated by a {@link TrimMapGenerator}. Each point of the grid holds a {@link TrimPointStatus} and the trimmed
+ * {@link TrimMapValues}, each value being held in its own primitive column indexed by {@link TrimMapValues#ordinal()}.
+ *
+ * <p>
+ * A map can be written to and read from a compact binary file, which the launcher reads from the directory of the aircraft
+ * ({@link TrimMap#FILE_NAME}), or exported to a CSV file with one line per point. Looking up a map interpolates the trimmed values
+ * linearly between the points of the grid, without allocating memory.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class TrimMap {
+   /**
+    * Name of the trim map file in the directory of an aircraft
+    */
+   public static final String FILE_NAME = "TrimMap.bin";
+
+   private static final int MAGIC = 0x54524D50;
+   private static final int VERSION = 1;
+   private static final TrimMapValues[] TRIM_VALUES = TrimMapValues.values();
+   private static final TrimPointStatus[] TRIM_STATUS = TrimPointStatus.values();
+
+   private final String aircraftName;
+   private final double referenceWeight;
+   private final double[] airspeeds;
+   private final double[] altitudes;
+   private final double[] weights;
+   private final double[] flaps;
+   private final byte[] status;
+   private final float[][] values;
+
+   /**
+    * Creates an empty map, where all points are {@link TrimPointStatus#FAILED}. The axes must be sorted in ascending order.
+    *
+    * @param aircraftName the name of the aircraft
+    * @param referenceWeight the weight of the aircraft as configured when the map was generated (lbf)
+    * @param airspeeds the true airspeeds (ft/sec)
+    * @param altitudes the altitudes (ft)
+    * @param weights the weights (lbf)
+    * @param flaps the flap positions (rad)
+    */
+   TrimMap(String aircraftName, double referenceWeight, double[] airspeeds, double[] altitudes, double[] weights, double[] flaps) {
+      this.aircraftName = aircraftName;
+      this.referenceWeight = referenceWeight;
+      this.airspeeds = airspeeds.clone();
+      this.altitudes = altitudes.clone();
+      this.weights = weights.clone();
+      this.flaps = flaps.clone();
+
+      int size = airspeeds.length * altitudes.length * weights.length * flaps.length;
+      this.status = new byte[size];
+      this.values = new float[TRIM_VALUES.length][size];
+      Arrays.fill(status, (byte) TrimPointStatus.FAILED.ordinal());
+   }
+
+   /**
+    * Sets a point of the map from the result of a trim. Distinct points may be set concurrently.
+    */
+   void set(int airspeed, int altitude, int weight, int flap, TrimPointStatus pointStatus, TrimResult result) {
+      int index = index(airspeed, altitude, weight, flap);
+      status[index] = (byte) pointStatus.ordinal();
+      values[TrimMapValues.ALPHA.ordinal()][index] = (float) result.getAlpha();
+      values[TrimMapValues.THETA.ordinal()][index] = (float) result.getTheta();
+      values[TrimMapValues.ELEVATOR.ordinal()][index] = (float) result.getElevator();
+      values[TrimMapValues.THROTTLE.ordinal()][index] = (float) result.getThrottle();
+   }
+
+   private int index(int airspeed, int altitude, int weight, int flap) {
+      return ((flap * weights.length + weight) * altitudes.length + altitude) * airspeeds.length + airspeed;
+   }
+
+   /**
+    * @return the name of the aircraft the map was generated for
+    */
+   public String getAircraftName() {
+      return aircraftName;
+   }
+
+   /**
+    * @return the weight of the aircraft as configured when the map was generated (lbf)
+    */
+   public double getReferenceWeight() {
+      return referenceWeight;
+   }
+
+   /**
+    * @return the true airspeeds of the grid (ft/sec)
+    */
+   public double[] getAirspeeds() {
+      return airspeeds.clone();
+   }
+
+   /**
+    * @return the altitudes of the grid (ft)
+    */
+   public double[] getAltitudes() {
+      return altitudes.clone();
+   }
+
+   /**
+    * @return the weights of the grid (lbf)
+    */
+   public double[] getWeights() {
+      return weights.clone();
+   }
+
+   /**
+    * @return the flap positions of the grid (rad)
+    */
+   public double[] getFlaps() {
+      return flaps.clone();
+   }
+
+   /**
+    * @return the number of points of the grid
+    */
+   public int size() {
+      return status.length;
+   }
+
+   /**
+    * Returns the status of a point of the grid.
+    *
+    * @param airspeed the index of the airspeed
+    * @param altitude the index of the altitude
+    * @param weight the index of the weight
+    * @param flap the index of the flap position
+    * @return the status
+    */
+   public TrimPointStatus getStatus(int airspeed, int altitude, int weight, int flap) {
+      return TRIM_STATUS[status[index(airspeed, altitude, weight, flap)]];
+   }
+
+   /**
+    * Returns a trimmed value at a point of the grid. If the point is not {@link TrimPointStatus#TRIMMED}, the value is the closest to trim
+    * found for this point.
+    *
+    * @param trimValue the trimmed value
+    * @param airspeed the index of the airspeed
+    * @param altitude the index of the altitude
+    * @param weight the index of the weight
+    * @param flap the index of the flap position
+    * @return the value
+    */
+   public double getValue(TrimMapValues trimValue, int airspeed, int altitude, int weight, int flap) {
+      return values[trimValue.ordinal()][index(airspeed, altitude, weight, flap)];
+   }
+
+   /**
+    * Returns the lowest airspeed of the grid at which the aircraft is trimmed, for an altitude, weight and flap position of the grid. It
+    * is bounded by the stall angle of attack, or at high altitudes by the power of the engines.
+    *
+    * @param altitude the index of the altitude
+    * @param weight the index of the weight
+    * @param flap the index of the flap position
+    * @return the airspeed (ft/sec), or NaN if the aircraft is not trimmed at any airspeed
+    */
+   public double getMinAirspeed(int altitude, int weight, int flap) {
+      for (int i = 0; i < airspeeds.length; i++) {
+         if (status[index(i, altitude, weight, flap)] == TrimPointStatus.TRIMMED.ordinal()) {
+            return airspeeds[i];
+         }
+      }
+      return Double.NaN;
+   }
+
+   /**
+    * Returns the highest airspeed of the grid at which the aircraft is trimmed, for an altitude, weight and flap position of the grid. It
+    * is usually bounded by the power of the engines.
+    *
+    * @param altitude the index of the altitude
+    * @param weight the index of the weight
+    * @param flap the index of the flap position
+    * @return the airspeed (ft/sec), or NaN if the aircraft is not trimmed at any airspeed
+    */
+   public double getMaxAirspeed(int altitude, int weight, int flap) {
+      for (int i = airspeeds.length - 1; i >= 0; i--) {
+         if (status[index(i, altitude, weight, flap)] == TrimPointStatus.TRIMMED.ordinal()) {
+            return airspeeds[i];
+         }
+      }
+      return Double.NaN;
+   }
+
+   /**
+    * Interpolates the trimmed values linearly between the points of the grid surrounding a condition, and writes them into a
+    * caller-supplied array indexed by {@link TrimMapValues#ordinal()}. Conditions outside of the grid are bounded to its limits. The
+    * values are only interpolated if all the surrounding points are {@link TrimPointStatus#TRIMMED}.
+    *
+    * @param airspeed the true airspeed (ft/sec)
+    * @param altitude the altitude (ft)
+    * @param weight the weight (lbf)
+    * @param flap the flap position (rad)
+    * @param trimValues the array to fill
+    * @return true if the values were interpolated, false if the condition is out of the trimmed envelope
+    */
+   public boolean lookup(double airspeed, double altitude, double weight, double flap, double[] trimValues) {
+      int iAirspeed = lowerIndex(airspeeds, airspeed);
+      int iAltitude = lowerIndex(altitudes, altitude);
+      int iWeight = lowerIndex(weights, weight);
+      int iFlap = lowerIndex(flaps, flap);
+      double tAirspeed = fraction(airspeeds, iAirspeed, airspeed);
+      double tAltitude = fraction(altitudes, iAltitude, altitude);
+      double tWeight = fraction(weights, iWeight, weight);
+      double tFlap = fraction(flaps, iFlap, flap);
+
+      for (int i = 0; i < values.length; i++) {
+         trimValues[i] = 0;
+      }
+
+      // Sums the 16 corners of the surrounding cell, skipping the corners along axes of a single point
+      for (int corner = 0; corner < 16; corner++) {
+         double factor = ((corner & 1) != 0 ? tAirspeed : 1 - tAirspeed) * ((corner & 2) != 0 ? tAltitude : 1 - tAltitude)
+                 * ((corner & 4) != 0 ? tWeight : 1 - tWeight) * ((corner & 8) != 0 ? tFlap : 1 - tFlap);
+         if (factor == 0) {
+            continue;
+         }
+
+         int index = index(iAirspeed + (corner & 1), iAltitude + ((corner >> 1) & 1), iWeight + ((corner >> 2) & 1),
+                 iFlap + ((corner >> 3) & 1));
+         if (status[index] != TrimPointStatus.TRIMMED.ordinal()) {
+            return false;
+         }
+         for (int i = 0; i < values.length; i++) {
+            trimValues[i] += factor * values[i][index];
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * @return the index of the breakpoint of an axis below a value, bounded so that the next breakpoint exists if the axis has more than one
+    */
+   private static int lowerIndex(double[] axis, double value) {
+      if (axis.length == 1 || value <= axis[0]) {
+         return 0;
+      }
+      int index = Arrays.binarySearch(axis, value);
+      if (index < 0) {
+         index = -index - 2;
+      }
+      return Math.min(index, axis.length - 2);
+   }
+
+   private static double fraction(double[] axis, int index, double value) {
+      if (axis.length == 1) {
+         return 0;
+      }
+      double t = (value - axis[index]) / (axis[index + 1] - axis[index]);
+      return Math.max(0, Math.min(1, t));
+   }
+
+   /**
+    * Writes the map to a binary file, which can be read back with {@link TrimMap#read(File)}. The trimmed values are written as floats.
+    *
+    * @param file the file
+    * @throws IOException if the file could not be written
+    */
+   public void write(File file) throws IOException {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeUTF(aircraftName);
+         out.writeDouble(referenceWeight);
+         writeAxis(out, airspeeds);
+         writeAxis(out, altitudes);
+         writeAxis(out, weights);
+         writeAxis(out, flaps);
+
+         out.writeInt(TRIM_VALUES.length);
+         out.write(status);
+         for (float[] column : values) {
+            for (float value : column) {
+               out.writeFloat(value);
+            }
+         }
+      }
+   }
+
+   private static void writeAxis(DataOutputStream out, double[] axis) throws IOException {
+      out.writeInt(axis.length);
+      for (double value : axis) {
+         out.writeDouble(value);
+      }
+   }
+
+   /**
+    * Reads a map from a binary file written by {@link TrimMap#write(File)}.
+    *
+    * @param file the file
+    * @return the map
+    * @throws IOException if the file could not be read, or is not a trim map file
+    */
+   public static TrimMap read(File file) throws IOException {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+         if (in.readInt() != MAGIC) {
+            throw new IOException("Not a trim map file: " + file);
+         }
+         int version = in.readInt();
+         if (version != VERSION) {
+            throw new IOException("Unsupported trim map version " + version + " in " + file);
+         }
+
+         String aircraftName = in.readUTF();
+         double referenceWeight = in.readDouble();
+         TrimMap map = new TrimMap(aircraftName, referenceWeight, readAxis(in, file), readAxis(in, file), readAxis(in, file),
+                 readAxis(in, file));
+
+         if (in.readInt() != TRIM_VALUES.length) {
+            throw new IOException("Unsupported trim map values in " + file);
+         }
+         in.readFully(map.status);
+         for (byte pointStatus : map.status) {
+            if (pointStatus < 0 || pointStatus >= TRIM_STATUS.length) {
+               throw new IOException("Invalid trim point status " + pointStatus + " in " + file);
+            }
+         }
+         for (float[] column : map.values) {
+            for (int i = 0; i < column.length; i++) {
+               column[i] = in.readFloat();
+            }
+         }
+
+         return map;
+      }
+   }
+
+   private static double[] readAxis(DataInputStream in, File file) throws IOException {
+      int length = in.readInt();
+      if (length < 1 || length > 100000) {
+         throw new IOException("Invalid trim map axis length " + length + " in " + file);
+      }
+      double[] axis = new double[length];
+      for (int i = 0; i < length; i++) {
+         axis[i] = in.readDouble();
+      }
+      return axis;
+   }
+
+   /**
+    * Reads the trim map of an aircraft from its directory, if it has one.
+    *
+    * @param aircraftDir the directory of the aircraft
+    * @return the map, or null if the aircraft has no trim map or it could not be read
+    */
+   public static TrimMap readFromAircraft(File aircraftDir) {
+      if (aircraftDir == null) {
+         return null;
+      }
+
+      File file = new File(aircraftDir, FILE_NAME);
+      if (!file.isFile()) {
+         return null;
+      }
+
+      try {
+         return read(file);
+      } catch (IOException e) {
+         System.err.println("Unable to read trim map " + file + ": " + e.getMessage());
+         return null;
+      }
+   }
+
+   /**
+    * Writes the map to a CSV file, with one line per point of the grid.
+    *
+    * @param file the file
+    * @throws IOException if the file could not be written
+    */
+   public void writeCSV(File file) throws IOException {
+      try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+         StringBuilder sb = new StringBuilder("airspeed,altitude,weight,flap,status");
+         for (TrimMapValues trimValue : TRIM_VALUES) {
+            sb.append(",").append(trimValue.toString());
+         }
+         bw.write(sb.append("\n").toString());
+
+         for (int f = 0; f < flaps.length; f++) {
+            for (int w = 0; w < weights.length; w++) {
+               for (int h = 0; h < altitudes.length; h++) {
+                  for (int v = 0; v < airspeeds.length; v++) {
+                     int index = index(v, h, w, f);
+                     sb.setLength(0);
+                     sb.append(airspeeds[v]).append(",").append(altitudes[h]).append(",").append(weights[w]).append(",").append(flaps[f])
+                             .append(",").append(TRIM_STATUS[status[index]]);
+                     for (float[] column : values) {
+                        sb.append(",").append(column[index]);
+                     }
+                     bw.write(sb.append("\n").toString());
+                  }
+               }
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.batch.BatchRunner;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link TrimMap} of an aircraft in steady, wings level flight over a grid of true airspeeds, altitudes, weights and flap
+ * positions, fanning the trims out on a fork-join pool. Each worker has its own {@link AircraftBuilder} and {@link TrimSolver}, and
+ * trims whole lines of airspeeds of the grid, taken in turn from the lines left to trim; along a line, each trim starts from the solution
+ * of the previous airspeed. As the solver is reset at the start of each line, the map does not depend on the number of workers or on the
+ * order the lines are trimmed in.
+ *
+ * <p>
+ * The weight of the aircraft is set through its total mass, its inertia being held; the other controls of the trims are the initial
+ * controls of the {@link Configuration}, with the flaps set by the grid. Each point is classified as {@link TrimPointStatus#STALL} if its
+ * angle of attack is beyond the stall angle, {@link TrimPointStatus#POWER_LIMIT} if it could not be trimmed at full throttle, and
+ * {@link TrimPointStatus#FAILED} if it could not be trimmed for another reason.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class TrimMapGenerator {
+   /**
+    * Default stall angle of attack (rad)
+    */
+   public static final double DEFAULT_STALL_ANGLE = Math.toRadians(15);
+
+   private final String aircraftName;
+   private final int parallelism;
+   private double stallAngle = DEFAULT_STALL_ANGLE;
+   private double tolerance = TrimSolver.DEFAULT_TOLERANCE;
+
+   /**
+    * Creates a generator using as many threads as there are available processors.
+    *
+    * @param aircraftName the name of the aircraft, or null for the aircraft selected in the {@link Configuration}
+    */
+   public TrimMapGenerator(String aircraftName) {
+      this(aircraftName, Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Creates a generator.
+    *
+    * @param aircraftName the name of the aircraft, or null for the aircraft selected in the {@link Configuration}
+    * @param parallelism the number of lines of the grid trimmed concurrently
+    */
+   public TrimMapGenerator(String aircraftName, int parallelism) {
+      this.aircraftName = aircraftName;
+      if (parallelism < 1) {
+         System.err.println("Invalid trim map parallelism: " + parallelism + "! Defaulting to 1.");
+         parallelism = 1;
+      }
+      this.parallelism = parallelism;
+   }
+
+   /**
+    * Sets the angle of attack beyond which a trimmed point is classified as {@link TrimPointStatus#STALL}.
+    *
+    * @param stallAngle the stall angle of attack (rad)
+    */
+   public void setStallAngle(double stallAngle) {
+      this.stallAngle = stallAngle;
+   }
+
+   /**
+    * Sets the tolerance of the residuals of the trims.
+    *
+    * @param tolerance the tolerance
+    * @see TrimSolver#setTolerance(double)
+    */
+   public void setTolerance(double tolerance) {
+      this.tolerance = tolerance;
+   }
+
+   /**
+    * Generates the trim map of the aircraft. Each axis must be sorted in strictly ascending order; if no weights are given, the map is
+    * generated for the weight of the aircraft as configured.
+    *
+    * @param airspeeds the true airspeeds (ft/sec)
+    * @param altitudes the altitudes (ft)
+    * @param weights the weights (lbf), or null
+    * @param flaps the flap positions (rad)
+    * @return the map
+    * @throws IllegalArgumentException if an axis is empty or not sorted, or if the aircraft does not exist
+    * @throws IllegalStateException if the generation is interrupted, or fails with a checked exception; a runtime exception of a worker
+    * thread is rethrown as is
+    */
+   public TrimMap generate(double[] airspeeds, double[] altitudes, double[] weights, double[] flaps) {
+      final int lines = checkAxis("altitudes", altitudes) * checkAxis("flaps", flaps)
+              * ((weights == null) ? 1 : checkAxis("weights", weights));
+      checkAxis("airspeeds", airspeeds);
+
+      // The aircraft are built on the calling thread, as building them switches the aircraft of the configuration
+      int workers = Math.min(parallelism, lines);
+      List<AircraftBuilder> builders = new ArrayList<>(workers);
+      for (int i = 0; i < workers; i++) {
+         builders.add(BatchRunner.createAircraftBuilder(aircraftName));
+      }
+
+      Aircraft aircraft = builders.get(0).getAircraft();
+      double referenceWeight = aircraft.getMassProperty(MassProperties.TOTAL_MASS) * Environment.getGravity();
+      if (weights == null) {
+         weights = new double[] { referenceWeight };
+      }
+      final TrimMap map = new TrimMap(aircraft.getName(), referenceWeight, airspeeds, altitudes, weights, flaps);
+
+      Configuration conf = Configuration.getInstance();
+      final EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      final AtomicInteger nextLine = new AtomicInteger();
+
+      List<Callable<Void>> tasks = new ArrayList<>(workers);
+      for (final AircraftBuilder ab : builders) {
+         tasks.add(new Callable<Void>() {
+            @Override
+            public Void call() {
+               TrimWorker worker = new TrimWorker(ab, controls);
+               int line;
+               while ((line = nextLine.getAndIncrement()) < lines) {
+                  worker.trimLine(map, line);
+               }
+               return null;
+            }
+         });
+      }
+
+      ForkJoinPool pool = new ForkJoinPool(workers);
+      try {
+         for (Future<Void> future : pool.invokeAll(tasks)) {
+            future.get();
+         }
+      } catch (ExecutionException e) {
+         // The map is only partly generated
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         } else if (cause instanceof Error) {
+            throw (Error) cause;
+         }
+         throw new IllegalStateException("Trim map generation failed: " + cause, cause);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Trim map generation interrupted", e);
+      } finally {
+         pool.shutdown();
+      }
+
+      return map;
+   }
+
+   private static int checkAxis(String name, double[] axis) {
+      if (axis == null || axis.length == 0) {
+         throw new IllegalArgumentException("No " + name + " in the trim map grid");
+      }
+      for (int i = 1; i < axis.length; i++) {
+         if (!(axis[i] > axis[i - 1])) {
+            throw new IllegalArgumentException("The " + name + " of the trim map grid are not sorted in ascending order");
+         }
+      }
+      return axis.length;
+   }
+
+   /**
+    * Classifies the result of a trim.
+    *
+    * @param result the result
+    * @param stallAngle the stall angle of attack (rad)
+    * @return the status of the point
+    */
+   static TrimPointStatus classify(TrimResult result, double stallAngle) {
+      if (result.getAlpha() > stallAngle) {
+         return TrimPointStatus.STALL;
+      } else if (result.isConverged()) {
+         return TrimPointStatus.TRIMMED;
+      } else if (result.getThrottle() >= FlightControlType.THROTTLE_1.getMaximum() - 1e-6) {
+         return TrimPointStatus.POWER_LIMIT;
+      } else {
+         return TrimPointStatus.FAILED;
+      }
+   }
+
+   /**
+    * Trims the lines of the grid on a single thread, with its own aircraft, solver and controls.
+    */
+   private class TrimWorker {
+      private final Aircraft aircraft;
+      private final TrimSolver solver;
+      private final EnumMap<FlightControlType, Double> controls;
+
+      private TrimWorker(AircraftBuilder ab, EnumMap<FlightControlType, Double> initialControls) {
+         this.aircraft = ab.getAircraft();
+         this.solver = new TrimSolver(ab);
+         this.controls = new EnumMap<>(initialControls);
+         solver.setTolerance(tolerance);
+      }
+
+      /**
+       * Trims a line of airspeeds, the lines being numbered by altitude, then weight, then flap position.
+       */
+      private void trimLine(TrimMap map, int line) {
+         double[] airspeeds = map.getAirspeeds();
+         double[] altitudes = map.getAltitudes();
+         double[] weights = map.getWeights();
+         double[] flaps = map.getFlaps();
+         int altitude = line % altitudes.length;
+         int weight = (line / altitudes.length) % weights.length;
+         int flap = line / (altitudes.length * weights.length);
+
+         aircraft.setMassProperty(MassProperties.TOTAL_MASS, weights[weight] / Environment.getGravity());
+         controls.put(FlightControlType.FLAPS, flaps[flap]);
+         solver.reset();
+
+         for (int airspeed = 0; airspeed < airspeeds.length; airspeed++) {
+            try {
+               TrimResult result = solver.trim(new TrimCondition(airspeeds[airspeed], altitudes[altitude]), controls);
+               map.set(airspeed, altitude, weight, flap, classify(result, stallAngle), result);
+            } catch (RuntimeException e) {
+               System.err.println("Unable to trim " + map.getAircraftName() + " at " + airspeeds[airspeed] + " ft/sec, "
+                       + altitudes[altitude] + " ft, " + weights[weight] + " lbf and " + flaps[flap] + " rad of flaps: " + e);
+               solver.reset();
+            }
+         }
+      }
+   }
+}
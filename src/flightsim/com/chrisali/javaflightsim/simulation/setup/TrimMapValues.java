@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ * Provides Enum values to define the trimmed values held at each point of a {@link TrimMap}. The String field is used as the column
+ * header of the CSV export of the map.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum TrimMapValues {
+   /**
+    * Trimmed angle of attack (rad)
+    */
+   ALPHA("alpha"),
+   /**
+    * Trimmed pitch angle (rad)
+    */
+   THETA("theta"),
+   /**
+    * Trimmed elevator deflection (rad)
+    */
+   ELEVATOR("elevator"),
+   /**
+    * Trimmed throttle setting (0 to 1)
+    */
+   THROTTLE("throttle");
+
+   private final String value;
+
+   TrimMapValues(String value) {
+      this.value = value;
+   }
+
+   @Override
+   public String toString() {
+      return value;
+   }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ * The status of a point of a {@link TrimMap}, telling whether the aircraft could be trimmed at this point, and if not, which limit of its
+ * envelope prevented it.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public enum TrimPointStatus {
+   /**
+    * The aircraft is trimmed at an angle of attack below the stall angle
+    */
+   TRIMMED,
+   /**
+    * The angle of attack needed to trim the aircraft is beyond the stall angle
+    */
+   STALL,
+   /**
+    * The aircraft could not be trimmed, even at full throttle
+    */
+   POWER_LIMIT,
+   /**
+    * The aircraft could not be trimmed within the limits of its flight controls, or the trim failed
+    */
+   FAILED;
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import java.util.Map;
+
+/**
+ * Result of the trim of an aircraft by a {@link TrimSolver} for a {@link TrimCondition}: the trimmed states and controls, the largest
+ * remaining residual of the force and moment balance, and the number of iterations and evaluations of the model it took. If the solver
+ * did not converge, the states and controls are the closest to trim it found.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ */
+public class TrimResult {
+   private static final FlightControlType[] THROTTLES = { FlightControlType.THROTTLE_1, FlightControlType.THROTTLE_2,
+      FlightControlType.THROTTLE_3, FlightControlType.THROTTLE_4 };
+
+   private final TrimCondition condition;
+   private final double[] states;
+   private final double alpha;
+   private final double elevator;
+   private final double aileron;
+   private final double rudder;
+   private final double throttle;
+   private final double residual;
+   private final int iterations;
+   private final int evaluations;
+   private final boolean converged;
+
+   TrimResult(TrimCondition condition, double[] states, double alpha, double elevator, double aileron, double rudder, double throttle,
+           double residual, int iterations, int evaluations, boolean converged) {
+      this.condition = condition;
+      this.states = states.clone();
+      this.alpha = alpha;
+      this.elevator = elevator;
+      this.aileron = aileron;
+      this.rudder = rudder;
+      this.throttle = throttle;
+      this.residual = residual;
+      this.iterations = iterations;
+      this.evaluations = evaluations;
+      this.converged = converged;
+   }
+
+   /**
+    * Writes the trimmed states into initial conditions, and the trimmed elevator, aileron, rudder and throttles into initial controls.
+    * The position, latitude and longitude of the initial conditions and the other controls are not modified.
+    *
+    * @param initialConditions the initial conditions to update
+    * @param initialControls the initial controls to update
+    */
+   public void apply(Map<InitialConditions, Double> initialConditions, Map<FlightControlType, Double> initialControls) {
+      initialConditions.put(InitialConditions.INITU, states[0]);
+      initialConditions.put(InitialConditions.INITV, states[1]);
+      initialConditions.put(InitialConditions.INITW, states[2]);
+      initialConditions.put(InitialConditions.INITD, states[5]);
+      initialConditions.put(InitialConditions.INITPHI, states[6]);
+      initialConditions.put(InitialConditions.INITTHETA, states[7]);
+      initialConditions.put(InitialConditions.INITPSI, states[8]);
+      initialConditions.put(InitialConditions.INITP, states[9]);
+      initialConditions.put(InitialConditions.INITQ, states[10]);
+      initialConditions.put(InitialConditions.INITR, states[11]);
+
+      initialControls.put(FlightControlType.ELEVATOR, elevator);
+      initialControls.put(FlightControlType.AILERON, aileron);
+      initialControls.put(FlightControlType.RUDDER, rudder);
+      for (FlightControlType throttleType : THROTTLES) {
+         initialControls.put(throttleType, throttle);
+      }
+   }
+
+   /**
+    * @return the condition the aircraft was trimmed for
+    */
+   public TrimCondition getCondition() {
+      return condition;
+   }
+
+   /**
+    * Returns a trimmed state, indexed as the 6DOF states of {@link com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations}
+    * (u, v, w, N, E, altitude, phi, theta, psi, p, q, r).
+    *
+    * @param index the index of the state
+    * @return the value of the state
+    */
+   public double getState(int index) {
+      return states[index];
+   }
+
+   /**
+    * @return the trimmed angle of attack (rad)
+    */
+   public double getAlpha() {
+      return alpha;
+   }
+
+   /**
+    * @return the trimmed bank angle (rad)
+    */
+   public double getPhi() {
+      return states[6];
+   }
+
+   /**
+    * @return the trimmed pitch angle (rad)
+    */
+   public double getTheta() {
+      return states[7];
+   }
+
+   /**
+    * @return the trimmed elevator deflection (rad)
+    */
+   public double getElevator() {
+      return elevator;
+   }
+
+   /**
+    * @return the trimmed aileron deflection (rad)
+    */
+   public double getAileron() {
+      return aileron;
+   }
+
+   /**
+    * @return the trimmed rudder deflection (rad)
+    */
+   public double getRudder() {
+      return rudder;
+   }
+
+   /**
+    * @return the trimmed throttle of all engines
+    */
+   public double getThrottle() {
+      return throttle;
+   }
+
+   /**
+    * @return the largest remaining residual of the force and moment balance, in g for the linear accelerations and rad/sec^2 for the angular
+    * accelerations
+    */
+   public double getResidual() {
+      return residual;
+   }
+
+   /**
+    * @return the number of iterations of the solver
+    */
+   public int getIterations() {
+      return iterations;
+   }
+
+   /**
+    * @return the number of evaluations of the force and moment model, including those of the Jacobians
+    */
+   public int getEvaluations() {
+      return evaluations;
+   }
+
+   /**
+    * @return true if the force and moment balance was solved within the tolerance of the solver
+    */
+   public boolean isConverged() {
+      return converged;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+
+      sb.append(converged ? "Trimmed" : "Unable to trim").append(" for ").append(condition).append("\n");
+      sb.append("alpha: ").append(Math.toDegrees(alpha)).append(" deg, theta: ").append(Math.toDegrees(states[7]))
+              .append(" deg, phi: ").append(Math.toDegrees(states[6])).append(" deg\n");
+      sb.append(FlightControlType.ELEVATOR).append(": ").append(elevator).append(", ")
+              .append(FlightControlType.AILERON).append(": ").append(aileron).append(", ")
+              .append(FlightControlType.RUDDER).append(": ").append(rudder).append(", throttle: ").append(throttle).append("\n");
+      sb.append("residual: ").append(residual).append(" in ").append(iterations).append(" iterations, ")
+              .append(evaluations).append(" evaluations");
+
+      return sb.toString();
+   }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.enviroment.Atmosphere;
+import java.util.Map;
+
+/**
+ * Trims an aircraft for a {@link TrimCondition} by solving the full nonlinear balance of forces and moments of the 6DOF equations, with
+ * the same force and moment model as {@link com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations}: the derivatives of
+ * u, v, w, p, q and r are driven to 0 by the angle of attack, bank angle, elevator, aileron, rudder and throttle. The pitch angle is given
+ * by the angle of attack, sideslip, bank angle and flight path angle of the condition, and the angular rates by its turn rate.
+ *
+ * <p>
+ * The balance is solved with the Levenberg-Marquardt method. The Jacobian is calculated by finite differences, then updated with the
+ * Broyden rank one update after each successful iteration; it is only recalculated when an updated Jacobian fails to reduce the residuals.
+ * The last solution and Jacobian are kept by the solver and used as the starting point of the next trim, so that trimming the neighbouring
+ * points of a sweep usually takes a few iterations and no new finite differences.</p>
+ *
+ * <p>
+ * A solver does not write or print anything, and does not allocate memory once created, apart from its {@link TrimResult}s. A solver must
+ * not be used concurrently, and the engines of its {@link AircraftBuilder} must not be used by another solver or simulation at the same
+ * time.</p>
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ * see Aircraft Control and Simulation - Stevens, B.L. and Lewis, F.L. (pp 190-6)
+ */
+public class TrimSolver {
+   /**
+    * Default tolerance of the residuals, in g for the linear accelerations and rad/sec^2 for the angular accelerations
+    */
+   public static final double DEFAULT_TOLERANCE = 1e-8;
+   /**
+    * Default maximum number of iterations of a trim
+    */
+   public static final int DEFAULT_MAX_ITERATIONS = 50;
+
+   // Unknowns: angle of attack, bank angle, elevator, aileron, rudder and throttle
+   private static final int UNKNOWNS = 6;
+   private static final double[] INITIAL_GUESS = { 0.05, 0, 0, 0, 0, 0.5 };
+   private static final double[] LOWER_BOUNDS = { -0.35, -1.4, FlightControlType.ELEVATOR.getMinimum(), FlightControlType.AILERON.getMinimum(),
+      FlightControlType.RUDDER.getMinimum(), FlightControlType.THROTTLE_1.getMinimum() };
+   private static final double[] UPPER_BOUNDS = { 0.35, 1.4, FlightControlType.ELEVATOR.getMaximum(), FlightControlType.AILERON.getMaximum(),
+      FlightControlType.RUDDER.getMaximum(), FlightControlType.THROTTLE_1.getMaximum() };
+   private static final double PERTURBATION = 1e-7;
+   private static final double LAMBDA_INITIAL = 1e-3;
+   private static final double LAMBDA_MIN = 1e-12;
+   private static final double LAMBDA_MAX = 1e12;
+   private static final double STALL_DECREASE = 1e-6;
+   private static final int MAX_STALLS = 3;
+   private static final FlightControlType[] THROTTLES = { FlightControlType.THROTTLE_1, FlightControlType.THROTTLE_2,
+      FlightControlType.THROTTLE_3, FlightControlType.THROTTLE_4 };
+
+   private final ForceMomentModel model;
+   private final double gravity;
+
+   // Preallocated buffers of the force and moment model
+   private final double[] y = new double[14];
+   private final double[] yDot = new double[14];
+   private final double[] controlValues = new double[FlightControlType.values().length];
+
+   // Preallocated buffers of the solver
+   private final double[] x = new double[UNKNOWNS];
+   private final double[] xTrial = new double[UNKNOWNS];
+   private final double[] residuals = new double[UNKNOWNS];
+   private final double[] trialResiduals = new double[UNKNOWNS];
+   private final double[][] jacobian = new double[UNKNOWNS][UNKNOWNS];
+   private final double[][] normalMatrix = new double[UNKNOWNS][UNKNOWNS];
+   private final double[] gradient = new double[UNKNOWNS];
+   private final double[] step = new double[UNKNOWNS];
+   private final double[] jacobianStep = new double[UNKNOWNS];
+
+   private double tolerance = DEFAULT_TOLERANCE;
+   private int maxIterations = DEFAULT_MAX_ITERATIONS;
+   private boolean hasJacobian = false;
+   private boolean hasSolution = false;
+   private int evaluations;
+
+   /**
+    * Creates a solver for the aircraft of an aircraft builder.
+    *
+    * @param ab the aircraft builder
+    */
+   public TrimSolver(AircraftBuilder ab) {
+      this.model = new ForceMomentModel(ab);
+      this.gravity = model.getGravity();
+   }
+
+   /**
+    * Sets the tolerance of the residuals, in g for the linear accelerations and rad/sec^2 for the angular accelerations.
+    *
+    * @param tolerance the tolerance
+    */
+   public void setTolerance(double tolerance) {
+      this.tolerance = tolerance;
+   }
+
+   /**
+    * Sets the maximum number of iterations of a trim.
+    *
+    * @param maxIterations the maximum number of iterations
+    */
+   public void setMaxIterations(int maxIterations) {
+      this.maxIterations = maxIterations;
+   }
+
+   /**
+    * @return the atmosphere the aircraft is trimmed in, whose deviation from the standard temperature can be set
+    */
+   public Atmosphere getAtmosphere() {
+      return model.getAtmosphere();
+   }
+
+   /**
+    * Discards the last solution and Jacobian, so that the next trim starts from the default initial guess. Trims started from the same
+    * state give the same results.
+    */
+   public void reset() {
+      hasJacobian = false;
+      hasSolution = false;
+   }
+
+   /**
+    * Trims the aircraft for a condition.
+    *
+    * @param condition the condition
+    * @param controls the controls of the aircraft; the elevator, aileron, rudder and throttles are trimmed, and the others (flaps, gear,
+    * mixture, etc.) are held. The map is not modified
+    * @return the result of the trim
+    */
+   public TrimResult trim(TrimCondition condition, Map<FlightControlType, Double> controls) {
+      FlightControlsUtilities.toArray(controls, controlValues);
+      evaluations = 0;
+
+      if (!hasSolution) {
+         System.arraycopy(INITIAL_GUESS, 0, x, 0, UNKNOWNS);
+         x[1] = bound(1, Math.atan(condition.getAirspeed() * condition.getTurnRate() / gravity));
+      }
+
+      double cost = evaluate(condition, x, residuals);
+      boolean freshJacobian = false;
+      if (!hasJacobian) {
+         calculateJacobian(condition);
+         freshJacobian = true;
+      }
+
+      double lambda = LAMBDA_INITIAL;
+      int iterations = 0;
+      int stalls = 0;
+      boolean converged = maxAbs(residuals) < tolerance;
+
+      while (!converged && iterations < maxIterations) {
+         iterations++;
+
+         // Levenberg-Marquardt step: (JtJ + lambda * diag(JtJ)) dx = -Jt r
+         for (int i = 0; i < UNKNOWNS; i++) {
+            for (int j = 0; j < UNKNOWNS; j++) {
+               double sum = 0;
+               for (int k = 0; k < UNKNOWNS; k++) {
+                  sum += jacobian[k][i] * jacobian[k][j];
+               }
+               normalMatrix[i][j] = sum;
+            }
+            double sum = 0;
+            for (int k = 0; k < UNKNOWNS; k++) {
+               sum += jacobian[k][i] * residuals[k];
+            }
+            gradient[i] = -sum;
+         }
+         for (int i = 0; i < UNKNOWNS; i++) {
+            normalMatrix[i][i] += lambda * Math.max(normalMatrix[i][i], 1e-12);
+         }
+
+         if (!solve(normalMatrix, gradient, step)) {
+            lambda *= 10;
+            if (lambda > LAMBDA_MAX) {
+               break;
+            }
+            continue;
+         }
+
+         double stepSize = 0;
+         for (int i = 0; i < UNKNOWNS; i++) {
+            xTrial[i] = bound(i, x[i] + step[i]);
+            step[i] = xTrial[i] - x[i];
+            stepSize = Math.max(stepSize, Math.abs(step[i]));
+         }
+
+         double trialCost = (stepSize > 0) ? evaluate(condition, xTrial, trialResiduals) : Double.POSITIVE_INFINITY;
+         if (trialCost < cost) {
+            // A condition out of the envelope of the aircraft holds the unknowns at their bounds without reducing the residuals
+            stalls = (cost - trialCost < STALL_DECREASE * cost) ? stalls + 1 : 0;
+            if (stalls == MAX_STALLS) {
+               break;
+            }
+
+            updateJacobian();
+            System.arraycopy(xTrial, 0, x, 0, UNKNOWNS);
+            System.arraycopy(trialResiduals, 0, residuals, 0, UNKNOWNS);
+            cost = trialCost;
+            lambda = Math.max(lambda / 10, LAMBDA_MIN);
+            freshJacobian = false;
+            converged = maxAbs(residuals) < tolerance;
+         } else if (!freshJacobian) {
+            // The updated Jacobian is no longer accurate enough
+            calculateJacobian(condition);
+            freshJacobian = true;
+         } else {
+            lambda *= 10;
+            if (lambda > LAMBDA_MAX) {
+               break;
+            }
+         }
+      }
+
+      hasJacobian = true;
+      hasSolution = converged;
+
+      updateStates(condition, x);
+      return new TrimResult(condition, y, x[0], x[2], x[3], x[4], x[5], maxAbs(residuals), iterations, evaluations, converged);
+   }
+
+   /**
+    * Calculates the Jacobian of the residuals at the current unknowns by forward finite differences.
+    */
+   private void calculateJacobian(TrimCondition condition) {
+      for (int j = 0; j < UNKNOWNS; j++) {
+         System.arraycopy(x, 0, xTrial, 0, UNKNOWNS);
+         double h = (x[j] + PERTURBATION <= UPPER_BOUNDS[j]) ? PERTURBATION : -PERTURBATION;
+         xTrial[j] += h;
+
+         evaluate(condition, xTrial, trialResiduals);
+         for (int i = 0; i < UNKNOWNS; i++) {
+            jacobian[i][j] = (trialResiduals[i] - residuals[i]) / h;
+         }
+      }
+   }
+
+   /**
+    * Broyden rank one update of the Jacobian for the accepted step: J += ((r1 - r0) - J dx) dx^T / (dx^T dx).
+    */
+   private void updateJacobian() {
+      double stepNorm = 0;
+      for (int i = 0; i < UNKNOWNS; i++) {
+         stepNorm += step[i] * step[i];
+      }
+      if (stepNorm == 0) {
+         return;
+      }
+
+      for (int i = 0; i < UNKNOWNS; i++) {
+         double sum = 0;
+         for (int j = 0; j < UNKNOWNS; j++) {
+            sum += jacobian[i][j] * step[j];
+         }
+         jacobianStep[i] = (trialResiduals[i] - residuals[i] - sum) / stepNorm;
+      }
+      for (int i = 0; i < UNKNOWNS; i++) {
+         for (int j = 0; j < UNKNOWNS; j++) {
+            jacobian[i][j] += jacobianStep[i] * step[j];
+         }
+      }
+   }
+
+   /**
+    * Calculates the 6DOF states of the condition for the unknowns.
+    */
+   private void updateStates(TrimCondition condition, double[] unknowns) {
+      double alpha = unknowns[0];
+      double phi = unknowns[1];
+      double beta = condition.getSideslip();
+      double airspeed = condition.getAirspeed();
+      double sinGamma = Math.sin(condition.getFlightPathAngle());
+
+      // Pitch angle satisfying the flight path angle constraint
+      double a = Math.cos(alpha) * Math.cos(beta);
+      double b = Math.sin(phi) * Math.sin(beta) + Math.cos(phi) * Math.sin(alpha) * Math.cos(beta);
+      double theta = Math.atan((a * b + sinGamma * Math.sqrt(a * a - sinGamma * sinGamma + b * b)) / (a * a - sinGamma * sinGamma));
+
+      // Angular rates of a steady turn
+      double turnRate = condition.getTurnRate();
+
+      y[0] = airspeed * Math.cos(alpha) * Math.cos(beta);
+      y[1] = airspeed * Math.sin(beta);
+      y[2] = airspeed * Math.sin(alpha) * Math.cos(beta);
+      y[3] = 0;
+      y[4] = 0;
+      y[5] = condition.getAltitude();
+      y[6] = phi;
+      y[7] = theta;
+      y[8] = condition.getHeading();
+      y[9] = -turnRate * Math.sin(theta);
+      y[10] = turnRate * Math.sin(phi) * Math.cos(theta);
+      y[11] = turnRate * Math.cos(phi) * Math.cos(theta);
+   }
+
+   /**
+    * Evaluates the force and moment model for the unknowns, and writes the derivatives of u, v, w (g) and p, q, r (rad/sec^2) into r.
+    *
+    * @return the sum of the squares of the residuals
+    */
+   private double evaluate(TrimCondition condition, double[] unknowns, double[] r) {
+      evaluations++;
+      updateStates(condition, unknowns);
+
+      controlValues[FlightControlType.ELEVATOR.ordinal()] = unknowns[2];
+      controlValues[FlightControlType.AILERON.ordinal()] = unknowns[3];
+      controlValues[FlightControlType.RUDDER.ordinal()] = unknowns[4];
+      for (FlightControlType throttle : THROTTLES) {
+         controlValues[throttle.ordinal()] = unknowns[5];
+      }
+
+      model.calculateDerivatives(y, controlValues, 0, yDot);
+
+      double cost = 0;
+      for (int i = 0; i < 3; i++) {
+         r[i] = yDot[i] / gravity;
+         r[i + 3] = yDot[i + 9];
+         cost += r[i] * r[i] + r[i + 3] * r[i + 3];
+      }
+      return cost;
+   }
+
+   private static double bound(int index, double value) {
+      return Math.max(LOWER_BOUNDS[index], Math.min(UPPER_BOUNDS[index], value));
+   }
+
+   private static double maxAbs(double[] values) {
+      double max = 0;
+      for (double value : values) {
+         max = Math.max(max, Math.abs(value));
+      }
+      return max;
+   }
+
+   /**
+    * Solves a x = b by Gaussian elimination with partial pivoting. The matrix and b are overwritten.
+    *
+    * @return false if the matrix is singular
+    */
+   private static boolean solve(double[][] a, double[] b, double[] solution) {
+      int n = b.length;
+      for (int column = 0; column < n; column++) {
+         int pivot = column;
+         for (int row = column + 1; row < n; row++) {
+            if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+               pivot = row;
+            }
+         }
+         if (Math.abs(a[pivot][column]) < 1e-300) {
+            return false;
+         }
+         if (pivot != column) {
+            double[] rowValues = a[pivot];
+            a[pivot] = a[column];
+            a[column] = rowValues;
+            double value = b[pivot];
+            b[pivot] = b[column];
+            b[column] = value;
+         }
+
+         for (int row = column + 1; row < n; row++) {
+            double factor = a[row][column] / a[column][column];
+            for (int k = column; k < n; k++) {
+               a[row][k] -= factor * a[column][k];
+            }
+            b[row] -= factor * b[column];
+         }
+      }
+
+      for (int row = n - 1; row >= 0; row--) {
+         double sum = b[row];
+         for (int k = row + 1; k < n; k++) {
+            sum -= a[row][k] * solution[k];
+         }
+         solution[row] = sum / a[row][row];
+      }
+      return true;
+   }
+}
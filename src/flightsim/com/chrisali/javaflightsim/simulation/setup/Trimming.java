@@ -18,27 +18,16 @@ package com.chrisali.javaflightsim.simulation.setup;
 
 import com.chrisali.javaflightsim.conf.Configuration;
 import com.chrisali.javaflightsim.controllers.SimulationController;
-import com.chrisali.javaflightsim.simulation.aero.Aerodynamics;
-import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
-import com.chrisali.javaflightsim.simulation.aero.WingGeometry;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
-import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
 import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
-import com.chrisali.javaflightsim.simulation.enviroment.Environment;
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
-import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.utilities.FileUtilities;
 import java.util.EnumMap;
-import java.util.Map;
-import java.util.Set;
 
 /**
- * Simple rudimentary method of longitudinally trimming an aircraft by statically equating forces and moments.
- * This calculates trim deflections of throttle and elevator needed for level flight. For trim pitch, flight path
- * angle and angle of attack are considered by using the following equation:
- *
- * <p>
- * Angle of Attack = Pitch Angle + Flight Path Angle</p>
+ * Trims an aircraft for the initial conditions of a simulation with a {@link TrimSolver}, which solves the full nonlinear balance
+ * of forces and moments. This calculates the trim deflections of throttle, elevator, aileron and rudder, and the attitude needed for
+ * steady flight.
  *
  * @author Christopher Ali
  * see Principles of Flight Simulation - David Allerton (pp 170-1)
@@ -47,18 +36,16 @@ public class Trimming {
 
    private static EnumMap<InitialConditions, Double> initialConditions;
    private static EnumMap<FlightControlType, Double> initialControls;
-   private static Map<EnvironmentParameters, Double> environmentParams;
    private static Aircraft aircraft;
-   private static Aerodynamics aero;
 
    /**
-    * Trims an aircraft longitudinally for a forward velocity and altitude specified in
+    * Trims an aircraft for steady, wings level flight at the airspeed and altitude specified in
     *
     * <p>
     * ./SimConfig/InitialConditions.txt </p>
     *
-    * by setting the elevator, throttle and pitch attitude. These values are calculated by statically equating forces and moments.
-    * If unable to reach a given trim condition, the method will return the maximum values for each control and pitch attitude.
+    * by setting the elevator, aileron, rudder, throttle and attitude. These values are calculated by solving the balance of forces and moments.
+    * If unable to reach a given trim condition, the method will return the closest values found.
     * These values are then saved to
     *
     * <p>
@@ -74,122 +61,10 @@ public class Trimming {
     */
    public static void trimSim(SimulationController controller, boolean testMode) {
       aircraft = controller.getAircraftBuilder().getAircraft();
-      aero = new Aerodynamics(aircraft);
-
       initialConditions = controller.getInitialConditions();
       initialControls = controller.getControls();
 
-      environmentParams = Environment.getAndUpdateEnvironmentParams(new double[] { 0, 0, initialConditions.get(InitialConditions.INITD) });
-
-      double alphaMin = -0.18, alphaMax = 0.18, throttleMin = 0.0, throttleMax = 1.0,
-         alphaTrim = 0.0, thetaTrim = 0.0, elevTrim = 0.0, throttleTrim = 0.0, wVelocityTrim = 0.0,
-         lift = 0.0, drag = 0.0, totalThrust = 0.0, zForce = 100.0;
-
-      double trueAirspeed = Math.sqrt(Math.pow(initialConditions.get(InitialConditions.INITU), 2)
-         + Math.pow(initialConditions.get(InitialConditions.INITW), 2));
-
-      double weight = aircraft.getMassProperty(MassProperties.TOTAL_MASS) * Environment.getGravity();
-      double q = environmentParams.get(EnvironmentParameters.RHO) * Math.pow(trueAirspeed, 2) / 2;
-      double s = aircraft.getWingGeometry(WingGeometry.S_WING);
-
-      int counter = 0;
-
-      do {
-         alphaTrim = (alphaMin + alphaMax) / 2;
-
-         // Break out of loop if trim condition not satisfied after 100 attempts
-         if (counter == 100) {
-            System.err.println("Unable to trim elevator and pitch for given conditions!");
-            break;
-         }
-
-         //=============================================== Pitch ================================================================
-         // Calculate trim pitch by using (theta = alpha + FPA)
-         thetaTrim = alphaTrim + 0; // Zero for level flight
-
-         double[] windParameters = new double[] { trueAirspeed, 0, alphaTrim };
-
-         double CL_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CL_ALPHA);
-         double CL_0 = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CL_0);
-
-         lift = q * s * ((CL_alpha * alphaTrim) + CL_0);
-
-         double CD_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CD_ALPHA);
-         double CD_0 = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CD_0);
-
-         drag = q * s * ((CD_alpha * alphaTrim) + CD_0);
-
-         // Calculate zForce to find trim alpha to zero forces
-         zForce = (-lift * Math.cos(alphaTrim)) - (drag * Math.sin(alphaTrim)) + (weight * Math.cos(thetaTrim));
-
-         if (zForce > 0) {
-            alphaMin = alphaTrim;
-         } else {
-            alphaMax = alphaTrim;
-         }
-
-         // Recalculate w velocity for new angle of attack
-         wVelocityTrim = windParameters[0] * Math.sin(alphaTrim);
-
-         //==================================================== Elevator ========================================================
-         // Calculate trim elevator, limiting if necessary
-         double CM_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CM_ALPHA);
-         double CM_d_elev = (double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_D_ELEV);
-         double CM_0 = (double) aircraft.getStabilityDerivative(StabilityDerivatives.CM_0);
-
-         elevTrim = (CM_0 + (CM_alpha * alphaTrim)) / CM_d_elev;
-         elevTrim = elevTrim > FlightControlType.ELEVATOR.getMaximum() ? FlightControlType.ELEVATOR.getMaximum()
-            : elevTrim < FlightControlType.ELEVATOR.getMinimum() ? FlightControlType.ELEVATOR.getMinimum() : elevTrim;
-
-         counter++;
-
-      } while (Math.abs(zForce) > 1);
-
-      //==================================================== Throttle ============================================================
-      Set<Engine> engines = controller.getAircraftBuilder().getEngineList();
-
-      drag = (drag * Math.cos(alphaTrim)) - (lift * Math.sin(alphaTrim)) + (weight * Math.sin(thetaTrim));
-
-      counter = 0;
-
-      do {
-         throttleTrim = (throttleMin + throttleMax) / 2;
-
-         // Break out of loop if trim condition not satisfied after 100 attempts
-         if (counter == 100) {
-            System.err.println("Unable to trim throttle for given conditions!");
-            break;
-         }
-
-         initialControls.put(FlightControlType.THROTTLE_1, throttleTrim);
-         initialControls.put(FlightControlType.THROTTLE_2, throttleTrim);
-         initialControls.put(FlightControlType.THROTTLE_3, throttleTrim);
-         initialControls.put(FlightControlType.THROTTLE_4, throttleTrim);
-
-         // Get total thrust, equate it with drag of aircraft to find trim throttle
-         totalThrust = 0.0;
-         for (Engine engine : engines) {
-            engine.updateEngineState(initialControls, environmentParams, new double[] { trueAirspeed, 0, 0 });
-            totalThrust += engine.getThrust()[0];
-         }
-
-         if (totalThrust < drag) {
-            throttleMin = throttleTrim;
-         } else {
-            throttleMax = throttleTrim;
-         }
-
-         counter++;
-
-      } while (Math.abs(totalThrust - drag) > 1);
-
-      // Update initialControls and initialConditions
-      initialConditions.put(InitialConditions.INITTHETA, thetaTrim);
-      initialConditions.put(InitialConditions.INITW, wVelocityTrim);
-
-      initialControls.put(FlightControlType.ELEVATOR, -elevTrim);
-      initialControls.put(FlightControlType.AILERON, 0.0);
-      initialControls.put(FlightControlType.RUDDER, 0.0);
+      trimSim(controller.getAircraftBuilder(), initialConditions, initialControls);
 
       // In test mode do not write any config settings to files
       if (!testMode) {
@@ -203,6 +78,53 @@ public class Trimming {
       }
    }
 
+   /**
+    * Trims an aircraft for steady, wings level flight at the airspeed, altitude and heading of the initial conditions argument with a
+    * {@link TrimSolver}, and updates the velocities, attitude and angular rates of the initial conditions and the elevator, aileron, rudder
+    * and throttle positions of the initial controls with the trim values. If unable to reach the trim condition, the closest values found
+    * are used, and a message is printed on the error stream. Unlike {@link Trimming#trimSim(SimulationController, boolean)}, this method
+    * neither writes nor prints the trim values, and can be called concurrently for different aircraft builders, initial conditions and
+    * initial controls.
+    *
+    * @param ab the aircraft builder
+    * @param initialConditions the initial conditions to trim
+    * @param initialControls the initial controls to trim
+    */
+   public static void trimSim(AircraftBuilder ab, EnumMap<InitialConditions, Double> initialConditions,
+           EnumMap<FlightControlType, Double> initialControls) {
+      double trueAirspeed = Math.sqrt(Math.pow(initialConditions.get(InitialConditions.INITU), 2)
+         + Math.pow(initialConditions.get(InitialConditions.INITV), 2)
+         + Math.pow(initialConditions.get(InitialConditions.INITW), 2));
+
+      TrimCondition condition = new TrimCondition(trueAirspeed, initialConditions.get(InitialConditions.INITD));
+      condition.setHeading(initialConditions.get(InitialConditions.INITPSI));
+
+      TrimResult result = trim(ab, condition, initialConditions, initialControls);
+      if (!result.isConverged()) {
+         System.err.println("Unable to trim " + ab.getAircraft().getName() + " for " + condition + "! Using the closest values found.");
+      }
+   }
+
+   /**
+    * Trims an aircraft for a {@link TrimCondition} with a new {@link TrimSolver}, and updates the initial conditions and initial controls
+    * with the trim values. If unable to reach the trim condition, the closest values found are used. The position of the initial conditions
+    * is not modified, apart from the altitude which is set to the altitude of the condition. This method neither writes nor prints the trim
+    * values, and does not report a failure to reach the condition: the caller checks {@link TrimResult#isConverged()}. To trim many
+    * conditions, use a {@link TrimSolver} directly.
+    *
+    * @param ab the aircraft builder
+    * @param condition the trim condition
+    * @param initialConditions the initial conditions to trim
+    * @param initialControls the initial controls to trim
+    * @return the result of the trim
+    */
+   public static TrimResult trim(AircraftBuilder ab, TrimCondition condition, EnumMap<InitialConditions, Double> initialConditions,
+           EnumMap<FlightControlType, Double> initialControls) {
+      TrimResult result = new TrimSolver(ab).trim(condition, initialControls);
+      result.apply(initialConditions, initialControls);
+      return result;
+   }
+
    public static String outputTrimValues() {
       StringBuilder sb = new StringBuilder();
 
@@ -19,7 +19,9 @@ package com.chrisali.javaflightsim.utilities;
 import com.chrisali.javaflightsim.conf.AudioOptions;
 import com.chrisali.javaflightsim.conf.Configuration;
 import com.chrisali.javaflightsim.conf.DisplayOptions;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftPackage;
 import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.integration.FlightLog;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import com.chrisali.javaflightsim.simulation.setup.Options;
 import java.io.BufferedReader;
@@ -32,7 +34,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -177,26 +178,17 @@ public class FileUtilities {
    }
 
    /**
-    * Parses the MassProperties.txt file in .\Aircraft\aircraftName and returns an EnumMap with {@link MassProperties}
-    * as the keys.
+    * Returns the mass properties read from the MassProperties.txt file in .\Aircraft\aircraftName as an EnumMap with {@link MassProperties}
+    * as the keys. The file is only parsed if the {@link AircraftPackage} of the aircraft is missing or out of date.
     *
     * @param aircraftName
     * @return massProperties EnumMap
     */
    public static EnumMap<MassProperties, Double> parseMassProperties(String aircraftName) {
-      EnumMap<MassProperties, Double> massProperties = new EnumMap<>(MassProperties.class);
-
-      // Mass Properties
-      Configuration conf = Configuration.getInstance();
-      ArrayList<String[]> readMassPropFile = readFileAndSplit(conf.getAircraftMassProperties());
+      EnumMap<MassProperties, Double> massProperties = new EnumMap<>(AircraftPackage.load(aircraftName).getMassProperties());
 
-      for (MassProperties massPropKey : MassProperties.values()) {
-         for (String[] readLine : readMassPropFile) {
-            if (massPropKey.toString().equals(readLine[0])) {
-               massProperties.put(massPropKey, Double.parseDouble(readLine[1]));
-            }
-         }
-      }
+      // The total mass is computed by the aircraft, and is not one of the values of the file
+      massProperties.remove(MassProperties.TOTAL_MASS);
 
       return massProperties;
    }
@@ -272,13 +264,13 @@ public class FileUtilities {
    }
 
    /**
-    * Writes a CSV file from data contained within the logsOut ArrayList.
+    * Writes a CSV file from data contained within the logsOut {@link FlightLog}, read through a view of its rows.
     *
     * @param file the file
     * @param logsOut the logsOut
     * @throws IOException
     */
-   public static void saveToCSVFile(File file, List<Map<SimOuts, Double>> logsOut) throws IOException {
+   public static void saveToCSVFile(File file, FlightLog logsOut) throws IOException {
       BufferedWriter bw = new BufferedWriter(new FileWriter(file.getPath()));
 
       // First line of CSV file should have the names of each parameter
@@ -289,10 +281,13 @@ public class FileUtilities {
       bw.write(sb_line1.append("\n").toString());
 
       // Subsequent lines contain data
-      for (Map<SimOuts, Double> simOut : logsOut) {
-         StringBuilder sb = new StringBuilder();
-         for (Map.Entry<?, Double> entry : simOut.entrySet()) {
-            sb.append(entry.getValue().toString()).append(",");
+      SimOuts[] simOuts = SimOuts.values();
+      FlightLog.View view = logsOut.view();
+      StringBuilder sb = new StringBuilder();
+      for (int row = 0; row < view.size(); row++) {
+         sb.setLength(0);
+         for (SimOuts simOut : simOuts) {
+            sb.append(view.get(row, simOut)).append(",");
          }
          bw.write(sb.append("\n").toString());
       }
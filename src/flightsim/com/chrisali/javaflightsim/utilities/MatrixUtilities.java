@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+   Copyright (c) 2017 Herve Girod. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.utilities;
+
+/**
+ * This class contains methods of linear algebra on dense matrices held as double[row][column] arrays, used to analyse the linear models
+ * of an aircraft.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ * @since 0.5
+ * see Source: <i>Numerical Recipes in C - Press, W.H., Teukolsky, S.A., Vetterling, W.T. and Flannery, B.P. (pp 482-95)</i>
+ */
+public class MatrixUtilities {
+   private static final double RADIX = 2.0;
+   private static final int MAX_ITERATIONS = 30;
+
+   private MatrixUtilities() {
+   }
+
+   /**
+    * Calculates the eigenvalues of a real square matrix, by balancing it, reducing it to the upper Hessenberg form, and applying the
+    * shifted QR algorithm. Complex eigenvalues are returned as consecutive conjugate pairs. The matrix is not modified.
+    *
+    * @param matrix the matrix
+    * @param real the array to fill with the real parts of the eigenvalues
+    * @param imaginary the array to fill with the imaginary parts of the eigenvalues
+    * @return false if the QR algorithm did not converge, in which case the eigenvalues are NaN
+    */
+   public static boolean eigenvalues(double[][] matrix, double[] real, double[] imaginary) {
+      int n = matrix.length;
+
+      // Works on a 1-based copy of the matrix, so that the algorithms read as in the source
+      double[][] a = new double[n + 1][n + 1];
+      for (int i = 0; i < n; i++) {
+         System.arraycopy(matrix[i], 0, a[i + 1], 1, n);
+      }
+      double[] wr = new double[n + 1];
+      double[] wi = new double[n + 1];
+
+      balance(a, n);
+      reduceToHessenberg(a, n);
+      boolean converged = hessenbergEigenvalues(a, n, wr, wi);
+
+      for (int i = 0; i < n; i++) {
+         real[i] = converged ? wr[i + 1] : Double.NaN;
+         imaginary[i] = converged ? wi[i + 1] : Double.NaN;
+      }
+      return converged;
+   }
+
+   /**
+    * Balances a matrix by similarity transformations, so that its rows and columns have comparable norms, which reduces the rounding
+    * errors of its eigenvalues.
+    */
+   private static void balance(double[][] a, int n) {
+      double sqrRadix = RADIX * RADIX;
+      boolean done = false;
+
+      while (!done) {
+         done = true;
+         for (int i = 1; i <= n; i++) {
+            double r = 0;
+            double c = 0;
+            for (int j = 1; j <= n; j++) {
+               if (j != i) {
+                  c += Math.abs(a[j][i]);
+                  r += Math.abs(a[i][j]);
+               }
+            }
+            if (c != 0 && r != 0) {
+               double g = r / RADIX;
+               double f = 1;
+               double s = c + r;
+               while (c < g) {
+                  f *= RADIX;
+                  c *= sqrRadix;
+               }
+               g = r * RADIX;
+               while (c > g) {
+                  f /= RADIX;
+                  c /= sqrRadix;
+               }
+               if ((c + r) / f < 0.95 * s) {
+                  done = false;
+                  g = 1 / f;
+                  for (int j = 1; j <= n; j++) {
+                     a[i][j] *= g;
+                  }
+                  for (int j = 1; j <= n; j++) {
+                     a[j][i] *= f;
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Reduces a matrix to the upper Hessenberg form by elimination with pivoting. The elements below the subdiagonal are set to 0.
+    */
+   private static void reduceToHessenberg(double[][] a, int n) {
+      for (int m = 2; m < n; m++) {
+         double x = 0;
+         int i = m;
+         for (int j = m; j <= n; j++) {
+            if (Math.abs(a[j][m - 1]) > Math.abs(x)) {
+               x = a[j][m - 1];
+               i = j;
+            }
+         }
+         if (i != m) {
+            for (int j = m - 1; j <= n; j++) {
+               double value = a[i][j];
+               a[i][j] = a[m][j];
+               a[m][j] = value;
+            }
+            for (int j = 1; j <= n; j++) {
+               double value = a[j][i];
+               a[j][i] = a[j][m];
+               a[j][m] = value;
+            }
+         }
+         if (x != 0) {
+            for (i = m + 1; i <= n; i++) {
+               double y = a[i][m - 1];
+               if (y != 0) {
+                  y /= x;
+                  a[i][m - 1] = y;
+                  for (int j = m; j <= n; j++) {
+                     a[i][j] -= y * a[m][j];
+                  }
+                  for (int j = 1; j <= n; j++) {
+                     a[j][m] += y * a[j][i];
+                  }
+               }
+            }
+         }
+      }
+
+      for (int i = 3; i <= n; i++) {
+         for (int j = 1; j <= i - 2; j++) {
+            a[i][j] = 0;
+         }
+      }
+   }
+
+   /**
+    * Calculates the eigenvalues of an upper Hessenberg matrix with the shifted QR algorithm. The matrix is destroyed.
+    *
+    * @return false if an eigenvalue did not converge within {@link MatrixUtilities#MAX_ITERATIONS} iterations
+    */
+   private static boolean hessenbergEigenvalues(double[][] a, int n, double[] wr, double[] wi) {
+      double anorm = 0;
+      for (int i = 1; i <= n; i++) {
+         for (int j = Math.max(i - 1, 1); j <= n; j++) {
+            anorm += Math.abs(a[i][j]);
+         }
+      }
+
+      int nn = n;
+      double t = 0;
+      double p = 0, q = 0, r = 0, s, w, x, y, z;
+      while (nn >= 1) {
+         int its = 0;
+         int l;
+         do {
+            for (l = nn; l >= 2; l--) {
+               s = Math.abs(a[l - 1][l - 1]) + Math.abs(a[l][l]);
+               if (s == 0) {
+                  s = anorm;
+               }
+               if (Math.abs(a[l][l - 1]) + s == s) {
+                  a[l][l - 1] = 0;
+                  break;
+               }
+            }
+            x = a[nn][nn];
+            if (l == nn) {
+               // One root found
+               wr[nn] = x + t;
+               wi[nn] = 0;
+               nn--;
+            } else {
+               y = a[nn - 1][nn - 1];
+               w = a[nn][nn - 1] * a[nn - 1][nn];
+               if (l == nn - 1) {
+                  // Two roots found
+                  p = 0.5 * (y - x);
+                  q = p * p + w;
+                  z = Math.sqrt(Math.abs(q));
+                  x += t;
+                  if (q >= 0) {
+                     z = p + Math.copySign(z, p);
+                     wr[nn - 1] = wr[nn] = x + z;
+                     if (z != 0) {
+                        wr[nn] = x - w / z;
+                     }
+                     wi[nn - 1] = wi[nn] = 0;
+                  } else {
+                     wr[nn - 1] = wr[nn] = x + p;
+                     wi[nn - 1] = z;
+                     wi[nn] = -z;
+                  }
+                  nn -= 2;
+               } else {
+                  if (its == MAX_ITERATIONS) {
+                     return false;
+                  }
+                  if (its == 10 || its == 20) {
+                     // Exceptional shift
+                     t += x;
+                     for (int i = 1; i <= nn; i++) {
+                        a[i][i] -= x;
+                     }
+                     s = Math.abs(a[nn][nn - 1]) + Math.abs(a[nn - 1][nn - 2]);
+                     y = x = 0.75 * s;
+                     w = -0.4375 * s * s;
+                  }
+                  its++;
+
+                  // Looks for two consecutive small subdiagonal elements
+                  int m;
+                  for (m = nn - 2; m >= l; m--) {
+                     z = a[m][m];
+                     r = x - z;
+                     s = y - z;
+                     p = (r * s - w) / a[m + 1][m] + a[m][m + 1];
+                     q = a[m + 1][m + 1] - z - r - s;
+                     r = a[m + 2][m + 1];
+                     s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                     p /= s;
+                     q /= s;
+                     r /= s;
+                     if (m == l) {
+                        break;
+                     }
+                     double u = Math.abs(a[m][m - 1]) * (Math.abs(q) + Math.abs(r));
+                     double v = Math.abs(p) * (Math.abs(a[m - 1][m - 1]) + Math.abs(z) + Math.abs(a[m + 1][m + 1]));
+                     if (u + v == v) {
+                        break;
+                     }
+                  }
+                  for (int i = m + 2; i <= nn; i++) {
+                     a[i][i - 2] = 0;
+                     if (i != m + 2) {
+                        a[i][i - 3] = 0;
+                     }
+                  }
+
+                  // Double QR step on rows l to nn and columns m to nn
+                  for (int k = m; k <= nn - 1; k++) {
+                     if (k != m) {
+                        p = a[k][k - 1];
+                        q = a[k + 1][k - 1];
+                        r = 0;
+                        if (k != nn - 1) {
+                           r = a[k + 2][k - 1];
+                        }
+                        x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                        if (x != 0) {
+                           p /= x;
+                           q /= x;
+                           r /= x;
+                        }
+                     }
+                     s = Math.copySign(Math.sqrt(p * p + q * q + r * r), p);
+                     if (s != 0) {
+                        if (k == m) {
+                           if (l != m) {
+                              a[k][k - 1] = -a[k][k - 1];
+                           }
+                        } else {
+                           a[k][k - 1] = -s * x;
+                        }
+                        p += s;
+                        x = p / s;
+                        y = q / s;
+                        z = r / s;
+                        q /= p;
+                        r /= p;
+                        for (int j = k; j <= nn; j++) {
+                           p = a[k][j] + q * a[k + 1][j];
+                           if (k != nn - 1) {
+                              p += r * a[k + 2][j];
+                              a[k + 2][j] -= p * z;
+                           }
+                           a[k + 1][j] -= p * y;
+                           a[k][j] -= p * x;
+                        }
+                        int mmin = (nn < k + 3) ? nn : k + 3;
+                        for (int i = l; i <= mmin; i++) {
+                           p = x * a[i][k] + y * a[i][k + 1];
+                           if (k != nn - 1) {
+                              p += z * a[i][k + 2];
+                              a[i][k + 2] -= p * r;
+                           }
+                           a[i][k + 1] -= p * q;
+                           a[i][k] -= p;
+                        }
+                     }
+                  }
+               }
+            }
+         } while (l < nn - 1);
+      }
+      return true;
+   }
+}
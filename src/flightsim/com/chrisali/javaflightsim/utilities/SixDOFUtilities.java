@@ -18,6 +18,7 @@ package com.chrisali.javaflightsim.utilities;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
 import com.chrisali.javaflightsim.simulation.integration.SaturationLimits;
 import java.util.Map;
 
@@ -35,8 +36,18 @@ public class SixDOFUtilities {
     * see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
     */
    public static double[][] body2Ned(double[] eulerAngles) {
-      double body2NedDCM[][] = new double[3][3]; //[column][row]
+      return body2Ned(eulerAngles, new double[3][3]);
+   }
 
+   /**
+    * Calculates the direction cosine matrix needed to convert from body to NED coordinate axes, and writes it
+    * into a caller-supplied [column][row] matrix, to avoid allocating a new matrix on each step of integration.
+    *
+    * @param eulerAngles the euler angles
+    * @param body2NedDCM the 3x3 matrix to fill
+    * @return body2NedDCM
+    */
+   public static double[][] body2Ned(double[] eulerAngles, double[][] body2NedDCM) {
       body2NedDCM[0][0] = Math.cos(eulerAngles[1]) * Math.cos(eulerAngles[2]);
       body2NedDCM[1][0] = Math.cos(eulerAngles[1]) * Math.sin(eulerAngles[2]);
       body2NedDCM[2][0] = -Math.sin(eulerAngles[1]);
@@ -59,8 +70,18 @@ public class SixDOFUtilities {
     * see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
     */
    public static double[] calculateInertiaCoeffs(double[] inertiaVals) { //inertiaVals[]{Ix,Iy,Iz,Ixz}
-      double[] inertiaCoeffs = new double[9];
+      return calculateInertiaCoeffs(inertiaVals, new double[9]);
+   }
 
+   /**
+    * Calculates the inertia coefficients used in the calculation of p, q and r dot in {@link Integrate6DOFEquations},
+    * and writes them into a caller-supplied array.
+    *
+    * @param inertiaVals the array of {Ix, Iy, Iz, Ixz}
+    * @param inertiaCoeffs the array of 9 coefficients to fill
+    * @return inertiaCoeffs
+    */
+   public static double[] calculateInertiaCoeffs(double[] inertiaVals, double[] inertiaCoeffs) {
       double gamma = (inertiaVals[0] * inertiaVals[2]) - (Math.pow(inertiaVals[3], 2));
 
       inertiaCoeffs[0] = (((inertiaVals[1] - inertiaVals[2]) * inertiaVals[2]) - (Math.pow(inertiaVals[3], 2))) / gamma;
@@ -82,8 +103,18 @@ public class SixDOFUtilities {
     * see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
     */
    public static double[][] wind2Body(double[] windParameters) {
-      double wind2BodyDCM[][] = new double[3][3]; //[row][column]
+      return wind2Body(windParameters, new double[3][3]);
+   }
 
+   /**
+    * Calculates the direction cosine matrix needed to convert from wind to body coordinate axes, and writes it
+    * into a caller-supplied [row][column] matrix.
+    *
+    * @param windParameters the wind parameters
+    * @param wind2BodyDCM the 3x3 matrix to fill
+    * @return wind2BodyDCM
+    */
+   public static double[][] wind2Body(double[] windParameters, double[][] wind2BodyDCM) {
       wind2BodyDCM[0][0] = Math.cos(windParameters[1]) * Math.cos(windParameters[2]);
       wind2BodyDCM[1][0] = Math.sin(windParameters[1]);
       wind2BodyDCM[2][0] = Math.cos(windParameters[1]) * Math.sin(windParameters[2]);
@@ -104,8 +135,18 @@ public class SixDOFUtilities {
     * see Source: <i>G. Cai et al., Unmanned Rotorcraft Systems</i>
     */
    public static double[] ned2LLA(double[] y) {
-      double[] ned2LLA = new double[2]; // Conversion factors for latitude (lambda), longitude (phi) and altitude (h)
+      return ned2LLA(y, new double[2]);
+   }
 
+   /**
+    * Calculates the conversion factors needed to convert between lat/lon dot and N/E dot, and writes them
+    * into a caller-supplied array.
+    *
+    * @param y the 6DOF states
+    * @param ned2LLA the array of conversion factors for latitude (lambda), longitude (phi) to fill
+    * @return ned2LLA
+    */
+   public static double[] ned2LLA(double[] y, double[] ned2LLA) {
       // WGS84 Parameters
       double rEarth = 6378137; // Earth's radius [m]
       double e = 0.08181919; // Earth's eccentricity (e)
@@ -127,11 +168,25 @@ public class SixDOFUtilities {
     * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
     */
    public static double[] calculateWindParameters(double[] linearVelocities) {
-      double vTrue = Math.sqrt(Math.pow(linearVelocities[0], 2) + Math.pow(linearVelocities[1], 2) + Math.pow(linearVelocities[2], 2));
-      double beta = Math.asin(linearVelocities[1] / vTrue);
-      double alpha = Math.atan(linearVelocities[2] / linearVelocities[0]);
+      return calculateWindParameters(linearVelocities, new double[3]);
+   }
 
-      return SaturationLimits.limitWindParameters(new double[]{ vTrue, beta, alpha });
+   /**
+    * Calculates true airspeed, angle of sideslip and angle of attack, and writes them into a caller-supplied array.
+    * Updating the array in place keeps any other reference to it (such as {@link IntegrateGroundReaction}) up to date
+    *
+    * @param linearVelocities the linear velocities
+    * @param windParameters the array of {vTrue, beta, alpha} to fill
+    * @return windParameters
+    */
+   public static double[] calculateWindParameters(double[] linearVelocities, double[] windParameters) {
+      double vTrue = Math.sqrt(linearVelocities[0] * linearVelocities[0] + linearVelocities[1] * linearVelocities[1] + linearVelocities[2] * linearVelocities[2]);
+
+      windParameters[0] = vTrue;
+      windParameters[1] = Math.asin(linearVelocities[1] / vTrue);
+      windParameters[2] = Math.atan(linearVelocities[2] / linearVelocities[0]);
+
+      return SaturationLimits.limitWindParameters(windParameters);
    }
 
    /**
@@ -153,4 +208,42 @@ public class SixDOFUtilities {
       return windParameters[0] / environmentParameters.get(EnvironmentParameters.A);
    }
 
+   /**
+    * Calculates Mach number from an array of environment parameters indexed by {@link EnvironmentParameters#ordinal()}
+    *
+    * @param windParameters the wind parameters
+    * @param environmentParameters the environment parameters
+    * @return the Mach number
+    */
+   public static double calculateMach(double[] windParameters, double[] environmentParameters) {
+      return windParameters[0] / environmentParameters[EnvironmentParameters.A.ordinal()];
+   }
+
+   /**
+    * Calculates the derivatives of the body velocities (u, v, w) and angular rates (p, q, r) of the 6DOF states, for the gravity, linear
+    * accelerations and total moments experienced by the aircraft, and writes them into yDot[0..2] and yDot[9..11]. The other derivatives are
+    * not modified. Used by {@link Integrate6DOFEquations} and by the trim of the aircraft, so that both solve the same equations
+    *
+    * @param y the 6DOF states
+    * @param gravity the gravity (ft/sec^2)
+    * @param linearAccelerations the linear accelerations (ft/sec^2)
+    * @param totalMoments the total moments (lb ft)
+    * @param inertiaCoeffs the inertia coefficients of {@link SixDOFUtilities#calculateInertiaCoeffs(double[], double[])}
+    * @param yDot the array of derivatives to fill
+    * @return yDot
+    * @see <i>Source Small Unmanned Aircraft: Theory and Practice by Beard, R.W. and McLain, T.W.</i>
+    */
+   public static double[] calculateBodyDerivatives(double[] y, double gravity, double[] linearAccelerations, double[] totalMoments,
+           double[] inertiaCoeffs, double[] yDot) {
+      yDot[0] = (y[11] * y[1]) - (y[10] * y[2]) - (gravity * Math.sin(y[7])) + linearAccelerations[0];    // u (ft/sec)
+      yDot[1] = (y[9] * y[2]) - (y[11] * y[0]) + (gravity * Math.sin(y[6]) * Math.cos(y[7])) + linearAccelerations[1];    // v (ft/sec)
+      yDot[2] = (y[10] * y[0]) - (y[9] * y[1]) + (gravity * Math.cos(y[6]) * Math.cos(y[7])) + linearAccelerations[2];    // w (ft/sec)
+
+      yDot[9] = ((inertiaCoeffs[1] * y[9] * y[10]) - (inertiaCoeffs[0] * y[10]) * y[11]) + (inertiaCoeffs[2] * totalMoments[0]) + (inertiaCoeffs[3] * totalMoments[2]);     // p (rad/sec)
+      yDot[10] = (inertiaCoeffs[4] * y[9] * y[11]) - (inertiaCoeffs[5] * ((y[9] * y[9]) - (y[11] * y[11]))) + (inertiaCoeffs[6] * totalMoments[1]);     // q (rad/sec)
+      yDot[11] = ((inertiaCoeffs[7] * y[9] * y[10]) - (inertiaCoeffs[1] * y[10] * y[11])) + (inertiaCoeffs[3] * totalMoments[0]) + (inertiaCoeffs[8] * totalMoments[2]);     // r (rad/sec)
+
+      return yDot;
+   }
+
 }
@@ -18,7 +18,6 @@ package com.chrisali.javaflightsim.launcher.consoletable;
 
 import com.chrisali.javaflightsim.controllers.SimulationController;
 import com.chrisali.javaflightsim.launcher.menus.MainFrame;
-import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
@@ -69,7 +68,7 @@ public class ConsoleTablePanel extends JFrame {
 
          @Override
          protected Void doInBackground() throws Exception {
-            while (Integrate6DOFEquations.isRunning()) {
+            while (simController.getSimulation().isRunning()) {
                consoleTableModel.fireTableDataChanged();
                Thread.sleep(50);
             }
@@ -17,9 +17,10 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
 package com.chrisali.javaflightsim.launcher.menus;
 
 import com.chrisali.javaflightsim.conf.AudioOptions;
+import com.chrisali.javaflightsim.conf.Configuration;
 import com.chrisali.javaflightsim.conf.DisplayOptions;
 import com.chrisali.javaflightsim.controllers.SimulationController;
-import com.chrisali.javaflightsim.controls.FlightControls;
+import com.chrisali.javaflightsim.controls.PhysicalFlightControls;
 import com.chrisali.javaflightsim.datatransfer.FlightData;
 import com.chrisali.javaflightsim.datatransfer.FlightDataListener;
 import com.chrisali.javaflightsim.gui.ClosePanelListener;
@@ -39,6 +40,7 @@ import com.chrisali.javaflightsim.rendering.RunWorld;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
 import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimMap;
 import com.chrisali.javaflightsim.utilities.FileUtilities;
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
@@ -106,6 +108,7 @@ public class MainFrame extends JFrame implements GUIManager {
          public void aircraftConfigured(String aircraftName) {
             buttonPanel.setAircraftLabel(aircraftName);
             simulationController.updateAircraft(aircraftName);
+            initialConditionsPanel.setTrimMap(TrimMap.readFromAircraft(Configuration.getInstance().getAircraftConfig(aircraftName)));
 
             setSize(dims);
             cardPanel.setVisible(false);
@@ -153,6 +156,7 @@ public class MainFrame extends JFrame implements GUIManager {
       //-------------------- Initial Conditions Panel --------------------------------------------
       initialConditionsPanel = new InitialConditionsPanel();
       initialConditionsPanel.setInitialConditionsPanel(controller.getInitialConditions());
+      initialConditionsPanel.setTrimMap(TrimMap.readFromAircraft(Configuration.getInstance().getAircraftConfig()));
       initialConditionsPanel.setInitialConditionsConfigurationListener(new InitialConditionsConfigurationListener() {
          @Override
          public void initialConditionsConfigured(double[] coordinates, double heading, double altitude, double airspeed) {
@@ -235,11 +239,9 @@ public class MainFrame extends JFrame implements GUIManager {
    }
 
    private void startSimulation() {
-      FlightControls flightControls = new FlightControls(simulationController);
-      simulationController.setFlightControls(flightControls.getFlightControls());
-      Thread flightControlsThread = new Thread(flightControls);
+      PhysicalFlightControls flightControls = new PhysicalFlightControls(simulationController);
+      simulationController.setPhysicalFlightControls(flightControls);
       simulationController.startSimulation();
-      flightControlsThread.start();
       EnumSet<Options> simulationOptions = simulationController.getSimulationOptions();
       if (simulationOptions.contains(Options.CONSOLE_DISPLAY)) {
          initializeConsole();
@@ -338,7 +340,7 @@ public class MainFrame extends JFrame implements GUIManager {
 
    @Override
    public void addFlightDataListeners(FlightData flightData) {
-      flightData.addFlightDataListener(getInstruments());
+      flightData.addFlightDataListener(getInstruments(), Instruments.REFRESH_RATE);
    }
 
    /**
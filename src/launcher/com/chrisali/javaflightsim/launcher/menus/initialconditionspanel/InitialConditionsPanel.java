@@ -18,6 +18,8 @@ package com.chrisali.javaflightsim.launcher.menus.initialconditionspanel;
 
 import com.chrisali.javaflightsim.launcher.menus.CancelButtonListener;
 import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.TrimMap;
+import com.chrisali.javaflightsim.simulation.setup.TrimMapValues;
 import com.chrisali.javaflightsim.utilities.FileUtilities;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -57,6 +59,10 @@ public class InitialConditionsPanel extends JPanel {
    private SpinnerNumberModel altitudeSpinnerModel;
    private JSpinner airspeedSpinner;
    private SpinnerNumberModel airspeedSpinnerModel;
+   private JLabel trimLabel;
+
+   private TrimMap trimMap;
+   private final double[] trimValues = new double[TrimMapValues.values().length];
 
    private JButton okButton;
    private JButton cancelButton;
@@ -204,19 +210,43 @@ public class InitialConditionsPanel extends JPanel {
 
       //----------------- Airspeed Spinner ----------------------
       gc.gridy++;
-      gc.weighty = 1.0;
 
       gc.gridx = 0;
-      gc.anchor = GridBagConstraints.FIRST_LINE_END;
+      gc.anchor = GridBagConstraints.LINE_END;
       controlsPanel.add(new JLabel("True Airspeed:"), gc);
 
       gc.gridx = 1;
-      gc.anchor = GridBagConstraints.FIRST_LINE_START;
+      gc.anchor = GridBagConstraints.LINE_START;
       airspeedSpinnerModel = new SpinnerNumberModel(115.0, 0.0, 300.0, 1.0);
       airspeedSpinner = new JSpinner(airspeedSpinnerModel);
       airspeedSpinner.setPreferredSize(componentSize);
       controlsPanel.add(airspeedSpinner, gc);
 
+      //----------------- Trim Label ----------------------------
+      gc.gridy++;
+      gc.weighty = 1.0;
+
+      gc.gridx = 0;
+      gc.anchor = GridBagConstraints.FIRST_LINE_END;
+      controlsPanel.add(new JLabel("Trim:"), gc);
+
+      gc.gridx = 1;
+      gc.gridwidth = 2;
+      gc.anchor = GridBagConstraints.FIRST_LINE_START;
+      trimLabel = new JLabel();
+      controlsPanel.add(trimLabel, gc);
+      gc.gridwidth = 1;
+
+      ChangeListener trimListener = new ChangeListener() {
+         @Override
+         public void stateChanged(ChangeEvent e) {
+            updateTrimLabel();
+         }
+      };
+      altitudeSpinner.addChangeListener(trimListener);
+      airspeedSpinner.addChangeListener(trimListener);
+      updateTrimLabel();
+
       //----------------- OK Button ----------------------------
       okButton = new JButton("OK");
       okButton.addActionListener(new ActionListener() {
@@ -255,6 +285,29 @@ public class InitialConditionsPanel extends JPanel {
       altitudeSpinnerModel.setValue(initialConditions.get(InitialConditions.INITD));
    }
 
+   /**
+    * Sets the trim map of the selected aircraft, used to show the trimmed pitch angle and throttle of the selected altitude and airspeed
+    * at the weight of the aircraft and without flaps.
+    *
+    * @param trimMap the trim map, or null if the aircraft has none
+    */
+   public void setTrimMap(TrimMap trimMap) {
+      this.trimMap = trimMap;
+      updateTrimLabel();
+   }
+
+   private void updateTrimLabel() {
+      if (trimMap == null) {
+         trimLabel.setText("No trim map");
+      } else if (trimMap.lookup(FileUtilities.toFtPerSec((double) airspeedSpinner.getValue()), (double) altitudeSpinner.getValue(),
+              trimMap.getReferenceWeight(), 0, trimValues)) {
+         trimLabel.setText(String.format("Pitch %.1f deg, Throttle %.0f%%", Math.toDegrees(trimValues[TrimMapValues.THETA.ordinal()]),
+                 100 * trimValues[TrimMapValues.THROTTLE.ordinal()]));
+      } else {
+         trimLabel.setText("Out of envelope");
+      }
+   }
+
    public void setCancelButtonListener(CancelButtonListener cancelButtonListener) {
       this.cancelButtonListener = cancelButtonListener;
    }
@@ -17,8 +17,8 @@ package com.chrisali.javaflightsim.plotting;
 
 import com.chrisali.javaflightsim.controllers.SimulationController;
 import com.chrisali.javaflightsim.rendering.DataAnalyzer;
+import com.chrisali.javaflightsim.simulation.integration.FlightLog;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
-import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import java.awt.BorderLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -29,7 +29,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
@@ -48,7 +47,7 @@ import javax.swing.event.ChangeListener;
 public class PlotWindow extends JFrame implements DataAnalyzer, ProgressDialogListener {
    private static final long serialVersionUID = -4197697777449504415L;
 
-   private List<Map<SimOuts, Double>> logsOut;
+   private FlightLog logsOut;
 
    private JTabbedPane tabPane;
    private List<SimulationPlot> plotList;
@@ -135,7 +134,7 @@ public class PlotWindow extends JFrame implements DataAnalyzer, ProgressDialogLi
    /**
     * Initalizes the plot window by generating plot objects and adding them to a tabbed pane
     */
-   private void initializePlots(List<Map<SimOuts, Double>> logsOut) {
+   private void initializePlots(FlightLog logsOut) {
       progressDialog.setMaximum(simPlotCategories.size());
       progressDialog.setTitle("Generating Plots");
       progressDialog.setVisible(true);
@@ -246,7 +245,7 @@ public class PlotWindow extends JFrame implements DataAnalyzer, ProgressDialogLi
     * @param logsOut the logOuts
     */
    @Override
-   public void refresh(List<Map<SimOuts, Double>> logsOut) {
+   public void refresh(FlightLog logsOut) {
       if (!isRunning) {
          this.setup();
 
@@ -15,14 +15,12 @@ if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth F
  */
 package com.chrisali.javaflightsim.plotting;
 
+import com.chrisali.javaflightsim.simulation.integration.FlightLog;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.util.EnumMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
 import javax.swing.JComponent;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -117,12 +115,12 @@ public class SimulationPlot extends JComponent {
    private static CombinedDomainXYPlot controlsPlot = new CombinedDomainXYPlot(timeAxis);
 
    /**
-    * Creates plots for variables monitored in the logsOut ArrayList
+    * Creates plots for variables monitored in the logsOut FlightLog
     *
     * @param logsOut
     * @param windowTitle
     */
-   public SimulationPlot(List<Map<SimOuts, Double>> logsOut, String windowTitle) {
+   public SimulationPlot(FlightLog logsOut, String windowTitle) {
 
       // Only run makePlotLists() once
       if (plotLists.isEmpty()) {
@@ -247,11 +245,11 @@ public class SimulationPlot extends JComponent {
    }
 
    /**
-    * Populates the {@link plotLists} EnumMap with XYPlot objects created from the logsOut ArrayList that is passed in.
+    * Populates the {@link plotLists} EnumMap with XYPlot objects created from the logsOut FlightLog that is passed in.
     * It first creates {@link XYSeries} objects with data from logsOut, adds those series to {@link XYSeriesCollection}, adds those
     * series collections to {@link XYPlot} objects, and finally puts the XYPlot objects into {@link plotLists}
     */
-   private static void makePlotLists(List<Map<SimOuts, Double>> logsOut) {
+   private static void makePlotLists(FlightLog logsOut) {
 
       updateXYSeriesData(logsOut);
 
@@ -449,11 +447,11 @@ public class SimulationPlot extends JComponent {
    }
 
    /**
-    * Updates all XYSeries objects with new data from logsOut list.
+    * Updates all XYSeries objects with new data from the logsOut {@link FlightLog}.
     *
-    * @param oldLogsOut the logs
+    * @param logsOut the logs
     */
-   protected static void updateXYSeriesData(List<Map<SimOuts, Double>> oldLogsOut) {
+   protected static void updateXYSeriesData(FlightLog logsOut) {
 
       // Clear all data from series
       uData.clear();
@@ -495,51 +493,57 @@ public class SimulationPlot extends JComponent {
       alphaDotData.clear();
       machData.clear();
 
-      // Copy to thread-safe ArrayList for iteration
-      CopyOnWriteArrayList<Map<SimOuts, Double>> logsOut = new CopyOnWriteArrayList<>(oldLogsOut);
+      // Read the rows currently held by logsOut directly from its columns, without copying them
+      FlightLog.View view = logsOut.view();
 
       // Add data from logsOut to each XYSeries; only notify of a SeriesChangeEvent at the end of the loop
-      for (Iterator<Map<SimOuts, Double>> logsOutItr = logsOut.iterator(); logsOutItr.hasNext();) {
-         Map<SimOuts, Double> simOut = logsOutItr.next();
+      for (int row = 0; row < view.size(); row++) {
+         boolean notify = row == view.size() - 1;
+         double time = view.get(row, SimOuts.TIME);
 
-         uData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.U), !logsOutItr.hasNext());
-         vData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.V), !logsOutItr.hasNext());
-         wData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.W), !logsOutItr.hasNext());
+         // Skip rows overwritten by the simulation since the view was created
+         if (Double.isNaN(time)) {
+            continue;
+         }
+
+         uData.add(time, view.get(row, SimOuts.U), notify);
+         vData.add(time, view.get(row, SimOuts.V), notify);
+         wData.add(time, view.get(row, SimOuts.W), notify);
 
-         posData.add(simOut.get(SimOuts.EAST), simOut.get(SimOuts.NORTH), !logsOutItr.hasNext());
-         altData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.ALT), !logsOutItr.hasNext());
+         posData.add(view.get(row, SimOuts.EAST), view.get(row, SimOuts.NORTH), notify);
+         altData.add(time, view.get(row, SimOuts.ALT), notify);
 
-         altDotData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.ALT_DOT), !logsOutItr.hasNext());
+         altDotData.add(time, view.get(row, SimOuts.ALT_DOT), notify);
 
-         phiData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.PHI), !logsOutItr.hasNext());
-         thetaData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.THETA), !logsOutItr.hasNext());
-         psiData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.PSI), !logsOutItr.hasNext());
+         phiData.add(time, view.get(row, SimOuts.PHI), notify);
+         thetaData.add(time, view.get(row, SimOuts.THETA), notify);
+         psiData.add(time, view.get(row, SimOuts.PSI), notify);
 
-         pData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.P), !logsOutItr.hasNext());
-         qData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.Q), !logsOutItr.hasNext());
-         rData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.R), !logsOutItr.hasNext());
+         pData.add(time, view.get(row, SimOuts.P), notify);
+         qData.add(time, view.get(row, SimOuts.Q), notify);
+         rData.add(time, view.get(row, SimOuts.R), notify);
 
-         axData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.AN_X), !logsOutItr.hasNext());
-         ayData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.AN_Y), !logsOutItr.hasNext());
-         azData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.AN_Z), !logsOutItr.hasNext());
+         axData.add(time, view.get(row, SimOuts.AN_X), notify);
+         ayData.add(time, view.get(row, SimOuts.AN_Y), notify);
+         azData.add(time, view.get(row, SimOuts.AN_Z), notify);
 
-         lData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.L), !logsOutItr.hasNext());
-         mData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.M), !logsOutItr.hasNext());
-         nData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.N), !logsOutItr.hasNext());
+         lData.add(time, view.get(row, SimOuts.L), notify);
+         mData.add(time, view.get(row, SimOuts.M), notify);
+         nData.add(time, view.get(row, SimOuts.N), notify);
 
-         tasData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.TAS), !logsOutItr.hasNext());
+         tasData.add(time, view.get(row, SimOuts.TAS), notify);
 
-         betaData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.BETA), !logsOutItr.hasNext());
-         alphaData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.ALPHA), !logsOutItr.hasNext());
+         betaData.add(time, view.get(row, SimOuts.BETA), notify);
+         alphaData.add(time, view.get(row, SimOuts.ALPHA), notify);
 
-         elevData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.ELEVATOR), !logsOutItr.hasNext());
-         ailData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.AILERON), !logsOutItr.hasNext());
-         rudData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.RUDDER), !logsOutItr.hasNext());
-         throtData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.THROTTLE_1), !logsOutItr.hasNext());
-         flapData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.FLAPS), !logsOutItr.hasNext());
+         elevData.add(time, view.get(row, SimOuts.ELEVATOR), notify);
+         ailData.add(time, view.get(row, SimOuts.AILERON), notify);
+         rudData.add(time, view.get(row, SimOuts.RUDDER), notify);
+         throtData.add(time, view.get(row, SimOuts.THROTTLE_1), notify);
+         flapData.add(time, view.get(row, SimOuts.FLAPS), notify);
 
-         alphaDotData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.ALPHA_DOT), !logsOutItr.hasNext());
-         machData.add(simOut.get(SimOuts.TIME), simOut.get(SimOuts.MACH), !logsOutItr.hasNext());
+         alphaDotData.add(time, view.get(row, SimOuts.ALPHA_DOT), notify);
+         machData.add(time, view.get(row, SimOuts.MACH), notify);
       }
 
       // Bounds the minimum X Axis value to the first time value in the data series
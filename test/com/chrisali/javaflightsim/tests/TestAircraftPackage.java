@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
+import com.chrisali.javaflightsim.simulation.aero.WingGeometry;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftPackage;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tests the {@link AircraftPackage}: copies the sample aircraft to a temporary folder, compiles each of them from their text files and
+ * loads them from their package, and checks that both give the same aircraft. The time of a compilation and of a load are printed.
+ * The package must then be compiled again after a text file of the aircraft is modified, and after the package file is corrupted.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestAircraftPackage {
+   private static final String[] AIRCRAFT = { "LookupNavion", "TwinNavion" };
+   private static final int RUNS = 200;
+
+   private static File copyAircraft(File aircraftList, File aircraftsDir, String aircraftName) throws IOException {
+      File source = new File(aircraftList, aircraftName);
+      File target = new File(aircraftsDir, aircraftName);
+      File targetTables = new File(target, "LookupTables");
+      targetTables.mkdirs();
+      for (File file : source.listFiles()) {
+         if (file.isFile() && file.getName().endsWith(".txt")) {
+            Files.copy(file.toPath(), new File(target, file.getName()).toPath());
+         }
+      }
+      for (File file : new File(source, "LookupTables").listFiles()) {
+         Files.copy(file.toPath(), new File(targetTables, file.getName()).toPath());
+      }
+      return target;
+   }
+
+   private static void delete(File file) {
+      File[] files = file.listFiles();
+      if (files != null) {
+         for (File child : files) {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+
+   private static String describe(AircraftBuilder ab) {
+      Aircraft aircraft = ab.getAircraft();
+      StringBuilder sb = new StringBuilder(aircraft.getName()).append("\n");
+      for (StabilityDerivatives stabDer : StabilityDerivatives.values()) {
+         Object value = aircraft.getStabilityDerivative(stabDer);
+         sb.append(stabDer).append(": ");
+         if (value instanceof InterpolationTable) {
+            InterpolationTable table = (InterpolationTable) value;
+            sb.append(table.getInterpolation()).append(" ").append(table.getExtrapolation());
+            for (int dim = 0; dim < table.getDimensions(); dim++) {
+               sb.append(" ").append(Arrays.toString(table.getBreakpoints(dim)));
+            }
+            sb.append(" ").append(Arrays.toString(table.getValues()));
+         } else {
+            sb.append(value);
+         }
+         sb.append("\n");
+      }
+      for (WingGeometry wingGeom : WingGeometry.values()) {
+         sb.append(wingGeom).append(": ").append(aircraft.getWingGeometry(wingGeom)).append("\n");
+      }
+      sb.append(aircraft.getMassProps()).append("\n").append(aircraft.getGroundReaction()).append("\n");
+      sb.append(aircraft.getGroundContacts()).append(aircraft.getFuelTanks());
+      for (Engine engine : ab.getEngineList()) {
+         sb.append(engine).append("\n");
+      }
+      return sb.toString();
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+      File aircraftList = conf.getAircraftListConfig();
+      File aircraftsDir = Files.createTempDirectory("aircraft").toFile();
+
+      boolean success = true;
+      for (String aircraftName : AIRCRAFT) {
+         File aircraftDir = copyAircraft(aircraftList, aircraftsDir, aircraftName);
+         File packageFile = new File(aircraftDir, AircraftPackage.FILE_NAME);
+         conf.setAircraft(aircraftDir);
+
+         System.out.println("==== " + aircraftName + " ====");
+         AircraftPackage compiled = AircraftPackage.compile(aircraftName);
+         long start = System.nanoTime();
+         for (int i = 0; i < RUNS; i++) {
+            compiled = AircraftPackage.compile(aircraftName);
+         }
+         double compileTime = (System.nanoTime() - start) / 1.0e6 / RUNS;
+
+         AircraftPackage loaded = AircraftPackage.load(aircraftName);
+         System.out.println("First load compiled: " + loaded.isCompiled() + ", package of " + packageFile.length() + " bytes");
+         start = System.nanoTime();
+         for (int i = 0; i < RUNS; i++) {
+            loaded = AircraftPackage.load(aircraftName);
+         }
+         double loadTime = (System.nanoTime() - start) / 1.0e6 / RUNS;
+         System.out.printf("Compilation from the text files: %.3f ms, load from the package: %.3f ms (%.1f times faster)%n", compileTime,
+                 loadTime, compileTime / loadTime);
+
+         boolean same = describe(new AircraftBuilder(compiled)).equals(describe(new AircraftBuilder(loaded)));
+         System.out.println("Loaded from the package: " + !loaded.isCompiled() + ", same aircraft: " + same);
+         success &= same && !loaded.isCompiled();
+
+         // A modified text file must be compiled again
+         Files.write(new File(aircraftDir, "MassProperties.txt").toPath(), "\nweightEmpty = 2000.0".getBytes(StandardCharsets.UTF_8),
+                 StandardOpenOption.APPEND);
+         loaded = AircraftPackage.load(aircraftName);
+         double weightEmpty = new AircraftBuilder(aircraftName).getAircraft().getMassProperty(MassProperties.WEIGHT_EMPTY);
+         System.out.println("After a change of MassProperties.txt, compiled: " + loaded.isCompiled() + ", empty weight " + weightEmpty + " lbf");
+         success &= loaded.isCompiled() && weightEmpty == 2000.0;
+
+         // A corrupted package must be reported and compiled again
+         try (RandomAccessFile raf = new RandomAccessFile(packageFile, "rw")) {
+            raf.setLength(raf.length() / 2);
+         }
+         loaded = AircraftPackage.load(aircraftName);
+         System.out.println("After a truncation of the package, compiled: " + loaded.isCompiled() + ", package of " + packageFile.length() + " bytes");
+         success &= loaded.isCompiled() && !AircraftPackage.load(aircraftName).isCompiled();
+         System.out.println();
+      }
+
+      delete(aircraftsDir);
+      System.out.println(success ? "All aircraft packages are valid" : "Invalid aircraft packages!");
+   }
+}
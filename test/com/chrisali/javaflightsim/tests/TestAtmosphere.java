@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Atmosphere;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import java.util.Random;
+
+/**
+ * Compares the interpolated {@link Atmosphere} with the model calculated directly, at random altitudes between sea level and
+ * 60000 ft: the largest relative error of each parameter, away from and at the tropopause where the model is slightly
+ * discontinuous, and the time of an evaluation with and without the precomputed table, are
+ * printed. The parameters at 5000 ft are then printed for several deviations from the standard temperature.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestAtmosphere {
+   private static final int SAMPLES = 1000000;
+   private static final double TROPOPAUSE = 36089;
+   private static final EnvironmentParameters[] PARAMETERS = { EnvironmentParameters.T, EnvironmentParameters.P,
+      EnvironmentParameters.RHO, EnvironmentParameters.A, EnvironmentParameters.GRAVITY };
+
+   private final double[] altitudes = new double[SAMPLES];
+   private final double[] values = new double[EnvironmentParameters.values().length];
+   private final double[] exactValues = new double[EnvironmentParameters.values().length];
+
+   private TestAtmosphere() {
+      Random random = new Random(1);
+      for (int i = 0; i < SAMPLES; i++) {
+         altitudes[i] = random.nextDouble() * 60000;
+      }
+   }
+
+   private void compare(Atmosphere atmosphere) {
+      double[] maxErrors = new double[PARAMETERS.length];
+      double[] maxTropopauseErrors = new double[PARAMETERS.length];
+      for (int i = 0; i < SAMPLES; i++) {
+         atmosphere.update(altitudes[i], values);
+         atmosphere.calculate(altitudes[i], exactValues);
+         boolean tropopause = Math.abs(altitudes[i] - TROPOPAUSE) < Atmosphere.TABLE_STEP;
+         for (int j = 0; j < PARAMETERS.length; j++) {
+            int index = PARAMETERS[j].ordinal();
+            double error = Math.abs(values[index] - exactValues[index]) / exactValues[index];
+            if (tropopause) {
+               maxTropopauseErrors[j] = Math.max(maxTropopauseErrors[j], error);
+            } else {
+               maxErrors[j] = Math.max(maxErrors[j], error);
+            }
+         }
+      }
+
+      System.out.println("==== Largest relative error (away from / at the tropopause) ====");
+      for (int j = 0; j < PARAMETERS.length; j++) {
+         System.out.printf("%-14s %.3e / %.3e%n", PARAMETERS[j], maxErrors[j], maxTropopauseErrors[j]);
+      }
+      System.out.println();
+   }
+
+   private void time(Atmosphere atmosphere) {
+      System.out.println("==== Time of an evaluation ====");
+      double sum = 0;
+      for (int run = 0; run < 5; run++) {
+         long start = System.nanoTime();
+         for (int i = 0; i < SAMPLES; i++) {
+            sum += atmosphere.update(altitudes[i], values)[EnvironmentParameters.RHO.ordinal()];
+         }
+         long table = System.nanoTime() - start;
+
+         start = System.nanoTime();
+         for (int i = 0; i < SAMPLES; i++) {
+            sum += atmosphere.calculate(altitudes[i], values)[EnvironmentParameters.RHO.ordinal()];
+         }
+         long calculated = System.nanoTime() - start;
+
+         System.out.printf("run %d: table %6.1f ns, calculated %6.1f ns%n", run, (double) table / SAMPLES, (double) calculated / SAMPLES);
+      }
+      System.out.println("(checksum " + sum + ")");
+      System.out.println();
+   }
+
+   private void deviations(Atmosphere atmosphere) {
+      System.out.println("==== 5000 ft ====");
+      for (double deltaIsa : new double[] { -36, -18, 0, 18, 36 }) {
+         atmosphere.setDeltaIsa(deltaIsa);
+         atmosphere.update(5000, values);
+         System.out.printf("ISA %+4.0f R: T %7.2f R, P %8.2f lb/ft^2, RHO %.6f slug/ft^3, A %7.2f ft/s%n", deltaIsa,
+                 values[EnvironmentParameters.T.ordinal()], values[EnvironmentParameters.P.ordinal()],
+                 values[EnvironmentParameters.RHO.ordinal()], values[EnvironmentParameters.A.ordinal()]);
+      }
+      atmosphere.setDeltaIsa(0);
+   }
+
+   public static void main(String[] args) {
+      TestAtmosphere test = new TestAtmosphere();
+      Atmosphere atmosphere = new Atmosphere();
+      test.compare(atmosphere);
+      test.time(atmosphere);
+      test.deviations(atmosphere);
+   }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.batch.BatchResult;
+import com.chrisali.javaflightsim.simulation.batch.BatchRun;
+import com.chrisali.javaflightsim.simulation.batch.BatchRunner;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Runs a sweep of headless simulations over initial altitudes and airspeeds for each of the sample aircraft with a
+ * {@link BatchRunner}, and prints the final altitude and airspeed of each run. The outputs of each run and the batch
+ * summary are written in a temporary directory.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestBatchRunner {
+   // null selects the default Navion of AircraftBuilder
+   private static final String[] AIRCRAFT = {null, "LookupNavion", "TwinNavion"};
+   private static final double[] ALTITUDES = {2000, 5000, 8000};
+   private static final double[] AIRSPEEDS = {180, 210};
+
+   public TestBatchRunner(File outputDir) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      EnumMap<FlightControlType, Double> initialControls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+
+      List<BatchRun> runs = new ArrayList<>();
+      for (String aircraft : AIRCRAFT) {
+         for (double altitude : ALTITUDES) {
+            for (double airspeed : AIRSPEEDS) {
+               initialConditions.put(InitialConditions.INITD, altitude);
+               initialConditions.put(InitialConditions.INITU, airspeed);
+
+               BatchRun run = new BatchRun((aircraft == null ? "Navion" : aircraft) + "_" + (int) altitude + "_" + (int) airspeed, aircraft, initialConditions,
+                       integratorConfig, initialControls);
+               run.setDoublets(true);
+               runs.add(run);
+            }
+         }
+      }
+
+      long start = System.nanoTime();
+      List<BatchResult> results = new BatchRunner(outputDir).run(runs);
+      System.out.println(runs.size() + " runs in " + ((System.nanoTime() - start) / 1e9) + " sec, written to " + outputDir);
+
+      for (BatchResult result : results) {
+         if (result.isSuccessful()) {
+            System.out.println(result + ", final altitude: " + result.getFinalSimOut().get(SimOuts.ALT)
+                    + " ft, final airspeed: " + result.getFinalSimOut().get(SimOuts.TAS) + " ft/sec");
+         } else {
+            System.err.println(result);
+         }
+      }
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      File outputDir = new File(System.getProperty("java.io.tmpdir"), "BatchRunner");
+      new TestBatchRunner(outputDir);
+   }
+}
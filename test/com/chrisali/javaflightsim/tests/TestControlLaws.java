@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.laws.Autopilot;
+import com.chrisali.javaflightsim.simulation.controls.laws.ControlLawGraph;
+import com.chrisali.javaflightsim.simulation.controls.laws.FlightControlSystem;
+import com.chrisali.javaflightsim.simulation.controls.laws.FlightSignal;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Tests the flight control laws: compiles the {@link Autopilot} graph and a graph containing a loop, then flies the default Navion
+ * trimmed with the altitude and heading holds engaged on new references, compares the response to a rudder doublet with and without
+ * the yaw damper, and times the execution of the laws.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestControlLaws {
+   private static EnumMap<FlightControlType, Double> controls;
+   private static double dt;
+
+   private static void compile() {
+      ControlLawGraph graph = Autopilot.createGraph();
+      FlightControlSystem fcs = graph.compile();
+      System.out.println("==== Autopilot graph ====");
+      System.out.println(graph.size() + " nodes, " + fcs.getOutputCount() + " outputs");
+      System.out.println(String.join(" ", fcs.getExecutionOrder()));
+
+      ControlLawGraph loop = new ControlLawGraph();
+      loop.signal("q", FlightSignal.Q);
+      loop.sum("a", "q", "b");
+      loop.lag("b", "a", 0.5);
+      try {
+         loop.compile();
+         System.out.println("Loop not detected!");
+      } catch (IllegalArgumentException e) {
+         System.out.println("Loop detected: " + e.getMessage());
+      }
+   }
+
+   private static Integrate6DOFEquations createSimulation(double duration) {
+      Configuration conf = Configuration.getInstance();
+      controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      AircraftBuilder ab = new AircraftBuilder();
+      TrimResult trim = new TrimSolver(ab).trim(new TrimCondition(180, 5000), controls);
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      trim.apply(initialConditions, controls);
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, duration);
+      dt = integratorConfig.get(IntegratorConfig.DT);
+
+      return new Integrate6DOFEquations(controls, ab, EnumSet.of(Options.ANALYSIS_MODE), initialConditions, integratorConfig, 1);
+   }
+
+   private static void holds() {
+      Integrate6DOFEquations runSim = createSimulation(180);
+      FlightControlSystem fcs = Autopilot.create();
+      runSim.setFlightControlSystem(fcs);
+
+      System.out.println("==== Altitude hold at 5300 ft and heading hold at 90 deg engaged at 5 s ====");
+      System.out.println("  time (s)   u (ft/s)   alt (ft)   vs (ft/s)   psi (deg)   phi (deg)   theta (deg)   elevator (deg)   aileron (deg)");
+      int steps = (int) Math.round(180 / dt);
+      for (int i = 1; i <= steps; i++) {
+         if (i == Math.round(5 / dt)) {
+            fcs.setParameter(Autopilot.ALTITUDE_REF, 5300);
+            fcs.setParameter(Autopilot.ALTITUDE_HOLD, 1);
+            fcs.setParameter(Autopilot.HEADING_REF, Math.toRadians(90));
+            fcs.setParameter(Autopilot.HEADING_HOLD, 1);
+         }
+         runSim.onFrame(i);
+         if (i % Math.round(10 / dt) == 0) {
+            Map<SimOuts, Double> simOut = runSim.getSimOut();
+            System.out.printf("%8.0f %10.2f %10.1f %10.2f %11.2f %11.2f %13.2f %16.2f %15.2f%n", i * dt, simOut.get(SimOuts.U), simOut.get(SimOuts.ALT),
+                    fcs.getValue("verticalSpeed"), Math.toDegrees(simOut.get(SimOuts.PSI)), Math.toDegrees(simOut.get(SimOuts.PHI)),
+                    Math.toDegrees(simOut.get(SimOuts.THETA)), Math.toDegrees(simOut.get(SimOuts.ELEVATOR)),
+                    Math.toDegrees(simOut.get(SimOuts.AILERON)));
+         }
+      }
+   }
+
+   private static void yawDamper(boolean engaged) {
+      Integrate6DOFEquations runSim = createSimulation(30);
+      FlightControlSystem fcs = Autopilot.create();
+      fcs.setParameter(Autopilot.YAW_DAMPER, engaged ? 1 : 0);
+      runSim.setFlightControlSystem(fcs);
+      double trimRudder = controls.get(FlightControlType.RUDDER);
+
+      double maxR = 0;
+      double maxRAfter = 0;
+      int steps = (int) Math.round(30 / dt);
+      for (int i = 1; i <= steps; i++) {
+         double t = i * dt;
+         controls.put(FlightControlType.RUDDER, trimRudder + (t > 1 && t < 2 ? 0.05 : (t > 2 && t < 3 ? -0.05 : 0)));
+         runSim.onFrame(i);
+         double r = Math.abs(runSim.getSimOut().get(SimOuts.R));
+         maxR = Math.max(maxR, r);
+         if (t > 8) {
+            maxRAfter = Math.max(maxRAfter, r);
+         }
+      }
+      System.out.printf("Yaw damper %s: peak yaw rate %.3f deg/s, peak after 8 s %.4f deg/s%n", engaged ? "on " : "off",
+              Math.toDegrees(maxR), Math.toDegrees(maxRAfter));
+   }
+
+   private static void timing() {
+      FlightControlSystem fcs = Autopilot.create();
+      fcs.setParameter(Autopilot.ALTITUDE_HOLD, 1);
+      fcs.setParameter(Autopilot.HEADING_HOLD, 1);
+      fcs.setParameter(Autopilot.YAW_DAMPER, 1);
+      double[] signals = new double[FlightSignal.values().length];
+      double[] controlValues = new double[FlightControlType.values().length];
+      for (int pass = 0; pass < 3; pass++) {
+         long start = System.nanoTime();
+         for (int i = 0; i < 1000000; i++) {
+            signals[FlightSignal.ALT.ordinal()] = 5000 + (i % 100);
+            signals[FlightSignal.R.ordinal()] = 0.001 * (i % 7);
+            fcs.execute(signals, controlValues, 0.01);
+            fcs.apply(controlValues);
+         }
+         System.out.printf("%.1f ns per execution%n", (System.nanoTime() - start) / 1e6);
+      }
+   }
+
+   public static void main(String[] args) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      compile();
+      holds();
+      System.out.println("==== Rudder doublet ====");
+      yawDamper(false);
+      yawDamper(true);
+      timing();
+   }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.datatransfer.FlightData;
+import com.chrisali.javaflightsim.datatransfer.FlightDataListener;
+import com.chrisali.javaflightsim.datatransfer.FlightDataSubscription;
+import com.chrisali.javaflightsim.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Publishes flight data at 200 Hz to fast and slow listeners, subscribed either with a latest-value slot or with a bounded queue,
+ * and prints the statistics of each subscription. The fast listeners must not be delayed by the slow ones, and the listeners with a
+ * queue must receive the publications in order.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestFlightDataSubscriptions {
+   private static final double PUBLICATION_RATE = 200;
+   private static final int PUBLICATIONS = 600;
+
+   public TestFlightDataSubscriptions() throws InterruptedException {
+      FlightData flightData = new FlightData();
+      FlightDataSubscription[] subscriptions = {
+         flightData.addFlightDataListener(new Listener("fast", 0), 60),
+         flightData.addFlightDataListener(new Listener("slow", 200), 20),
+         flightData.addFlightDataListener(new Listener("fast queued", 0), 0, 64),
+         flightData.addFlightDataListener(new Listener("slow queued", 50), 0, 64)};
+
+      Thread flightDataThread = new Thread(flightData);
+      flightDataThread.start();
+
+      double[] simOutValues = new double[SimOuts.values().length];
+      long period = Math.round(1e9 / PUBLICATION_RATE);
+      long next = System.nanoTime();
+      for (int i = 1; i <= PUBLICATIONS; i++) {
+         simOutValues[SimOuts.ALT.ordinal()] = i;
+         flightData.updateData(simOutValues);
+         next += period;
+         while (System.nanoTime() < next) {
+            Thread.sleep(1);
+         }
+      }
+
+      FlightData.setRunning(false);
+      flightDataThread.join();
+
+      System.out.println(PUBLICATIONS + " publications at " + PUBLICATION_RATE + " Hz");
+      for (FlightDataSubscription subscription : subscriptions) {
+         System.out.println(subscription.getListener() + ": " + subscription);
+      }
+   }
+
+   private static class Listener implements FlightDataListener {
+      private final String name;
+      private final long sleep;
+      private double lastAltitude = 0;
+      private int outOfOrder = 0;
+
+      private Listener(String name, long sleep) {
+         this.name = name;
+         this.sleep = sleep;
+      }
+
+      @Override
+      public void onFlightDataReceived(FlightData flightData) {
+         double altitude = flightData.getFlightData().get(FlightDataType.ALTITUDE);
+         if (altitude <= lastAltitude && ++outOfOrder == 1) {
+            System.out.println(name + ": publication " + altitude + " received after " + lastAltitude);
+         }
+         lastAltitude = altitude;
+
+         if (sleep > 0) {
+            try {
+               Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+            }
+         }
+      }
+
+      @Override
+      public String toString() {
+         return name;
+      }
+   }
+
+   public static void main(String[] args) throws InterruptedException {
+      new TestFlightDataSubscriptions();
+   }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.batch.CSVSimOutsWriter;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.FlightLog;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.recording.FlightRecorder;
+import com.chrisali.javaflightsim.simulation.recording.RecordingHeader;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+/**
+ * Tests the {@link FlightRecorder}: records a trimmed flight of the default Navion and compares the recording with the flight log,
+ * checks the rows committed by a recorder which is never closed, and compares the cost of writing a row with the
+ * {@link CSVSimOutsWriter}.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestFlightRecorder {
+   private static RecordingHeader readHeader(File file) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+         FileChannel channel = raf.getChannel();
+         return RecordingHeader.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 4096)));
+      }
+   }
+
+   private static void record(File file) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      AircraftBuilder ab = new AircraftBuilder();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      new TrimSolver(ab).trim(new TrimCondition(180, 5000), controls).apply(initialConditions, controls);
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, 600.0);
+      double dt = integratorConfig.get(IntegratorConfig.DT);
+      EnumSet<Options> options = EnumSet.of(Options.ANALYSIS_MODE);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, options, initialConditions, integratorConfig, -1);
+
+      FlightRecorder recorder = new FlightRecorder(file, ab.getAircraft().getName(), dt, options);
+      runSim.addSimOutsListener(recorder);
+      long start = System.nanoTime();
+      runSim.run();
+      recorder.close();
+      FlightLog log = runSim.getLogsOut();
+      System.out.println("==== Recording of a 600 s flight ====");
+      System.out.printf("%d steps in %.2f s, %d rows, %d bytes%n", log.size(), (System.nanoTime() - start) / 1e9, recorder.getRows(),
+              file.length());
+
+      RecordingHeader header = readHeader(file);
+      System.out.println("Header: " + header.getAircraftName() + ", dt " + header.getTimeStep() + ", options " + header.getOptions()
+              + ", " + header.getChannelCount() + " channels, " + header.getCommittedRows() + " committed rows");
+
+      int mismatches = 0;
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+         FileChannel channel = raf.getChannel();
+         ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, header.getLength(), channel.size() - header.getLength());
+         DoubleBuffer rows = buffer.order(RecordingHeader.BYTE_ORDER).asDoubleBuffer();
+         for (int row = 0; row < log.size(); row++) {
+            for (SimOuts simOut : SimOuts.values()) {
+               double recorded = rows.get(row * header.getChannelCount() + header.getChannelIndex(simOut));
+               if (Double.doubleToLongBits(recorded) != Double.doubleToLongBits(log.get(row, simOut))) {
+                  mismatches++;
+               }
+            }
+         }
+      }
+      System.out.println("Values differing from the flight log: " + mismatches);
+   }
+
+   private static void uncommitted(File file) throws IOException {
+      FlightRecorder recorder = new FlightRecorder(file, "Navion", 0.01, EnumSet.noneOf(Options.class));
+      double[] row = new double[SimOuts.values().length];
+      for (int i = 0; i < 2500; i++) {
+         row[SimOuts.TIME.ordinal()] = i * 0.01;
+         recorder.onSimOutsReceived(row);
+      }
+      System.out.println("==== Recorder not closed after 2500 rows, checkpoint every " + recorder.getCheckpointRows() + " rows ====");
+      System.out.println("Committed rows read from the file: " + readHeader(file).getCommittedRows());
+      recorder.close();
+      System.out.println("Committed rows after closing: " + readHeader(file).getCommittedRows() + ", " + file.length() + " bytes");
+   }
+
+   private static void writeCost(File file, File csvFile) throws IOException {
+      System.out.println("==== Cost of writing 200000 rows ====");
+      double[][] rows = new double[1000][SimOuts.values().length];
+      for (int i = 0; i < rows.length; i++) {
+         for (int j = 0; j < rows[i].length; j++) {
+            rows[i][j] = 1000 * Math.sin(0.01 * i + j);
+         }
+      }
+      for (int pass = 0; pass < 2; pass++) {
+         try (FlightRecorder recorder = new FlightRecorder(file, "Navion", 0.01, EnumSet.noneOf(Options.class))) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 200000; i++) {
+               recorder.onSimOutsReceived(rows[i % rows.length]);
+            }
+            System.out.printf("Flight recorder: %.1f ns per row%n", (System.nanoTime() - start) / 200000.0);
+         }
+         try (CSVSimOutsWriter writer = new CSVSimOutsWriter(csvFile)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 200000; i++) {
+               writer.onSimOutsReceived(rows[i % rows.length]);
+            }
+            System.out.printf("CSV writer:      %.1f ns per row%n", (System.nanoTime() - start) / 200000.0);
+         }
+      }
+      System.out.println("Recording " + file.length() + " bytes, CSV " + csvFile.length() + " bytes");
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      File file = File.createTempFile("flight", RecordingHeader.EXTENSION);
+      File csvFile = File.createTempFile("flight", ".csv");
+      try {
+         record(file);
+         uncommitted(file);
+         writeCost(file, csvFile);
+      } finally {
+         file.delete();
+         csvFile.delete();
+      }
+   }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.laws.Autopilot;
+import com.chrisali.javaflightsim.simulation.controls.laws.FlightControlSystem;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.recording.FlightRecorder;
+import com.chrisali.javaflightsim.simulation.recording.FlightRecordingReader;
+import com.chrisali.javaflightsim.simulation.recording.RecordingHeader;
+import com.chrisali.javaflightsim.simulation.recording.RecordingIndex;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.io.File;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+/**
+ * Tests the {@link FlightRecordingReader}: records a one hour flight of the default Navion at 100 Hz, with the autopilot changing
+ * altitude and heading every ten minutes, then opens the recording with and without its cached index, and compares time range and
+ * extremum queries with a scan of all rows.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestFlightRecordingReader {
+   private static final double DURATION = 3600;
+
+   private static void record(File file) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      AircraftBuilder ab = new AircraftBuilder();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      new TrimSolver(ab).trim(new TrimCondition(180, 5000), controls).apply(initialConditions, controls);
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, DURATION);
+      integratorConfig.put(IntegratorConfig.DT, 0.01);
+      EnumSet<Options> options = EnumSet.of(Options.ANALYSIS_MODE);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, options, initialConditions, integratorConfig, 1);
+      FlightControlSystem fcs = Autopilot.create();
+      fcs.setParameter(Autopilot.ALTITUDE_REF, 5000);
+      fcs.setParameter(Autopilot.ALTITUDE_HOLD, 1);
+      fcs.setParameter(Autopilot.HEADING_HOLD, 1);
+      runSim.setFlightControlSystem(fcs);
+
+      long start = System.nanoTime();
+      try (FlightRecorder recorder = new FlightRecorder(file, ab.getAircraft().getName(), 0.01, options)) {
+         runSim.addSimOutsListener(recorder);
+         int steps = (int) Math.round(DURATION / 0.01);
+         for (int i = 1; i <= steps; i++) {
+            if (i % 60000 == 0) {
+               fcs.setParameter(Autopilot.ALTITUDE_REF, 5000 + 200 * ((i / 60000) % 3));
+               fcs.setParameter(Autopilot.HEADING_REF, Math.toRadians(90 * ((i / 60000) % 4)));
+            }
+            runSim.onFrame(i);
+         }
+      }
+      System.out.printf("==== Recorded %.0f s at 100 Hz in %.2f s: %d bytes ====%n", DURATION, (System.nanoTime() - start) / 1e9, file.length());
+   }
+
+   private static FlightRecordingReader open(File file, String label) throws IOException {
+      long start = System.nanoTime();
+      FlightRecordingReader reader = new FlightRecordingReader(file);
+      System.out.printf("Opened %s in %.2f ms: %d rows, %d blocks%n", label, (System.nanoTime() - start) / 1e6, reader.getRowCount(),
+              reader.getIndex().getBlockCount());
+      return reader;
+   }
+
+   private static void query(FlightRecordingReader reader) {
+      System.out.println("==== ALT and TAS between 1200 s and 1300 s ====");
+      long start = System.nanoTime();
+      long[] range = reader.getRowRange(1200, 1300);
+      double[] alt = reader.getChannel(SimOuts.ALT, range[0], range[1]);
+      double[] tas = reader.getChannel(SimOuts.TAS, range[0], range[1]);
+      double maxAlt = reader.getMaximum(SimOuts.ALT, range[0], range[1]);
+      System.out.printf("%.3f ms: rows %d to %d, t = %.2f to %.2f s, alt %.1f to %.1f ft (max %.1f), tas %.1f to %.1f ft/s%n",
+              (System.nanoTime() - start) / 1e6, range[0], range[1], reader.getTime(range[0]), reader.getTime(range[1] - 1),
+              alt[0], alt[alt.length - 1], maxAlt, tas[0], tas[tas.length - 1]);
+
+      int scanned = 0;
+      double scanMaxAlt = Double.NEGATIVE_INFINITY;
+      for (long row = 0; row < reader.getRowCount(); row++) {
+         double t = reader.getTime(row);
+         if (t >= 1200 && t <= 1300) {
+            scanMaxAlt = Math.max(scanMaxAlt, reader.get(row, SimOuts.ALT));
+            scanned++;
+         }
+      }
+      System.out.println("Scan: " + scanned + " rows, max alt " + scanMaxAlt);
+
+      System.out.println("==== Extrema of AN_Z over the whole flight ====");
+      start = System.nanoTime();
+      double max = reader.getMaximum(SimOuts.AN_Z);
+      double min = reader.getMinimum(SimOuts.AN_Z);
+      System.out.printf("%.3f ms: min %.5f, max %.5f%n", (System.nanoTime() - start) / 1e6, min, max);
+      start = System.nanoTime();
+      double scanMax = Double.NEGATIVE_INFINITY;
+      double scanMin = Double.POSITIVE_INFINITY;
+      for (long row = 0; row < reader.getRowCount(); row++) {
+         double value = reader.get(row, SimOuts.AN_Z);
+         scanMax = Math.max(scanMax, value);
+         scanMin = Math.min(scanMin, value);
+      }
+      System.out.printf("Scan in %.3f ms: min %.5f, max %.5f%n", (System.nanoTime() - start) / 1e6, scanMin, scanMax);
+
+      System.out.println("==== Zero-copy view of 1000 rows from t = 600 s ====");
+      DoubleBuffer view = reader.getRows(reader.findRow(600), 1000);
+      RecordingHeader header = reader.getHeader();
+      int alt0 = header.getChannelIndex(SimOuts.ALT);
+      System.out.println("Direct: " + view.isDirect() + ", read only: " + view.isReadOnly() + ", " + view.remaining() + " values, alt "
+              + view.get(alt0) + " to " + view.get(999 * header.getChannelCount() + alt0));
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      File file = File.createTempFile("flight", RecordingHeader.EXTENSION);
+      File indexFile = new File(file.getPath() + RecordingIndex.EXTENSION);
+      try {
+         record(file);
+         try (FlightRecordingReader reader = open(file, "without index")) {
+            query(reader);
+         }
+         try (FlightRecordingReader reader = open(file, "with cached index")) {
+            query(reader);
+         }
+      } finally {
+         file.delete();
+         indexFile.delete();
+      }
+   }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.FrameListener;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
+import com.chrisali.javaflightsim.simulation.integration.FrameScheduler;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.OverrunPolicy;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+/**
+ * Runs the default Navion in real time at 50 Hz on its {@link FrameScheduler}, first alone, then with a listener simulating a
+ * load of 5 ms per frame and a stall of 100 ms every second, with each {@link OverrunPolicy}, and prints the timing statistics of
+ * the scheduler and the drift of the simulation time from the wall time. The simulation is then run with several time compressions.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestFrameScheduler {
+   private static final double DT = 0.02;
+   private static final double END_TIME = 10;
+
+   public TestFrameScheduler() {
+      System.out.println("No load");
+      runSimulation(OverrunPolicy.CATCH_UP, false, 1);
+      System.out.println("Load, catch up");
+      runSimulation(OverrunPolicy.CATCH_UP, true, 1);
+      System.out.println("Load, drop");
+      runSimulation(OverrunPolicy.DROP, true, 1);
+
+      for (double timeCompression : new double[]{2, 4, 16, FrameScheduler.AS_FAST_AS_POSSIBLE}) {
+         System.out.println("Time compression: " + timeCompression);
+         runSimulation(OverrunPolicy.CATCH_UP, false, timeCompression);
+      }
+   }
+
+   private void runSimulation(OverrunPolicy policy, boolean load, double timeCompression) {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0d);
+      integratorConfig.put(IntegratorConfig.DT, DT);
+      integratorConfig.put(IntegratorConfig.ENDTIME, END_TIME);
+
+      AircraftBuilder ab = new AircraftBuilder();
+      Trimming.trimSim(ab, initialConditions, controls);
+
+      // Not in analysis mode, so that the frames are paced in real time
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, EnumSet.noneOf(Options.class), initialConditions,
+              integratorConfig, -1);
+      FrameScheduler scheduler = runSim.getFrameScheduler();
+      scheduler.setOverrunPolicy(policy, FrameScheduler.DEFAULT_MAX_CATCH_UP_FRAMES);
+      scheduler.setTimeCompression(timeCompression);
+      if (load) {
+         scheduler.addFrameListener(new FrameListener() {
+            @Override
+            public void onFrame(long frameIndex) {
+               spin(frameIndex % 50 == 25 ? 100 : 5);
+            }
+         }, FramePhase.OUTPUT);
+      }
+
+      long start = System.nanoTime();
+      runSim.run();
+      double wallTime = (System.nanoTime() - start) / 1e9;
+
+      System.out.print(scheduler.getStatistics());
+      System.out.println("Simulation time: " + runSim.getTime() + " sec, wall time: " + wallTime + " sec, last frame: " + runSim.getFrameIndex());
+      System.out.println();
+   }
+
+   private static void spin(long millis) {
+      long end = System.nanoTime() + millis * 1000000L;
+      while (System.nanoTime() < end) {
+         Thread.yield();
+      }
+   }
+
+   public static void main(String[] args) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      new TestFrameScheduler();
+   }
+}
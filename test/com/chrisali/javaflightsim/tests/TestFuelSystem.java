@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aero.AccelAndMoments;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.FuelTanks;
+import com.chrisali.javaflightsim.simulation.aircraft.MassModel;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlsUtilities;
+import com.chrisali.javaflightsim.simulation.enviroment.Atmosphere;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.utilities.SixDOFUtilities;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Tests the fuel system and the {@link MassModel}: burns the fuel of a Navion with a forward and an aft tank, comparing the center of
+ * gravity and inertia updated past the default threshold with those updated at each burn, then checks that the moments about a shifted
+ * center of gravity are those of the same forces with arms shortened by the shift, flies the default Navion trimmed for two hours and
+ * prints its weight trend, and finally flies it with little fuel until its engine is starved.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestFuelSystem {
+   private static void burnTanks() {
+      Aircraft aircraft = new Aircraft();
+      FuelTanks tanks = new FuelTanks();
+      tanks.addTank("forward", 200, 2, 0, 0);
+      tanks.addTank("aft", 160, -3, 0, 0.5);
+      aircraft.setFuelTanks(tanks);
+
+      MassModel incremental = new MassModel(aircraft);
+      MassModel everyBurn = new MassModel(aircraft);
+      everyBurn.setUpdateThreshold(0);
+
+      System.out.println("==== Burning 15 gal/hr from a forward and an aft tank ====");
+      System.out.println("  time (min)   weight (lb)   fuel (lb)   cg x (ft)   Jx, Jy, Jz, Jxz (slug ft^2)");
+      double dt = 0.01;
+      int steps = (int) Math.round(4 * 3600 / dt);
+      for (int i = 0; i <= steps; i++) {
+         if (i % Math.round(1800 / dt) == 0) {
+            System.out.printf("%9.0f %14.2f %11.2f %11.5f   %s%n", i * dt / 60, incremental.getWeight(), incremental.getFuelWeight(),
+                    incremental.getCenterOfGravity()[0], Arrays.toString(incremental.getInertiaValues()));
+         }
+         incremental.burnFuel(15, dt);
+         everyBurn.burnFuel(15, dt);
+      }
+      System.out.printf("Updates: %d past the threshold, %d at each burn, for %d burns%n", incremental.getUpdateCount(),
+              everyBurn.getUpdateCount(), steps + 1);
+      System.out.println("Final inertia at each burn: " + Arrays.toString(everyBurn.getInertiaValues()));
+
+      MassModel timed = new MassModel(aircraft);
+      for (int pass = 0; pass < 3; pass++) {
+         timed.reset();
+         long start = System.nanoTime();
+         for (int i = 0; i < 1000000; i++) {
+            timed.burnFuel(15, 0.001);
+         }
+         System.out.printf("%.1f ns per burn%n", (System.nanoTime() - start) / 1e6);
+      }
+   }
+
+   private static void shiftMoments() {
+      AircraftBuilder ab = new AircraftBuilder();
+      Aircraft aircraft = ab.getAircraft();
+      FuelTanks tanks = new FuelTanks();
+      tanks.addTank("aft", 200, -3, 0, 0.5);
+      aircraft.setFuelTanks(tanks);
+      Engine[] engines = ab.getEngineList().toArray(new Engine[0]);
+
+      // Burning the fuel of the aft tank moves the center of gravity forward and up
+      MassModel full = new MassModel(aircraft);
+      MassModel burned = new MassModel(aircraft);
+      burned.setUpdateThreshold(0);
+      burned.burnFuel(15, 3600);
+      double[] shift = burned.getCenterOfGravityShift();
+
+      double[] environmentParameters = new Atmosphere().update(5000, new double[EnvironmentParameters.values().length]);
+      double[] windParameters = SixDOFUtilities.calculateWindParameters(new double[]{ 170, 0, 3 }, new double[3]);
+      double[] angularRates = new double[3];
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(Configuration.getInstance().getInitialControlsConfig());
+      controls.put(FlightControlType.THROTTLE_1, 1.0);
+      double[] controlValues = FlightControlsUtilities.toArray(controls, new double[FlightControlType.values().length]);
+      for (Engine engine : engines) {
+         engine.setSteadyState(true);
+         engine.updateEngineState(controlValues, environmentParameters, windParameters);
+      }
+      IntegrateGroundReaction groundReaction = new IntegrateGroundReaction(new double[3], new double[3], new double[3], new double[3],
+              new double[3], new double[14], new double[3], aircraft, controls);
+
+      AccelAndMoments accelAndMoments = new AccelAndMoments(ab.getAerodynamicModel());
+      double[] accelerations = new double[3];
+      double[] moments = new double[3];
+      double[] shiftedMoments = new double[3];
+      accelAndMoments.calculateAccelAndMoments(windParameters, angularRates, environmentParameters, controlValues, 0, engines, aircraft,
+              full, groundReaction, 5000, accelerations, moments);
+      accelAndMoments.calculateAccelAndMoments(windParameters, angularRates, environmentParameters, controlValues, 0, engines, aircraft,
+              burned, groundReaction, 5000, accelerations, shiftedMoments);
+
+      // The aerodynamic and thrust forces do not depend on the center of gravity, and their moment is force x arm
+      double[] force = new double[3];
+      for (int i = 0; i < 3; i++) {
+         force[i] = accelerations[i] * burned.getMass();
+      }
+      double[] expected = {
+         moments[0] - (force[1] * shift[2] - force[2] * shift[1]),
+         moments[1] - (force[2] * shift[0] - force[0] * shift[2]),
+         moments[2] - (force[0] * shift[1] - force[1] * shift[0]) };
+
+      System.out.println("==== Moments about a shifted center of gravity ====");
+      System.out.println("shift " + Arrays.toString(shift) + " ft, thrust " + Arrays.toString(engines[0].getThrust()) + " lbf");
+      System.out.println("moments " + Arrays.toString(shiftedMoments) + ", expected " + Arrays.toString(expected) + " ft*lbf");
+      for (int i = 0; i < 3; i++) {
+         if (Math.abs(shiftedMoments[i] - expected[i]) > 1.0e-6 * (1 + Math.abs(expected[i]))) {
+            System.err.println("Wrong moment about the shifted center of gravity on axis " + i + "!");
+         }
+      }
+   }
+
+   private static void fly(double fuelFraction, double duration, double printInterval) {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      AircraftBuilder ab = new AircraftBuilder();
+      Aircraft aircraft = ab.getAircraft();
+      double emptyAndPayload = aircraft.getMassProperty(MassProperties.TOTAL_MASS) * 32.17
+              - aircraft.getMassProperty(MassProperties.MAX_WEIGHT_FUEL) * aircraft.getMassProperty(MassProperties.WEIGHT_FUEL);
+      aircraft.setMassProperty(MassProperties.WEIGHT_FUEL, fuelFraction);
+      aircraft.setMassProperty(MassProperties.TOTAL_MASS,
+              (emptyAndPayload + aircraft.getMassProperty(MassProperties.MAX_WEIGHT_FUEL) * fuelFraction) / 32.17);
+
+      TrimResult trim = new TrimSolver(ab).trim(new TrimCondition(180, 5000), controls);
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      trim.apply(initialConditions, controls);
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, duration);
+      double dt = integratorConfig.get(IntegratorConfig.DT);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, EnumSet.of(Options.ANALYSIS_MODE), initialConditions,
+              integratorConfig, 1);
+
+      System.out.printf("==== Navion with %.0f lb of fuel, throttle %.3f ====%n", runSim.getMassModel().getFuelWeight(),
+              controls.get(FlightControlType.THROTTLE_1));
+      System.out.println("  time (min)   weight (lb)   fuel (lb)   fuel flow (gal/hr)   u (ft/s)   alt (ft)   thrust (lbf)");
+      long start = System.nanoTime();
+      int steps = (int) Math.round(duration / dt);
+      for (int i = 1; i <= steps; i++) {
+         runSim.onFrame(i);
+         if (i % Math.round(printInterval / dt) == 0) {
+            Map<SimOuts, Double> simOut = runSim.getSimOut();
+            System.out.printf("%9.1f %14.2f %11.2f %14.2f %15.2f %10.1f %12.1f%n", i * dt / 60, simOut.get(SimOuts.WEIGHT),
+                    simOut.get(SimOuts.FUEL_WEIGHT), simOut.get(SimOuts.FUEL_FLOW_1), simOut.get(SimOuts.U), simOut.get(SimOuts.ALT),
+                    simOut.get(SimOuts.THRUST_1));
+         }
+      }
+      System.out.printf("%d steps in %.2f s, center of gravity and inertia recomputed %d times%n", steps, (System.nanoTime() - start) / 1e9,
+              runSim.getMassModel().getUpdateCount());
+   }
+
+   public static void main(String[] args) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      burnTanks();
+      shiftMoments();
+      fly(1.0, 7200, 900);
+      fly(0.01, 600, 60);
+   }
+}
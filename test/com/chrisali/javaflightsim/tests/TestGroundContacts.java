@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.ContactType;
+import com.chrisali.javaflightsim.simulation.aircraft.GroundContacts;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Rolls a banked taildragger, whose left wing tip touches the ground, and an aircraft with two six-wheel bogies on the ground, and
+ * prints their ground forces and moments, and the mean time of a step of ground reaction. The wheels of both bogies must share the
+ * vertical load evenly, with the tail skid clear of the ground.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestGroundContacts {
+   private static final int STEPS = 100000;
+
+   private final double[] linearVelocities = new double[]{ 30, 0, 0 };
+   private final double[] NEDPosition = new double[]{ 0, 0, 0 };
+   private final double[] eulerAngles = new double[]{ 0, 0, 0 };
+   private final double[] angularRates = new double[]{ 0, 0, 0 };
+   private final double[] windParameters = new double[]{ 0, 0.02, 0 };
+   private final double[] sixDOFDerivatives = new double[14];
+   private final double[] integratorConfig = new double[]{ 0, 0.02, 100 };
+   private final Map<FlightControlType, Double> controls = new EnumMap<>(FlightControlType.class);
+
+   public TestGroundContacts() {
+      for (FlightControlType controlType : FlightControlType.values()) {
+         controls.put(controlType, 0.0);
+      }
+      controls.put(FlightControlType.BRAKE_L, 0.2);
+      controls.put(FlightControlType.BRAKE_R, 0.2);
+   }
+
+   private IntegrateGroundReaction run(String name, GroundContacts contacts, double height, double roll) {
+      Aircraft aircraft = new Aircraft();
+      contacts.setBrakingForce(100);
+      aircraft.setGroundContacts(contacts);
+
+      IntegrateGroundReaction groundReaction = new IntegrateGroundReaction(linearVelocities, NEDPosition, eulerAngles, angularRates,
+              windParameters, sixDOFDerivatives, integratorConfig, aircraft, controls);
+
+      NEDPosition[2] = height;
+      eulerAngles[0] = roll;
+      long start = System.nanoTime();
+      for (int i = 0; i < STEPS; i++) {
+         groundReaction.integrateStep(0);
+      }
+      double stepTime = (System.nanoTime() - start) / (double) STEPS;
+
+      System.out.println("==== " + name + " (" + contacts.size() + " contact points) ====");
+      System.out.println(groundReaction);
+      System.out.println("Weight on wheels: " + groundReaction.isWeightOnWheels() + ", mean step time: " + stepTime + " ns\n");
+      return groundReaction;
+   }
+
+   private void runTaildragger() {
+      GroundContacts contacts = new GroundContacts();
+      contacts.addContact("left", ContactType.LEFT_MAIN_GEAR, 1.5, -3.5, 3, 300, 3600);
+      contacts.addContact("right", ContactType.RIGHT_MAIN_GEAR, 1.5, 3.5, 3, 300, 3600);
+      contacts.addContact("tail", ContactType.STEERABLE_GEAR, -16, 0, 0.5, 100, 1200);
+      contacts.addContact("left tip", ContactType.STRUCTURE, 0, -16, 0.5, 1000, 20000);
+      contacts.addContact("right tip", ContactType.STRUCTURE, 0, 16, 0.5, 1000, 20000);
+
+      run("Taildragger", contacts, -3, 0.2);
+   }
+
+   private void runBogies() {
+      GroundContacts contacts = new GroundContacts();
+      contacts.addContact("nose", ContactType.STEERABLE_GEAR, 30, 0, 8, 600, 8000);
+      for (int i = 0; i < 6; i++) {
+         double x = -2 + 2 * (i / 2);
+         double offset = (i % 2 == 0) ? -0.75 : 0.75;
+         contacts.addContact("left " + i, ContactType.LEFT_MAIN_GEAR, x, -6 + offset, 8, 600, 8000);
+         contacts.addContact("right " + i, ContactType.RIGHT_MAIN_GEAR, x, 6 + offset, 8, 600, 8000);
+      }
+      contacts.addContact("tail skid", ContactType.SKID, -40, 0, 10, 500, 10000);
+
+      // The nose and bogie wheels are compressed by 0.2 ft, and the tail skid is 1.8 ft above the ground
+      IntegrateGroundReaction groundReaction = run("Bogies", contacts, -8.2, 0);
+
+      double[] contactForces = groundReaction.getContactForces();
+      double mainForce = 0;
+      double minWheelForce = Double.MAX_VALUE;
+      double maxWheelForce = -Double.MAX_VALUE;
+      for (int i = 0; i < contacts.size(); i++) {
+         ContactType type = contacts.getType(i);
+         if (type == ContactType.LEFT_MAIN_GEAR || type == ContactType.RIGHT_MAIN_GEAR) {
+            mainForce += contactForces[i];
+            minWheelForce = Math.min(minWheelForce, contactForces[i]);
+            maxWheelForce = Math.max(maxWheelForce, contactForces[i]);
+         }
+      }
+      double totalForce = groundReaction.getTotalGroundForces()[2];
+      double skidForce = contactForces[contacts.size() - 1];
+      System.out.println("Main wheels: " + (mainForce / totalForce * 100) + " % of Fz, from " + minWheelForce + " to " + maxWheelForce
+              + " lbf per wheel, tail skid: " + skidForce + " lbf\n");
+      if (skidForce != 0 || !(minWheelForce < 0) || Math.abs(maxWheelForce - minWheelForce) > 1e-6 * Math.abs(minWheelForce)) {
+         System.err.println("The vertical load is not spread evenly over the main wheels!");
+      }
+   }
+
+   public static void main(String[] args) {
+      TestGroundContacts test = new TestGroundContacts();
+      test.runTaildragger();
+      test.runBogies();
+   }
+}
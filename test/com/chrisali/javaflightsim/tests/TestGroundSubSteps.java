@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.GroundContacts;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Drops the default Navion and a variant with stiff landing gear on the ground, integrating only the vertical motion of the aircraft,
+ * with several step sizes, and with one sub step of ground reaction, an automatic number of sub steps, or the implicit method. The
+ * altitude at rest and the oscillation of the altitude during the last second are printed: the oscillation must remain small
+ * with the automatic integration and the implicit method even when the gear is too stiff for the step size, and the altitude at
+ * rest must not depend on the step size nor on the method.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestGroundSubSteps {
+   private static final double GRAVITY = 32.174;
+   private static final double DURATION = 10;
+   private static final double[] STEP_SIZES = { 0.005, 0.02, 0.05 };
+
+   private void drop(String name, double springFactor) {
+      Aircraft aircraft = new Aircraft();
+      GroundContacts defaultContacts = aircraft.getGroundContacts();
+      GroundContacts contacts = new GroundContacts();
+      for (int i = 0; i < defaultContacts.size(); i++) {
+         contacts.addContact(defaultContacts.getName(i), defaultContacts.getType(i), defaultContacts.getX(i), defaultContacts.getY(i),
+                 defaultContacts.getZ(i), defaultContacts.getDamping(i) * Math.sqrt(springFactor), defaultContacts.getSpring(i) * springFactor);
+      }
+      aircraft.setGroundContacts(contacts);
+      double mass = aircraft.getMassProperty(MassProperties.TOTAL_MASS);
+
+      System.out.println("==== " + name + " ====");
+      for (double dt : STEP_SIZES) {
+         drop(aircraft, mass, dt, "1 sub step", 1, false);
+         drop(aircraft, mass, dt, "automatic", 0, false);
+         drop(aircraft, mass, dt, "implicit", 0, true);
+      }
+      System.out.println();
+   }
+
+   private void drop(Aircraft aircraft, double mass, double dt, String mode, int subSteps, boolean implicit) {
+      double[] linearVelocities = new double[3];
+      double[] NEDPosition = new double[3];
+      double[] eulerAngles = new double[3];
+      double[] angularRates = new double[3];
+      double[] windParameters = new double[3];
+      double[] sixDOFDerivatives = new double[14];
+      double[] integratorConfig = { 0, dt, DURATION };
+      Map<FlightControlType, Double> controls = new EnumMap<>(FlightControlType.class);
+      for (FlightControlType controlType : FlightControlType.values()) {
+         controls.put(controlType, 0.0);
+      }
+
+      IntegrateGroundReaction groundReaction = new IntegrateGroundReaction(linearVelocities, NEDPosition, eulerAngles, angularRates,
+              windParameters, sixDOFDerivatives, integratorConfig, aircraft, controls);
+      groundReaction.setSubSteps(subSteps);
+      groundReaction.setImplicit(implicit);
+
+      // Altitude and vertical speed, integrated with a semi-implicit Euler method
+      double altitude = 0;
+      double verticalSpeed = -5;
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      int steps = (int) Math.round(DURATION / dt);
+      int lastSecond = steps - (int) Math.round(1 / dt);
+
+      for (int i = 0; i < steps; i++) {
+         NEDPosition[2] = altitude;
+         sixDOFDerivatives[5] = verticalSpeed;
+         groundReaction.integrateStep(0, -GRAVITY);
+
+         verticalSpeed += dt * (-GRAVITY - groundReaction.getTotalGroundForces()[2] / mass);
+         altitude += dt * verticalSpeed;
+
+         if (i >= lastSecond) {
+            min = Math.min(min, altitude);
+            max = Math.max(max, altitude);
+         }
+      }
+
+      System.out.printf("dt %.3f s, %-10s (%2d %s sub steps): altitude %8.4f ft, oscillation %8.4f ft%n", dt, mode,
+              groundReaction.getSubSteps(), groundReaction.isImplicitStep() ? "implicit" : "explicit", altitude, max - min);
+   }
+
+   public static void main(String[] args) {
+      TestGroundSubSteps test = new TestGroundSubSteps();
+      test.drop("Navion", 1);
+      test.drop("Navion with stiff gear", 100);
+   }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.batch.BatchResult;
+import com.chrisali.javaflightsim.simulation.batch.BatchRun;
+import com.chrisali.javaflightsim.simulation.batch.BatchRunner;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.DifferentialEquations;
+import com.chrisali.javaflightsim.simulation.integration.DormandPrinceIntegrator;
+import com.chrisali.javaflightsim.simulation.integration.Integrator;
+import com.chrisali.javaflightsim.simulation.integration.IntegratorType;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import java.io.File;
+import java.util.EnumMap;
+
+/**
+ * Compares the integrators of {@link IntegratorType}: first on a harmonic oscillator, whose exact solution is known, then on an
+ * untrimmed Navion simulation, against a Runge-Kutta reference run with a small time step. The error, number of evaluations of the
+ * equations and wall time of each integrator are printed. The Dormand-Prince integrator must also end a frame whose equations give
+ * NaN derivatives.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestIntegrators {
+   private static final double OSCILLATOR_DT = 0.05;
+   private static final double OSCILLATOR_END = 20;
+   private static final double SIMULATION_END = 60;
+   private static final double REFERENCE_DT = 0.005;
+   private static final double SIMULATION_DT = 0.05;
+   private static final double ADAPTIVE_DT = 1;
+
+   public TestIntegrators(File outputDir) {
+      System.out.println("Harmonic oscillator, dt = " + OSCILLATOR_DT + " sec");
+      for (IntegratorType type : IntegratorType.values()) {
+         testOscillator(type);
+      }
+
+      System.out.println("Navion, " + SIMULATION_END + " sec");
+      BatchRunner runner = new BatchRunner(outputDir);
+      BatchResult reference = runSimulation(runner, IntegratorType.RUNGE_KUTTA_4, REFERENCE_DT);
+      printResult(reference, reference);
+      for (IntegratorType type : IntegratorType.values()) {
+         printResult(runSimulation(runner, type, SIMULATION_DT), reference);
+      }
+      printResult(runSimulation(runner, IntegratorType.DORMAND_PRINCE, ADAPTIVE_DT), reference);
+
+      testInvalidState();
+   }
+
+   private void testInvalidState() {
+      // The derivatives become NaN after 0.5 sec, in the middle of the frame
+      DifferentialEquations invalid = new DifferentialEquations() {
+         @Override
+         public int getDimension() {
+            return 1;
+         }
+
+         @Override
+         public void computeDerivatives(double t, double[] y, double[] yDot) {
+            yDot[0] = t < 0.5 ? 1 : Double.NaN;
+         }
+      };
+
+      DormandPrinceIntegrator integrator = new DormandPrinceIntegrator(1, IntegratorType.DEFAULT_TOLERANCE);
+      double[] y = new double[1];
+      long start = System.nanoTime();
+      integrator.integrate(invalid, 0, new double[]{0}, new double[]{1}, 1, y);
+      System.out.println("NaN derivatives: frame ended in " + (System.nanoTime() - start) / 1e6 + " ms with y = " + y[0] + ", accepted steps: "
+              + integrator.getAcceptedSteps() + ", rejected steps: " + integrator.getRejectedSteps() + ", next step: " + integrator.getStep());
+   }
+
+   private void testOscillator(IntegratorType type) {
+      // x'' = -x, with x(0) = 1 and x'(0) = 0; x is the position and v the velocity state
+      DifferentialEquations oscillator = new DifferentialEquations() {
+         @Override
+         public int getDimension() {
+            return 2;
+         }
+
+         @Override
+         public void computeDerivatives(double t, double[] y, double[] yDot) {
+            yDot[0] = y[1];
+            yDot[1] = -y[0];
+         }
+      };
+
+      Integrator integrator = type.createIntegrator(2, new int[]{1}, IntegratorType.DEFAULT_TOLERANCE);
+      double[] y0 = {1, 0};
+      double[] yDot0 = new double[2];
+      double[] y = new double[2];
+      double t = 0;
+      oscillator.computeDerivatives(t, y0, yDot0);
+      int steps = (int) Math.round(OSCILLATOR_END / OSCILLATOR_DT);
+      for (int i = 0; i < steps; i++) {
+         integrator.integrate(oscillator, t, y0, yDot0, OSCILLATOR_DT, y);
+         t += OSCILLATOR_DT;
+         System.arraycopy(y, 0, y0, 0, y.length);
+         oscillator.computeDerivatives(t, y0, yDot0);
+      }
+
+      double error = Math.hypot(y0[0] - Math.cos(t), y0[1] + Math.sin(t));
+      double energy = 0.5 * (y0[0] * y0[0] + y0[1] * y0[1]);
+      System.out.println(type + ": error: " + error + ", energy: " + energy + " (exact 0.5), evaluations: "
+              + (integrator.getEvaluations() + steps));
+      if (integrator instanceof DormandPrinceIntegrator) {
+         DormandPrinceIntegrator dormandPrince = (DormandPrinceIntegrator) integrator;
+         System.out.println("   accepted steps: " + dormandPrince.getAcceptedSteps() + ", rejected steps: " + dormandPrince.getRejectedSteps());
+      }
+   }
+
+   private BatchResult runSimulation(BatchRunner runner, IntegratorType type, double dt) {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      EnumMap<FlightControlType, Double> initialControls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0d);
+      integratorConfig.put(IntegratorConfig.DT, dt);
+      integratorConfig.put(IntegratorConfig.ENDTIME, SIMULATION_END);
+
+      // The aircraft is not trimmed, so that the initial conditions excite both the short period and phugoid modes
+      BatchRun run = new BatchRun(type.name() + "_" + dt, null, initialConditions, integratorConfig, initialControls);
+      run.setTrim(false);
+      run.setIntegrator(type, IntegratorType.DEFAULT_TOLERANCE);
+
+      return runner.runSimulation(run);
+   }
+
+   private void printResult(BatchResult result, BatchResult reference) {
+      if (!result.isSuccessful()) {
+         System.err.println(result);
+         return;
+      }
+
+      double altitudeError = result.getFinalSimOut().get(SimOuts.ALT) - reference.getFinalSimOut().get(SimOuts.ALT);
+      double airspeedError = result.getFinalSimOut().get(SimOuts.TAS) - reference.getFinalSimOut().get(SimOuts.TAS);
+      double pitchError = result.getFinalSimOut().get(SimOuts.THETA) - reference.getFinalSimOut().get(SimOuts.THETA);
+      System.out.println(result.getRun().getName() + ": altitude error: " + altitudeError + " ft, airspeed error: " + airspeedError
+              + " ft/sec, pitch error: " + pitchError + " rad, wall time: " + result.getElapsedTime() + " sec");
+   }
+
+   public static void main(String[] args) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      File outputDir = new File(System.getProperty("java.io.tmpdir"), "TestIntegrators");
+      outputDir.mkdirs();
+      new TestIntegrators(outputDir);
+   }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.parser.xml.JSBSimImporter;
+import com.chrisali.javaflightsim.simulation.aero.InterpolationTable;
+import com.chrisali.javaflightsim.simulation.aero.StabilityDerivatives;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftPackage;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Tests the {@link JSBSimImporter}: writes a JSBSim deck of a light single engine aircraft, with its engine and propeller files, to a
+ * temporary folder, imports it and prints its stability derivatives and the warnings of the import. An invalid nested function must
+ * be skipped without skipping the functions after it, and a second import with the same importer must give the same package. The
+ * imported aircraft is trimmed in level flight and flown for 60 seconds. A large deck, with a 3D table of 60000 values and 500 functions, is then generated and
+ * the time of its import is printed.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestJSBSimImporter {
+   private static final double DURATION = 60;
+   private static final int LARGE_FUNCTIONS = 500;
+
+   private static String lines(String... lines) {
+      StringBuilder sb = new StringBuilder();
+      for (String line : lines) {
+         sb.append(line).append("\n");
+      }
+      return sb.toString();
+   }
+
+   private static String function(String name, String... content) {
+      return "<function name=\"" + name + "\"><product>" + String.join("", content) + "</product></function>\n";
+   }
+
+   private static String property(String property) {
+      return "<property>" + property + "</property>";
+   }
+
+   private static String value(double value) {
+      return "<value>" + value + "</value>";
+   }
+
+   private static String table(String row, String data) {
+      return "<table><independentVar lookup=\"row\">" + row + "</independentVar><tableData>" + data + "</tableData></table>";
+   }
+
+   private static final String QS = property("aero/qbar-psf") + property("metrics/Sw-sqft");
+   private static final String QSB = QS + property("metrics/bw-ft");
+   private static final String QSC = QS + property("metrics/cbarw-ft");
+
+   private static String createDeck() {
+      return lines("<?xml version=\"1.0\"?>",
+              "<fdm_config name=\"c172x\" version=\"2.0\" release=\"BETA\">",
+              "<fileheader><author>test</author></fileheader>",
+              "<metrics>",
+              "  <wingarea unit=\"FT2\">174</wingarea><wingspan unit=\"FT\">35.8</wingspan><chord unit=\"FT\">4.9</chord>",
+              "  <htailarea unit=\"FT2\">21.9</htailarea><htailarm unit=\"FT\">15.7</htailarm>",
+              "  <location name=\"AERORP\" unit=\"IN\"><x>43.2</x><y>0</y><z>59.4</z></location>",
+              "</metrics>",
+              "<mass_balance>",
+              "  <ixx unit=\"SLUG*FT2\">948</ixx><iyy unit=\"SLUG*FT2\">1346</iyy><izz unit=\"SLUG*FT2\">1967</izz>",
+              "  <emptywt unit=\"LBS\">1500</emptywt>",
+              "  <location name=\"CG\" unit=\"IN\"><x>41</x><y>0</y><z>36.5</z></location>",
+              "  <pointmass name=\"PILOT\"><weight unit=\"LBS\">180</weight>",
+              "    <location unit=\"IN\"><x>36</x><y>-14</y><z>24</z></location></pointmass>",
+              "</mass_balance>",
+              "<ground_reactions>",
+              "  <contact type=\"BOGEY\" name=\"NOSE\"><location unit=\"IN\"><x>-6.8</x><y>0</y><z>-20</z></location>",
+              "    <static_friction>0.8</static_friction><dynamic_friction>0.5</dynamic_friction><rolling_friction>0.02</rolling_friction>",
+              "    <spring_coeff unit=\"LBS/FT\">1800</spring_coeff><damping_coeff unit=\"LBS/FT/SEC\">600</damping_coeff>",
+              "    <max_steer unit=\"DEG\">10</max_steer><brake_group>NONE</brake_group></contact>",
+              "  <contact type=\"BOGEY\" name=\"LEFT_MAIN\"><location unit=\"IN\"><x>58.2</x><y>-43</y><z>-17.9</z></location>",
+              "    <static_friction>0.8</static_friction><dynamic_friction>0.5</dynamic_friction><rolling_friction>0.02</rolling_friction>",
+              "    <spring_coeff unit=\"LBS/FT\">5400</spring_coeff><damping_coeff unit=\"LBS/FT/SEC\">1600</damping_coeff>",
+              "    <max_steer unit=\"DEG\">0</max_steer><brake_group>LEFT</brake_group></contact>",
+              "  <contact type=\"BOGEY\" name=\"RIGHT_MAIN\"><location unit=\"IN\"><x>58.2</x><y>43</y><z>-17.9</z></location>",
+              "    <static_friction>0.8</static_friction><dynamic_friction>0.5</dynamic_friction><rolling_friction>0.02</rolling_friction>",
+              "    <spring_coeff unit=\"LBS/FT\">5400</spring_coeff><damping_coeff unit=\"LBS/FT/SEC\">1600</damping_coeff>",
+              "    <max_steer unit=\"DEG\">0</max_steer><brake_group>RIGHT</brake_group></contact>",
+              "  <contact type=\"STRUCTURE\" name=\"TAIL_SKID\"><location unit=\"IN\"><x>188</x><y>0</y><z>8</z></location>",
+              "    <static_friction>0.2</static_friction><dynamic_friction>0.2</dynamic_friction>",
+              "    <spring_coeff unit=\"LBS/FT\">20000</spring_coeff><damping_coeff unit=\"LBS/FT/SEC\">1000</damping_coeff></contact>",
+              "</ground_reactions>",
+              "<propulsion>",
+              "  <engine file=\"eng_io320\"><location unit=\"IN\"><x>-19.7</x><y>0</y><z>26.6</z></location>",
+              "    <thruster file=\"prop_75in2f\"><location unit=\"IN\"><x>-37.7</x><y>0</y><z>26.6</z></location></thruster></engine>",
+              "  <tank type=\"FUEL\"><location unit=\"IN\"><x>56</x><y>-112</y><z>59.4</z></location>",
+              "    <capacity unit=\"LBS\">130</capacity><contents unit=\"LBS\">100</contents></tank>",
+              "  <tank type=\"FUEL\"><location unit=\"IN\"><x>56</x><y>112</y><z>59.4</z></location>",
+              "    <capacity unit=\"LBS\">130</capacity><contents unit=\"LBS\">100</contents></tank>",
+              "</propulsion>",
+              "<flight_control name=\"c172\"><channel name=\"Pitch\"><summer name=\"fcs/pitch-trim-sum\">",
+              "  <input>fcs/elevator-cmd-norm</input><input>fcs/pitch-trim-cmd-norm</input></summer></channel></flight_control>",
+              "<system name=\"ignored\"><channel name=\"none\"><switch name=\"test\"><default value=\"0\"/></switch></channel></system>",
+              "<aerodynamics>",
+              "  <function name=\"aero/function/kCLge\"><table><independentVar>aero/h_b-mac-ft</independentVar>",
+              "    <tableData>0.0 1.203\n0.1 1.127\n0.15 1.090\n0.2 1.073\n0.3 1.046\n0.4 1.055\n0.5 1.019\n0.6 1.013\n0.7 1.008\n0.8 1.006\n"
+              + "0.9 1.003\n1.0 1.002\n1.1 1.0</tableData></table></function>",
+              "  <axis name=\"LIFT\">",
+              function("aero/coefficient/CLwbh", QS, property("aero/function/kCLge"),
+                      table("aero/alpha-rad", "-0.09 -0.22\n0 0.25\n0.09 0.73\n0.1 0.83\n0.12 0.92\n0.14 1.02\n0.16 1.08\n0.17 1.13\n"
+                              + "0.19 1.19\n0.21 1.25\n0.24 1.35\n0.26 1.44\n0.28 1.47\n0.3 1.43\n0.32 1.38\n0.34 1.3\n0.36 1.15\n0.6 0.73")),
+              function("aero/coefficient/dCLflap", QS, table("fcs/flap-pos-deg", "0 0\n10 0.2\n20 0.3\n30 0.35")),
+              function("aero/coefficient/CLde", QS, property("fcs/elevator-pos-rad"), value(0.43)),
+              function("aero/coefficient/CLadot", QS, property("aero/alphadot-rad_sec"), property("aero/ci2vel"), value(1.7)),
+              function("aero/coefficient/CLq", QS, property("velocities/q-aero-rad_sec"), property("aero/ci2vel"), value(3.9)),
+              "  </axis>",
+              "  <axis name=\"DRAG\">",
+              function("aero/coefficient/CD0", QS, table("aero/alpha-rad", "-0.0872664 0.028\n-0.0698132 0.026\n-0.0523599 0.024\n"
+                      + "0 0.026\n0.0523599 0.03\n0.0872664 0.04\n0.174533 0.065\n0.349066 0.17\n0.6 0.4")),
+              function("aero/coefficient/CDi", QS, property("aero/cl-squared"), value(0.043)),
+              function("aero/coefficient/CDde", QS, property("fcs/mag-elevator-pos-rad"), value(0.06)),
+              function("aero/coefficient/CDdf", QS, table("fcs/flap-pos-deg", "0 0\n10 0.007\n20 0.012\n30 0.018")),
+              "    <function name=\"aero/coefficient/CDbeta\"><description>Drag due to sideslip</description><product>" + QS
+              + "<abs><property>aero/beta-rad</property></abs><value>0.15</value></product></function>",
+              "  </axis>",
+              "  <axis name=\"SIDE\">",
+              function("aero/coefficient/CYb", QS, property("aero/beta-rad"), value(-0.393)),
+              function("aero/coefficient/CYdr", QS, property("fcs/rudder-pos-rad"), value(0.187)),
+              "  </axis>",
+              "  <axis name=\"ROLL\">",
+              function("aero/coefficient/Clb", QSB, property("aero/beta-rad"), value(-0.0923)),
+              function("aero/coefficient/Clp", QSB, property("aero/bi2vel"), property("velocities/p-aero-rad_sec"), value(-0.484)),
+              function("aero/coefficient/Clr", QSB, property("aero/bi2vel"), property("velocities/r-aero-rad_sec"), value(0.0798)),
+              function("aero/coefficient/Clda", QSB, property("fcs/left-aileron-pos-rad"), value(0.229)),
+              function("aero/coefficient/Cldr", QSB, property("fcs/rudder-pos-rad"), value(0.0147)),
+              "  </axis>",
+              "  <axis name=\"PITCH\">",
+              "    <function name=\"aero/coefficient/Cminvalid\"><product><function name=\"aero/function/invalid\"><value>none</value>"
+              + "</function><value>1</value></product></function>",
+              function("aero/coefficient/Cm0", QSC, value(0.1)),
+              function("aero/coefficient/Cmalpha", QSC, property("aero/alpha-rad"), value(-1.8)),
+              function("aero/coefficient/Cmq", QSC, property("aero/ci2vel"), property("velocities/q-aero-rad_sec"), value(-12.4)),
+              function("aero/coefficient/Cmadot", QSC, property("aero/ci2vel"), property("aero/alphadot-rad_sec"), value(-5.2)),
+              function("aero/coefficient/Cmde", QSC, property("fcs/elevator-pos-rad"),
+                      table("aero/alpha-deg", "-10 -1.3\n0 -1.28\n10 -1.25\n20 -1.1")),
+              function("aero/coefficient/Cmdf", QSC, table("fcs/flap-pos-deg", "0 0\n10 -0.0654\n20 -0.0981\n30 -0.114")),
+              "  </axis>",
+              "  <axis name=\"YAW\">",
+              function("aero/coefficient/Cnb", QSB, property("aero/beta-rad"), value(0.0587)),
+              function("aero/coefficient/Cnp", QSB, property("aero/bi2vel"), property("velocities/p-aero-rad_sec"), value(-0.0278)),
+              function("aero/coefficient/Cnr", QSB, property("aero/bi2vel"), property("velocities/r-aero-rad_sec"), value(-0.0937)),
+              function("aero/coefficient/Cnda", QSB, property("fcs/left-aileron-pos-rad"), value(-0.0053)),
+              function("aero/coefficient/Cndr", QSB, property("fcs/rudder-pos-rad"), value(-0.043)),
+              "  </axis>",
+              "</aerodynamics>",
+              "<output name=\"out.csv\" type=\"CSV\" rate=\"10\"><property>position/h-sl-ft</property></output>",
+              "</fdm_config>");
+   }
+
+   private static String createEngine() {
+      return lines("<?xml version=\"1.0\"?>",
+              "<piston_engine name=\"Lycoming IO-320\">",
+              "  <minmp unit=\"INHG\">10.0</minmp><maxmp unit=\"INHG\">28.5</maxmp>",
+              "  <displacement unit=\"IN3\">320</displacement><maxhp>160</maxhp><cycles>2.0</cycles><idlerpm>550</idlerpm>",
+              "  <maxrpm>2700</maxrpm><sparkfaildrop>0.1</sparkfaildrop>",
+              "</piston_engine>");
+   }
+
+   private static String createPropeller() {
+      return lines("<?xml version=\"1.0\"?>",
+              "<propeller name=\"prop\">",
+              "  <ixx>1.67</ixx><diameter unit=\"IN\">75</diameter><numblades>2</numblades><gearratio>1.0</gearratio>",
+              "  <minpitch>20</minpitch><maxpitch>20</maxpitch>",
+              "  <table name=\"C_THRUST\" type=\"internal\"><tableData>",
+              "    0.0 0.068\n0.1 0.068\n0.2 0.067\n0.3 0.066\n0.4 0.064\n0.5 0.062\n0.6 0.059\n0.7 0.054\n0.8 0.043\n0.9 0.031",
+              "    1.0 0.019\n1.1 0.008\n1.2 -0.001\n1.3 -0.008\n1.4 -0.019\n1.5 -0.029\n1.6 -0.040\n1.7 -0.050\n1.8 -0.057",
+              "  </tableData></table>",
+              "  <table name=\"C_POWER\" type=\"internal\"><tableData>",
+              "    0.0 0.0580\n0.1 0.0620\n0.2 0.0600\n0.3 0.0580\n0.4 0.0550\n0.5 0.0510\n0.6 0.0460\n0.7 0.0390\n0.8 0.0300",
+              "    0.9 0.0200\n1.0 0.0060\n1.1 -0.0060\n1.2 -0.0180\n1.3 -0.0280\n1.4 -0.0390\n1.5 -0.0510\n1.6 -0.0630",
+              "  </tableData></table>",
+              "</propeller>");
+   }
+
+   /**
+    * Creates a deck with a large 3D table of the angle of attack, the flap position and the Mach number, and many functions.
+    */
+   private static String createLargeDeck() {
+      StringBuilder sb = new StringBuilder(createDeck().replace("</aerodynamics>", ""));
+      sb.setLength(sb.indexOf("<output"));
+      sb.append("<axis name=\"LIFT\">\n<function name=\"aero/coefficient/CLlarge\"><product>").append(QS);
+      sb.append("<table><independentVar lookup=\"row\">aero/alpha-rad</independentVar>");
+      sb.append("<independentVar lookup=\"column\">fcs/flap-pos-deg</independentVar>");
+      sb.append("<independentVar lookup=\"table\">velocities/mach</independentVar>\n");
+      for (int mach = 0; mach < 15; mach++) {
+         sb.append("<tableData breakPoint=\"").append(mach * 0.1).append("\">\n");
+         for (int flap = 0; flap < 40; flap++) {
+            sb.append(" ").append(flap * 0.75);
+         }
+         sb.append("\n");
+         for (int alpha = -50; alpha < 50; alpha++) {
+            sb.append(Math.toRadians(alpha * 0.5));
+            for (int flap = 0; flap < 40; flap++) {
+               sb.append(" ").append(0.01 * (alpha * 0.5 + flap * 0.1 + mach));
+            }
+            sb.append("\n");
+         }
+         sb.append("</tableData>\n");
+      }
+      sb.append("</table></product></function>\n");
+      for (int i = 0; i < LARGE_FUNCTIONS; i++) {
+         sb.append(function("aero/coefficient/CLlarge" + i, QS, property("fcs/elevator-pos-rad"), value(0.001),
+                 table("aero/alpha-deg", "-10 0.9\n0 1.0\n10 1.1\n20 0.8")));
+      }
+      sb.append("</axis>\n</aerodynamics>\n</fdm_config>\n");
+      return sb.toString();
+   }
+
+   private static void write(File file, String content) throws IOException {
+      Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static void delete(File file) {
+      File[] files = file.listFiles();
+      if (files != null) {
+         for (File child : files) {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+
+   private static void printDerivatives(AircraftPackage aircraftPackage) {
+      AircraftBuilder ab = new AircraftBuilder(aircraftPackage);
+      for (StabilityDerivatives stabDer : StabilityDerivatives.values()) {
+         Object value = ab.getAircraft().getStabilityDerivative(stabDer);
+         if (value instanceof InterpolationTable) {
+            InterpolationTable table = (InterpolationTable) value;
+            System.out.printf("%-14s table of %d alphas and %d flaps, %.4f at alpha 0 and flaps 0%n", stabDer,
+                    table.getBreakpoints(0).length, table.getBreakpoints(1).length, table.value(0, 0));
+         } else {
+            System.out.printf("%-14s %.4f%n", stabDer, (Double) value);
+         }
+      }
+      System.out.println(ab.getAircraft().getMassProps());
+      System.out.print(ab.getAircraft().getGroundContacts());
+      System.out.print(ab.getAircraft().getFuelTanks());
+      for (Engine engine : ab.getEngineList()) {
+         System.out.println(engine);
+      }
+   }
+
+   private static void trimAndFly(AircraftPackage aircraftPackage) {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+
+      TrimResult result = new TrimSolver(new AircraftBuilder(aircraftPackage)).trim(new TrimCondition(170, 5000), controls);
+      System.out.println(result);
+      result.apply(initialConditions, controls);
+
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, DURATION);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, new AircraftBuilder(aircraftPackage),
+              EnumSet.of(Options.ANALYSIS_MODE), initialConditions, integratorConfig, 1);
+      int steps = (int) Math.round(DURATION / integratorConfig.get(IntegratorConfig.DT));
+      for (int i = 0; i < steps; i++) {
+         runSim.onFrame(i);
+      }
+
+      Map<SimOuts, Double> simOut = runSim.getSimOut();
+      System.out.printf("after %.0f s: TAS %.3f ft/s, altitude %.1f ft, theta %.3f deg, phi %.3f deg, psi %.3f deg%n", DURATION,
+              simOut.get(SimOuts.TAS), simOut.get(SimOuts.ALT), Math.toDegrees(simOut.get(SimOuts.THETA)),
+              Math.toDegrees(simOut.get(SimOuts.PHI)), Math.toDegrees(simOut.get(SimOuts.PSI)));
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration.getInstance().setDefaultConfiguration();
+      File dir = Files.createTempDirectory("jsbsim").toFile();
+      File engineDir = new File(dir, "Engines");
+      engineDir.mkdirs();
+      File deck = new File(dir, "c172x.xml");
+      write(deck, createDeck());
+      write(new File(engineDir, "eng_io320.xml"), createEngine());
+      write(new File(engineDir, "prop_75in2f.xml"), createPropeller());
+
+      System.out.println("==== Import ====");
+      JSBSimImporter importer = new JSBSimImporter(deck);
+      AircraftPackage aircraftPackage = importer.importAircraft();
+      System.out.println(aircraftPackage.getName() + ": " + importer.getWarnings().size() + " warnings");
+      printDerivatives(aircraftPackage);
+
+      File first = new File(dir, "first.acp");
+      File second = new File(dir, "second.acp");
+      aircraftPackage.write(first);
+      importer.importAircraft().write(second);
+      boolean same = Arrays.equals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+      System.out.println("Second import: " + importer.getWarnings().size() + " warnings, same package: " + same);
+      if (!same) {
+         System.err.println("The second import gives another package!");
+      }
+
+      System.out.println("\n==== Trim and flight ====");
+      trimAndFly(aircraftPackage);
+
+      System.out.println("\n==== Large deck ====");
+      File largeDeck = new File(dir, "large.xml");
+      write(largeDeck, createLargeDeck());
+      System.out.println(largeDeck.length() / 1024 + " kB");
+      for (int i = 0; i < 5; i++) {
+         long start = System.nanoTime();
+         JSBSimImporter largeImporter = new JSBSimImporter(largeDeck);
+         AircraftPackage largePackage = largeImporter.importAircraft();
+         double elapsed = (System.nanoTime() - start) / 1.0e6;
+         InterpolationTable cl0 = (InterpolationTable) largePackage.createAircraft().getStabilityDerivative(StabilityDerivatives.CL_0);
+         System.out.printf("import in %.1f ms, %d warnings, CL_0 table of %d alphas and %d flaps%n", elapsed,
+                 largeImporter.getWarnings().size(), cl0.getBreakpoints(0).length, cl0.getBreakpoints(1).length);
+      }
+
+      delete(dir);
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.LinearModel;
+import com.chrisali.javaflightsim.simulation.setup.Linearizer;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Trims the default Navion in level flight, linearizes it with a {@link Linearizer} on one thread and on all available processors, and
+ * prints the A and B matrices, eigenvalues and modes, and the time of a linearization. The response of the linear model to a small
+ * perturbation of the pitch and roll rates is then compared to the response of the nonlinear simulation.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestLinearizer {
+   private static final double DURATION = 10;
+   private static final double DELTA_Q = 0.02;
+   private static final double DELTA_P = 0.05;
+
+   private static AircraftBuilder[] createBuilders(int count) {
+      AircraftBuilder[] builders = new AircraftBuilder[count];
+      for (int i = 0; i < count; i++) {
+         builders[i] = new AircraftBuilder();
+      }
+      return builders;
+   }
+
+   private static void time(String name, Linearizer linearizer, TrimResult trim, Map<FlightControlType, Double> controls) {
+      int runs = 2000;
+      long start = System.nanoTime();
+      for (int i = 0; i < runs; i++) {
+         linearizer.linearize(trim, controls);
+      }
+      System.out.printf("%s: %.1f us per linearization%n", name, (System.nanoTime() - start) / 1e3 / runs);
+   }
+
+   private static void compareResponses(LinearModel model, TrimResult trim, EnumMap<FlightControlType, Double> controls) {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      EnumMap<FlightControlType, Double> trimmedControls = new EnumMap<>(controls);
+      trim.apply(initialConditions, trimmedControls);
+      initialConditions.put(InitialConditions.INITQ, initialConditions.get(InitialConditions.INITQ) + DELTA_Q);
+      initialConditions.put(InitialConditions.INITP, initialConditions.get(InitialConditions.INITP) + DELTA_P);
+
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, DURATION);
+      double dt = integratorConfig.get(IntegratorConfig.DT);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(trimmedControls, new AircraftBuilder(), EnumSet.of(Options.ANALYSIS_MODE),
+              initialConditions, integratorConfig, 1);
+
+      // Linear response integrated with the classical Runge-Kutta method at the same time step
+      double[] x = new double[LinearModel.STATES];
+      x[10] = DELTA_Q;
+      x[9] = DELTA_P;
+      double[] u = new double[LinearModel.INPUTS];
+      double[][] k = new double[4][LinearModel.STATES];
+      double[] xStage = new double[LinearModel.STATES];
+
+      System.out.println("==== Response to " + DELTA_Q + " rad/s of pitch rate and " + DELTA_P + " rad/s of roll rate ====");
+      System.out.println("  time   delta u (lin / sim)   delta theta deg (lin / sim)   delta phi deg (lin / sim)   delta r deg/s (lin / sim)");
+      int steps = (int) Math.round(DURATION / dt);
+      for (int i = 1; i <= steps; i++) {
+         runSim.onFrame(i);
+
+         model.calculateDerivatives(x, u, k[0]);
+         for (int stage = 1; stage < 4; stage++) {
+            double factor = (stage == 3) ? dt : dt / 2;
+            for (int j = 0; j < x.length; j++) {
+               xStage[j] = x[j] + factor * k[stage - 1][j];
+            }
+            model.calculateDerivatives(xStage, u, k[stage]);
+         }
+         for (int j = 0; j < x.length; j++) {
+            x[j] += dt / 6 * (k[0][j] + 2 * k[1][j] + 2 * k[2][j] + k[3][j]);
+         }
+
+         if (i % Math.round(1 / dt) == 0) {
+            Map<SimOuts, Double> simOut = runSim.getSimOut();
+            System.out.printf("%5.1f %10.4f / %-10.4f %12.4f / %-12.4f %12.4f / %-12.4f %12.4f / %-12.4f%n", i * dt,
+                    x[0], simOut.get(SimOuts.U) - trim.getState(0),
+                    Math.toDegrees(x[7]), Math.toDegrees(simOut.get(SimOuts.THETA) - trim.getState(7)),
+                    Math.toDegrees(x[6]), Math.toDegrees(simOut.get(SimOuts.PHI) - trim.getState(6)),
+                    Math.toDegrees(x[11]), Math.toDegrees(simOut.get(SimOuts.R) - trim.getState(11)));
+         }
+      }
+   }
+
+   public static void main(String[] args) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+
+      TrimResult trim = new TrimSolver(new AircraftBuilder()).trim(new TrimCondition(180, 5000), controls);
+      System.out.println(trim);
+
+      Linearizer sequential = new Linearizer(createBuilders(1));
+      Linearizer parallel = new Linearizer(createBuilders(Runtime.getRuntime().availableProcessors()));
+      LinearModel model = sequential.linearize(trim, controls);
+      System.out.println(model);
+
+      double[][] a1 = model.getA();
+      double[][] a2 = parallel.linearize(trim, controls).getA();
+      boolean identical = true;
+      for (int i = 0; i < a1.length; i++) {
+         for (int j = 0; j < a1[i].length; j++) {
+            identical &= Double.compare(a1[i][j], a2[i][j]) == 0;
+         }
+      }
+      System.out.println("Sequential and parallel models identical: " + identical);
+
+      for (int i = 0; i < 3; i++) {
+         time("1 thread", sequential, trim, controls);
+         time(Runtime.getRuntime().availableProcessors() + " threads", parallel, trim, controls);
+      }
+
+      compareResponses(model, trim, controls);
+   }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.batch.BatchRunner;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.Atmosphere;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.propulsion.PistonPropEngine;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Tests the table driven {@link PistonPropEngine}: prints its steady state with a fixed pitch and a constant speed propeller over a range
+ * of airspeeds, its RPM response to a throttle and a propeller control step, and the cost of an update per engine. A twin engine Navion
+ * with constant speed propellers is then trimmed and simulated from its trim, and should stay near its trimmed state.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestPropulsion {
+   private static final double[] CONTROLS = new double[FlightControlType.values().length];
+   private static final double[] ENVIRONMENT = new double[EnvironmentParameters.values().length];
+   private static final double[] WIND = new double[3];
+
+   private static PistonPropEngine createEngine(boolean constantSpeed, int engineNumber) {
+      PistonPropEngine engine = new PistonPropEngine("Lycoming IO-360", 200, 2700, 6.5, new double[]{ 0, 0, 0 }, engineNumber);
+      if (constantSpeed) {
+         engine.setConstantSpeed(PistonPropEngine.DEFAULT_MIN_BLADE_ANGLE, PistonPropEngine.DEFAULT_MAX_BLADE_ANGLE, 1800);
+      }
+      return engine;
+   }
+
+   private static void setControls(double throttle, double propeller) {
+      for (int i = 0; i < 4; i++) {
+         CONTROLS[FlightControlType.THROTTLE_1.ordinal() + i] = throttle;
+         CONTROLS[FlightControlType.PROPELLER_1.ordinal() + i] = propeller;
+         CONTROLS[FlightControlType.MIXTURE_1.ordinal() + i] = 1.0;
+      }
+   }
+
+   private static void printSteadyStates(PistonPropEngine engine) {
+      System.out.println("==== Steady state at sea level, full throttle: " + (engine.isConstantSpeed() ? "constant speed" : "fixed pitch") + " ====");
+      System.out.println("  V (ft/s)      RPM   blade (deg)  thrust (lbf)     BHP    eta   fuel (gal/hr)");
+      setControls(1.0, 1.0);
+      engine.setSteadyState(true);
+      for (int v = 0; v <= 250; v += 50) {
+         WIND[0] = v;
+         engine.updateEngineState(CONTROLS, ENVIRONMENT, WIND);
+         System.out.printf("%9d %9.1f %11.2f %13.1f %9.1f %6.3f %10.2f%n", v, engine.getRPM(), engine.getBladeAngle(), engine.getThrust()[0],
+                 engine.getBHP(), engine.getPropEfficiency(), engine.getFuelFlow());
+      }
+      engine.setSteadyState(false);
+   }
+
+   private static void printStepResponse(PistonPropEngine engine, double dt, double throttle, double propeller) {
+      WIND[0] = 150;
+      setControls(0.4, 0.0);
+      engine.setSteadyState(true);
+      engine.updateEngineState(CONTROLS, ENVIRONMENT, WIND);
+      engine.setSteadyState(false);
+
+      System.out.printf("==== Step from throttle 0.4, propeller 0 to throttle %.1f, propeller %.1f at 150 ft/s, dt = %.3f s ====%n",
+              throttle, propeller, dt);
+      setControls(throttle, propeller);
+      int steps = (int) Math.round(6 / dt);
+      for (int i = 0; i <= steps; i++) {
+         engine.updateEngineState(CONTROLS, ENVIRONMENT, WIND);
+         if (i % Math.round(0.5 / dt) == 0) {
+            System.out.printf("%5.1f s: %7.1f RPM, blade %6.2f deg, thrust %6.1f lbf%n", i * dt, engine.getRPM(), engine.getBladeAngle(),
+                    engine.getThrust()[0]);
+         }
+         engine.advance(dt);
+      }
+
+      engine.setSteadyState(true);
+      engine.updateEngineState(CONTROLS, ENVIRONMENT, WIND);
+      engine.setSteadyState(false);
+      System.out.printf("Steady state: %7.1f RPM, blade %6.2f deg%n", engine.getRPM(), engine.getBladeAngle());
+   }
+
+   private static void time(int engineCount) {
+      PistonPropEngine[] engines = new PistonPropEngine[engineCount];
+      for (int i = 0; i < engineCount; i++) {
+         engines[i] = createEngine(true, i + 1);
+      }
+      setControls(0.7, 0.8);
+      WIND[0] = 180;
+
+      int runs = 1000000;
+      for (int pass = 0; pass < 3; pass++) {
+         long start = System.nanoTime();
+         for (int i = 0; i < runs; i++) {
+            for (PistonPropEngine engine : engines) {
+               engine.updateEngineState(CONTROLS, ENVIRONMENT, WIND);
+               engine.advance(0.01);
+            }
+         }
+         System.out.printf("%d engine(s): %.1f ns per step and engine%n", engineCount, (System.nanoTime() - start) / (double) runs / engineCount);
+      }
+   }
+
+   private static void simulateTwin() {
+      Configuration conf = Configuration.getInstance();
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      controls.put(FlightControlType.PROPELLER_1, 0.8);
+      controls.put(FlightControlType.PROPELLER_2, 0.8);
+
+      AircraftBuilder ab = BatchRunner.createAircraftBuilder("TwinNavion");
+      ab.getEngineList().clear();
+      for (int i = 1; i <= 2; i++) {
+         PistonPropEngine engine = new PistonPropEngine("Lycoming IO-360", 200, 2700, 6.5, new double[]{ 0, (i == 1) ? 5 : -5, 0 }, i);
+         engine.setConstantSpeed(PistonPropEngine.DEFAULT_MIN_BLADE_ANGLE, PistonPropEngine.DEFAULT_MAX_BLADE_ANGLE, 1800);
+         ab.getEngineList().add(engine);
+      }
+
+      TrimResult trim = new TrimSolver(ab).trim(new TrimCondition(180, 5000), controls);
+      System.out.println("==== Twin Navion with constant speed propellers ====");
+      System.out.println(trim);
+
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      trim.apply(initialConditions, controls);
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, 20.0);
+      double dt = integratorConfig.get(IntegratorConfig.DT);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, EnumSet.of(Options.ANALYSIS_MODE), initialConditions,
+              integratorConfig, 1);
+
+      int steps = (int) Math.round(20 / dt);
+      for (int i = 1; i <= steps; i++) {
+         runSim.onFrame(i);
+         if (i % Math.round(5 / dt) == 0) {
+            Map<SimOuts, Double> simOut = runSim.getSimOut();
+            System.out.printf("%5.1f s: u %7.2f ft/s, alt %8.1f ft, theta %6.3f deg, RPM %7.1f / %7.1f%n", i * dt, simOut.get(SimOuts.U),
+                    simOut.get(SimOuts.ALT), Math.toDegrees(simOut.get(SimOuts.THETA)), simOut.get(SimOuts.RPM_1), simOut.get(SimOuts.RPM_2));
+         }
+      }
+      for (Engine engine : ab.getEngineList()) {
+         System.out.printf("Engine %d: blade %.2f deg%n", engine.getEngineNumber(), ((PistonPropEngine) engine).getBladeAngle());
+      }
+   }
+
+   public static void main(String[] args) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+      new Atmosphere().update(0, ENVIRONMENT);
+
+      printSteadyStates(createEngine(false, 1));
+      printSteadyStates(createEngine(true, 1));
+
+      printStepResponse(createEngine(false, 1), 0.05, 1.0, 0.0);
+      printStepResponse(createEngine(false, 1), 0.005, 1.0, 0.0);
+      printStepResponse(createEngine(true, 1), 0.05, 0.4, 1.0);
+      printStepResponse(createEngine(true, 1), 0.005, 0.4, 1.0);
+
+      time(1);
+      time(4);
+
+      simulateTwin();
+   }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.TurbulenceIntensity;
+import com.chrisali.javaflightsim.simulation.integration.FrameListener;
+import com.chrisali.javaflightsim.simulation.integration.FramePhase;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.IntegratorType;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.recording.SessionRecorder;
+import com.chrisali.javaflightsim.simulation.recording.SessionRecording;
+import com.chrisali.javaflightsim.simulation.recording.SessionReplayer;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests the record and replay of sessions: flies the default Navion in moderate turbulence with a random pilot moving the stick and
+ * throttle, a varying terrain height and a pause, records the session, then replays it headless and checks that it is reproduced bit
+ * for bit, and that a replay with another integrator is reported as divergent.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestSessionReplay {
+   private static final double DURATION = 300;
+
+   private static Map<SimOuts, Double> record(File file) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      final EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      AircraftBuilder ab = new AircraftBuilder();
+      EnumMap<InitialConditions, Double> initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      EnumMap<IntegratorConfig, Double> integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+      new TrimSolver(ab).trim(new TrimCondition(180, 3000), controls).apply(initialConditions, controls);
+      integratorConfig.put(IntegratorConfig.STARTTIME, 0.0);
+      integratorConfig.put(IntegratorConfig.ENDTIME, DURATION);
+      final EnumSet<Options> options = EnumSet.of(Options.ANALYSIS_MODE);
+      final Integrate6DOFEquations runSim = new Integrate6DOFEquations(controls, ab, options, initialConditions, integratorConfig, 1);
+      runSim.getWeather().setSeed(42);
+      runSim.getWeather().setTurbulenceIntensity(TurbulenceIntensity.MODERATE);
+      runSim.setIntegrator(IntegratorType.SEMI_IMPLICIT_EULER, IntegratorType.DEFAULT_TOLERANCE);
+
+      // Random pilot inputs, sampled in the input phase of each frame like the pilot in the loop controls
+      final double elevator = controls.get(FlightControlType.ELEVATOR);
+      final double throttle = controls.get(FlightControlType.THROTTLE_1);
+      runSim.getFrameScheduler().addFrameListener(new FrameListener() {
+         private final Random random = new Random();
+
+         @Override
+         public void onFrame(long frameIndex) {
+            if (frameIndex % 20 == 0) {
+               controls.put(FlightControlType.ELEVATOR, elevator + 0.02 * (random.nextDouble() - 0.5));
+               controls.put(FlightControlType.AILERON, 0.05 * (random.nextDouble() - 0.5));
+               controls.put(FlightControlType.RUDDER, 0.05 * (random.nextDouble() - 0.5));
+               controls.put(FlightControlType.THROTTLE_1, Math.min(1, throttle + 0.1 * random.nextDouble()));
+               runSim.setTerrainHeight(500 * random.nextDouble());
+            }
+            if (frameIndex == 1000) {
+               options.add(Options.PAUSED);
+            } else if (frameIndex == 1100) {
+               options.remove(Options.PAUSED);
+            }
+         }
+      }, FramePhase.INPUT);
+
+      long start = System.nanoTime();
+      try (SessionRecorder recorder = new SessionRecorder(file, runSim)) {
+         runSim.run();
+         System.out.printf("==== Session of %.0f s recorded in %.2f s: %d frames, %d bytes ====%n", DURATION,
+                 (System.nanoTime() - start) / 1e9, recorder.getFrames(), file.length());
+      }
+      return runSim.getSimOut();
+   }
+
+   private static void replay(File file, IntegratorType integratorType, Map<SimOuts, Double> recorded) throws IOException {
+      SessionReplayer replayer = new SessionReplayer(file);
+      if (integratorType != null) {
+         replayer.getSimulation().setIntegrator(integratorType, IntegratorType.DEFAULT_TOLERANCE);
+      }
+      SessionRecording session = replayer.getSession();
+      long start = System.nanoTime();
+      replayer.replay();
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      Map<SimOuts, Double> simOut = replayer.getSimulation().getSimOut();
+
+      System.out.println("==== Replay of " + session + (integratorType == null ? "" : " with " + integratorType) + " ====");
+      System.out.printf("%d frames in %.2f s (%.0f times faster than real time), first divergent frame %d, %d divergent frames%n",
+              replayer.getFrames(), elapsed, replayer.getSimulation().getTime() / elapsed, replayer.getDivergentFrame(),
+              replayer.getDivergentFrames());
+      System.out.printf("Final time %.2f s, alt %.6f ft (recorded %.6f), psi %.6f rad (recorded %.6f)%n", simOut.get(SimOuts.TIME),
+              simOut.get(SimOuts.ALT), recorded.get(SimOuts.ALT), simOut.get(SimOuts.PSI), recorded.get(SimOuts.PSI));
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      File file = File.createTempFile("session", SessionRecording.EXTENSION);
+      try {
+         Map<SimOuts, Double> recorded = record(file);
+         replay(file, null, recorded);
+         replay(file, IntegratorType.EULER, recorded);
+      } finally {
+         file.delete();
+      }
+   }
+}
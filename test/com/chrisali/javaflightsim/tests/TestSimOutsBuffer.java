@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.integration.SimOutsBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outputs to a {@link SimOutsBuffer} as fast as possible while several reader threads copy them, and checks that each copy
+ * is consistent: all the values of a publication are set to its version, so that a torn copy would mix several versions. The number
+ * of reads, torn reads and the mean cost of a publication are printed.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestSimOutsBuffer {
+   private static final int READERS = 3;
+   private static final long PUBLICATIONS = 2000000;
+
+   private final SimOutsBuffer buffer = new SimOutsBuffer();
+   private final AtomicLong reads = new AtomicLong();
+   private final AtomicLong tornReads = new AtomicLong();
+   private volatile boolean publishing = true;
+
+   public TestSimOutsBuffer() throws InterruptedException {
+      Thread[] readers = new Thread[READERS];
+      for (int i = 0; i < readers.length; i++) {
+         readers[i] = new Thread(new Runnable() {
+            @Override
+            public void run() {
+               read();
+            }
+         });
+         readers[i].start();
+      }
+
+      double[] simOutValues = new double[SimOuts.values().length];
+      long start = System.nanoTime();
+      for (long version = 1; version <= PUBLICATIONS; version++) {
+         for (int i = 0; i < simOutValues.length; i++) {
+            simOutValues[i] = version;
+         }
+         buffer.publish(simOutValues, version);
+      }
+      double publishTime = (System.nanoTime() - start) / (double) PUBLICATIONS;
+
+      publishing = false;
+      for (Thread reader : readers) {
+         reader.join();
+      }
+
+      System.out.println(PUBLICATIONS + " publications, mean time with the copy of the values: " + publishTime + " ns");
+      System.out.println(reads.get() + " reads by " + READERS + " readers, torn reads: " + tornReads.get());
+      System.out.println("Latest version: " + buffer.getVersion() + ", altitude: " + buffer.get(SimOuts.ALT));
+   }
+
+   private void read() {
+      double[] simOutValues = new double[SimOuts.values().length];
+      while (publishing) {
+         long version = buffer.read(simOutValues);
+         if (version == 0) {
+            continue;
+         }
+
+         reads.incrementAndGet();
+         for (double value : simOutValues) {
+            if (value != version) {
+               tornReads.incrementAndGet();
+               break;
+            }
+         }
+      }
+   }
+
+   public static void main(String[] args) throws InterruptedException {
+      new TestSimOutsBuffer();
+   }
+}
@@ -60,13 +60,11 @@ public class TestStandaloneSimulation4 implements FlightDataListener {
       lwjglRenderer.setSimulationController(controller);
 
       PhysicalFlightControls flightControls = new PhysicalFlightControls(controller);
-      controller.setFlightControls(flightControls.getFlightControls());
-      Thread flightControlsThread = new Thread(flightControls);
+      controller.setPhysicalFlightControls(flightControls);
 
       // start simulation
       TestStandaloneSimulation4 test = new TestStandaloneSimulation4(controller);
       controller.startSimulation();
-      flightControlsThread.start();
       controller.startOTWThread();
    }
 
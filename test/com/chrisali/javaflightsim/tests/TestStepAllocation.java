@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.controllers.SimulationController;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the memory allocated by the steady-state {@link Integrate6DOFEquations#step()} loop, using the per-thread
+ * allocation counter of the HotSpot {@link com.sun.management.ThreadMXBean}. The loop is first warmed up so that
+ * the JIT compiler has compiled the step, then the bytes allocated over a number of steps are measured and
+ * should be 0. The measurement is repeated and the smallest count is kept, so that a late compilation or
+ * a background allocation of the JVM during one of the measurements does not fail the test.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestStepAllocation {
+   private static final int WARMUP_STEPS = 20000;
+   private static final int MEASURED_STEPS = 10000;
+   private static final int MEASUREMENTS = 5;
+
+   public TestStepAllocation(AircraftBuilder ab) {
+      Configuration conf = Configuration.getInstance();
+      conf.setDefaultConfiguration();
+
+      SimulationController simController = new SimulationController();
+      simController.getSimulationOptions().clear();
+      simController.getSimulationOptions().add(Options.ANALYSIS_MODE);
+      simController.setAircraftBuilder(ab);
+
+      Trimming.trimSim(simController, true);
+
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(simController.getControls(), simController);
+
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+
+      for (int i = 0; i < WARMUP_STEPS; i++) {
+         runSim.step();
+      }
+
+      long allocated = Long.MAX_VALUE;
+      for (int measurement = 0; measurement < MEASUREMENTS && allocated != 0; measurement++) {
+         long before = threadBean.getThreadAllocatedBytes(threadId);
+         for (int i = 0; i < MEASURED_STEPS; i++) {
+            runSim.step();
+         }
+         allocated = Math.min(allocated, threadBean.getThreadAllocatedBytes(threadId) - before);
+      }
+
+      System.out.println(ab.getAircraft().getName() + ": " + allocated + " bytes allocated in " + MEASURED_STEPS + " steps ("
+              + ((double) allocated / MEASURED_STEPS) + " bytes/step)");
+
+      if (allocated != 0) {
+         System.err.println("Steady-state step loop allocated memory!");
+      }
+   }
+
+   public static void main(String[] args) {
+      // Default Navion, whose stability derivatives are all constants
+      new TestStepAllocation(new AircraftBuilder());
+   }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimMap;
+import com.chrisali.javaflightsim.simulation.setup.TrimMapGenerator;
+import com.chrisali.javaflightsim.simulation.setup.TrimMapValues;
+import com.chrisali.javaflightsim.simulation.setup.TrimPointStatus;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+
+/**
+ * Generates the {@link TrimMap} of the default Navion over airspeeds, altitudes, weights and flap positions, on one thread and then on
+ * all available processors, and checks that both maps are identical. The boundaries of the envelope are printed, the map is written to
+ * binary and CSV files and read back, and a lookup between the points of the grid is compared to a trim solved at the same condition.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestTrimMapGenerator {
+   private static final double[] AIRSPEEDS = new double[37];
+   private static final double[] ALTITUDES = { 0, 2500, 5000, 7500, 10000, 12500, 15000, 17500, 20000 };
+   private static final double[] WEIGHTS = { 2200, 2600, 3000 };
+   private static final double[] FLAPS = { 0, Math.toRadians(15), Math.toRadians(30) };
+
+   static {
+      for (int i = 0; i < AIRSPEEDS.length; i++) {
+         AIRSPEEDS[i] = 70 + 5 * i;
+      }
+   }
+
+   private static TrimMap generate(int parallelism) {
+      TrimMapGenerator generator = new TrimMapGenerator(null, parallelism);
+      long start = System.nanoTime();
+      TrimMap map = generator.generate(AIRSPEEDS, ALTITUDES, WEIGHTS, FLAPS);
+      double elapsed = (System.nanoTime() - start) / 1e9;
+
+      int[] counts = new int[TrimPointStatus.values().length];
+      for (int f = 0; f < FLAPS.length; f++) {
+         for (int w = 0; w < WEIGHTS.length; w++) {
+            for (int h = 0; h < ALTITUDES.length; h++) {
+               for (int v = 0; v < AIRSPEEDS.length; v++) {
+                  counts[map.getStatus(v, h, w, f).ordinal()]++;
+               }
+            }
+         }
+      }
+
+      System.out.printf("%d threads: %d points in %.3f s (%.1f us per point)", parallelism, map.size(), elapsed, elapsed * 1e6 / map.size());
+      for (TrimPointStatus status : TrimPointStatus.values()) {
+         System.out.print(", " + counts[status.ordinal()] + " " + status);
+      }
+      System.out.println();
+      return map;
+   }
+
+   private static boolean equal(TrimMap map1, TrimMap map2) {
+      for (int f = 0; f < FLAPS.length; f++) {
+         for (int w = 0; w < WEIGHTS.length; w++) {
+            for (int h = 0; h < ALTITUDES.length; h++) {
+               for (int v = 0; v < AIRSPEEDS.length; v++) {
+                  if (map1.getStatus(v, h, w, f) != map2.getStatus(v, h, w, f)) {
+                     return false;
+                  }
+                  for (TrimMapValues trimValue : TrimMapValues.values()) {
+                     if (Double.compare(map1.getValue(trimValue, v, h, w, f), map2.getValue(trimValue, v, h, w, f)) != 0) {
+                        return false;
+                     }
+                  }
+               }
+            }
+         }
+      }
+      return true;
+   }
+
+   private static void printBoundaries(TrimMap map) {
+      System.out.println("==== Trimmed airspeeds (ft/s) ====");
+      for (int f = 0; f < FLAPS.length; f++) {
+         for (int w = 0; w < WEIGHTS.length; w++) {
+            StringBuilder sb = new StringBuilder(String.format("flaps %2.0f deg, %4.0f lbf:", Math.toDegrees(FLAPS[f]), WEIGHTS[w]));
+            for (int h = 0; h < ALTITUDES.length; h++) {
+               sb.append(String.format("  %5.0f-%-5.0f", map.getMinAirspeed(h, w, f), map.getMaxAirspeed(h, w, f)));
+            }
+            System.out.println(sb);
+         }
+      }
+   }
+
+   private static void compareLookup(TrimMap map, double airspeed, double altitude, double weight, double flap) {
+      double[] trimValues = new double[TrimMapValues.values().length];
+      boolean found = map.lookup(airspeed, altitude, weight, flap, trimValues);
+
+      AircraftBuilder ab = new AircraftBuilder();
+      ab.getAircraft().setMassProperty(MassProperties.TOTAL_MASS, weight / Environment.getGravity());
+      EnumMap<FlightControlType, Double> controls = IntegrationSetup.gatherInitialControls(Configuration.getInstance().getInitialControlsConfig());
+      controls.put(FlightControlType.FLAPS, flap);
+      TrimResult result = new TrimSolver(ab).trim(new TrimCondition(airspeed, altitude), controls);
+
+      System.out.printf("%.1f ft/s, %.0f ft, %.0f lbf, %.1f deg of flaps: %s%n", airspeed, altitude, weight, Math.toDegrees(flap),
+              found ? "in the envelope" : "out of the envelope");
+      System.out.printf("   lookup: alpha %.4f deg, theta %.4f deg, elevator %.4f deg, throttle %.4f%n",
+              Math.toDegrees(trimValues[TrimMapValues.ALPHA.ordinal()]), Math.toDegrees(trimValues[TrimMapValues.THETA.ordinal()]),
+              Math.toDegrees(trimValues[TrimMapValues.ELEVATOR.ordinal()]), trimValues[TrimMapValues.THROTTLE.ordinal()]);
+      System.out.printf("   solver: alpha %.4f deg, theta %.4f deg, elevator %.4f deg, throttle %.4f (%s)%n",
+              Math.toDegrees(result.getAlpha()), Math.toDegrees(result.getTheta()), Math.toDegrees(result.getElevator()),
+              result.getThrottle(), result.isConverged() ? "converged" : "not converged");
+   }
+
+   public static void main(String[] args) throws IOException {
+      Configuration.getInstance().setDefaultConfiguration();
+
+      TrimMap sequentialMap = generate(1);
+      TrimMap parallelMap = generate(Runtime.getRuntime().availableProcessors());
+      System.out.println("Sequential and parallel maps identical: " + equal(sequentialMap, parallelMap));
+      printBoundaries(parallelMap);
+
+      File binaryFile = File.createTempFile("TrimMap", ".bin");
+      File csvFile = File.createTempFile("TrimMap", ".csv");
+      binaryFile.deleteOnExit();
+      csvFile.deleteOnExit();
+      parallelMap.write(binaryFile);
+      parallelMap.writeCSV(csvFile);
+      TrimMap readMap = TrimMap.read(binaryFile);
+      System.out.println("==== Files ====");
+      System.out.println("binary: " + binaryFile.length() + " bytes, CSV: " + csvFile.length() + " bytes, read back identical: "
+              + equal(parallelMap, readMap));
+
+      System.out.println("==== Lookups ====");
+      compareLookup(readMap, 182.5, 6250, 2400, Math.toRadians(7.5));
+      compareLookup(readMap, 120, 1000, 2750, 0);
+      compareLookup(readMap, 75, 0, 3000, 0);
+
+      int lookups = 1000000;
+      double[] trimValues = new double[TrimMapValues.values().length];
+      double sum = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < lookups; i++) {
+         if (readMap.lookup(150 + (i % 100), (i % 200) * 50, 2600, 0, trimValues)) {
+            sum += trimValues[TrimMapValues.THETA.ordinal()];
+         }
+      }
+      System.out.printf("%.1f ns per lookup (%.3f)%n", (System.nanoTime() - start) / (double) lookups, sum);
+   }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.conf.Configuration;
+import com.chrisali.javaflightsim.simulation.aircraft.AircraftBuilder;
+import com.chrisali.javaflightsim.simulation.controls.FlightControlType;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegrationSetup;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.TrimCondition;
+import com.chrisali.javaflightsim.simulation.setup.TrimResult;
+import com.chrisali.javaflightsim.simulation.setup.TrimSolver;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Trims the default Navion with a {@link TrimSolver} for level flight, a climb, a coordinated turn and a steady sideslip, then flies each
+ * trimmed state for 20 seconds: the airspeed, flight path angle, turn rate and sideslip must be held. The time of a sweep of trims
+ * over airspeeds and altitudes is then printed, with and without the reuse of the last solution and Jacobian; the fastest airspeeds
+ * of the sweep need more than the full throttle, and cannot be trimmed.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestTrimSolver {
+   private static final double DURATION = 20;
+
+   private final AircraftBuilder ab = new AircraftBuilder();
+   private final TrimSolver solver = new TrimSolver(ab);
+   private final EnumMap<FlightControlType, Double> controls;
+   private final EnumMap<InitialConditions, Double> initialConditions;
+   private final EnumMap<IntegratorConfig, Double> integratorConfig;
+
+   private TestTrimSolver() {
+      Configuration conf = Configuration.getInstance();
+      controls = IntegrationSetup.gatherInitialControls(conf.getInitialControlsConfig());
+      initialConditions = IntegrationSetup.gatherInitialConditions(conf.getInitialConditionsConfig());
+      integratorConfig = IntegrationSetup.gatherIntegratorConfig(conf.getIntegratorConfig());
+   }
+
+   private void trimAndFly(String name, TrimCondition condition) {
+      solver.reset();
+      TrimResult result = solver.trim(condition, controls);
+
+      System.out.println("==== " + name + " ====");
+      System.out.println(result);
+
+      EnumMap<InitialConditions, Double> trimmedConditions = new EnumMap<>(initialConditions);
+      EnumMap<FlightControlType, Double> trimmedControls = new EnumMap<>(controls);
+      result.apply(trimmedConditions, trimmedControls);
+
+      EnumMap<IntegratorConfig, Double> config = new EnumMap<>(integratorConfig);
+      config.put(IntegratorConfig.STARTTIME, 0.0);
+      config.put(IntegratorConfig.ENDTIME, DURATION);
+      Integrate6DOFEquations runSim = new Integrate6DOFEquations(trimmedControls, new AircraftBuilder(), EnumSet.of(Options.ANALYSIS_MODE),
+              trimmedConditions, config, 1);
+      int steps = (int) Math.round(DURATION / config.get(IntegratorConfig.DT));
+      for (int i = 0; i < steps; i++) {
+         runSim.onFrame(i);
+      }
+
+      Map<SimOuts, Double> simOut = runSim.getSimOut();
+      System.out.printf("after %.0f s: TAS %.3f ft/s, climb %.3f ft/min, psi dot %.4f deg/s, beta %.4f deg, phi %.3f deg%n%n", DURATION,
+              simOut.get(SimOuts.TAS), simOut.get(SimOuts.ALT_DOT), Math.toDegrees(simOut.get(SimOuts.PSI_DOT)),
+              Math.toDegrees(simOut.get(SimOuts.BETA)), Math.toDegrees(simOut.get(SimOuts.PHI)));
+   }
+
+   private void sweep(boolean reuse) {
+      int trims = 0, iterations = 0, evaluations = 0, failures = 0;
+      long start = System.nanoTime();
+      solver.reset();
+      for (double altitude = 0; altitude <= 10000; altitude += 500) {
+         for (double airspeed = 150; airspeed <= 250; airspeed += 5) {
+            if (!reuse) {
+               solver.reset();
+            }
+            TrimResult result = solver.trim(new TrimCondition(airspeed, altitude), controls);
+            trims++;
+            if (result.isConverged()) {
+               iterations += result.getIterations();
+               evaluations += result.getEvaluations();
+            } else {
+               failures++;
+            }
+         }
+      }
+      double elapsed = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf("%-16s %d trims in %.3f s (%.1f us per trim), %.2f iterations and %.1f evaluations per converged trim,"
+              + " %d out of the envelope%n", reuse ? "with reuse:" : "without reuse:", trims, elapsed, elapsed * 1e6 / trims,
+              (double) iterations / (trims - failures), (double) evaluations / (trims - failures), failures);
+   }
+
+   public static void main(String[] args) {
+      Configuration.getInstance().setDefaultConfiguration();
+      TestTrimSolver test = new TestTrimSolver();
+
+      test.trimAndFly("Level flight", new TrimCondition(180, 5000));
+
+      TrimCondition climb = new TrimCondition(150, 5000);
+      climb.setFlightPathAngle(Math.toRadians(3));
+      test.trimAndFly("Climb at 3 deg", climb);
+
+      TrimCondition turn = new TrimCondition(180, 5000);
+      turn.setTurnRate(Math.toRadians(3));
+      test.trimAndFly("Coordinated turn at 3 deg/s", turn);
+
+      TrimCondition sideslip = new TrimCondition(180, 5000);
+      sideslip.setSideslip(Math.toRadians(3));
+      test.trimAndFly("Sideslip at 3 deg", sideslip);
+
+      System.out.println("==== Sweep ====");
+      for (int i = 0; i < 3; i++) {
+         test.sweep(false);
+         test.sweep(true);
+      }
+   }
+}
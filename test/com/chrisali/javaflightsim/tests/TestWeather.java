@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016, 2017 Chris Ali. All rights reserved.
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+You should have received a copy of the GNU General Public License along with this program;
+if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+
+ If you have any questions about this project, you can visit
+ the project website at the project page on http://github.com/chris-ali/j6dof-flight-sim/
+ */
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.enviroment.Gust;
+import com.chrisali.javaflightsim.simulation.enviroment.TurbulenceIntensity;
+import com.chrisali.javaflightsim.simulation.enviroment.Weather;
+
+/**
+ * Exercises the {@link Weather}: the steady wind between layers, the standard deviations of the turbulence compared to those of the
+ * Dryden model at several altitudes and step sizes, the reproducibility of the turbulence for a seed, a discrete gust, and the time
+ * of a step of many weathers.
+ *
+ * @author Herve Girod
+ * @version 0.5
+ */
+public class TestWeather {
+   private static final double AIRSPEED = 180;
+   private static final double DURATION = 2000;
+
+   private final double[] values = new double[EnvironmentParameters.values().length];
+
+   private void windLayers() {
+      Weather weather = new Weather();
+      weather.addWindLayer(0, 10, 270);
+      weather.addWindLayer(3000, 30, 300);
+      weather.addWindLayer(10000, 50, 0);
+
+      System.out.println("==== Wind layers ====");
+      for (double altitude : new double[] { -100, 0, 1500, 3000, 6500, 10000, 20000 }) {
+         weather.update(altitude, values);
+         System.out.printf("%6.0f ft: N %7.2f ft/s, E %7.2f ft/s%n", altitude, values[EnvironmentParameters.WIND_SPEED_N.ordinal()],
+                 values[EnvironmentParameters.WIND_SPEED_E.ordinal()]);
+      }
+      System.out.println();
+   }
+
+   private void turbulence(double altitude, double dt) {
+      Weather weather = new Weather(1);
+      weather.setTurbulenceIntensity(TurbulenceIntensity.MODERATE);
+
+      int steps = (int) Math.round(DURATION / dt);
+      double sumN = 0, sumE = 0, sumD = 0;
+      for (int i = 0; i < steps; i++) {
+         weather.advance(dt, AIRSPEED, altitude, 0);
+         weather.update(altitude, values);
+         sumN += values[EnvironmentParameters.GUST_SPEED_N.ordinal()] * values[EnvironmentParameters.GUST_SPEED_N.ordinal()];
+         sumE += values[EnvironmentParameters.GUST_SPEED_E.ordinal()] * values[EnvironmentParameters.GUST_SPEED_E.ordinal()];
+         sumD += values[EnvironmentParameters.GUST_SPEED_D.ordinal()] * values[EnvironmentParameters.GUST_SPEED_D.ordinal()];
+      }
+
+      System.out.printf("%6.0f ft, dt %.3f s: sigma u %5.2f (%5.2f), v %5.2f (%5.2f), w %5.2f (%5.2f) ft/s%n", altitude, dt,
+              Math.sqrt(sumN / steps), weather.getTurbulence().getSigmaU(), Math.sqrt(sumE / steps), weather.getTurbulence().getSigmaU(),
+              Math.sqrt(sumD / steps), weather.getTurbulence().getSigmaW());
+   }
+
+   private void reproducibility() {
+      Weather first = new Weather(42);
+      Weather second = new Weather(42);
+      Weather other = new Weather(43);
+      for (Weather weather : new Weather[] { first, second, other }) {
+         weather.setTurbulenceIntensity(TurbulenceIntensity.SEVERE);
+      }
+
+      double[] otherValues = new double[values.length];
+      boolean identical = true;
+      double difference = 0;
+      for (int i = 0; i < 10000; i++) {
+         first.advance(0.01, AIRSPEED, 500, 1);
+         second.advance(0.01, AIRSPEED, 500, 1);
+         other.advance(0.01, AIRSPEED, 500, 1);
+         first.update(500, values);
+         second.update(500, otherValues);
+         identical &= values[EnvironmentParameters.GUST_SPEED_D.ordinal()] == otherValues[EnvironmentParameters.GUST_SPEED_D.ordinal()];
+         other.update(500, otherValues);
+         difference = Math.max(difference, Math.abs(values[EnvironmentParameters.GUST_SPEED_D.ordinal()]
+                 - otherValues[EnvironmentParameters.GUST_SPEED_D.ordinal()]));
+      }
+
+      first.reset();
+      first.advance(0.01, AIRSPEED, 500, 1);
+      first.update(500, values);
+      Weather restarted = new Weather(42);
+      restarted.setTurbulenceIntensity(TurbulenceIntensity.SEVERE);
+      restarted.advance(0.01, AIRSPEED, 500, 1);
+      restarted.update(500, otherValues);
+
+      System.out.println("==== Reproducibility ====");
+      System.out.println("same seed identical: " + identical);
+      System.out.println("identical after reset: "
+              + (values[EnvironmentParameters.GUST_SPEED_D.ordinal()] == otherValues[EnvironmentParameters.GUST_SPEED_D.ordinal()]));
+      System.out.printf("largest difference with another seed: %.2f ft/s%n", difference);
+      System.out.println();
+   }
+
+   private void gust() {
+      Weather weather = new Weather();
+      weather.addGust(new Gust(1, 2, 0, 0, -20));
+
+      System.out.println("==== Gust ====");
+      for (int i = 0; i < 16; i++) {
+         weather.advance(0.25, AIRSPEED, 1000, 0);
+         weather.update(1000, values);
+         System.out.printf("%5.2f s: D %7.2f ft/s%n", weather.getTime(), values[EnvironmentParameters.GUST_SPEED_D.ordinal()]);
+      }
+      System.out.println();
+   }
+
+   private void time() {
+      Weather[] weathers = new Weather[500];
+      for (int i = 0; i < weathers.length; i++) {
+         weathers[i] = new Weather(i);
+         weathers[i].addWindLayer(0, 10, 270);
+         weathers[i].addWindLayer(10000, 50, 0);
+         weathers[i].setTurbulenceIntensity(TurbulenceIntensity.LIGHT);
+      }
+
+      System.out.println("==== Time of a step of " + weathers.length + " weathers ====");
+      double sum = 0;
+      for (int run = 0; run < 5; run++) {
+         long start = System.nanoTime();
+         for (int step = 0; step < 1000; step++) {
+            for (Weather weather : weathers) {
+               weather.advance(0.01, AIRSPEED, 3000, 0);
+               sum += weather.update(3000, values)[EnvironmentParameters.GUST_SPEED_D.ordinal()];
+            }
+         }
+         System.out.printf("run %d: %6.1f ns per weather%n", run, (double) (System.nanoTime() - start) / (1000 * weathers.length));
+      }
+      System.out.println("(checksum " + sum + ")");
+   }
+
+   public static void main(String[] args) {
+      TestWeather test = new TestWeather();
+      test.windLayers();
+
+      System.out.println("==== Turbulence: sigma measured (Dryden) ====");
+      for (double altitude : new double[] { 100, 500, 1500, 5000 }) {
+         for (double dt : new double[] { 0.01, 0.05 }) {
+            test.turbulence(altitude, dt);
+         }
+      }
+      System.out.println();
+
+      test.reproducibility();
+      test.gust();
+      test.time();
+   }
+}